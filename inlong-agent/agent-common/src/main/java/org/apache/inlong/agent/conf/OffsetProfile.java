@@ -85,6 +85,14 @@ public class OffsetProfile extends AbstractConfiguration {
         setLong(TaskConstants.OFFSET, offset);
     }
 
+    public boolean isOffsetInBytes() {
+        return getBoolean(TaskConstants.OFFSET_IN_BYTES, false);
+    }
+
+    public void setOffsetInBytes(boolean offsetInBytes) {
+        setBoolean(TaskConstants.OFFSET_IN_BYTES, offsetInBytes);
+    }
+
     public String getInodeInfo() {
         return get(TaskConstants.INODE_INFO);
     }
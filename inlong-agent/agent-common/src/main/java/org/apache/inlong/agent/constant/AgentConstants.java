@@ -47,6 +47,13 @@ public class AgentConstants {
     public static final String AGENT_LOCAL_DB_PATH_TASK = ".localdb/task";
     public static final String AGENT_LOCAL_DB_PATH_INSTANCE = ".localdb/instance";
     public static final String AGENT_LOCAL_DB_PATH_OFFSET = ".localdb/offset";
+    // the offsets are coalesced in memory and flushed in a batch by the interval or the count
+    public static final String AGENT_OFFSET_FLUSH_INTERVAL_MS = "agent.offset.flush.interval.ms";
+    public static final long DEFAULT_AGENT_OFFSET_FLUSH_INTERVAL_MS = 1000L;
+    public static final String AGENT_OFFSET_FLUSH_BATCH_SIZE = "agent.offset.flush.batch.size";
+    public static final int DEFAULT_AGENT_OFFSET_FLUSH_BATCH_SIZE = 1000;
+    public static final String AGENT_OFFSET_FLUSH_SYNC = "agent.offset.flush.sync";
+    public static final boolean DEFAULT_AGENT_OFFSET_FLUSH_SYNC = false;
 
     public static final String AGENT_UNIQ_ID = "agent.uniq.id";
     public static final String AGENT_DB_INSTANCE_NAME = "agent.db.instance.name";
@@ -58,6 +58,8 @@ public class TaskConstants extends CommonConstants {
     public static final String JOB_MQ_TOPIC = "job.topicInfo";
     public static final String OFFSET = "offset";
     public static final Long DEFAULT_OFFSET = -1L;
+    // whether the offset is a byte offset, the former file offsets are line numbers
+    public static final String OFFSET_IN_BYTES = "offsetInBytes";
     public static final String INODE_INFO = "inodeInfo";
 
     // File job
@@ -59,6 +59,15 @@ public interface Db extends Closeable {
      */
     KeyValueEntity put(KeyValueEntity entity);
 
+    /**
+     * store keyValue list in one atomic batch, if key has exists, overwrite it.
+     *
+     * @param entities key/value list
+     * @param sync whether sync the batch to the disk before return
+     * @throws NullPointerException key should not be null.
+     */
+    void putAll(List<KeyValueEntity> entities, boolean sync);
+
     /**
      * remove keyValue by key.
      *
@@ -17,6 +17,7 @@
 
 package org.apache.inlong.agent.db;
 
+import org.apache.inlong.agent.common.AgentThreadFactory;
 import org.apache.inlong.agent.conf.AgentConfiguration;
 import org.apache.inlong.agent.conf.OffsetProfile;
 import org.apache.inlong.agent.constant.AgentConstants;
@@ -27,18 +28,50 @@ import org.apache.inlong.agent.utils.AgentUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * db interface for task profile.
+ * The latest offset of each instance is kept in memory and the offsets are flushed to the db in
+ * one batch by the flush interval, or once the count of the pending offsets reaches the batch
+ * size, the offset read after a restart is the last flushed one.
  */
 public class OffsetDb {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(OffsetDb.class);
     private final Db db;
     private final AgentConfiguration agentConf;
+    private final Map<String, OffsetProfile> pendingOffsets = new ConcurrentHashMap<>();
+    private final Object flushSignal = new Object();
+    private final Object flushLock = new Object();
+    private final long flushInterval;
+    private final int flushBatchSize;
+    private final boolean flushSync;
+    private final Thread flushThread;
+    private volatile boolean running = true;
 
     public OffsetDb() {
+        this(AgentConfiguration.getAgentConf().get(AgentConstants.AGENT_ROCKS_DB_PATH,
+                AgentConstants.AGENT_LOCAL_DB_PATH_OFFSET));
+    }
+
+    public OffsetDb(String childPath) {
         agentConf = AgentConfiguration.getAgentConf();
-        db = initDb(agentConf.get(AgentConstants.AGENT_ROCKS_DB_PATH, AgentConstants.AGENT_LOCAL_DB_PATH_OFFSET));
+        db = initDb(childPath);
+        flushInterval = agentConf.getLong(AgentConstants.AGENT_OFFSET_FLUSH_INTERVAL_MS,
+                AgentConstants.DEFAULT_AGENT_OFFSET_FLUSH_INTERVAL_MS);
+        flushBatchSize = agentConf.getInt(AgentConstants.AGENT_OFFSET_FLUSH_BATCH_SIZE,
+                AgentConstants.DEFAULT_AGENT_OFFSET_FLUSH_BATCH_SIZE);
+        flushSync = agentConf.getBoolean(AgentConstants.AGENT_OFFSET_FLUSH_SYNC,
+                AgentConstants.DEFAULT_AGENT_OFFSET_FLUSH_SYNC);
+        flushThread = new AgentThreadFactory("offset-flush").newThread(this::runFlush);
+        flushThread.setDaemon(true);
+        flushThread.start();
     }
 
     /**
@@ -55,7 +88,12 @@ public class OffsetDb {
     }
 
     public OffsetProfile getOffset(String taskId, String instanceId) {
-        KeyValueEntity result = db.get(getKey(taskId, instanceId));
+        String keyName = getKey(taskId, instanceId);
+        OffsetProfile pending = pendingOffsets.get(keyName);
+        if (pending != null) {
+            return pending;
+        }
+        KeyValueEntity result = db.get(keyName);
         if (result == null) {
             return null;
         }
@@ -63,7 +101,12 @@ public class OffsetDb {
     }
 
     public void deleteOffset(String taskId, String instanceId) {
-        db.remove(getKey(taskId, instanceId));
+        String keyName = getKey(taskId, instanceId);
+        // not to race with a flush writing the pending offset back
+        synchronized (flushLock) {
+            pendingOffsets.remove(keyName);
+            db.remove(keyName);
+        }
     }
 
     public void setOffset(OffsetProfile offsetProfile) {
@@ -71,9 +114,77 @@ public class OffsetDb {
         if (offsetProfile.allRequiredKeyExist()) {
             String keyName = getKey(offsetProfile.getTaskId(),
                     offsetProfile.getInstanceId());
-            KeyValueEntity entity = new KeyValueEntity(keyName,
-                    offsetProfile.toJsonStr(), offsetProfile.get(TaskConstants.INSTANCE_ID));
-            db.put(entity);
+            pendingOffsets.put(keyName, offsetProfile);
+            if (pendingOffsets.size() >= flushBatchSize) {
+                synchronized (flushSignal) {
+                    flushSignal.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * flush the pending offsets to the db in one batch
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            if (pendingOffsets.isEmpty()) {
+                return;
+            }
+            Map<String, OffsetProfile> flushed = new HashMap<>(pendingOffsets);
+            List<KeyValueEntity> entities = new ArrayList<>(flushed.size());
+            flushed.forEach((keyName, offsetProfile) -> entities.add(new KeyValueEntity(keyName,
+                    offsetProfile.toJsonStr(), offsetProfile.get(TaskConstants.INSTANCE_ID))));
+            db.putAll(entities, flushSync);
+            // keep the offsets updated during the flush pending
+            flushed.forEach(pendingOffsets::remove);
+        }
+    }
+
+    Db getDb() {
+        return db;
+    }
+
+    /**
+     * get the count of the offsets not flushed yet
+     */
+    int getPendingCount() {
+        return pendingOffsets.size();
+    }
+
+    /**
+     * stop the flush thread, flush the pending offsets and close the db
+     */
+    public void close() throws IOException {
+        running = false;
+        synchronized (flushSignal) {
+            flushSignal.notifyAll();
+        }
+        try {
+            flushThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        db.close();
+    }
+
+    private void runFlush() {
+        while (running) {
+            try {
+                synchronized (flushSignal) {
+                    if (running && pendingOffsets.size() < flushBatchSize) {
+                        flushSignal.wait(flushInterval);
+                    }
+                }
+                flush();
+            } catch (InterruptedException e) {
+                LOGGER.info("offset flush thread is interrupted");
+                return;
+            } catch (Throwable t) {
+                LOGGER.error("flush offsets error, retry by the next interval", t);
+                AgentUtils.silenceSleepInMs(flushInterval);
+            }
         }
     }
 
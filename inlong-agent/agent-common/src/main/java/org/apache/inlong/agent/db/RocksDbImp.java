@@ -32,6 +32,8 @@ import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
 import org.rocksdb.RocksIterator;
 import org.rocksdb.Statistics;
+import org.rocksdb.WriteBatch;
+import org.rocksdb.WriteOptions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -61,6 +63,7 @@ public class RocksDbImp implements Db {
     private ConcurrentHashMap<String, ColumnFamilyHandle> columnHandlesMap;
     private ConcurrentHashMap<String, ColumnFamilyDescriptor> columnDescriptorMap;
     private String storePath;
+    private Statistics statistics;
 
     public RocksDbImp(String childPath) {
         // init rocks db
@@ -89,8 +92,9 @@ public class RocksDbImp implements Db {
             columnHandlesMap = new ConcurrentHashMap<>();
             columnDescriptorMap = new ConcurrentHashMap<>();
 
+            statistics = new Statistics();
             final DBOptions dbOptions = new DBOptions().setCreateIfMissing(true).setCreateMissingColumnFamilies(true)
-                    .setWalDir(finalPath.getAbsolutePath()).setStatistics(new Statistics());
+                    .setWalDir(finalPath.getAbsolutePath()).setStatistics(statistics);
 
             final List<ColumnFamilyDescriptor> managedColumnFamilies = loadManagedColumnFamilies(dbOptions);
             final List<ColumnFamilyHandle> managedHandles = new ArrayList<>();
@@ -185,6 +189,28 @@ public class RocksDbImp implements Db {
         return entity;
     }
 
+    @Override
+    public void putAll(List<KeyValueEntity> entities, boolean sync) {
+        requireNonNull(entities);
+        ColumnFamilyHandle handle = columnHandlesMap.get(defaultFamilyName);
+        try (WriteBatch batch = new WriteBatch();
+                WriteOptions writeOptions = new WriteOptions().setSync(sync)) {
+            for (KeyValueEntity entity : entities) {
+                batch.put(handle, entity.getKey().getBytes(), GSON.toJson(entity).getBytes());
+            }
+            db.write(writeOptions, batch);
+        } catch (Exception e) {
+            throw new RuntimeException("put values to rocks db error", e);
+        }
+    }
+
+    /**
+     * get the statistics of the rocks db
+     */
+    public Statistics getStatistics() {
+        return statistics;
+    }
+
     @Override
     public KeyValueEntity remove(String key) {
         requireNonNull(key);
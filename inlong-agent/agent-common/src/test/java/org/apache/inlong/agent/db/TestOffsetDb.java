@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.agent.db;
+
+import org.apache.inlong.agent.AgentBaseTestsHelper;
+import org.apache.inlong.agent.conf.AgentConfiguration;
+import org.apache.inlong.agent.conf.OffsetProfile;
+import org.apache.inlong.agent.constant.AgentConstants;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class TestOffsetDb {
+
+    private static AgentBaseTestsHelper helper;
+
+    @BeforeClass
+    public static void setup() {
+        helper = new AgentBaseTestsHelper(TestOffsetDb.class.getName()).setupAgentHome();
+        // flush by the count or by hand only
+        AgentConfiguration.getAgentConf().setLong(AgentConstants.AGENT_OFFSET_FLUSH_INTERVAL_MS, 3600000L);
+        AgentConfiguration.getAgentConf().setInt(AgentConstants.AGENT_OFFSET_FLUSH_BATCH_SIZE, 10);
+    }
+
+    @AfterClass
+    public static void teardown() {
+        AgentConfiguration.getAgentConf().setLong(AgentConstants.AGENT_OFFSET_FLUSH_INTERVAL_MS,
+                AgentConstants.DEFAULT_AGENT_OFFSET_FLUSH_INTERVAL_MS);
+        AgentConfiguration.getAgentConf().setInt(AgentConstants.AGENT_OFFSET_FLUSH_BATCH_SIZE,
+                AgentConstants.DEFAULT_AGENT_OFFSET_FLUSH_BATCH_SIZE);
+        helper.teardownAgentHome();
+    }
+
+    @Test
+    public void testRecoverFlushedOffset() throws Exception {
+        OffsetDb offsetDb = new OffsetDb("/localdb/recover");
+        for (long offset = 1; offset <= 100; offset++) {
+            offsetDb.setOffset(new OffsetProfile("task1", "file1", offset, "inode1"));
+        }
+        // the pending offset is read before flushed
+        Assert.assertEquals(100L, offsetDb.getOffset("task1", "file1").getOffset().longValue());
+        offsetDb.flush();
+        offsetDb.setOffset(new OffsetProfile("task1", "file2", 200, "inode2"));
+        offsetDb.close();
+
+        offsetDb = new OffsetDb("/localdb/recover");
+        Assert.assertEquals(100L, offsetDb.getOffset("task1", "file1").getOffset().longValue());
+        Assert.assertEquals(200L, offsetDb.getOffset("task1", "file2").getOffset().longValue());
+        Assert.assertEquals("inode2", offsetDb.getOffset("task1", "file2").getInodeInfo());
+        offsetDb.setOffset(new OffsetProfile("task1", "file1", 101, "inode1"));
+        offsetDb.deleteOffset("task1", "file1");
+        Assert.assertNull(offsetDb.getOffset("task1", "file1"));
+        offsetDb.close();
+
+        offsetDb = new OffsetDb("/localdb/recover");
+        Assert.assertNull(offsetDb.getOffset("task1", "file1"));
+        offsetDb.close();
+    }
+
+    @Test
+    public void testFlushByBatchSize() throws Exception {
+        OffsetDb offsetDb = new OffsetDb("/localdb/batch");
+        for (int i = 0; i < 10; i++) {
+            offsetDb.setOffset(new OffsetProfile("task2", "file" + i, i, "inode" + i));
+        }
+        long deadline = System.currentTimeMillis() + 10000L;
+        while (offsetDb.getPendingCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(0, offsetDb.getPendingCount());
+        Assert.assertEquals(9L, offsetDb.getOffset("task2", "file9").getOffset().longValue());
+        offsetDb.close();
+    }
+}
@@ -73,6 +73,8 @@ public class TestAgentMetrics {
             LOGGER.info(item.snapshot().toString());
         }
         Assert.assertEquals(items.size(), 2);
+        // the items with gauges stay in the set, not to report them to the listeners of other tests
+        MetricRegister.unregister(metricItemSet);
     }
 
     @Test
@@ -146,6 +146,8 @@ public class AgentManager extends AbstractDaemon {
         // TODO: change job state which is in running state.
         LOGGER.info("stopping agent manager");
         taskManager.stop();
+        LOGGER.info("flushing the offsets");
+        OffsetManager.getInstance().flush();
         heartbeatManager.stop();
         agentConfMonitor.shutdown();
     }
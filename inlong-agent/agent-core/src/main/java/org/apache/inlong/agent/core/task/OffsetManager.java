@@ -72,4 +72,11 @@ public class OffsetManager {
     public OffsetProfile getOffset(String taskId, String instanceId) {
         return offsetDb.getOffset(taskId, instanceId);
     }
+
+    /**
+     * flush the pending offsets to db, called when the agent stops
+     */
+    public void flush() {
+        offsetDb.flush();
+    }
 }
@@ -271,6 +271,8 @@ public class ProxySink extends AbstractSink {
                     profile.getInstanceId());
             OffsetProfile offsetProfile = new OffsetProfile(profile.getTaskId(), profile.getInstanceId(),
                     info.getOffset(), profile.get(INODE_INFO));
+            // the log file source acks the byte offsets following the lines
+            offsetProfile.setOffsetInBytes(true);
             offsetManager.setOffset(offsetProfile);
         }
         packageAckInfoLock.writeLock().unlock();
@@ -32,11 +32,12 @@ import org.apache.inlong.agent.plugin.Message;
 import org.apache.inlong.agent.plugin.file.Reader;
 import org.apache.inlong.agent.plugin.sources.file.AbstractSource;
 import org.apache.inlong.agent.plugin.sources.reader.file.KubernetesMetadataProvider;
+import org.apache.inlong.agent.plugin.utils.file.BulkLineReader;
 import org.apache.inlong.agent.plugin.utils.file.FileDataUtils;
+import org.apache.inlong.agent.plugin.utils.file.MetadataTemplate;
 import org.apache.inlong.agent.utils.AgentUtils;
 import org.apache.inlong.agent.utils.DateTransUtils;
 
-import com.google.gson.Gson;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -44,18 +45,14 @@ import org.apache.commons.codec.digest.DigestUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
-import java.io.LineNumberReader;
 import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -74,8 +71,6 @@ import static org.apache.inlong.agent.constant.CommonConstants.PROXY_SEND_PARTIT
 import static org.apache.inlong.agent.constant.FetcherConstants.AGENT_GLOBAL_READER_QUEUE_PERMIT;
 import static org.apache.inlong.agent.constant.FetcherConstants.AGENT_GLOBAL_READER_SOURCE_PERMIT;
 import static org.apache.inlong.agent.constant.KubernetesConstants.KUBERNETES;
-import static org.apache.inlong.agent.constant.MetadataConstants.DATA_CONTENT;
-import static org.apache.inlong.agent.constant.MetadataConstants.DATA_CONTENT_TIME;
 import static org.apache.inlong.agent.constant.MetadataConstants.ENV_CVM;
 import static org.apache.inlong.agent.constant.MetadataConstants.METADATA_FILE_NAME;
 import static org.apache.inlong.agent.constant.MetadataConstants.METADATA_HOST_NAME;
@@ -94,7 +89,7 @@ public class LogFileSource extends AbstractSource {
     @NoArgsConstructor
     private class SourceData {
 
-        private String data;
+        private byte[] data;
         private Long offset;
     }
 
@@ -112,21 +107,21 @@ public class LogFileSource extends AbstractSource {
     private final Integer EMPTY_CHECK_COUNT_AT_LEAST = 30;
     private final Long INODE_UPDATE_INTERVAL_MS = 1000L;
     private final Integer READ_WAIT_TIMEOUT_MS = 10;
-    private final SimpleDateFormat RECORD_TIME_FORMAT = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
     public InstanceProfile profile;
     private String taskId;
     private String instanceId;
     private int maxPackSize;
     private String fileName;
     private File file;
-    private byte[] bufferToReadFile;
+    private BulkLineReader lineReader;
     public volatile long linePosition = 0;
     public volatile long bytePosition = 0;
     private boolean needMetadata = false;
-    public Map<String, String> metadata;
+    public Map<String, String> metadata = new HashMap<>();
+    private MetadataTemplate metadataTemplate;
+    private String proxyPartitionKey;
     private boolean isIncrement = false;
     private BlockingQueue<SourceData> queue;
-    private final Gson GSON = new Gson();
     private volatile boolean runnable = true;
     private volatile boolean fileExist = true;
     private String inodeInfo;
@@ -149,13 +144,13 @@ public class LogFileSource extends AbstractSource {
             instanceId = profile.getInstanceId();
             fileName = profile.getInstanceId();
             maxPackSize = profile.getInt(PROXY_PACKAGE_MAX_SIZE, DEFAULT_PROXY_PACKAGE_MAX_SIZE);
-            bufferToReadFile = new byte[SIZE_OF_BUFFER_TO_READ_FILE];
+            proxyPartitionKey = profile.get(PROXY_SEND_PARTITION_KEY, DigestUtils.md5Hex(inlongGroupId));
+            lineReader = new BulkLineReader(SIZE_OF_BUFFER_TO_READ_FILE, maxPackSize);
             isIncrement = isIncrement(profile);
             file = new File(fileName);
             inodeInfo = profile.get(TaskConstants.INODE_INFO);
             lastInodeUpdateTime = AgentUtils.getCurrentTime();
-            linePosition = getInitLineOffset(isIncrement, taskId, instanceId, inodeInfo);
-            bytePosition = getBytePositionByLine(linePosition);
+            bytePosition = getInitBytePosition(isIncrement, taskId, instanceId, inodeInfo);
             queue = new LinkedBlockingQueue<>(CACHE_QUEUE_SIZE);
             dataTime = DateTransUtils.timeStrConvertToMillSec(profile.getSourceDataTime(),
                     profile.get(TASK_CYCLE_UNIT));
@@ -171,38 +166,37 @@ public class LogFileSource extends AbstractSource {
         }
     }
 
-    private int getRealLineCount(String fileName) {
-        try (LineNumberReader lineNumberReader = new LineNumberReader(new FileReader(instanceId))) {
-            lineNumberReader.skip(Long.MAX_VALUE);
-            return lineNumberReader.getLineNumber();
-        } catch (IOException ex) {
-            LOGGER.error("getRealLineCount error {} file {}", ex.getMessage(), fileName);
-            return 0;
-        }
-    }
-
-    private long getInitLineOffset(boolean isIncrement, String taskId, String instanceId, String inodeInfo) {
+    private long getInitBytePosition(boolean isIncrement, String taskId, String instanceId, String inodeInfo)
+            throws IOException {
         OffsetProfile offsetProfile = OffsetManager.getInstance().getOffset(taskId, instanceId);
-        int fileLineCount = getRealLineCount(instanceId);
         long offset = 0;
-        if (offsetProfile != null && offsetProfile.getInodeInfo().compareTo(inodeInfo) == 0) {
-            offset = offsetProfile.getOffset();
-            if (fileLineCount < offset) {
-                LOGGER.info("getInitLineOffset inode no change taskId {} file rotate, offset set to 0, file {}", taskId,
-                        fileName);
-                offset = 0;
-            } else {
-                LOGGER.info("getInitLineOffset inode no change taskId {} from db {}, file {}", taskId, offset,
-                        fileName);
-            }
-        } else {
-            if (isIncrement) {
-                offset = getRealLineCount(instanceId);
-                LOGGER.info("getInitLineOffset taskId {} for new increment read from {} file {}", taskId,
-                        offset, fileName);
+        try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+            FileChannel channel = input.getChannel();
+            if (offsetProfile != null && offsetProfile.getInodeInfo().compareTo(inodeInfo) == 0) {
+                offset = offsetProfile.getOffset();
+                if (!offsetProfile.isOffsetInBytes()) {
+                    // the offset saved by the former versions is a line number
+                    offset = lineReader.getPositionByLine(channel, offset);
+                    LOGGER.info("getInitBytePosition taskId {} line offset {} to byte offset {}, file {}",
+                            taskId, offsetProfile.getOffset(), offset, fileName);
+                }
+                if (offset < 0 || channel.size() < offset) {
+                    LOGGER.info("getInitBytePosition inode no change taskId {} file rotate, offset set to 0, file {}",
+                            taskId, fileName);
+                    offset = 0;
+                } else {
+                    LOGGER.info("getInitBytePosition inode no change taskId {} from db {}, file {}", taskId, offset,
+                            fileName);
+                }
             } else {
-                offset = 0;
-                LOGGER.info("getInitLineOffset taskId {} for new all read from 0 file {}", taskId, fileName);
+                if (isIncrement) {
+                    offset = lineReader.getLastLinePosition(channel);
+                    LOGGER.info("getInitBytePosition taskId {} for new increment read from {} file {}", taskId,
+                            offset, fileName);
+                } else {
+                    offset = 0;
+                    LOGGER.info("getInitBytePosition taskId {} for new all read from 0 file {}", taskId, fileName);
+                }
             }
         }
         return offset;
@@ -228,6 +222,9 @@ public class LogFileSource extends AbstractSource {
                 metadata.put(METADATA_FILE_NAME, file.getName());
             }
         });
+        if (needMetadata) {
+            metadataTemplate = new MetadataTemplate(metadata);
+        }
     }
 
     private boolean isIncrement(InstanceProfile profile) {
@@ -238,99 +235,6 @@ public class LogFileSource extends AbstractSource {
         return false;
     }
 
-    private long getBytePositionByLine(long linePosition) throws IOException {
-        long pos = 0;
-        long readCount = 0;
-        RandomAccessFile input = null;
-        try {
-            input = new RandomAccessFile(file, "r");
-            while (readCount < linePosition) {
-                List<String> lines = new ArrayList<>();
-                pos = readLines(input, pos, lines, Math.min((int) (linePosition - readCount), BATCH_READ_LINE_COUNT),
-                        BATCH_READ_LINE_TOTAL_LEN, true);
-                readCount += lines.size();
-                if (lines.size() == 0) {
-                    LOGGER.error("getBytePositionByLine LineNum {} larger than the real file");
-                    break;
-                }
-            }
-        } catch (Exception e) {
-            LOGGER.error("getBytePositionByLine error: ", e);
-        } finally {
-            if (input != null) {
-                input.close();
-            }
-        }
-        LOGGER.info("getBytePositionByLine {} LineNum {} position {}", fileName, linePosition, pos);
-        return pos;
-    }
-
-    /**
-     * Read new lines.
-     *
-     * @param reader The file to read
-     * @return The new position after the lines have been read
-     * @throws IOException if an I/O error occurs.
-     */
-    private long readLines(RandomAccessFile reader, long pos, List<String> lines, int maxLineCount, int maxLineTotalLen,
-            boolean isCounting)
-            throws IOException {
-        if (maxLineCount == 0) {
-            return pos;
-        }
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        reader.seek(pos);
-        long rePos = pos; // position to re-read
-        int num;
-        int lineTotalLen = 0;
-        boolean overLen = false;
-        while ((num = reader.read(bufferToReadFile)) != -1) {
-            LOGGER.debug("read size {}", num);
-            int i = 0;
-            for (; i < num; i++) {
-                byte ch = bufferToReadFile[i];
-                switch (ch) {
-                    case '\n':
-                        if (isCounting) {
-                            lines.add(new String(""));
-                        } else {
-                            String temp = new String(baos.toByteArray(), StandardCharsets.UTF_8);
-                            lines.add(temp);
-                            lineTotalLen += temp.length();
-                        }
-                        rePos = pos + i + 1;
-                        if (overLen) {
-                            LOGGER.warn("readLines over len finally string len {}",
-                                    new String(baos.toByteArray()).length());
-                        }
-                        baos.reset();
-                        overLen = false;
-                        break;
-                    case '\r':
-                        break;
-                    default:
-                        if (baos.size() < maxPackSize) {
-                            baos.write(ch);
-                        } else {
-                            overLen = true;
-                        }
-                }
-                if (lines.size() >= maxLineCount || lineTotalLen >= maxLineTotalLen) {
-                    break;
-                }
-            }
-            if (lines.size() >= maxLineCount || lineTotalLen >= maxLineTotalLen) {
-                break;
-            }
-            if (i == num) {
-                pos = reader.getFilePointer();
-            }
-        }
-        baos.close();
-        reader.seek(rePos); // Ensure we can re-read if necessary
-        return rePos;
-    }
-
     @Override
     public Message read() {
         SourceData sourceData = null;
@@ -342,21 +246,23 @@ public class LogFileSource extends AbstractSource {
         if (sourceData == null) {
             return null;
         }
-        MemoryManager.getInstance().release(AGENT_GLOBAL_READER_QUEUE_PERMIT, sourceData.data.length());
+        MemoryManager.getInstance().release(AGENT_GLOBAL_READER_QUEUE_PERMIT, sourceData.data.length);
         Message finalMsg = createMessage(sourceData);
         return finalMsg;
     }
 
     private Message createMessage(SourceData sourceData) {
-        String msgWithMetaData = fillMetaData(sourceData.data);
-        String proxyPartitionKey = profile.get(PROXY_SEND_PARTITION_KEY, DigestUtils.md5Hex(inlongGroupId));
+        byte[] msgWithMetaData = sourceData.data;
+        if (needMetadata) {
+            msgWithMetaData = fillMetaData(sourceData.data);
+        }
         Map<String, String> header = new HashMap<>();
         header.put(PROXY_KEY_DATA, proxyPartitionKey);
         header.put(OFFSET, sourceData.offset.toString());
         header.put(PROXY_KEY_STREAM_ID, inlongStreamId);
         AuditUtils.add(AuditUtils.AUDIT_ID_AGENT_READ_SUCCESS, inlongGroupId, header.get(PROXY_KEY_STREAM_ID),
-                dataTime, 1, msgWithMetaData.length());
-        Message finalMsg = new DefaultMessage(msgWithMetaData.getBytes(StandardCharsets.UTF_8), header);
+                dataTime, 1, msgWithMetaData.length);
+        Message finalMsg = new DefaultMessage(msgWithMetaData, header);
         // if the message size is greater than max pack size,should drop it.
         if (finalMsg.getBody().length > maxPackSize) {
             LOGGER.warn("message size is {}, greater than max pack size {}, drop it!",
@@ -370,12 +276,17 @@ public class LogFileSource extends AbstractSource {
         if (!needMetadata) {
             return message;
         }
-        long timestamp = System.currentTimeMillis();
-        boolean isJson = FileDataUtils.isJSON(message);
-        Map<String, String> mergeData = new HashMap<>(metadata);
-        mergeData.put(DATA_CONTENT, FileDataUtils.getK8sJsonLog(message, isJson));
-        mergeData.put(DATA_CONTENT_TIME, RECORD_TIME_FORMAT.format(new Date(timestamp)));
-        return GSON.toJson(mergeData);
+        return new String(fillMetaData(message.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Render the line with the metadata into json by the template of the constant metadata.
+     */
+    private byte[] fillMetaData(byte[] line) {
+        if (metadataTemplate == null) {
+            metadataTemplate = new MetadataTemplate(metadata);
+        }
+        return metadataTemplate.render(line, System.currentTimeMillis());
     }
 
     private boolean waitForPermit(String permitName, int permitLen) {
@@ -448,7 +359,7 @@ public class LogFileSource extends AbstractSource {
                 }
                 emptyCount = 0;
                 for (int i = 0; i < lines.size(); i++) {
-                    boolean suc4Queue = waitForPermit(AGENT_GLOBAL_READER_QUEUE_PERMIT, lines.get(i).data.length());
+                    boolean suc4Queue = waitForPermit(AGENT_GLOBAL_READER_QUEUE_PERMIT, lines.get(i).data.length);
                     if (!suc4Queue) {
                         break;
                     }
@@ -470,10 +381,10 @@ public class LogFileSource extends AbstractSource {
             while (offerSuc != true) {
                 offerSuc = queue.offer(sourceData, 1, TimeUnit.SECONDS);
             }
-            LOGGER.debug("Read {} from file {}", sourceData.getData(), fileName);
+            LOGGER.debug("Read {} bytes from file {}", sourceData.getData().length, fileName);
         } catch (InterruptedException e) {
             if (sourceData != null) {
-                MemoryManager.getInstance().release(AGENT_GLOBAL_READER_QUEUE_PERMIT, sourceData.data.length());
+                MemoryManager.getInstance().release(AGENT_GLOBAL_READER_QUEUE_PERMIT, sourceData.data.length);
             }
             LOGGER.error("fetchData offer failed {}", e.getMessage());
         }
@@ -496,17 +407,13 @@ public class LogFileSource extends AbstractSource {
     }
 
     private List<SourceData> readFromPos(long pos) throws IOException {
-        List<String> lines = new ArrayList<>();
         List<SourceData> dataList = new ArrayList<>();
-        RandomAccessFile input = new RandomAccessFile(file, "r");
-        bytePosition = readLines(input, pos, lines, BATCH_READ_LINE_COUNT, BATCH_READ_LINE_TOTAL_LEN, false);
-        for (int i = 0; i < lines.size(); i++) {
-            linePosition++;
-            dataList.add(new SourceData(lines.get(i), linePosition));
-        }
-        if (input != null) {
-            input.close();
+        try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+            // the offset of a line is the byte offset following it
+            bytePosition = lineReader.readLines(input.getChannel(), pos, BATCH_READ_LINE_COUNT,
+                    BATCH_READ_LINE_TOTAL_LEN, (line, nextOffset) -> dataList.add(new SourceData(line, nextOffset)));
         }
+        linePosition += dataList.size();
         return dataList;
     }
 
@@ -533,7 +440,7 @@ public class LogFileSource extends AbstractSource {
                 LOGGER.warn("poll {} data get interrupted.", file.getPath(), e);
             }
             if (sourceData != null) {
-                MemoryManager.getInstance().release(AGENT_GLOBAL_READER_QUEUE_PERMIT, sourceData.data.length());
+                MemoryManager.getInstance().release(AGENT_GLOBAL_READER_QUEUE_PERMIT, sourceData.data.length);
             }
         }
         queue.clear();
@@ -0,0 +1,457 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.agent.plugin.task.filecollect;
+
+import org.apache.inlong.agent.utils.AgentUtils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Discover the new files of the watched directories for all the file collect tasks of the agent.
+ *
+ * Each directory is registered once to a shared watch service, whatever the count of the watch
+ * entities on it, and is indexed with the inode, size and modify time of its files. The watch
+ * events update the index and hand the new files to the matched entities. As the events may be
+ * lost, the index is reconciled periodically instead of rescanning the file pattern of each task:
+ * only the directories whose modify time changed are listed again, the other indexed files are
+ * checked by a stat, and the new or changed files are handed to the entities.
+ */
+public class FileDiscoveryService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileDiscoveryService.class);
+    public static final long RECONCILE_INTERVAL_MS = 60 * 1000L;
+    private static final long POLL_TIMEOUT_MS = 1000L;
+    /*
+     * A directory modified within it may be modified again with the same modify time on the file systems of coarse time
+     * stamps, so it is listed again at the next reconciliation.
+     */
+    private static final long MTIME_GRANULARITY_MS = 2000L;
+    private static volatile FileDiscoveryService instance;
+
+    private final long reconcileInterval;
+    // the directory indexes by the absolute path and by the watch key, guarded by this
+    private final Map<String, DirIndex> dirIndexes = new HashMap<>();
+    private final Map<WatchKey, DirIndex> keyIndexes = new HashMap<>();
+    // the directories indexed while a new directory is registered, guarded by this
+    private List<DirIndex> newDirIndexes;
+    private WatchService watchService;
+    private Thread discoveryThread;
+    private volatile boolean running = false;
+    private long lastReconcileTime = 0;
+
+    FileDiscoveryService(long reconcileInterval) {
+        this.reconcileInterval = reconcileInterval;
+    }
+
+    /**
+     * Get the discovery service shared by the tasks of the agent, start it at the first call
+     *
+     * @return the discovery service
+     * @throws IOException if the watch service can not be created
+     */
+    public static FileDiscoveryService getInstance() throws IOException {
+        if (instance == null) {
+            synchronized (FileDiscoveryService.class) {
+                if (instance == null) {
+                    FileDiscoveryService service = new FileDiscoveryService(RECONCILE_INTERVAL_MS);
+                    service.start();
+                    instance = service;
+                }
+            }
+        }
+        return instance;
+    }
+
+    public synchronized void start() throws IOException {
+        if (running) {
+            return;
+        }
+        watchService = FileSystems.getDefault().newWatchService();
+        lastReconcileTime = AgentUtils.getCurrentTime();
+        running = true;
+        discoveryThread = new Thread(this::run, "file-discovery");
+        discoveryThread.setDaemon(true);
+        discoveryThread.start();
+    }
+
+    public void stop() {
+        running = false;
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            LOGGER.error("close watch service failed", e);
+        }
+        synchronized (this) {
+            dirIndexes.clear();
+            keyIndexes.clear();
+        }
+    }
+
+    /**
+     * Watch a directory for the entity, the directory is indexed at its first registration
+     *
+     * @param dir      the directory
+     * @param entity   the watch entity
+     * @throws IOException if the directory can not be registered
+     */
+    public synchronized void watchDir(Path dir, WatchEntity entity) throws IOException {
+        Path absDir = dir.toAbsolutePath();
+        String dirName = absDir.toString();
+        DirIndex dirIndex = dirIndexes.get(dirName);
+        if (dirIndex == null) {
+            WatchKey key = absDir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_DELETE);
+            dirIndex = new DirIndex(absDir, key);
+            dirIndexes.put(dirName, dirIndex);
+            keyIndexes.put(key, dirIndex);
+            listDir(dirIndex, false);
+            if (newDirIndexes != null) {
+                newDirIndexes.add(dirIndex);
+            }
+        }
+        dirIndex.entities.add(entity);
+    }
+
+    /**
+     * Stop watching a directory for the entity, the directory is dropped without any entity on it
+     *
+     * @param dirName   the absolute path of the directory
+     * @param entity    the watch entity
+     */
+    public synchronized void unwatchDir(String dirName, WatchEntity entity) {
+        DirIndex dirIndex = dirIndexes.get(dirName);
+        if (dirIndex == null) {
+            return;
+        }
+        dirIndex.entities.remove(entity);
+        if (dirIndex.entities.isEmpty()) {
+            dirIndex.key.cancel();
+            dirIndexes.remove(dirName);
+            keyIndexes.remove(dirIndex.key);
+        }
+    }
+
+    /**
+     * Stop watching all the directories of the entity
+     *
+     * @param entity   the watch entity
+     */
+    public synchronized void unregister(WatchEntity entity) {
+        for (String dirName : entity.getWatchedDirs()) {
+            unwatchDir(dirName, entity);
+        }
+        entity.getWatchedDirs().clear();
+    }
+
+    /**
+     * Reconcile the index with the watched directories, hand the files missed by the watch events
+     * to the entities.
+     */
+    public synchronized void reconcile() {
+        for (DirIndex dirIndex : new ArrayList<>(dirIndexes.values())) {
+            if (dirIndexes.get(dirIndex.dirName) == dirIndex) {
+                reconcileDir(dirIndex, false);
+            }
+        }
+    }
+
+    public synchronized int getDirCount() {
+        return dirIndexes.size();
+    }
+
+    public synchronized int getFileCount() {
+        int count = 0;
+        for (DirIndex dirIndex : dirIndexes.values()) {
+            count += dirIndex.files.size();
+        }
+        return count;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                WatchKey key = watchService.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                while (key != null) {
+                    dealWithWatchKey(key);
+                    key = watchService.poll();
+                }
+                if (AgentUtils.getCurrentTime() - lastReconcileTime > reconcileInterval) {
+                    long startTime = AgentUtils.getCurrentTime();
+                    reconcile();
+                    lastReconcileTime = AgentUtils.getCurrentTime();
+                    LOGGER.info("reconcile dir count {} cost {} ms", getDirCount(),
+                            lastReconcileTime - startTime);
+                }
+            } catch (ClosedWatchServiceException e) {
+                break;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Throwable t) {
+                LOGGER.error("file discovery error: ", t);
+            }
+        }
+        LOGGER.info("file discovery stopped");
+    }
+
+    private synchronized void dealWithWatchKey(WatchKey key) {
+        DirIndex dirIndex = keyIndexes.get(key);
+        List<WatchEvent<?>> events = key.pollEvents();
+        if (dirIndex == null) {
+            key.cancel();
+            return;
+        }
+        for (WatchEvent<?> event : events) {
+            WatchEvent.Kind<?> kind = event.kind();
+            if (kind == StandardWatchEventKinds.OVERFLOW) {
+                LOGGER.warn("watch events of {} are lost, reconcile it", dirIndex.dirName);
+                reconcileDir(dirIndex, true);
+                continue;
+            }
+            Path child = dirIndex.dir.resolve((Path) event.context());
+            if (kind == StandardWatchEventKinds.ENTRY_DELETE) {
+                dirIndex.files.remove(child.getFileName().toString());
+                DirIndex childIndex = dirIndexes.get(child.toString());
+                if (childIndex != null) {
+                    removeDir(childIndex);
+                }
+                continue;
+            }
+            BasicFileAttributes attrs = readAttributes(child);
+            if (attrs == null) {
+                continue;
+            }
+            if (attrs.isDirectory()) {
+                LOGGER.info("The find creation event is triggered by a directory: {}", child);
+                registerNewDir(dirIndex, child);
+            } else {
+                // the file may be indexed by the listing of a new directory already
+                String fileName = child.getFileName().toString();
+                FileState state = dirIndex.files.get(fileName);
+                if (state == null) {
+                    dirIndex.files.put(fileName, new FileState(child, attrs));
+                    dispatch(dirIndex, child);
+                } else if (state.update(attrs)) {
+                    dispatch(dirIndex, child);
+                }
+            }
+        }
+        if (!key.reset() && dirIndexes.get(dirIndex.dirName) == dirIndex) {
+            LOGGER.warn(AgentErrMsg.WATCHER_INVALID + "Invalid Watcher {}", dirIndex.dirName);
+            removeDir(dirIndex);
+        }
+    }
+
+    private void reconcileDir(DirIndex dirIndex, boolean force) {
+        BasicFileAttributes dirAttrs = readAttributes(dirIndex.dir);
+        if (dirAttrs == null || !dirAttrs.isDirectory()) {
+            removeDir(dirIndex);
+            return;
+        }
+        if (force || dirIndex.dirty || dirAttrs.lastModifiedTime().toMillis() != dirIndex.mtime) {
+            listDir(dirIndex, true);
+            return;
+        }
+        Iterator<FileState> iterator = dirIndex.files.values().iterator();
+        while (iterator.hasNext()) {
+            FileState state = iterator.next();
+            BasicFileAttributes attrs = readAttributes(state.path);
+            if (attrs == null) {
+                iterator.remove();
+            } else if (state.update(attrs)) {
+                dispatch(dirIndex, state.path);
+            }
+        }
+    }
+
+    /*
+     * List the directory into its index, the modify time is read before the listing so that a change during it is seen
+     * by the next reconciliation.
+     */
+    private void listDir(DirIndex dirIndex, boolean dispatchChanges) {
+        BasicFileAttributes dirAttrs = readAttributes(dirIndex.dir);
+        if (dirAttrs == null) {
+            return;
+        }
+        dirIndex.mtime = dirAttrs.lastModifiedTime().toMillis();
+        dirIndex.dirty = AgentUtils.getCurrentTime() - dirIndex.mtime < MTIME_GRANULARITY_MS;
+        Map<String, FileState> files = new HashMap<>();
+        List<Path> newDirs = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dirIndex.dir)) {
+            for (Path child : stream) {
+                BasicFileAttributes attrs = readAttributes(child);
+                if (attrs == null) {
+                    continue;
+                }
+                if (attrs.isDirectory()) {
+                    if (dispatchChanges && !dirIndexes.containsKey(child.toString())) {
+                        newDirs.add(child);
+                    }
+                    continue;
+                }
+                String fileName = child.getFileName().toString();
+                FileState state = dirIndex.files.get(fileName);
+                if (state == null) {
+                    state = new FileState(child, attrs);
+                    if (dispatchChanges) {
+                        dispatch(dirIndex, child);
+                    }
+                } else if (state.update(attrs) && dispatchChanges) {
+                    dispatch(dirIndex, child);
+                }
+                files.put(fileName, state);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("list directory {} error {}", dirIndex.dirName, e.getMessage());
+            dirIndex.dirty = true;
+            return;
+        }
+        dirIndex.files = files;
+        for (Path newDir : newDirs) {
+            registerNewDir(dirIndex, newDir);
+        }
+    }
+
+    /*
+     * Register the new directory for the entities of its parent by their directory patterns, and hand the files already
+     * in the directories indexed meanwhile, which were created before the registration.
+     */
+    private void registerNewDir(DirIndex parentIndex, Path newDir) {
+        List<DirIndex> outerDirIndexes = newDirIndexes;
+        newDirIndexes = new ArrayList<>();
+        try {
+            for (WatchEntity entity : new ArrayList<>(parentIndex.entities)) {
+                try {
+                    entity.registerRecursively(newDir);
+                } catch (IOException e) {
+                    LOGGER.error(AgentErrMsg.WATCH_DIR_ERROR + e.toString());
+                }
+            }
+            for (DirIndex dirIndex : newDirIndexes) {
+                for (FileState state : dirIndex.files.values()) {
+                    dispatch(dirIndex, state.path);
+                }
+            }
+        } finally {
+            newDirIndexes = outerDirIndexes;
+        }
+    }
+
+    private void removeDir(DirIndex dirIndex) {
+        dirIndex.key.cancel();
+        dirIndexes.remove(dirIndex.dirName);
+        keyIndexes.remove(dirIndex.key);
+        for (WatchEntity entity : dirIndex.entities) {
+            entity.removeWatchedDir(dirIndex.dirName);
+        }
+        LOGGER.info("remove watched directory {}", dirIndex.dirName);
+    }
+
+    private void dispatch(DirIndex dirIndex, Path filePath) {
+        String fileName = filePath.toString();
+        for (WatchEntity entity : dirIndex.entities) {
+            if (entity.matchFile(fileName)) {
+                entity.offerDiscovered(filePath);
+            }
+        }
+    }
+
+    private static BasicFileAttributes readAttributes(Path path) {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The index of a watched directory
+     */
+    private static class DirIndex {
+
+        private final Path dir;
+        private final String dirName;
+        private final WatchKey key;
+        private final Set<WatchEntity> entities = new LinkedHashSet<>();
+        private Map<String, FileState> files = new HashMap<>();
+        private long mtime = 0;
+        private boolean dirty = true;
+
+        private DirIndex(Path dir, WatchKey key) {
+            this.dir = dir;
+            this.dirName = dir.toString();
+            this.key = key;
+        }
+    }
+
+    /**
+     * The indexed state of a file, the file key is the device and inode on unix
+     */
+    private static class FileState {
+
+        private final Path path;
+        private Object fileKey;
+        private long size;
+        private long mtime;
+
+        private FileState(Path path, BasicFileAttributes attrs) {
+            this.path = path;
+            this.fileKey = attrs.fileKey();
+            this.size = attrs.size();
+            this.mtime = attrs.lastModifiedTime().toMillis();
+        }
+
+        /*
+         * Update the state, return true if the file is replaced or modified.
+         */
+        private boolean update(BasicFileAttributes attrs) {
+            Object newFileKey = attrs.fileKey();
+            long newSize = attrs.size();
+            long newMtime = attrs.lastModifiedTime().toMillis();
+            if (Objects.equals(fileKey, newFileKey) && size == newSize && mtime == newMtime) {
+                return false;
+            }
+            fileKey = newFileKey;
+            size = newSize;
+            mtime = newMtime;
+            return true;
+        }
+    }
+}
@@ -40,14 +40,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.FileSystems;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardWatchEventKinds;
-import java.nio.file.WatchEvent;
-import java.nio.file.WatchEvent.Kind;
-import java.nio.file.WatchKey;
-import java.nio.file.WatchService;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
@@ -64,6 +57,10 @@ import java.util.stream.Stream;
 
 /**
  * Watch directory, if new valid files are created, create jobs correspondingly.
+ *
+ * The directories are watched by the file discovery service shared by the tasks of the agent, the existing
+ * files are scanned once at the start and the files missed by the watch events are found by the
+ * reconciliation of the service.
  */
 public class LogFileCollectTask extends Task {
 
@@ -87,8 +84,6 @@ public class LogFileCollectTask extends Task {
     private long endTime;
     private boolean initOK = false;
     private Set<String> originPatterns;
-    private long lastScanTime = 0;
-    public final long SCAN_INTERVAL = 1 * 60 * 1000;
     private volatile boolean runAtLeastOneTime = false;
     private volatile long coreThreadUpdateTime = 0;
     private volatile boolean running = false;
@@ -169,19 +164,27 @@ public class LogFileCollectTask extends Task {
             watchFailedDirs.add(originPattern);
             return;
         }
+        WatchEntity entity = null;
         try {
             /*
              * When we construct the watch object, we should do some work with the data name, replace yyyy to 4 digits
              * regression, mm to 2 digits regression, also because of difference between java regular expression and
              * linux regular expression, we have to replace * to ., and replace . with \\. .
              */
-            WatchService watchService = FileSystems.getDefault().newWatchService();
-            WatchEntity entity = new WatchEntity(watchService, originPattern, taskProfile.getCycleUnit(),
+            entity = new WatchEntity(FileDiscoveryService.getInstance(), originPattern, taskProfile.getCycleUnit(),
                     taskProfile.getTimeOffset());
             entity.registerRecursively();
             watchers.put(originPattern, entity);
-            watchFailedDirs.remove(originPattern);
+            if (watchFailedDirs.remove(originPattern) && runAtLeastOneTime) {
+                /* The files created before the directory is watched are not in the first scan. */
+                scanExistingFileByPattern(originPattern).forEach((fileInfo) -> {
+                    addToEvenMap(fileInfo.fileName, fileInfo.dataTime);
+                });
+            }
         } catch (IOException e) {
+            if (entity != null) {
+                entity.unregister();
+            }
             if (e.toString().contains("Too many open files") || e.toString().contains("打开的文件过多")) {
                 LOGGER.error(AgentErrMsg.WATCH_DIR_ERROR + e.toString());
             } else {
@@ -207,12 +210,8 @@ public class LogFileCollectTask extends Task {
             }
             AgentUtils.silenceSleepInMs(CORE_THREAD_SLEEP_TIME);
         }
-        watchers.forEach((taskId, watcher) -> {
-            try {
-                watcher.getWatchService().close();
-            } catch (IOException e) {
-                LOGGER.error("close watch service failed taskId {}", e, taskId);
-            }
+        watchers.forEach((originPattern, watcher) -> {
+            watcher.unregister();
         });
     }
 
@@ -272,9 +271,9 @@ public class LogFileCollectTask extends Task {
     }
 
     private void runForNormal() {
-        if (AgentUtils.getCurrentTime() - lastScanTime > SCAN_INTERVAL) {
+        if (!runAtLeastOneTime) {
             scanExistingFile();
-            lastScanTime = AgentUtils.getCurrentTime();
+            runAtLeastOneTime = true;
         }
         runForWatching();
         dealWithEvenMap();
@@ -325,6 +324,14 @@ public class LogFileCollectTask extends Task {
          * it to the task list.
          */
         for (Map.Entry<String, WatchEntity> entry : watchers.entrySet()) {
+            if (entry.getValue().getTotalPathSize() == 0) {
+                /* The root directory is removed, watch it again after it is created. */
+                LOGGER.warn("all directories of {} are removed, taskId {}", entry.getKey(), getTaskId());
+                entry.getValue().unregister();
+                watchers.remove(entry.getKey());
+                watchFailedDirs.add(entry.getKey());
+                continue;
+            }
             dealWithWatchEntity(entry.getKey());
         }
     }
@@ -395,58 +402,11 @@ public class LogFileCollectTask extends Task {
             LOGGER.error("Can't find the watch entity for originPattern: " + originPattern);
             return;
         }
-        try {
-            /* Get all creation events until all events are consumed. */
-            for (int i = 0; i < entity.getTotalPathSize(); i++) {
-                // maybe the watchService is closed ,but we catch this exception!
-                final WatchKey key = entity.getWatchService().poll();
-                if (key == null) {
-                    return;
-                }
-                dealWithWatchKey(entity, key);
-            }
-        } catch (Exception e) {
-            LOGGER.error("deal with creation event error: ", e);
-        }
-    }
-
-    private void dealWithWatchKey(WatchEntity entity, WatchKey key) throws IOException {
-        Path contextPath = entity.getPath(key);
-        LOGGER.info("Find creation events in path: " + contextPath.toAbsolutePath());
-        for (WatchEvent<?> watchEvent : key.pollEvents()) {
-            Path child = resolvePathFromEvent(watchEvent, contextPath);
-            if (child == null) {
-                continue;
-            }
-            if (Files.isDirectory(child)) {
-                LOGGER.info("The find creation event is triggered by a directory: " + child
-                        .getFileName());
-                entity.registerRecursively(child);
-                continue;
-            }
-            handleFilePath(child, entity);
-        }
-        resetWatchKey(entity, key, contextPath);
-    }
-
-    private Path resolvePathFromEvent(WatchEvent<?> watchEvent, Path contextPath) {
-        final Kind<?> kind = watchEvent.kind();
-        /*
-         * Can't simply continue when it detects that an event maybe ignored.
-         */
-        if (kind == StandardWatchEventKinds.OVERFLOW) {
-            LOGGER.error("An event is unclear and lost");
-            /*
-             * TODO: should we do a full scan to avoid lost events?
-             */
-            return null;
+        /* Get all the files discovered until all of them are consumed. */
+        Path filePath;
+        while ((filePath = entity.pollDiscovered()) != null) {
+            handleFilePath(filePath, entity);
         }
-        final WatchEvent<Path> watchEventPath = (WatchEvent<Path>) watchEvent;
-        final Path eventPath = watchEventPath.context();
-        /*
-         * Must resolve, otherwise we can't get the file attributes.
-         */
-        return contextPath.resolve(eventPath);
     }
 
     private void handleFilePath(Path filePath, WatchEntity entity) {
@@ -520,26 +480,4 @@ public class LogFileCollectTask extends Task {
          */
         return fileTime.replaceAll("\\D", "");
     }
-
-    private void resetWatchKey(WatchEntity entity, WatchKey key, Path contextPath) {
-        key.reset();
-        /*
-         * Register a new watch service on the path if the old watcher is invalid.
-         */
-        if (!key.isValid()) {
-            LOGGER.warn(AgentErrMsg.WATCHER_INVALID + "Invalid Watcher {}",
-                    contextPath.getFileName());
-            try {
-                WatchService oldService = entity.getWatchService();
-                oldService.close();
-                WatchService watchService = FileSystems.getDefault().newWatchService();
-                entity.clearKeys();
-                entity.clearPathToKeys();
-                entity.setWatchService(watchService);
-                entity.registerRecursively();
-            } catch (IOException e) {
-                LOGGER.error("Restart a new watcher runs into error: ", e);
-            }
-        }
-    }
 }
@@ -31,22 +31,20 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardWatchEventKinds;
-import java.nio.file.WatchKey;
-import java.nio.file.WatchService;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.HashSet;
-import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class WatchEntity {
 
     private static final Logger logger = LoggerFactory.getLogger(WatchEntity.class);
-    private WatchService watchService;
+    private final FileDiscoveryService discoveryService;
     private final String basicStaticPath;
     private final String originPattern;
     private final String regexPattern;
@@ -55,17 +53,18 @@ public class WatchEntity {
     private final String originPatternWithoutFileName;
     private final Pattern patternWithoutFileName;
     private final boolean containRegexPattern;
-    private final Map<WatchKey, Path> keys = new ConcurrentHashMap<WatchKey, Path>();
-    private final Map<String, WatchKey> pathToKeys = new ConcurrentHashMap<String, WatchKey>();
+    private final Set<String> watchedDirs = ConcurrentHashMap.newKeySet();
+    // the matched files handed by the discovery service, polled by the task
+    private final Queue<Path> discoveredFiles = new ConcurrentLinkedQueue<>();
     private final String dirSeparator = System.getProperty("file.separator");
     private String cycleUnit;
     private String timeOffset;
 
-    public WatchEntity(WatchService watchService,
+    public WatchEntity(FileDiscoveryService discoveryService,
             String originPattern,
             String cycleUnit,
             String timeOffset) {
-        this.watchService = watchService;
+        this.discoveryService = discoveryService;
         this.originPattern = originPattern;
         ArrayList<String> directoryLayers = FilePathUtil.getDirectoryLayers(originPattern);
         this.basicStaticPath = directoryLayers.get(0);
@@ -94,8 +93,7 @@ public class WatchEntity {
                 + ", dateExpression=" + dateExpression + ", totalDirPattern="
                 + originPatternWithoutFileName + ", containRegexPattern="
                 + containRegexPattern + ", totalDirRegexPattern="
-                + patternWithoutFileName + ", keys=" + keys + ", pathToKeys=" + pathToKeys
-                + ", watchService=" + watchService + "]";
+                + patternWithoutFileName + ", watchedDirs=" + watchedDirs + "]";
     }
 
     private boolean isPathContainRegexPattern() {
@@ -130,10 +128,9 @@ public class WatchEntity {
 
         // must use suffeix match
         // consider /data/YYYYMMDD/abc/YYYYMMDDhh.*.txt this case
-        if (!pathToKeys.containsKey(dirName) && (matcher.matches() || rootDir.equals(dirName))) {
-            WatchKey key = dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE);
-            keys.put(key, dir);
-            pathToKeys.put(dirName, key);
+        if (!watchedDirs.contains(dirName) && (matcher.matches() || rootDir.equals(dirName))) {
+            discoveryService.watchDir(dir, this);
+            watchedDirs.add(dirName);
 
             logger.info("Register a new directory: " + dir.toAbsolutePath().toString());
         }
@@ -143,10 +140,9 @@ public class WatchEntity {
         // register root dir
         Path rootPath = Paths.get(basicStaticPath);
         String rootDirName = rootPath.toAbsolutePath().toString();
-        if (!pathToKeys.containsKey(rootDirName)) {
-            WatchKey key = rootPath.register(watchService, StandardWatchEventKinds.ENTRY_CREATE);
-            keys.put(key, rootPath);
-            pathToKeys.put(rootDirName, key);
+        if (!watchedDirs.contains(rootDirName)) {
+            discoveryService.watchDir(rootPath, this);
+            watchedDirs.add(rootDirName);
             logger.info("Register a new directory: " + rootDirName);
         }
         registerRecursively(rootPath.toFile(), rootPath.toAbsolutePath().toString().length() + 1);
@@ -163,10 +159,9 @@ public class WatchEntity {
         Pattern pattern = getPattern(index);
         logger.info("beginIndex {} ,index {} ,dirPattern {}",
                 new Object[]{beginIndex, index, pattern.pattern()});
-        if (!pathToKeys.containsKey(rootDirName) && match(pattern, rootDirName)) {
-            WatchKey key = rootPath.register(watchService, StandardWatchEventKinds.ENTRY_CREATE);
-            keys.put(key, rootPath);
-            pathToKeys.put(rootDirName, key);
+        if (!watchedDirs.contains(rootDirName) && match(pattern, rootDirName)) {
+            discoveryService.watchDir(rootPath, this);
+            watchedDirs.add(rootDirName);
             logger.info("Register a new directory: " + rootDirName);
         } else {
             return;
@@ -190,12 +185,10 @@ public class WatchEntity {
             if (files[i].isDirectory()) {
                 String dirName = files[i].toString();
                 Path dirPath = Paths.get(dirName);
-                if (!pathToKeys.containsKey(dirName) && match(pattern, dirName)) {
+                if (!watchedDirs.contains(dirName) && match(pattern, dirName)) {
                     try {
-                        WatchKey key = dirPath
-                                .register(watchService, StandardWatchEventKinds.ENTRY_CREATE);
-                        keys.put(key, dirPath);
-                        pathToKeys.put(dirName, key);
+                        discoveryService.watchDir(dirPath, this);
+                        watchedDirs.add(dirName);
                         logger.info("Register a new directory: " + dirName);
                     } catch (IOException e) {
                         /**
@@ -228,24 +221,40 @@ public class WatchEntity {
         return matcher.matches() || matcher.lookingAt();
     }
 
-    public Path getPath(WatchKey key) {
-        return keys.get(key);
+    public boolean matchFile(String fileName) {
+        return match(pattern, fileName);
     }
 
-    public int getTotalPathSize() {
-        return keys.size();
+    public void offerDiscovered(Path filePath) {
+        discoveredFiles.offer(filePath);
     }
 
-    public String getWatchPath() {
-        return basicStaticPath;
+    public Path pollDiscovered() {
+        return discoveredFiles.poll();
+    }
+
+    public Set<String> getWatchedDirs() {
+        return watchedDirs;
     }
 
-    public WatchService getWatchService() {
-        return watchService;
+    public void removeWatchedDir(String dirName) {
+        watchedDirs.remove(dirName);
     }
 
-    public void setWatchService(WatchService watchService) {
-        this.watchService = watchService;
+    public int getTotalPathSize() {
+        return watchedDirs.size();
+    }
+
+    /*
+     * Stop watching all the directories of this entity.
+     */
+    public void unregister() {
+        discoveryService.unregister(this);
+        discoveredFiles.clear();
+    }
+
+    public String getWatchPath() {
+        return basicStaticPath;
     }
 
     public String getRegexPattern() {
@@ -312,9 +321,8 @@ public class WatchEntity {
         copyDirPattern = copyDirPattern.replace("hh", hour);
         copyDirPattern = copyDirPattern.replace("mm", minute);
 
-        Set<String> keys = pathToKeys.keySet();
         Set<String> tmpKeys = new HashSet<>();
-        tmpKeys.addAll(keys);
+        tmpKeys.addAll(watchedDirs);
         String rootDir = Paths.get(basicStaticPath).toAbsolutePath().toString();
         for (String path : tmpKeys) {
             /*
@@ -322,10 +330,8 @@ public class WatchEntity {
              */
             logger.info("[Path]{}  {}", path, copyDirPattern);
             if (path.compareTo(copyDirPattern) < 0 && !copyDirPattern.contains(path)) {
-                WatchKey key = pathToKeys.get(path);
-                key.cancel();
-
-                pathToKeys.remove(path);
+                discoveryService.unwatchDir(path, this);
+                watchedDirs.remove(path);
 
                 logger.info("Watch path: {} is too old for data time: {}, we should remove", path,
                         curDataTime);
@@ -333,14 +339,6 @@ public class WatchEntity {
         }
     }
 
-    public void clearPathToKeys() {
-        pathToKeys.clear();
-    }
-
-    public void clearKeys() {
-        keys.clear();
-    }
-
     public String getCycleUnit() {
         return cycleUnit;
     }
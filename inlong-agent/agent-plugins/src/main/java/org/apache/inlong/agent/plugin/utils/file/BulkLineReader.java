@@ -0,0 +1,285 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.agent.plugin.utils.file;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Split the lines of a file in bulk.
+ *
+ * The file is read into a reused direct buffer which is scanned a long word at a time for
+ * the line feeds. Each line is copied once into its own byte array, without the carriage
+ * returns and the bytes over the max line length, and is emitted with the byte offset
+ * following it, which is the checkpoint to read the next line from.
+ */
+public class BulkLineReader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BulkLineReader.class);
+    private static final long LF_WORD = 0x0A0A0A0A0A0A0A0AL;
+    private static final long CR_WORD = 0x0D0D0D0D0D0D0D0DL;
+    private static final long LOW_BITS = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+
+    private final ByteBuffer buffer;
+    private final int maxLineLen;
+    // the head of a line longer than the buffer
+    private byte[] carry = new byte[0];
+    private int carryLen = 0;
+    private long lineLen = 0;
+    // whether a carriage return may be in the current line
+    private boolean hasCr = false;
+    private int readLineCount = 0;
+
+    /**
+     * Constructor
+     *
+     * @param bufferSize   the size of the read buffer
+     * @param maxLineLen   the max bytes of a line, the bytes over it are dropped
+     */
+    public BulkLineReader(int bufferSize, int maxLineLen) {
+        this.buffer = ByteBuffer.allocateDirect(Math.max(bufferSize, 1))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        this.maxLineLen = maxLineLen;
+    }
+
+    /**
+     * Read the complete lines from the position, the partial line at the end of the file
+     * is left for the next read.
+     *
+     * @param channel           the file to read
+     * @param pos               the offset to read from
+     * @param maxLineCount      the max line count to read
+     * @param maxLineTotalLen   the max total bytes of the lines to read
+     * @param handler           the line handler, null to skip the lines without copying them
+     * @return the offset following the last line read
+     * @throws IOException if an I/O error occurs.
+     */
+    public long readLines(FileChannel channel, long pos, int maxLineCount,
+            long maxLineTotalLen, LineHandler handler) throws IOException {
+        readLineCount = 0;
+        if (maxLineCount <= 0) {
+            return pos;
+        }
+        long lineTotalLen = 0;
+        long rePos = pos;
+        // the file offset of the buffer head
+        long bufPos = pos;
+        int filled = 0;
+        int lineStart = 0;
+        int scanIdx = 0;
+        resetLine();
+        while (true) {
+            buffer.limit(buffer.capacity()).position(filled);
+            int num = channel.read(buffer, bufPos + filled);
+            if (num <= 0) {
+                break;
+            }
+            filled += num;
+            int lfIdx;
+            while ((lfIdx = indexOfLf(scanIdx, filled)) >= 0) {
+                rePos = bufPos + lfIdx + 1;
+                if (handler != null) {
+                    byte[] line = copyLine(lineStart, lfIdx - lineStart);
+                    lineTotalLen += line.length;
+                    handler.onLine(line, rePos);
+                }
+                readLineCount++;
+                lineStart = lfIdx + 1;
+                scanIdx = lineStart;
+                resetLine();
+                if (readLineCount >= maxLineCount || lineTotalLen >= maxLineTotalLen) {
+                    return rePos;
+                }
+            }
+            scanIdx = filled;
+            if (filled < buffer.capacity()) {
+                continue;
+            }
+            if (lineStart == 0) {
+                // the line is longer than the buffer, keep its head
+                appendCarry(filled, handler != null);
+                bufPos += filled;
+                filled = 0;
+                scanIdx = 0;
+            } else {
+                // move the partial line to the buffer head
+                buffer.limit(filled).position(lineStart);
+                buffer.compact();
+                bufPos += lineStart;
+                filled -= lineStart;
+                scanIdx -= lineStart;
+                lineStart = 0;
+            }
+        }
+        return rePos;
+    }
+
+    /**
+     * Get the line count of the last read
+     *
+     * @return the line count
+     */
+    public int getReadLineCount() {
+        return readLineCount;
+    }
+
+    /**
+     * Get the offset following the line count from the file head
+     *
+     * @param channel     the file to read
+     * @param lineCount   the line count
+     * @return the offset, -1 if the file has less lines
+     * @throws IOException if an I/O error occurs.
+     */
+    public long getPositionByLine(FileChannel channel, long lineCount) throws IOException {
+        long pos = 0;
+        long leftCount = lineCount;
+        while (leftCount > 0) {
+            pos = readLines(channel, pos, (int) Math.min(leftCount, Integer.MAX_VALUE),
+                    Long.MAX_VALUE, null);
+            if (readLineCount == 0) {
+                return -1L;
+            }
+            leftCount -= readLineCount;
+        }
+        return pos;
+    }
+
+    /**
+     * Get the offset following the last complete line of the file
+     *
+     * @param channel   the file to read
+     * @return the offset, 0 if the file has no complete line
+     * @throws IOException if an I/O error occurs.
+     */
+    public long getLastLinePosition(FileChannel channel) throws IOException {
+        long end = channel.size();
+        while (end > 0) {
+            int len = (int) Math.min(end, buffer.capacity());
+            long start = end - len;
+            buffer.clear().limit(len);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, start + buffer.position()) < 0) {
+                    break;
+                }
+            }
+            for (int i = buffer.position() - 1; i >= 0; i--) {
+                if (buffer.get(i) == '\n') {
+                    return start + i + 1;
+                }
+            }
+            end = start;
+        }
+        return 0L;
+    }
+
+    private int indexOfLf(int from, int to) {
+        int i = from;
+        for (; i + Long.BYTES <= to; i += Long.BYTES) {
+            long word = buffer.getLong(i);
+            if (zeroBytes(word ^ CR_WORD) != 0) {
+                hasCr = true;
+            }
+            long lfBytes = zeroBytes(word ^ LF_WORD);
+            if (lfBytes != 0) {
+                // the lowest flag is exact for the little endian word
+                return i + (Long.numberOfTrailingZeros(lfBytes) >>> 3);
+            }
+        }
+        for (; i < to; i++) {
+            byte ch = buffer.get(i);
+            if (ch == '\n') {
+                return i;
+            } else if (ch == '\r') {
+                hasCr = true;
+            }
+        }
+        return -1;
+    }
+
+    private static long zeroBytes(long word) {
+        return (word - LOW_BITS) & ~word & HIGH_BITS;
+    }
+
+    private byte[] copyLine(int start, int len) {
+        lineLen += len;
+        int copyLen = (int) Math.min(carryLen + (long) len, maxLineLen);
+        byte[] line = new byte[copyLen];
+        System.arraycopy(carry, 0, line, 0, Math.min(carryLen, copyLen));
+        if (copyLen > carryLen) {
+            buffer.limit(buffer.capacity()).position(start);
+            buffer.get(line, carryLen, copyLen - carryLen);
+        }
+        if (lineLen > maxLineLen) {
+            LOGGER.warn("readLines over len finally string len {}", lineLen);
+        }
+        return hasCr ? removeCr(line) : line;
+    }
+
+    private void appendCarry(int len, boolean needCopy) {
+        lineLen += len;
+        int copyLen = Math.min(len, maxLineLen - carryLen);
+        if (!needCopy || copyLen <= 0) {
+            return;
+        }
+        if (carry.length < carryLen + copyLen) {
+            carry = Arrays.copyOf(carry,
+                    Math.min(Math.max(carry.length << 1, carryLen + copyLen), maxLineLen));
+        }
+        buffer.limit(buffer.capacity()).position(0);
+        buffer.get(carry, carryLen, copyLen);
+        carryLen += copyLen;
+    }
+
+    private void resetLine() {
+        carryLen = 0;
+        lineLen = 0;
+        hasCr = false;
+    }
+
+    private static byte[] removeCr(byte[] line) {
+        int len = 0;
+        for (byte ch : line) {
+            if (ch != '\r') {
+                line[len++] = ch;
+            }
+        }
+        return len == line.length ? line : Arrays.copyOf(line, len);
+    }
+
+    /**
+     * Handle a line read
+     */
+    public interface LineHandler {
+
+        /**
+         * Handle a line
+         *
+         * @param line         the line bytes without the line feed
+         * @param nextOffset   the offset following the line
+         */
+        void onLine(byte[] line, long nextOffset);
+    }
+}
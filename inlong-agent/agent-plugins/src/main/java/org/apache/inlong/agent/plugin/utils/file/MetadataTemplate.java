@@ -0,0 +1,291 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.agent.plugin.utils.file;
+
+import com.google.gson.Gson;
+import org.apache.commons.lang3.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.apache.inlong.agent.constant.MetadataConstants.DATA_CONTENT;
+import static org.apache.inlong.agent.constant.MetadataConstants.DATA_CONTENT_TIME;
+
+/**
+ * Render a line with the metadata into the json of the metadata, the line content and the log time.
+ *
+ * The constant parts of the json are rendered once, in the key order and with the escaping of Gson,
+ * and the escaped line bytes and the log time are spliced between them into a reused buffer. The
+ * log time is formatted once per second. The output is the same bytes as Gson serializing the
+ * merged map of the metadata, the content and the time.
+ *
+ * It is not thread safe, each source owns its template.
+ */
+public class MetadataTemplate {
+
+    private static final Gson GSON = new Gson();
+    private static final String RECORD_TIME_PATTERN = "yyyy-MM-dd HH:mm:ss.SSS";
+    private static final int SLOT_CONTENT = 0;
+    private static final int SLOT_TIME = 1;
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    // the escape of the ascii chars by Gson with the html safe chars, null if not escaped
+    private static final byte[][] ESCAPES = new byte[128][];
+
+    static {
+        for (int c = 0; c < 0x20; c++) {
+            ESCAPES[c] = unicodeEscape(c);
+        }
+        ESCAPES['"'] = "\\\"".getBytes(StandardCharsets.US_ASCII);
+        ESCAPES['\\'] = "\\\\".getBytes(StandardCharsets.US_ASCII);
+        ESCAPES['\t'] = "\\t".getBytes(StandardCharsets.US_ASCII);
+        ESCAPES['\b'] = "\\b".getBytes(StandardCharsets.US_ASCII);
+        ESCAPES['\n'] = "\\n".getBytes(StandardCharsets.US_ASCII);
+        ESCAPES['\r'] = "\\r".getBytes(StandardCharsets.US_ASCII);
+        ESCAPES['\f'] = "\\f".getBytes(StandardCharsets.US_ASCII);
+        for (char c : new char[]{'<', '>', '&', '=', '\''}) {
+            ESCAPES[c] = unicodeEscape(c);
+        }
+    }
+
+    // the constant parts, the slot i is between the parts i and i + 1
+    private final byte[][] parts;
+    private final int[] slots;
+    private final int partsLen;
+    private final SimpleDateFormat timeFormat = new SimpleDateFormat(RECORD_TIME_PATTERN);
+    private long cachedSecond = Long.MIN_VALUE;
+    private byte[] cachedSecondPrefix;
+    private byte[] buffer = new byte[1024];
+    private int size;
+
+    /**
+     * Constructor
+     *
+     * @param metadata   the metadata, null means empty
+     */
+    public MetadataTemplate(Map<String, String> metadata) {
+        // the same map as merged per line, to keep the iteration order of its keys
+        Map<String, String> mergeData = metadata == null ? new HashMap<>() : new HashMap<>(metadata);
+        mergeData.put(DATA_CONTENT, "");
+        mergeData.put(DATA_CONTENT_TIME, "");
+        List<byte[]> partList = new ArrayList<>();
+        List<Integer> slotList = new ArrayList<>();
+        StringBuilder part = new StringBuilder("{");
+        boolean first = true;
+        for (Map.Entry<String, String> entry : mergeData.entrySet()) {
+            String key = entry.getKey();
+            boolean isContent = DATA_CONTENT.equals(key);
+            boolean isTime = DATA_CONTENT_TIME.equals(key);
+            if (!isContent && !isTime && entry.getValue() == null) {
+                // null values are skipped by Gson
+                continue;
+            }
+            if (!first) {
+                part.append(',');
+            }
+            first = false;
+            part.append(GSON.toJson(key)).append(':');
+            if (isContent || isTime) {
+                part.append('"');
+                partList.add(part.toString().getBytes(StandardCharsets.UTF_8));
+                slotList.add(isContent ? SLOT_CONTENT : SLOT_TIME);
+                part.setLength(0);
+                part.append('"');
+            } else {
+                part.append(GSON.toJson(entry.getValue()));
+            }
+        }
+        part.append('}');
+        partList.add(part.toString().getBytes(StandardCharsets.UTF_8));
+        this.parts = partList.toArray(new byte[0][]);
+        this.slots = slotList.stream().mapToInt(Integer::intValue).toArray();
+        int len = 0;
+        for (byte[] bytes : parts) {
+            len += bytes.length;
+        }
+        this.partsLen = len;
+    }
+
+    /**
+     * Render the line with the metadata.
+     *
+     * @param line        the line bytes in utf-8
+     * @param timestamp   the log time in milliseconds
+     * @return the json bytes in utf-8
+     */
+    public byte[] render(byte[] line, long timestamp) {
+        size = 0;
+        // the escape of an ascii byte is 6 bytes at most, and of a non ascii char 3 bytes
+        ensureCapacity(partsLen + line.length * 6 + RECORD_TIME_PATTERN.length());
+        String content = isAscii(line) ? null : new String(line, StandardCharsets.UTF_8);
+        for (int i = 0; i < slots.length; i++) {
+            write(parts[i]);
+            if (slots[i] == SLOT_TIME) {
+                writeTime(timestamp);
+            } else if (content == null) {
+                writeAsciiContent(line);
+            } else {
+                writeContent(content);
+            }
+        }
+        write(parts[slots.length]);
+        return Arrays.copyOf(buffer, size);
+    }
+
+    private void writeAsciiContent(byte[] line) {
+        int first = firstNonWhitespace(line);
+        if (first == line.length) {
+            // blank line
+            return;
+        }
+        if (mayBeJson(line[first])) {
+            writeChars(jsonContent(new String(line, StandardCharsets.UTF_8)));
+            return;
+        }
+        for (byte b : line) {
+            byte[] escape = ESCAPES[b];
+            if (escape == null) {
+                buffer[size++] = b;
+            } else {
+                write(escape);
+            }
+        }
+    }
+
+    private void writeContent(String line) {
+        if (StringUtils.isBlank(line)) {
+            return;
+        }
+        int first = 0;
+        while (first < line.length() && isJsonWhitespace(line.charAt(first))) {
+            first++;
+        }
+        writeChars(mayBeJson(line.charAt(first)) ? jsonContent(line) : line);
+    }
+
+    /*
+     * The content of the line which may be a json, as the former enrichment by Gson.
+     */
+    private static String jsonContent(String line) {
+        return FileDataUtils.getK8sJsonLog(line, FileDataUtils.isJSON(line));
+    }
+
+    /*
+     * Write the chars escaped and encoded in utf-8, the unpaired surrogates are replaced by '?' as String.getBytes
+     * does.
+     */
+    private void writeChars(String chars) {
+        ensureCapacity(size + chars.length() * 6);
+        int len = chars.length();
+        for (int i = 0; i < len; i++) {
+            char c = chars.charAt(i);
+            if (c < 0x80) {
+                byte[] escape = ESCAPES[c];
+                if (escape == null) {
+                    buffer[size++] = (byte) c;
+                } else {
+                    write(escape);
+                }
+            } else if (c < 0x800) {
+                buffer[size++] = (byte) (0xC0 | (c >> 6));
+                buffer[size++] = (byte) (0x80 | (c & 0x3F));
+            } else if (c == 0x2028 || c == 0x2029) {
+                write(unicodeEscape(c));
+            } else if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(chars.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, chars.charAt(++i));
+                buffer[size++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[size++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[size++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[size++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                buffer[size++] = '?';
+            } else {
+                buffer[size++] = (byte) (0xE0 | (c >> 12));
+                buffer[size++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[size++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    private void writeTime(long timestamp) {
+        long second = Math.floorDiv(timestamp, 1000L);
+        if (second != cachedSecond) {
+            String time = timeFormat.format(new Date(second * 1000L));
+            cachedSecondPrefix = time.substring(0, time.lastIndexOf('.') + 1).getBytes(StandardCharsets.UTF_8);
+            cachedSecond = second;
+        }
+        write(cachedSecondPrefix);
+        int millis = (int) Math.floorMod(timestamp, 1000L);
+        buffer[size++] = (byte) ('0' + millis / 100);
+        buffer[size++] = (byte) ('0' + millis / 10 % 10);
+        buffer[size++] = (byte) ('0' + millis % 10);
+    }
+
+    private void write(byte[] bytes) {
+        System.arraycopy(bytes, 0, buffer, size, bytes.length);
+        size += bytes.length;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(capacity, buffer.length * 2));
+        }
+    }
+
+    private static boolean isAscii(byte[] line) {
+        for (byte b : line) {
+            if (b < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * The index of the first byte which is not a whitespace as StringUtils.isBlank checks, the length of the line if it
+     * is blank.
+     */
+    private static int firstNonWhitespace(byte[] line) {
+        int i = 0;
+        while (i < line.length && Character.isWhitespace(line[i])) {
+            i++;
+        }
+        return i;
+    }
+
+    /*
+     * Whether a line starting with the char may be parsed as a json object by the lenient Gson, which also skips the
+     * comments and the non execute prefix.
+     */
+    private static boolean mayBeJson(int c) {
+        return c == '{' || c == '/' || c == '#' || c == ')';
+    }
+
+    private static boolean isJsonWhitespace(int c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+    }
+
+    private static byte[] unicodeEscape(int c) {
+        return new byte[]{'\\', 'u', HEX[(c >> 12) & 0xF], HEX[(c >> 8) & 0xF], HEX[(c >> 4) & 0xF], HEX[c & 0xF]};
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.agent.plugin.task.filecollect;
+
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+
+/**
+ * Measure the discovery of 10k files in 100 day directories: the cpu time per 10k files of the
+ * former pattern rescan of a task and of the reconciliation of the index, and the latency from the
+ * creation of a file to its discovery by the watch events. Run it by main().
+ */
+public class FileDiscoveryBenchmark {
+
+    private static final int DIR_COUNT = 100;
+    private static final int FILES_PER_DIR = 100;
+    private static final int ROUNDS = 5;
+    private static final int LATENCY_FILES = 200;
+
+    public static void main(String[] args) throws Exception {
+        File root = Files.createTempDirectory("fileDiscoveryBenchmark").toFile();
+        FileDiscoveryService service = new FileDiscoveryService(Long.MAX_VALUE);
+        try {
+            SimpleDateFormat dateFormat = new SimpleDateFormat("yyyyMMdd");
+            Calendar calendar = Calendar.getInstance();
+            calendar.set(2023, Calendar.JANUARY, 1);
+            String startDate = dateFormat.format(calendar.getTime());
+            File lastDir = null;
+            for (int i = 0; i < DIR_COUNT; i++) {
+                lastDir = new File(root, dateFormat.format(calendar.getTime()));
+                lastDir.mkdir();
+                for (int j = 0; j < FILES_PER_DIR; j++) {
+                    Files.write(new File(lastDir, "test_" + j + ".log").toPath(), new byte[16]);
+                }
+                calendar.add(Calendar.DAY_OF_YEAR, 1);
+            }
+            calendar.add(Calendar.DAY_OF_YEAR, -1);
+            String endDate = dateFormat.format(calendar.getTime());
+            String pattern = root.getAbsolutePath() + "/YYYYMMDD/test_[0-9]+.log";
+            int fileCount = DIR_COUNT * FILES_PER_DIR;
+
+            long rescanNanos = Long.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                long startCpu = cpuTime();
+                int count = FileScanner.scanTaskBetweenTimes("D", pattern, startDate, endDate).size();
+                rescanNanos = Math.min(rescanNanos, cpuTime() - startCpu);
+                if (count != fileCount) {
+                    throw new IllegalStateException("file count mismatch " + count);
+                }
+            }
+            report("pattern rescan", fileCount, rescanNanos);
+
+            service.start();
+            WatchEntity entity = new WatchEntity(service, pattern, "D", "0");
+            long startCpu = cpuTime();
+            entity.registerRecursively();
+            report("register and index", service.getFileCount(), cpuTime() - startCpu);
+            // let the directories of the setup age out of the modify time granularity
+            Thread.sleep(2500);
+            service.reconcile();
+            long reconcileNanos = Long.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                startCpu = cpuTime();
+                service.reconcile();
+                reconcileNanos = Math.min(reconcileNanos, cpuTime() - startCpu);
+            }
+            report("reconcile unchanged", service.getFileCount(), reconcileNanos);
+            // change the modify time of all the directories
+            for (File dir : root.listFiles()) {
+                File file = new File(dir, "tmp");
+                file.createNewFile();
+                file.delete();
+            }
+            Thread.sleep(100);
+            startCpu = cpuTime();
+            service.reconcile();
+            report("reconcile all listed", service.getFileCount(), cpuTime() - startCpu);
+            while (entity.pollDiscovered() != null) {
+                // drop the discovered by the reconciliation
+            }
+
+            long totalLatency = 0;
+            long maxLatency = 0;
+            for (int i = 0; i < LATENCY_FILES; i++) {
+                Path path = new File(lastDir, "test_" + (FILES_PER_DIR + i) + ".log").toPath();
+                long startTime = System.nanoTime();
+                Files.write(path, new byte[16], StandardOpenOption.CREATE_NEW);
+                while (entity.pollDiscovered() == null) {
+                    Thread.yield();
+                }
+                long latency = System.nanoTime() - startTime;
+                totalLatency += latency;
+                maxLatency = Math.max(maxLatency, latency);
+            }
+            System.out.println(new StringBuilder(256)
+                    .append("watch event discovery: files=").append(LATENCY_FILES)
+                    .append(", avg latency us=").append(totalLatency / LATENCY_FILES / 1000)
+                    .append(", max latency us=").append(maxLatency / 1000).toString());
+        } finally {
+            service.stop();
+            FileUtils.deleteDirectory(root);
+        }
+    }
+
+    private static long cpuTime() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        return threadMXBean.getCurrentThreadCpuTime();
+    }
+
+    private static void report(String name, int fileCount, long cpuNanos) {
+        System.out.println(new StringBuilder(256).append(name)
+                .append(": files=").append(fileCount)
+                .append(", cpu ms per 10k files=").append(cpuNanos * 10000L / fileCount / 1000000.0)
+                .toString());
+    }
+}
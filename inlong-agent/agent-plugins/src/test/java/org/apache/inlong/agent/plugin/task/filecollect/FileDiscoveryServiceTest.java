@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.agent.plugin.task.filecollect;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.awaitility.Awaitility.await;
+
+/**
+ * File discovery service test
+ */
+public class FileDiscoveryServiceTest {
+
+    private File root;
+    private FileDiscoveryService service;
+
+    @Before
+    public void setup() throws IOException {
+        root = Files.createTempDirectory("fileDiscovery").toFile();
+        // reconcile by the test only
+        service = new FileDiscoveryService(Long.MAX_VALUE);
+        service.start();
+    }
+
+    @After
+    public void teardown() throws IOException {
+        service.stop();
+        FileUtils.deleteDirectory(root);
+    }
+
+    @Test
+    public void testDiscoverByEvents() throws IOException {
+        WatchEntity entity = newEntity();
+        entity.registerRecursively();
+        Assert.assertEquals(1, service.getDirCount());
+        // the files of the new directory are discovered, the unmatched file is not
+        File dir = new File(root, "20230928");
+        Assert.assertTrue(dir.mkdir());
+        File file1 = createFile(dir, "test_1.txt");
+        createFile(dir, "other.log");
+        await().atMost(5, TimeUnit.SECONDS).until(() -> service.getFileCount() == 2);
+        Assert.assertEquals(file1.toPath(), pollOne(entity));
+        File file2 = createFile(dir, "test_2.txt");
+        Assert.assertEquals(file2.toPath(), pollOne(entity));
+        Assert.assertNull(entity.pollDiscovered());
+        // the deleted directory is dropped from the index and the entity
+        FileUtils.deleteDirectory(dir);
+        await().atMost(5, TimeUnit.SECONDS).until(() -> service.getDirCount() == 1);
+        Assert.assertEquals(1, entity.getTotalPathSize());
+        entity.unregister();
+        Assert.assertEquals(0, service.getDirCount());
+    }
+
+    @Test
+    public void testReconcile() throws IOException {
+        File dir = new File(root, "20230928");
+        Assert.assertTrue(dir.mkdir());
+        File file1 = createFile(dir, "test_1.txt");
+        // the existing files are indexed without being discovered
+        WatchEntity entity1 = newEntity();
+        entity1.registerRecursively();
+        WatchEntity entity2 = newEntity();
+        entity2.registerRecursively();
+        Assert.assertEquals(2, service.getDirCount());
+        Assert.assertEquals(1, service.getFileCount());
+        service.reconcile();
+        Assert.assertNull(entity1.pollDiscovered());
+        // the modified file has no watch event, it is discovered by the reconciliation
+        Files.write(file1.toPath(), "line\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        service.reconcile();
+        Assert.assertEquals(file1.toPath(), entity1.pollDiscovered());
+        Assert.assertEquals(file1.toPath(), entity2.pollDiscovered());
+        Assert.assertNull(entity1.pollDiscovered());
+        // the shared directories are kept until the last entity is unregistered
+        entity1.unregister();
+        Assert.assertEquals(2, service.getDirCount());
+        entity2.unregister();
+        Assert.assertEquals(0, service.getDirCount());
+    }
+
+    private WatchEntity newEntity() {
+        return new WatchEntity(service, root.getAbsolutePath() + "/YYYYMMDD/test_[0-9]+.txt", "D", "0");
+    }
+
+    private static File createFile(File dir, String name) throws IOException {
+        File file = new File(dir, name);
+        Files.write(file.toPath(), "line\n".getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static Path pollOne(WatchEntity entity) {
+        AtomicReference<Path> discovered = new AtomicReference<>();
+        await().atMost(5, TimeUnit.SECONDS).until(() -> {
+            discovered.set(entity.pollDiscovered());
+            return discovered.get() != null;
+        });
+        return discovered.get();
+    }
+}
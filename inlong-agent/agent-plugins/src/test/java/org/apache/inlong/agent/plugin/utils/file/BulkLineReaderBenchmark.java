@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.agent.plugin.utils.file;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Measure the lines per second of the bulk line reader and of the former byte by byte
+ * reading of the log file source, over the files of different line lengths.
+ * Run it by main(), the batch limits are the ones of the log file source.
+ */
+public class BulkLineReaderBenchmark {
+
+    private static final int FILE_SIZE = 64 * 1024 * 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int BATCH_LINE_COUNT = 10000;
+    private static final int BATCH_LINE_TOTAL_LEN = 1024 * 1024;
+    private static final int MAX_LINE_LEN = 4 * 1024 * 1024;
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) throws IOException {
+        for (int lineLen : new int[]{32, 128, 512, 2048}) {
+            File file = createFile(lineLen);
+            try {
+                long lines = 0;
+                long bulkNanos = Long.MAX_VALUE;
+                long formerNanos = Long.MAX_VALUE;
+                for (int round = 0; round < ROUNDS; round++) {
+                    long startTime = System.nanoTime();
+                    lines = readBulk(file);
+                    bulkNanos = Math.min(bulkNanos, System.nanoTime() - startTime);
+                    startTime = System.nanoTime();
+                    long formerLines = readFormer(file);
+                    formerNanos = Math.min(formerNanos, System.nanoTime() - startTime);
+                    if (formerLines != lines) {
+                        throw new IllegalStateException("line count mismatch " + formerLines + " " + lines);
+                    }
+                }
+                System.out.println(new StringBuilder(256)
+                        .append("line length=").append(lineLen)
+                        .append(", lines=").append(lines)
+                        .append(", bulk lines/sec=").append(lines * 1000000000L / bulkNanos)
+                        .append(", former lines/sec=").append(lines * 1000000000L / formerNanos)
+                        .toString());
+            } finally {
+                file.delete();
+            }
+        }
+    }
+
+    private static File createFile(int lineLen) throws IOException {
+        File file = File.createTempFile("bulkLineReaderBenchmark", ".log");
+        Random random = new Random(lineLen);
+        byte[] line = new byte[lineLen + 1];
+        try (OutputStream output = new BufferedOutputStream(new FileOutputStream(file))) {
+            for (int written = 0; written < FILE_SIZE; written += line.length) {
+                for (int i = 0; i < lineLen; i++) {
+                    line[i] = (byte) (' ' + random.nextInt(94));
+                }
+                line[lineLen] = '\n';
+                output.write(line);
+            }
+        }
+        return file;
+    }
+
+    private static long readBulk(File file) throws IOException {
+        BulkLineReader lineReader = new BulkLineReader(BUFFER_SIZE, MAX_LINE_LEN);
+        long[] counter = new long[1];
+        long pos = 0;
+        while (true) {
+            try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+                pos = lineReader.readLines(input.getChannel(), pos, BATCH_LINE_COUNT, BATCH_LINE_TOTAL_LEN,
+                        (line, nextOffset) -> counter[0]++);
+            }
+            if (lineReader.getReadLineCount() == 0) {
+                return counter[0];
+            }
+        }
+    }
+
+    /**
+     * The former reading, a switch per byte into a ByteArrayOutputStream, then a String per
+     * line turned back into bytes when the message is created.
+     */
+    private static long readFormer(File file) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long lines = 0;
+        long pos = 0;
+        while (true) {
+            int batchLines = 0;
+            int lineTotalLen = 0;
+            try (RandomAccessFile reader = new RandomAccessFile(file, "r")) {
+                ByteArrayOutputStream baos = new ByteArrayOutputStream();
+                reader.seek(pos);
+                long rePos = pos;
+                int num;
+                while ((num = reader.read(buffer)) != -1) {
+                    int i = 0;
+                    for (; i < num; i++) {
+                        byte ch = buffer[i];
+                        switch (ch) {
+                            case '\n':
+                                String temp = new String(baos.toByteArray(), StandardCharsets.UTF_8);
+                                if (temp.getBytes(StandardCharsets.UTF_8).length >= 0) {
+                                    batchLines++;
+                                }
+                                lineTotalLen += temp.length();
+                                rePos = pos + i + 1;
+                                baos.reset();
+                                break;
+                            case '\r':
+                                break;
+                            default:
+                                if (baos.size() < MAX_LINE_LEN) {
+                                    baos.write(ch);
+                                }
+                        }
+                        if (batchLines >= BATCH_LINE_COUNT || lineTotalLen >= BATCH_LINE_TOTAL_LEN) {
+                            break;
+                        }
+                    }
+                    if (batchLines >= BATCH_LINE_COUNT || lineTotalLen >= BATCH_LINE_TOTAL_LEN) {
+                        break;
+                    }
+                    if (i == num) {
+                        pos = reader.getFilePointer();
+                    }
+                }
+                pos = rePos;
+            }
+            if (batchLines == 0) {
+                return lines;
+            }
+            lines += batchLines;
+        }
+    }
+}
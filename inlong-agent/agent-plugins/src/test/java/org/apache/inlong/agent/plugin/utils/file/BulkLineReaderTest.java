@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.agent.plugin.utils.file;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Bulk line reader test
+ */
+public class BulkLineReaderTest {
+
+    private static final int MAX_LINE_LEN = 100;
+    private static File file;
+    private static final List<String> expectLines = new ArrayList<>();
+    private static final List<Long> expectOffsets = new ArrayList<>();
+
+    @BeforeClass
+    public static void setup() throws IOException {
+        Random random = new Random(17);
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            int len = random.nextInt(3) == 0 ? random.nextInt(150) : random.nextInt(20);
+            StringBuilder line = new StringBuilder();
+            for (int j = 0; j < len; j++) {
+                line.append((char) ('a' + random.nextInt(26)));
+            }
+            content.append(line);
+            if (i % 7 == 0) {
+                content.append("\r\n");
+            } else {
+                content.append('\n');
+            }
+            expectLines.add(line.length() > MAX_LINE_LEN ? line.substring(0, MAX_LINE_LEN) : line.toString());
+            expectOffsets.add((long) content.length());
+        }
+        // the partial line is not read
+        content.append("partial");
+        file = File.createTempFile("bulkLineReader", ".log");
+        Files.write(file.toPath(), content.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @AfterClass
+    public static void teardown() {
+        file.delete();
+    }
+
+    @Test
+    public void testReadLines() throws IOException {
+        for (int bufferSize : new int[]{1, 2, 7, 8, 9, 64, 4096}) {
+            BulkLineReader lineReader = new BulkLineReader(bufferSize, MAX_LINE_LEN);
+            List<String> lines = new ArrayList<>();
+            List<Long> offsets = new ArrayList<>();
+            long pos = 0;
+            try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+                while (true) {
+                    pos = lineReader.readLines(input.getChannel(), pos, 13, 1024, (line, nextOffset) -> {
+                        lines.add(new String(line, StandardCharsets.UTF_8));
+                        offsets.add(nextOffset);
+                    });
+                    if (lineReader.getReadLineCount() == 0) {
+                        break;
+                    }
+                }
+            }
+            Assert.assertEquals(expectLines, lines);
+            Assert.assertEquals(expectOffsets, offsets);
+            Assert.assertEquals(expectOffsets.get(expectOffsets.size() - 1).longValue(), pos);
+        }
+    }
+
+    @Test
+    public void testPosition() throws IOException {
+        BulkLineReader lineReader = new BulkLineReader(16, MAX_LINE_LEN);
+        try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+            Assert.assertEquals(0L, lineReader.getPositionByLine(input.getChannel(), 0));
+            Assert.assertEquals(expectOffsets.get(9).longValue(),
+                    lineReader.getPositionByLine(input.getChannel(), 10));
+            Assert.assertEquals(expectOffsets.get(expectOffsets.size() - 1).longValue(),
+                    lineReader.getPositionByLine(input.getChannel(), expectOffsets.size()));
+            Assert.assertEquals(-1L,
+                    lineReader.getPositionByLine(input.getChannel(), expectOffsets.size() + 1));
+            Assert.assertEquals(expectOffsets.get(expectOffsets.size() - 1).longValue(),
+                    lineReader.getLastLinePosition(input.getChannel()));
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.agent.plugin.utils.file;
+
+import com.google.gson.Gson;
+import org.apache.commons.codec.digest.DigestUtils;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.apache.inlong.agent.constant.MetadataConstants.DATA_CONTENT;
+import static org.apache.inlong.agent.constant.MetadataConstants.DATA_CONTENT_TIME;
+import static org.apache.inlong.agent.constant.MetadataConstants.METADATA_FILE_NAME;
+import static org.apache.inlong.agent.constant.MetadataConstants.METADATA_HOST_NAME;
+import static org.apache.inlong.agent.constant.MetadataConstants.METADATA_SOURCE_IP;
+
+/**
+ * Measure the lines per second and the allocated bytes per line of the enrichment of the lines with
+ * the metadata, by the former Gson serialization of the merged map with the md5 of the partition
+ * key per line, and by the template. Run it by main().
+ */
+public class MetadataTemplateBenchmark {
+
+    private static final int LINE_COUNT = 1000;
+    private static final int LINE_LEN = 200;
+    private static final int WARMUP_ROUNDS = 200;
+    private static final int ROUNDS = 500;
+
+    public static void main(String[] args) {
+        Map<String, String> metadata = new HashMap<>();
+        metadata.put(METADATA_HOST_NAME, "host-1");
+        metadata.put(METADATA_SOURCE_IP, "127.0.0.1");
+        metadata.put(METADATA_FILE_NAME, "test_1.log");
+        Random random = new Random(17);
+        byte[][] lines = new byte[LINE_COUNT][];
+        for (int i = 0; i < LINE_COUNT; i++) {
+            StringBuilder line = new StringBuilder("2023-10-18 12:00:00 INFO [main] ");
+            while (line.length() < LINE_LEN) {
+                line.append((char) ('a' + random.nextInt(26)));
+            }
+            lines[i] = line.toString().getBytes(StandardCharsets.UTF_8);
+        }
+        Gson gson = new Gson();
+        SimpleDateFormat timeFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+        run("gson", lines, line -> {
+            String message = new String(line, StandardCharsets.UTF_8);
+            Map<String, String> mergeData = new HashMap<>(metadata);
+            mergeData.put(DATA_CONTENT, FileDataUtils.getK8sJsonLog(message, FileDataUtils.isJSON(message)));
+            mergeData.put(DATA_CONTENT_TIME, timeFormat.format(new Date(System.currentTimeMillis())));
+            return gson.toJson(mergeData).getBytes(StandardCharsets.UTF_8).length
+                    + DigestUtils.md5Hex("test_group").length();
+        });
+        MetadataTemplate template = new MetadataTemplate(metadata);
+        run("template", lines, line -> template.render(line, System.currentTimeMillis()).length);
+    }
+
+    private static void run(String name, byte[][] lines, Enricher enricher) {
+        long sum = 0;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            for (byte[] line : lines) {
+                sum += enricher.enrich(line);
+            }
+        }
+        long startBytes = allocatedBytes();
+        long startTime = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            for (byte[] line : lines) {
+                sum += enricher.enrich(line);
+            }
+        }
+        long nanos = System.nanoTime() - startTime;
+        long bytes = allocatedBytes() - startBytes;
+        long count = (long) ROUNDS * lines.length;
+        System.out.println(new StringBuilder(256).append(name)
+                .append(": lines/sec=").append(count * 1000000000L / nanos)
+                .append(", allocated bytes/line=").append(bytes / count)
+                .append(", checksum=").append(sum).toString());
+    }
+
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threadMXBean)
+                    .getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0L;
+    }
+
+    private interface Enricher {
+
+        int enrich(byte[] line);
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.agent.plugin.utils.file;
+
+import com.google.gson.Gson;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.apache.inlong.agent.constant.MetadataConstants.DATA_CONTENT;
+import static org.apache.inlong.agent.constant.MetadataConstants.DATA_CONTENT_TIME;
+import static org.apache.inlong.agent.constant.MetadataConstants.METADATA_CONTAINER_ID;
+import static org.apache.inlong.agent.constant.MetadataConstants.METADATA_FILE_NAME;
+import static org.apache.inlong.agent.constant.MetadataConstants.METADATA_HOST_NAME;
+import static org.apache.inlong.agent.constant.MetadataConstants.METADATA_POD_LABEL;
+import static org.apache.inlong.agent.constant.MetadataConstants.METADATA_SOURCE_IP;
+
+/**
+ * Metadata template test
+ */
+public class MetadataTemplateTest {
+
+    private static final Gson GSON = new Gson();
+    private static final String[] LINES = {"", "   ", "\t\u000B", "hello world", "a\"b\\c\td\re\u0001f<g>&h='i'",
+            "中文日志 line", "\u2028\u2029", "{\"log\":\"k8s line\",\"stream\":\"stdout\"}",
+            "  {\"stream\":\"stdout\"}", "{not json", "/* comment */ {\"log\":\"x\"}", "# {\"log\":1}",
+            ")]}'\n{\"log\":\"prefixed\"}", "{\"log\":\"\\ud800 \\u003c\"}", "{\"log\":\"中文 json\"}"};
+
+    @Test
+    public void testSameAsGson() {
+        Map<String, String> metadata = new HashMap<>();
+        checkLines(metadata);
+        metadata.put(METADATA_HOST_NAME, "host-1");
+        metadata.put(METADATA_SOURCE_IP, "127.0.0.1");
+        metadata.put(METADATA_FILE_NAME, "test_1.log");
+        checkLines(metadata);
+        metadata.put(METADATA_CONTAINER_ID, null);
+        metadata.put(METADATA_POD_LABEL, GSON.toJson(metadata));
+        for (int i = 0; i < 20; i++) {
+            metadata.put("__key_" + i + "__", "value<" + i + ">");
+        }
+        checkLines(metadata);
+        Assert.assertEquals(render(new MetadataTemplate(null), "line", 0L),
+                render(new MetadataTemplate(new HashMap<>()), "line", 0L));
+    }
+
+    @Test
+    public void testRandomLines() {
+        Map<String, String> metadata = new HashMap<>();
+        metadata.put(METADATA_HOST_NAME, "host-1");
+        MetadataTemplate template = new MetadataTemplate(metadata);
+        Random random = new Random(17);
+        long timestamp = 1697558400000L;
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder line = new StringBuilder();
+            int len = random.nextInt(50);
+            for (int j = 0; j < len; j++) {
+                int type = random.nextInt(10);
+                if (type == 0) {
+                    line.append((char) random.nextInt(0x80));
+                } else if (type == 1) {
+                    line.append((char) (0x80 + random.nextInt(0xD000)));
+                } else if (type == 2) {
+                    line.appendCodePoint(0x10000 + random.nextInt(0x1000));
+                } else {
+                    line.append((char) ('a' + random.nextInt(26)));
+                }
+            }
+            timestamp += random.nextInt(700);
+            byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+            Assert.assertEquals(expected(metadata, bytes, timestamp),
+                    new String(template.render(bytes, timestamp), StandardCharsets.UTF_8));
+        }
+        // the invalid utf-8 bytes are replaced as decoding them
+        byte[] invalid = {'a', (byte) 0xE4, (byte) 0xB8, 'b', (byte) 0xFF};
+        Assert.assertEquals(expected(metadata, invalid, timestamp),
+                new String(template.render(invalid, timestamp), StandardCharsets.UTF_8));
+    }
+
+    private static void checkLines(Map<String, String> metadata) {
+        MetadataTemplate template = new MetadataTemplate(metadata);
+        long timestamp = 1697558399998L;
+        for (String line : LINES) {
+            for (int i = 0; i < 3; i++) {
+                Assert.assertEquals(expected(metadata, line.getBytes(StandardCharsets.UTF_8), timestamp),
+                        render(template, line, timestamp));
+                timestamp++;
+            }
+        }
+    }
+
+    private static String render(MetadataTemplate template, String line, long timestamp) {
+        return new String(template.render(line.getBytes(StandardCharsets.UTF_8), timestamp), StandardCharsets.UTF_8);
+    }
+
+    /*
+     * The json of the former enrichment by Gson.
+     */
+    private static String expected(Map<String, String> metadata, byte[] line, long timestamp) {
+        String message = new String(line, StandardCharsets.UTF_8);
+        Map<String, String> mergeData = new HashMap<>(metadata);
+        mergeData.put(DATA_CONTENT, FileDataUtils.getK8sJsonLog(message, FileDataUtils.isJSON(message)));
+        mergeData.put(DATA_CONTENT_TIME, new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(new Date(timestamp)));
+        return new String(GSON.toJson(mergeData).getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+    }
+}
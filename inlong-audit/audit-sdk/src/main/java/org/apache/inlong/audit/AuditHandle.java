@@ -0,0 +1,200 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.audit;
+
+import org.apache.inlong.audit.protocol.AuditApi;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Audit handle of an audit id, a group id, a stream id and an audit tag, which is got from
+ * AuditOperator and kept by the caller to add the audit data without resolving the key.
+ *
+ * The data is added into the LongAdder buckets of the minutes of the log time. The flush reports
+ * the increment of each bucket since the last flush, and retires the bucket without increment,
+ * whose late increment is reported once more by the next flush before it is dropped.
+ *
+ * The handle without any bucket is removed from AuditOperator by the flush in the same way, and the
+ * data added to a removed handle is added to the handle resolved again from AuditOperator.
+ */
+public class AuditHandle {
+
+    private final AuditOperator operator;
+    private final int auditId;
+    private final String auditTag;
+    private final String inlongGroupId;
+    private final String inlongStreamId;
+    private final String auditIdStr;
+    private final ConcurrentHashMap<Long, Bucket> buckets = new ConcurrentHashMap<>();
+    // the bucket of the last added minute, to skip the lookup of the buckets
+    private volatile Bucket lastBucket;
+    // only accessed by the flush
+    private final List<Bucket> retiredBuckets = new ArrayList<>();
+    private volatile boolean removed = false;
+
+    AuditHandle(AuditOperator operator, int auditId, String auditTag, String inlongGroupId,
+            String inlongStreamId) {
+        this.operator = operator;
+        this.auditId = auditId;
+        this.auditTag = auditTag;
+        this.inlongGroupId = inlongGroupId;
+        this.inlongStreamId = inlongStreamId;
+        this.auditIdStr = String.valueOf(auditId);
+    }
+
+    /**
+     * Add audit data
+     *
+     * @param logTime   the log time in milliseconds
+     * @param count     the message count
+     * @param size      the message size
+     */
+    public void add(long logTime, long count, long size) {
+        if (removed) {
+            operator.getAuditHandle(auditId, auditTag, inlongGroupId, inlongStreamId).add(logTime, count, size);
+            return;
+        }
+        long delayTime = System.currentTimeMillis() - logTime;
+        long minute = logTime / AuditOperator.PERIOD;
+        Bucket bucket = lastBucket;
+        if (bucket == null || bucket.minute != minute || bucket.retired) {
+            bucket = buckets.computeIfAbsent(minute, Bucket::new);
+            lastBucket = bucket;
+        }
+        bucket.count.add(count);
+        bucket.size.add(size);
+        bucket.delay.add(delayTime * count);
+    }
+
+    public int getAuditId() {
+        return auditId;
+    }
+
+    public String getAuditTag() {
+        return auditTag;
+    }
+
+    public String getInlongGroupId() {
+        return inlongGroupId;
+    }
+
+    public String getInlongStreamId() {
+        return inlongStreamId;
+    }
+
+    /**
+     * Whether the handle is removed from AuditOperator, a caller can drop the kept handle then
+     */
+    public boolean isRemoved() {
+        return removed;
+    }
+
+    /**
+     * Whether there is no bucket to flush, only accessed by the flush
+     */
+    boolean isEmpty() {
+        return buckets.isEmpty() && retiredBuckets.isEmpty();
+    }
+
+    void setRemoved() {
+        this.removed = true;
+    }
+
+    /**
+     * Report the increments of the buckets since the last flush, one message body per minute.
+     */
+    void flush(Consumer<AuditApi.AuditMessageBody> consumer) {
+        if (buckets.isEmpty() && retiredBuckets.isEmpty()) {
+            return;
+        }
+        // the late increments of the retired buckets and the increments of the live buckets
+        Map<Long, long[]> increments = new LinkedHashMap<>();
+        for (Bucket bucket : retiredBuckets) {
+            bucket.collect(increments);
+        }
+        retiredBuckets.clear();
+        Iterator<Bucket> iterator = buckets.values().iterator();
+        while (iterator.hasNext()) {
+            Bucket bucket = iterator.next();
+            if (!bucket.collect(increments)) {
+                bucket.retired = true;
+                iterator.remove();
+                retiredBuckets.add(bucket);
+            }
+        }
+        for (Map.Entry<Long, long[]> entry : increments.entrySet()) {
+            long[] increment = entry.getValue();
+            consumer.accept(AuditApi.AuditMessageBody.newBuilder()
+                    .setLogTs(entry.getKey() * AuditOperator.PERIOD)
+                    .setInlongGroupId(inlongGroupId)
+                    .setInlongStreamId(inlongStreamId)
+                    .setAuditId(auditIdStr)
+                    .setAuditTag(auditTag)
+                    .setCount(increment[0])
+                    .setSize(increment[1])
+                    .setDelay(increment[2])
+                    .build());
+        }
+    }
+
+    private static class Bucket {
+
+        private final long minute;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder size = new LongAdder();
+        private final LongAdder delay = new LongAdder();
+        // the sums reported by the last flush, only accessed by the flush
+        private long reportedCount;
+        private long reportedSize;
+        private long reportedDelay;
+        private volatile boolean retired = false;
+
+        private Bucket(long minute) {
+            this.minute = minute;
+        }
+
+        /**
+         * Collect the increment since the last flush.
+         *
+         * @return whether there is an increment of the count, the size or the delay
+         */
+        private boolean collect(Map<Long, long[]> increments) {
+            long countSum = count.sum();
+            long sizeSum = size.sum();
+            long delaySum = delay.sum();
+            if (countSum == reportedCount && sizeSum == reportedSize && delaySum == reportedDelay) {
+                return false;
+            }
+            long[] increment = increments.computeIfAbsent(minute, k -> new long[3]);
+            increment[0] += countSum - reportedCount;
+            increment[1] += sizeSum - reportedSize;
+            increment[2] += delaySum - reportedDelay;
+            reportedCount = countSum;
+            reportedSize = sizeSum;
+            reportedDelay = delaySum;
+            return true;
+        }
+    }
+}
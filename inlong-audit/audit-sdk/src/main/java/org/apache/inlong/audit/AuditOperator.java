@@ -21,7 +21,6 @@ import org.apache.inlong.audit.protocol.AuditApi;
 import org.apache.inlong.audit.send.SenderManager;
 import org.apache.inlong.audit.util.AuditConfig;
 import org.apache.inlong.audit.util.Config;
-import org.apache.inlong.audit.util.StatInfo;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,14 +28,15 @@ import org.slf4j.LoggerFactory;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Timer;
 import java.util.TimerTask;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 import static org.apache.inlong.audit.protocol.AuditApi.BaseCommand.Type.AUDIT_REQUEST;
 
@@ -47,16 +47,16 @@ public class AuditOperator implements Serializable {
 
     private static final long serialVersionUID = 1L;
     private static final Logger LOGGER = LoggerFactory.getLogger(AuditOperator.class);
-    private static final String FIELD_SEPARATORS = ":";
     private static final String DEFAULT_AUDIT_TAG = "-1";
     private static final int BATCH_NUM = 100;
     private static final AuditOperator AUDIT_OPERATOR = new AuditOperator();
     private static final ReentrantLock GLOBAL_LOCK = new ReentrantLock();
-    private static final int PERIOD = 1000 * 60;
-    private final ConcurrentHashMap<String, StatInfo> countMap = new ConcurrentHashMap<>();
-    private final HashMap<String, StatInfo> threadCountMap = new HashMap<>();
-    private final ConcurrentHashMap<String, StatInfo> deleteCountMap = new ConcurrentHashMap<>();
-    private final List<String> deleteKeyList = new ArrayList<>();
+    static final int PERIOD = 1000 * 60;
+    // the key to look up the handles without allocating a key per add
+    private static final ThreadLocal<HandleKey> LOOKUP_KEY = ThreadLocal.withInitial(HandleKey::new);
+    private final ConcurrentHashMap<HandleKey, AuditHandle> handleMap = new ConcurrentHashMap<>();
+    // the handles removed by the last flush, whose late data is reported once more, only accessed by the flush
+    private final List<AuditHandle> removedHandles = new ArrayList<>();
     private final Config config = new Config();
     private final Timer timer = new Timer();
     private int packageId = 1;
@@ -141,22 +141,33 @@ public class AuditOperator implements Serializable {
 
     public void add(int auditID, String auditTag, String inlongGroupID, String inlongStreamID, Long logTime,
             long count, long size) {
-        long delayTime = System.currentTimeMillis() - logTime;
-        String key = (logTime / PERIOD) + FIELD_SEPARATORS + inlongGroupID + FIELD_SEPARATORS
-                + inlongStreamID + FIELD_SEPARATORS + auditID + FIELD_SEPARATORS + auditTag;
-        addByKey(key, count, size, delayTime);
+        getAuditHandle(auditID, auditTag, inlongGroupID, inlongStreamID).add(logTime, count, size);
     }
 
     /**
-     * Add audit info by key.
+     * Get the audit handle to add the audit data of the ids and the default audit tag
      */
-    private void addByKey(String key, long count, long size, long delayTime) {
-        if (countMap.get(key) == null) {
-            countMap.put(key, new StatInfo(0L, 0L, 0L));
+    public AuditHandle getAuditHandle(int auditID, String inlongGroupID, String inlongStreamID) {
+        return getAuditHandle(auditID, DEFAULT_AUDIT_TAG, inlongGroupID, inlongStreamID);
+    }
+
+    /**
+     * Get the audit handle to add the audit data of the ids and the audit tag, the handle is
+     * created once and can be kept by the caller, it is removed by the flush once it has no data,
+     * and the data added to the removed handle is added to the handle got again.
+     */
+    public AuditHandle getAuditHandle(int auditID, String auditTag, String inlongGroupID, String inlongStreamID) {
+        // the null ids are reported as "null" as the former string key
+        String groupId = String.valueOf(inlongGroupID);
+        String streamId = String.valueOf(inlongStreamID);
+        String tag = String.valueOf(auditTag);
+        HandleKey lookupKey = LOOKUP_KEY.get().set(auditID, tag, groupId, streamId);
+        AuditHandle handle = handleMap.get(lookupKey);
+        if (handle != null) {
+            return handle;
         }
-        countMap.get(key).count.addAndGet(count);
-        countMap.get(key).size.addAndGet(size);
-        countMap.get(key).delay.addAndGet(delayTime * count);
+        return handleMap.computeIfAbsent(new HandleKey().set(auditID, tag, groupId, streamId),
+                k -> new AuditHandle(this, auditID, tag, groupId, streamId));
     }
 
     /**
@@ -165,28 +176,6 @@ public class AuditOperator implements Serializable {
     public synchronized void send() {
         manager.clearBuffer();
         resetStat();
-        // Retrieve statistics from the list of objects without statistics to be eliminated
-        for (Map.Entry<String, StatInfo> entry : this.deleteCountMap.entrySet()) {
-            this.sumThreadGroup(entry.getKey(), entry.getValue());
-        }
-        this.deleteCountMap.clear();
-        for (Map.Entry<String, StatInfo> entry : countMap.entrySet()) {
-            String key = entry.getKey();
-            StatInfo value = entry.getValue();
-            // If there is no data, enter the list to be eliminated
-            if (value.count.get() == 0) {
-                this.deleteKeyList.add(key);
-                continue;
-            }
-            this.sumThreadGroup(key, value);
-        }
-
-        // Clean up obsolete statistical data objects
-        for (String key : this.deleteKeyList) {
-            StatInfo value = this.countMap.remove(key);
-            this.deleteCountMap.put(key, value);
-        }
-        this.deleteKeyList.clear();
 
         long sdkTime = Calendar.getInstance().getTimeInMillis();
         AuditApi.AuditMessageHeader msgHeader = AuditApi.AuditMessageHeader.newBuilder()
@@ -198,38 +187,19 @@ public class AuditOperator implements Serializable {
         requestBuild.setMsgHeader(msgHeader).setRequestId(manager.nextRequestId());
 
         // process the stat info for all threads
-        for (Map.Entry<String, StatInfo> entry : threadCountMap.entrySet()) {
-            String[] keyArray = entry.getKey().split(FIELD_SEPARATORS);
-            long logTime = Long.parseLong(keyArray[0]) * PERIOD;
-            String inlongGroupID = keyArray[1];
-            String inlongStreamID = keyArray[2];
-            String auditID = keyArray[3];
-            String auditTag = keyArray[4];
-            StatInfo value = entry.getValue();
-            AuditApi.AuditMessageBody msgBody = AuditApi.AuditMessageBody.newBuilder()
-                    .setLogTs(logTime)
-                    .setInlongGroupId(inlongGroupID)
-                    .setInlongStreamId(inlongStreamID)
-                    .setAuditId(auditID)
-                    .setAuditTag(auditTag)
-                    .setCount(value.count.get())
-                    .setSize(value.size.get())
-                    .setDelay(value.delay.get())
-                    .build();
+        flush(msgBody -> {
             requestBuild.addMsgBody(msgBody);
-
             if (dataId++ >= BATCH_NUM) {
                 dataId = 0;
                 packageId++;
                 sendByBaseCommand(requestBuild.build());
                 requestBuild.clearMsgBody();
             }
-        }
+        });
         if (requestBuild.getMsgBodyCount() > 0) {
             sendByBaseCommand(requestBuild.build());
             requestBuild.clearMsgBody();
         }
-        threadCountMap.clear();
 
         LOGGER.info("finish report audit data");
     }
@@ -244,23 +214,24 @@ public class AuditOperator implements Serializable {
     }
 
     /**
-     * Summary
+     * Flush the audit data added since the last flush of all the handles
      */
-    private void sumThreadGroup(String key, StatInfo statInfo) {
-        long count = statInfo.count.getAndSet(0);
-        if (0 == count) {
-            return;
+    synchronized void flush(Consumer<AuditApi.AuditMessageBody> consumer) {
+        for (AuditHandle handle : removedHandles) {
+            handle.flush(consumer);
         }
-        if (threadCountMap.get(key) == null) {
-            threadCountMap.put(key, new StatInfo(0, 0, 0));
+        removedHandles.clear();
+        Iterator<Map.Entry<HandleKey, AuditHandle>> iterator = handleMap.entrySet().iterator();
+        while (iterator.hasNext()) {
+            AuditHandle handle = iterator.next().getValue();
+            handle.flush(consumer);
+            if (handle.isEmpty()) {
+                // removed before being marked, so the data added to the marked handle goes to a new handle
+                iterator.remove();
+                handle.setRemoved();
+                removedHandles.add(handle);
+            }
         }
-
-        long size = statInfo.size.getAndSet(0);
-        long delay = statInfo.delay.getAndSet(0);
-
-        threadCountMap.get(key).count.addAndGet(count);
-        threadCountMap.get(key).size.addAndGet(size);
-        threadCountMap.get(key).delay.addAndGet(delay);
     }
 
     /**
@@ -270,4 +241,46 @@ public class AuditOperator implements Serializable {
         dataId = 0;
         packageId = 1;
     }
+
+    /**
+     * The key of the audit handle
+     */
+    private static class HandleKey {
+
+        private int auditId;
+        private String auditTag;
+        private String inlongGroupId;
+        private String inlongStreamId;
+        private int hash;
+
+        private HandleKey set(int auditId, String auditTag, String inlongGroupId, String inlongStreamId) {
+            this.auditId = auditId;
+            this.auditTag = auditTag;
+            this.inlongGroupId = inlongGroupId;
+            this.inlongStreamId = inlongStreamId;
+            int result = auditId;
+            result = 31 * result + auditTag.hashCode();
+            result = 31 * result + inlongGroupId.hashCode();
+            this.hash = 31 * result + inlongStreamId.hashCode();
+            return this;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof HandleKey)) {
+                return false;
+            }
+            HandleKey other = (HandleKey) o;
+            return auditId == other.auditId && auditTag.equals(other.auditTag)
+                    && inlongGroupId.equals(other.inlongGroupId) && inlongStreamId.equals(other.inlongStreamId);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
 }
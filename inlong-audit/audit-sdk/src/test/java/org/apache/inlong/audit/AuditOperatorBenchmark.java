@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.audit;
+
+import org.apache.inlong.audit.util.StatInfo;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Measure the ns and the allocated bytes per add of the audit data, by the former string key
+ * with the lookups of a map of StatInfo, by AuditOperator.add and by a kept AuditHandle, over
+ * 100 groups, and the cpu time of a flush of them. Run it by main().
+ */
+public class AuditOperatorBenchmark {
+
+    private static final int GROUP_COUNT = 100;
+    private static final int WARMUP_ROUNDS = 20000;
+    private static final int ROUNDS = 50000;
+    private static final ConcurrentHashMap<String, StatInfo> COUNT_MAP = new ConcurrentHashMap<>();
+
+    public static void main(String[] args) {
+        AuditOperator operator = AuditOperator.getInstance();
+        String[] groupIds = new String[GROUP_COUNT];
+        AuditHandle[] handles = new AuditHandle[GROUP_COUNT];
+        for (int i = 0; i < GROUP_COUNT; i++) {
+            groupIds[i] = "benchmark_group_" + i;
+            handles[i] = operator.getAuditHandle(3, groupIds[i], "benchmark_stream");
+        }
+        long logTime = System.currentTimeMillis();
+        run("string key", i -> addByKey(3, "-1", groupIds[i], "benchmark_stream", logTime, 1, 100));
+        run("AuditOperator.add", i -> operator.add(3, groupIds[i], "benchmark_stream", logTime, 1, 100));
+        run("AuditHandle.add", i -> handles[i].add(logTime, 1, 100));
+
+        long[] bodies = new long[1];
+        long cpuNanos = Long.MAX_VALUE;
+        for (int round = 0; round < 100; round++) {
+            bodies[0] = 0;
+            for (AuditHandle handle : handles) {
+                handle.add(logTime, 1, 100);
+            }
+            long startCpu = ManagementFactory.getThreadMXBean().getCurrentThreadCpuTime();
+            operator.flush(msgBody -> bodies[0]++);
+            cpuNanos = Math.min(cpuNanos, ManagementFactory.getThreadMXBean().getCurrentThreadCpuTime() - startCpu);
+        }
+        System.out.println("flush: bodies=" + bodies[0] + ", cpu us=" + cpuNanos / 1000);
+        // the timer of AuditOperator is not a daemon
+        System.exit(0);
+    }
+
+    /*
+     * The former add of AuditOperator.
+     */
+    private static void addByKey(int auditID, String auditTag, String inlongGroupID, String inlongStreamID,
+            Long logTime, long count, long size) {
+        long delayTime = System.currentTimeMillis() - logTime;
+        String key = (logTime / AuditOperator.PERIOD) + ":" + inlongGroupID + ":"
+                + inlongStreamID + ":" + auditID + ":" + auditTag;
+        if (COUNT_MAP.get(key) == null) {
+            COUNT_MAP.put(key, new StatInfo(0L, 0L, 0L));
+        }
+        COUNT_MAP.get(key).count.addAndGet(count);
+        COUNT_MAP.get(key).size.addAndGet(size);
+        COUNT_MAP.get(key).delay.addAndGet(delayTime * count);
+    }
+
+    private static void run(String name, Adder adder) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            for (int j = 0; j < GROUP_COUNT; j++) {
+                adder.add(j);
+            }
+        }
+        long startBytes = allocatedBytes();
+        long startTime = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            for (int j = 0; j < GROUP_COUNT; j++) {
+                adder.add(j);
+            }
+        }
+        long nanos = System.nanoTime() - startTime;
+        long bytes = allocatedBytes() - startBytes;
+        long count = (long) ROUNDS * GROUP_COUNT;
+        System.out.println(new StringBuilder(256).append(name)
+                .append(": ns/add=").append(nanos / count)
+                .append(", allocated bytes/add=").append(bytes / count).toString());
+    }
+
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threadMXBean)
+                    .getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0L;
+    }
+
+    private interface Adder {
+
+        void add(int index);
+    }
+}
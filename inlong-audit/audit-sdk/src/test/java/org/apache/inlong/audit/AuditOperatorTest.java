@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.audit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class AuditOperatorTest {
+
+    private static final long MINUTE = 60 * 1000L;
+    private static final long LOG_TIME = 1697558400000L;
+
+    @Test
+    public void testFlushSameAsAdded() throws InterruptedException {
+        AuditOperator operator = AuditOperator.getInstance();
+        List<Map<String, long[]>> threadExpects = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Random random = new Random(t);
+            Map<String, long[]> threadExpected = new HashMap<>();
+            threadExpects.add(threadExpected);
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    int auditId = random.nextInt(3);
+                    String groupId = "flushGroup" + random.nextInt(5);
+                    String streamId = "stream" + random.nextInt(2);
+                    long logTime = LOG_TIME + random.nextInt(3) * MINUTE + random.nextInt(1000);
+                    long size = random.nextInt(100);
+                    if (i % 2 == 0) {
+                        operator.add(auditId, groupId, streamId, logTime, 2, size);
+                    } else {
+                        operator.getAuditHandle(auditId, groupId, streamId).add(logTime, 2, size);
+                    }
+                    long[] sum = threadExpected.computeIfAbsent(key(logTime / MINUTE * MINUTE, groupId,
+                            streamId, String.valueOf(auditId), "-1"), k -> new long[2]);
+                    sum[0] += 2;
+                    sum[1] += size;
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        Map<String, long[]> expected = new HashMap<>();
+        for (int t = 0; t < threads.size(); t++) {
+            threads.get(t).join();
+            threadExpects.get(t).forEach((k, v) -> {
+                long[] sum = expected.computeIfAbsent(k, x -> new long[2]);
+                sum[0] += v[0];
+                sum[1] += v[1];
+            });
+        }
+        Map<String, long[]> actual = flush(operator, "flushGroup");
+        Assert.assertEquals(expected.keySet(), actual.keySet());
+        expected.forEach((k, v) -> {
+            Assert.assertEquals(v[0], actual.get(k)[0]);
+            Assert.assertEquals(v[1], actual.get(k)[1]);
+            // the delay is the count times the time from the log time to the add
+            Assert.assertTrue(actual.get(k)[2] > 0);
+        });
+        // nothing is added since the last flush
+        Assert.assertTrue(flush(operator, "flushGroup").isEmpty());
+    }
+
+    @Test
+    public void testLateAddOfRetiredBucket() {
+        AuditOperator operator = AuditOperator.getInstance();
+        AuditHandle handle = operator.getAuditHandle(5, "tag", "lateGroup", "lateStream");
+        Assert.assertSame(handle, operator.getAuditHandle(5, "tag", "lateGroup", "lateStream"));
+        handle.add(LOG_TIME, 1, 10);
+        Assert.assertEquals(1, flush(operator, "lateGroup").size());
+        // the bucket without increment is retired by this flush
+        Assert.assertTrue(flush(operator, "lateGroup").isEmpty());
+        handle.add(LOG_TIME, 3, 30);
+        operator.add(5, "tag", "lateGroup", "lateStream", LOG_TIME, 4, 40);
+        Map<String, long[]> actual = flush(operator, "lateGroup");
+        Assert.assertEquals(1, actual.size());
+        long[] sum = actual.get(key(LOG_TIME, "lateGroup", "lateStream", "5", "tag"));
+        Assert.assertEquals(7, sum[0]);
+        Assert.assertEquals(70, sum[1]);
+
+        // the size without count is reported, and keeps the bucket alive
+        handle.add(LOG_TIME, 0, 5);
+        actual = flush(operator, "lateGroup");
+        Assert.assertEquals(1, actual.size());
+        sum = actual.get(key(LOG_TIME, "lateGroup", "lateStream", "5", "tag"));
+        Assert.assertEquals(0, sum[0]);
+        Assert.assertEquals(5, sum[1]);
+
+        // the null ids are reported as "null"
+        operator.add(6, null, null, LOG_TIME, 1, 1);
+        Assert.assertEquals(1, flush(operator, "null").size());
+    }
+
+    @Test
+    public void testRemoveEmptyHandle() {
+        AuditOperator operator = AuditOperator.getInstance();
+        AuditHandle handle = operator.getAuditHandle(7, "tag", "removeGroup", "removeStream");
+        handle.add(LOG_TIME, 1, 10);
+        Assert.assertEquals(1, flush(operator, "removeGroup").size());
+        // the bucket is retired, then the handle without bucket is removed
+        Assert.assertTrue(flush(operator, "removeGroup").isEmpty());
+        Assert.assertFalse(handle.isRemoved());
+        Assert.assertTrue(flush(operator, "removeGroup").isEmpty());
+        Assert.assertTrue(handle.isRemoved());
+        AuditHandle newHandle = operator.getAuditHandle(7, "tag", "removeGroup", "removeStream");
+        Assert.assertNotSame(handle, newHandle);
+
+        // the data added to the removed handle goes to the handle resolved again
+        handle.add(LOG_TIME, 2, 20);
+        newHandle.add(LOG_TIME, 3, 30);
+        Map<String, long[]> actual = flush(operator, "removeGroup");
+        Assert.assertEquals(1, actual.size());
+        long[] sum = actual.get(key(LOG_TIME, "removeGroup", "removeStream", "7", "tag"));
+        Assert.assertEquals(5, sum[0]);
+        Assert.assertEquals(50, sum[1]);
+    }
+
+    private static Map<String, long[]> flush(AuditOperator operator, String groupPrefix) {
+        Map<String, long[]> actual = new HashMap<>();
+        operator.flush(msgBody -> {
+            if (!msgBody.getInlongGroupId().startsWith(groupPrefix)) {
+                return;
+            }
+            String key = key(msgBody.getLogTs(), msgBody.getInlongGroupId(), msgBody.getInlongStreamId(),
+                    msgBody.getAuditId(), msgBody.getAuditTag());
+            // one message body per key
+            Assert.assertNull(actual.put(key, new long[]{msgBody.getCount(), msgBody.getSize(),
+                    msgBody.getDelay()}));
+        });
+        return actual;
+    }
+
+    private static String key(long logTs, String groupId, String streamId, String auditId, String auditTag) {
+        return logTs + "|" + groupId + "|" + streamId + "|" + auditId + "|" + auditTag;
+    }
+}
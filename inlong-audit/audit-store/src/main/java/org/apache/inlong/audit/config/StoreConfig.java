@@ -30,6 +30,18 @@ public class StoreConfig {
     @Value("${audit.config.store.mode:mysql}")
     private String store;
 
+    @Value("${audit.config.store.aggregate.enable:false}")
+    private boolean aggregateEnable;
+
+    @Value("${audit.config.store.aggregate.windowMs:10000}")
+    private int aggregateWindowMs;
+
+    @Value("${audit.config.store.aggregate.maxMessages:1000000}")
+    private int aggregateMaxMessages;
+
+    @Value("${audit.config.store.aggregate.dedupMs:300000}")
+    private long aggregateDedupMs;
+
     public boolean isMysqlStore() {
         return store.contains("mysql");
     }
@@ -0,0 +1,400 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.audit.service;
+
+import org.apache.inlong.audit.protocol.AuditData;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetAddress;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AuditAggregator, which merges the audit data of all the reporters into one row per log time,
+ * group id, stream id, audit id and audit tag over a window before inserting it into the stores.
+ *
+ * The window is flushed by the timer, and by the insert which reaches the high watermark of the
+ * messages, so the memory is bounded. The duplicate messages resent by the reporters are dropped, as the
+ * stores are queried distinctly: the 64-bit hashes of the messages of the flushed windows are remembered
+ * for the dedup time, at most the high watermark of them, the oldest windows are forgotten first.
+ * Each merged row is reported by the ip of the store and a sequence as the packet id, so the rows of the
+ * different windows are distinct, and the ip, docker id and thread id of the reporters are lost.
+ *
+ * The messages are acked by the consumer once they are merged, so the open window is lost if the process
+ * crashes, the window is flushed by close() on shutdown. The inserts after close() go to the stores directly.
+ */
+public class AuditAggregator implements InsertData, AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AuditAggregator.class);
+    // the offset basis and prime of the 64-bit FNV-1a hash
+    private static final long HASH_SEED = 0xcbf29ce484222325L;
+    private static final long HASH_PRIME = 0x100000001b3L;
+
+    private final List<InsertData> insertServiceList;
+    private final int windowMs;
+    private final int maxMessages;
+    private final long dedupMs;
+    private final String localIp;
+    private final ScheduledExecutorService timerService = Executors.newSingleThreadScheduledExecutor();
+    // the lock of the window, the flush holds it only to swap the window
+    private final Object windowLock = new Object();
+    // the lock of the flush, to insert the windows into the stores in order
+    private final Object flushLock = new Object();
+    private final RowKey lookupKey = new RowKey();
+    private Map<RowKey, AuditData> rows = new HashMap<>();
+    private MessageSet messages = new MessageSet();
+    // the messages of the flushed windows in the dedup time, the oldest first
+    private final Deque<FlushedWindow> flushedWindows = new ArrayDeque<>();
+    private long flushedMessageCount = 0;
+    private boolean isClosed = false;
+    private long messageCount = 0;
+    private long duplicateCount = 0;
+    private long packetId = 0;
+
+    /**
+     * Constructor
+     *
+     * @param insertServiceList   the stores to insert the merged rows
+     * @param windowMs            the interval to flush the window
+     * @param maxMessages         the high watermark of the messages of the window
+     * @param dedupMs             the time to remember the messages of the flushed windows to drop the duplicates
+     */
+    public AuditAggregator(List<InsertData> insertServiceList, int windowMs, int maxMessages, long dedupMs) {
+        this.insertServiceList = insertServiceList;
+        this.windowMs = windowMs;
+        this.maxMessages = maxMessages;
+        this.dedupMs = dedupMs;
+        this.localIp = getLocalIp();
+    }
+
+    /**
+     * start
+     */
+    public void start() {
+        timerService.scheduleWithFixedDelay(this::flush, windowMs, windowMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * insert
+     * @param msgBody audit data reading from Pulsar or other MessageQueue.
+     */
+    @Override
+    public void insert(AuditData msgBody) {
+        boolean reachWatermark;
+        synchronized (windowLock) {
+            if (isClosed) {
+                insertStores(msgBody);
+                return;
+            }
+            messageCount++;
+            long messageHash = messageHash(msgBody);
+            if (isFlushed(messageHash) || !messages.add(messageHash)) {
+                duplicateCount++;
+                return;
+            }
+            lookupKey.set(msgBody.getLogTs(), msgBody.getInlongGroupId(), msgBody.getInlongStreamId(),
+                    msgBody.getAuditId(), msgBody.getAuditTag());
+            AuditData row = rows.get(lookupKey);
+            if (row == null) {
+                row = new AuditData();
+                row.setLogTs(msgBody.getLogTs());
+                row.setInlongGroupId(msgBody.getInlongGroupId());
+                row.setInlongStreamId(msgBody.getInlongStreamId());
+                row.setAuditId(msgBody.getAuditId());
+                row.setAuditTag(msgBody.getAuditTag());
+                rows.put(new RowKey().set(msgBody.getLogTs(), msgBody.getInlongGroupId(),
+                        msgBody.getInlongStreamId(), msgBody.getAuditId(), msgBody.getAuditTag()), row);
+            }
+            row.setCount(row.getCount() + msgBody.getCount());
+            row.setSize(row.getSize() + msgBody.getSize());
+            row.setDelay(row.getDelay() + msgBody.getDelay());
+            reachWatermark = messageCount >= maxMessages;
+        }
+        if (reachWatermark) {
+            flush();
+        }
+    }
+
+    /**
+     * Flush the merged rows of the window into the stores.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            Map<RowKey, AuditData> windowRows;
+            long windowMessages;
+            long windowDuplicates;
+            synchronized (windowLock) {
+                if (messageCount == 0) {
+                    return;
+                }
+                windowRows = rows;
+                windowMessages = messageCount;
+                windowDuplicates = duplicateCount;
+                this.retireMessages(System.currentTimeMillis());
+                rows = new HashMap<>();
+                messages = new MessageSet();
+                messageCount = 0;
+                duplicateCount = 0;
+            }
+            long sdkTs = System.currentTimeMillis();
+            for (AuditData row : windowRows.values()) {
+                row.setIp(localIp);
+                row.setDockerId("");
+                row.setThreadId("");
+                row.setSdkTs(sdkTs);
+                row.setPacketId(++packetId);
+                this.insertStores(row);
+            }
+            LOG.info("flush {} audit messages into {} rows, drop {} duplicate messages",
+                    windowMessages, windowRows.size(), windowDuplicates);
+        }
+    }
+
+    /**
+     * close
+     */
+    @Override
+    public void close() {
+        timerService.shutdown();
+        synchronized (windowLock) {
+            this.isClosed = true;
+        }
+        flush();
+    }
+
+    private void insertStores(AuditData data) {
+        for (InsertData service : insertServiceList) {
+            try {
+                service.insert(data);
+            } catch (Exception e) {
+                LOG.error(e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Whether the message is in the flushed windows, called with the window lock
+     */
+    private boolean isFlushed(long messageHash) {
+        for (FlushedWindow window : flushedWindows) {
+            if (Arrays.binarySearch(window.messageHashes, messageHash) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Remember the messages of the window to flush, and forget the windows out of the dedup time or
+     * over the high watermark, called with the window lock
+     */
+    private void retireMessages(long flushTime) {
+        if (dedupMs > 0) {
+            long[] messageHashes = messages.toSortedArray();
+            flushedWindows.addLast(new FlushedWindow(flushTime, messageHashes));
+            flushedMessageCount += messageHashes.length;
+        }
+        while (!flushedWindows.isEmpty() && (flushedWindows.peekFirst().flushTime < flushTime - dedupMs
+                || flushedMessageCount > maxMessages)) {
+            flushedMessageCount -= flushedWindows.pollFirst().messageHashes.length;
+        }
+    }
+
+    /**
+     * The 64-bit hash of a message, by the fields the stores are queried distinctly
+     */
+    private static long messageHash(AuditData data) {
+        long hash = hash(HASH_SEED, data.getIp());
+        hash = hash(hash, data.getDockerId());
+        hash = hash(hash, data.getThreadId());
+        hash = hash(hash, data.getSdkTs());
+        hash = hash(hash, data.getPacketId());
+        hash = hash(hash, data.getLogTs());
+        hash = hash(hash, data.getInlongGroupId());
+        hash = hash(hash, data.getInlongStreamId());
+        hash = hash(hash, data.getAuditId());
+        hash = hash(hash, data.getAuditTag());
+        hash = hash(hash, data.getCount());
+        hash = hash(hash, data.getSize());
+        hash = hash(hash, data.getDelay());
+        // the finalizer of murmur3, to spread the bits for the open addressing
+        hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+        hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    private static long hash(long hash, long value) {
+        return (hash ^ value) * HASH_PRIME;
+    }
+
+    private static long hash(long hash, String value) {
+        if (value == null) {
+            return hash(hash, -1L);
+        }
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * HASH_PRIME;
+        }
+        // the length separates the adjacent strings
+        return hash(hash, value.length());
+    }
+
+    private static String getLocalIp() {
+        try {
+            return InetAddress.getLocalHost().getHostAddress();
+        } catch (Exception e) {
+            LOG.error("get local ip failure!", e);
+            return "127.0.0.1";
+        }
+    }
+
+    /**
+     * The message hashes of a flushed window, sorted
+     */
+    private static class FlushedWindow {
+
+        private final long flushTime;
+        private final long[] messageHashes;
+
+        private FlushedWindow(long flushTime, long[] messageHashes) {
+            this.flushTime = flushTime;
+            this.messageHashes = messageHashes;
+        }
+    }
+
+    /**
+     * The message hashes of the open window, an open addressing set of longs without boxing
+     */
+    private static class MessageSet {
+
+        private long[] table = new long[64];
+        private boolean hasZero = false;
+        private int size = 0;
+
+        private boolean add(long hash) {
+            if (hash == 0) {
+                if (hasZero) {
+                    return false;
+                }
+                hasZero = true;
+                size++;
+                return true;
+            }
+            int mask = table.length - 1;
+            int index = (int) hash & mask;
+            while (table[index] != 0) {
+                if (table[index] == hash) {
+                    return false;
+                }
+                index = (index + 1) & mask;
+            }
+            table[index] = hash;
+            size++;
+            if (size * 2 > table.length) {
+                this.resize();
+            }
+            return true;
+        }
+
+        private void resize() {
+            long[] oldTable = table;
+            table = new long[oldTable.length * 2];
+            int mask = table.length - 1;
+            for (long hash : oldTable) {
+                if (hash != 0) {
+                    int index = (int) hash & mask;
+                    while (table[index] != 0) {
+                        index = (index + 1) & mask;
+                    }
+                    table[index] = hash;
+                }
+            }
+        }
+
+        private long[] toSortedArray() {
+            long[] result = new long[size];
+            int count = 0;
+            if (hasZero) {
+                result[count++] = 0;
+            }
+            for (long hash : table) {
+                if (hash != 0) {
+                    result[count++] = hash;
+                }
+            }
+            Arrays.sort(result);
+            return result;
+        }
+    }
+
+    /**
+     * The key of a merged row
+     */
+    private static class RowKey {
+
+        private long logTs;
+        private String inlongGroupId;
+        private String inlongStreamId;
+        private String auditId;
+        private String auditTag;
+        private int hash;
+
+        private RowKey set(long logTs, String inlongGroupId, String inlongStreamId, String auditId,
+                String auditTag) {
+            this.logTs = logTs;
+            this.inlongGroupId = inlongGroupId;
+            this.inlongStreamId = inlongStreamId;
+            this.auditId = auditId;
+            this.auditTag = auditTag;
+            int result = Long.hashCode(logTs);
+            result = 31 * result + Objects.hashCode(inlongGroupId);
+            result = 31 * result + Objects.hashCode(inlongStreamId);
+            result = 31 * result + Objects.hashCode(auditId);
+            this.hash = 31 * result + Objects.hashCode(auditTag);
+            return this;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof RowKey)) {
+                return false;
+            }
+            RowKey other = (RowKey) o;
+            return logTs == other.logTs && Objects.equals(inlongGroupId, other.inlongGroupId)
+                    && Objects.equals(inlongStreamId, other.inlongStreamId)
+                    && Objects.equals(auditId, other.auditId) && Objects.equals(auditTag, other.auditTag);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
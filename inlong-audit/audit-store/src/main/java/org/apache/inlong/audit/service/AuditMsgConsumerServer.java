@@ -43,17 +43,19 @@ import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Properties;
 
 @Service
-public class AuditMsgConsumerServer implements InitializingBean {
+public class AuditMsgConsumerServer implements InitializingBean, DisposableBean {
 
     private static final Logger LOG = LoggerFactory.getLogger(AuditMsgConsumerServer.class);
     @Autowired
@@ -68,6 +70,8 @@ public class AuditMsgConsumerServer implements InitializingBean {
     private ClickHouseConfig chConfig;
     // ClickHouseService
     private ClickHouseService ckService;
+    // AuditAggregator
+    private AuditAggregator aggregator;
 
     private static final String DEFAULT_CONFIG_PROPERTIES = "application.properties";
 
@@ -112,6 +116,9 @@ public class AuditMsgConsumerServer implements InitializingBean {
         if (storeConfig.isClickHouseStore()) {
             ckService.start();
         }
+        if (aggregator != null) {
+            aggregator.start();
+        }
         mqConsume.start();
     }
 
@@ -133,9 +140,25 @@ public class AuditMsgConsumerServer implements InitializingBean {
             ckService = new ClickHouseService(chConfig);
             insertServiceList.add(ckService);
         }
+        if (storeConfig.isAggregateEnable()) {
+            // merge the audit data before inserting it into the stores
+            aggregator = new AuditAggregator(insertServiceList, storeConfig.getAggregateWindowMs(),
+                    storeConfig.getAggregateMaxMessages(), storeConfig.getAggregateDedupMs());
+            return Collections.singletonList(aggregator);
+        }
         return insertServiceList;
     }
 
+    /**
+     * Destroying bean, flush the open window of the aggregator into the stores
+     */
+    @Override
+    public void destroy() {
+        if (aggregator != null) {
+            aggregator.close();
+        }
+    }
+
     private List<MQInfo> getClusterFromManager() {
         Properties properties = new Properties();
         List<MQInfo> mqConfig;
@@ -0,0 +1,181 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.audit.service;
+
+import org.apache.inlong.audit.protocol.AuditData;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Collections;
+
+/**
+ * Measure the rows stored and the consume throughput of the audit data of 500 reporters, by
+ * inserting every message into an embedded database and by the aggregator before it, and the
+ * time of the query of the manager over the rows. Run it by main() with the jdbc url of the
+ * embedded database, the in-memory H2 by default.
+ */
+public class AuditAggregatorBenchmark {
+
+    private static final int REPORTER_COUNT = 500;
+    private static final int GROUP_COUNT = 20;
+    private static final int MINUTE_COUNT = 5;
+    private static final int BATCH_SIZE = 500;
+    private static final String CREATE_SQL = "create table %s (ip varchar(32), docker_id varchar(100),"
+            + " thread_id varchar(50), sdk_ts timestamp, packet_id bigint, log_ts timestamp,"
+            + " inlong_group_id varchar(100), inlong_stream_id varchar(100), audit_id varchar(100),"
+            + " audit_tag varchar(100), count bigint, size bigint, delay bigint, update_time timestamp)";
+    private static final String INSERT_SQL = "insert into %s (ip, docker_id, thread_id, sdk_ts, packet_id,"
+            + " log_ts, inlong_group_id, inlong_stream_id, audit_id, audit_tag, count, size, delay, update_time)"
+            + " values (?,?,?,?,?,?,?,?,?,?,?,?,?,?)";
+    private static final String QUERY_SQL = "select log_ts, sum(count) as total, sum(delay) as total_delay from ("
+            + "select distinct ip, docker_id, thread_id, sdk_ts, packet_id, log_ts, inlong_group_id,"
+            + " inlong_stream_id, audit_id, count, size, delay from %s where inlong_group_id = ?"
+            + " and inlong_stream_id = ? and audit_id = ?) sub group by log_ts order by log_ts";
+
+    public static void main(String[] args) throws Exception {
+        String url = args.length > 0 ? args[0] : "jdbc:h2:mem:audit_benchmark";
+        try (Connection conn = DriverManager.getConnection(url)) {
+            conn.setAutoCommit(false);
+            run(conn, "audit_data_direct", false);
+            run(conn, "audit_data_merged", true);
+        }
+    }
+
+    private static void run(Connection conn, String table, boolean aggregate) throws SQLException {
+        try (Statement statement = conn.createStatement()) {
+            statement.execute(String.format(CREATE_SQL, table));
+        }
+        conn.commit();
+        JdbcStore store = new JdbcStore(conn, String.format(INSERT_SQL, table));
+        AuditAggregator aggregator = new AuditAggregator(Collections.singletonList(store), 60000, 1000000, 300000);
+        InsertData service = aggregate ? aggregator : store;
+        long logTs = 1697558400000L;
+        long messages = 0;
+        long startTime = System.nanoTime();
+        for (int minute = 0; minute < MINUTE_COUNT; minute++) {
+            for (int reporter = 0; reporter < REPORTER_COUNT; reporter++) {
+                for (int group = 0; group < GROUP_COUNT; group++) {
+                    for (int auditId = 5; auditId <= 6; auditId++) {
+                        AuditData data = new AuditData();
+                        data.setIp("10.0." + reporter / 256 + "." + reporter % 256);
+                        data.setDockerId("docker");
+                        data.setThreadId("1");
+                        data.setSdkTs(logTs + (minute + 1) * 60000L);
+                        data.setPacketId(group);
+                        data.setLogTs(logTs + minute * 60000L);
+                        data.setInlongGroupId("group" + group);
+                        data.setInlongStreamId("stream");
+                        data.setAuditId(String.valueOf(auditId));
+                        data.setAuditTag("-1");
+                        data.setCount(100);
+                        data.setSize(10000);
+                        data.setDelay(2000);
+                        service.insert(data);
+                        messages++;
+                    }
+                }
+            }
+            if (aggregate) {
+                aggregator.flush();
+            }
+        }
+        store.commit();
+        long nanos = System.nanoTime() - startTime;
+        aggregator.close();
+
+        long rows = 0;
+        long total = 0;
+        try (Statement statement = conn.createStatement();
+                ResultSet rs = statement.executeQuery("select count(*), sum(count) from " + table)) {
+            rs.next();
+            rows = rs.getLong(1);
+            total = rs.getLong(2);
+        }
+        long queryStart = System.nanoTime();
+        try (PreparedStatement statement = conn.prepareStatement(String.format(QUERY_SQL, table))) {
+            statement.setString(1, "group0");
+            statement.setString(2, "stream");
+            statement.setString(3, "5");
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    rs.getLong(2);
+                }
+            }
+        }
+        long queryNanos = System.nanoTime() - queryStart;
+        conn.commit();
+        System.out.println(new StringBuilder(256).append(aggregate ? "aggregated" : "direct")
+                .append(": messages=").append(messages)
+                .append(", rows=").append(rows)
+                .append(", sum count=").append(total)
+                .append(", messages/sec=").append(messages * 1000000000L / nanos)
+                .append(", query ms=").append(queryNanos / 1000000).toString());
+    }
+
+    /**
+     * Insert the audit data into the table in jdbc batches, as ClickHouseService.
+     */
+    private static class JdbcStore implements InsertData {
+
+        private final Connection conn;
+        private final PreparedStatement pstat;
+        private int counter = 0;
+
+        private JdbcStore(Connection conn, String sql) throws SQLException {
+            this.conn = conn;
+            this.pstat = conn.prepareStatement(sql);
+        }
+
+        @Override
+        public void insert(AuditData data) {
+            try {
+                pstat.setString(1, data.getIp());
+                pstat.setString(2, data.getDockerId());
+                pstat.setString(3, data.getThreadId());
+                pstat.setTimestamp(4, new Timestamp(data.getSdkTs()));
+                pstat.setLong(5, data.getPacketId());
+                pstat.setTimestamp(6, new Timestamp(data.getLogTs()));
+                pstat.setString(7, data.getInlongGroupId());
+                pstat.setString(8, data.getInlongStreamId());
+                pstat.setString(9, data.getAuditId());
+                pstat.setString(10, data.getAuditTag());
+                pstat.setLong(11, data.getCount());
+                pstat.setLong(12, data.getSize());
+                pstat.setLong(13, data.getDelay());
+                pstat.setTimestamp(14, new Timestamp(System.currentTimeMillis()));
+                pstat.addBatch();
+                if (++counter >= BATCH_SIZE) {
+                    commit();
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException(e.getMessage(), e);
+            }
+        }
+
+        private void commit() throws SQLException {
+            pstat.executeBatch();
+            conn.commit();
+            counter = 0;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.audit.service;
+
+import org.apache.inlong.audit.protocol.AuditData;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class AuditAggregatorTest {
+
+    private static final long LOG_TS = 1697558400000L;
+
+    @Test
+    public void testMergeRows() {
+        List<AuditData> stored = new ArrayList<>();
+        AuditAggregator aggregator = new AuditAggregator(Collections.singletonList(stored::add), 60000, 1000, 300000);
+        for (int ip = 0; ip < 10; ip++) {
+            for (int groupId = 0; groupId < 3; groupId++) {
+                aggregator.insert(newAuditData("10.0.0." + ip, LOG_TS, "group" + groupId, "5", 10, 100, 20));
+                aggregator.insert(newAuditData("10.0.0." + ip, LOG_TS + 60000, "group" + groupId, "5", 1, 10, 2));
+            }
+        }
+        // the message resent by the reporter
+        aggregator.insert(newAuditData("10.0.0.1", LOG_TS, "group1", "5", 10, 100, 20));
+        Assert.assertTrue(stored.isEmpty());
+        aggregator.flush();
+        Assert.assertEquals(6, stored.size());
+        Set<Long> packetIds = new HashSet<>();
+        for (AuditData row : stored) {
+            boolean firstMinute = row.getLogTs() == LOG_TS;
+            Assert.assertEquals(firstMinute ? 100 : 10, row.getCount());
+            Assert.assertEquals(firstMinute ? 1000 : 100, row.getSize());
+            Assert.assertEquals(firstMinute ? 200 : 20, row.getDelay());
+            Assert.assertEquals("5", row.getAuditId());
+            Assert.assertEquals("-1", row.getAuditTag());
+            packetIds.add(row.getPacketId());
+        }
+        Assert.assertEquals(6, packetIds.size());
+
+        // nothing to flush
+        aggregator.flush();
+        Assert.assertEquals(6, stored.size());
+        aggregator.close();
+    }
+
+    @Test
+    public void testWatermarkFlush() {
+        List<AuditData> stored = new ArrayList<>();
+        AuditAggregator aggregator = new AuditAggregator(Collections.singletonList(stored::add), 60000, 100, 300000);
+        for (int i = 0; i < 250; i++) {
+            aggregator.insert(newAuditData("10.0.0." + i, LOG_TS, "group", "5", 1, 1, 1));
+        }
+        // flushed by the insert which reaches the high watermark
+        Assert.assertEquals(2, stored.size());
+        Assert.assertEquals(100, stored.get(1).getCount());
+        aggregator.close();
+        Assert.assertEquals(3, stored.size());
+        Assert.assertEquals(50, stored.get(2).getCount());
+    }
+
+    @Test
+    public void testDedupAcrossWindows() {
+        List<AuditData> stored = new ArrayList<>();
+        AuditAggregator aggregator = new AuditAggregator(Collections.singletonList(stored::add), 60000, 1000, 300000);
+        aggregator.insert(newAuditData("10.0.0.1", LOG_TS, "group", "5", 10, 100, 20));
+        aggregator.flush();
+        // the message resent by the reporter after the window is flushed
+        aggregator.insert(newAuditData("10.0.0.1", LOG_TS, "group", "5", 10, 100, 20));
+        aggregator.insert(newAuditData("10.0.0.2", LOG_TS, "group", "5", 1, 10, 2));
+        aggregator.flush();
+        Assert.assertEquals(2, stored.size());
+        Assert.assertEquals(1, stored.get(1).getCount());
+
+        // the inserts after close go to the stores directly
+        aggregator.close();
+        aggregator.insert(newAuditData("10.0.0.3", LOG_TS, "group", "5", 3, 30, 6));
+        Assert.assertEquals(3, stored.size());
+        Assert.assertEquals("10.0.0.3", stored.get(2).getIp());
+    }
+
+    @Test
+    public void testDedupByAuditTag() {
+        List<AuditData> stored = new ArrayList<>();
+        AuditAggregator aggregator = new AuditAggregator(Collections.singletonList(stored::add), 60000, 1000, 300000);
+        aggregator.insert(newAuditData("10.0.0.1", LOG_TS, "group", "5", 10, 100, 20));
+        // the message of another audit tag is not a duplicate
+        AuditData taggedData = newAuditData("10.0.0.1", LOG_TS, "group", "5", 10, 100, 20);
+        taggedData.setAuditTag("tag");
+        aggregator.insert(taggedData);
+        aggregator.close();
+        Assert.assertEquals(2, stored.size());
+    }
+
+    @Test
+    public void testDedupCapacity() {
+        List<AuditData> stored = new ArrayList<>();
+        AuditAggregator aggregator = new AuditAggregator(Collections.singletonList(stored::add), 60000, 2, 300000);
+        aggregator.insert(newAuditData("10.0.0.1", LOG_TS, "group", "5", 1, 1, 1));
+        aggregator.insert(newAuditData("10.0.0.2", LOG_TS, "group", "5", 1, 1, 1));
+        aggregator.insert(newAuditData("10.0.0.3", LOG_TS, "group", "5", 1, 1, 1));
+        aggregator.insert(newAuditData("10.0.0.4", LOG_TS, "group", "5", 1, 1, 1));
+        Assert.assertEquals(2, stored.size());
+        // the oldest window is forgotten over the high watermark, the latest window is remembered
+        aggregator.insert(newAuditData("10.0.0.1", LOG_TS, "group", "5", 1, 1, 1));
+        aggregator.insert(newAuditData("10.0.0.4", LOG_TS, "group", "5", 1, 1, 1));
+        aggregator.close();
+        Assert.assertEquals(3, stored.size());
+        Assert.assertEquals(1, stored.get(2).getCount());
+    }
+
+    private static AuditData newAuditData(String ip, long logTs, String groupId, String auditId,
+            long count, long size, long delay) {
+        AuditData data = new AuditData();
+        data.setIp(ip);
+        data.setDockerId("docker");
+        data.setThreadId("1");
+        data.setSdkTs(logTs + 60000);
+        data.setPacketId(1);
+        data.setLogTs(logTs);
+        data.setInlongGroupId(groupId);
+        data.setInlongStreamId("stream");
+        data.setAuditId(auditId);
+        data.setAuditTag("-1");
+        data.setCount(count);
+        data.setSize(size);
+        data.setDelay(delay);
+        return data;
+    }
+}
@@ -28,18 +28,41 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
- * MetricItem
+ * MetricItem, the count and gauge metrics are the AtomicLong or LongAdder fields, the LongAdder
+ * ones are preferred for the counters updated by many threads.
  */
 public abstract class MetricItem implements MetricItemMBean {
 
     public static final Logger LOGGER = LoggerFactory.getLogger(MetricItem.class);
 
+    /*
+     * the metric fields of each class, resolved by reflection once
+     */
+    private static final ClassValue<List<Field>> METRIC_FIELDS = new ClassValue<List<Field>>() {
+
+        @Override
+        protected List<Field> computeValue(Class<?> clazz) {
+            List<Field> metricFields = new ArrayList<>();
+            for (Field field : getDeclaredFieldsIncludingInherited(clazz)) {
+                if (field.isAnnotationPresent(CountMetric.class) || field.isAnnotationPresent(GaugeMetric.class)) {
+                    field.setAccessible(true);
+                    metricFields.add(field);
+                }
+            }
+            return metricFields;
+        }
+    };
+
     private String key;
     private Map<String, String> dimensions;
-    private Map<String, AtomicLong> countMetrics;
-    private Map<String, AtomicLong> gaugeMetrics;
+    private Map<String, Number> countMetrics;
+    private Map<String, Number> gaugeMetrics;
+    private volatile boolean retired = false;
+    // whether reported by a snapshot of its item set, accessed by the snapshot only
+    private boolean reported = false;
 
     /**
      * Get declare fields.
@@ -123,56 +146,87 @@ public abstract class MetricItem implements MetricItemMBean {
         //
         Map<String, MetricValue> metrics = new HashMap<>();
         this.countMetrics.forEach((key, value) -> {
-            metrics.put(key, MetricValue.of(key, value.getAndSet(0)));
+            long count = (value instanceof LongAdder)
+                    ? ((LongAdder) value).sumThenReset()
+                    : ((AtomicLong) value).getAndSet(0);
+            metrics.put(key, MetricValue.of(key, count));
         });
         this.gaugeMetrics.forEach((key, value) -> {
-            metrics.put(key, MetricValue.of(key, value.get()));
+            metrics.put(key, MetricValue.of(key, value.longValue()));
         });
         return metrics;
     }
 
+    /**
+     * whether any count metric is not reset or any gauge metric is not zero, without reset them
+     */
+    boolean hasMetricValue() {
+        if (this.countMetrics == null || this.gaugeMetrics == null) {
+            this.initMetricField();
+        }
+        for (Number value : this.countMetrics.values()) {
+            if (value.longValue() != 0) {
+                return true;
+            }
+        }
+        for (Number value : this.gaugeMetrics.values()) {
+            if (value.longValue() != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * whether the item is removed from its item set, the updates of a retired item are reported by
+     * the next snapshot of the set only
+     */
+    public boolean isRetired() {
+        return retired;
+    }
+
+    void retire() {
+        this.retired = true;
+    }
+
+    boolean isReported() {
+        return reported;
+    }
+
+    void setReported() {
+        this.reported = true;
+    }
+
     /**
      * initMetricField
      */
     protected void initMetricField() {
-        this.countMetrics = new HashMap<>();
-        this.gaugeMetrics = new HashMap<>();
-
-        // get all fields
-        List<Field> fields = getDeclaredFieldsIncludingInherited(this.getClass());
+        Map<String, Number> countMetrics = new HashMap<>();
+        Map<String, Number> gaugeMetrics = new HashMap<>();
 
         // filter metric fields
-        for (Field field : fields) {
-            field.setAccessible(true);
-            for (Annotation fieldAnnotation : field.getAnnotations()) {
-                if (fieldAnnotation instanceof CountMetric) {
-                    CountMetric countMetric = (CountMetric) fieldAnnotation;
+        for (Field field : METRIC_FIELDS.get(this.getClass())) {
+            try {
+                Object fieldValue = field.get(this);
+                if (!(fieldValue instanceof AtomicLong) && !(fieldValue instanceof LongAdder)) {
+                    continue;
+                }
+                CountMetric countMetric = field.getAnnotation(CountMetric.class);
+                if (countMetric != null) {
                     String name = countMetric.name();
                     name = (name != null && name.length() > 0) ? name : field.getName();
-                    try {
-                        Object fieldValue = field.get(this);
-                        if (fieldValue instanceof AtomicLong) {
-                            this.countMetrics.put(name, (AtomicLong) fieldValue);
-                        }
-                    } catch (Throwable t) {
-                        LOGGER.error(t.getMessage(), t);
-                    }
-                    break;
-                } else if (fieldAnnotation instanceof GaugeMetric) {
-                    GaugeMetric gaugeMetric = (GaugeMetric) fieldAnnotation;
+                    countMetrics.put(name, (Number) fieldValue);
+                } else {
+                    GaugeMetric gaugeMetric = field.getAnnotation(GaugeMetric.class);
                     String name = gaugeMetric.name();
                     name = (name != null && name.length() > 0) ? name : field.getName();
-                    try {
-                        Object fieldValue = field.get(this);
-                        if (fieldValue instanceof AtomicLong) {
-                            this.gaugeMetrics.put(name, (AtomicLong) fieldValue);
-                        }
-                    } catch (Throwable t) {
-                        LOGGER.error(t.getMessage(), t);
-                    }
-                    break;
+                    gaugeMetrics.put(name, (Number) fieldValue);
                 }
+            } catch (Throwable t) {
+                LOGGER.error(t.getMessage(), t);
             }
         }
+        this.countMetrics = countMetrics;
+        this.gaugeMetrics = gaugeMetrics;
     }
 }
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.common.metric;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * MetricItemHandle, the metric item of an item set bound to fixed dimensions, the dimensions and
+ * their key are resolved once, so the callers caching the handle update the item without building
+ * them for each event.
+ */
+public class MetricItemHandle<T extends MetricItem> {
+
+    private final MetricItemSet<T> itemSet;
+    private final String key;
+    private final Map<String, String> dimensions;
+    private volatile T item;
+
+    /**
+     * Constructor
+     *
+     * @param itemSet     the item set
+     * @param dimensions  the dimensions, copied
+     */
+    MetricItemHandle(MetricItemSet<T> itemSet, Map<String, String> dimensions) {
+        this.itemSet = itemSet;
+        this.dimensions = Collections.unmodifiableMap(new HashMap<>(dimensions));
+        this.key = MetricUtils.getDimensionsKey(this.dimensions);
+        this.item = itemSet.findMetricItem(key, this.dimensions);
+    }
+
+    /**
+     * get the bound item, rebind it when the item set has retired the item for no update
+     *
+     * @return the metric item to update
+     */
+    public T getItem() {
+        T current = item;
+        if (current.isRetired()) {
+            current = itemSet.findMetricItem(key, dimensions);
+            this.item = current;
+        }
+        return current;
+    }
+
+    /**
+     * whether the bound item is retired and not rebound, a caller can drop the cached handle then
+     */
+    public boolean isRetired() {
+        return item.isRetired();
+    }
+
+    /**
+     * get the dimensions key
+     */
+    public String getDimensionsKey() {
+        return key;
+    }
+
+    /**
+     * get the dimensions
+     */
+    public Map<String, String> getDimensions() {
+        return dimensions;
+    }
+}
@@ -18,18 +18,22 @@
 package org.apache.inlong.common.metric;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * MetricItemSet
+ * MetricItemSet, the items stay in the set across the snapshots while they are updated, an item
+ * reported once and without update in a snapshot interval is retired, the late updates on it by
+ * the callers holding it are reported by the next snapshot.
  */
 public abstract class MetricItemSet<T extends MetricItem> implements MetricItemSetMBean {
 
     protected String name;
 
     protected Map<String, T> itemMap = new ConcurrentHashMap<>();
+    private List<T> retiredItems = new ArrayList<>();
 
     /**
      * Constructor
@@ -54,27 +58,61 @@ public abstract class MetricItemSet<T extends MetricItem> implements MetricItemS
      * findMetricItem
      */
     public T findMetricItem(Map<String, String> dimensions) {
-        String key = MetricUtils.getDimensionsKey(dimensions);
+        return findMetricItem(MetricUtils.getDimensionsKey(dimensions), dimensions);
+    }
+
+    /**
+     * find the metric item by the resolved dimensions key
+     */
+    T findMetricItem(String key, Map<String, String> dimensions) {
         T currentItem = this.itemMap.get(key);
         if (currentItem != null) {
             return currentItem;
         }
         currentItem = createItem();
         currentItem.setDimensions(dimensions);
+        // resolve the metric fields before publishing the item, not in the snapshot
+        currentItem.initMetricField();
         T oldItem = this.itemMap.putIfAbsent(key, currentItem);
         return (oldItem == null) ? currentItem : oldItem;
     }
 
     /**
-     * snapshot
+     * bind a metric handle to the dimensions, the caller caches the handle by its own key and
+     * updates the item of the handle for each event
+     *
+     * @param dimensions the dimensions
+     * @return the metric handle
+     */
+    public MetricItemHandle<T> bindMetricItem(Map<String, String> dimensions) {
+        return new MetricItemHandle<>(this, dimensions);
+    }
+
+    /**
+     * snapshot, return the new items and the items updated since the last snapshot, the caller reads
+     * and resets their values by MetricItem.snapshot()
      */
     @Override
-    public List<MetricItem> snapshot() {
-        Map<String, T> oldItemMap = itemMap;
-        this.itemMap = new ConcurrentHashMap<>();
-        MetricUtils.sleepOneInterval();
-        List<MetricItem> result = new ArrayList<>(oldItemMap.size());
-        result.addAll(oldItemMap.values());
+    public synchronized List<MetricItem> snapshot() {
+        List<MetricItem> result = new ArrayList<>(itemMap.size() + retiredItems.size());
+        for (T item : retiredItems) {
+            if (item.hasMetricValue()) {
+                result.add(item);
+            }
+        }
+        retiredItems.clear();
+        Iterator<T> iterator = itemMap.values().iterator();
+        while (iterator.hasNext()) {
+            T item = iterator.next();
+            if (item.hasMetricValue() || !item.isReported()) {
+                item.setReported();
+                result.add(item);
+            } else {
+                iterator.remove();
+                item.retire();
+                retiredItems.add(item);
+            }
+        }
         return result;
     }
 }
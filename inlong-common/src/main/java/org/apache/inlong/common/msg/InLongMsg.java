@@ -35,22 +35,22 @@ public class InLongMsg {
     private final int capacity;
 
     private static final int BIN_MSG_NO_ZIP = 0;
-    private static final int BIN_MSG_SNAPPY_TYPE = 1;
+    static final int BIN_MSG_SNAPPY_TYPE = 1;
 
     private static final int BIN_MSG_TOTALLEN_OFFSET = 0;
-    private static final int BIN_MSG_GROUPID_OFFSET = 5;
-    private static final int BIN_MSG_STREAMID_OFFSET = 7;
-    private static final int BIN_MSG_EXTFIELD_OFFSET = 9;
-    private static final int BIN_MSG_COUNT_OFFSET = 15;
-    private static final int BIN_MSG_DATATIME_OFFSET = 11;
+    static final int BIN_MSG_GROUPID_OFFSET = 5;
+    static final int BIN_MSG_STREAMID_OFFSET = 7;
+    static final int BIN_MSG_EXTFIELD_OFFSET = 9;
+    static final int BIN_MSG_COUNT_OFFSET = 15;
+    static final int BIN_MSG_DATATIME_OFFSET = 11;
     private static final int BIN_MSG_TOTALLEN_SIZE = 4;
-    private static final int BIN_MSG_MSGTYPE_OFFSET = 4;
+    static final int BIN_MSG_MSGTYPE_OFFSET = 4;
     private static final int BIN_MSG_SET_SNAPPY = (1 << 5);
     private static final int BIN_MSG_BODYLEN_SIZE = 4;
-    private static final int BIN_MSG_BODYLEN_OFFSET = 21;
-    private static final int BIN_MSG_BODY_OFFSET =
+    static final int BIN_MSG_BODYLEN_OFFSET = 21;
+    static final int BIN_MSG_BODY_OFFSET =
             BIN_MSG_BODYLEN_SIZE + BIN_MSG_BODYLEN_OFFSET;
-    private static final int BIN_MSG_ATTRLEN_SIZE = 2;
+    static final int BIN_MSG_ATTRLEN_SIZE = 2;
     private static final int BIN_MSG_FORMAT_SIZE = 29;
     private static final int BIN_MSG_MAGIC_SIZE = 2;
     private static final int BIN_MSG_MAGIC = 0xEE01;
@@ -67,10 +67,10 @@ public class InLongMsg {
 
     private final boolean addmode;
 
-    private static final Joiner.MapJoiner MAP_JOINER =
+    static final Joiner.MapJoiner MAP_JOINER =
             Joiner.on(AttributeConstants.SEPARATOR)
                     .withKeyValueSeparator(AttributeConstants.KEY_VALUE_SEPARATOR);
-    private static final Splitter.MapSplitter MAP_SPLITTER =
+    static final Splitter.MapSplitter MAP_SPLITTER =
             Splitter.on(AttributeConstants.SEPARATOR)
                     .trimResults().withKeyValueSeparator(AttributeConstants.KEY_VALUE_SEPARATOR);
 
@@ -916,6 +916,13 @@ public class InLongMsg {
         return Version.vn;
     }
 
+    /**
+     * Get the version of the message, -1 if the magic is not of a message
+     */
+    static int getVersion(ByteBuffer buffer) {
+        return getMagic(buffer).intValue();
+    }
+
     public static InLongMsg parseFrom(byte[] data) {
         return parseFrom(ByteBuffer.wrap(data));
     }
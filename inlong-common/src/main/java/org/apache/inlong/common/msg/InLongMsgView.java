@@ -0,0 +1,471 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.common.msg;
+
+import org.xerial.snappy.Snappy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A read-only view of the messages of a built InLongMsg.
+ *
+ * Unlike InLongMsg in parse mode, the view neither groups the messages by their attributes nor
+ * copies them: it walks the messages in their stored order, and exposes each one as a slice of the
+ * original buffer or of a decompression buffer reused by the view. The attributes of a message are
+ * decoded only when they are asked, and once for the consecutive messages of the same attributes.
+ *
+ * Typical usage is something like the following:
+ *
+ * InLongMsgView view = InLongMsgView.parseFrom(data);
+ * while (view.next()) {
+ *   if (view.isAttrChanged()) {
+ *     ... parse view.getAttr() ...
+ *   }
+ *   ... read view.getDataArray(), view.getDataOffset(), view.getDataLength() ...
+ * }
+ *
+ * A slice is valid until the next call of next() or reset(), so a message kept by the caller must
+ * be copied, see {@link #copyData()}.
+ */
+public class InLongMsgView {
+
+    private static final ThreadLocal<InLongMsgView> LOCAL_VIEW = ThreadLocal.withInitial(InLongMsgView::new);
+    // the larger decompression buffer is not kept after use
+    private static final int MAX_RETAINED_BUFFER_SIZE = 4 * 1024 * 1024;
+    private static final int VERSION_MIX_ATTR = 3;
+    private static final int VERSION_BIN_MSG = 4;
+
+    private final DataInputBuffer attrInput = new DataInputBuffer();
+    private byte[] uncompressBuf = new byte[0];
+    // the message buffer
+    private byte[] src;
+    private int srcEnd;
+    private int version = -1;
+    private long createtime = -1;
+    private int msgCnt = 0;
+    // the attribute blocks of the version 0 to 3
+    private int blocksLeft;
+    private int blockPos;
+    private int attrPos;
+    private String commonAttr;
+    // the body of the current block, or of the binary message
+    private byte[] dataArray;
+    private int dataPos;
+    private int dataEnd;
+    private boolean bodyLoaded;
+    private boolean newBlock;
+    // the bytes left of a message group of the version 3, or of the body of the binary message
+    private int groupLeft;
+    // the header of the binary message
+    private int binBase;
+    private int groupIdNum;
+    private int streamIdNum;
+    private int extField;
+    private long dataTime;
+    private int binAttrPos;
+    private int binAttrLen;
+    private Map<String, String> commonAttrMap;
+    // the current message
+    private int msgOffset;
+    private int msgLen;
+    private int msgAttrOffset = -1;
+    private int msgAttrLen;
+    private boolean attrChanged;
+    private String attr;
+
+    /**
+     * Parse the message into the view of the current thread, the view is reset by the next parse
+     * of the thread.
+     *
+     * @param data the message
+     * @return the view, null if the data is not a message
+     */
+    public static InLongMsgView parseFrom(byte[] data) {
+        return parseFrom(ByteBuffer.wrap(data));
+    }
+
+    /**
+     * Parse the message into the view of the current thread, the view is reset by the next parse
+     * of the thread.
+     *
+     * @param buffer the message, backed by an array
+     * @return the view, null if the buffer is not a message
+     */
+    public static InLongMsgView parseFrom(ByteBuffer buffer) {
+        InLongMsgView view = LOCAL_VIEW.get();
+        return view.reset(buffer) ? view : null;
+    }
+
+    /**
+     * Point the view to a message, only the header is read.
+     *
+     * @param buffer the message, backed by an array
+     * @return false if the buffer is not a message
+     */
+    public boolean reset(ByteBuffer buffer) {
+        src = null;
+        dataArray = null;
+        version = InLongMsg.getVersion(buffer);
+        if (version < 0) {
+            return false;
+        }
+        src = buffer.array();
+        int pos = buffer.position() + 2;
+        srcEnd = buffer.position() + buffer.remaining() - 2;
+        blocksLeft = 0;
+        dataPos = 0;
+        dataEnd = 0;
+        groupLeft = 0;
+        bodyLoaded = false;
+        newBlock = false;
+        commonAttrMap = null;
+        attr = null;
+        if (version != VERSION_BIN_MSG) {
+            createtime = -1;
+            msgCnt = 0;
+            if (version >= 1) {
+                createtime = readLong(src, pos);
+                pos += 8;
+            }
+            if (version >= 2) {
+                msgCnt = readInt(src, pos);
+                pos += 4;
+            }
+            blocksLeft = readInt(src, pos);
+            blockPos = pos + 4;
+        } else {
+            binBase = pos;
+            groupIdNum = readShort(src, binBase + InLongMsg.BIN_MSG_GROUPID_OFFSET);
+            streamIdNum = readShort(src, binBase + InLongMsg.BIN_MSG_STREAMID_OFFSET);
+            extField = readShort(src, binBase + InLongMsg.BIN_MSG_EXTFIELD_OFFSET);
+            dataTime = readInt(src, binBase + InLongMsg.BIN_MSG_DATATIME_OFFSET) * 1000L;
+            createtime = dataTime;
+            msgCnt = readShort(src, binBase + InLongMsg.BIN_MSG_COUNT_OFFSET);
+        }
+        return true;
+    }
+
+    /**
+     * Move to the next message
+     *
+     * @return false if there is no more message
+     * @throws IOException if the compressed data is corrupted
+     */
+    public boolean next() throws IOException {
+        if (src == null) {
+            return false;
+        }
+        if (version == VERSION_BIN_MSG) {
+            if (!bodyLoaded) {
+                loadBinBody();
+            }
+            return (extField & 0x1) == 0x1 ? nextMixMsg() : nextDefaultMsg();
+        }
+        while (true) {
+            if (version == VERSION_MIX_ATTR ? nextGroupMsg() : nextDefaultMsg()) {
+                return true;
+            }
+            if (!nextBlock()) {
+                return false;
+            }
+        }
+    }
+
+    public byte[] getDataArray() {
+        return dataArray;
+    }
+
+    public int getDataOffset() {
+        return msgOffset;
+    }
+
+    public int getDataLength() {
+        return msgLen;
+    }
+
+    /**
+     * Copy the current message
+     *
+     * @return the message bytes
+     */
+    public byte[] copyData() {
+        return Arrays.copyOfRange(dataArray, msgOffset, msgOffset + msgLen);
+    }
+
+    /**
+     * Whether the attributes of the current message differ from the ones of the previous message
+     */
+    public boolean isAttrChanged() {
+        return attrChanged;
+    }
+
+    /**
+     * Get the attributes of the current message, the same as the attributes of InLongMsg in parse mode.
+     *
+     * @return the attributes
+     */
+    public String getAttr() {
+        if (attr != null) {
+            return attr;
+        }
+        try {
+            if (version == VERSION_BIN_MSG) {
+                attr = buildBinAttr();
+            } else if (version == VERSION_MIX_ATTR) {
+                attr = getCommonAttr() + "&" + new String(dataArray, msgAttrOffset, msgAttrLen);
+            } else {
+                attr = getCommonAttr();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("parse attributes error", e);
+        }
+        return attr;
+    }
+
+    public long getCreatetime() {
+        return createtime;
+    }
+
+    public int getMsgCnt() {
+        return msgCnt;
+    }
+
+    /*
+     * Move to the next attribute block: attr, [cnt], len, compress flag, data.
+     */
+    private boolean nextBlock() throws IOException {
+        if (blocksLeft <= 0) {
+            return false;
+        }
+        blocksLeft--;
+        int pos = blockPos;
+        if (pos + 2 > srcEnd) {
+            blocksLeft = 0;
+            return false;
+        }
+        attrPos = pos;
+        pos += 2 + readUnsignedShort(src, pos);
+        if (version == 2) {
+            pos += 4;
+        }
+        if (pos + 4 > srcEnd) {
+            blocksLeft = 0;
+            return false;
+        }
+        int len = readInt(src, pos);
+        pos += 4;
+        if (len < 1 || pos + len > srcEnd) {
+            blocksLeft = 0;
+            return false;
+        }
+        if (src[pos] == 1) {
+            uncompress(src, pos + 1, len - 1);
+        } else {
+            dataArray = src;
+            dataPos = pos + 1;
+            dataEnd = pos + len;
+        }
+        blockPos = pos + len;
+        groupLeft = 0;
+        commonAttr = null;
+        newBlock = true;
+        return true;
+    }
+
+    /*
+     * The messages of the version 0 to 2 and of the binary message without private attributes: len, data.
+     */
+    private boolean nextDefaultMsg() {
+        if (dataPos + 4 > dataEnd) {
+            return false;
+        }
+        int len = readInt(dataArray, dataPos);
+        if (len < 0 || len > dataEnd - dataPos - 4) {
+            dataPos = dataEnd;
+            return false;
+        }
+        msgOffset = dataPos + 4;
+        msgLen = len;
+        dataPos = msgOffset + len;
+        setAttrChanged(newBlock);
+        newBlock = false;
+        return true;
+    }
+
+    /*
+     * The messages of the version 3 are in groups: total len, (len, data, attr len, attr)*.
+     */
+    private boolean nextGroupMsg() {
+        while (groupLeft <= 0) {
+            if (dataPos + 4 > dataEnd) {
+                return false;
+            }
+            groupLeft = readInt(dataArray, dataPos);
+            dataPos += 4;
+            if (groupLeft > dataEnd - dataPos) {
+                return stopAll();
+            }
+        }
+        return nextMixMsg();
+    }
+
+    /*
+     * A message with its private attributes: len, data, attr len, attr.
+     */
+    private boolean nextMixMsg() {
+        if (groupLeft <= 0 || dataPos + 4 > dataEnd) {
+            return false;
+        }
+        int len = readInt(dataArray, dataPos);
+        if (len <= 0 || len > groupLeft || len > dataEnd - dataPos - 8) {
+            return stopAll();
+        }
+        int attrLenPos = dataPos + 4 + len;
+        int attrLen = readInt(dataArray, attrLenPos);
+        if (attrLen <= 0 || attrLen > groupLeft || attrLen > dataEnd - attrLenPos - 4) {
+            return stopAll();
+        }
+        int prevAttrOffset = msgAttrOffset;
+        int prevAttrLen = msgAttrLen;
+        msgOffset = dataPos + 4;
+        msgLen = len;
+        msgAttrOffset = attrLenPos + 4;
+        msgAttrLen = attrLen;
+        dataPos = msgAttrOffset + attrLen;
+        groupLeft -= len + attrLen + 8;
+        setAttrChanged(newBlock || prevAttrOffset < 0
+                || !rangeEquals(dataArray, prevAttrOffset, prevAttrLen, msgAttrOffset, attrLen));
+        newBlock = false;
+        return true;
+    }
+
+    private boolean stopAll() {
+        blocksLeft = 0;
+        groupLeft = 0;
+        dataPos = dataEnd;
+        return false;
+    }
+
+    private void setAttrChanged(boolean changed) {
+        attrChanged = changed;
+        if (changed) {
+            attr = null;
+        }
+    }
+
+    private void loadBinBody() throws IOException {
+        bodyLoaded = true;
+        int msgType = src[binBase + InLongMsg.BIN_MSG_MSGTYPE_OFFSET];
+        int bodyLen = readInt(src, binBase + InLongMsg.BIN_MSG_BODYLEN_OFFSET);
+        int bodyPos = binBase + InLongMsg.BIN_MSG_BODY_OFFSET;
+        binAttrLen = readShort(src, bodyPos + bodyLen);
+        binAttrPos = bodyPos + bodyLen + InLongMsg.BIN_MSG_ATTRLEN_SIZE;
+        if (((msgType & 0xE0) >> 5) == InLongMsg.BIN_MSG_SNAPPY_TYPE) {
+            uncompress(src, bodyPos, bodyLen);
+        } else {
+            dataArray = src;
+            dataPos = bodyPos;
+            dataEnd = bodyPos + bodyLen;
+        }
+        groupLeft = dataEnd - dataPos;
+        msgAttrOffset = -1;
+        newBlock = true;
+    }
+
+    private void uncompress(byte[] input, int offset, int len) throws IOException {
+        int uncompressLen = Snappy.uncompressedLength(input, offset, len);
+        byte[] output = uncompressBuf;
+        if (output.length < uncompressLen) {
+            output = new byte[uncompressLen];
+            if (uncompressLen <= MAX_RETAINED_BUFFER_SIZE) {
+                uncompressBuf = output;
+            }
+        }
+        dataArray = output;
+        dataPos = 0;
+        dataEnd = Snappy.uncompress(input, offset, len, output, 0);
+    }
+
+    private String getCommonAttr() throws IOException {
+        if (commonAttr == null) {
+            attrInput.reset(src, attrPos, 2 + readUnsignedShort(src, attrPos));
+            commonAttr = attrInput.readUTF();
+        }
+        return commonAttr;
+    }
+
+    /*
+     * Build the attributes as the binary message parsed by InLongMsg, the common attributes overwrite the private ones.
+     */
+    private String buildBinAttr() {
+        if (commonAttrMap == null) {
+            Map<String, String> attrMap = new HashMap<String, String>();
+            if (binAttrLen != 0) {
+                attrMap = new HashMap<String, String>(
+                        InLongMsg.MAP_SPLITTER.split(new String(src, binAttrPos, binAttrLen)));
+            }
+            attrMap.put(AttributeConstants.DATA_TIME, String.valueOf(dataTime));
+            if ((extField & 0x4) == 0x0) {
+                attrMap.put(AttributeConstants.GROUP_ID, String.valueOf(groupIdNum));
+                attrMap.put(AttributeConstants.STREAM_ID, String.valueOf(streamIdNum));
+            }
+            attrMap.put(AttributeConstants.MESSAGE_COUNT, "1");
+            commonAttrMap = attrMap;
+        }
+        if ((extField & 0x1) == 0x0) {
+            return InLongMsg.MAP_JOINER.join(commonAttrMap);
+        }
+        Map<String, String> finalAttrMap = new HashMap<String, String>(
+                InLongMsg.MAP_SPLITTER.split(new String(dataArray, msgAttrOffset, msgAttrLen)));
+        finalAttrMap.putAll(commonAttrMap);
+        return InLongMsg.MAP_JOINER.join(finalAttrMap);
+    }
+
+    private static boolean rangeEquals(byte[] array, int offset1, int len1, int offset2, int len2) {
+        if (len1 != len2) {
+            return false;
+        }
+        for (int i = 0; i < len1; i++) {
+            if (array[offset1 + i] != array[offset2 + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int readShort(byte[] array, int pos) {
+        return (short) readUnsignedShort(array, pos);
+    }
+
+    private static int readUnsignedShort(byte[] array, int pos) {
+        return ((array[pos] & 0xFF) << 8) | (array[pos + 1] & 0xFF);
+    }
+
+    private static int readInt(byte[] array, int pos) {
+        return ((array[pos] & 0xFF) << 24) | ((array[pos + 1] & 0xFF) << 16)
+                | ((array[pos + 2] & 0xFF) << 8) | (array[pos + 3] & 0xFF);
+    }
+
+    private static long readLong(byte[] array, int pos) {
+        return ((long) readInt(array, pos) << 32) | (readInt(array, pos + 4) & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.common.metric.set;
+
+import org.apache.inlong.common.metric.CountMetric;
+import org.apache.inlong.common.metric.MetricItem;
+import org.apache.inlong.common.metric.MetricItemHandle;
+import org.apache.inlong.common.metric.MetricItemSet;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measure the per-event metric overhead of finding the item by the dimensions built for each event
+ * and updating its AtomicLong counters, against looking up the handle cached by the caller and
+ * updating its LongAdder counters. Run it by main().
+ */
+public class MetricItemSetBenchmark {
+
+    private static final int GROUP_COUNT = 100;
+    private static final int STREAM_COUNT = 10;
+    private static final int WARMUP_EVENTS = 5000000;
+    private static final int EVENTS = 20000000;
+
+    public static void main(String[] args) {
+        String[] groupIds = new String[GROUP_COUNT];
+        String[] streamIds = new String[STREAM_COUNT];
+        for (int i = 0; i < GROUP_COUNT; i++) {
+            groupIds[i] = "test_group_" + i;
+        }
+        for (int i = 0; i < STREAM_COUNT; i++) {
+            streamIds[i] = "test_stream_" + i;
+        }
+        AtomicMetricItemSet atomicSet = new AtomicMetricItemSet();
+        Updater findUpdater = (groupId, streamId, size) -> {
+            Map<String, String> dimensions = new HashMap<>();
+            dimensions.put("clusterId", "test_cluster");
+            dimensions.put("sourceId", "agent-source");
+            dimensions.put("sourceDataId", "46801");
+            dimensions.put("inlongGroupId", groupId);
+            dimensions.put("inlongStreamId", streamId);
+            dimensions.put("msgTime", "1697558400000");
+            AtomicMetricItem item = atomicSet.findMetricItem(dimensions);
+            item.readSuccessCount.incrementAndGet();
+            item.readSuccessSize.addAndGet(size);
+        };
+        AdderMetricItemSet adderSet = new AdderMetricItemSet();
+        Map<HandleKey, MetricItemHandle<AdderMetricItem>> handleMap = new ConcurrentHashMap<>();
+        HandleKey lookupKey = new HandleKey();
+        Updater handleUpdater = (groupId, streamId, size) -> {
+            lookupKey.set(groupId, streamId, 1697558400000L);
+            MetricItemHandle<AdderMetricItem> handle = handleMap.get(lookupKey);
+            if (handle == null) {
+                Map<String, String> dimensions = new HashMap<>();
+                dimensions.put("clusterId", "test_cluster");
+                dimensions.put("sourceId", "agent-source");
+                dimensions.put("sourceDataId", "46801");
+                dimensions.put("inlongGroupId", groupId);
+                dimensions.put("inlongStreamId", streamId);
+                dimensions.put("msgTime", "1697558400000");
+                handle = adderSet.bindMetricItem(dimensions);
+                handleMap.put(new HandleKey().set(groupId, streamId, 1697558400000L), handle);
+            }
+            AdderMetricItem item = handle.getItem();
+            item.readSuccessCount.increment();
+            item.readSuccessSize.add(size);
+        };
+        for (int round = 0; round < 2; round++) {
+            run("find by dimensions, AtomicLong", findUpdater, groupIds, streamIds);
+            run("cached handle, LongAdder", handleUpdater, groupIds, streamIds);
+        }
+        long startTime = System.nanoTime();
+        int itemCount = adderSet.snapshot().size();
+        System.out.println("snapshot in place: items=" + itemCount
+                + ", us=" + (System.nanoTime() - startTime) / 1000);
+    }
+
+    private static void run(String name, Updater updater, String[] groupIds, String[] streamIds) {
+        for (int i = 0; i < WARMUP_EVENTS; i++) {
+            updater.update(groupIds[i % GROUP_COUNT], streamIds[i / GROUP_COUNT % STREAM_COUNT], i & 0xff);
+        }
+        long startBytes = allocatedBytes();
+        long startTime = System.nanoTime();
+        for (int i = 0; i < EVENTS; i++) {
+            updater.update(groupIds[i % GROUP_COUNT], streamIds[i / GROUP_COUNT % STREAM_COUNT], i & 0xff);
+        }
+        long nanos = System.nanoTime() - startTime;
+        long bytes = allocatedBytes() - startBytes;
+        System.out.println(new StringBuilder(256).append(name)
+                .append(": ns/event=").append(nanos / (double) EVENTS)
+                .append(", allocated bytes/event=").append(bytes / EVENTS).toString());
+    }
+
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threadMXBean)
+                    .getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0L;
+    }
+
+    private interface Updater {
+
+        void update(String groupId, String streamId, long size);
+    }
+
+    private static class HandleKey {
+
+        private String groupId;
+        private String streamId;
+        private long msgTime;
+
+        private HandleKey set(String groupId, String streamId, long msgTime) {
+            this.groupId = groupId;
+            this.streamId = streamId;
+            this.msgTime = msgTime;
+            return this;
+        }
+
+        @Override
+        public int hashCode() {
+            return (31 * groupId.hashCode() + streamId.hashCode()) * 31 + Long.hashCode(msgTime);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof HandleKey)) {
+                return false;
+            }
+            HandleKey other = (HandleKey) obj;
+            return msgTime == other.msgTime && Objects.equals(groupId, other.groupId)
+                    && Objects.equals(streamId, other.streamId);
+        }
+    }
+
+    public static class AtomicMetricItem extends MetricItem {
+
+        @CountMetric
+        public AtomicLong readSuccessCount = new AtomicLong(0);
+        @CountMetric
+        public AtomicLong readSuccessSize = new AtomicLong(0);
+    }
+
+    public static class AdderMetricItem extends MetricItem {
+
+        @CountMetric
+        public LongAdder readSuccessCount = new LongAdder();
+        @CountMetric
+        public LongAdder readSuccessSize = new LongAdder();
+    }
+
+    public static class AtomicMetricItemSet extends MetricItemSet<AtomicMetricItem> {
+
+        public AtomicMetricItemSet() {
+            super("Atomic");
+        }
+
+        @Override
+        protected AtomicMetricItem createItem() {
+            return new AtomicMetricItem();
+        }
+    }
+
+    public static class AdderMetricItemSet extends MetricItemSet<AdderMetricItem> {
+
+        public AdderMetricItemSet() {
+            super("Adder");
+        }
+
+        @Override
+        protected AdderMetricItem createItem() {
+            return new AdderMetricItem();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.common.metric.set;
+
+import org.apache.inlong.common.metric.CountMetric;
+import org.apache.inlong.common.metric.Dimension;
+import org.apache.inlong.common.metric.GaugeMetric;
+import org.apache.inlong.common.metric.MetricItem;
+import org.apache.inlong.common.metric.MetricItemHandle;
+import org.apache.inlong.common.metric.MetricItemSet;
+import org.apache.inlong.common.metric.MetricValue;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 
+ * TestMetricItemHandle
+ */
+public class TestMetricItemHandle {
+
+    /**
+     * testHandle
+     */
+    @Test
+    public void testHandle() {
+        AdderMetricItemSet itemSet = new AdderMetricItemSet();
+        Map<String, String> dimensions = new HashMap<>();
+        dimensions.put("inlongGroupId", "group1");
+        dimensions.put("inlongStreamId", "stream1");
+        MetricItemHandle<AdderMetricItem> handle = itemSet.bindMetricItem(dimensions);
+        AdderMetricItem item = handle.getItem();
+        assertSame(item, itemSet.findMetricItem(dimensions));
+        item.sendCount.add(10);
+        item.sendSize.add(1000);
+
+        List<MetricItem> items = itemSet.snapshot();
+        assertEquals(1, items.size());
+        assertEquals(handle.getDimensionsKey(), items.get(0).getDimensionsKey());
+        Map<String, MetricValue> metrics = items.get(0).snapshot();
+        assertEquals(10, metrics.get("sendCount").value);
+        assertEquals(1000, metrics.get("sendSize").value);
+        // the item stays in the set while updated
+        item.sendCount.increment();
+        items = itemSet.snapshot();
+        assertEquals(1, items.size());
+        assertEquals(1, items.get(0).snapshot().get("sendCount").value);
+        assertFalse(handle.isRetired());
+
+        // retired without update, and its late updates are reported by the next snapshot
+        assertTrue(itemSet.snapshot().isEmpty());
+        assertTrue(handle.isRetired());
+        item.sendCount.add(5);
+        AdderMetricItem newItem = handle.getItem();
+        assertNotSame(item, newItem);
+        assertFalse(handle.isRetired());
+        newItem.sendCount.add(7);
+        items = itemSet.snapshot();
+        assertEquals(2, items.size());
+        long sendCount = 0;
+        for (MetricItem snapshotItem : items) {
+            sendCount += snapshotItem.snapshot().get("sendCount").value;
+        }
+        assertEquals(12, sendCount);
+        assertTrue(itemSet.snapshot().isEmpty());
+    }
+
+    /**
+     * testGauge
+     */
+    @Test
+    public void testGauge() {
+        AdderMetricItemSet itemSet = new AdderMetricItemSet();
+        Map<String, String> dimensions = new HashMap<>();
+        dimensions.put("inlongGroupId", "group1");
+        AdderMetricItem item = itemSet.findMetricItem(dimensions);
+        item.runningCount.set(3);
+        // a not zero gauge keeps the item
+        for (int i = 0; i < 3; i++) {
+            List<MetricItem> items = itemSet.snapshot();
+            assertEquals(1, items.size());
+            Map<String, MetricValue> metrics = items.get(0).snapshot();
+            assertEquals(3, metrics.get("runningCount").value);
+            assertEquals(0, metrics.get("sendCount").value);
+        }
+        item.runningCount.set(0);
+        assertTrue(itemSet.snapshot().isEmpty());
+        assertTrue(item.isRetired());
+    }
+
+    /**
+     * AdderMetricItem
+     */
+    public static class AdderMetricItem extends MetricItem {
+
+        @Dimension
+        public String inlongGroupId;
+        @Dimension
+        public String inlongStreamId;
+        @CountMetric
+        public LongAdder sendCount = new LongAdder();
+        @CountMetric
+        public LongAdder sendSize = new LongAdder();
+        @GaugeMetric
+        public AtomicLong runningCount = new AtomicLong(0);
+    }
+
+    /**
+     * AdderMetricItemSet
+     */
+    public static class AdderMetricItemSet extends MetricItemSet<AdderMetricItem> {
+
+        public AdderMetricItemSet() {
+            super("Adder");
+        }
+
+        @Override
+        protected AdderMetricItem createItem() {
+            return new AdderMetricItem();
+        }
+    }
+}
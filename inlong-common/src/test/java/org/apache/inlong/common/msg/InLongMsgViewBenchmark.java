@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.common.msg;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.Random;
+
+/**
+ * Measure the msgs per second and the allocated bytes per message of reading the messages of
+ * InLongMsg in parse mode, and of the view without and with the copy of each message, over the
+ * messages of the different versions. Run it by main().
+ */
+public class InLongMsgViewBenchmark {
+
+    private static final int MSG_COUNT = 500;
+    private static final int MSG_LEN = 100;
+    private static final int WARMUP_ROUNDS = 2000;
+    private static final int ROUNDS = 5000;
+    private static final String[] ATTRS = {"m=0&iname=a&t=20231018", "m=0&iname=b&t=20231018"};
+
+    public static void main(String[] args) throws IOException {
+        Random random = new Random(17);
+        for (int version : new int[]{1, 3}) {
+            for (boolean compress : new boolean[]{true, false}) {
+                byte[] data = buildMsg(random, version, compress);
+                String name = "version=" + version + ", compress=" + compress;
+                run(name + ", InLongMsg", () -> readInLongMsg(data));
+                run(name + ", view", () -> readView(data, false));
+                run(name + ", view with copy", () -> readView(data, true));
+            }
+        }
+    }
+
+    private static byte[] buildMsg(Random random, int version, boolean compress) {
+        InLongMsg inLongMsg = InLongMsg.newInLongMsg(1024 * 1024, compress, version);
+        byte[] msg = new byte[MSG_LEN];
+        if (version == 3) {
+            ByteBuffer group = ByteBuffer.allocate(10 * (MSG_LEN + 16));
+            for (int i = 0; i < MSG_COUNT; i++) {
+                fill(random, msg);
+                group.putInt(MSG_LEN).put(msg).putInt(3).put(("k=" + (i % 10 / 5)).getBytes());
+                if (group.remaining() < MSG_LEN + 16) {
+                    group.flip();
+                    inLongMsg.addMsg(ATTRS[i % 2], group);
+                    group.clear();
+                }
+            }
+        } else {
+            for (int i = 0; i < MSG_COUNT; i++) {
+                fill(random, msg);
+                inLongMsg.addMsg(ATTRS[i % 2], msg);
+            }
+        }
+        return inLongMsg.buildArray();
+    }
+
+    private static void fill(Random random, byte[] msg) {
+        for (int i = 0; i < msg.length; i++) {
+            msg[i] = (byte) ('a' + random.nextInt(8));
+        }
+    }
+
+    private static long readInLongMsg(byte[] data) {
+        long sum = 0;
+        InLongMsg inLongMsg = InLongMsg.parseFrom(data);
+        for (String attr : inLongMsg.getAttrs()) {
+            sum += attr.length();
+            Iterator<byte[]> iterator = inLongMsg.getIterator(attr);
+            while (iterator.hasNext()) {
+                byte[] msg = iterator.next();
+                sum += msg[msg.length - 1];
+            }
+        }
+        return sum;
+    }
+
+    private static long readView(byte[] data, boolean copy) throws IOException {
+        long sum = 0;
+        InLongMsgView view = InLongMsgView.parseFrom(data);
+        while (view.next()) {
+            if (view.isAttrChanged()) {
+                sum += view.getAttr().length();
+            }
+            if (copy) {
+                byte[] msg = view.copyData();
+                sum += msg[msg.length - 1];
+            } else {
+                sum += view.getDataArray()[view.getDataOffset() + view.getDataLength() - 1];
+            }
+        }
+        return sum;
+    }
+
+    private static void run(String name, Reader reader) throws IOException {
+        long sum = 0;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            sum += reader.read();
+        }
+        long startBytes = allocatedBytes();
+        long startTime = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            sum += reader.read();
+        }
+        long nanos = System.nanoTime() - startTime;
+        long bytes = allocatedBytes() - startBytes;
+        long msgs = (long) ROUNDS * MSG_COUNT;
+        System.out.println(new StringBuilder(256).append(name)
+                .append(": msgs/sec=").append(msgs * 1000000000L / nanos)
+                .append(", allocated bytes/msg=").append(bytes / msgs)
+                .append(", checksum=").append(sum).toString());
+    }
+
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threadMXBean)
+                    .getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0L;
+    }
+
+    private interface Reader {
+
+        long read() throws IOException;
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.common.msg;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+public class InLongMsgViewTest {
+
+    private static final String[] ATTRS = {"m=0&iname=a&t=20231018", "m=0&iname=b&t=20231018"};
+
+    @Test
+    public void testDefaultVersions() throws IOException {
+        for (int version = 1; version <= 2; version++) {
+            for (boolean compress : new boolean[]{true, false}) {
+                InLongMsg inLongMsg = InLongMsg.newInLongMsg(compress, version);
+                for (int i = 0; i < 20; i++) {
+                    inLongMsg.addMsg(ATTRS[i % 2], ("body" + i).getBytes(StandardCharsets.UTF_8));
+                }
+                byte[] data = inLongMsg.buildArray(1000L);
+                List<String> msgs = assertSameMsgs(data);
+                Assert.assertEquals(20, msgs.size());
+                InLongMsgView view = InLongMsgView.parseFrom(data);
+                Assert.assertEquals(1000L, view.getCreatetime());
+                Assert.assertEquals(version == 2 ? 20 : 0, view.getMsgCnt());
+            }
+        }
+        Assert.assertNull(InLongMsgView.parseFrom(new byte[]{1, 2, 3, 4, 5}));
+    }
+
+    @Test
+    public void testMixAttrVersion() throws IOException {
+        InLongMsg inLongMsg = InLongMsg.newInLongMsg(true, 3);
+        for (int i = 0; i < 5; i++) {
+            ByteBuffer group = ByteBuffer.allocate(1024);
+            for (int j = 0; j < 4; j++) {
+                putItem(group, "body" + i + j, "k=" + (j / 2));
+            }
+            group.flip();
+            inLongMsg.addMsg(ATTRS[i % 2], group);
+        }
+        List<String> msgs = assertSameMsgs(inLongMsg.buildArray());
+        Assert.assertEquals(20, msgs.size());
+    }
+
+    @Test
+    public void testBinMsg() throws IOException {
+        for (boolean compress : new boolean[]{true, false}) {
+            ByteBuffer body = ByteBuffer.allocate(1024);
+            for (int i = 0; i < 10; i++) {
+                byte[] msg = ("body" + i).getBytes(StandardCharsets.UTF_8);
+                body.putInt(msg.length).put(msg);
+            }
+            body.flip();
+            InLongMsg inLongMsg = InLongMsg.newInLongMsg(compress, 4);
+            Assert.assertTrue(inLongMsg.addMsg(binMsg(body, "iname=a&node=1", 0)));
+            Assert.assertEquals(10, assertSameMsgs(inLongMsg.buildArray()).size());
+
+            body.clear();
+            for (int i = 0; i < 10; i++) {
+                putItem(body, "body" + i, "k=" + (i / 3));
+            }
+            body.flip();
+            inLongMsg = InLongMsg.newInLongMsg(compress, 4);
+            // with the private attributes and the string ids
+            Assert.assertTrue(inLongMsg.addMsg(binMsg(body, "groupId=g&streamId=s", 0x5)));
+            byte[] data = inLongMsg.buildArray();
+            Assert.assertEquals(10, assertSameMsgs(data).size());
+            InLongMsgView view = InLongMsgView.parseFrom(data);
+            int changed = 0;
+            while (view.next()) {
+                changed += view.isAttrChanged() ? 1 : 0;
+            }
+            Assert.assertEquals(4, changed);
+            Assert.assertEquals(1697558400000L, view.getCreatetime());
+        }
+    }
+
+    /*
+     * Assert the view reads the same messages and attributes as InLongMsg, in the stored order.
+     */
+    private static List<String> assertSameMsgs(byte[] data) throws IOException {
+        List<String> expected = new ArrayList<>();
+        InLongMsg inLongMsg = InLongMsg.parseFrom(data);
+        for (String attr : inLongMsg.getAttrs()) {
+            Iterator<byte[]> iterator = inLongMsg.getIterator(attr);
+            while (iterator.hasNext()) {
+                expected.add(attr + "|" + new String(iterator.next(), StandardCharsets.UTF_8));
+            }
+        }
+        List<String> actual = new ArrayList<>();
+        InLongMsgView view = InLongMsgView.parseFrom(data);
+        String lastAttr = null;
+        while (view.next()) {
+            String attr = view.getAttr();
+            Assert.assertEquals(!attr.equals(lastAttr), view.isAttrChanged());
+            lastAttr = attr;
+            actual.add(attr + "|" + new String(view.getDataArray(), view.getDataOffset(),
+                    view.getDataLength(), StandardCharsets.UTF_8));
+            Assert.assertArrayEquals(view.copyData(), actual.get(actual.size() - 1)
+                    .substring(attr.length() + 1).getBytes(StandardCharsets.UTF_8));
+        }
+        Collections.sort(expected);
+        Collections.sort(actual);
+        Assert.assertEquals(expected, actual);
+        return actual;
+    }
+
+    private static void putItem(ByteBuffer buffer, String msg, String attr) {
+        byte[] msgBytes = msg.getBytes(StandardCharsets.UTF_8);
+        byte[] attrBytes = attr.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(msgBytes.length).put(msgBytes).putInt(attrBytes.length).put(attrBytes);
+    }
+
+    private static ByteBuffer binMsg(ByteBuffer body, String attr, int extField) {
+        byte[] attrBytes = attr.getBytes(StandardCharsets.UTF_8);
+        int bodyLen = body.remaining();
+        ByteBuffer binMsg = ByteBuffer.allocate(bodyLen + attrBytes.length + 29);
+        binMsg.putInt(bodyLen + attrBytes.length + 29 - 4);
+        binMsg.put((byte) 7);
+        binMsg.putShort((short) 12);
+        binMsg.putShort((short) 34);
+        binMsg.putShort((short) extField);
+        binMsg.putInt(1697558400);
+        binMsg.putShort((short) 10);
+        binMsg.putInt(0);
+        binMsg.putInt(bodyLen);
+        binMsg.put(body.duplicate());
+        binMsg.putShort((short) attrBytes.length);
+        binMsg.put(attrBytes);
+        binMsg.putShort((short) 0xEE01);
+        binMsg.flip();
+        return binMsg;
+    }
+}
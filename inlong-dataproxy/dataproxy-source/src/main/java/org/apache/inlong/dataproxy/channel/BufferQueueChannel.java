@@ -49,11 +49,11 @@ public class BufferQueueChannel extends AbstractChannel {
     public static final int DEFAULT_MAX_BUFFERQUEUE_SIZE_KB = 128 * 1024;
     public static final String KEY_RELOADINTERVAL = "reloadInterval";
 
-    private Context context;
-    private int maxBufferQueueCount;
-    private Semaphore countSemaphore;
-    private int maxBufferQueueSizeKb;
-    private BufferQueue<ProxyEvent> bufferQueue;
+    protected Context context;
+    protected int maxBufferQueueCount;
+    protected Semaphore countSemaphore;
+    protected int maxBufferQueueSizeKb;
+    protected BufferQueue<ProxyEvent> bufferQueue;
     private ThreadLocal<ProxyTransaction> currentTransaction = new ThreadLocal<ProxyTransaction>();
     protected Timer channelTimer;
     private AtomicLong takeCounter = new AtomicLong(0);
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.dataproxy.channel;
+
+import org.apache.flume.Context;
+import org.apache.flume.FlumeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * MappedSpillChannel, a BufferQueueChannel keeping the hot tail in memory, the events
+ * passing the spill threshold are spilled to memory-mapped segment files, and the spilled
+ * segments are replayed in order after a restart.
+ */
+public class MappedSpillChannel extends BufferQueueChannel {
+
+    public static final Logger LOG = LoggerFactory.getLogger(MappedSpillChannel.class);
+
+    public static final String KEY_SPILL_DIR = "spillDir";
+    public static final String KEY_SPILL_SEGMENT_SIZE_MB = "spillSegmentSizeMb";
+    public static final int DEFAULT_SPILL_SEGMENT_SIZE_MB = 64;
+    public static final String KEY_MAX_SPILL_SIZE_MB = "maxSpillSizeMb";
+    public static final int DEFAULT_MAX_SPILL_SIZE_MB = 10 * 1024;
+    public static final String KEY_SPILL_THRESHOLD_COUNT = "spillThresholdCount";
+    public static final String KEY_SPILL_THRESHOLD_SIZE_KB = "spillThresholdSizeKb";
+
+    private SpillSegmentStore spillStore;
+    private SpillBufferQueue spillQueue;
+
+    /**
+     * configure
+     *
+     * @param context
+     */
+    @Override
+    public void configure(Context context) {
+        super.configure(context);
+        String spillDir = context.getString(KEY_SPILL_DIR,
+                System.getProperty("user.dir") + File.separator + "spill" + File.separator + this.getName());
+        int segmentSizeMb = context.getInteger(KEY_SPILL_SEGMENT_SIZE_MB, DEFAULT_SPILL_SEGMENT_SIZE_MB);
+        int maxSpillSizeMb = context.getInteger(KEY_MAX_SPILL_SIZE_MB, DEFAULT_MAX_SPILL_SIZE_MB);
+        int spillThresholdCount = context.getInteger(KEY_SPILL_THRESHOLD_COUNT, maxBufferQueueCount / 2);
+        int spillThresholdKb = context.getInteger(KEY_SPILL_THRESHOLD_SIZE_KB, maxBufferQueueSizeKb / 2);
+        try {
+            this.spillStore = new SpillSegmentStore(new File(spillDir), segmentSizeMb * 1024 * 1024,
+                    Math.max(maxSpillSizeMb / segmentSizeMb, 1));
+        } catch (IOException e) {
+            throw new FlumeException("open spill directory failure:" + spillDir, e);
+        }
+        this.spillQueue = new SpillBufferQueue(maxBufferQueueSizeKb, countSemaphore, spillStore,
+                spillThresholdCount, spillThresholdKb);
+        this.bufferQueue = spillQueue;
+        LOG.info("channel {} spills to {}, threshold count:{}, threshold size:{}KB, recovered events:{}",
+                this.getName(), spillDir, spillThresholdCount, spillThresholdKb, spillStore.unreadCount());
+    }
+
+    /**
+     * stop, the memory events are flushed to the spill segments
+     */
+    @Override
+    public void stop() {
+        super.stop();
+        if (channelTimer != null) {
+            channelTimer.cancel();
+        }
+        int flushCount = spillQueue.flush();
+        spillStore.close();
+        LOG.info("channel {} flushes {} memory events to the spill segments", this.getName(), flushCount);
+    }
+}
@@ -64,6 +64,11 @@ public class ProxyTransaction implements Transaction {
     @Override
     public void commit() {
         for (ProxyEvent event : takeList) {
+            if (event instanceof SpilledProxyEvent) {
+                // the permits were released when the event was spilled
+                ((SpilledProxyEvent) event).ack();
+                continue;
+            }
             countSemaphore.release();
             bufferQueue.release(event.getBody().length);
         }
@@ -80,7 +85,12 @@ public class ProxyTransaction implements Transaction {
     @Override
     public void rollback() {
         for (ProxyEvent event : takeList) {
-            this.bufferQueue.offer(event);
+            if (bufferQueue instanceof SpillBufferQueue) {
+                // the taken events go back to memory, not after the spilled events
+                ((SpillBufferQueue) bufferQueue).requeue(event);
+            } else {
+                this.bufferQueue.offer(event);
+            }
         }
         this.takeList.clear();
         for (ProxyEvent event : putList) {
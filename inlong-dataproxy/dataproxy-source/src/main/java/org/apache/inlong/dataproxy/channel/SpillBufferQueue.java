@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.dataproxy.channel;
+
+import org.apache.inlong.dataproxy.utils.BufferQueue;
+import org.apache.inlong.sdk.commons.protocol.ProxyEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+/**
+ * SpillBufferQueue, the events are kept in memory until the memory queue passes the spill
+ * threshold, then the later events are appended to the spill segments until the segments
+ * are read out. The permits of a spilled event are released when it is spilled, so the
+ * transaction committing a {@link SpilledProxyEvent} only acknowledges it.
+ */
+public class SpillBufferQueue extends BufferQueue<ProxyEvent> {
+
+    private final Semaphore countSemaphore;
+    private final SpillSegmentStore spillStore;
+    private final int spillThresholdCount;
+    private final int spillThresholdKb;
+    private final Object spillLock = new Object();
+    private volatile boolean spilling;
+
+    /**
+     * Constructor
+     *
+     * @param maxSizeKb the max size of memory events
+     * @param countSemaphore the count permit semaphore of the channel
+     * @param spillStore the spill segment store
+     * @param spillThresholdCount the memory event count to start spilling
+     * @param spillThresholdKb the memory event size to start spilling
+     */
+    public SpillBufferQueue(int maxSizeKb, Semaphore countSemaphore, SpillSegmentStore spillStore,
+            int spillThresholdCount, int spillThresholdKb) {
+        super(maxSizeKb);
+        this.countSemaphore = countSemaphore;
+        this.spillStore = spillStore;
+        this.spillThresholdCount = spillThresholdCount;
+        this.spillThresholdKb = spillThresholdKb;
+        // the recovered segments are replayed after the new memory events
+        this.spilling = spillStore.hasUnread();
+    }
+
+    /**
+     * offer
+     */
+    @Override
+    public void offer(ProxyEvent record) {
+        if (record == null) {
+            return;
+        }
+        if (record instanceof SpilledProxyEvent
+                || (!spilling && !this.isOverThreshold())) {
+            super.offer(record);
+            return;
+        }
+        synchronized (spillLock) {
+            if (!spillStore.hasUnread() && !this.isOverThreshold()) {
+                spilling = false;
+                super.offer(record);
+                return;
+            }
+            if (!spillStore.append(record)) {
+                // the spill store is full, the memory permits limit the channel
+                super.offer(record);
+                return;
+            }
+            spilling = true;
+        }
+        countSemaphore.release();
+        this.release(record.getBody().length);
+    }
+
+    /**
+     * requeue a taken event to memory when the transaction rolls back
+     */
+    public void requeue(ProxyEvent record) {
+        super.offer(record);
+    }
+
+    /**
+     * pollRecord
+     */
+    @Override
+    public ProxyEvent pollRecord() {
+        ProxyEvent record = super.pollRecord();
+        if (record != null || !spilling) {
+            return record;
+        }
+        synchronized (spillLock) {
+            record = spillStore.poll();
+            if (!spillStore.hasUnread()) {
+                spilling = false;
+            }
+        }
+        return record;
+    }
+
+    /**
+     * queue size, include the unread spilled events
+     */
+    @Override
+    public int size() {
+        return super.size() + (int) spillStore.unreadCount();
+    }
+
+    public boolean isSpilling() {
+        return spilling;
+    }
+
+    /**
+     * flush the memory events before the spilled events when the channel stops,
+     * the events read from the segments are kept in their segments.
+     *
+     * @return the count of flushed events
+     */
+    public int flush() {
+        List<ProxyEvent> events = new ArrayList<>(super.size());
+        ProxyEvent record;
+        while ((record = super.pollRecord()) != null) {
+            if (!(record instanceof SpilledProxyEvent)) {
+                events.add(record);
+            }
+        }
+        synchronized (spillLock) {
+            return spillStore.prepend(events);
+        }
+    }
+
+    private boolean isOverThreshold() {
+        return super.size() >= spillThresholdCount
+                || this.maxSizeKb() - this.availablePermits() >= spillThresholdKb;
+    }
+}
@@ -0,0 +1,454 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.dataproxy.channel;
+
+import org.apache.inlong.sdk.commons.protocol.ProxyEvent;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sun.nio.ch.DirectBuffer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * SpillSegmentStore, the events spilled out of the channel memory are appended to
+ * memory-mapped segment files of fixed size, and read back in the append order.
+ *
+ * A record is [length][crc32][payload], a zero length marks the end of a segment.
+ * A segment is deleted when all its events are read and acknowledged. The read and
+ * acknowledge progress is kept in memory only, so after a restart all the remaining
+ * segments are replayed from their beginning, the delivery is at-least-once.
+ */
+public class SpillSegmentStore {
+
+    public static final Logger LOG = LoggerFactory.getLogger(SpillSegmentStore.class);
+
+    public static final String SEGMENT_SUFFIX = ".seg";
+    private static final int RECORD_HEAD_LEN = 8;
+    private static final long INIT_SEGMENT_SEQ = 1000000000L;
+
+    private final File storeDir;
+    private final int segmentSize;
+    private final int maxSegmentCount;
+    // the segments in the append order
+    private final LinkedList<Segment> segments = new LinkedList<>();
+    private Segment writeSegment = null;
+    private long nextSeq = INIT_SEGMENT_SEQ;
+    private long unreadCount = 0;
+
+    /**
+     * Constructor, the existing segments are recovered for replay
+     *
+     * @param storeDir the segment directory
+     * @param segmentSize the segment file size in bytes
+     * @param maxSegmentCount the max count of segments
+     * @throws IOException
+     */
+    public SpillSegmentStore(File storeDir, int segmentSize, int maxSegmentCount) throws IOException {
+        this.storeDir = storeDir;
+        this.segmentSize = segmentSize;
+        this.maxSegmentCount = maxSegmentCount;
+        if (!storeDir.exists() && !storeDir.mkdirs()) {
+            throw new IOException("create spill directory failure:" + storeDir.getAbsolutePath());
+        }
+        this.recover();
+    }
+
+    /**
+     * append an event to the tail segment
+     *
+     * @param event the event
+     * @return false if the store is full or the event is too large
+     */
+    public synchronized boolean append(ProxyEvent event) {
+        byte[] payload = encode(event);
+        int recordLen = RECORD_HEAD_LEN + payload.length;
+        if (recordLen > segmentSize - 4) {
+            return false;
+        }
+        if (writeSegment == null || writeSegment.sealed
+                || writeSegment.writePos + recordLen > segmentSize - 4) {
+            if (writeSegment != null) {
+                writeSegment.seal();
+            }
+            if (segments.size() >= maxSegmentCount) {
+                return false;
+            }
+            try {
+                writeSegment = new Segment(nextSeq++, false);
+            } catch (IOException e) {
+                LOG.error("create spill segment failure", e);
+                writeSegment = null;
+                return false;
+            }
+            segments.add(writeSegment);
+        }
+        writeSegment.write(payload);
+        unreadCount++;
+        return true;
+    }
+
+    /**
+     * write the events before all the existing segments,
+     * used to keep the memory events in order when the channel stops
+     *
+     * @param events the events
+     * @return the count of written events
+     */
+    public synchronized int prepend(List<ProxyEvent> events) {
+        List<List<byte[]>> segmentPayloads = new ArrayList<>();
+        List<byte[]> payloads = new ArrayList<>();
+        int usedSize = 0;
+        for (ProxyEvent event : events) {
+            byte[] payload = encode(event);
+            int recordLen = RECORD_HEAD_LEN + payload.length;
+            if (recordLen > segmentSize - 4) {
+                LOG.warn("drop too large event of {} when flushing channel", event.getUid());
+                continue;
+            }
+            if (usedSize + recordLen > segmentSize - 4) {
+                segmentPayloads.add(payloads);
+                payloads = new ArrayList<>();
+                usedSize = 0;
+            }
+            payloads.add(payload);
+            usedSize += recordLen;
+        }
+        if (!payloads.isEmpty()) {
+            segmentPayloads.add(payloads);
+        }
+        long seq = (segments.isEmpty() ? nextSeq : segments.getFirst().seq) - segmentPayloads.size();
+        int writeCount = 0;
+        List<Segment> newSegments = new ArrayList<>(segmentPayloads.size());
+        try {
+            for (List<byte[]> segmentPayload : segmentPayloads) {
+                Segment segment = new Segment(seq++, false);
+                for (byte[] payload : segmentPayload) {
+                    segment.write(payload);
+                }
+                segment.seal();
+                newSegments.add(segment);
+                writeCount += segmentPayload.size();
+            }
+        } catch (IOException e) {
+            LOG.error("flush events to spill segment failure", e);
+        }
+        segments.addAll(0, newSegments);
+        unreadCount += writeCount;
+        return writeCount;
+    }
+
+    /**
+     * poll the first unread event
+     *
+     * @return the event, null if all events are read
+     */
+    public synchronized SpilledProxyEvent poll() {
+        for (Segment segment : segments) {
+            if (segment.readCount >= segment.writeCount) {
+                continue;
+            }
+            SpilledProxyEvent event = segment.read();
+            unreadCount--;
+            if (segment == writeSegment && segment.readCount >= segment.writeCount) {
+                // the later appends go to a new segment, so that this one can be deleted
+                segment.seal();
+            }
+            return event;
+        }
+        return null;
+    }
+
+    /**
+     * acknowledge an event read from the segment
+     *
+     * @param segment the segment
+     */
+    public synchronized void ack(Segment segment) {
+        segment.ackCount++;
+        if (segment.sealed && segment.ackCount >= segment.writeCount) {
+            segments.remove(segment);
+            if (segment == writeSegment) {
+                writeSegment = null;
+            }
+            segment.delete();
+        }
+    }
+
+    public synchronized boolean hasUnread() {
+        return unreadCount > 0;
+    }
+
+    public synchronized long unreadCount() {
+        return unreadCount;
+    }
+
+    public synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * close, all the segments are forced to disk and unmapped
+     */
+    public synchronized void close() {
+        for (Segment segment : segments) {
+            segment.force();
+            segment.unmap();
+        }
+        segments.clear();
+        writeSegment = null;
+    }
+
+    /**
+     * recover the existing segments in the sequence order
+     */
+    private void recover() throws IOException {
+        File[] files = storeDir.listFiles((dir, name) -> name.endsWith(SEGMENT_SUFFIX));
+        if (files == null || files.length == 0) {
+            return;
+        }
+        Arrays.sort(files);
+        for (File file : files) {
+            long seq;
+            try {
+                seq = Long.parseLong(file.getName().substring(0,
+                        file.getName().length() - SEGMENT_SUFFIX.length()));
+            } catch (NumberFormatException e) {
+                LOG.warn("skip unknown spill file {}", file.getAbsolutePath());
+                continue;
+            }
+            Segment segment = new Segment(seq, true);
+            nextSeq = Math.max(nextSeq, seq + 1);
+            if (segment.writeCount == 0) {
+                segment.delete();
+                continue;
+            }
+            segment.seal();
+            segments.add(segment);
+            unreadCount += segment.writeCount;
+        }
+        LOG.info("recover {} spill segments with {} events from {}",
+                segments.size(), unreadCount, storeDir.getAbsolutePath());
+    }
+
+    private static byte[] encode(ProxyEvent event) {
+        byte[] groupId = toBytes(event.getInlongGroupId());
+        byte[] streamId = toBytes(event.getInlongStreamId());
+        byte[] sourceIp = toBytes(event.getSourceIp());
+        byte[] topic = toBytes(event.getTopic());
+        Map<String, String> headers = event.getHeaders();
+        List<byte[]> headerBytes = new ArrayList<>(headers.size() * 2);
+        int size = 4 * 4 + groupId.length + streamId.length + sourceIp.length + topic.length + 8 + 8 + 4;
+        for (Map.Entry<String, String> entry : headers.entrySet()) {
+            byte[] key = toBytes(entry.getKey());
+            byte[] value = toBytes(entry.getValue());
+            headerBytes.add(key);
+            headerBytes.add(value);
+            size += 8 + key.length + value.length;
+        }
+        byte[] body = event.getBody();
+        size += 4 + body.length;
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        putBytes(buffer, groupId);
+        putBytes(buffer, streamId);
+        putBytes(buffer, sourceIp);
+        putBytes(buffer, topic);
+        buffer.putLong(event.getMsgTime());
+        buffer.putLong(event.getSourceTime());
+        buffer.putInt(headers.size());
+        for (byte[] bytes : headerBytes) {
+            putBytes(buffer, bytes);
+        }
+        putBytes(buffer, body);
+        return buffer.array();
+    }
+
+    private static byte[] toBytes(String value) {
+        return value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == 0) {
+            return null;
+        }
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(),
+                length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    /**
+     * Segment, one memory-mapped segment file
+     */
+    public class Segment {
+
+        private final long seq;
+        private final File file;
+        private final MappedByteBuffer buffer;
+        private int writePos = 0;
+        private int readPos = 0;
+        private int writeCount = 0;
+        private int readCount = 0;
+        private int ackCount = 0;
+        private boolean sealed = false;
+        private boolean unmapped = false;
+
+        private Segment(long seq, boolean recover) throws IOException {
+            this.seq = seq;
+            this.file = new File(storeDir, String.format("%020d", seq) + SEGMENT_SUFFIX);
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw");
+                    FileChannel fileChannel = raf.getChannel()) {
+                int mapSize = segmentSize;
+                if (recover) {
+                    mapSize = (int) Math.min(raf.length(), Integer.MAX_VALUE);
+                } else {
+                    raf.setLength(segmentSize);
+                }
+                this.buffer = fileChannel.map(FileChannel.MapMode.READ_WRITE, 0, mapSize);
+            }
+            if (recover) {
+                this.scan();
+            }
+        }
+
+        private void scan() {
+            CRC32 crc32 = new CRC32();
+            int limit = buffer.capacity();
+            while (writePos + RECORD_HEAD_LEN <= limit) {
+                int length = buffer.getInt(writePos);
+                if (length <= 0 || writePos + RECORD_HEAD_LEN + length > limit) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                ByteBuffer dup = buffer.duplicate();
+                dup.position(writePos + RECORD_HEAD_LEN);
+                dup.get(payload);
+                crc32.reset();
+                crc32.update(payload, 0, length);
+                if ((int) crc32.getValue() != buffer.getInt(writePos + 4)) {
+                    LOG.warn("spill segment {} is truncated at {}", file.getName(), writePos);
+                    break;
+                }
+                writePos += RECORD_HEAD_LEN + length;
+                writeCount++;
+            }
+        }
+
+        private void write(byte[] payload) {
+            CRC32 crc32 = new CRC32();
+            crc32.update(payload, 0, payload.length);
+            ByteBuffer dup = buffer.duplicate();
+            dup.position(writePos + RECORD_HEAD_LEN);
+            dup.put(payload);
+            buffer.putInt(writePos + 4, (int) crc32.getValue());
+            // the length is written last, it makes the record visible
+            buffer.putInt(writePos, payload.length);
+            writePos += RECORD_HEAD_LEN + payload.length;
+            writeCount++;
+        }
+
+        private SpilledProxyEvent read() {
+            int length = buffer.getInt(readPos);
+            byte[] payload = new byte[length];
+            ByteBuffer dup = buffer.duplicate();
+            dup.position(readPos + RECORD_HEAD_LEN);
+            dup.get(payload);
+            readPos += RECORD_HEAD_LEN + length;
+            readCount++;
+            ByteBuffer data = ByteBuffer.wrap(payload);
+            String groupId = getString(data);
+            String streamId = getString(data);
+            String sourceIp = getString(data);
+            String topic = getString(data);
+            long msgTime = data.getLong();
+            long sourceTime = data.getLong();
+            int headerCount = data.getInt();
+            Map<String, String> headers = new HashMap<>(headerCount * 2);
+            for (int i = 0; i < headerCount; i++) {
+                String key = getString(data);
+                String value = getString(data);
+                headers.put(key, value == null ? "" : value);
+            }
+            byte[] body = new byte[data.getInt()];
+            data.get(body);
+            SpilledProxyEvent event = new SpilledProxyEvent(SpillSegmentStore.this, this,
+                    groupId, streamId, msgTime, sourceIp, sourceTime, headers, body);
+            if (topic != null) {
+                event.setTopic(topic);
+            }
+            return event;
+        }
+
+        private void seal() {
+            if (!sealed) {
+                sealed = true;
+                force();
+            }
+        }
+
+        private void force() {
+            try {
+                buffer.force();
+            } catch (Throwable e) {
+                LOG.warn("force spill segment {} failure", file.getName(), e);
+            }
+        }
+
+        /**
+         * release the mapping now rather than by gc, the segment is not accessed any more
+         */
+        private void unmap() {
+            if (unmapped) {
+                return;
+            }
+            this.unmapped = true;
+            try {
+                ((DirectBuffer) buffer).cleaner().clean();
+            } catch (Throwable e) {
+                // the mapping is released by gc when the cleaner is inaccessible
+            }
+        }
+
+        private void delete() {
+            // the mapped file can not be deleted on windows, and its space is not freed until it is unmapped
+            unmap();
+            if (!file.delete()) {
+                LOG.warn("delete spill segment {} failure", file.getAbsolutePath());
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.dataproxy.channel;
+
+import org.apache.inlong.sdk.commons.protocol.ProxyEvent;
+
+import java.util.Map;
+
+/**
+ * SpilledProxyEvent, the event read back from a spill segment,
+ * the segment is deleted after all its events are acknowledged.
+ */
+public class SpilledProxyEvent extends ProxyEvent {
+
+    private final SpillSegmentStore store;
+    private final SpillSegmentStore.Segment segment;
+
+    /**
+     * Constructor
+     *
+     * @param store the spill segment store
+     * @param segment the segment the event is read from
+     * @param groupId the group id
+     * @param streamId the stream id
+     * @param msgTime the message time
+     * @param sourceIp the source ip
+     * @param sourceTime the source time
+     * @param headers the headers
+     * @param body the body
+     */
+    public SpilledProxyEvent(SpillSegmentStore store, SpillSegmentStore.Segment segment,
+            String groupId, String streamId, long msgTime, String sourceIp,
+            long sourceTime, Map<String, String> headers, byte[] body) {
+        super(groupId, streamId, String.valueOf(msgTime), sourceIp,
+                String.valueOf(sourceTime), headers, body);
+        this.store = store;
+        this.segment = segment;
+    }
+
+    /**
+     * ack, the event is committed by the transaction taking it
+     */
+    public void ack() {
+        store.ack(segment);
+    }
+}
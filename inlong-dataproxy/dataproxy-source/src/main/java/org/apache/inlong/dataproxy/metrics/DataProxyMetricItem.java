@@ -29,7 +29,7 @@ import org.apache.inlong.dataproxy.utils.Constants;
 import org.apache.flume.Event;
 
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * DataProxyMetricItem
@@ -83,42 +83,42 @@ public class DataProxyMetricItem extends MetricItem {
     @Dimension
     public String msgTime = String.valueOf(0);
     @CountMetric
-    public AtomicLong readSuccessCount = new AtomicLong(0);
+    public LongAdder readSuccessCount = new LongAdder();
     @CountMetric
-    public AtomicLong readSuccessSize = new AtomicLong(0);
+    public LongAdder readSuccessSize = new LongAdder();
     @CountMetric
-    public AtomicLong readFailCount = new AtomicLong(0);
+    public LongAdder readFailCount = new LongAdder();
     @CountMetric
-    public AtomicLong readFailSize = new AtomicLong(0);
+    public LongAdder readFailSize = new LongAdder();
     @CountMetric
-    public AtomicLong sendCount = new AtomicLong(0);
+    public LongAdder sendCount = new LongAdder();
     @CountMetric
-    public AtomicLong sendSize = new AtomicLong(0);
+    public LongAdder sendSize = new LongAdder();
     @CountMetric
-    public AtomicLong sendSuccessCount = new AtomicLong(0);
+    public LongAdder sendSuccessCount = new LongAdder();
     @CountMetric
-    public AtomicLong sendSuccessSize = new AtomicLong(0);
+    public LongAdder sendSuccessSize = new LongAdder();
     @CountMetric
-    public AtomicLong sendFailCount = new AtomicLong(0);
+    public LongAdder sendFailCount = new LongAdder();
     @CountMetric
-    public AtomicLong sendFailSize = new AtomicLong(0);
+    public LongAdder sendFailSize = new LongAdder();
     @CountMetric
     // sinkCallbackTime - sinkBeginTime(milliseconds)
-    public AtomicLong sinkDuration = new AtomicLong(0);
+    public LongAdder sinkDuration = new LongAdder();
     @CountMetric
     // sinkCallbackTime - sourceReceiveTime(milliseconds)
-    public AtomicLong nodeDuration = new AtomicLong(0);
+    public LongAdder nodeDuration = new LongAdder();
     @CountMetric
     // sinkCallbackTime - eventCreateTime(milliseconds)
-    public AtomicLong wholeDuration = new AtomicLong(0);
+    public LongAdder wholeDuration = new LongAdder();
     @CountMetric
-    public AtomicLong readPackCount = new AtomicLong(0);
+    public LongAdder readPackCount = new LongAdder();
     @CountMetric
-    public AtomicLong readPackSize = new AtomicLong(0);
+    public LongAdder readPackSize = new LongAdder();
     @CountMetric
-    public AtomicLong sendPackCount = new AtomicLong(0);
+    public LongAdder sendPackCount = new LongAdder();
     @CountMetric
-    public AtomicLong sendPackSize = new AtomicLong(0);
+    public LongAdder sendPackSize = new LongAdder();
 
     /**
      * fillInlongId
@@ -192,7 +192,7 @@ public class DataProxyMetricItem extends MetricItem {
      * @return the readSuccessCount
      */
     public long getReadSuccessCount() {
-        return readSuccessCount.get();
+        return readSuccessCount.sum();
     }
 
     /**
@@ -201,7 +201,7 @@ public class DataProxyMetricItem extends MetricItem {
      * @return the readSuccessSize
      */
     public long getReadSuccessSize() {
-        return readSuccessSize.get();
+        return readSuccessSize.sum();
     }
 
     /**
@@ -210,7 +210,7 @@ public class DataProxyMetricItem extends MetricItem {
      * @return the readFailCount
      */
     public long getReadFailCount() {
-        return readFailCount.get();
+        return readFailCount.sum();
     }
 
     /**
@@ -219,7 +219,7 @@ public class DataProxyMetricItem extends MetricItem {
      * @return the readFailSize
      */
     public long getReadFailSize() {
-        return readFailSize.get();
+        return readFailSize.sum();
     }
 
     /**
@@ -228,7 +228,7 @@ public class DataProxyMetricItem extends MetricItem {
      * @return the sendCount
      */
     public long getSendCount() {
-        return sendCount.get();
+        return sendCount.sum();
     }
 
     /**
@@ -237,7 +237,7 @@ public class DataProxyMetricItem extends MetricItem {
      * @return the sendSize
      */
     public long getSendSize() {
-        return sendSize.get();
+        return sendSize.sum();
     }
 
     /**
@@ -246,7 +246,7 @@ public class DataProxyMetricItem extends MetricItem {
      * @return the sendSuccessCount
      */
     public long getSendSuccessCount() {
-        return sendSuccessCount.get();
+        return sendSuccessCount.sum();
     }
 
     /**
@@ -255,7 +255,7 @@ public class DataProxyMetricItem extends MetricItem {
      * @return the sendSuccessSize
      */
     public long getSendSuccessSize() {
-        return sendSuccessSize.get();
+        return sendSuccessSize.sum();
     }
 
     /**
@@ -264,7 +264,7 @@ public class DataProxyMetricItem extends MetricItem {
      * @return the sendFailCount
      */
     public long getSendFailCount() {
-        return sendFailCount.get();
+        return sendFailCount.sum();
     }
 
     /**
@@ -273,7 +273,7 @@ public class DataProxyMetricItem extends MetricItem {
      * @return the sendFailSize
      */
     public long getSendFailSize() {
-        return sendFailSize.get();
+        return sendFailSize.sum();
     }
 
     /**
@@ -282,11 +282,11 @@ public class DataProxyMetricItem extends MetricItem {
      * @return the sinkDuration
      */
     public long getSinkAverageDuration() {
-        long longSendSuccessCount = sendSuccessCount.get();
+        long longSendSuccessCount = sendSuccessCount.sum();
         if (longSendSuccessCount <= 0) {
             return 0;
         }
-        return sinkDuration.get() / longSendSuccessCount;
+        return sinkDuration.sum() / longSendSuccessCount;
     }
 
     /**
@@ -295,11 +295,11 @@ public class DataProxyMetricItem extends MetricItem {
      * @return the nodeDuration
      */
     public long getNodeAverageDuration() {
-        long longSendSuccessCount = sendSuccessCount.get();
+        long longSendSuccessCount = sendSuccessCount.sum();
         if (longSendSuccessCount <= 0) {
             return 0;
         }
-        return nodeDuration.get() / longSendSuccessCount;
+        return nodeDuration.sum() / longSendSuccessCount;
     }
 
     /**
@@ -308,11 +308,11 @@ public class DataProxyMetricItem extends MetricItem {
      * @return the wholeDuration
      */
     public long getWholeAverageDuration() {
-        long longSendSuccessCount = sendSuccessCount.get();
+        long longSendSuccessCount = sendSuccessCount.sum();
         if (longSendSuccessCount <= 0) {
             return 0;
         }
-        return wholeDuration.get() / longSendSuccessCount;
+        return wholeDuration.sum() / longSendSuccessCount;
     }
 
 }
\ No newline at end of file
@@ -18,6 +18,8 @@
 package org.apache.inlong.dataproxy.metrics;
 
 import org.apache.inlong.common.metric.MetricDomain;
+import org.apache.inlong.common.metric.MetricItem;
+import org.apache.inlong.common.metric.MetricItemHandle;
 import org.apache.inlong.common.metric.MetricItemSet;
 import org.apache.inlong.common.msg.AttributeConstants;
 import org.apache.inlong.dataproxy.config.CommonConfigHolder;
@@ -27,7 +29,10 @@ import org.apache.commons.lang3.math.NumberUtils;
 import org.apache.flume.Event;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 
@@ -36,8 +41,12 @@ import java.util.Map;
 @MetricDomain(name = "DataProxy")
 public class DataProxyMetricItemSet extends MetricItemSet<DataProxyMetricItem> {
 
+    private static final ThreadLocal<HandleKey> LOOKUP_KEY = ThreadLocal.withInitial(HandleKey::new);
+
     private String clusterId = null;
     private String sourceDataId = null;
+    // the metric handles by the dimension values, looked up without building the dimensions
+    private final Map<HandleKey, MetricItemHandle<DataProxyMetricItem>> handleMap = new ConcurrentHashMap<>();
 
     /**
      * Constructor
@@ -108,59 +117,106 @@ public class DataProxyMetricItemSet extends MetricItemSet<DataProxyMetricItem> {
     private void fillMetricItemsByEvent(Event event, boolean isSource,
             boolean isReadOp, boolean isSuccess,
             long size, long sendTime) {
-        Map<String, String> dimensions = new HashMap<>();
-        dimensions.put(DataProxyMetricItem.KEY_CLUSTER_ID, clusterId);
-        dimensions.put(DataProxyMetricItem.KEY_INLONG_GROUP_ID,
-                event.getHeaders().get(AttributeConstants.GROUP_ID));
-        dimensions.put(DataProxyMetricItem.KEY_INLONG_STREAM_ID,
-                event.getHeaders().get(AttributeConstants.STREAM_ID));
         long dataTime = NumberUtils.toLong(
                 event.getHeaders().get(AttributeConstants.DATA_TIME));
         long msgCount = NumberUtils.toLong(
                 event.getHeaders().get(ConfigConstants.MSG_COUNTER_KEY));
         long auditFormatTime =
                 dataTime - dataTime % CommonConfigHolder.getInstance().getAuditFormatInvlMs();
-        dimensions.put(DataProxyMetricItem.KEY_MESSAGE_TIME, String.valueOf(auditFormatTime));
+        String groupId = event.getHeaders().get(AttributeConstants.GROUP_ID);
+        String streamId = event.getHeaders().get(AttributeConstants.STREAM_ID);
+        DataProxyMetricItem metricItem;
         if (isSource) {
-            dimensions.put(DataProxyMetricItem.KEY_SOURCE_ID, name);
-            dimensions.put(DataProxyMetricItem.KEY_SOURCE_DATA_ID, sourceDataId);
+            metricItem = findMetricItem(clusterId, name, sourceDataId,
+                    groupId, streamId, null, null, auditFormatTime);
         } else {
-            dimensions.put(DataProxyMetricItem.KEY_SINK_ID, name);
-            dimensions.put(DataProxyMetricItem.KEY_SINK_DATA_ID,
-                    event.getHeaders().get(ConfigConstants.TOPIC_KEY));
+            metricItem = findMetricItem(clusterId, null, null, groupId, streamId,
+                    name, event.getHeaders().get(ConfigConstants.TOPIC_KEY), auditFormatTime);
         }
-        DataProxyMetricItem metricItem = findMetricItem(dimensions);
         if (isReadOp) {
             if (isSuccess) {
-                metricItem.readSuccessCount.addAndGet(msgCount);
-                metricItem.readSuccessSize.addAndGet(size);
+                metricItem.readSuccessCount.add(msgCount);
+                metricItem.readSuccessSize.add(size);
             } else {
-                metricItem.readFailCount.addAndGet(msgCount);
-                metricItem.readFailSize.addAndGet(size);
+                metricItem.readFailCount.add(msgCount);
+                metricItem.readFailSize.add(size);
             }
         } else {
             if (isSuccess) {
-                metricItem.sendSuccessCount.addAndGet(msgCount);
-                metricItem.sendSuccessSize.addAndGet(size);
+                metricItem.sendSuccessCount.add(msgCount);
+                metricItem.sendSuccessSize.add(size);
                 if (sendTime > 0) {
                     long currentTime = System.currentTimeMillis();
                     long msgDataTimeL = Long.parseLong(
                             event.getHeaders().get(AttributeConstants.DATA_TIME));
                     long msgRcvTimeL = Long.parseLong(
                             event.getHeaders().get(AttributeConstants.RCV_TIME));
-                    metricItem.sinkDuration.addAndGet(currentTime - sendTime);
-                    metricItem.nodeDuration.addAndGet(currentTime - msgRcvTimeL);
-                    metricItem.wholeDuration.addAndGet(currentTime - msgDataTimeL);
+                    metricItem.sinkDuration.add(currentTime - sendTime);
+                    metricItem.nodeDuration.add(currentTime - msgRcvTimeL);
+                    metricItem.wholeDuration.add(currentTime - msgDataTimeL);
                 }
             } else {
-                metricItem.sendFailCount.addAndGet(msgCount);
-                metricItem.sendFailSize.addAndGet(size);
+                metricItem.sendFailCount.add(msgCount);
+                metricItem.sendFailSize.add(size);
             }
-            metricItem.sendCount.addAndGet(msgCount);
-            metricItem.sendSize.addAndGet(size);
+            metricItem.sendCount.add(msgCount);
+            metricItem.sendSize.add(size);
         }
     }
 
+    /**
+     * Find the metric item by the dimension values through the cached metric handle, without
+     * building the dimensions and their key for each event
+     *
+     * @param clusterId       the cluster id
+     * @param sourceId        the source id, null if no source dimensions
+     * @param sourceDataId    the source data id
+     * @param inlongGroupId   the inlong group id
+     * @param inlongStreamId  the inlong stream id
+     * @param sinkId          the sink id, null if no sink dimensions
+     * @param sinkDataId      the sink data id
+     * @param msgTime         the audit format time of the message
+     * @return the metric item
+     */
+    public DataProxyMetricItem findMetricItem(String clusterId, String sourceId, String sourceDataId,
+            String inlongGroupId, String inlongStreamId, String sinkId, String sinkDataId, long msgTime) {
+        HandleKey lookupKey = LOOKUP_KEY.get();
+        lookupKey.set(clusterId, sourceId, sourceDataId, inlongGroupId,
+                inlongStreamId, sinkId, sinkDataId, msgTime);
+        MetricItemHandle<DataProxyMetricItem> handle = handleMap.get(lookupKey);
+        if (handle == null) {
+            Map<String, String> dimensions = new HashMap<>();
+            dimensions.put(DataProxyMetricItem.KEY_CLUSTER_ID, clusterId);
+            if (sourceId != null) {
+                dimensions.put(DataProxyMetricItem.KEY_SOURCE_ID, sourceId);
+                dimensions.put(DataProxyMetricItem.KEY_SOURCE_DATA_ID, sourceDataId);
+            }
+            dimensions.put(DataProxyMetricItem.KEY_INLONG_GROUP_ID, inlongGroupId);
+            dimensions.put(DataProxyMetricItem.KEY_INLONG_STREAM_ID, inlongStreamId);
+            if (sinkId != null) {
+                dimensions.put(DataProxyMetricItem.KEY_SINK_ID, sinkId);
+                dimensions.put(DataProxyMetricItem.KEY_SINK_DATA_ID, sinkDataId);
+            }
+            dimensions.put(DataProxyMetricItem.KEY_MESSAGE_TIME, String.valueOf(msgTime));
+            handle = bindMetricItem(dimensions);
+            MetricItemHandle<DataProxyMetricItem> oldHandle = handleMap.putIfAbsent(lookupKey.copy(), handle);
+            handle = (oldHandle == null) ? handle : oldHandle;
+        }
+        return handle.getItem();
+    }
+
+    /**
+     * snapshot, and drop the handles of the retired items
+     *
+     * @return the updated metric items
+     */
+    @Override
+    public List<MetricItem> snapshot() {
+        List<MetricItem> snapshot = super.snapshot();
+        handleMap.values().removeIf(MetricItemHandle::isRetired);
+        return snapshot;
+    }
+
     /**
      * createItem
      * 
@@ -171,4 +227,70 @@ public class DataProxyMetricItemSet extends MetricItemSet<DataProxyMetricItem> {
         return new DataProxyMetricItem();
     }
 
+    /**
+     * HandleKey, the dimension values of a metric handle
+     */
+    private static class HandleKey {
+
+        private String clusterId;
+        private String sourceId;
+        private String sourceDataId;
+        private String inlongGroupId;
+        private String inlongStreamId;
+        private String sinkId;
+        private String sinkDataId;
+        private long msgTime;
+        private int hash;
+
+        private void set(String clusterId, String sourceId, String sourceDataId, String inlongGroupId,
+                String inlongStreamId, String sinkId, String sinkDataId, long msgTime) {
+            this.clusterId = clusterId;
+            this.sourceId = sourceId;
+            this.sourceDataId = sourceDataId;
+            this.inlongGroupId = inlongGroupId;
+            this.inlongStreamId = inlongStreamId;
+            this.sinkId = sinkId;
+            this.sinkDataId = sinkDataId;
+            this.msgTime = msgTime;
+            int result = Objects.hashCode(clusterId);
+            result = 31 * result + Objects.hashCode(sourceId);
+            result = 31 * result + Objects.hashCode(sourceDataId);
+            result = 31 * result + Objects.hashCode(inlongGroupId);
+            result = 31 * result + Objects.hashCode(inlongStreamId);
+            result = 31 * result + Objects.hashCode(sinkId);
+            result = 31 * result + Objects.hashCode(sinkDataId);
+            this.hash = 31 * result + Long.hashCode(msgTime);
+        }
+
+        private HandleKey copy() {
+            HandleKey key = new HandleKey();
+            key.set(clusterId, sourceId, sourceDataId, inlongGroupId,
+                    inlongStreamId, sinkId, sinkDataId, msgTime);
+            return key;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof HandleKey)) {
+                return false;
+            }
+            HandleKey other = (HandleKey) obj;
+            return msgTime == other.msgTime
+                    && Objects.equals(inlongGroupId, other.inlongGroupId)
+                    && Objects.equals(inlongStreamId, other.inlongStreamId)
+                    && Objects.equals(sinkDataId, other.sinkDataId)
+                    && Objects.equals(sinkId, other.sinkId)
+                    && Objects.equals(sourceId, other.sourceId)
+                    && Objects.equals(sourceDataId, other.sourceDataId)
+                    && Objects.equals(clusterId, other.clusterId);
+        }
+    }
 }
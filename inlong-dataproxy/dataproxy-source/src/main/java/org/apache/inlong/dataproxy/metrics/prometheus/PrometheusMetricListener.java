@@ -40,7 +40,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 import static org.apache.inlong.common.metric.MetricItemMBean.DOMAIN_SEPARATOR;
 import static org.apache.inlong.common.metric.MetricRegister.JMX_DOMAIN;
@@ -68,7 +68,7 @@ public class PrometheusMetricListener extends Collector implements MetricListene
     protected HTTPServer httpServer;
     private String metricName;
     private DataProxyMetricItem metricItem;
-    private Map<String, AtomicLong> metricValueMap = new ConcurrentHashMap<>();
+    private Map<String, LongAdder> metricValueMap = new ConcurrentHashMap<>();
     private Map<String, MetricItemValue> dimensionMetricValueMap = new ConcurrentHashMap<>();
     private List<String> dimensionKeys = new ArrayList<>();
 
@@ -126,10 +126,10 @@ public class PrometheusMetricListener extends Collector implements MetricListene
             // total
             for (Entry<String, MetricValue> entry : itemValue.getMetrics().entrySet()) {
                 String fieldName = entry.getValue().name;
-                AtomicLong metricValue = this.metricValueMap.get(fieldName);
+                LongAdder metricValue = this.metricValueMap.get(fieldName);
                 if (metricValue != null) {
                     long fieldValue = entry.getValue().value;
-                    metricValue.addAndGet(fieldValue);
+                    metricValue.add(fieldValue);
                 }
             }
             // id dimension
@@ -174,21 +174,21 @@ public class PrometheusMetricListener extends Collector implements MetricListene
         CounterMetricFamily totalCounter = new CounterMetricFamily(metricName,
                 "The metrics of dataproxy node.",
                 Arrays.asList("dimension"));
-        totalCounter.addMetric(Arrays.asList(M_READ_SUCCESS_COUNT), metricItem.readSuccessCount.get());
-        totalCounter.addMetric(Arrays.asList(M_READ_SUCCESS_SIZE), metricItem.readSuccessSize.get());
-        totalCounter.addMetric(Arrays.asList(M_READ_FAIL_COUNT), metricItem.readFailCount.get());
-        totalCounter.addMetric(Arrays.asList(M_READ_FAIL_SIZE), metricItem.readFailSize.get());
+        totalCounter.addMetric(Arrays.asList(M_READ_SUCCESS_COUNT), metricItem.readSuccessCount.sum());
+        totalCounter.addMetric(Arrays.asList(M_READ_SUCCESS_SIZE), metricItem.readSuccessSize.sum());
+        totalCounter.addMetric(Arrays.asList(M_READ_FAIL_COUNT), metricItem.readFailCount.sum());
+        totalCounter.addMetric(Arrays.asList(M_READ_FAIL_SIZE), metricItem.readFailSize.sum());
         // send
-        totalCounter.addMetric(Arrays.asList(M_SEND_COUNT), metricItem.sendCount.get());
-        totalCounter.addMetric(Arrays.asList(M_SEND_SIZE), metricItem.sendSize.get());
-        totalCounter.addMetric(Arrays.asList(M_SEND_SUCCESS_COUNT), metricItem.sendSuccessCount.get());
-        totalCounter.addMetric(Arrays.asList(M_SEND_SUCCESS_SIZE), metricItem.sendSuccessSize.get());
-        totalCounter.addMetric(Arrays.asList(M_SEND_FAIL_COUNT), metricItem.sendFailCount.get());
-        totalCounter.addMetric(Arrays.asList(M_SEND_FAIL_SIZE), metricItem.sendFailSize.get());
+        totalCounter.addMetric(Arrays.asList(M_SEND_COUNT), metricItem.sendCount.sum());
+        totalCounter.addMetric(Arrays.asList(M_SEND_SIZE), metricItem.sendSize.sum());
+        totalCounter.addMetric(Arrays.asList(M_SEND_SUCCESS_COUNT), metricItem.sendSuccessCount.sum());
+        totalCounter.addMetric(Arrays.asList(M_SEND_SUCCESS_SIZE), metricItem.sendSuccessSize.sum());
+        totalCounter.addMetric(Arrays.asList(M_SEND_FAIL_COUNT), metricItem.sendFailCount.sum());
+        totalCounter.addMetric(Arrays.asList(M_SEND_FAIL_SIZE), metricItem.sendFailSize.sum());
         // duration
-        totalCounter.addMetric(Arrays.asList(M_SINK_DURATION), metricItem.sinkDuration.get());
-        totalCounter.addMetric(Arrays.asList(M_NODE_DURATION), metricItem.nodeDuration.get());
-        totalCounter.addMetric(Arrays.asList(M_WHOLE_DURATION), metricItem.wholeDuration.get());
+        totalCounter.addMetric(Arrays.asList(M_SINK_DURATION), metricItem.sinkDuration.sum());
+        totalCounter.addMetric(Arrays.asList(M_NODE_DURATION), metricItem.nodeDuration.sum());
+        totalCounter.addMetric(Arrays.asList(M_WHOLE_DURATION), metricItem.wholeDuration.sum());
         List<MetricFamilySamples> mfs = new ArrayList<>();
         mfs.add(totalCounter);
 
@@ -31,7 +31,6 @@ import org.apache.flume.Channel;
 import org.apache.flume.Context;
 import org.apache.flume.conf.Configurable;
 
-import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -141,36 +140,31 @@ public class MessageQueueZoneSinkContext extends SinkContext {
             return;
         }
         BatchPackProfile batchProfile = (BatchPackProfile) currentRecord;
-        Map<String, String> dimensions = new HashMap<>();
-        dimensions.put(DataProxyMetricItem.KEY_CLUSTER_ID, this.getProxyClusterId());
-        dimensions.put(DataProxyMetricItem.KEY_SOURCE_ID, "-");
-        dimensions.put(DataProxyMetricItem.KEY_SOURCE_DATA_ID, "-");
         // metric
-        fillInlongId(batchProfile, dimensions);
-        dimensions.put(DataProxyMetricItem.KEY_SINK_ID, mqName);
-        dimensions.put(DataProxyMetricItem.KEY_SINK_DATA_ID, topic);
+        final String inlongGroupId = getInlongGroupId(batchProfile);
+        final String inlongStreamId = getInlongStreamId(batchProfile);
         final long currentTime = System.currentTimeMillis();
         batchProfile.getEvents().forEach(event -> {
             long msgTime = event.getMsgTime();
             long auditFormatTime =
                     msgTime - msgTime % CommonConfigHolder.getInstance().getAuditFormatInvlMs();
-            dimensions.put(DataProxyMetricItem.KEY_MESSAGE_TIME, String.valueOf(auditFormatTime));
-            DataProxyMetricItem metricItem = this.getMetricItemSet().findMetricItem(dimensions);
+            DataProxyMetricItem metricItem = this.getMetricItemSet().findMetricItem(this.getProxyClusterId(),
+                    "-", "-", inlongGroupId, inlongStreamId, mqName, topic, auditFormatTime);
             if (result) {
-                metricItem.sendSuccessCount.addAndGet(1);
-                metricItem.sendSuccessSize.addAndGet(event.getBody().length);
+                metricItem.sendSuccessCount.add(1);
+                metricItem.sendSuccessSize.add(event.getBody().length);
                 if (sendTime > 0) {
                     long sinkDuration = currentTime - sendTime;
                     long nodeDuration = currentTime - event.getSourceTime();
                     long wholeDuration = currentTime - msgTime;
-                    metricItem.sinkDuration.addAndGet(sinkDuration);
-                    metricItem.nodeDuration.addAndGet(nodeDuration);
-                    metricItem.wholeDuration.addAndGet(wholeDuration);
+                    metricItem.sinkDuration.add(sinkDuration);
+                    metricItem.nodeDuration.add(nodeDuration);
+                    metricItem.wholeDuration.add(wholeDuration);
                 }
                 AuditUtils.add(AuditUtils.AUDIT_ID_DATAPROXY_SEND_SUCCESS, event);
             } else {
-                metricItem.sendFailCount.addAndGet(1);
-                metricItem.sendFailSize.addAndGet(event.getBody().length);
+                metricItem.sendFailCount.add(1);
+                metricItem.sendFailSize.add(event.getBody().length);
             }
         });
     }
@@ -179,58 +173,50 @@ public class MessageQueueZoneSinkContext extends SinkContext {
      * addSendMetric
      */
     public void addSendMetric(PackProfile currentRecord, String mqName, String topic, int sendPackSize) {
-        Map<String, String> dimensions = new HashMap<>();
-        dimensions.put(DataProxyMetricItem.KEY_CLUSTER_ID, this.getProxyClusterId());
-        dimensions.put(DataProxyMetricItem.KEY_SOURCE_ID, "-");
-        dimensions.put(DataProxyMetricItem.KEY_SOURCE_DATA_ID, "-");
         // metric
-        fillInlongId(currentRecord, dimensions);
-        dimensions.put(DataProxyMetricItem.KEY_SINK_ID, mqName);
-        dimensions.put(DataProxyMetricItem.KEY_SINK_DATA_ID, topic);
         long msgTime = currentRecord.getDispatchTime();
         long auditFormatTime =
                 msgTime - msgTime % CommonConfigHolder.getInstance().getAuditFormatInvlMs();
-        dimensions.put(DataProxyMetricItem.KEY_MESSAGE_TIME, String.valueOf(auditFormatTime));
-        DataProxyMetricItem metricItem = this.getMetricItemSet().findMetricItem(dimensions);
+        DataProxyMetricItem metricItem = this.getMetricItemSet().findMetricItem(this.getProxyClusterId(),
+                "-", "-", getInlongGroupId(currentRecord), getInlongStreamId(currentRecord),
+                mqName, topic, auditFormatTime);
         long count = currentRecord.getCount();
         long size = currentRecord.getSize();
-        metricItem.sendCount.addAndGet(count);
-        metricItem.sendSize.addAndGet(size);
-        metricItem.sendPackCount.incrementAndGet();
-        metricItem.sendPackSize.addAndGet(sendPackSize);
+        metricItem.sendCount.add(count);
+        metricItem.sendSize.add(size);
+        metricItem.sendPackCount.increment();
+        metricItem.sendPackSize.add(sendPackSize);
     }
 
     /**
      * addReadFailMetric
      */
     public void addSendFailMetric() {
-        Map<String, String> dimensions = new HashMap<>();
-        dimensions.put(DataProxyMetricItem.KEY_CLUSTER_ID, this.getProxyClusterId());
-        dimensions.put(DataProxyMetricItem.KEY_SOURCE_ID, "-");
-        dimensions.put(DataProxyMetricItem.KEY_SOURCE_DATA_ID, "-");
-        dimensions.put(DataProxyMetricItem.KEY_INLONG_GROUP_ID, "-");
-        dimensions.put(DataProxyMetricItem.KEY_INLONG_STREAM_ID, "-");
-        dimensions.put(DataProxyMetricItem.KEY_SINK_ID, this.getSinkName());
-        dimensions.put(DataProxyMetricItem.KEY_SINK_DATA_ID, "-");
         long msgTime = System.currentTimeMillis();
         long auditFormatTime =
                 msgTime - msgTime % CommonConfigHolder.getInstance().getAuditFormatInvlMs();
-        dimensions.put(DataProxyMetricItem.KEY_MESSAGE_TIME, String.valueOf(auditFormatTime));
-        DataProxyMetricItem metricItem = this.getMetricItemSet().findMetricItem(dimensions);
-        metricItem.sendFailCount.incrementAndGet();
-        metricItem.sendFailSize.incrementAndGet();
+        DataProxyMetricItem metricItem = this.getMetricItemSet().findMetricItem(this.getProxyClusterId(),
+                "-", "-", "-", "-", this.getSinkName(), "-", auditFormatTime);
+        metricItem.sendFailCount.increment();
+        metricItem.sendFailSize.increment();
     }
 
     /**
      * fillInlongId
      */
     public static void fillInlongId(PackProfile currentRecord, Map<String, String> dimensions) {
+        dimensions.put(DataProxyMetricItem.KEY_INLONG_GROUP_ID, getInlongGroupId(currentRecord));
+        dimensions.put(DataProxyMetricItem.KEY_INLONG_STREAM_ID, getInlongStreamId(currentRecord));
+    }
+
+    private static String getInlongGroupId(PackProfile currentRecord) {
         String inlongGroupId = currentRecord.getInlongGroupId();
-        inlongGroupId = (StringUtils.isBlank(inlongGroupId)) ? "-" : inlongGroupId;
+        return (StringUtils.isBlank(inlongGroupId)) ? "-" : inlongGroupId;
+    }
+
+    private static String getInlongStreamId(PackProfile currentRecord) {
         String inlongStreamId = currentRecord.getInlongStreamId();
-        inlongStreamId = (StringUtils.isBlank(inlongStreamId)) ? "-" : inlongStreamId;
-        dimensions.put(DataProxyMetricItem.KEY_INLONG_GROUP_ID, inlongGroupId);
-        dimensions.put(DataProxyMetricItem.KEY_INLONG_STREAM_ID, inlongStreamId);
+        return (StringUtils.isBlank(inlongStreamId)) ? "-" : inlongStreamId;
     }
 
     /**
@@ -58,7 +58,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.Constructor;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 
@@ -460,20 +459,19 @@ public abstract class BaseSource
      * @param event
      */
     public void addMetric(boolean result, long size, Event event) {
-        Map<String, String> dimensions = new HashMap<>();
-        dimensions.put(DataProxyMetricItem.KEY_CLUSTER_ID, CommonConfigHolder.getInstance().getClusterName());
-        dimensions.put(DataProxyMetricItem.KEY_SOURCE_ID, this.cachedSrcName);
-        dimensions.put(DataProxyMetricItem.KEY_SOURCE_DATA_ID, getStrPort());
-        DataProxyMetricItem.fillInlongId(event, dimensions);
-        DataProxyMetricItem.fillAuditFormatTime(event, dimensions);
-        DataProxyMetricItem metricItem = metricItemSet.findMetricItem(dimensions);
+        long msgTime = AuditUtils.getLogTime(event);
+        DataProxyMetricItem metricItem = metricItemSet.findMetricItem(
+                CommonConfigHolder.getInstance().getClusterName(), this.cachedSrcName, getStrPort(),
+                (event == null) ? null : DataProxyMetricItem.getInlongGroupId(event.getHeaders()),
+                (event == null) ? null : DataProxyMetricItem.getInlongStreamId(event.getHeaders()), null, null,
+                msgTime - msgTime % CommonConfigHolder.getInstance().getAuditFormatInvlMs());
         if (result) {
-            metricItem.readSuccessCount.incrementAndGet();
-            metricItem.readSuccessSize.addAndGet(size);
+            metricItem.readSuccessCount.increment();
+            metricItem.readSuccessSize.add(size);
             AuditUtils.add(AuditUtils.AUDIT_ID_DATAPROXY_READ_SUCCESS, event);
         } else {
-            metricItem.readFailCount.incrementAndGet();
-            metricItem.readFailSize.addAndGet(size);
+            metricItem.readFailCount.increment();
+            metricItem.readFailSize.add(size);
         }
     }
 
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.dataproxy.channel;
+
+import org.apache.inlong.sdk.commons.protocol.ProxyEvent;
+
+import org.apache.flume.Context;
+import org.apache.flume.Event;
+import org.apache.flume.Transaction;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * TestMappedSpillChannel
+ */
+public class TestMappedSpillChannel {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSpillAndAck() throws Exception {
+        File spillDir = folder.newFolder("spill");
+        MappedSpillChannel channel = this.createChannel(spillDir);
+        this.put(channel, 0, 10);
+        // the events after the threshold are spilled
+        Assert.assertEquals(10, channel.bufferQueue.size());
+        Assert.assertEquals(1, this.segmentCount(spillDir));
+        Assert.assertEquals(10, channel.countSemaphore.availablePermits() + 4);
+        // the events are taken in the put order
+        this.take(channel, 0, 10, true);
+        Assert.assertEquals(0, channel.bufferQueue.size());
+        Assert.assertEquals(0, this.segmentCount(spillDir));
+        Assert.assertEquals(10, channel.countSemaphore.availablePermits());
+        channel.stop();
+    }
+
+    @Test
+    public void testReplayAfterRestart() throws Exception {
+        File spillDir = folder.newFolder("spill");
+        MappedSpillChannel channel = this.createChannel(spillDir);
+        this.put(channel, 0, 10);
+        // the rolled back spilled events are taken again
+        this.take(channel, 0, 6, false);
+        channel.stop();
+        // the memory events are flushed before the spilled events
+        channel = this.createChannel(spillDir);
+        Assert.assertEquals(10, channel.bufferQueue.size());
+        this.take(channel, 0, 10, true);
+        Assert.assertEquals(0, this.segmentCount(spillDir));
+        channel.stop();
+    }
+
+    private MappedSpillChannel createChannel(File spillDir) {
+        MappedSpillChannel channel = new MappedSpillChannel();
+        channel.setName("spill-channel");
+        Map<String, String> params = new HashMap<>();
+        params.put(BufferQueueChannel.KEY_MAX_BUFFERQUEUE_COUNT, "10");
+        params.put(MappedSpillChannel.KEY_SPILL_DIR, spillDir.getAbsolutePath());
+        params.put(MappedSpillChannel.KEY_SPILL_SEGMENT_SIZE_MB, "1");
+        params.put(MappedSpillChannel.KEY_SPILL_THRESHOLD_COUNT, "4");
+        channel.configure(new Context(params));
+        channel.start();
+        return channel;
+    }
+
+    private void put(MappedSpillChannel channel, int start, int end) {
+        for (int i = start; i < end; i++) {
+            Transaction transaction = channel.getTransaction();
+            transaction.begin();
+            Map<String, String> headers = new HashMap<>();
+            headers.put("index", String.valueOf(i));
+            ProxyEvent event = new ProxyEvent("group", "stream", String.valueOf(i), "127.0.0.1",
+                    String.valueOf(i), headers, ("body" + i).getBytes(StandardCharsets.UTF_8));
+            event.setTopic("topic");
+            channel.put(event);
+            transaction.commit();
+            transaction.close();
+        }
+    }
+
+    private void take(MappedSpillChannel channel, int start, int end, boolean commit) {
+        Transaction transaction = channel.getTransaction();
+        transaction.begin();
+        for (int i = start; i < end; i++) {
+            Event event = channel.take();
+            Assert.assertNotNull(event);
+            Assert.assertEquals(String.valueOf(i), event.getHeaders().get("index"));
+            Assert.assertEquals("body" + i, new String(event.getBody(), StandardCharsets.UTF_8));
+            Assert.assertEquals("topic", ((ProxyEvent) event).getTopic());
+            Assert.assertEquals(i, ((ProxyEvent) event).getMsgTime());
+        }
+        if (commit) {
+            transaction.commit();
+        } else {
+            transaction.rollback();
+        }
+        transaction.close();
+    }
+
+    private int segmentCount(File spillDir) {
+        File[] files = spillDir.listFiles((dir, name) -> name.endsWith(SpillSegmentStore.SEGMENT_SUFFIX));
+        return files == null ? 0 : files.length;
+    }
+}
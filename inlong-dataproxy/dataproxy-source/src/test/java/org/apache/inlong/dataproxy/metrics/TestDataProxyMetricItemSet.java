@@ -94,29 +94,29 @@ public class TestDataProxyMetricItemSet {
         // increase source
         DataProxyMetricItem item = null;
         item = itemSet.findMetricItem(dimSource);
-        item.readSuccessCount.incrementAndGet();
-        item.readSuccessSize.addAndGet(100);
+        item.readSuccessCount.increment();
+        item.readSuccessSize.add(100);
         String keySource1 = MetricUtils.getDimensionsKey(dimSource);
         //
         dimSource.put("inlongGroupId", INLONG_GROUP_ID2);
         item = itemSet.findMetricItem(dimSource);
-        item.readFailCount.addAndGet(20);
-        item.readFailSize.addAndGet(2000);
+        item.readFailCount.add(20);
+        item.readFailSize.add(2000);
         String keySource2 = MetricUtils.getDimensionsKey(dimSource);
         // increase sink
         item = itemSet.findMetricItem(dimSink);
-        item.sendCount.incrementAndGet();
-        item.sendSize.addAndGet(100);
-        item.sendSuccessCount.incrementAndGet();
-        item.sendSuccessSize.addAndGet(100);
+        item.sendCount.increment();
+        item.sendSize.add(100);
+        item.sendSuccessCount.increment();
+        item.sendSuccessSize.add(100);
         String keySink1 = MetricUtils.getDimensionsKey(dimSink);
         //
         dimSink.put("inlongGroupId", INLONG_GROUP_ID2);
         item = itemSet.findMetricItem(dimSink);
-        item.sendCount.addAndGet(20);
-        item.sendSize.addAndGet(2000);
-        item.sendFailCount.addAndGet(20);
-        item.sendFailSize.addAndGet(2000);
+        item.sendCount.add(20);
+        item.sendSize.add(2000);
+        item.sendFailCount.add(20);
+        item.sendFailSize.add(2000);
         String keySink2 = MetricUtils.getDimensionsKey(dimSink);
         // report
         final MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
@@ -19,7 +19,7 @@ package org.apache.inlong.manager.service.message;
 
 import org.apache.inlong.common.enums.MessageWrapType;
 import org.apache.inlong.common.msg.AttributeConstants;
-import org.apache.inlong.common.msg.InLongMsg;
+import org.apache.inlong.common.msg.InLongMsgView;
 import org.apache.inlong.common.util.StringUtil;
 import org.apache.inlong.manager.pojo.consume.BriefMQMessage;
 import org.apache.inlong.manager.pojo.stream.InlongStreamInfo;
@@ -29,10 +29,8 @@ import org.springframework.stereotype.Service;
 
 import java.nio.charset.Charset;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 
 @Slf4j
 @Service
@@ -45,36 +43,37 @@ public class InlongMsgDeserializeOperator implements DeserializeOperator {
 
     @Override
     public List<BriefMQMessage> decodeMsg(InlongStreamInfo streamInfo, byte[] msgBytes, Map<String, String> headers,
-            int index) {
+            int index) throws Exception {
         String groupId = headers.get(AttributeConstants.GROUP_ID);
         String streamId = headers.get(AttributeConstants.STREAM_ID);
         List<BriefMQMessage> messageList = new ArrayList<>();
-        InLongMsg inLongMsg = InLongMsg.parseFrom(msgBytes);
-        for (String attr : inLongMsg.getAttrs()) {
-            Map<String, String> attrMap = StringUtil.splitKv(attr, INLONGMSG_ATTR_ENTRY_DELIMITER,
-                    INLONGMSG_ATTR_KV_DELIMITER, null, null);
-            // Extracts time from the attributes
-            long msgTime;
-            if (attrMap.containsKey(INLONGMSG_ATTR_TIME_T)) {
-                String date = attrMap.get(INLONGMSG_ATTR_TIME_T).trim();
-                msgTime = StringUtil.parseDateTime(date);
-            } else if (attrMap.containsKey(INLONGMSG_ATTR_TIME_DT)) {
-                String epoch = attrMap.get(INLONGMSG_ATTR_TIME_DT).trim();
-                msgTime = Long.parseLong(epoch);
-            } else {
-                throw new IllegalArgumentException(String.format("PARSE_ATTR_ERROR_STRING%s",
-                        INLONGMSG_ATTR_TIME_T + " or " + INLONGMSG_ATTR_TIME_DT));
-            }
-            Iterator<byte[]> iterator = inLongMsg.getIterator(attr);
-            while (iterator.hasNext()) {
-                byte[] bodyBytes = iterator.next();
-                if (Objects.isNull(bodyBytes)) {
-                    continue;
+        InLongMsgView msgView = InLongMsgView.parseFrom(msgBytes);
+        if (msgView == null) {
+            return messageList;
+        }
+        Charset charset = Charset.forName(streamInfo.getDataEncoding());
+        Map<String, String> attrMap = null;
+        long msgTime = 0L;
+        while (msgView.next()) {
+            if (msgView.isAttrChanged()) {
+                attrMap = StringUtil.splitKv(msgView.getAttr(), INLONGMSG_ATTR_ENTRY_DELIMITER,
+                        INLONGMSG_ATTR_KV_DELIMITER, null, null);
+                // Extracts time from the attributes
+                if (attrMap.containsKey(INLONGMSG_ATTR_TIME_T)) {
+                    String date = attrMap.get(INLONGMSG_ATTR_TIME_T).trim();
+                    msgTime = StringUtil.parseDateTime(date);
+                } else if (attrMap.containsKey(INLONGMSG_ATTR_TIME_DT)) {
+                    String epoch = attrMap.get(INLONGMSG_ATTR_TIME_DT).trim();
+                    msgTime = Long.parseLong(epoch);
+                } else {
+                    throw new IllegalArgumentException(String.format("PARSE_ATTR_ERROR_STRING%s",
+                            INLONGMSG_ATTR_TIME_T + " or " + INLONGMSG_ATTR_TIME_DT));
                 }
-                BriefMQMessage message = new BriefMQMessage(index, groupId, streamId, msgTime, attrMap.get(CLIENT_IP),
-                        new String(bodyBytes, Charset.forName(streamInfo.getDataEncoding())));
-                messageList.add(message);
             }
+            // the body is decoded from the view without a copy
+            BriefMQMessage message = new BriefMQMessage(index, groupId, streamId, msgTime, attrMap.get(CLIENT_IP),
+                    new String(msgView.getDataArray(), msgView.getDataOffset(), msgView.getDataLength(), charset));
+            messageList.add(message);
         }
         return messageList;
     }
@@ -39,6 +39,11 @@ public class ConfigConstants {
     public static final int ASYNC_CALLBACK_SIZE = 50000;
     public static final int MAX_ASYNC_CALLBACK_SIZE = 2000000;
 
+    /* Configure the accumulation of the single messages sent asynchronously. */
+    public static final int DEFAULT_ACCUMULATE_LINGER_MS = 5;
+    public static final int DEFAULT_ACCUMULATE_MAX_MSG_CNT = 500;
+    public static final int DEFAULT_ACCUMULATE_MAX_PACK_SIZE = 512 * 1024;
+
     /* Configure the proxy IP list refresh parameters. */
     public static final int PROXY_UPDATE_INTERVAL_MINUTES = 5;
 
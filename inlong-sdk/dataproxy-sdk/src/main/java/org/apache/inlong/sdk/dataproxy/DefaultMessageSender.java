@@ -26,12 +26,14 @@ import org.apache.inlong.sdk.dataproxy.common.SendMessageCallback;
 import org.apache.inlong.sdk.dataproxy.common.SendResult;
 import org.apache.inlong.sdk.dataproxy.config.ProxyConfigEntry;
 import org.apache.inlong.sdk.dataproxy.config.ProxyConfigManager;
+import org.apache.inlong.sdk.dataproxy.network.PackAccumulator;
 import org.apache.inlong.sdk.dataproxy.network.ProxysdkException;
 import org.apache.inlong.sdk.dataproxy.network.Sender;
 import org.apache.inlong.sdk.dataproxy.network.SequentialID;
 import org.apache.inlong.sdk.dataproxy.network.Utils;
 import org.apache.inlong.sdk.dataproxy.threads.IndexCollectThread;
 import org.apache.inlong.sdk.dataproxy.threads.ManagerFetcherThread;
+import org.apache.inlong.sdk.dataproxy.threads.PackFlushThread;
 import org.apache.inlong.sdk.dataproxy.utils.ProxyUtils;
 
 import org.slf4j.Logger;
@@ -56,6 +58,9 @@ public class DefaultMessageSender implements MessageSender {
     private static final SequentialID idGenerator = new SequentialID(Utils.getLocalIp());
     private final Sender sender;
     private final IndexCollectThread indexCol;
+    /* Accumulate the single messages sent asynchronously, null if disabled */
+    private final PackAccumulator accumulator;
+    private final PackFlushThread packFlushThread;
     /* Store index <groupId_streamId,cnt> */
     private final Map<String, Long> storeIndex = new ConcurrentHashMap<String, Long>();
     private String groupId;
@@ -76,6 +81,16 @@ public class DefaultMessageSender implements MessageSender {
         groupId = configure.getInlongGroupId();
         indexCol = new IndexCollectThread(storeIndex);
         indexCol.start();
+        if (configure.isEnableAccumulate()) {
+            accumulator = new PackAccumulator(configure.getAccumulateLingerMs(),
+                    configure.getAccumulateMaxMsgCnt(), configure.getAccumulateMaxPackSize(),
+                    configure.getAsyncCallbackSize());
+            packFlushThread = new PackFlushThread(accumulator, this);
+            packFlushThread.start();
+        } else {
+            accumulator = null;
+            packFlushThread = null;
+        }
 
         if (configure.isEnableSaveManagerVIps()
                 && configure.isLocalVisit()
@@ -441,7 +456,8 @@ public class DefaultMessageSender implements MessageSender {
     }
 
     /**
-     * async send single message
+     * async send single message, if accumulation is enabled, the message is sent
+     * in a pack with the other messages of the same groupId and streamId
      *
      * @param callback callback can be null
      * @param body message data
@@ -467,7 +483,14 @@ public class DefaultMessageSender implements MessageSender {
             proxySend = AttributeConstants.MESSAGE_PROXY_SEND + "=true";
         }
         boolean isCompressEnd = (isCompress && (body.length > cpsSize));
-        if (msgtype == 7 || msgtype == 8) {
+        if ((msgtype == 7 || msgtype == 8) && accumulator != null) {
+            List<PackAccumulator.MessagePack> readyPacks = accumulator.append(groupId, streamId,
+                    isProxySend, body, dt, callback, msgUUID, TimeUnit.MILLISECONDS.convert(timeout, timeUnit),
+                    System.currentTimeMillis());
+            for (PackAccumulator.MessagePack pack : readyPacks) {
+                sendPack(pack);
+            }
+        } else if (msgtype == 7 || msgtype == 8) {
             EncodeObject encodeObject = new EncodeObject(body, this.getMsgtype(), isCompressEnd, isReport,
                     isGroupIdTransfer, dt / 1000, idGenerator.getNextInt(),
                     groupId, streamId, proxySend);
@@ -845,6 +868,30 @@ public class DefaultMessageSender implements MessageSender {
         return sendMetric(body, groupId, streamId, dt, sid, "", msgUUID, timeout, timeUnit, "file");
     }
 
+    /**
+     * send an accumulated pack, the failure is notified to the callbacks of the pack messages
+     *
+     * @param pack the accumulated pack
+     */
+    public void sendPack(PackAccumulator.MessagePack pack) {
+        String proxySend = "";
+        if (pack.isProxySend()) {
+            proxySend = AttributeConstants.MESSAGE_PROXY_SEND + "=true";
+        }
+        EncodeObject encodeObject = new EncodeObject(pack.getBodyList(), this.getMsgtype(), isCompress,
+                isReport, isGroupIdTransfer, pack.getDtSeconds(), idGenerator.getNextInt(),
+                pack.getGroupId(), pack.getStreamId(), proxySend);
+        encodeObject.setSupportLF(isSupportLF);
+        try {
+            sender.asyncSendMessage(encodeObject, pack, pack.getMsgUUID(),
+                    pack.getTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (Throwable e) {
+            LOGGER.warn("send pack of {}#{} with {} messages failure: {}", pack.getGroupId(),
+                    pack.getStreamId(), pack.getMsgCnt(), e.getMessage());
+            pack.onException(e);
+        }
+    }
+
     private void shutdownInternalThreads() {
         indexCol.shutDown();
         managerFetcherThread.shutdown();
@@ -856,6 +903,12 @@ public class DefaultMessageSender implements MessageSender {
         if (sender.getClusterId() != -1) {
             CACHE_SENDER.remove(sender.getClusterId());
         }
+        if (packFlushThread != null) {
+            packFlushThread.shutDown();
+            for (PackAccumulator.MessagePack pack : accumulator.drainAll()) {
+                sendPack(pack);
+            }
+        }
         sender.close();
         shutdownInternalThreads();
     }
@@ -101,6 +101,17 @@ public class ProxyClientConfig {
 
     private int maxRetry;
 
+    // whether accumulate the single messages sent asynchronously into packs
+    private boolean enableAccumulate = false;
+    // max time in milliseconds an accumulated pack waits before sending
+    private int accumulateLingerMs = ConfigConstants.DEFAULT_ACCUMULATE_LINGER_MS;
+    // max message count of an accumulated pack
+    private int accumulateMaxMsgCnt = ConfigConstants.DEFAULT_ACCUMULATE_MAX_MSG_CNT;
+    // max body size in bytes of an accumulated pack
+    private int accumulateMaxPackSize = ConfigConstants.DEFAULT_ACCUMULATE_MAX_PACK_SIZE;
+    // max asynchronous requests waiting for ack per channel, 0 means unlimited
+    private int maxInFlightPerChannel = 0;
+
     /* pay attention to the last url parameter ip */
     public ProxyClientConfig(String localHost, boolean isLocalVisit, String managerIp,
             int managerPort, String inlongGroupId, String netTag, String authSecretId, String authSecretKey,
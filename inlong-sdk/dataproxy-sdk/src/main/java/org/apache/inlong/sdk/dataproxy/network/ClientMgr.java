@@ -45,7 +45,6 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicLong;
@@ -69,6 +68,8 @@ public class ClientMgr {
     private final ConcurrentHashMap<HostInfo, AtomicLong> lastBadHostMap = new ConcurrentHashMap<>();
     // clientList is the valueSet of clientMapData
     private final ArrayList<NettyClient> clientList = new ArrayList<>();
+    // the published snapshot of clientList, used by the sending threads
+    private final ClientSelector clientSelector = new ClientSelector();
     private final Map<HostInfo, int[]> channelLoadMapData = new ConcurrentHashMap<>();
     private final Map<HostInfo, int[]> channelLoadMapHB = new ConcurrentHashMap<>();
     /**
@@ -77,7 +78,6 @@ public class ClientMgr {
     private final ReentrantReadWriteLock fsLock = new ReentrantReadWriteLock(true);
     private List<HostInfo> proxyInfoList = new ArrayList<>();
     private Bootstrap bootstrap;
-    private int currentIndex = 0;
     private ProxyClientConfig configure;
     private Sender sender;
     private int aliveConnections;
@@ -300,6 +300,7 @@ public class ClientMgr {
             if (bSuccess) {
                 clientMapData.put(host, client);
                 clientList.add(client);
+                clientSelector.update(clientList);
                 clientMap.put(host, client);
                 logger.info("build a connection success! {},channel {}", host.getHostName(), client.getChannel());
             } else {
@@ -374,120 +375,41 @@ public class ClientMgr {
         }
     }
 
-    public synchronized NettyClient getClientByRoundRobin() {
-        NettyClient client = null;
-        if (clientList.isEmpty()) {
-            return null;
-        }
-        int currSize = clientList.size();
-        for (int retryTime = 0; retryTime < currSize; retryTime++) {
-            currentIndex = (++currentIndex) % currSize;
-            client = clientList.get(currentIndex);
-            if (client != null && client.isActive()) {
-                break;
-            }
-        }
-        if (client == null || !client.isActive()) {
-            return null;
-        }
-        // logger.info("get a client {}", client.getChannel());
-        return client;
+    public NettyClient getClientByRoundRobin() {
+        return clientSelector.selectByRoundRobin();
     }
 
-    public synchronized NettyClient getClientByRandom() {
-        NettyClient client;
-        if (clientList.isEmpty()) {
-            return null;
-        }
-        int currSize = clientList.size();
-        int maxRetry = this.configure.getMaxRetry();
-        Random random = new Random(System.currentTimeMillis());
-        do {
-            int randomId = random.nextInt();
-            client = clientList.get(randomId % currSize);
-            if (client != null && client.isActive()) {
-                break;
-            }
-            maxRetry--;
-        } while (maxRetry > 0);
-        if (client == null || !client.isActive()) {
-            return null;
-        }
-        return client;
+    public NettyClient getClientByRandom() {
+        return clientSelector.selectByRandom(this.configure.getMaxRetry());
     }
 
-    // public synchronized NettyClient getClientByLeastConnections() {}
+    // public NettyClient getClientByLeastConnections() {}
 
-    public synchronized NettyClient getClientByConsistencyHash(String messageId) {
-        NettyClient client;
-        if (clientList.isEmpty()) {
+    public NettyClient getClientByConsistencyHash(String messageId) {
+        if (clientSelector.isEmpty()) {
             return null;
         }
         String hash = ConsistencyHashUtil.hashMurMurHash(messageId);
         HashRing cluster = HashRing.getInstance();
         HostInfo info = cluster.getNode(hash);
-        client = this.clientMap.get(info);
-        return client;
+        return this.clientMap.get(info);
     }
 
-    public synchronized NettyClient getClientByWeightRoundRobin() {
-        NettyClient client = null;
-        double maxWeight = Double.MIN_VALUE;
-        int clientId = 0;
-        if (clientList.isEmpty()) {
-            return null;
-        }
-        int currSize = clientList.size();
-        for (int retryTime = 0; retryTime < currSize; retryTime++) {
-            currentIndex = (++currentIndex) % currSize;
-            client = clientList.get(currentIndex);
-            if (client != null && client.isActive() && client.getWeight() > maxWeight) {
-                clientId = currentIndex;
-            }
-        }
-        if (client == null || !client.isActive()) {
-            return null;
-        }
-        return clientList.get(clientId);
+    public NettyClient getClientByWeightRoundRobin() {
+        return clientSelector.selectByWeightRoundRobin();
     }
 
-    // public synchronized NettyClient getClientByWeightLeastConnections(){}
+    // public NettyClient getClientByWeightLeastConnections(){}
 
-    public synchronized NettyClient getClientByWeightRandom() {
-        NettyClient client;
-        double maxWeight = Double.MIN_VALUE;
-        int clientId = 0;
-        if (clientList.isEmpty()) {
-            return null;
-        }
-        int currSize = clientList.size();
-        int maxRetry = this.configure.getMaxRetry();
-        Random random = new Random(System.currentTimeMillis());
-        do {
-            int randomId = random.nextInt();
-            client = clientList.get(randomId % currSize);
-            if (client != null && client.isActive()) {
-                clientId = randomId % currSize;
-                break;
-            }
-            maxRetry--;
-        } while (maxRetry > 0);
-        if (client == null || !client.isActive()) {
-            return null;
-        }
-        return clientList.get(clientId);
+    public NettyClient getClientByWeightRandom() {
+        return clientSelector.selectByWeightRandom();
     }
 
     public NettyClient getContainProxy(String proxyip) {
         if (proxyip == null) {
             return null;
         }
-        for (NettyClient tmpClient : clientList) {
-            if (tmpClient != null && tmpClient.getServerIP() != null && tmpClient.getServerIP().equals(proxyip)) {
-                return tmpClient;
-            }
-        }
-        return null;
+        return clientSelector.selectByServerIp(proxyip);
     }
 
     public void shutDown() {
@@ -522,6 +444,7 @@ public class ClientMgr {
         channelLoadMapData.clear();
         channelLoadMapHB.clear();
         clientList.clear();
+        clientSelector.update(clientList);
         sender.clearCallBack();
     }
 
@@ -681,6 +604,7 @@ public class ClientMgr {
                     clientMapData.put(hbHost, clientMapHB.get(hbHost));
                     // channelLoadMapData.put(hbHost,listHB.get(i).getValue());
                     clientList.add(clientMapHB.get(hbHost));
+                    clientSelector.update(clientList);
                     clientMapHB.remove(hbHost);
                 }
             }
@@ -767,6 +691,7 @@ public class ClientMgr {
             channelLoadMapHB.remove(entry.getKey());
             it.remove();
         }
+        clientSelector.update(clientList);
     }
 
     private void fillUpWorkClientWithLastBadClient() {
@@ -866,6 +791,7 @@ public class ClientMgr {
                 clientMapData.remove(hostInfo);
                 clientMap.remove(hostInfo);
                 clientList.remove(client);
+                clientSelector.update(clientList);
 
                 channelLoadMapData.remove(hostInfo);
                 logger.info("remove this client {}", hostInfo.getHostName());
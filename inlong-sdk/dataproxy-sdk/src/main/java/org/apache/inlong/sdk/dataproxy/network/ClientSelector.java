@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sdk.dataproxy.network;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Select the data client of a send without locking.
+ *
+ * The data clients are kept in an immutable array, which is rebuilt and
+ * published when the data clients change, so the sending threads only
+ * read the current array. Round robin moves an atomic cursor, random
+ * selection uses the random generator of the sending thread.
+ */
+public class ClientSelector {
+
+    private static final NettyClient[] EMPTY_CLIENTS = new NettyClient[0];
+
+    private volatile NettyClient[] clients = EMPTY_CLIENTS;
+    private final AtomicInteger cursor = new AtomicInteger(0);
+
+    /**
+     * Publish the current data clients.
+     *
+     * @param clientList   the data clients
+     */
+    public void update(List<NettyClient> clientList) {
+        this.clients = clientList.isEmpty()
+                ? EMPTY_CLIENTS
+                : clientList.toArray(new NettyClient[0]);
+    }
+
+    public boolean isEmpty() {
+        return clients.length == 0;
+    }
+
+    public int size() {
+        return clients.length;
+    }
+
+    /**
+     * Select the next active client in turn.
+     *
+     * @return   the selected client, null if there is no active client
+     */
+    public NettyClient selectByRoundRobin() {
+        NettyClient[] curClients = clients;
+        int size = curClients.length;
+        if (size == 0) {
+            return null;
+        }
+        int start = (cursor.getAndIncrement() & Integer.MAX_VALUE) % size;
+        for (int i = 0; i < size; i++) {
+            NettyClient client = curClients[(start + i) % size];
+            if (client != null && client.isActive()) {
+                return client;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Select an active client randomly.
+     *
+     * @param maxRetry   the max times to select again if the selected client is inactive
+     * @return           the selected client, null if there is no active client selected
+     */
+    public NettyClient selectByRandom(int maxRetry) {
+        NettyClient[] curClients = clients;
+        int size = curClients.length;
+        if (size == 0) {
+            return null;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int retry = Math.max(maxRetry, 1);
+        do {
+            NettyClient client = curClients[random.nextInt(size)];
+            if (client != null && client.isActive()) {
+                return client;
+            }
+        } while (--retry > 0);
+        return null;
+    }
+
+    /**
+     * Select the active client with the highest weight, the clients
+     * of the same weight are selected in turn.
+     *
+     * @return   the selected client, null if there is no active client
+     */
+    public NettyClient selectByWeightRoundRobin() {
+        NettyClient[] curClients = clients;
+        int size = curClients.length;
+        if (size == 0) {
+            return null;
+        }
+        int start = (cursor.getAndIncrement() & Integer.MAX_VALUE) % size;
+        return selectMaxWeight(curClients, start);
+    }
+
+    /**
+     * Select the active client with the highest weight, the clients
+     * of the same weight are selected randomly.
+     *
+     * @return   the selected client, null if there is no active client
+     */
+    public NettyClient selectByWeightRandom() {
+        NettyClient[] curClients = clients;
+        int size = curClients.length;
+        if (size == 0) {
+            return null;
+        }
+        return selectMaxWeight(curClients, ThreadLocalRandom.current().nextInt(size));
+    }
+
+    /**
+     * Find the client connected to the proxy ip.
+     *
+     * @param proxyIp   the proxy ip
+     * @return          the client, null if not found
+     */
+    public NettyClient selectByServerIp(String proxyIp) {
+        for (NettyClient client : clients) {
+            if (client != null && proxyIp.equals(client.getServerIP())) {
+                return client;
+            }
+        }
+        return null;
+    }
+
+    private NettyClient selectMaxWeight(NettyClient[] curClients, int start) {
+        NettyClient selected = null;
+        double maxWeight = 0;
+        int size = curClients.length;
+        for (int i = 0; i < size; i++) {
+            NettyClient client = curClients[(start + i) % size];
+            if (client == null || !client.isActive()) {
+                continue;
+            }
+            double weight = client.getWeight();
+            if (selected == null || weight > maxWeight) {
+                selected = client;
+                maxWeight = weight;
+            }
+        }
+        return selected;
+    }
+}
@@ -0,0 +1,324 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sdk.dataproxy.network;
+
+import org.apache.inlong.sdk.dataproxy.common.SendResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The in-flight requests of one channel waiting for ack.
+ *
+ * The numeric message ids used by msgtype 7/8 are kept in an open addressing
+ * long-keyed table, the other message ids are kept in a string-keyed map.
+ * If the max in-flight count is set, the sending thread waits for the
+ * window to have room until its send timeout.
+ */
+public class InFlightWindow {
+
+    private static final long EMPTY_KEY = -1L;
+    private static final int MAX_NUMERIC_ID_LENGTH = 18;
+    private static final int INIT_CAPACITY = 64;
+
+    // max in-flight requests, 0 means unlimited
+    private final int maxInFlight;
+    private long[] keys;
+    private QueueObject[] values;
+    private int numericSize = 0;
+    // the requests with non-numeric message id
+    private Map<String, QueueObject> namedObjects = null;
+    private boolean closed = false;
+
+    public InFlightWindow(int maxInFlight) {
+        this.maxInFlight = Math.max(maxInFlight, 0);
+        allocate(INIT_CAPACITY);
+    }
+
+    /**
+     * Add a request to the window if its message id is absent.
+     *
+     * @param messageId     the message id
+     * @param queueObject   the request
+     * @param waitMs        the max time to wait for the window to have room
+     * @return              the existing request of the message id, null if added
+     * @throws ProxysdkException if the window is still full after waiting, or closed
+     */
+    public synchronized QueueObject putIfAbsent(String messageId,
+            QueueObject queueObject, long waitMs) throws ProxysdkException {
+        return put(messageId, queueObject, waitMs, false);
+    }
+
+    /**
+     * Add a request to the window, replacing the request of the same message id.
+     *
+     * @param messageId     the message id
+     * @param queueObject   the request
+     * @param waitMs        the max time to wait for the window to have room
+     * @return              the replaced request of the message id, null if none
+     * @throws ProxysdkException if the window is still full after waiting, or closed
+     */
+    public synchronized QueueObject replace(String messageId,
+            QueueObject queueObject, long waitMs) throws ProxysdkException {
+        return put(messageId, queueObject, waitMs, true);
+    }
+
+    /**
+     * Remove the request of the acked message id.
+     *
+     * @param messageId   the message id
+     * @return            the removed request, null if absent
+     */
+    public synchronized QueueObject remove(String messageId) {
+        QueueObject queueObject;
+        long key = toNumericKey(messageId);
+        if (key == EMPTY_KEY) {
+            queueObject = (namedObjects == null) ? null : namedObjects.remove(messageId);
+        } else {
+            queueObject = removeNumeric(key);
+        }
+        if (queueObject != null && maxInFlight > 0) {
+            notifyAll();
+        }
+        return queueObject;
+    }
+
+    /**
+     * Remove the timeout requests.
+     *
+     * @param curTime   the current time in milliseconds
+     * @return          the removed requests
+     */
+    public synchronized List<QueueObject> removeTimeout(long curTime) {
+        List<QueueObject> timeoutObjects = null;
+        List<Long> timeoutKeys = null;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY_KEY && isTimeout(values[i], curTime)) {
+                if (timeoutKeys == null) {
+                    timeoutKeys = new ArrayList<>();
+                    timeoutObjects = new ArrayList<>();
+                }
+                timeoutKeys.add(keys[i]);
+                timeoutObjects.add(values[i]);
+            }
+        }
+        if (timeoutKeys != null) {
+            for (Long key : timeoutKeys) {
+                removeNumeric(key);
+            }
+        }
+        if (namedObjects != null) {
+            Iterator<QueueObject> iterator = namedObjects.values().iterator();
+            while (iterator.hasNext()) {
+                QueueObject queueObject = iterator.next();
+                if (isTimeout(queueObject, curTime)) {
+                    iterator.remove();
+                    if (timeoutObjects == null) {
+                        timeoutObjects = new ArrayList<>();
+                    }
+                    timeoutObjects.add(queueObject);
+                }
+            }
+        }
+        if (timeoutObjects == null) {
+            return Collections.emptyList();
+        }
+        if (maxInFlight > 0) {
+            notifyAll();
+        }
+        return timeoutObjects;
+    }
+
+    /**
+     * Close the window and remove all the requests,
+     * the threads waiting for room are woken up and fail.
+     *
+     * @return   the removed requests
+     */
+    public synchronized List<QueueObject> close() {
+        closed = true;
+        List<QueueObject> allObjects = new ArrayList<>(size());
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY_KEY) {
+                allObjects.add(values[i]);
+            }
+        }
+        if (namedObjects != null) {
+            allObjects.addAll(namedObjects.values());
+            namedObjects = null;
+        }
+        allocate(INIT_CAPACITY);
+        notifyAll();
+        return allObjects;
+    }
+
+    public synchronized int size() {
+        return numericSize + (namedObjects == null ? 0 : namedObjects.size());
+    }
+
+    public synchronized boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    private QueueObject put(String messageId, QueueObject queueObject,
+            long waitMs, boolean replace) throws ProxysdkException {
+        if (maxInFlight > 0 && !closed && size() >= maxInFlight) {
+            long remainMs = waitMs;
+            long deadline = System.currentTimeMillis() + waitMs;
+            try {
+                while (!closed && size() >= maxInFlight && remainMs > 0) {
+                    wait(remainMs);
+                    remainMs = deadline - System.currentTimeMillis();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ProxysdkException(SendResult.THREAD_INTERRUPT.toString());
+            }
+            if (!closed && size() >= maxInFlight) {
+                throw new ProxysdkException("CHANNEL_INFLIGHT_WINDOW_FULL");
+            }
+        }
+        if (closed) {
+            throw new ProxysdkException(SendResult.CONNECTION_BREAK.toString());
+        }
+        long key = toNumericKey(messageId);
+        if (key == EMPTY_KEY) {
+            if (namedObjects == null) {
+                namedObjects = new HashMap<>();
+            }
+            return replace ? namedObjects.put(messageId, queueObject)
+                    : namedObjects.putIfAbsent(messageId, queueObject);
+        }
+        int index = indexOf(key);
+        if (keys[index] == key) {
+            QueueObject existObject = values[index];
+            if (replace) {
+                values[index] = queueObject;
+            }
+            return existObject;
+        }
+        keys[index] = key;
+        values[index] = queueObject;
+        if (++numericSize * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+        return null;
+    }
+
+    private boolean isTimeout(QueueObject queueObject, long curTime) {
+        return curTime - queueObject.getSendTimeInMillis() >= queueObject.getTimeoutInMillis();
+    }
+
+    private QueueObject removeNumeric(long key) {
+        int index = indexOf(key);
+        if (keys[index] != key) {
+            return null;
+        }
+        QueueObject queueObject = values[index];
+        numericSize--;
+        // shift back the following entries of the probe sequence
+        int mask = keys.length - 1;
+        int hole = index;
+        int next = (hole + 1) & mask;
+        while (keys[next] != EMPTY_KEY) {
+            int home = hash(keys[next], mask);
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = EMPTY_KEY;
+        values[hole] = null;
+        return queueObject;
+    }
+
+    private int indexOf(long key) {
+        int mask = keys.length - 1;
+        int index = hash(key, mask);
+        while (keys[index] != EMPTY_KEY && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        QueueObject[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY_KEY) {
+                int index = indexOf(oldKeys[i]);
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+                numericSize++;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new QueueObject[capacity];
+        Arrays.fill(keys, EMPTY_KEY);
+        numericSize = 0;
+    }
+
+    private static int hash(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    /**
+     * Get the numeric key of the message id.
+     *
+     * @param messageId   the message id
+     * @return            the numeric key, or -1 if the message id is not a canonical decimal number
+     */
+    static long toNumericKey(String messageId) {
+        if (messageId == null) {
+            return EMPTY_KEY;
+        }
+        int length = messageId.length();
+        if (length == 0 || length > MAX_NUMERIC_ID_LENGTH) {
+            return EMPTY_KEY;
+        }
+        // ids with leading zeros, such as "07" and "7", must not share one numeric key
+        if (length > 1 && messageId.charAt(0) == '0') {
+            return EMPTY_KEY;
+        }
+        long key = 0;
+        for (int i = 0; i < length; i++) {
+            char ch = messageId.charAt(i);
+            if (ch < '0' || ch > '9') {
+                return EMPTY_KEY;
+            }
+            key = key * 10 + (ch - '0');
+        }
+        return key;
+    }
+}
@@ -38,10 +38,10 @@ public class NettyClient {
 
     private static final Logger logger = LoggerFactory.getLogger(NettyClient.class);
 
-    private Channel channel = null;
+    private volatile Channel channel = null;
     private final ReentrantLock stateLock = new ReentrantLock();
 
-    private ConnState connState;
+    private volatile ConnState connState;
     private ProxyClientConfig configure;
     private Bootstrap bootstrap;
     private String serverIP;
@@ -147,16 +147,10 @@ public class NettyClient {
     }
 
     public boolean isActive() {
-        stateLock.lock();
-        try {
-            return (connState == ConnState.READY && channel != null && channel.isOpen() && channel.isActive());
-        } catch (Exception e) {
-            logger.error("channel maybe null!{}", e.getMessage());
-            return false;
-        } finally {
-            stateLock.unlock();
-        }
-        // channel.isOpen();
+        // read the volatile state without locking, it is called by every send
+        Channel curChannel = channel;
+        return (connState == ConnState.READY && curChannel != null
+                && curChannel.isOpen() && curChannel.isActive());
     }
 
     private void setState(ConnState newState) {
@@ -0,0 +1,253 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sdk.dataproxy.network;
+
+import org.apache.inlong.sdk.dataproxy.common.SendMessageCallback;
+import org.apache.inlong.sdk.dataproxy.common.SendResult;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Accumulate the single messages sent asynchronously into per groupId and streamId packs.
+ * A pack is ready when it reaches the max message count or pack size, when the data time
+ * of the next message falls into another second, or when it has waited for the linger time.
+ */
+public class PackAccumulator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PackAccumulator.class);
+
+    private final long lingerMs;
+    private final int maxMsgCnt;
+    private final int maxPackSize;
+    // max messages waiting in the open packs
+    private final int maxPendingMsgCnt;
+    // the open packs, keyed by groupId#streamId#isProxySend
+    private final Map<String, MessagePack> openPacks = new HashMap<>();
+    private int pendingMsgCnt = 0;
+
+    public PackAccumulator(long lingerMs, int maxMsgCnt, int maxPackSize, int maxPendingMsgCnt) {
+        this.lingerMs = lingerMs;
+        this.maxMsgCnt = maxMsgCnt;
+        this.maxPackSize = maxPackSize;
+        this.maxPendingMsgCnt = maxPendingMsgCnt;
+    }
+
+    /**
+     * Append a message to the open pack of its groupId and streamId.
+     *
+     * @param groupId       the groupId
+     * @param streamId      the streamId
+     * @param isProxySend   whether the dataproxy responds after the data is sent to MQ
+     * @param body          the message body
+     * @param dt            the data time in milliseconds
+     * @param callback      the callback of the message, can be null
+     * @param msgUUID       the msg uuid
+     * @param timeoutMs     the send timeout in milliseconds
+     * @param curTime       the current time
+     * @return              the packs ready to send, empty if none
+     * @throws ProxysdkException if too many messages are waiting in the open packs
+     */
+    public synchronized List<MessagePack> append(String groupId, String streamId,
+            boolean isProxySend, byte[] body, long dt, SendMessageCallback callback,
+            String msgUUID, long timeoutMs, long curTime) throws ProxysdkException {
+        if (pendingMsgCnt >= maxPendingMsgCnt) {
+            throw new ProxysdkException("ASYNC_CALLBACK_BUFFER_FULL");
+        }
+        List<MessagePack> readyPacks = Collections.emptyList();
+        String packKey = groupId + "#" + streamId + "#" + isProxySend;
+        long dtSeconds = dt / 1000;
+        MessagePack pack = openPacks.get(packKey);
+        if (pack != null && (pack.getDtSeconds() != dtSeconds
+                || pack.getPackSize() + body.length > maxPackSize)) {
+            openPacks.remove(packKey);
+            pendingMsgCnt -= pack.getMsgCnt();
+            readyPacks = new ArrayList<>(2);
+            readyPacks.add(pack);
+            pack = null;
+        }
+        if (pack == null) {
+            pack = new MessagePack(groupId, streamId, isProxySend, dtSeconds, msgUUID, curTime);
+            openPacks.put(packKey, pack);
+        }
+        pack.add(body, callback, timeoutMs);
+        pendingMsgCnt++;
+        if (pack.getMsgCnt() >= maxMsgCnt || pack.getPackSize() >= maxPackSize) {
+            openPacks.remove(packKey);
+            pendingMsgCnt -= pack.getMsgCnt();
+            if (readyPacks.isEmpty()) {
+                readyPacks = new ArrayList<>(1);
+            }
+            readyPacks.add(pack);
+        }
+        return readyPacks;
+    }
+
+    /**
+     * Remove and return the packs which have waited for the linger time.
+     *
+     * @param curTime   the current time
+     * @return          the expired packs
+     */
+    public synchronized List<MessagePack> drainExpired(long curTime) {
+        if (openPacks.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<MessagePack> expiredPacks = new ArrayList<>();
+        Iterator<MessagePack> iterator = openPacks.values().iterator();
+        while (iterator.hasNext()) {
+            MessagePack pack = iterator.next();
+            if (curTime - pack.getCreateTime() >= lingerMs) {
+                iterator.remove();
+                pendingMsgCnt -= pack.getMsgCnt();
+                expiredPacks.add(pack);
+            }
+        }
+        return expiredPacks;
+    }
+
+    /**
+     * Remove and return all the open packs.
+     *
+     * @return   the open packs
+     */
+    public synchronized List<MessagePack> drainAll() {
+        List<MessagePack> allPacks = new ArrayList<>(openPacks.values());
+        openPacks.clear();
+        pendingMsgCnt = 0;
+        return allPacks;
+    }
+
+    public synchronized int getPendingMsgCnt() {
+        return pendingMsgCnt;
+    }
+
+    public long getLingerMs() {
+        return lingerMs;
+    }
+
+    /**
+     * The messages of the same groupId and streamId sent in one request,
+     * the result of the request is fanned out to the callbacks of all the messages.
+     */
+    public static class MessagePack implements SendMessageCallback {
+
+        private final String groupId;
+        private final String streamId;
+        private final boolean isProxySend;
+        private final long dtSeconds;
+        private final String msgUUID;
+        private final long createTime;
+        private final List<byte[]> bodyList = new ArrayList<>();
+        private final List<SendMessageCallback> callbacks = new ArrayList<>();
+        private int packSize = 0;
+        private long timeoutMs = 0;
+
+        public MessagePack(String groupId, String streamId, boolean isProxySend,
+                long dtSeconds, String msgUUID, long createTime) {
+            this.groupId = groupId;
+            this.streamId = streamId;
+            this.isProxySend = isProxySend;
+            this.dtSeconds = dtSeconds;
+            this.msgUUID = msgUUID;
+            this.createTime = createTime;
+        }
+
+        public void add(byte[] body, SendMessageCallback callback, long timeoutMs) {
+            this.bodyList.add(body);
+            this.callbacks.add(callback);
+            this.packSize += body.length;
+            this.timeoutMs = Math.max(this.timeoutMs, timeoutMs);
+        }
+
+        @Override
+        public void onMessageAck(SendResult result) {
+            for (SendMessageCallback callback : callbacks) {
+                if (callback == null) {
+                    continue;
+                }
+                try {
+                    callback.onMessageAck(result);
+                } catch (Throwable e) {
+                    LOGGER.error("callback of pack {}#{} throw error", groupId, streamId, e);
+                }
+            }
+        }
+
+        @Override
+        public void onException(Throwable e) {
+            for (SendMessageCallback callback : callbacks) {
+                if (callback == null) {
+                    continue;
+                }
+                try {
+                    callback.onException(e);
+                } catch (Throwable e2) {
+                    LOGGER.error("callback of pack {}#{} throw error", groupId, streamId, e2);
+                }
+            }
+        }
+
+        public String getGroupId() {
+            return groupId;
+        }
+
+        public String getStreamId() {
+            return streamId;
+        }
+
+        public boolean isProxySend() {
+            return isProxySend;
+        }
+
+        public long getDtSeconds() {
+            return dtSeconds;
+        }
+
+        public String getMsgUUID() {
+            return msgUUID;
+        }
+
+        public long getCreateTime() {
+            return createTime;
+        }
+
+        public List<byte[]> getBodyList() {
+            return bodyList;
+        }
+
+        public int getMsgCnt() {
+            return bodyList.size();
+        }
+
+        public int getPackSize() {
+            return packSize;
+        }
+
+        public long getTimeoutMs() {
+            return timeoutMs;
+        }
+    }
+}
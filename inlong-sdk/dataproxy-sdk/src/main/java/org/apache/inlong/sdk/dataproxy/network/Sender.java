@@ -27,7 +27,6 @@ import org.apache.inlong.sdk.dataproxy.threads.MetricWorkerThread;
 import org.apache.inlong.sdk.dataproxy.threads.TimeoutScanThread;
 
 import io.netty.channel.Channel;
-import org.apache.commons.collections.MapUtils;
 import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -51,7 +50,7 @@ public class Sender {
     private static final Logger LOGGER = LoggerFactory.getLogger(Sender.class);
 
     /* Store the callback used by asynchronously message sending. */
-    private final ConcurrentHashMap<Channel, ConcurrentHashMap<String, QueueObject>> callbacks =
+    private final ConcurrentHashMap<Channel, InFlightWindow> callbacks =
             new ConcurrentHashMap<>();
     /* Store the synchronous message sending invocations. */
     private final ConcurrentHashMap<String, SyncMessageCallable> syncCallables = new ConcurrentHashMap<>();
@@ -59,6 +58,7 @@ public class Sender {
     private final ReentrantLock stateLock = new ReentrantLock();
     private final ExecutorService threadPool;
     private final int asyncCallbackMaxSize;
+    private final int maxInFlightPerChannel;
     private final AtomicInteger currentBufferSize = new AtomicInteger(0);
     private final TimeoutScanThread scanThread;
     private final ClientMgr clientMgr;
@@ -77,6 +77,7 @@ public class Sender {
     public Sender(ProxyClientConfig configure, ThreadFactory selfDefineFactory) throws Exception {
         this.configure = configure;
         this.asyncCallbackMaxSize = configure.getTotalAsyncCallbackSize();
+        this.maxInFlightPerChannel = configure.getMaxInFlightPerChannel();
         this.threadPool = Executors.newCachedThreadPool();
         this.clientMgr = new ClientMgr(configure, this, selfDefineFactory);
         ProxyConfigEntry proxyConfigEntry = null;
@@ -159,11 +160,11 @@ public class Sender {
         if (channel == null) {
             return;
         }
-        ConcurrentHashMap<String, QueueObject> callBackMap = callbacks.get(channel);
-        if (callBackMap == null) {
+        InFlightWindow inFlightWindow = callbacks.get(channel);
+        if (inFlightWindow == null) {
             return;
         }
-        QueueObject callback = callBackMap.remove(messageId);
+        QueueObject callback = inFlightWindow.remove(messageId);
         if (callback == null) {
             return;
         }
@@ -429,14 +430,8 @@ public class Sender {
                 throw new ProxysdkException("ASYNC_CALLBACK_BUFFER_FULL");
             }
         }
-        ConcurrentHashMap<String, QueueObject> tmpCallBackMap = new ConcurrentHashMap<>();
-        ConcurrentHashMap<String, QueueObject> msgQueueMap = callbacks.putIfAbsent(
-                client.getChannel(), tmpCallBackMap);
-        if (msgQueueMap == null) {
-            msgQueueMap = tmpCallBackMap;
-        }
-        msgQueueMap.put(encodeObject.getMessageId(), new QueueObject(System.currentTimeMillis(),
-                callback, size, timeout, timeUnit));
+        addInFlightRequest(client.getChannel(), encodeObject.getMessageId(),
+                new QueueObject(System.currentTimeMillis(), callback, size, timeout, timeUnit), true);
         if (encodeObject.getMsgtype() == 7) {
             int groupIdnum = 0;
             int streamIdnum = 0;
@@ -548,10 +543,8 @@ public class Sender {
                 throw new ProxysdkException("ASYNC_CALLBACK_BUFFER_FULL");
             }
         }
-        ConcurrentHashMap<String, QueueObject> msgQueueMap =
-                callbacks.computeIfAbsent(client.getChannel(), (k) -> new ConcurrentHashMap<>());
-        QueueObject queueObject = msgQueueMap.putIfAbsent(encodeObject.getMessageId(),
-                new QueueObject(System.currentTimeMillis(), callback, size, timeout, timeUnit));
+        QueueObject queueObject = addInFlightRequest(client.getChannel(), encodeObject.getMessageId(),
+                new QueueObject(System.currentTimeMillis(), callback, size, timeout, timeUnit), false);
         if (queueObject != null) {
             LOGGER.warn("message id {} has existed.", encodeObject.getMessageId());
         }
@@ -578,6 +571,31 @@ public class Sender {
         client.write(encodeObject);
     }
 
+    /**
+     * Add an asynchronous request to the in-flight window of the channel,
+     * the reserved callback buffer is released if the request can not be added.
+     *
+     * @param channel       the channel the request is sent by
+     * @param messageId     the message id
+     * @param queueObject   the request
+     * @param replace       whether to replace the existing request of the message id
+     * @return              the existing request of the message id, null if none
+     * @throws ProxysdkException if the window is full until the send timeout, or closed
+     */
+    private QueueObject addInFlightRequest(Channel channel, String messageId,
+            QueueObject queueObject, boolean replace) throws ProxysdkException {
+        InFlightWindow inFlightWindow =
+                callbacks.computeIfAbsent(channel, (k) -> new InFlightWindow(maxInFlightPerChannel));
+        try {
+            long waitMs = queueObject.getTimeoutInMillis();
+            return replace ? inFlightWindow.replace(messageId, queueObject, waitMs)
+                    : inFlightWindow.putIfAbsent(messageId, queueObject, waitMs);
+        } catch (ProxysdkException e) {
+            currentBufferSize.addAndGet(isFile ? -queueObject.getSize() : -1);
+            throw e;
+        }
+    }
+
     /* Deal with feedback. */
     public void notifyFeedback(Channel channel, EncodeObject response) {
         String messageId = response.getMessageId();
@@ -604,13 +622,9 @@ public class Sender {
         }
         LOGGER.info("channel {} connection is disconnected!", channel);
         try {
-            ConcurrentHashMap<String, QueueObject> msgQueueMap = callbacks.remove(channel);
-            if (msgQueueMap != null) {
-                for (String messageId : msgQueueMap.keySet()) {
-                    QueueObject queueObject = msgQueueMap.remove(messageId);
-                    if (queueObject == null) {
-                        continue;
-                    }
+            InFlightWindow inFlightWindow = callbacks.remove(channel);
+            if (inFlightWindow != null) {
+                for (QueueObject queueObject : inFlightWindow.close()) {
                     if (isFile) {
                         ((FileCallback) queueObject.getCallback())
                                 .onMessageAck(SendResult.CONNECTION_BREAK.toString());
@@ -620,7 +634,6 @@ public class Sender {
                         currentBufferSize.decrementAndGet();
                     }
                 }
-                msgQueueMap.clear();
             }
         } catch (Throwable e2) {
             LOGGER.info("process channel {} disconnected callbacks throw error,", channel, e2);
@@ -661,10 +674,10 @@ public class Sender {
         }
         LOGGER.info("wait for ack for channel {}", channel);
         try {
-            ConcurrentHashMap<String, QueueObject> queueObjMap = callbacks.get(channel);
-            if (queueObjMap != null) {
+            InFlightWindow inFlightWindow = callbacks.get(channel);
+            if (inFlightWindow != null) {
                 while (true) {
-                    if (queueObjMap.isEmpty()) {
+                    if (inFlightWindow.isEmpty()) {
                         LOGGER.info("this channel {} is empty!", channel);
                         break;
                     }
@@ -686,6 +699,9 @@ public class Sender {
 
     public void clearCallBack() {
         currentBufferSize.set(0);
+        for (InFlightWindow inFlightWindow : callbacks.values()) {
+            inFlightWindow.close();
+        }
         callbacks.clear();
     }
 
@@ -706,7 +722,8 @@ public class Sender {
     public boolean isIdleClient(NettyClient client) {
         Channel channel = client.getChannel();
         // used by async send
-        if (callbacks.contains(channel) && MapUtils.isNotEmpty(callbacks.get(channel))) {
+        InFlightWindow inFlightWindow = callbacks.get(channel);
+        if (inFlightWindow != null && !inFlightWindow.isEmpty()) {
             return false;
         }
         // used by sync send
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sdk.dataproxy.threads;
+
+import org.apache.inlong.sdk.dataproxy.DefaultMessageSender;
+import org.apache.inlong.sdk.dataproxy.network.PackAccumulator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * Daemon thread to send the accumulated packs which have waited for the linger time.
+ */
+public class PackFlushThread extends Thread {
+
+    private final Logger logger = LoggerFactory.getLogger(PackFlushThread.class);
+    private final PackAccumulator accumulator;
+    private final DefaultMessageSender messageSender;
+    private final long intervalMs;
+    private volatile boolean bShutDown = false;
+
+    public PackFlushThread(PackAccumulator accumulator, DefaultMessageSender messageSender) {
+        this.accumulator = accumulator;
+        this.messageSender = messageSender;
+        this.intervalMs = Math.max(1L, accumulator.getLingerMs() / 2);
+        this.setDaemon(true);
+        this.setName("PackFlushThread");
+    }
+
+    public void shutDown() {
+        logger.info("begin to shut down PackFlushThread!");
+        bShutDown = true;
+        this.interrupt();
+    }
+
+    @Override
+    public void run() {
+        logger.info("PackFlushThread Thread=" + Thread.currentThread().getId() + " started !");
+        while (!bShutDown) {
+            try {
+                List<PackAccumulator.MessagePack> expiredPacks =
+                        accumulator.drainExpired(System.currentTimeMillis());
+                for (PackAccumulator.MessagePack pack : expiredPacks) {
+                    messageSender.sendPack(pack);
+                }
+                Thread.sleep(intervalMs);
+            } catch (InterruptedException e) {
+                if (!bShutDown) {
+                    logger.warn("PackFlushThread is interrupted");
+                }
+            } catch (Throwable e) {
+                logger.error("PackFlushThread exception {}", e.getMessage());
+            }
+        }
+        logger.info("PackFlushThread Thread=" + Thread.currentThread().getId() + " existed !");
+    }
+}
@@ -21,6 +21,7 @@ import org.apache.inlong.sdk.dataproxy.ProxyClientConfig;
 import org.apache.inlong.sdk.dataproxy.common.FileCallback;
 import org.apache.inlong.sdk.dataproxy.common.SendResult;
 import org.apache.inlong.sdk.dataproxy.network.ClientMgr;
+import org.apache.inlong.sdk.dataproxy.network.InFlightWindow;
 import org.apache.inlong.sdk.dataproxy.network.QueueObject;
 import org.apache.inlong.sdk.dataproxy.network.TimeScanObject;
 
@@ -39,7 +40,7 @@ public class TimeoutScanThread extends Thread {
 
     private static final int MAX_CHANNEL_TIMEOUT = 5 * 60 * 1000;
     private final Logger logger = LoggerFactory.getLogger(TimeoutScanThread.class);
-    private final ConcurrentHashMap<Channel, ConcurrentHashMap<String, QueueObject>> callbacks;
+    private final ConcurrentHashMap<Channel, InFlightWindow> callbacks;
     private final AtomicInteger currentBufferSize;
     private final ProxyClientConfig config;
     private final ClientMgr clientMgr;
@@ -47,7 +48,7 @@ public class TimeoutScanThread extends Thread {
     private volatile boolean bShutDown = false;
     private long printCount = 0;
 
-    public TimeoutScanThread(ConcurrentHashMap<Channel, ConcurrentHashMap<String, QueueObject>> callbacks,
+    public TimeoutScanThread(ConcurrentHashMap<Channel, InFlightWindow> callbacks,
             AtomicInteger currentBufferSize, ProxyClientConfig config, ClientMgr clientMgr) {
         bShutDown = false;
         printCount = 0;
@@ -129,30 +130,19 @@ public class TimeoutScanThread extends Thread {
      * check message id
      *
      * @param channel
-     * @param messageIdCallbacks
+     * @param inFlightWindow
      */
-    private void checkMessageIdBasedCallbacks(Channel channel,
-            ConcurrentHashMap<String, QueueObject> messageIdCallbacks) {
-        for (String messageId : messageIdCallbacks.keySet()) {
-            QueueObject queueObject = messageId != null ? messageIdCallbacks.get(messageId) : null;
-            if (queueObject == null) {
-                continue;
-            }
-            // if queueObject timeout
-            if (System.currentTimeMillis() - queueObject.getSendTimeInMillis() >= queueObject.getTimeoutInMillis()) {
-                // remove it before callback
-                QueueObject queueObject1 = messageIdCallbacks.remove(messageId);
-                if (queueObject1 != null) {
-                    if (config.isFile()) {
-                        ((FileCallback) queueObject1.getCallback()).onMessageAck(SendResult.TIMEOUT.toString());
-                        currentBufferSize.addAndGet(-queueObject1.getSize());
-                    } else {
-                        queueObject1.getCallback().onMessageAck(SendResult.TIMEOUT);
-                        currentBufferSize.decrementAndGet();
-                    }
-                }
-                addTimeoutChannel(channel);
+    private void checkMessageIdBasedCallbacks(Channel channel, InFlightWindow inFlightWindow) {
+        // the timeout requests are removed before callback
+        for (QueueObject queueObject : inFlightWindow.removeTimeout(System.currentTimeMillis())) {
+            if (config.isFile()) {
+                ((FileCallback) queueObject.getCallback()).onMessageAck(SendResult.TIMEOUT.toString());
+                currentBufferSize.addAndGet(-queueObject.getSize());
+            } else {
+                queueObject.getCallback().onMessageAck(SendResult.TIMEOUT);
+                currentBufferSize.decrementAndGet();
             }
+            addTimeoutChannel(channel);
         }
     }
 
@@ -162,12 +152,11 @@ public class TimeoutScanThread extends Thread {
         while (!bShutDown) {
             try {
                 for (Channel channel : callbacks.keySet()) {
-                    ConcurrentHashMap<String, QueueObject> msgQueueMap =
-                            channel != null ? callbacks.get(channel) : null;
-                    if (msgQueueMap == null) {
+                    InFlightWindow inFlightWindow = channel != null ? callbacks.get(channel) : null;
+                    if (inFlightWindow == null) {
                         continue;
                     }
-                    checkMessageIdBasedCallbacks(channel, msgQueueMap);
+                    checkMessageIdBasedCallbacks(channel, inFlightWindow);
                 }
                 checkTimeoutChannel();
                 TimeUnit.SECONDS.sleep(1);
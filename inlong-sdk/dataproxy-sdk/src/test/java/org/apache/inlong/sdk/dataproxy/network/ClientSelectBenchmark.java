@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sdk.dataproxy.network;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compare the proxy selection throughput of the monitor based round robin used before
+ * and the snapshot based ClientSelector, when 1 to 64 threads send at the same time.
+ * Run it by main(), the throughput is the selections per second of all the threads.
+ */
+public class ClientSelectBenchmark {
+
+    private static final int CLIENT_COUNT = 8;
+    private static final long WARMUP_MS = 500;
+    private static final long MEASURE_MS = 2000;
+
+    public static void main(String[] args) throws Exception {
+        List<NettyClient> clientList = new ArrayList<>();
+        for (int i = 0; i < CLIENT_COUNT; i++) {
+            clientList.add(new ClientSelectorTest.TestClient("127.0.0." + i, true));
+        }
+        final MonitorSelector monitorSelector = new MonitorSelector(clientList);
+        final ClientSelector clientSelector = new ClientSelector();
+        clientSelector.update(clientList);
+        for (int threadCnt : new int[]{1, 2, 4, 8, 16, 32, 64}) {
+            long monitorOps = measure(threadCnt, monitorSelector::select);
+            long snapshotOps = measure(threadCnt, clientSelector::selectByRoundRobin);
+            System.out.println(new StringBuilder(256)
+                    .append("threads=").append(threadCnt)
+                    .append(", synchronized round robin: ").append(monitorOps).append(" ops/s")
+                    .append(", snapshot round robin: ").append(snapshotOps).append(" ops/s")
+                    .toString());
+        }
+    }
+
+    private static long measure(int threadCnt, Selector selector) throws Exception {
+        final AtomicBoolean measuring = new AtomicBoolean(false);
+        final AtomicBoolean stopped = new AtomicBoolean(false);
+        final LongAdder selectCount = new LongAdder();
+        final CountDownLatch stopLatch = new CountDownLatch(threadCnt);
+        for (int i = 0; i < threadCnt; i++) {
+            Thread thread = new Thread(() -> {
+                long count = 0;
+                while (!stopped.get()) {
+                    if (selector.select() != null && measuring.get()) {
+                        count++;
+                    }
+                }
+                selectCount.add(count);
+                stopLatch.countDown();
+            });
+            thread.setDaemon(true);
+            thread.start();
+        }
+        Thread.sleep(WARMUP_MS);
+        measuring.set(true);
+        Thread.sleep(MEASURE_MS);
+        measuring.set(false);
+        stopped.set(true);
+        stopLatch.await();
+        return selectCount.sum() * 1000 / MEASURE_MS;
+    }
+
+    private interface Selector {
+
+        NettyClient select();
+    }
+
+    /**
+     * The round robin selection synchronized on the manager, as ClientMgr did.
+     */
+    private static class MonitorSelector {
+
+        private final List<NettyClient> clientList;
+        private int currentIndex = 0;
+
+        MonitorSelector(List<NettyClient> clientList) {
+            this.clientList = new ArrayList<>(clientList);
+        }
+
+        public synchronized NettyClient select() {
+            NettyClient client = null;
+            int currSize = clientList.size();
+            for (int retryTime = 0; retryTime < currSize; retryTime++) {
+                currentIndex = (++currentIndex) % currSize;
+                client = clientList.get(currentIndex);
+                if (client != null && client.isActive()) {
+                    break;
+                }
+            }
+            return client;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sdk.dataproxy.network;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class ClientSelectorTest {
+
+    @Test
+    public void testSelectActiveClients() {
+        ClientSelector selector = new ClientSelector();
+        Assert.assertNull(selector.selectByRoundRobin());
+        Assert.assertNull(selector.selectByRandom(10));
+        List<NettyClient> clientList = new ArrayList<>();
+        clientList.add(new TestClient("127.0.0.1", true));
+        clientList.add(new TestClient("127.0.0.2", false));
+        clientList.add(new TestClient("127.0.0.3", true));
+        selector.update(clientList);
+        Assert.assertEquals(3, selector.size());
+        Set<String> selectedIps = new HashSet<>();
+        for (int i = 0; i < 6; i++) {
+            NettyClient client = selector.selectByRoundRobin();
+            Assert.assertTrue(client.isActive());
+            selectedIps.add(client.getServerIP());
+            Assert.assertTrue(selector.selectByRandom(100).isActive());
+            Assert.assertTrue(selector.selectByWeightRoundRobin().isActive());
+            Assert.assertTrue(selector.selectByWeightRandom().isActive());
+        }
+        Assert.assertEquals(2, selectedIps.size());
+        Assert.assertEquals("127.0.0.2", selector.selectByServerIp("127.0.0.2").getServerIP());
+        Assert.assertNull(selector.selectByServerIp("127.0.0.4"));
+        // the published snapshot is not changed by the later list changes
+        clientList.clear();
+        Assert.assertEquals(3, selector.size());
+        selector.update(clientList);
+        Assert.assertTrue(selector.isEmpty());
+        Assert.assertNull(selector.selectByWeightRandom());
+    }
+
+    /**
+     * The client with a fixed active state, without connection.
+     */
+    static class TestClient extends NettyClient {
+
+        private final boolean active;
+
+        TestClient(String serverIP, boolean active) {
+            super(null, serverIP, 46801, null);
+            this.active = active;
+        }
+
+        @Override
+        public boolean isActive() {
+            return active;
+        }
+
+        @Override
+        public double getWeight() {
+            return 1.0;
+        }
+    }
+}
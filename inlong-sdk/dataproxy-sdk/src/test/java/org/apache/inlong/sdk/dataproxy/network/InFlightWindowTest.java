@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sdk.dataproxy.network;
+
+import org.apache.inlong.sdk.dataproxy.common.SendMessageCallback;
+import org.apache.inlong.sdk.dataproxy.common.SendResult;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class InFlightWindowTest {
+
+    private static final SendMessageCallback NOOP_CALLBACK = new SendMessageCallback() {
+
+        @Override
+        public void onMessageAck(SendResult result) {
+        }
+
+        @Override
+        public void onException(Throwable e) {
+        }
+    };
+
+    @Test
+    public void testPutAndRemove() throws Exception {
+        InFlightWindow window = new InFlightWindow(0);
+        long curTime = System.currentTimeMillis();
+        // numeric ids, enough to grow the table
+        for (int i = 1; i <= 1000; i++) {
+            Assert.assertNull(window.putIfAbsent(String.valueOf(i),
+                    new QueueObject(curTime, NOOP_CALLBACK, 1000, TimeUnit.MILLISECONDS), 0));
+        }
+        // non-numeric id
+        QueueObject namedObject = new QueueObject(curTime, NOOP_CALLBACK, 1000, TimeUnit.MILLISECONDS);
+        Assert.assertNull(window.putIfAbsent("127.0.0.1#1#1", namedObject, 0));
+        Assert.assertEquals(1001, window.size());
+        Assert.assertNotNull(window.putIfAbsent("10",
+                new QueueObject(curTime, NOOP_CALLBACK, 1000, TimeUnit.MILLISECONDS), 0));
+        Assert.assertEquals(1001, window.size());
+        for (int i = 1; i <= 1000; i += 2) {
+            Assert.assertNotNull(window.remove(String.valueOf(i)));
+        }
+        Assert.assertNull(window.remove("1"));
+        for (int i = 2; i <= 1000; i += 2) {
+            Assert.assertNotNull(window.remove(String.valueOf(i)));
+        }
+        Assert.assertSame(namedObject, window.remove("127.0.0.1#1#1"));
+        Assert.assertTrue(window.isEmpty());
+    }
+
+    @Test
+    public void testNonCanonicalIds() throws Exception {
+        Assert.assertEquals(0L, InFlightWindow.toNumericKey("0"));
+        Assert.assertEquals(7L, InFlightWindow.toNumericKey("7"));
+        Assert.assertEquals(-1L, InFlightWindow.toNumericKey("07"));
+        Assert.assertEquals(-1L, InFlightWindow.toNumericKey("+7"));
+        Assert.assertEquals(-1L, InFlightWindow.toNumericKey("-7"));
+        InFlightWindow window = new InFlightWindow(0);
+        long curTime = System.currentTimeMillis();
+        QueueObject object1 = new QueueObject(curTime, NOOP_CALLBACK, 1000, TimeUnit.MILLISECONDS);
+        QueueObject object2 = new QueueObject(curTime, NOOP_CALLBACK, 1000, TimeUnit.MILLISECONDS);
+        QueueObject object3 = new QueueObject(curTime, NOOP_CALLBACK, 1000, TimeUnit.MILLISECONDS);
+        Assert.assertNull(window.putIfAbsent("7", object1, 0));
+        Assert.assertNull(window.putIfAbsent("07", object2, 0));
+        Assert.assertNull(window.putIfAbsent("+7", object3, 0));
+        Assert.assertEquals(3, window.size());
+        Assert.assertSame(object2, window.remove("07"));
+        Assert.assertSame(object3, window.remove("+7"));
+        Assert.assertSame(object1, window.remove("7"));
+        Assert.assertTrue(window.isEmpty());
+    }
+
+    @Test
+    public void testTimeoutAndClose() throws Exception {
+        InFlightWindow window = new InFlightWindow(0);
+        long curTime = System.currentTimeMillis();
+        window.putIfAbsent("1", new QueueObject(curTime - 2000, NOOP_CALLBACK, 1000, TimeUnit.MILLISECONDS), 0);
+        window.putIfAbsent("2", new QueueObject(curTime, NOOP_CALLBACK, 1000, TimeUnit.MILLISECONDS), 0);
+        window.putIfAbsent("a", new QueueObject(curTime - 2000, NOOP_CALLBACK, 1000, TimeUnit.MILLISECONDS), 0);
+        List<QueueObject> timeoutObjects = window.removeTimeout(curTime);
+        Assert.assertEquals(2, timeoutObjects.size());
+        Assert.assertEquals(1, window.size());
+        Assert.assertNotNull(window.remove("2"));
+        window.putIfAbsent("3", new QueueObject(curTime, NOOP_CALLBACK, 1000, TimeUnit.MILLISECONDS), 0);
+        Assert.assertEquals(1, window.close().size());
+        Assert.assertTrue(window.isEmpty());
+        try {
+            window.putIfAbsent("4", new QueueObject(curTime, NOOP_CALLBACK, 1000, TimeUnit.MILLISECONDS), 0);
+            Assert.fail();
+        } catch (ProxysdkException e) {
+            Assert.assertEquals(SendResult.CONNECTION_BREAK.toString(), e.getMessage());
+        }
+    }
+
+    @Test
+    public void testBoundedWindow() throws Exception {
+        final InFlightWindow window = new InFlightWindow(2);
+        long curTime = System.currentTimeMillis();
+        window.putIfAbsent("1", new QueueObject(curTime, NOOP_CALLBACK, 1000, TimeUnit.MILLISECONDS), 0);
+        window.putIfAbsent("2", new QueueObject(curTime, NOOP_CALLBACK, 1000, TimeUnit.MILLISECONDS), 0);
+        try {
+            window.putIfAbsent("3", new QueueObject(curTime, NOOP_CALLBACK, 1000, TimeUnit.MILLISECONDS), 10);
+            Assert.fail();
+        } catch (ProxysdkException e) {
+            Assert.assertEquals("CHANNEL_INFLIGHT_WINDOW_FULL", e.getMessage());
+        }
+        // the waiting sender gets the room released by the ack
+        Thread ackThread = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                //
+            }
+            window.remove("1");
+        });
+        ackThread.start();
+        Assert.assertNull(window.putIfAbsent("3",
+                new QueueObject(curTime, NOOP_CALLBACK, 1000, TimeUnit.MILLISECONDS), 5000));
+        ackThread.join();
+        Assert.assertEquals(2, window.size());
+    }
+}
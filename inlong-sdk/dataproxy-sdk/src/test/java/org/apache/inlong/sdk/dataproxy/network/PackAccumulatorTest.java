@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sdk.dataproxy.network;
+
+import org.apache.inlong.sdk.dataproxy.common.SendMessageCallback;
+import org.apache.inlong.sdk.dataproxy.common.SendResult;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PackAccumulatorTest {
+
+    @Test
+    public void testPackByCountSizeAndDt() throws Exception {
+        PackAccumulator accumulator = new PackAccumulator(1000, 3, 10, 100);
+        long dt = 1700000000000L;
+        long curTime = System.currentTimeMillis();
+        // full by message count
+        Assert.assertTrue(accumulator.append("g1", "s1", false, new byte[1], dt,
+                null, "uuid", 100, curTime).isEmpty());
+        Assert.assertTrue(accumulator.append("g1", "s2", false, new byte[1], dt,
+                null, "uuid", 100, curTime).isEmpty());
+        Assert.assertTrue(accumulator.append("g1", "s1", false, new byte[1], dt,
+                null, "uuid", 100, curTime).isEmpty());
+        List<PackAccumulator.MessagePack> readyPacks = accumulator.append("g1", "s1", false,
+                new byte[1], dt, null, "uuid", 200, curTime);
+        Assert.assertEquals(1, readyPacks.size());
+        Assert.assertEquals(3, readyPacks.get(0).getMsgCnt());
+        Assert.assertEquals("s1", readyPacks.get(0).getStreamId());
+        Assert.assertEquals(200, readyPacks.get(0).getTimeoutMs());
+        Assert.assertEquals(1, accumulator.getPendingMsgCnt());
+        // the data time of another second closes the open pack
+        readyPacks = accumulator.append("g1", "s2", false, new byte[1], dt + 1000,
+                null, "uuid", 100, curTime);
+        Assert.assertEquals(1, readyPacks.size());
+        Assert.assertEquals(dt / 1000, readyPacks.get(0).getDtSeconds());
+        // the message exceeding the pack size closes the open pack
+        readyPacks = accumulator.append("g1", "s2", false, new byte[10], dt + 1000,
+                null, "uuid", 100, curTime);
+        Assert.assertEquals(2, readyPacks.size());
+        Assert.assertEquals(1, readyPacks.get(0).getMsgCnt());
+        Assert.assertEquals(10, readyPacks.get(1).getPackSize());
+        Assert.assertEquals(0, accumulator.getPendingMsgCnt());
+    }
+
+    @Test
+    public void testLingerAndCallbacks() throws Exception {
+        PackAccumulator accumulator = new PackAccumulator(10, 100, 1024, 2);
+        long curTime = System.currentTimeMillis();
+        final AtomicInteger ackCount = new AtomicInteger(0);
+        SendMessageCallback callback = new SendMessageCallback() {
+
+            @Override
+            public void onMessageAck(SendResult result) {
+                ackCount.incrementAndGet();
+            }
+
+            @Override
+            public void onException(Throwable e) {
+            }
+        };
+        accumulator.append("g1", "s1", true, new byte[1], curTime, callback, "uuid", 100, curTime);
+        accumulator.append("g1", "s1", true, new byte[1], curTime, null, "uuid", 100, curTime);
+        try {
+            accumulator.append("g1", "s1", true, new byte[1], curTime, callback, "uuid", 100, curTime);
+            Assert.fail();
+        } catch (ProxysdkException e) {
+            Assert.assertEquals("ASYNC_CALLBACK_BUFFER_FULL", e.getMessage());
+        }
+        Assert.assertTrue(accumulator.drainExpired(curTime + 5).isEmpty());
+        List<PackAccumulator.MessagePack> expiredPacks = accumulator.drainExpired(curTime + 10);
+        Assert.assertEquals(1, expiredPacks.size());
+        Assert.assertTrue(expiredPacks.get(0).isProxySend());
+        expiredPacks.get(0).onMessageAck(SendResult.OK);
+        Assert.assertEquals(1, ackCount.get());
+        Assert.assertTrue(accumulator.drainAll().isEmpty());
+    }
+}
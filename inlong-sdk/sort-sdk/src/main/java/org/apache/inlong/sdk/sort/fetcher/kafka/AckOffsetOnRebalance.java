@@ -19,7 +19,6 @@ package org.apache.inlong.sdk.sort.fetcher.kafka;
 
 import org.apache.inlong.sdk.sort.api.Seeker;
 
-import org.apache.commons.collections.CollectionUtils;
 import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
 import org.apache.kafka.clients.consumer.OffsetAndMetadata;
@@ -27,14 +26,10 @@ import org.apache.kafka.common.TopicPartition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -46,7 +41,7 @@ public class AckOffsetOnRebalance implements ConsumerRebalanceListener {
     private final String clusterId;
     private final Seeker seeker;
     private final ConcurrentHashMap<TopicPartition, OffsetAndMetadata> commitOffsetMap;
-    private final ConcurrentHashMap<TopicPartition, ConcurrentSkipListMap<Long, Boolean>> ackOffsetMap;
+    private final ConcurrentHashMap<TopicPartition, AckOffsetTracker> ackOffsetMap;
     private final KafkaConsumer<byte[], byte[]> consumer;
     private final AtomicLong revokedNum = new AtomicLong(0);
     private final AtomicLong assignedNum = new AtomicLong(0);
@@ -63,7 +58,7 @@ public class AckOffsetOnRebalance implements ConsumerRebalanceListener {
             String clusterId,
             Seeker seeker,
             ConcurrentHashMap<TopicPartition, OffsetAndMetadata> commitOffsetMap,
-            ConcurrentHashMap<TopicPartition, ConcurrentSkipListMap<Long, Boolean>> ackOffsetMap,
+            ConcurrentHashMap<TopicPartition, AckOffsetTracker> ackOffsetMap,
             KafkaConsumer<byte[], byte[]> consumer) {
         this(clusterId, seeker, commitOffsetMap, ackOffsetMap, consumer, DEFAULT_MAX_WAIT_FOR_ACK_TIME);
     }
@@ -72,7 +67,7 @@ public class AckOffsetOnRebalance implements ConsumerRebalanceListener {
             String clusterId,
             Seeker seeker,
             ConcurrentHashMap<TopicPartition, OffsetAndMetadata> commitOffsetMap,
-            ConcurrentHashMap<TopicPartition, ConcurrentSkipListMap<Long, Boolean>> ackOffsetMap,
+            ConcurrentHashMap<TopicPartition, AckOffsetTracker> ackOffsetMap,
             KafkaConsumer<byte[], byte[]> consumer,
             long maxWaitForAckTime) {
         this.clusterId = clusterId;
@@ -107,15 +102,13 @@ public class AckOffsetOnRebalance implements ConsumerRebalanceListener {
 
     private boolean ackReady(Collection<TopicPartition> revoked) {
         for (TopicPartition tp : revoked) {
-            ConcurrentSkipListMap<Long, Boolean> tpMap = ackOffsetMap.get(tp);
-            if (Objects.isNull(tpMap)) {
+            AckOffsetTracker tracker = ackOffsetMap.get(tp);
+            if (Objects.isNull(tracker)) {
                 continue;
             }
-            for (Map.Entry<Long, Boolean> entry : tpMap.entrySet()) {
-                if (!entry.getValue()) {
-                    LOGGER.info("tp {}, offset {} has not been ack, wait", tp, entry.getKey());
-                    return false;
-                }
+            if (!tracker.isAllAcked()) {
+                LOGGER.info("tp {}, offset {} has not been ack, wait", tp, tracker.getFirstUnAckedOffset());
+                return false;
             }
         }
         LOGGER.info("all revoked tp have been ack, re-balance right now.");
@@ -134,25 +127,12 @@ public class AckOffsetOnRebalance implements ConsumerRebalanceListener {
     }
 
     private void prepareCommit() {
-        List<Long> removeOffsets = new ArrayList<>();
-        ackOffsetMap.forEach((topicPartition, tpOffsetMap) -> {
-            // get the remove list
-            long commitOffset = -1;
-            for (Long ackOffset : tpOffsetMap.keySet()) {
-                if (!tpOffsetMap.get(ackOffset)) {
-                    break;
-                }
-                removeOffsets.add(ackOffset);
-                commitOffset = ackOffset;
-            }
-            // the first haven't ack, do nothing
-            if (CollectionUtils.isEmpty(removeOffsets)) {
+        ackOffsetMap.forEach((topicPartition, tracker) -> {
+            long commitOffset = tracker.pollCommitOffset();
+            // no offset is acked since the last commit, do nothing
+            if (commitOffset < 0) {
                 return;
             }
-
-            // remove offset and commit offset
-            removeOffsets.forEach(tpOffsetMap::remove);
-            removeOffsets.clear();
             commitOffsetMap.put(topicPartition, new OffsetAndMetadata(commitOffset));
         });
     }
@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sdk.sort.fetcher.kafka;
+
+import java.util.Arrays;
+
+/**
+ * Ack offset tracker of a partition, which advances the commit offset to the last offset before the first
+ * un-acked one, so the offsets are committed cumulatively and still at least once.
+ *
+ * The fetched offsets are kept in a ring of primitive longs in the fetched order with a bitmap of the acked
+ * ones, so neither a fetch nor an ack allocates. An ack looks up its offset by a binary search, as the offsets
+ * of a partition are fetched in the increasing order, and the offsets which are not fetched, such as the
+ * compacted ones, are never waited for.
+ */
+public class AckOffsetTracker {
+
+    private static final int INIT_CAPACITY = 1024;
+
+    private long[] offsets = new long[INIT_CAPACITY];
+    private long[] ackBits = new long[INIT_CAPACITY >>> 6];
+    private int head = 0;
+    private int size = 0;
+    private long commitOffset = -1;
+    private boolean commitChanged = false;
+
+    /**
+     * Track a fetched offset, a fetched offset not larger than the last one means the partition is sought back,
+     * then the un-acked offsets before it are dropped, as they will be fetched again.
+     *
+     * @param offset the fetched offset
+     */
+    public synchronized void fetch(long offset) {
+        if (size > 0 && offset <= offsets[index(size - 1)]) {
+            Arrays.fill(ackBits, 0L);
+            head = 0;
+            size = 0;
+        }
+        if (size == offsets.length) {
+            grow();
+        }
+        offsets[index(size)] = offset;
+        size++;
+    }
+
+    /**
+     * Ack a fetched offset, and advance the commit offset if it is the first un-acked offset
+     *
+     * @param  offset the acked offset
+     * @return false if the offset is not fetched or has been committed
+     */
+    public synchronized boolean ack(long offset) {
+        int position = search(offset);
+        if (position < 0) {
+            return false;
+        }
+        int i = index(position);
+        ackBits[i >>> 6] |= 1L << i;
+        while (size > 0 && (ackBits[head >>> 6] & (1L << head)) != 0) {
+            ackBits[head >>> 6] &= ~(1L << head);
+            commitOffset = offsets[head];
+            commitChanged = true;
+            head = index(1);
+            size--;
+        }
+        return true;
+    }
+
+    /**
+     * Get the commit offset if it is advanced since the last poll
+     *
+     * @return the commit offset, or -1 if it is not advanced
+     */
+    public synchronized long pollCommitOffset() {
+        if (!commitChanged) {
+            return -1;
+        }
+        commitChanged = false;
+        return commitOffset;
+    }
+
+    /**
+     * Whether all the fetched offsets have been acked
+     *
+     * @return true if there is no un-acked offset
+     */
+    public synchronized boolean isAllAcked() {
+        return size == 0;
+    }
+
+    /**
+     * Get the first un-acked offset
+     *
+     * @return the first un-acked offset, or -1 if all the fetched offsets have been acked
+     */
+    public synchronized long getFirstUnAckedOffset() {
+        return size == 0 ? -1 : offsets[head];
+    }
+
+    private int index(int position) {
+        return (head + position) & (offsets.length - 1);
+    }
+
+    private int search(long offset) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midOffset = offsets[index(mid)];
+            if (midOffset < offset) {
+                low = mid + 1;
+            } else if (midOffset > offset) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    // double the ring, and move the offsets from the head to the start
+    private void grow() {
+        int capacity = offsets.length;
+        long[] newOffsets = new long[capacity << 1];
+        long[] newAckBits = new long[newOffsets.length >>> 6];
+        for (int position = 0; position < size; position++) {
+            int i = index(position);
+            newOffsets[position] = offsets[i];
+            if ((ackBits[i >>> 6] & (1L << i)) != 0) {
+                newAckBits[position >>> 6] |= 1L << position;
+            }
+        }
+        offsets = newOffsets;
+        ackBits = newAckBits;
+        head = 0;
+    }
+}
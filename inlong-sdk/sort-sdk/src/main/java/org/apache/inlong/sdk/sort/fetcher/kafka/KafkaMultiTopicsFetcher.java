@@ -48,11 +48,9 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -63,7 +61,7 @@ public class KafkaMultiTopicsFetcher extends MultiTopicsFetcher {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(PulsarMultiTopicsFetcher.class);
     private final ConcurrentHashMap<TopicPartition, OffsetAndMetadata> commitOffsetMap;
-    private final ConcurrentHashMap<TopicPartition, ConcurrentSkipListMap<Long, Boolean>> ackOffsetMap;
+    private final ConcurrentHashMap<TopicPartition, AckOffsetTracker> ackOffsetMap;
     private final String bootstrapServers;
     private ConsumerRebalanceListener listener;
     private KafkaConsumer<byte[], byte[]> consumer;
@@ -137,7 +135,7 @@ public class KafkaMultiTopicsFetcher extends MultiTopicsFetcher {
 
     @Override
     public void ack(String msgOffset) throws Exception {
-        LOGGER.info("ack {}", msgOffset);
+        LOGGER.debug("ack {}", msgOffset);
         // the format of multi topic kafka fetcher msg offset is topic:partitionId:offset, such as topic1:20:1746839
         String[] offset = msgOffset.split(":");
         if (offset.length != 3) {
@@ -149,18 +147,12 @@ public class KafkaMultiTopicsFetcher extends MultiTopicsFetcher {
         TopicPartition topicPartition = new TopicPartition(offset[0], Integer.parseInt(offset[1]));
         long ackOffset = Long.parseLong(offset[2]);
 
-        // ack
-        if (!ackOffsetMap.containsKey(topicPartition) || !ackOffsetMap.get(topicPartition).containsKey(ackOffset)) {
+        // mark this offset has been ack.
+        AckOffsetTracker tracker = ackOffsetMap.get(topicPartition);
+        // the tracker is removed in AckOffsetOnRebalance::onPartitionsRevoked
+        if (tracker == null || !tracker.ack(ackOffset)) {
             LOGGER.warn("did not find offsetMap to ack offset of {}, offset {}, just ignore it",
                     topicPartition, ackOffset);
-            return;
-        }
-
-        // mark this offset has been ack.
-        ConcurrentSkipListMap<Long, Boolean> tpOffsetMap = ackOffsetMap.get(topicPartition);
-        // to prevent race condition in AckOffsetOnRebalance::onPartitionsRevoked
-        if (Objects.nonNull(tpOffsetMap)) {
-            tpOffsetMap.put(ackOffset, true);
         }
     }
 
@@ -227,25 +219,12 @@ public class KafkaMultiTopicsFetcher extends MultiTopicsFetcher {
     }
 
     private void prepareCommit() {
-        List<Long> removeOffsets = new ArrayList<>();
-        ackOffsetMap.forEach((topicPartition, tpOffsetMap) -> {
-            // get the remove list
-            long commitOffset = -1;
-            for (Long ackOffset : tpOffsetMap.keySet()) {
-                if (!tpOffsetMap.get(ackOffset)) {
-                    break;
-                }
-                removeOffsets.add(ackOffset);
-                commitOffset = ackOffset;
-            }
-            // the first haven't ack, do nothing
-            if (CollectionUtils.isEmpty(removeOffsets)) {
+        ackOffsetMap.forEach((topicPartition, tracker) -> {
+            long commitOffset = tracker.pollCommitOffset();
+            // no offset is acked since the last commit, do nothing
+            if (commitOffset < 0) {
                 return;
             }
-
-            // remove offset and commit offset
-            removeOffsets.forEach(tpOffsetMap::remove);
-            removeOffsets.clear();
             commitOffsetMap.put(topicPartition, new OffsetAndMetadata(commitOffset));
         });
     }
@@ -306,7 +285,7 @@ public class KafkaMultiTopicsFetcher extends MultiTopicsFetcher {
 
         private String getOffset(String topic, int partitionId, long offset) {
             TopicPartition topicPartition = new TopicPartition(topic, partitionId);
-            ackOffsetMap.computeIfAbsent(topicPartition, k -> new ConcurrentSkipListMap<>()).put(offset, false);
+            ackOffsetMap.computeIfAbsent(topicPartition, k -> new AckOffsetTracker()).fetch(offset);
             return topic + ":" + partitionId + ":" + offset;
         }
 
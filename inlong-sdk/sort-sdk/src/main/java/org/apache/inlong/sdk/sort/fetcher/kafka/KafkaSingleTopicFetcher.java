@@ -58,6 +58,7 @@ public class KafkaSingleTopicFetcher extends SingleTopicFetcher {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(KafkaSingleTopicFetcher.class);
     private final ConcurrentHashMap<TopicPartition, OffsetAndMetadata> commitOffsetMap = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<TopicPartition, AckOffsetTracker> ackOffsetMap = new ConcurrentHashMap<>();
     private String bootstrapServers;
     private KafkaConsumer<byte[], byte[]> consumer;
 
@@ -80,7 +81,7 @@ public class KafkaSingleTopicFetcher extends SingleTopicFetcher {
                 this.seeker = SeekerFactory.createKafkaSeeker(consumer, topic);
                 consumer.subscribe(Collections.singletonList(topic.getTopic()),
                         new AckOffsetOnRebalance(this.topic.getInLongCluster().getClusterId(), seeker,
-                                commitOffsetMap, consumer));
+                                commitOffsetMap, ackOffsetMap, consumer));
             } else {
                 LOGGER.info("consumer is null");
                 return false;
@@ -103,8 +104,13 @@ public class KafkaSingleTopicFetcher extends SingleTopicFetcher {
         String[] offset = msgOffset.split(":");
         if (offset.length == 2) {
             TopicPartition topicPartition = new TopicPartition(topic.getTopic(), Integer.parseInt(offset[0]));
-            OffsetAndMetadata offsetAndMetadata = new OffsetAndMetadata(Long.parseLong(offset[1]));
-            commitOffsetMap.put(topicPartition, offsetAndMetadata);
+            long ackOffset = Long.parseLong(offset[1]);
+            AckOffsetTracker tracker = ackOffsetMap.get(topicPartition);
+            // the tracker is removed in AckOffsetOnRebalance::onPartitionsRevoked
+            if (tracker == null || !tracker.ack(ackOffset)) {
+                LOGGER.warn("did not find offsetMap to ack offset of {}, offset {}, just ignore it",
+                        topicPartition, ackOffset);
+            }
         } else {
             throw new Exception("offset is illegal, the correct format is int:long ,the error offset is:" + msgOffset);
         }
@@ -192,9 +198,21 @@ public class KafkaSingleTopicFetcher extends SingleTopicFetcher {
         LOGGER.info("end to create kafka consumer:{}", consumer);
     }
 
+    private void prepareCommit() {
+        ackOffsetMap.forEach((topicPartition, tracker) -> {
+            long commitOffset = tracker.pollCommitOffset();
+            // no offset is acked since the last commit, do nothing
+            if (commitOffset < 0) {
+                return;
+            }
+            commitOffsetMap.put(topicPartition, new OffsetAndMetadata(commitOffset));
+        });
+    }
+
     public class Fetcher implements Runnable {
 
         private void commitKafkaOffset() {
+            prepareCommit();
             if (consumer != null && commitOffsetMap.size() > 0) {
                 try {
                     consumer.commitSync(commitOffsetMap);
@@ -225,6 +243,8 @@ public class KafkaSingleTopicFetcher extends SingleTopicFetcher {
         }
 
         private String getOffset(int partitionId, long offset) {
+            TopicPartition topicPartition = new TopicPartition(topic.getTopic(), partitionId);
+            ackOffsetMap.computeIfAbsent(topicPartition, k -> new AckOffsetTracker()).fetch(offset);
             return partitionId + ":" + offset;
         }
 
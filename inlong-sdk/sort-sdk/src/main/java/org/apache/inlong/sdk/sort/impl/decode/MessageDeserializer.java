@@ -18,7 +18,7 @@
 package org.apache.inlong.sdk.sort.impl.decode;
 
 import org.apache.inlong.common.enums.MessageWrapType;
-import org.apache.inlong.common.msg.InLongMsg;
+import org.apache.inlong.common.msg.InLongMsgView;
 import org.apache.inlong.common.util.StringUtil;
 import org.apache.inlong.common.util.Utils;
 import org.apache.inlong.sdk.commons.protocol.EventConstants;
@@ -34,10 +34,8 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
 
 public class MessageDeserializer implements Deserializer {
@@ -165,48 +163,47 @@ public class MessageDeserializer implements Deserializer {
             ClientContext context,
             InLongTopic inLongTopic,
             byte[] msgBytes,
-            Map<String, String> headers) {
+            Map<String, String> headers) throws IOException {
         List<InLongMessage> messageList = new ArrayList<>();
 
-        InLongMsg inLongMsg = InLongMsg.parseFrom(msgBytes);
-        for (String attr : inLongMsg.getAttrs()) {
-            Map<String, String> attributes = StringUtil.splitKv(attr, INLONGMSG_ATTR_ENTRY_DELIMITER,
-                    INLONGMSG_ATTR_KV_DELIMITER, null, null);
-
-            String groupId = Optional.ofNullable(attributes.get(INLONGMSG_ATTR_GROUP_ID))
-                    .orElseThrow(() -> new IllegalArgumentException(String.format(PARSE_ATTR_ERROR_STRING,
-                            INLONGMSG_ATTR_GROUP_ID)));
-
-            String streamId = Optional.ofNullable(attributes.get(INLONGMSG_ATTR_STREAM_ID))
-                    .orElseThrow(() -> new IllegalArgumentException(String.format(PARSE_ATTR_ERROR_STRING,
-                            INLONGMSG_ATTR_STREAM_ID)));
-
-            // Extracts time from the attributes
-            long msgTime;
-            if (attributes.containsKey(INLONGMSG_ATTR_TIME_T)) {
-                String date = attributes.get(INLONGMSG_ATTR_TIME_T).trim();
-                msgTime = StringUtil.parseDateTime(date);
-            } else if (attributes.containsKey(INLONGMSG_ATTR_TIME_DT)) {
-                String epoch = attributes.get(INLONGMSG_ATTR_TIME_DT).trim();
-                msgTime = Long.parseLong(epoch);
-            } else {
-                throw new IllegalArgumentException(String.format(PARSE_ATTR_ERROR_STRING,
-                        INLONGMSG_ATTR_TIME_T + " or " + INLONGMSG_ATTR_TIME_DT));
-            }
-
-            String srcIp = Optional.ofNullable(attributes.get(INLONGMSG_ATTR_CLIENT_IP))
-                    .orElse(DEFAULT_IP);
-
-            Iterator<byte[]> iterator = inLongMsg.getIterator(attr);
-            while (iterator.hasNext()) {
-                byte[] bodyBytes = iterator.next();
-                if (Objects.isNull(bodyBytes)) {
-                    continue;
+        // the messages are sliced from the view, and copied once into their own bodies
+        InLongMsgView msgView = InLongMsgView.parseFrom(msgBytes);
+        Map<String, String> attributes = null;
+        String groupId = null;
+        String streamId = null;
+        long msgTime = 0L;
+        String srcIp = null;
+        while (msgView.next()) {
+            if (msgView.isAttrChanged()) {
+                attributes = StringUtil.splitKv(msgView.getAttr(), INLONGMSG_ATTR_ENTRY_DELIMITER,
+                        INLONGMSG_ATTR_KV_DELIMITER, null, null);
+
+                groupId = Optional.ofNullable(attributes.get(INLONGMSG_ATTR_GROUP_ID))
+                        .orElseThrow(() -> new IllegalArgumentException(String.format(PARSE_ATTR_ERROR_STRING,
+                                INLONGMSG_ATTR_GROUP_ID)));
+
+                streamId = Optional.ofNullable(attributes.get(INLONGMSG_ATTR_STREAM_ID))
+                        .orElseThrow(() -> new IllegalArgumentException(String.format(PARSE_ATTR_ERROR_STRING,
+                                INLONGMSG_ATTR_STREAM_ID)));
+
+                // Extracts time from the attributes
+                if (attributes.containsKey(INLONGMSG_ATTR_TIME_T)) {
+                    String date = attributes.get(INLONGMSG_ATTR_TIME_T).trim();
+                    msgTime = StringUtil.parseDateTime(date);
+                } else if (attributes.containsKey(INLONGMSG_ATTR_TIME_DT)) {
+                    String epoch = attributes.get(INLONGMSG_ATTR_TIME_DT).trim();
+                    msgTime = Long.parseLong(epoch);
+                } else {
+                    throw new IllegalArgumentException(String.format(PARSE_ATTR_ERROR_STRING,
+                            INLONGMSG_ATTR_TIME_T + " or " + INLONGMSG_ATTR_TIME_DT));
                 }
-                InLongMessage inLongMessage = new InLongMessage(groupId, streamId, msgTime,
-                        srcIp, bodyBytes, attributes);
-                messageList.add(inLongMessage);
+
+                srcIp = Optional.ofNullable(attributes.get(INLONGMSG_ATTR_CLIENT_IP))
+                        .orElse(DEFAULT_IP);
             }
+            InLongMessage inLongMessage = new InLongMessage(groupId, streamId, msgTime,
+                    srcIp, msgView.copyData(), attributes);
+            messageList.add(inLongMessage);
         }
         return messageList;
     }
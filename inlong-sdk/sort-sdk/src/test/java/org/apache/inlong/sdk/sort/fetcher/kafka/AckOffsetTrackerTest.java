@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sdk.sort.fetcher.kafka;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+public class AckOffsetTrackerTest {
+
+    @Test
+    public void testAckInOrder() {
+        AckOffsetTracker tracker = new AckOffsetTracker();
+        Assert.assertEquals(-1, tracker.pollCommitOffset());
+        for (long offset = 0; offset < 10; offset++) {
+            tracker.fetch(offset);
+        }
+        Assert.assertTrue(tracker.ack(0));
+        Assert.assertTrue(tracker.ack(1));
+        Assert.assertEquals(1, tracker.pollCommitOffset());
+        Assert.assertEquals(-1, tracker.pollCommitOffset());
+        Assert.assertEquals(2, tracker.getFirstUnAckedOffset());
+        // committed or not fetched
+        Assert.assertFalse(tracker.ack(1));
+        Assert.assertFalse(tracker.ack(10));
+    }
+
+    @Test
+    public void testAckOutOfOrder() {
+        AckOffsetTracker tracker = new AckOffsetTracker();
+        // the offsets of a compacted partition
+        long[] offsets = {3, 5, 6, 9, 10};
+        for (long offset : offsets) {
+            tracker.fetch(offset);
+        }
+        Assert.assertTrue(tracker.ack(10));
+        Assert.assertTrue(tracker.ack(5));
+        Assert.assertEquals(-1, tracker.pollCommitOffset());
+        Assert.assertTrue(tracker.ack(3));
+        Assert.assertEquals(5, tracker.pollCommitOffset());
+        Assert.assertTrue(tracker.ack(9));
+        Assert.assertTrue(tracker.ack(6));
+        Assert.assertEquals(10, tracker.pollCommitOffset());
+        Assert.assertTrue(tracker.isAllAcked());
+        Assert.assertEquals(-1, tracker.getFirstUnAckedOffset());
+    }
+
+    @Test
+    public void testSeekBack() {
+        AckOffsetTracker tracker = new AckOffsetTracker();
+        for (long offset = 100; offset < 110; offset++) {
+            tracker.fetch(offset);
+        }
+        Assert.assertTrue(tracker.ack(100));
+        tracker.fetch(50);
+        Assert.assertEquals(50, tracker.getFirstUnAckedOffset());
+        Assert.assertFalse(tracker.ack(101));
+        Assert.assertTrue(tracker.ack(50));
+        Assert.assertEquals(50, tracker.pollCommitOffset());
+        Assert.assertTrue(tracker.isAllAcked());
+    }
+
+    @Test
+    public void testRandomAck() {
+        Random random = new Random(0);
+        AckOffsetTracker tracker = new AckOffsetTracker();
+        // the acked flags of the fetched offsets, as the skip list map of the ack offsets
+        TreeMap<Long, Boolean> expects = new TreeMap<>();
+        List<Long> unAcked = new ArrayList<>();
+        long offset = 0;
+        for (int round = 0; round < 200; round++) {
+            int fetchCount = random.nextInt(100);
+            for (int i = 0; i < fetchCount; i++) {
+                offset += 1 + random.nextInt(3);
+                tracker.fetch(offset);
+                expects.put(offset, false);
+                unAcked.add(offset);
+            }
+            Collections.shuffle(unAcked, random);
+            int ackCount = random.nextInt(unAcked.size() + 1);
+            for (int i = 0; i < ackCount; i++) {
+                long ackOffset = unAcked.remove(unAcked.size() - 1);
+                Assert.assertTrue(tracker.ack(ackOffset));
+                expects.put(ackOffset, true);
+            }
+            long expectCommitOffset = -1;
+            while (!expects.isEmpty() && expects.firstEntry().getValue()) {
+                Map.Entry<Long, Boolean> entry = expects.pollFirstEntry();
+                expectCommitOffset = entry.getKey();
+            }
+            Assert.assertEquals(expectCommitOffset, tracker.pollCommitOffset());
+            Assert.assertEquals(expects.isEmpty(), tracker.isAllAcked());
+            Assert.assertEquals(expects.isEmpty() ? -1 : expects.firstKey(), tracker.getFirstUnAckedOffset());
+        }
+    }
+}
@@ -213,8 +213,7 @@ public class SortMetricItem extends MetricItem {
 
     public static void reportDurations(
             Event currentRecord, boolean result, long sendTime,
-            Map<String, String> dimensions, long msgTime, SortMetricItemSet metricItemSet) {
-        SortMetricItem metricItem = metricItemSet.findMetricItem(dimensions);
+            SortMetricItem metricItem, long msgTime) {
         if (result) {
             metricItem.sendSuccessCount.incrementAndGet();
             metricItem.sendSuccessSize.addAndGet(currentRecord.getBody().length);
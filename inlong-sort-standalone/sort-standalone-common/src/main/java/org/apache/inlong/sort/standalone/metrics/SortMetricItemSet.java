@@ -19,13 +19,17 @@ package org.apache.inlong.sort.standalone.metrics;
 
 import org.apache.inlong.common.metric.MetricDomain;
 import org.apache.inlong.common.metric.MetricItem;
+import org.apache.inlong.common.metric.MetricItemHandle;
 import org.apache.inlong.common.metric.MetricItemSet;
 import org.apache.inlong.sort.standalone.utils.InlongLoggerFactory;
 
 import org.slf4j.Logger;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 
@@ -35,6 +39,13 @@ import java.util.Map;
 public class SortMetricItemSet extends MetricItemSet<SortMetricItem> {
 
     public static final Logger LOG = InlongLoggerFactory.getLogger(SortMetricItemSet.class);
+    // the message time of the metric item without the message time dimension
+    public static final long NO_MSG_TIME = -1L;
+
+    private static final ThreadLocal<HandleKey> LOOKUP_KEY = ThreadLocal.withInitial(HandleKey::new);
+
+    // the metric handles by the dimension values, looked up without building the dimensions
+    private final Map<HandleKey, MetricItemHandle<SortMetricItem>> handleMap = new ConcurrentHashMap<>();
 
     /**
      * Constructor
@@ -56,12 +67,61 @@ public class SortMetricItemSet extends MetricItemSet<SortMetricItem> {
     }
 
     /**
-     * snapshot
+     * Find the metric item by the dimension values through the cached metric handle, without
+     * building the dimensions and their key for each event, the null values are not dimensions.
+     *
+     * @param clusterId       the cluster id
+     * @param taskName        the task name
+     * @param sourceId        the source id
+     * @param sourceDataId    the source data id
+     * @param inlongGroupId   the inlong group id
+     * @param inlongStreamId  the inlong stream id
+     * @param sinkId          the sink id
+     * @param sinkDataId      the sink data id
+     * @param msgTime         the audit format time of the message, NO_MSG_TIME if not a dimension
+     * @return the metric item
+     */
+    public SortMetricItem findMetricItem(String clusterId, String taskName, String sourceId, String sourceDataId,
+            String inlongGroupId, String inlongStreamId, String sinkId, String sinkDataId, long msgTime) {
+        HandleKey lookupKey = LOOKUP_KEY.get();
+        lookupKey.set(clusterId, taskName, sourceId, sourceDataId, inlongGroupId,
+                inlongStreamId, sinkId, sinkDataId, msgTime);
+        MetricItemHandle<SortMetricItem> handle = handleMap.get(lookupKey);
+        if (handle == null) {
+            Map<String, String> dimensions = new HashMap<>();
+            putDimension(dimensions, SortMetricItem.KEY_CLUSTER_ID, clusterId);
+            putDimension(dimensions, SortMetricItem.KEY_TASK_NAME, taskName);
+            putDimension(dimensions, SortMetricItem.KEY_SOURCE_ID, sourceId);
+            putDimension(dimensions, SortMetricItem.KEY_SOURCE_DATA_ID, sourceDataId);
+            putDimension(dimensions, SortMetricItem.KEY_INLONG_GROUP_ID, inlongGroupId);
+            putDimension(dimensions, SortMetricItem.KEY_INLONG_STREAM_ID, inlongStreamId);
+            putDimension(dimensions, SortMetricItem.KEY_SINK_ID, sinkId);
+            putDimension(dimensions, SortMetricItem.KEY_SINK_DATA_ID, sinkDataId);
+            if (msgTime != NO_MSG_TIME) {
+                dimensions.put(SortMetricItem.KEY_MESSAGE_TIME, String.valueOf(msgTime));
+            }
+            handle = bindMetricItem(dimensions);
+            MetricItemHandle<SortMetricItem> oldHandle = handleMap.putIfAbsent(lookupKey.copy(), handle);
+            handle = (oldHandle == null) ? handle : oldHandle;
+        }
+        return handle.getItem();
+    }
+
+    private static void putDimension(Map<String, String> dimensions, String key, String value) {
+        if (value != null) {
+            dimensions.put(key, value);
+        }
+    }
+
+    /**
+     * snapshot, and drop the handles of the retired items
      * 
      * @return
      */
+    @Override
     public List<MetricItem> snapshot() {
         List<MetricItem> snapshot = super.snapshot();
+        handleMap.values().removeIf(MetricItemHandle::isRetired);
         return snapshot;
     }
 
@@ -73,4 +133,75 @@ public class SortMetricItemSet extends MetricItemSet<SortMetricItem> {
     public Map<String, SortMetricItem> getItemMap() {
         return this.itemMap;
     }
+
+    /**
+     * HandleKey, the dimension values of a metric handle
+     */
+    private static class HandleKey {
+
+        private String clusterId;
+        private String taskName;
+        private String sourceId;
+        private String sourceDataId;
+        private String inlongGroupId;
+        private String inlongStreamId;
+        private String sinkId;
+        private String sinkDataId;
+        private long msgTime;
+        private int hash;
+
+        private void set(String clusterId, String taskName, String sourceId, String sourceDataId,
+                String inlongGroupId, String inlongStreamId, String sinkId, String sinkDataId, long msgTime) {
+            this.clusterId = clusterId;
+            this.taskName = taskName;
+            this.sourceId = sourceId;
+            this.sourceDataId = sourceDataId;
+            this.inlongGroupId = inlongGroupId;
+            this.inlongStreamId = inlongStreamId;
+            this.sinkId = sinkId;
+            this.sinkDataId = sinkDataId;
+            this.msgTime = msgTime;
+            int result = Objects.hashCode(clusterId);
+            result = 31 * result + Objects.hashCode(taskName);
+            result = 31 * result + Objects.hashCode(sourceId);
+            result = 31 * result + Objects.hashCode(sourceDataId);
+            result = 31 * result + Objects.hashCode(inlongGroupId);
+            result = 31 * result + Objects.hashCode(inlongStreamId);
+            result = 31 * result + Objects.hashCode(sinkId);
+            result = 31 * result + Objects.hashCode(sinkDataId);
+            this.hash = 31 * result + Long.hashCode(msgTime);
+        }
+
+        private HandleKey copy() {
+            HandleKey key = new HandleKey();
+            key.set(clusterId, taskName, sourceId, sourceDataId, inlongGroupId,
+                    inlongStreamId, sinkId, sinkDataId, msgTime);
+            return key;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof HandleKey)) {
+                return false;
+            }
+            HandleKey other = (HandleKey) obj;
+            return msgTime == other.msgTime
+                    && Objects.equals(inlongGroupId, other.inlongGroupId)
+                    && Objects.equals(inlongStreamId, other.inlongStreamId)
+                    && Objects.equals(sinkDataId, other.sinkDataId)
+                    && Objects.equals(sinkId, other.sinkId)
+                    && Objects.equals(sourceDataId, other.sourceDataId)
+                    && Objects.equals(sourceId, other.sourceId)
+                    && Objects.equals(taskName, other.taskName)
+                    && Objects.equals(clusterId, other.clusterId);
+        }
+    }
 }
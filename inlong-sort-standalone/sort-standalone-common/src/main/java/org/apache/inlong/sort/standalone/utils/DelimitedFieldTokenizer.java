@@ -0,0 +1,301 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.standalone.utils;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Tokenizer of the delimited fields in bytes, which splits and unescapes the fields as
+ * {@link UnescapeHelper#toFiledList(String, char)}, but only records the offsets of the fields,
+ * and decodes or parses a field when it is got.
+ *
+ * The separator and the escapes are ascii, so the charset must not encode a non ascii char with an
+ * ascii byte, see {@link #isSupported(Charset)}. It is not thread safe, and is reused per record.
+ */
+public class DelimitedFieldTokenizer {
+
+    private static final int INIT_FIELD_COUNT = 64;
+    // the digits of a long which never overflow
+    private static final int MAX_FAST_DIGITS = 18;
+
+    private final Charset charset;
+    private byte[] data;
+    private byte separator;
+    private int fieldCount;
+    private int[] starts = new int[INIT_FIELD_COUNT];
+    private int[] ends = new int[INIT_FIELD_COUNT];
+    private boolean[] escapes = new boolean[INIT_FIELD_COUNT];
+    private byte[] unescapeBuffer = new byte[256];
+
+    /**
+     * Constructor
+     *
+     * @param charset the charset of the bytes
+     */
+    public DelimitedFieldTokenizer(Charset charset) {
+        if (!isSupported(charset)) {
+            throw new IllegalArgumentException("Unsupported charset:" + charset);
+        }
+        this.charset = charset;
+    }
+
+    /**
+     * Whether the bytes of the charset can be tokenized, the ascii bytes of its encoding are always ascii chars.
+     *
+     * @param  charset the charset
+     * @return true if supported
+     */
+    public static boolean isSupported(Charset charset) {
+        return StandardCharsets.UTF_8.equals(charset) || StandardCharsets.US_ASCII.equals(charset)
+                || StandardCharsets.ISO_8859_1.equals(charset);
+    }
+
+    /**
+     * Tokenize the fields of the bytes, which are referred by the tokenizer until the next tokenize.
+     *
+     * @param  data the bytes
+     * @param  offset the offset of the fields
+     * @param  length the length of the fields
+     * @param  separator the ascii separator
+     * @return the count of the fields
+     */
+    public int tokenize(byte[] data, int offset, int length, char separator) {
+        if (separator >= 0x80) {
+            throw new IllegalArgumentException("Unsupported separator:" + separator);
+        }
+        this.data = data;
+        this.separator = (byte) separator;
+        this.fieldCount = 0;
+        if (length <= 0) {
+            return 0;
+        }
+        int last = offset + length - 1;
+        int fieldStart = offset;
+        boolean escaped = false;
+        int i = offset;
+        for (; i < last; i++) {
+            byte value = data[i];
+            if (value == '\\') {
+                if (isEscape(data[i + 1])) {
+                    escaped = true;
+                    i++;
+                }
+                if (i == last) {
+                    addField(fieldStart, last + 1, escaped);
+                }
+            } else if (value == this.separator) {
+                addField(fieldStart, i, escaped);
+                fieldStart = i + 1;
+                escaped = false;
+            }
+        }
+        if (i == last) {
+            if (data[i] == this.separator) {
+                addField(fieldStart, i, escaped);
+                addField(i + 1, i + 1, false);
+            } else {
+                addField(fieldStart, last + 1, escaped);
+            }
+        }
+        return fieldCount;
+    }
+
+    /**
+     * get fieldCount
+     *
+     * @return the count of the fields of the last tokenize
+     */
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * Get the unescaped field as a string
+     *
+     * @param  index the index of the field
+     * @return the field value
+     */
+    public String getString(int index) {
+        int start = starts[index];
+        int end = ends[index];
+        if (start == end) {
+            return "";
+        }
+        if (!escapes[index]) {
+            return new String(data, start, end - start, charset);
+        }
+        return new String(unescapeBuffer, 0, unescape(start, end), charset);
+    }
+
+    /**
+     * get data
+     *
+     * @return the bytes of the last tokenize
+     */
+    public byte[] getData() {
+        return data;
+    }
+
+    /**
+     * Get the offset of the field in the bytes, which are the field value if it is not escaped
+     *
+     * @param  index the index of the field
+     * @return the offset of the field
+     */
+    public int getStart(int index) {
+        return starts[index];
+    }
+
+    /**
+     * Get the length of the field in the bytes
+     *
+     * @param  index the index of the field
+     * @return the length of the field
+     */
+    public int getLength(int index) {
+        return ends[index] - starts[index];
+    }
+
+    /**
+     * Whether the field has escapes, whose value must be got by getBytes or getString
+     *
+     * @param  index the index of the field
+     * @return true if escaped
+     */
+    public boolean isEscaped(int index) {
+        return escapes[index];
+    }
+
+    /**
+     * Get the unescaped field as a copy of the bytes
+     *
+     * @param  index the index of the field
+     * @return the field value
+     */
+    public byte[] getBytes(int index) {
+        int start = starts[index];
+        int end = ends[index];
+        if (!escapes[index]) {
+            return Arrays.copyOfRange(data, start, end);
+        }
+        return Arrays.copyOf(unescapeBuffer, unescape(start, end));
+    }
+
+    /**
+     * Parse the field as a long in the range as Long.parseLong, the default value if it can not be parsed or it is
+     * out of the range, the ascii digits are parsed from the bytes directly.
+     *
+     * @param  index the index of the field
+     * @param  minValue the min value
+     * @param  maxValue the max value
+     * @param  defaultValue the default value
+     * @return the value of the field
+     */
+    public long getLong(int index, long minValue, long maxValue, long defaultValue) {
+        if (!escapes[index]) {
+            int i = starts[index];
+            int end = ends[index];
+            boolean negative = false;
+            if (i < end && (data[i] == '-' || data[i] == '+')) {
+                negative = data[i] == '-';
+                i++;
+            }
+            if (i < end && end - i <= MAX_FAST_DIGITS) {
+                long value = 0;
+                for (; i < end; i++) {
+                    int digit = data[i] - '0';
+                    if (digit < 0 || digit > 9) {
+                        break;
+                    }
+                    value = value * 10 + digit;
+                }
+                if (i == end) {
+                    value = negative ? -value : value;
+                    return value >= minValue && value <= maxValue ? value : defaultValue;
+                }
+            }
+        }
+        // the escapes, the non ascii digits, the overflows and the invalid values
+        try {
+            long value = Long.parseLong(getString(index));
+            return value >= minValue && value <= maxValue ? value : defaultValue;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private boolean isEscape(byte next) {
+        return next == '0' || next == 'n' || next == 'r' || next == '\\' || next == separator;
+    }
+
+    /*
+     * Unescape the field into the buffer as UnescapeHelper, in which "\0" is unescaped to '0'.
+     */
+    private int unescape(int start, int end) {
+        if (unescapeBuffer.length < end - start) {
+            unescapeBuffer = new byte[Math.max(end - start, unescapeBuffer.length * 2)];
+        }
+        int size = 0;
+        for (int i = start; i < end; i++) {
+            byte value = data[i];
+            if (value == '\\' && i + 1 < end) {
+                byte next = data[i + 1];
+                switch (next) {
+                    case '0':
+                        value = '0';
+                        i++;
+                        break;
+                    case 'n':
+                        value = '\n';
+                        i++;
+                        break;
+                    case 'r':
+                        value = '\r';
+                        i++;
+                        break;
+                    case '\\':
+                        i++;
+                        break;
+                    default:
+                        if (next == separator) {
+                            value = separator;
+                            i++;
+                        }
+                        break;
+                }
+            }
+            unescapeBuffer[size++] = value;
+        }
+        return size;
+    }
+
+    private void addField(int start, int end, boolean escaped) {
+        if (fieldCount == starts.length) {
+            int capacity = fieldCount * 2;
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            escapes = Arrays.copyOf(escapes, capacity);
+        }
+        starts[fieldCount] = start;
+        ends[fieldCount] = end;
+        escapes[fieldCount] = escaped;
+        fieldCount++;
+    }
+}
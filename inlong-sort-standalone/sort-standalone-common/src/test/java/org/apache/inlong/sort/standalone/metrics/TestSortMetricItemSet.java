@@ -38,6 +38,8 @@ import java.util.Map;
 import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 /**
  * 
@@ -177,4 +179,29 @@ public class TestSortMetricItemSet {
             Set<ObjectInstance> mbeans = mbs.queryMBeans(objName, null);
         }
     }
+
+    /**
+     * testFindMetricItemByValues
+     */
+    @Test
+    public void testFindMetricItemByValues() {
+        SortMetricItemSet valueItemSet = new SortMetricItemSet(SINK_ID);
+        SortMetricItem item1 = valueItemSet.findMetricItem(CLUSTER_ID, null, null, null,
+                INLONG_GROUP_ID1, INLONG_STREAM_ID, SINK_ID, SINK_DATA_ID, 1697558400000L);
+        item1.sendCount.incrementAndGet();
+        SortMetricItem item2 = valueItemSet.findMetricItem(CLUSTER_ID, null, null, null,
+                INLONG_GROUP_ID1, INLONG_STREAM_ID, SINK_ID, SINK_DATA_ID, 1697558400000L);
+        assertSame(item1, item2);
+        assertEquals(INLONG_GROUP_ID1, item1.getDimensions().get(SortMetricItem.KEY_INLONG_GROUP_ID));
+        assertEquals("1697558400000", item1.getDimensions().get(SortMetricItem.KEY_MESSAGE_TIME));
+        assertNotSame(item1, valueItemSet.findMetricItem(CLUSTER_ID, null, null, null,
+                INLONG_GROUP_ID2, INLONG_STREAM_ID, SINK_ID, SINK_DATA_ID, 1697558400000L));
+        // the item without update after a snapshot is retired, and a new item is bound for the same values
+        valueItemSet.snapshot().forEach(MetricItem::snapshot);
+        valueItemSet.snapshot();
+        SortMetricItem item3 = valueItemSet.findMetricItem(CLUSTER_ID, null, null, null,
+                INLONG_GROUP_ID1, INLONG_STREAM_ID, SINK_ID, SINK_DATA_ID, 1697558400000L);
+        assertNotSame(item1, item3);
+        assertEquals(0, item3.sendCount.get());
+    }
 }
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.standalone.utils;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ *
+ * TestDelimitedFieldTokenizer
+ */
+public class TestDelimitedFieldTokenizer {
+
+    private static final String[] CASES = {"", "|", "||", "a", "a|", "|a", "a|b|c", "a||b", "\\", "\\\\",
+            "\\\\\\", "a\\", "a\\|b", "a\\\\|b", "a\\n\\r\\0b", "a\\xb", "\\|", "a\\|", "\\n", "中文|数据\\|测试|",
+            "12|-34|+56|-|+|99999999999999999999|3.5"};
+
+    @Test
+    public void testTokenize() {
+        DelimitedFieldTokenizer tokenizer = new DelimitedFieldTokenizer(StandardCharsets.UTF_8);
+        for (String fields : CASES) {
+            assertTokenize(tokenizer, fields, '|');
+            assertTokenize(tokenizer, fields, '\t');
+        }
+        Random random = new Random(0);
+        char[] chars = {'a', '1', '-', '|', '\\', 'n', 'r', '0', '\t', '中'};
+        for (int i = 0; i < 10000; i++) {
+            StringBuilder builder = new StringBuilder();
+            int length = random.nextInt(12);
+            for (int j = 0; j < length; j++) {
+                builder.append(chars[random.nextInt(chars.length)]);
+            }
+            assertTokenize(tokenizer, builder.toString(), '|');
+            assertTokenize(tokenizer, builder.toString(), 'n');
+        }
+    }
+
+    @Test
+    public void testGetLong() {
+        DelimitedFieldTokenizer tokenizer = new DelimitedFieldTokenizer(StandardCharsets.UTF_8);
+        String fields = "12|-34|+56||-|+|99999999999999999999|3.5|1\\0|128|-9223372036854775808|١٢|1a";
+        byte[] bytes = ("xx" + fields).getBytes(StandardCharsets.UTF_8);
+        int fieldCount = tokenizer.tokenize(bytes, 2, bytes.length - 2, '|');
+        List<String> expects = UnescapeHelper.toFiledList(fields, '|');
+        assertEquals(expects.size(), fieldCount);
+        for (int i = 0; i < fieldCount; i++) {
+            assertEquals(parseLong(expects.get(i), Long.MIN_VALUE, Long.MAX_VALUE),
+                    tokenizer.getLong(i, Long.MIN_VALUE, Long.MAX_VALUE, 0));
+            assertEquals(parseLong(expects.get(i), Byte.MIN_VALUE, Byte.MAX_VALUE),
+                    tokenizer.getLong(i, Byte.MIN_VALUE, Byte.MAX_VALUE, 0));
+        }
+    }
+
+    private static void assertTokenize(DelimitedFieldTokenizer tokenizer, String fields, char separator) {
+        byte[] bytes = fields.getBytes(StandardCharsets.UTF_8);
+        int fieldCount = tokenizer.tokenize(bytes, 0, bytes.length, separator);
+        List<String> actuals = new ArrayList<>(fieldCount);
+        for (int i = 0; i < fieldCount; i++) {
+            actuals.add(tokenizer.getString(i));
+        }
+        assertEquals(fields, UnescapeHelper.toFiledList(fields, separator), actuals);
+    }
+
+    private static long parseLong(String value, long minValue, long maxValue) {
+        try {
+            long result = Long.parseLong(value);
+            return result >= minValue && result <= maxValue ? result : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
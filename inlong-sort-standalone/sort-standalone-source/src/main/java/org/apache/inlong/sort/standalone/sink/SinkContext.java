@@ -242,6 +242,33 @@ public class SinkContext {
         dimensions.put(SortMetricItem.KEY_INLONG_STREAM_ID, inlongStreamId);
     }
 
+    /**
+     * findSendMetricItem, the blank inlong ids are reported as "-"
+     *
+     * @param  inlongGroupId
+     * @param  inlongStreamId
+     * @param  sinkDataId
+     * @param  msgTime
+     * @return
+     */
+    public SortMetricItem findSendMetricItem(String inlongGroupId, String inlongStreamId, String sinkDataId,
+            long msgTime) {
+        inlongGroupId = (StringUtils.isBlank(inlongGroupId)) ? "-" : inlongGroupId;
+        inlongStreamId = (StringUtils.isBlank(inlongStreamId)) ? "-" : inlongStreamId;
+        return metricItemSet.findMetricItem(clusterId, taskName, null, null, inlongGroupId, inlongStreamId,
+                sinkName, sinkDataId, SortMetricItem.getAuditFormatTime(msgTime));
+    }
+
+    /**
+     * findSendFailMetricItem
+     *
+     * @return
+     */
+    public SortMetricItem findSendFailMetricItem() {
+        return metricItemSet.findMetricItem(clusterId, null, null, null, null, null,
+                sinkName, null, SortMetricItem.getAuditFormatTime(System.currentTimeMillis()));
+    }
+
     /**
      * createBufferQueue
      * @return
@@ -28,7 +28,6 @@ import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
-import java.util.Map;
 
 /**
  * ClickHouseChannelWorker
@@ -103,8 +102,7 @@ public class ClickHouseChannelWorker extends Thread {
             }
             try (PreparedStatement pstat = this.conn.prepareStatement(insertSql)) {
                 for (ProfileEvent event : currentRecord.getEvents()) {
-                    Map<String, String> columnValueMap = this.handler.parse(idConfig, event);
-                    this.handler.setValue(idConfig, columnValueMap, pstat);
+                    this.handler.setValue(idConfig, event, pstat);
                     pstat.addBatch();
                 }
                 pstat.executeBatch();
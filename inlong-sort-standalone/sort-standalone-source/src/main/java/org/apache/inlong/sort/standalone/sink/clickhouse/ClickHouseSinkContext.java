@@ -190,21 +190,10 @@ public class ClickHouseSinkContext extends SinkContext {
      * @param currentRecord
      */
     public void addSendMetric(DispatchProfile currentRecord) {
-        Map<String, String> dimensions = new HashMap<>();
-        dimensions.put(SortMetricItem.KEY_CLUSTER_ID, this.getClusterId());
-        dimensions.put(SortMetricItem.KEY_TASK_NAME, this.getTaskName());
-        dimensions.put(SortMetricItem.KEY_SOURCE_ID, "-");
-        dimensions.put(SortMetricItem.KEY_SOURCE_DATA_ID, "-");
-        dimensions.put(SortMetricItem.KEY_SINK_ID, this.getSinkName());
-        dimensions.put(SortMetricItem.KEY_SINK_DATA_ID, "-");
-        dimensions.put(SortMetricItem.KEY_INLONG_GROUP_ID, currentRecord.getInlongGroupId());
-        dimensions.put(SortMetricItem.KEY_INLONG_STREAM_ID, currentRecord.getInlongStreamId());
-        // msgTime
-        long msgTime = currentRecord.getDispatchTime();
-        long auditFormatTime = msgTime - msgTime % CommonPropertiesHolder.getAuditFormatInterval();
-        dimensions.put(SortMetricItem.KEY_MESSAGE_TIME, String.valueOf(auditFormatTime));
         // find metric
-        SortMetricItem metricItem = this.getMetricItemSet().findMetricItem(dimensions);
+        long msgTime = currentRecord.getDispatchTime();
+        SortMetricItem metricItem =
+                this.findMetricItem("-", currentRecord.getInlongGroupId(), currentRecord.getInlongStreamId(), msgTime);
         metricItem.sendCount.addAndGet(currentRecord.getCount());
         metricItem.sendSize.addAndGet(currentRecord.getSize());
     }
@@ -215,21 +204,10 @@ public class ClickHouseSinkContext extends SinkContext {
      * @param currentRecord
      */
     public void addSendFailMetric(String errorMsg, DispatchProfile currentRecord) {
-        Map<String, String> dimensions = new HashMap<>();
-        dimensions.put(SortMetricItem.KEY_CLUSTER_ID, this.getClusterId());
-        dimensions.put(SortMetricItem.KEY_TASK_NAME, this.getTaskName());
-        dimensions.put(SortMetricItem.KEY_SOURCE_ID, "-");
-        dimensions.put(SortMetricItem.KEY_SOURCE_DATA_ID, "-");
-        dimensions.put(SortMetricItem.KEY_SINK_ID, this.getSinkName());
-        dimensions.put(SortMetricItem.KEY_SINK_DATA_ID, errorMsg);
-        dimensions.put(SortMetricItem.KEY_INLONG_GROUP_ID, currentRecord.getInlongGroupId());
-        dimensions.put(SortMetricItem.KEY_INLONG_STREAM_ID, currentRecord.getInlongStreamId());
-        // msgTime
-        long msgTime = System.currentTimeMillis();
-        long auditFormatTime = msgTime - msgTime % CommonPropertiesHolder.getAuditFormatInterval();
-        dimensions.put(SortMetricItem.KEY_MESSAGE_TIME, String.valueOf(auditFormatTime));
         // find metric
-        SortMetricItem metricItem = this.getMetricItemSet().findMetricItem(dimensions);
+        long msgTime = System.currentTimeMillis();
+        SortMetricItem metricItem = this.findMetricItem(errorMsg, currentRecord.getInlongGroupId(),
+                currentRecord.getInlongStreamId(), msgTime);
         metricItem.readFailCount.addAndGet(currentRecord.getCount());
         metricItem.readFailSize.addAndGet(currentRecord.getSize());
     }
@@ -240,21 +218,10 @@ public class ClickHouseSinkContext extends SinkContext {
      * @param event
      */
     public void addSendFailMetric(String errorMsg, ProfileEvent event) {
-        Map<String, String> dimensions = new HashMap<>();
-        dimensions.put(SortMetricItem.KEY_CLUSTER_ID, this.getClusterId());
-        dimensions.put(SortMetricItem.KEY_TASK_NAME, this.getTaskName());
-        dimensions.put(SortMetricItem.KEY_SOURCE_ID, "-");
-        dimensions.put(SortMetricItem.KEY_SOURCE_DATA_ID, "-");
-        dimensions.put(SortMetricItem.KEY_SINK_ID, this.getSinkName());
-        dimensions.put(SortMetricItem.KEY_SINK_DATA_ID, errorMsg);
-        dimensions.put(SortMetricItem.KEY_INLONG_GROUP_ID, event.getInlongGroupId());
-        dimensions.put(SortMetricItem.KEY_INLONG_STREAM_ID, event.getInlongStreamId());
-        // msgTime
-        long msgTime = System.currentTimeMillis();
-        long auditFormatTime = msgTime - msgTime % CommonPropertiesHolder.getAuditFormatInterval();
-        dimensions.put(SortMetricItem.KEY_MESSAGE_TIME, String.valueOf(auditFormatTime));
         // find metric
-        SortMetricItem metricItem = this.getMetricItemSet().findMetricItem(dimensions);
+        long msgTime = System.currentTimeMillis();
+        SortMetricItem metricItem =
+                this.findMetricItem(errorMsg, event.getInlongGroupId(), event.getInlongStreamId(), msgTime);
         metricItem.readFailCount.incrementAndGet();
         metricItem.readFailSize.addAndGet(event.getBody().length);
     }
@@ -263,21 +230,9 @@ public class ClickHouseSinkContext extends SinkContext {
      * addReadFailMetric
      */
     public void addSendFailMetric(String errorMsg) {
-        Map<String, String> dimensions = new HashMap<>();
-        dimensions.put(SortMetricItem.KEY_CLUSTER_ID, this.getClusterId());
-        dimensions.put(SortMetricItem.KEY_TASK_NAME, this.getTaskName());
-        dimensions.put(SortMetricItem.KEY_SOURCE_ID, "-");
-        dimensions.put(SortMetricItem.KEY_SOURCE_DATA_ID, "-");
-        dimensions.put(SortMetricItem.KEY_SINK_ID, this.getSinkName());
-        dimensions.put(SortMetricItem.KEY_SINK_DATA_ID, errorMsg);
-        dimensions.put(SortMetricItem.KEY_INLONG_GROUP_ID, "-");
-        dimensions.put(SortMetricItem.KEY_INLONG_STREAM_ID, "-");
-        // msgTime
-        long msgTime = System.currentTimeMillis();
-        long auditFormatTime = msgTime - msgTime % CommonPropertiesHolder.getAuditFormatInterval();
-        dimensions.put(SortMetricItem.KEY_MESSAGE_TIME, String.valueOf(auditFormatTime));
         // find metric
-        SortMetricItem metricItem = this.getMetricItemSet().findMetricItem(dimensions);
+        long msgTime = System.currentTimeMillis();
+        SortMetricItem metricItem = this.findMetricItem(errorMsg, "-", "-", msgTime);
         metricItem.readFailCount.incrementAndGet();
     }
 
@@ -288,21 +243,11 @@ public class ClickHouseSinkContext extends SinkContext {
      * @param sendTime
      */
     public void addSendSuccessMetric(DispatchProfile currentRecord, long sendTime) {
-        Map<String, String> dimensions = new HashMap<>();
-        dimensions.put(SortMetricItem.KEY_CLUSTER_ID, this.getClusterId());
-        dimensions.put(SortMetricItem.KEY_TASK_NAME, this.getTaskName());
-        dimensions.put(SortMetricItem.KEY_SOURCE_ID, "-");
-        dimensions.put(SortMetricItem.KEY_SOURCE_DATA_ID, "-");
-        dimensions.put(SortMetricItem.KEY_SINK_ID, this.getSinkName());
-        dimensions.put(SortMetricItem.KEY_SINK_DATA_ID, "-");
-        dimensions.put(SortMetricItem.KEY_INLONG_GROUP_ID, currentRecord.getInlongGroupId());
-        dimensions.put(SortMetricItem.KEY_INLONG_STREAM_ID, currentRecord.getInlongStreamId());
         long currentTime = System.currentTimeMillis();
         for (ProfileEvent event : currentRecord.getEvents()) {
             long msgTime = event.getRawLogTime();
-            long auditFormatTime = msgTime - msgTime % CommonPropertiesHolder.getAuditFormatInterval();
-            dimensions.put(SortMetricItem.KEY_MESSAGE_TIME, String.valueOf(auditFormatTime));
-            SortMetricItem metricItem = this.getMetricItemSet().findMetricItem(dimensions);
+            SortMetricItem metricItem = this.findMetricItem("-", currentRecord.getInlongGroupId(),
+                    currentRecord.getInlongStreamId(), msgTime);
             metricItem.sendSuccessCount.incrementAndGet();
             metricItem.sendSuccessSize.addAndGet(event.getBody().length);
             long sinkDuration = currentTime - sendTime;
@@ -315,6 +260,22 @@ public class ClickHouseSinkContext extends SinkContext {
         }
     }
 
+    /**
+     * findMetricItem
+     * 
+     * @param  sinkDataId
+     * @param  inlongGroupId
+     * @param  inlongStreamId
+     * @param  msgTime
+     * @return
+     */
+    private SortMetricItem findMetricItem(String sinkDataId, String inlongGroupId, String inlongStreamId,
+            long msgTime) {
+        return this.getMetricItemSet().findMetricItem(this.getClusterId(), this.getTaskName(), "-", "-",
+                inlongGroupId, inlongStreamId, this.getSinkName(), sinkDataId,
+                SortMetricItem.getAuditFormatTime(msgTime));
+    }
+
     /**
      * get nodeId
      * @return the nodeId
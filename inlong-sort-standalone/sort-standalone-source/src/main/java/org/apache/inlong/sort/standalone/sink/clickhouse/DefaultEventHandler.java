@@ -19,6 +19,7 @@ package org.apache.inlong.sort.standalone.sink.clickhouse;
 
 import org.apache.inlong.sdk.commons.protocol.EventConstants;
 import org.apache.inlong.sort.standalone.channel.ProfileEvent;
+import org.apache.inlong.sort.standalone.utils.DelimitedFieldTokenizer;
 import org.apache.inlong.sort.standalone.utils.UnescapeHelper;
 
 import org.apache.commons.math3.util.Pair;
@@ -34,9 +35,11 @@ import java.sql.Time;
 import java.sql.Timestamp;
 import java.sql.Types;
 import java.text.SimpleDateFormat;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.WeakHashMap;
 
 /**
  * DefaultEventHandler
@@ -46,8 +49,21 @@ public class DefaultEventHandler implements IEventHandler {
     public static final Logger LOG = LoggerFactory.getLogger(DefaultEventHandler.class);
 
     public static final String KEY_EXTINFO = "extinfo";
+    public static final String KEY_FTIME = "ftime";
+    // the content field index of the db field which is not a content field
+    private static final int INDEX_FTIME = -1;
+    private static final int INDEX_EXTINFO = -2;
+    private static final int INDEX_MISSING = -3;
 
     private SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+    private long ftimeSecond = Long.MIN_VALUE;
+    private String ftime;
+    // null if the default charset can not be tokenized in bytes
+    private final DelimitedFieldTokenizer tokenizer = DelimitedFieldTokenizer.isSupported(Charset.defaultCharset())
+            ? new DelimitedFieldTokenizer(Charset.defaultCharset())
+            : null;
+    // the content field indexes of the db fields of the id configs
+    private final Map<ClickHouseIdConfig, int[][]> fieldIndexMap = new WeakHashMap<>();
 
     /**
      * parse
@@ -81,14 +97,109 @@ public class DefaultEventHandler implements IEventHandler {
         }
 
         // ftime
-        String ftime = dateFormat.format(new Date(event.getRawLogTime()));
-        resultMap.put("ftime", ftime);
+        resultMap.put(KEY_FTIME, getFtime(event.getRawLogTime()));
         // extinfo
         String extinfo = getExtInfo(event);
-        resultMap.put("extinfo", extinfo);
+        resultMap.put(KEY_EXTINFO, extinfo);
         return resultMap;
     }
 
+    /**
+     * setValue of an event, which tokenizes the content of the event in bytes and sets the fields by the indexes,
+     * without decoding the whole content and putting the fields into a map.
+     * @param idConfig
+     * @param event
+     * @param pstat
+     * @throws SQLException
+     */
+    @Override
+    public void setValue(ClickHouseIdConfig idConfig, ProfileEvent event, PreparedStatement pstat)
+            throws SQLException {
+        byte[] bodyBytes = event.getBody();
+        int contentOffset = idConfig.getContentOffset();
+        char cDelimeter = idConfig.getSeparator().charAt(0);
+        int[][] fieldIndexes = this.getFieldIndexes(idConfig);
+        if (tokenizer == null || fieldIndexes == null || cDelimeter >= 0x80 || contentOffset > bodyBytes.length) {
+            this.setValue(idConfig, this.parse(idConfig, event), pstat);
+            return;
+        }
+        int offset = (contentOffset > 0 && bodyBytes.length >= 1) ? contentOffset : 0;
+        int fieldCount = tokenizer.tokenize(bodyBytes, offset, bodyBytes.length - offset, cDelimeter);
+        List<Pair<String, Integer>> dbFieldList = idConfig.getDbFieldList();
+        for (int i = 1; i <= dbFieldList.size(); i++) {
+            int fieldType = dbFieldList.get(i - 1).getValue();
+            int fieldIndex = INDEX_MISSING;
+            // the last content field of the name in the fields of the event, as put into the map
+            for (int index : fieldIndexes[i - 1]) {
+                if (index < fieldCount) {
+                    fieldIndex = index;
+                    break;
+                }
+            }
+            if (fieldIndex >= 0) {
+                this.setFieldValue(pstat, i, fieldType, fieldIndex);
+            } else if (fieldIndex == INDEX_FTIME) {
+                this.setFieldValue(pstat, i, fieldType, getFtime(event.getRawLogTime()));
+            } else if (fieldIndex == INDEX_EXTINFO) {
+                this.setFieldValue(pstat, i, fieldType, getExtInfo(event));
+            } else {
+                this.setFieldValue(pstat, i, fieldType, "");
+            }
+        }
+    }
+
+    /**
+     * getFieldIndexes, the content field indexes of the name of each db field in descending order, or the index of
+     * ftime and extinfo which override the content fields.
+     * @param idConfig
+     * @return null if the fields are not parsed
+     */
+    private int[][] getFieldIndexes(ClickHouseIdConfig idConfig) {
+        int[][] fieldIndexes = fieldIndexMap.get(idConfig);
+        if (fieldIndexes != null) {
+            return fieldIndexes;
+        }
+        List<String> contentFieldList = idConfig.getContentFieldList();
+        List<Pair<String, Integer>> dbFieldList = idConfig.getDbFieldList();
+        if (contentFieldList == null || dbFieldList == null) {
+            return null;
+        }
+        fieldIndexes = new int[dbFieldList.size()][];
+        for (int i = 0; i < dbFieldList.size(); i++) {
+            String fieldName = dbFieldList.get(i).getKey();
+            if (KEY_FTIME.equals(fieldName)) {
+                fieldIndexes[i] = new int[]{INDEX_FTIME};
+            } else if (KEY_EXTINFO.equals(fieldName)) {
+                fieldIndexes[i] = new int[]{INDEX_EXTINFO};
+            } else {
+                int[] indexes = new int[contentFieldList.size()];
+                int size = 0;
+                for (int index = contentFieldList.size() - 1; index >= 0; index--) {
+                    if (contentFieldList.get(index).equals(fieldName)) {
+                        indexes[size++] = index;
+                    }
+                }
+                fieldIndexes[i] = Arrays.copyOf(indexes, size);
+            }
+        }
+        fieldIndexMap.put(idConfig, fieldIndexes);
+        return fieldIndexes;
+    }
+
+    /**
+     * getFtime, which is formatted once per second
+     * @param rawLogTime
+     * @return
+     */
+    private String getFtime(long rawLogTime) {
+        long second = Math.floorDiv(rawLogTime, 1000L);
+        if (second != ftimeSecond) {
+            ftime = dateFormat.format(new Date(rawLogTime));
+            ftimeSecond = second;
+        }
+        return ftime;
+    }
+
     /**
      * getExtInfo
      * 
@@ -117,79 +228,119 @@ public class DefaultEventHandler implements IEventHandler {
         for (int i = 1; i <= dbFieldList.size(); i++) {
             Pair<String, Integer> pair = dbFieldList.get(i - 1);
             String fieldValue = columnValueMap.getOrDefault(pair.getKey(), "");
-            int fieldType = pair.getValue();
-            switch (fieldType) {
-                // Int8 - [-128 : 127]
-                case Types.TINYINT:
-                    // TINYINT = -6;
-                    pstat.setByte(i, NumberUtils.toByte(fieldValue, (byte) 0));
-                    break;
-                // Int16 - [-32768 : 32767]
-                case Types.SMALLINT:
-                    // SMALLINT= 5;
-                    pstat.setShort(i, NumberUtils.toShort(fieldValue, (short) 0));
-                    break;
-                // Int32 - [-2147483648 : 2147483647]
-                case Types.INTEGER:
-                    // INTEGER = 4;
-                    pstat.setInt(i, NumberUtils.toInt(fieldValue, 0));
-                    break;
-                // Int64 - [-9223372036854775808 : 9223372036854775807]
-                // UInt8 - [0 : 255]
-                // UInt16 - [0 : 65535]
-                // UInt32 - [0 : 4294967295]
-                // UInt64 - [0 : 18446744073709551615]
-                case Types.BIGINT:
-                    // BIGINT = -5;
-                    pstat.setLong(i, NumberUtils.toLong(fieldValue, 0));
-                    break;
-                // Float32 - float
-                case Types.FLOAT:
-                    // FLOAT = 6;
-                    pstat.setFloat(i, NumberUtils.toFloat(fieldValue, 0));
-                    break;
-                // Float64 – double
-                case Types.DOUBLE:
-                    // DOUBLE = 8;
-                    pstat.setDouble(i, NumberUtils.toDouble(fieldValue, 0));
-                    break;
-                // Decimal32(s)
-                // Decimal64(s)
-                // Decimal128(s)
-                case Types.NUMERIC:
-                    // NUMERIC = 2;
-                    pstat.setBigDecimal(i, NumberUtils.toScaledBigDecimal(fieldValue));
-                    break;
-                // String
-                // FixedString(N)
-                // Enum8
-                // Enum16
-                case Types.VARCHAR:
-                    // VARCHAR = 12;
-                case Types.LONGVARCHAR:
-                    // LONGVARCHAR = -1;
-                    pstat.setString(i, fieldValue);
-                    break;
-                // Date
-                case Types.DATE:
-                    // DATE= 91;
-                    pstat.setDate(i, this.parseDate(fieldValue));
-                    break;
-                // Datetime
-                // Datetime64
-                case Types.TIMESTAMP:
-                    // TIMESTAMP = 93;
-                    pstat.setTimestamp(i, new Timestamp(this.parseDate(fieldValue).getTime()));
-                    break;
+            this.setFieldValue(pstat, i, pair.getValue(), fieldValue);
+        }
+    }
 
-                case Types.TIME:
-                    // TIME= 92;
-                    pstat.setTime(i, new Time(this.parseDate(fieldValue).getTime()));
-                    break;
-                default:
-                    pstat.setString(i, fieldValue);
-                    break;
-            }
+    /**
+     * setFieldValue of a tokenized field, the integers are parsed from the bytes directly
+     * @param pstat
+     * @param i
+     * @param fieldType
+     * @param fieldIndex
+     * @throws SQLException
+     */
+    private void setFieldValue(PreparedStatement pstat, int i, int fieldType, int fieldIndex) throws SQLException {
+        switch (fieldType) {
+            case Types.TINYINT:
+                pstat.setByte(i, (byte) tokenizer.getLong(fieldIndex, Byte.MIN_VALUE, Byte.MAX_VALUE, 0));
+                break;
+            case Types.SMALLINT:
+                pstat.setShort(i, (short) tokenizer.getLong(fieldIndex, Short.MIN_VALUE, Short.MAX_VALUE, 0));
+                break;
+            case Types.INTEGER:
+                pstat.setInt(i, (int) tokenizer.getLong(fieldIndex, Integer.MIN_VALUE, Integer.MAX_VALUE, 0));
+                break;
+            case Types.BIGINT:
+                pstat.setLong(i, tokenizer.getLong(fieldIndex, Long.MIN_VALUE, Long.MAX_VALUE, 0));
+                break;
+            default:
+                this.setFieldValue(pstat, i, fieldType, tokenizer.getString(fieldIndex));
+                break;
+        }
+    }
+
+    /**
+     * setFieldValue
+     * @param pstat
+     * @param i
+     * @param fieldType
+     * @param fieldValue
+     * @throws SQLException
+     */
+    private void setFieldValue(PreparedStatement pstat, int i, int fieldType, String fieldValue)
+            throws SQLException {
+        switch (fieldType) {
+            // Int8 - [-128 : 127]
+            case Types.TINYINT:
+                // TINYINT = -6;
+                pstat.setByte(i, NumberUtils.toByte(fieldValue, (byte) 0));
+                break;
+            // Int16 - [-32768 : 32767]
+            case Types.SMALLINT:
+                // SMALLINT= 5;
+                pstat.setShort(i, NumberUtils.toShort(fieldValue, (short) 0));
+                break;
+            // Int32 - [-2147483648 : 2147483647]
+            case Types.INTEGER:
+                // INTEGER = 4;
+                pstat.setInt(i, NumberUtils.toInt(fieldValue, 0));
+                break;
+            // Int64 - [-9223372036854775808 : 9223372036854775807]
+            // UInt8 - [0 : 255]
+            // UInt16 - [0 : 65535]
+            // UInt32 - [0 : 4294967295]
+            // UInt64 - [0 : 18446744073709551615]
+            case Types.BIGINT:
+                // BIGINT = -5;
+                pstat.setLong(i, NumberUtils.toLong(fieldValue, 0));
+                break;
+            // Float32 - float
+            case Types.FLOAT:
+                // FLOAT = 6;
+                pstat.setFloat(i, NumberUtils.toFloat(fieldValue, 0));
+                break;
+            // Float64 – double
+            case Types.DOUBLE:
+                // DOUBLE = 8;
+                pstat.setDouble(i, NumberUtils.toDouble(fieldValue, 0));
+                break;
+            // Decimal32(s)
+            // Decimal64(s)
+            // Decimal128(s)
+            case Types.NUMERIC:
+                // NUMERIC = 2;
+                pstat.setBigDecimal(i, NumberUtils.toScaledBigDecimal(fieldValue));
+                break;
+            // String
+            // FixedString(N)
+            // Enum8
+            // Enum16
+            case Types.VARCHAR:
+                // VARCHAR = 12;
+            case Types.LONGVARCHAR:
+                // LONGVARCHAR = -1;
+                pstat.setString(i, fieldValue);
+                break;
+            // Date
+            case Types.DATE:
+                // DATE= 91;
+                pstat.setDate(i, this.parseDate(fieldValue));
+                break;
+            // Datetime
+            // Datetime64
+            case Types.TIMESTAMP:
+                // TIMESTAMP = 93;
+                pstat.setTimestamp(i, new Timestamp(this.parseDate(fieldValue).getTime()));
+                break;
+
+            case Types.TIME:
+                // TIME= 92;
+                pstat.setTime(i, new Time(this.parseDate(fieldValue).getTime()));
+                break;
+            default:
+                pstat.setString(i, fieldValue);
+                break;
         }
     }
 
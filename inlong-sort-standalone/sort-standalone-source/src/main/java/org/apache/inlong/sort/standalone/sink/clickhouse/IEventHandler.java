@@ -47,4 +47,16 @@ public interface IEventHandler {
      */
     void setValue(ClickHouseIdConfig idConfig, Map<String, String> columnValueMap, PreparedStatement pstat)
             throws SQLException;
+
+    /**
+     * setValue of an event, which parses the event into the column value map by default
+     * @param idConfig
+     * @param event
+     * @param pstat
+     * @throws SQLException
+     */
+    default void setValue(ClickHouseIdConfig idConfig, ProfileEvent event, PreparedStatement pstat)
+            throws SQLException {
+        this.setValue(idConfig, this.parse(idConfig, event), pstat);
+    }
 }
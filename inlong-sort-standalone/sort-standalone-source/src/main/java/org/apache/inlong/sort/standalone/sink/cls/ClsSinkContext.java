@@ -41,7 +41,6 @@ import org.apache.flume.Context;
 import org.slf4j.Logger;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -267,8 +266,8 @@ public class ClsSinkContext extends SinkContext {
      * @param sendTime      Time of sending.
      */
     public void addSendResultMetric(ProfileEvent currentRecord, String bid, boolean result, long sendTime) {
-        Map<String, String> dimensions = this.getDimensions(currentRecord, bid);
-        SortMetricItem metricItem = this.getMetricItemSet().findMetricItem(dimensions);
+        SortMetricItem metricItem = this.findSendMetricItem(currentRecord.getInlongGroupId(),
+                currentRecord.getInlongStreamId(), bid, currentRecord.getRawLogTime());
         if (result) {
             metricItem.sendSuccessCount.incrementAndGet();
             metricItem.sendSuccessSize.addAndGet(currentRecord.getBody().length);
@@ -288,27 +287,6 @@ public class ClsSinkContext extends SinkContext {
         }
     }
 
-    /**
-     * Get report dimensions.
-     *
-     * @param  currentRecord Event.
-     * @param  bid  Topic or dest ip.
-     * @return  Prepared dimensions map.
-     */
-    private Map<String, String> getDimensions(ProfileEvent currentRecord, String bid) {
-        Map<String, String> dimensions = new HashMap<>();
-        dimensions.put(SortMetricItem.KEY_CLUSTER_ID, this.getClusterId());
-        dimensions.put(SortMetricItem.KEY_TASK_NAME, this.getTaskName());
-        // metric
-        fillInlongId(currentRecord, dimensions);
-        dimensions.put(SortMetricItem.KEY_SINK_ID, this.getSinkName());
-        dimensions.put(SortMetricItem.KEY_SINK_DATA_ID, bid);
-        long msgTime = currentRecord.getRawLogTime();
-        long auditFormatTime = msgTime - msgTime % CommonPropertiesHolder.getAuditFormatInterval();
-        dimensions.put(SortMetricItem.KEY_MESSAGE_TIME, String.valueOf(auditFormatTime));
-        return dimensions;
-    }
-
     /**
      * Get {@link ClsIdConfig} by uid.
      *
@@ -39,7 +39,6 @@ import org.apache.http.HttpHost;
 import org.slf4j.Logger;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -203,17 +202,10 @@ public class EsSinkContext extends SinkContext {
      * @param bid
      */
     public void addSendMetric(ProfileEvent currentRecord, String bid) {
-        Map<String, String> dimensions = new HashMap<>();
-        dimensions.put(SortMetricItem.KEY_CLUSTER_ID, this.getClusterId());
-        dimensions.put(SortMetricItem.KEY_TASK_NAME, this.getTaskName());
-        // metric
-        fillInlongId(currentRecord, dimensions);
-        dimensions.put(SortMetricItem.KEY_SINK_ID, this.getSinkName());
-        dimensions.put(SortMetricItem.KEY_SINK_DATA_ID, bid);
         long msgTime = currentRecord.getRawLogTime();
-        long auditFormatTime = msgTime - msgTime % CommonPropertiesHolder.getAuditFormatInterval();
-        dimensions.put(SortMetricItem.KEY_MESSAGE_TIME, String.valueOf(auditFormatTime));
-        SortMetricItem metricItem = this.getMetricItemSet().findMetricItem(dimensions);
+        SortMetricItem metricItem =
+                this.findSendMetricItem(currentRecord.getInlongGroupId(), currentRecord.getInlongStreamId(),
+                        bid, msgTime);
         long count = 1;
         long size = currentRecord.getBody().length;
         metricItem.sendCount.addAndGet(count);
@@ -224,13 +216,7 @@ public class EsSinkContext extends SinkContext {
      * addReadFailMetric
      */
     public void addSendFailMetric() {
-        Map<String, String> dimensions = new HashMap<>();
-        dimensions.put(SortMetricItem.KEY_CLUSTER_ID, this.getClusterId());
-        dimensions.put(SortMetricItem.KEY_SINK_ID, this.getSinkName());
-        long msgTime = System.currentTimeMillis();
-        long auditFormatTime = msgTime - msgTime % CommonPropertiesHolder.getAuditFormatInterval();
-        dimensions.put(SortMetricItem.KEY_MESSAGE_TIME, String.valueOf(auditFormatTime));
-        SortMetricItem metricItem = this.getMetricItemSet().findMetricItem(dimensions);
+        SortMetricItem metricItem = this.findSendFailMetricItem();
         metricItem.readFailCount.incrementAndGet();
     }
 
@@ -243,18 +229,10 @@ public class EsSinkContext extends SinkContext {
      * @param sendTime
      */
     public void addSendResultMetric(ProfileEvent currentRecord, String bid, boolean result, long sendTime) {
-        Map<String, String> dimensions = new HashMap<>();
-        dimensions.put(SortMetricItem.KEY_CLUSTER_ID, this.getClusterId());
-        dimensions.put(SortMetricItem.KEY_TASK_NAME, this.getTaskName());
-        // metric
-        fillInlongId(currentRecord, dimensions);
-        dimensions.put(SortMetricItem.KEY_SINK_ID, this.getSinkName());
-        dimensions.put(SortMetricItem.KEY_SINK_DATA_ID, bid);
         final long currentTime = System.currentTimeMillis();
         long msgTime = currentRecord.getRawLogTime();
-        long auditFormatTime = msgTime - msgTime % CommonPropertiesHolder.getAuditFormatInterval();
-        dimensions.put(SortMetricItem.KEY_MESSAGE_TIME, String.valueOf(auditFormatTime));
-        SortMetricItem metricItem = this.getMetricItemSet().findMetricItem(dimensions);
+        SortMetricItem metricItem = this.findSendMetricItem(currentRecord.getInlongGroupId(),
+                currentRecord.getInlongStreamId(), bid, msgTime);
         if (result) {
             metricItem.sendSuccessCount.incrementAndGet();
             metricItem.sendSuccessSize.addAndGet(currentRecord.getBody().length);
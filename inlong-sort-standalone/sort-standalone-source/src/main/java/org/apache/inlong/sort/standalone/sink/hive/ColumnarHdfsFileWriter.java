@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.standalone.sink.hive;
+
+import org.apache.inlong.sort.standalone.utils.DelimitedFieldTokenizer;
+
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * ColumnarHdfsFileWriter, which splits the formatted data of an event by the separator into the string columns of
+ * a row, as hive reads the line of the text file: the missing fields and the fields of "\N" are null, and the extra
+ * fields are ignored.
+ *
+ * The file is created by the first row, so nothing is left if there is no row.
+ */
+public abstract class ColumnarHdfsFileWriter implements IHdfsFileWriter {
+
+    protected final FileSystem fs;
+    protected final Path path;
+    protected final List<String> fieldNames;
+    protected final String fileCompression;
+    private final char separator;
+    private final DelimitedFieldTokenizer tokenizer = new DelimitedFieldTokenizer(StandardCharsets.UTF_8);
+    private boolean isOpen = false;
+    private long rowCount = 0;
+
+    /**
+     * Constructor
+     * 
+     * @param  fs
+     * @param  path
+     * @param  idConfig
+     * @throws IOException
+     */
+    public ColumnarHdfsFileWriter(FileSystem fs, Path path, HdfsIdConfig idConfig) throws IOException {
+        this.fs = fs;
+        this.path = path;
+        this.fieldNames = idConfig.parseFieldNameList();
+        this.fileCompression = idConfig.getFileCompression();
+        this.separator = idConfig.getSeparator().charAt(0);
+        if (fieldNames.isEmpty()) {
+            throw new IOException("fieldNames is required by the file format:" + idConfig.getFileFormat());
+        }
+        if (separator >= 0x80) {
+            throw new IOException("Unsupported separator of the file format:" + idConfig.getFileFormat());
+        }
+    }
+
+    @Override
+    public void write(byte[] formatBytes) throws IOException {
+        if (!isOpen) {
+            this.open();
+            this.isOpen = true;
+        }
+        tokenizer.tokenize(formatBytes, 0, formatBytes.length, separator);
+        this.writeRow(tokenizer);
+        rowCount++;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        // the rows are written by the stripe
+    }
+
+    @Override
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (isOpen) {
+            this.isOpen = false;
+            this.closeFile();
+        }
+    }
+
+    /**
+     * Whether the column of the row is null, which is missing or "\N" as the null format of hive text
+     * 
+     * @param  fields
+     * @param  index
+     * @return
+     */
+    protected static boolean isNull(DelimitedFieldTokenizer fields, int index) {
+        if (index >= fields.getFieldCount()) {
+            return true;
+        }
+        if (fields.getLength(index) != 2 || fields.isEscaped(index)) {
+            return false;
+        }
+        byte[] data = fields.getData();
+        int start = fields.getStart(index);
+        return data[start] == '\\' && data[start + 1] == 'N';
+    }
+
+    /**
+     * create the file
+     * 
+     * @throws IOException
+     */
+    protected abstract void open() throws IOException;
+
+    /**
+     * write the row of the fields
+     * 
+     * @param  fields
+     * @throws IOException
+     */
+    protected abstract void writeRow(DelimitedFieldTokenizer fields) throws IOException;
+
+    /**
+     * write the buffered rows and the footer, and close the file
+     * 
+     * @throws IOException
+     */
+    protected abstract void closeFile() throws IOException;
+}
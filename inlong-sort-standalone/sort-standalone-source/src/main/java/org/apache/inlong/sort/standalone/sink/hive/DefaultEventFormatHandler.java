@@ -19,8 +19,6 @@ package org.apache.inlong.sort.standalone.sink.hive;
 
 import org.apache.inlong.sort.standalone.channel.ProfileEvent;
 
-import static org.apache.inlong.sort.standalone.sink.hive.HdfsIdConfig.SEPARATOR_LENGTH;
-
 /**
  * 
  * DefaultEventFormatHandler
@@ -39,23 +37,11 @@ public class DefaultEventFormatHandler implements IEventFormatHandler {
      */
     @Override
     public byte[] format(ProfileEvent event, HdfsIdConfig idConfig) {
-        long msgTime = event.getRawLogTime();
-        String partitionFieldValue = idConfig.parsePartitionField(msgTime);
-        String msgTimeFieldValue = idConfig.parseMsgTimeField(msgTime);
-        byte[] partitionFieldBytes = partitionFieldValue.getBytes();
-        byte[] msgTimeFieldBytes = msgTimeFieldValue.getBytes();
-        byte[] formatBytes = new byte[partitionFieldBytes.length + SEPARATOR_LENGTH + msgTimeFieldBytes.length
-                + SEPARATOR_LENGTH + event.getBody().length];
-        int index = 0;
-        System.arraycopy(partitionFieldBytes, 0, formatBytes, index, partitionFieldBytes.length);
-        index += partitionFieldBytes.length;
-        formatBytes[index] = (byte) idConfig.getSeparator().charAt(0);
-        index++;
-        System.arraycopy(msgTimeFieldBytes, 0, formatBytes, index, msgTimeFieldBytes.length);
-        index += msgTimeFieldBytes.length;
-        formatBytes[index] = (byte) idConfig.getSeparator().charAt(0);
-        index++;
-        System.arraycopy(event.getBody(), 0, formatBytes, index, event.getBody().length);
+        byte[] fieldPrefix = idConfig.parseFieldPrefix(event.getRawLogTime());
+        byte[] body = event.getBody();
+        byte[] formatBytes = new byte[fieldPrefix.length + body.length];
+        System.arraycopy(fieldPrefix, 0, formatBytes, 0, fieldPrefix.length);
+        System.arraycopy(body, 0, formatBytes, fieldPrefix.length, body.length);
         return formatBytes;
     }
 
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.standalone.sink.hive;
+
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import java.io.IOException;
+
+/**
+ * 
+ * HdfsFileFormat
+ */
+public enum HdfsFileFormat {
+
+    TEXT("text", true), ORC("orc", false), PARQUET("parquet", false);
+
+    private final String name;
+    // whether the files can be concatenated into one file by bytes
+    private final boolean concatenable;
+
+    HdfsFileFormat(String name, boolean concatenable) {
+        this.name = name;
+        this.concatenable = concatenable;
+    }
+
+    /**
+     * get name
+     * 
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * get concatenable
+     * 
+     * @return the concatenable
+     */
+    public boolean isConcatenable() {
+        return concatenable;
+    }
+
+    /**
+     * of
+     * 
+     * @param  name
+     * @return the file format of the name, text if the name is unknown
+     */
+    public static HdfsFileFormat of(String name) {
+        for (HdfsFileFormat format : values()) {
+            if (format.name.equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        return TEXT;
+    }
+
+    /**
+     * createWriter
+     * 
+     * @param  fs
+     * @param  path
+     * @param  idConfig
+     * @return the writer of the file
+     * @throws IOException
+     */
+    public IHdfsFileWriter createWriter(FileSystem fs, Path path, HdfsIdConfig idConfig) throws IOException {
+        switch (this) {
+            case ORC:
+                return new OrcHdfsFileWriter(fs, path, idConfig);
+            case PARQUET:
+                return new ParquetHdfsFileWriter(fs, path, idConfig);
+            default:
+                return new TextHdfsFileWriter(fs, path);
+        }
+    }
+}
@@ -18,7 +18,9 @@
 package org.apache.inlong.sort.standalone.sink.hive;
 
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -36,6 +38,7 @@ public class HdfsIdConfig {
     public static final String REGEX_MINUTE = "\\{yyyyMMddHHmm\\}";
     public static final long HOUR_MS = 60L * 60 * 1000;
     public static final int SEPARATOR_LENGTH = 1;
+    public static final String FIELD_NAME_SEPARATOR = ",";
     private static ThreadLocal<SimpleDateFormat> FORMAT_DAY = new ThreadLocal<SimpleDateFormat>() {
 
         protected SimpleDateFormat initialValue() {
@@ -80,6 +83,14 @@ public class HdfsIdConfig {
     private String msgTimeFieldPattern;
     // close partition
     private long maxPartitionOpenDelayHour = 8;
+    // file format, text, orc or parquet
+    private String fileFormat = HdfsFileFormat.TEXT.getName();
+    // compression of the columnar file, the default of the file format if null
+    private String fileCompression;
+    // the names of the columns of the columnar file, the first two are the partition field and the msgTime field
+    private String fieldNames;
+    // the formatted fields of the last msgTime unit, the prefix of the formatted data
+    private volatile FieldPrefix fieldPrefix;
 
     /**
      * get inlongGroupId
@@ -133,6 +144,7 @@ public class HdfsIdConfig {
      */
     public void setSeparator(String separator) {
         this.separator = separator;
+        this.fieldPrefix = null;
     }
 
     /**
@@ -151,6 +163,7 @@ public class HdfsIdConfig {
      */
     public void setPartitionIntervalMs(long partitionIntervalMs) {
         this.partitionIntervalMs = partitionIntervalMs;
+        this.fieldPrefix = null;
     }
 
     /**
@@ -224,6 +237,7 @@ public class HdfsIdConfig {
      */
     public void setPartitionFieldPattern(String partitionFieldPattern) {
         this.partitionFieldPattern = partitionFieldPattern;
+        this.fieldPrefix = null;
     }
 
     /**
@@ -243,6 +257,7 @@ public class HdfsIdConfig {
      */
     public void setMsgTimeFieldPattern(String msgTimeFieldPattern) {
         this.msgTimeFieldPattern = msgTimeFieldPattern;
+        this.fieldPrefix = null;
     }
 
     /**
@@ -281,6 +296,75 @@ public class HdfsIdConfig {
         this.hiveTableName = hiveTableName;
     }
 
+    /**
+     * get fileFormat
+     * 
+     * @return the fileFormat
+     */
+    public String getFileFormat() {
+        return fileFormat;
+    }
+
+    /**
+     * set fileFormat
+     * 
+     * @param fileFormat the fileFormat to set
+     */
+    public void setFileFormat(String fileFormat) {
+        this.fileFormat = fileFormat;
+    }
+
+    /**
+     * get fileCompression
+     * 
+     * @return the fileCompression
+     */
+    public String getFileCompression() {
+        return fileCompression;
+    }
+
+    /**
+     * set fileCompression
+     * 
+     * @param fileCompression the fileCompression to set
+     */
+    public void setFileCompression(String fileCompression) {
+        this.fileCompression = fileCompression;
+    }
+
+    /**
+     * get fieldNames
+     * 
+     * @return the fieldNames
+     */
+    public String getFieldNames() {
+        return fieldNames;
+    }
+
+    /**
+     * set fieldNames
+     * 
+     * @param fieldNames the fieldNames to set
+     */
+    public void setFieldNames(String fieldNames) {
+        this.fieldNames = fieldNames;
+    }
+
+    /**
+     * parseFieldNameList
+     * 
+     * @return the names of the columns of the columnar file
+     */
+    public List<String> parseFieldNameList() {
+        List<String> fieldNameList = new ArrayList<>();
+        if (fieldNames != null) {
+            for (String fieldName : fieldNames.split(FIELD_NAME_SEPARATOR)) {
+                fieldNameList.add(fieldName.trim());
+            }
+        }
+        return fieldNameList;
+    }
+
     /**
      * parsePartitionPath
      * 
@@ -336,4 +420,55 @@ public class HdfsIdConfig {
         return format.format(new Date(msgTime));
 
     }
+
+    /**
+     * parseFieldPrefix, the bytes of the partition field, the separator, the msgTime field and the separator, which
+     * are formatted once per second, or per millisecond if the msgTime field pattern or the partition interval is
+     * finer than a second.
+     * 
+     * @param  msgTime
+     * @return the shared bytes, which must not be modified
+     */
+    public byte[] parseFieldPrefix(long msgTime) {
+        FieldPrefix prefix = this.fieldPrefix;
+        if (prefix != null && msgTime >= 0 && msgTime / prefix.unitMs == prefix.unit) {
+            return prefix.bytes;
+        }
+        byte[] partitionFieldBytes = this.parsePartitionField(msgTime).getBytes();
+        byte[] msgTimeFieldBytes = this.parseMsgTimeField(msgTime).getBytes();
+        byte[] bytes = new byte[partitionFieldBytes.length + SEPARATOR_LENGTH + msgTimeFieldBytes.length
+                + SEPARATOR_LENGTH];
+        int index = 0;
+        System.arraycopy(partitionFieldBytes, 0, bytes, index, partitionFieldBytes.length);
+        index += partitionFieldBytes.length;
+        bytes[index] = (byte) separator.charAt(0);
+        index++;
+        System.arraycopy(msgTimeFieldBytes, 0, bytes, index, msgTimeFieldBytes.length);
+        index += msgTimeFieldBytes.length;
+        bytes[index] = (byte) separator.charAt(0);
+        if (msgTime >= 0) {
+            long unitMs = 1L;
+            if (this.getMsgTimeFieldPattern().indexOf('S') < 0 && partitionIntervalMs % 1000 == 0) {
+                unitMs = 1000L;
+            }
+            this.fieldPrefix = new FieldPrefix(unitMs, msgTime / unitMs, bytes);
+        }
+        return bytes;
+    }
+
+    /**
+     * The formatted fields of a msgTime unit
+     */
+    private static class FieldPrefix {
+
+        private final long unitMs;
+        private final long unit;
+        private final byte[] bytes;
+
+        private FieldPrefix(long unitMs, long unit, byte[] bytes) {
+            this.unitMs = unitMs;
+            this.unit = unit;
+            this.bytes = bytes;
+        }
+    }
 }
@@ -17,17 +17,19 @@
 
 package org.apache.inlong.sort.standalone.sink.hive;
 
+import org.apache.inlong.sort.standalone.dispatch.DispatchProfile;
 import org.apache.inlong.sort.standalone.utils.InlongLoggerFactory;
 
 import org.apache.hadoop.conf.Configuration;
-import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
-import org.apache.hadoop.hdfs.DistributedFileSystem;
 import org.slf4j.Logger;
 
 import java.io.IOException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 
 /**
  * 
@@ -47,15 +49,20 @@ public class HdfsIdFile {
     private final HdfsIdConfig idConfig;
     private final String strIdRootPath;
 
-    private final DistributedFileSystem fs;
+    private final FileSystem fs;
     private final Path intmpPath;
     private final Path inPath;
     private final Path outPath;
     private final Path intmpFilePath;
     private final String strIntmpFile;
-    private final FSDataOutputStream intmpOutput;
+    private final HdfsFileFormat fileFormat;
+    private final IHdfsFileWriter intmpWriter;
+    private final List<DispatchProfile> unackedProfiles = new ArrayList<>();
     private final long createTime;
     private long modifiedTime;
+    // the size and count of the profiles submitted to the file
+    private long openSize;
+    private long openCount;
     private boolean isOpen = true;
 
     /**
@@ -75,22 +82,25 @@ public class HdfsIdFile {
 
         String hdfsPath = context.getHdfsPath();
         this.intmpPath = new Path(hdfsPath + strIdRootPath + SUBPATH_INTMP);
-        this.fs = new DistributedFileSystem();
-        fs.initialize(new Path(hdfsPath).toUri(), new Configuration());
+        // a new instance of the file system of the path, hdfs or the local file system, which is closed by the file
+        this.fs = FileSystem.newInstance(new Path(hdfsPath).toUri(), new Configuration());
         fs.mkdirs(intmpPath);
         this.inPath = new Path(hdfsPath + strIdRootPath + SUBPATH_IN);
         fs.mkdirs(inPath);
         this.outPath = new Path(hdfsPath + strIdRootPath + SUBPATH_OUT);
         fs.mkdirs(outPath);
 
-        this.strIntmpFile = getFileName(context, createTime);
-        this.intmpFilePath = new Path(intmpPath, strIntmpFile);
-        // check if file exists
-        if (fs.exists(intmpFilePath)) {
-            // remove file
-            fs.delete(intmpFilePath, true);
+        // the file rolled in the same millisecond may be still closing, use the next free file name
+        long fileTime = createTime;
+        Path filePath = new Path(intmpPath, getFileName(context, fileTime));
+        while (fs.exists(filePath)) {
+            fileTime++;
+            filePath = new Path(intmpPath, getFileName(context, fileTime));
         }
-        this.intmpOutput = fs.create(intmpFilePath, true);
+        this.strIntmpFile = filePath.getName();
+        this.intmpFilePath = filePath;
+        this.fileFormat = HdfsFileFormat.of(idConfig.getFileFormat());
+        this.intmpWriter = fileFormat.createWriter(fs, intmpFilePath, idConfig);
     }
 
     /**
@@ -101,32 +111,87 @@ public class HdfsIdFile {
      * @return
      */
     public static String getFileName(HiveSinkContext context, long fileTime) {
-        SimpleDateFormat format = new SimpleDateFormat("yyyyMMddHHmmss");
+        SimpleDateFormat format = new SimpleDateFormat("yyyyMMddHHmmssSSS");
         return context.getNodeId() + "." + format.format(new Date(fileTime));
     }
 
     /**
-     * close
+     * ack the written profile after the file is closed and renamed to "in" directory
      * 
-     * @throws IOException
+     * @param profile
      */
-    public void close() {
+    public synchronized void ackOnClose(DispatchProfile profile) {
+        this.unackedProfiles.add(profile);
+    }
+
+    /**
+     * close, the profiles waiting for the file closed are acked if the file is renamed to "in" directory,
+     * or dispatched again.
+     */
+    public synchronized void close() {
+        if (!isOpen) {
+            return;
+        }
         this.isOpen = false;
-        if (intmpOutput != null) {
+        boolean isClosed = false;
+        if (intmpWriter != null) {
             try {
-                intmpOutput.flush();
-                intmpOutput.close();
-                if (intmpOutput.getPos() != 0) {
+                intmpWriter.close();
+                if (intmpWriter.getRowCount() != 0) {
                     Path inFilePath = new Path(this.inPath, strIntmpFile);
-                    fs.rename(intmpFilePath, inFilePath);
+                    isClosed = fs.rename(intmpFilePath, inFilePath);
+                    if (!isClosed) {
+                        LOG.error("fail to rename file:{} to {}", intmpFilePath, inFilePath);
+                        fs.delete(intmpFilePath, true);
+                    }
                 } else {
-                    fs.delete(intmpFilePath, true);
+                    isClosed = true;
+                    if (fs.exists(intmpFilePath)) {
+                        fs.delete(intmpFilePath, true);
+                    }
                 }
                 this.fs.close();
             } catch (Exception e) {
                 LOG.error(e.getMessage(), e);
             }
         }
+        for (DispatchProfile profile : unackedProfiles) {
+            if (isClosed) {
+                profile.ack();
+            } else {
+                context.addSendResultMetric(profile, context.getTaskName(), false, System.currentTimeMillis());
+                context.getDispatchQueue().offer(profile);
+            }
+        }
+        this.unackedProfiles.clear();
+    }
+
+    /**
+     * add the profile submitted to the file
+     * 
+     * @param profile
+     */
+    public void addOpenProfile(DispatchProfile profile) {
+        this.openSize += profile.getSize();
+        this.openCount += profile.getCount();
+    }
+
+    /**
+     * get openSize
+     * 
+     * @return the openSize
+     */
+    public long getOpenSize() {
+        return openSize;
+    }
+
+    /**
+     * get openCount
+     * 
+     * @return the openCount
+     */
+    public long getOpenCount() {
+        return openCount;
     }
 
     /**
@@ -211,12 +276,21 @@ public class HdfsIdFile {
     }
 
     /**
-     * get intmpOutput
+     * get intmpWriter
+     * 
+     * @return the intmpWriter
+     */
+    public IHdfsFileWriter getIntmpWriter() {
+        return intmpWriter;
+    }
+
+    /**
+     * get fileFormat
      * 
-     * @return the intmpOutput
+     * @return the fileFormat
      */
-    public FSDataOutputStream getIntmpOutput() {
-        return intmpOutput;
+    public HdfsFileFormat getFileFormat() {
+        return fileFormat;
     }
 
     /**
@@ -233,7 +307,7 @@ public class HdfsIdFile {
      * 
      * @return the fs
      */
-    public DistributedFileSystem getFs() {
+    public FileSystem getFs() {
         return fs;
     }
 
@@ -204,6 +204,12 @@ public class HiveSink extends AbstractSink implements Configurable {
                 this.hdfsIdFileMap.remove(strIdRootPath);
                 idFile = null;
             }
+            // roll the file on size or time, the profiles waiting for the columnar file closed are bounded
+            if (idFile != null && this.needRoll(idFile)) {
+                this.hdfsIdFileMap.remove(strIdRootPath);
+                context.getOutputPool().execute(idFile::close);
+                idFile = null;
+            }
             if (idFile == null) {
                 try {
                     idFile = new HdfsIdFile(context, idConfig, strIdRootPath);
@@ -220,6 +226,7 @@ public class HiveSink extends AbstractSink implements Configurable {
             }
             long currentTime = System.currentTimeMillis();
             idFile.setModifiedTime(currentTime);
+            idFile.addOpenProfile(dispatchProfile);
             // new runnable
             WriteHdfsFileRunnable writeTask = new WriteHdfsFileRunnable(context, idFile, dispatchProfile);
             context.getOutputPool().execute(writeTask);
@@ -228,6 +235,22 @@ public class HiveSink extends AbstractSink implements Configurable {
         }
     }
 
+    /**
+     * needRoll
+     * 
+     * @param  idFile
+     * @return        boolean
+     */
+    private boolean needRoll(HdfsIdFile idFile) {
+        if (idFile.getOpenSize() >= context.getMaxFileOpenSizeMb() * HiveSinkContext.MB_BYTES
+                || idFile.getOpenCount() >= context.getMaxFileOpenCount()) {
+            return true;
+        }
+        long openOvertime = System.currentTimeMillis()
+                - context.getMaxFileOpenDelayMinute() * HiveSinkContext.MINUTE_MS;
+        return idFile.getCreateTime() < openOvertime;
+    }
+
     /**
      * closeOvertimeFile
      */
@@ -235,9 +258,11 @@ public class HiveSink extends AbstractSink implements Configurable {
         // close overtime file
         long currentTime = System.currentTimeMillis();
         long overtime = currentTime - context.getFileArchiveDelayMinute() * HiveSinkContext.MINUTE_MS;
+        // the file written continuously is closed too, no file is open longer than the force-close horizon
+        long openOvertime = currentTime - context.getMaxFileOpenDelayMinute() * HiveSinkContext.MINUTE_MS;
         Set<String> overtimePathSet = new HashSet<>();
         for (Entry<String, HdfsIdFile> entry : this.hdfsIdFileMap.entrySet()) {
-            if (entry.getValue().getModifiedTime() < overtime) {
+            if (entry.getValue().getModifiedTime() < overtime || entry.getValue().getCreateTime() < openOvertime) {
                 overtimePathSet.add(entry.getKey());
                 entry.getValue().close();
             }
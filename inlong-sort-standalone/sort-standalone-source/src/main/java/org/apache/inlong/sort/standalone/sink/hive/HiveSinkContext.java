@@ -31,7 +31,6 @@ import org.apache.inlong.sort.standalone.utils.InlongLoggerFactory;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.commons.lang3.ClassUtils;
-import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.math.NumberUtils;
 import org.apache.flume.Channel;
 import org.apache.flume.Context;
@@ -40,7 +39,6 @@ import org.slf4j.Logger;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -66,8 +64,13 @@ public class HiveSinkContext extends SinkContext {
     public static final long DEFAULT_TOKEN_OVERTIME = 60L;
     public static final String KEY_MAX_OUTPUT_FILE_SIZE = "maxOutputFileSizeGb";
     public static final long DEFAULT_MAX_OUTPUT_FILE_SIZE = 2L;
+    public static final String KEY_MAX_FILE_OPEN_SIZE = "maxFileOpenSizeMb";
+    public static final long DEFAULT_MAX_FILE_OPEN_SIZE = 256L;
+    public static final String KEY_MAX_FILE_OPEN_COUNT = "maxFileOpenCount";
+    public static final long DEFAULT_MAX_FILE_OPEN_COUNT = 1000000L;
     public static final long MINUTE_MS = 60L * 1000;
     public static final long GB_BYTES = 1024L * 1024 * 1024;
+    public static final long MB_BYTES = 1024L * 1024;
     public static final long KB_BYTES = 1024L;
 
     // hive config
@@ -84,8 +87,13 @@ public class HiveSinkContext extends SinkContext {
     private String hdfsPath;
     private long maxFileOpenDelayMinute = DEFAULT_MAX_FILE_OPEN_DELAY;
     private long fileArchiveDelayMinute = 2 * maxFileOpenDelayMinute;
+    // a file open for maxFileOpenDelayMinute is closed by the next overtime check of the writer
+    private long fileForceCloseMinute = maxFileOpenDelayMinute + fileArchiveDelayMinute;
     private long tokenOvertimeMinute = DEFAULT_TOKEN_OVERTIME;
     private long maxOutputFileSizeGb = DEFAULT_MAX_OUTPUT_FILE_SIZE;
+    // the open file is rolled on the size or count of the written profiles
+    private long maxFileOpenSizeMb = DEFAULT_MAX_FILE_OPEN_SIZE;
+    private long maxFileOpenCount = DEFAULT_MAX_FILE_OPEN_COUNT;
     // hive config
     private String hiveJdbcUrl;
     private String hiveDatabase;
@@ -158,8 +166,11 @@ public class HiveSinkContext extends SinkContext {
             this.hdfsPath = parentContext.getString(KEY_HDFS_PATH);
             this.maxFileOpenDelayMinute = parentContext.getLong(KEY_MAX_FILE_OPEN_DELAY, DEFAULT_MAX_FILE_OPEN_DELAY);
             this.fileArchiveDelayMinute = maxFileOpenDelayMinute + 1;
+            this.fileForceCloseMinute = maxFileOpenDelayMinute + fileArchiveDelayMinute;
             this.tokenOvertimeMinute = parentContext.getLong(KEY_TOKEN_OVERTIME, DEFAULT_TOKEN_OVERTIME);
             this.maxOutputFileSizeGb = parentContext.getLong(KEY_MAX_OUTPUT_FILE_SIZE, DEFAULT_MAX_OUTPUT_FILE_SIZE);
+            this.maxFileOpenSizeMb = parentContext.getLong(KEY_MAX_FILE_OPEN_SIZE, DEFAULT_MAX_FILE_OPEN_SIZE);
+            this.maxFileOpenCount = parentContext.getLong(KEY_MAX_FILE_OPEN_COUNT, DEFAULT_MAX_FILE_OPEN_COUNT);
             // hive config
             this.hiveJdbcUrl = parentContext.getString(KEY_HIVE_JDBC_URL);
             this.hiveDatabase = parentContext.getString(KEY_HIVE_DATABASE);
@@ -180,17 +191,10 @@ public class HiveSinkContext extends SinkContext {
      * @param bid
      */
     public void addSendMetric(DispatchProfile currentRecord, String bid) {
-        Map<String, String> dimensions = new HashMap<>();
-        dimensions.put(SortMetricItem.KEY_CLUSTER_ID, this.getClusterId());
-        dimensions.put(SortMetricItem.KEY_TASK_NAME, this.getTaskName());
-        // metric
-        fillInlongId(currentRecord, dimensions);
-        dimensions.put(SortMetricItem.KEY_SINK_ID, this.getSinkName());
-        dimensions.put(SortMetricItem.KEY_SINK_DATA_ID, bid);
         long msgTime = currentRecord.getDispatchTime();
-        long auditFormatTime = msgTime - msgTime % CommonPropertiesHolder.getAuditFormatInterval();
-        dimensions.put(SortMetricItem.KEY_MESSAGE_TIME, String.valueOf(auditFormatTime));
-        SortMetricItem metricItem = this.getMetricItemSet().findMetricItem(dimensions);
+        SortMetricItem metricItem =
+                this.findSendMetricItem(currentRecord.getInlongGroupId(), currentRecord.getInlongStreamId(),
+                        bid, msgTime);
         long count = currentRecord.getCount();
         long size = currentRecord.getSize();
         metricItem.sendCount.addAndGet(count);
@@ -203,31 +207,10 @@ public class HiveSinkContext extends SinkContext {
      * addReadFailMetric
      */
     public void addSendFailMetric() {
-        Map<String, String> dimensions = new HashMap<>();
-        dimensions.put(SortMetricItem.KEY_CLUSTER_ID, this.getClusterId());
-        dimensions.put(SortMetricItem.KEY_SINK_ID, this.getSinkName());
-        long msgTime = System.currentTimeMillis();
-        long auditFormatTime = msgTime - msgTime % CommonPropertiesHolder.getAuditFormatInterval();
-        dimensions.put(SortMetricItem.KEY_MESSAGE_TIME, String.valueOf(auditFormatTime));
-        SortMetricItem metricItem = this.getMetricItemSet().findMetricItem(dimensions);
+        SortMetricItem metricItem = this.findSendFailMetricItem();
         metricItem.readFailCount.incrementAndGet();
     }
 
-    /**
-     * fillInlongId
-     * 
-     * @param currentRecord
-     * @param dimensions
-     */
-    public static void fillInlongId(DispatchProfile currentRecord, Map<String, String> dimensions) {
-        String inlongGroupId = currentRecord.getInlongGroupId();
-        inlongGroupId = (StringUtils.isBlank(inlongGroupId)) ? "-" : inlongGroupId;
-        String inlongStreamId = currentRecord.getInlongStreamId();
-        inlongStreamId = (StringUtils.isBlank(inlongStreamId)) ? "-" : inlongStreamId;
-        dimensions.put(SortMetricItem.KEY_INLONG_GROUP_ID, inlongGroupId);
-        dimensions.put(SortMetricItem.KEY_INLONG_STREAM_ID, inlongStreamId);
-    }
-
     /**
      * addSendResultMetric
      * 
@@ -237,17 +220,10 @@ public class HiveSinkContext extends SinkContext {
      * @param sendTime
      */
     public void addSendResultMetric(DispatchProfile currentRecord, String bid, boolean result, long sendTime) {
-        Map<String, String> dimensions = new HashMap<>();
-        dimensions.put(SortMetricItem.KEY_CLUSTER_ID, this.getClusterId());
-        dimensions.put(SortMetricItem.KEY_TASK_NAME, this.getTaskName());
-        // metric
-        fillInlongId(currentRecord, dimensions);
-        dimensions.put(SortMetricItem.KEY_SINK_ID, this.getSinkName());
-        dimensions.put(SortMetricItem.KEY_SINK_DATA_ID, bid);
         long msgTime = currentRecord.getDispatchTime();
-        long auditFormatTime = msgTime - msgTime % CommonPropertiesHolder.getAuditFormatInterval();
-        dimensions.put(SortMetricItem.KEY_MESSAGE_TIME, String.valueOf(auditFormatTime));
-        SortMetricItem metricItem = this.getMetricItemSet().findMetricItem(dimensions);
+        SortMetricItem metricItem =
+                this.findSendMetricItem(currentRecord.getInlongGroupId(), currentRecord.getInlongStreamId(),
+                        bid, msgTime);
         long count = currentRecord.getCount();
         long size = currentRecord.getSize();
         if (result) {
@@ -365,6 +341,15 @@ public class HiveSinkContext extends SinkContext {
         return fileArchiveDelayMinute;
     }
 
+    /**
+     * get fileForceCloseMinute
+     * 
+     * @return the fileForceCloseMinute
+     */
+    public long getFileForceCloseMinute() {
+        return fileForceCloseMinute;
+    }
+
     /**
      * get tokenOvertimeMinute
      * 
@@ -383,6 +368,24 @@ public class HiveSinkContext extends SinkContext {
         return maxOutputFileSizeGb;
     }
 
+    /**
+     * get maxFileOpenSizeMb
+     * 
+     * @return the maxFileOpenSizeMb
+     */
+    public long getMaxFileOpenSizeMb() {
+        return maxFileOpenSizeMb;
+    }
+
+    /**
+     * get maxFileOpenCount
+     * 
+     * @return the maxFileOpenCount
+     */
+    public long getMaxFileOpenCount() {
+        return maxFileOpenCount;
+    }
+
     /**
      * get idConfigMap
      * 
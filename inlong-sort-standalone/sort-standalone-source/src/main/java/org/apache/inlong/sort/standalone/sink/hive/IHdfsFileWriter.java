@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.standalone.sink.hive;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * 
+ * IHdfsFileWriter
+ */
+public interface IHdfsFileWriter extends Closeable {
+
+    /**
+     * write the formatted data of an event
+     * 
+     * @param  formatBytes
+     * @throws IOException
+     */
+    void write(byte[] formatBytes) throws IOException;
+
+    /**
+     * flush the written data to the file system, the columnar writers keep the rows of a stripe in memory
+     * 
+     * @throws IOException
+     */
+    void flush() throws IOException;
+
+    /**
+     * get rowCount
+     * 
+     * @return the count of the written rows
+     */
+    long getRowCount();
+}
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.standalone.sink.hive;
+
+import org.apache.inlong.sort.standalone.utils.DelimitedFieldTokenizer;
+
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.ColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.orc.CompressionKind;
+import org.apache.orc.OrcFile;
+import org.apache.orc.TypeDescription;
+import org.apache.orc.Writer;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * OrcHdfsFileWriter, which writes the rows by a batch of 1024 rows into the stripes of ORC, whose string columns
+ * are dictionary encoded when the distinct values are less than the threshold of ORC.
+ */
+public class OrcHdfsFileWriter extends ColumnarHdfsFileWriter {
+
+    public static final CompressionKind DEFAULT_COMPRESSION = CompressionKind.ZLIB;
+
+    private final TypeDescription schema;
+    private Writer writer;
+    private VectorizedRowBatch batch;
+
+    /**
+     * Constructor
+     * 
+     * @param  fs
+     * @param  path
+     * @param  idConfig
+     * @throws IOException
+     */
+    public OrcHdfsFileWriter(FileSystem fs, Path path, HdfsIdConfig idConfig) throws IOException {
+        super(fs, path, idConfig);
+        this.schema = TypeDescription.createStruct();
+        for (String fieldName : fieldNames) {
+            schema.addField(fieldName, TypeDescription.createString());
+        }
+    }
+
+    @Override
+    protected void open() throws IOException {
+        CompressionKind compression = (fileCompression == null)
+                ? DEFAULT_COMPRESSION
+                : CompressionKind.valueOf(fileCompression.toUpperCase(Locale.ROOT));
+        OrcFile.WriterOptions options = OrcFile.writerOptions(fs.getConf())
+                .setSchema(schema)
+                .fileSystem(fs)
+                .compress(compression);
+        this.writer = OrcFile.createWriter(path, options);
+        this.batch = schema.createRowBatch();
+        this.resetBatch();
+    }
+
+    @Override
+    protected void writeRow(DelimitedFieldTokenizer fields) throws IOException {
+        int row = batch.size++;
+        for (int i = 0; i < batch.numCols; i++) {
+            BytesColumnVector vector = (BytesColumnVector) batch.cols[i];
+            if (isNull(fields, i)) {
+                vector.noNulls = false;
+                vector.isNull[row] = true;
+            } else if (fields.isEscaped(i)) {
+                byte[] value = fields.getBytes(i);
+                vector.setVal(row, value, 0, value.length);
+            } else {
+                // copy the field into the buffer of the vector
+                vector.setVal(row, fields.getData(), fields.getStart(i), fields.getLength(i));
+            }
+        }
+        if (batch.size == batch.getMaxSize()) {
+            writer.addRowBatch(batch);
+            this.resetBatch();
+        }
+    }
+
+    @Override
+    protected void closeFile() throws IOException {
+        if (batch.size > 0) {
+            writer.addRowBatch(batch);
+            this.resetBatch();
+        }
+        writer.close();
+    }
+
+    private void resetBatch() {
+        batch.reset();
+        for (ColumnVector vector : batch.cols) {
+            ((BytesColumnVector) vector).initBuffer();
+        }
+    }
+}
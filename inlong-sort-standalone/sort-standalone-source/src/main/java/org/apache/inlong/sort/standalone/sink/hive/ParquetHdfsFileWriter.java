@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.standalone.sink.hive;
+
+import org.apache.inlong.sort.standalone.utils.DelimitedFieldTokenizer;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.hadoop.ParquetFileWriter;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.RecordConsumer;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.OriginalType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Types;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Locale;
+
+/**
+ * ParquetHdfsFileWriter, which writes the fields of a row into the column writers of Parquet without a record
+ * object, with the dictionary encoding of the string columns.
+ */
+public class ParquetHdfsFileWriter extends ColumnarHdfsFileWriter {
+
+    public static final CompressionCodecName DEFAULT_COMPRESSION = CompressionCodecName.GZIP;
+    public static final String SCHEMA_NAME = "inlong";
+
+    private final MessageType schema;
+    private ParquetWriter<DelimitedFieldTokenizer> writer;
+
+    /**
+     * Constructor
+     * 
+     * @param  fs
+     * @param  path
+     * @param  idConfig
+     * @throws IOException
+     */
+    public ParquetHdfsFileWriter(FileSystem fs, Path path, HdfsIdConfig idConfig) throws IOException {
+        super(fs, path, idConfig);
+        Types.MessageTypeBuilder builder = Types.buildMessage();
+        for (String fieldName : fieldNames) {
+            builder.optional(PrimitiveTypeName.BINARY).as(OriginalType.UTF8).named(fieldName);
+        }
+        this.schema = builder.named(SCHEMA_NAME);
+    }
+
+    @Override
+    protected void open() throws IOException {
+        CompressionCodecName compression = (fileCompression == null)
+                ? DEFAULT_COMPRESSION
+                : CompressionCodecName.valueOf(fileCompression.toUpperCase(Locale.ROOT));
+        this.writer = new FieldsWriterBuilder(path, schema)
+                .withConf(fs.getConf())
+                .withWriteMode(ParquetFileWriter.Mode.OVERWRITE)
+                .withCompressionCodec(compression)
+                .withDictionaryEncoding(true)
+                .build();
+    }
+
+    @Override
+    protected void writeRow(DelimitedFieldTokenizer fields) throws IOException {
+        writer.write(fields);
+    }
+
+    @Override
+    protected void closeFile() throws IOException {
+        writer.close();
+    }
+
+    /**
+     * Builder of the writer of the fields
+     */
+    private static class FieldsWriterBuilder
+            extends
+                ParquetWriter.Builder<DelimitedFieldTokenizer, FieldsWriterBuilder> {
+
+        private final MessageType schema;
+
+        private FieldsWriterBuilder(Path path, MessageType schema) {
+            super(path);
+            this.schema = schema;
+        }
+
+        @Override
+        protected FieldsWriterBuilder self() {
+            return this;
+        }
+
+        @Override
+        protected WriteSupport<DelimitedFieldTokenizer> getWriteSupport(Configuration conf) {
+            return new FieldsWriteSupport(schema);
+        }
+    }
+
+    /**
+     * WriteSupport of the fields, the values of the fields are passed to the column writers as the reused bytes,
+     * which are copied by the dictionary and the statistics of Parquet.
+     */
+    private static class FieldsWriteSupport extends WriteSupport<DelimitedFieldTokenizer> {
+
+        private final MessageType schema;
+        private RecordConsumer recordConsumer;
+
+        private FieldsWriteSupport(MessageType schema) {
+            this.schema = schema;
+        }
+
+        @Override
+        public WriteContext init(Configuration configuration) {
+            return new WriteContext(schema, new HashMap<>());
+        }
+
+        @Override
+        public void prepareForWrite(RecordConsumer recordConsumer) {
+            this.recordConsumer = recordConsumer;
+        }
+
+        @Override
+        public void write(DelimitedFieldTokenizer fields) {
+            recordConsumer.startMessage();
+            for (int i = 0; i < schema.getFieldCount(); i++) {
+                if (isNull(fields, i)) {
+                    continue;
+                }
+                Binary value = fields.isEscaped(i)
+                        ? Binary.fromConstantByteArray(fields.getBytes(i))
+                        : Binary.fromReusedByteArray(fields.getData(), fields.getStart(i), fields.getLength(i));
+                String fieldName = schema.getFieldName(i);
+                recordConsumer.startField(fieldName, i);
+                recordConsumer.addBinary(value);
+                recordConsumer.endField(fieldName, i);
+            }
+            recordConsumer.endMessage();
+        }
+    }
+}
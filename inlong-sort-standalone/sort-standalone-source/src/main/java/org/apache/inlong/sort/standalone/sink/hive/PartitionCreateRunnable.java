@@ -146,6 +146,21 @@ public class PartitionCreateRunnable implements Runnable {
         return true;
     }
 
+    /**
+     * isFileClosed, the file of the other file systems has no lease
+     * 
+     * @param  fs
+     * @param  filePath
+     * @return             boolean
+     * @throws IOException
+     */
+    private static boolean isFileClosed(FileSystem fs, Path filePath) throws IOException {
+        if (fs instanceof DistributedFileSystem) {
+            return ((DistributedFileSystem) fs).isFileClosed(filePath);
+        }
+        return true;
+    }
+
     /**
      * process
      * 
@@ -154,18 +169,33 @@ public class PartitionCreateRunnable implements Runnable {
      * @throws FileNotFoundException
      */
     private void process(HdfsIdFile idFile) throws FileNotFoundException, IOException {
-        DistributedFileSystem fs = idFile.getFs();
+        FileSystem fs = idFile.getFs();
+        boolean isConcatenable = idFile.getFileFormat().isConcatenable();
 
         // rename files in "intmp" directory to "in" directory.
         FileStatus[] intmpFiles = fs.listStatus(idFile.getIntmpPath());
         long currentTime = System.currentTimeMillis();
         long fileArchiveDelayTime = currentTime
                 - context.getFileArchiveDelayMinute() * MINUTE_MS;
+        long fileForceCloseTime = currentTime
+                - context.getFileForceCloseMinute() * MINUTE_MS;
         for (FileStatus fileStatus : intmpFiles) {
             if (fileStatus.getModificationTime() > fileArchiveDelayTime) {
                 continue;
             }
             Path intmpFilePath = fileStatus.getPath();
+            // the columnar file keeps its creation time until it is closed, a live writer closes it before
+            // the force-close horizon and holds its hdfs lease until then. The file past the horizon and
+            // out of lease is left by a crashed or failed writer, it has no footer and can not be read,
+            // and its profiles are not acked and dispatched again.
+            if (!isConcatenable) {
+                if (fileStatus.getModificationTime() > fileForceCloseTime || !isFileClosed(fs, intmpFilePath)) {
+                    continue;
+                }
+                LOG.info("delete unclosed file:{},id:{}", intmpFilePath, idConfig.getInlongGroupId());
+                fs.delete(intmpFilePath, true);
+                continue;
+            }
             String strIntmpFile = intmpFilePath.getName();
             Path inFilePath = new Path(idFile.getInPath(), strIntmpFile);
             fs.rename(intmpFilePath, inFilePath);
@@ -180,6 +210,18 @@ public class PartitionCreateRunnable implements Runnable {
             }
         }
 
+        // the columnar files can not be concatenated, rename files in "in" directory to "out" directory.
+        if (!isConcatenable) {
+            for (FileStatus fileStatus : inFiles) {
+                Path inFile = fileStatus.getPath();
+                if (inFile.getName().lastIndexOf(HdfsIdFile.OUTTMP_FILE_POSTFIX) < 0) {
+                    fs.rename(inFile, new Path(idFile.getOutPath(), inFile.getName()));
+                }
+            }
+            this.addPartition(idFile);
+            return;
+        }
+
         // merge and copy files in "in" directory to "outtmp" file.
         long outputFileSize = 0;
         List<Path> concatInFiles = new ArrayList<>();
@@ -219,6 +261,15 @@ public class PartitionCreateRunnable implements Runnable {
             fs.delete(fileStatus.getPath(), true);
         }
 
+        this.addPartition(idFile);
+    }
+
+    /**
+     * addPartition
+     * 
+     * @param idFile
+     */
+    private void addPartition(HdfsIdFile idFile) {
         // execute the sql of adding partition.
         try (Connection conn = context.getHiveConnection()) {
             Statement stat = conn.createStatement();
@@ -244,7 +295,7 @@ public class PartitionCreateRunnable implements Runnable {
      * @param  fs
      * @throws IOException
      */
-    private void concatInFiles2OuttmpFile(HdfsIdFile idFile, List<Path> concatInFiles, DistributedFileSystem fs)
+    private void concatInFiles2OuttmpFile(HdfsIdFile idFile, List<Path> concatInFiles, FileSystem fs)
             throws IOException {
         Path outtmpFilePath = new Path(idFile.getInPath(),
                 HdfsIdFile.getFileName(context, System.currentTimeMillis()) + HdfsIdFile.OUTTMP_FILE_POSTFIX);
@@ -21,7 +21,6 @@ import org.apache.inlong.sort.standalone.channel.ProfileEvent;
 import org.apache.inlong.sort.standalone.dispatch.DispatchProfile;
 import org.apache.inlong.sort.standalone.utils.InlongLoggerFactory;
 
-import org.apache.hadoop.fs.FSDataOutputStream;
 import org.slf4j.Logger;
 
 /**
@@ -64,15 +63,19 @@ public class WriteHdfsFileRunnable implements Runnable {
             }
             try {
                 IEventFormatHandler handler = context.getEventFormatHandler();
-                FSDataOutputStream output = idFile.getIntmpOutput();
+                IHdfsFileWriter writer = idFile.getIntmpWriter();
                 for (ProfileEvent event : profile.getEvents()) {
                     byte[] formatBytes = handler.format(event, idFile.getIdConfig());
-                    output.write(formatBytes);
-                    output.writeByte(HdfsIdFile.SEPARATOR_MESSAGE);
+                    writer.write(formatBytes);
                 }
-                output.flush();
+                writer.flush();
                 context.addSendResultMetric(profile, context.getTaskName(), true, sendTime);
-                profile.ack();
+                if (idFile.getFileFormat().isConcatenable()) {
+                    profile.ack();
+                } else {
+                    // the flushed rows of the columnar file are not readable until the file is closed
+                    idFile.ackOnClose(profile);
+                }
             } catch (Exception e) {
                 LOG.error(e.getMessage(), e);
                 context.addSendResultMetric(profile, context.getTaskName(), false, sendTime);
@@ -17,6 +17,7 @@
 
 package org.apache.inlong.sort.standalone.sink.kafka;
 
+import org.apache.inlong.common.metric.MetricItemHandle;
 import org.apache.inlong.sort.standalone.channel.ProfileEvent;
 import org.apache.inlong.sort.standalone.metrics.SortMetricItem;
 import org.apache.inlong.sort.standalone.utils.Constants;
@@ -30,8 +31,8 @@ import org.apache.flume.Transaction;
 import org.apache.flume.lifecycle.LifecycleState;
 import org.slf4j.Logger;
 
+import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 /** Worker of */
 public class KafkaFederationWorker extends Thread {
@@ -42,7 +43,7 @@ public class KafkaFederationWorker extends Thread {
     private final KafkaFederationSinkContext context;
 
     private final KafkaProducerFederation producerFederation;
-    private final Map<String, String> dimensions = new ConcurrentHashMap<>();
+    private final MetricItemHandle<SortMetricItem> metricItemHandle;
     private LifecycleState status;
 
     /**
@@ -60,9 +61,11 @@ public class KafkaFederationWorker extends Thread {
         this.producerFederation =
                 new KafkaProducerFederation(String.valueOf(workerIndex), this.context);
         this.status = LifecycleState.IDLE;
-        this.dimensions.put(SortMetricItem.KEY_CLUSTER_ID, this.context.getClusterId());
-        this.dimensions.put(SortMetricItem.KEY_TASK_NAME, this.context.getTaskName());
-        this.dimensions.put(SortMetricItem.KEY_SINK_ID, this.context.getSinkName());
+        Map<String, String> dimensions = new HashMap<>();
+        dimensions.put(SortMetricItem.KEY_CLUSTER_ID, this.context.getClusterId());
+        dimensions.put(SortMetricItem.KEY_TASK_NAME, this.context.getTaskName());
+        dimensions.put(SortMetricItem.KEY_SINK_ID, this.context.getSinkName());
+        this.metricItemHandle = this.context.getMetricItemSet().bindMetricItem(dimensions);
     }
 
     /** Entrance of KafkaFederationWorker */
@@ -126,8 +129,7 @@ public class KafkaFederationWorker extends Thread {
                     tx.close();
                 }
                 // metric
-                SortMetricItem metricItem =
-                        this.context.getMetricItemSet().findMetricItem(dimensions);
+                SortMetricItem metricItem = this.metricItemHandle.getItem();
                 metricItem.sendFailCount.incrementAndGet();
                 sleepOneInterval();
             }
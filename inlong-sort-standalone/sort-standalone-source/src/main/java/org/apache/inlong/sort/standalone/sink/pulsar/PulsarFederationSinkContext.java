@@ -35,7 +35,6 @@ import org.apache.flume.Context;
 import org.slf4j.Logger;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -161,17 +160,10 @@ public class PulsarFederationSinkContext extends SinkContext {
      * @param topic
      */
     public void addSendMetric(ProfileEvent currentRecord, String topic) {
-        Map<String, String> dimensions = new HashMap<>();
-        dimensions.put(SortMetricItem.KEY_CLUSTER_ID, this.getClusterId());
-        dimensions.put(SortMetricItem.KEY_TASK_NAME, this.getTaskName());
-        // metric
-        fillInlongId(currentRecord, dimensions);
-        dimensions.put(SortMetricItem.KEY_SINK_ID, this.getSinkName());
-        dimensions.put(SortMetricItem.KEY_SINK_DATA_ID, topic);
         long msgTime = currentRecord.getRawLogTime();
-        long auditFormatTime = msgTime - msgTime % CommonPropertiesHolder.getAuditFormatInterval();
-        dimensions.put(SortMetricItem.KEY_MESSAGE_TIME, String.valueOf(auditFormatTime));
-        SortMetricItem metricItem = this.getMetricItemSet().findMetricItem(dimensions);
+        SortMetricItem metricItem =
+                this.findSendMetricItem(currentRecord.getInlongGroupId(), currentRecord.getInlongStreamId(),
+                        topic, msgTime);
         long count = 1;
         long size = currentRecord.getBody().length;
         metricItem.sendCount.addAndGet(count);
@@ -182,13 +174,7 @@ public class PulsarFederationSinkContext extends SinkContext {
      * addReadFailMetric
      */
     public void addSendFailMetric() {
-        Map<String, String> dimensions = new HashMap<>();
-        dimensions.put(SortMetricItem.KEY_CLUSTER_ID, this.getClusterId());
-        dimensions.put(SortMetricItem.KEY_SINK_ID, this.getSinkName());
-        long msgTime = System.currentTimeMillis();
-        long auditFormatTime = msgTime - msgTime % CommonPropertiesHolder.getAuditFormatInterval();
-        dimensions.put(SortMetricItem.KEY_MESSAGE_TIME, String.valueOf(auditFormatTime));
-        SortMetricItem metricItem = this.getMetricItemSet().findMetricItem(dimensions);
+        SortMetricItem metricItem = this.findSendFailMetricItem();
         metricItem.readFailCount.incrementAndGet();
     }
 
@@ -201,17 +187,10 @@ public class PulsarFederationSinkContext extends SinkContext {
      * @param sendTime
      */
     public void addSendResultMetric(ProfileEvent currentRecord, String topic, boolean result, long sendTime) {
-        Map<String, String> dimensions = new HashMap<>();
-        dimensions.put(SortMetricItem.KEY_CLUSTER_ID, this.getClusterId());
-        dimensions.put(SortMetricItem.KEY_TASK_NAME, this.getTaskName());
-        // metric
-        fillInlongId(currentRecord, dimensions);
-        dimensions.put(SortMetricItem.KEY_SINK_ID, this.getSinkName());
-        dimensions.put(SortMetricItem.KEY_SINK_DATA_ID, topic);
         long msgTime = currentRecord.getRawLogTime();
-        long auditFormatTime = msgTime - msgTime % CommonPropertiesHolder.getAuditFormatInterval();
-        dimensions.put(SortMetricItem.KEY_MESSAGE_TIME, String.valueOf(auditFormatTime));
-        SortMetricItem metricItem = this.getMetricItemSet().findMetricItem(dimensions);
+        SortMetricItem metricItem =
+                this.findSendMetricItem(currentRecord.getInlongGroupId(), currentRecord.getInlongStreamId(),
+                        topic, msgTime);
         long count = 1;
         long size = currentRecord.getBody().length;
         if (result) {
@@ -19,7 +19,6 @@ package org.apache.inlong.sort.standalone.source.sortsdk;
 
 import org.apache.inlong.common.metric.MetricRegister;
 import org.apache.inlong.sort.standalone.channel.ProfileEvent;
-import org.apache.inlong.sort.standalone.config.holder.CommonPropertiesHolder;
 import org.apache.inlong.sort.standalone.metrics.SortMetricItem;
 import org.apache.inlong.sort.standalone.metrics.SortMetricItemSet;
 import org.apache.inlong.sort.standalone.metrics.audit.AuditUtils;
@@ -31,8 +30,6 @@ import javax.annotation.Nullable;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -82,8 +79,7 @@ public final class SortSdkSourceContext extends SourceContext {
             @Nullable final String topic,
             @NotNull(message = "Must specify fetch result") final SortSdkSourceContext.FetchResult fetchResult) {
 
-        final Map<String, String> dimensions = this.createSortSdkSourceDimensionMap(event, sortId, topic);
-        final SortMetricItem metricItem = metricItemSet.findMetricItem(dimensions);
+        final SortMetricItem metricItem = this.findSortSdkSourceMetricItem(event, sortId, topic);
         final int msgSize = event != null ? event.getBody().length : -1;
         this.reportToMetric(event, metricItem, fetchResult, msgSize);
     }
@@ -131,7 +127,7 @@ public final class SortSdkSourceContext extends SourceContext {
     }
 
     /**
-     * Generator of report dimensions.
+     * Finder of report metric item.
      *
      * <p> For the case of fetch {@link FetchResult#FAILURE}, the event may be null,
      * the {@link org.apache.inlong.sort.standalone.utils.Constants#INLONG_GROUP_ID}
@@ -141,25 +137,21 @@ public final class SortSdkSourceContext extends SourceContext {
      * @param sortId Sort id of fetched event.
      * @param topic Topic of event.
      *
-     * @return The dimensions of reported event.
+     * @return The metric item of reported event.
      */
-    private Map<String, String> createSortSdkSourceDimensionMap(
+    private SortMetricItem findSortSdkSourceMetricItem(
             final ProfileEvent event,
             final String sortId,
             final String topic) {
 
-        final Map<String, String> dimensions = new HashMap<>();
-        dimensions.put(SortMetricItem.KEY_CLUSTER_ID, this.getClusterId());
-        dimensions.put(SortMetricItem.KEY_SOURCE_ID, this.getSourceName());
-        dimensions.put(SortMetricItem.KEY_TASK_NAME, sortId);
-        dimensions.put(SortMetricItem.KEY_SOURCE_DATA_ID, topic);
-        if (event != null) {
-            SortMetricItem.fillInlongId(event, dimensions);
-            long msgTime = event.getRawLogTime();
-            long auditFormatTime = msgTime - msgTime % CommonPropertiesHolder.getAuditFormatInterval();
-            dimensions.put(SortMetricItem.KEY_MESSAGE_TIME, String.valueOf(auditFormatTime));
+        if (event == null) {
+            return metricItemSet.findMetricItem(this.getClusterId(), sortId, this.getSourceName(), topic,
+                    null, null, null, null, SortMetricItemSet.NO_MSG_TIME);
         }
-        return dimensions;
+        return metricItemSet.findMetricItem(this.getClusterId(), sortId, this.getSourceName(), topic,
+                SortMetricItem.getInlongGroupId(event.getHeaders()),
+                SortMetricItem.getInlongStreamId(event.getHeaders()), null, null,
+                SortMetricItem.getAuditFormatTime(event.getRawLogTime()));
     }
 
 }
@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.standalone.sink.clickhouse;
+
+import org.apache.inlong.sdk.commons.protocol.EventConstants;
+import org.apache.inlong.sort.standalone.channel.ProfileEvent;
+import org.apache.inlong.sort.standalone.utils.Constants;
+
+import org.apache.commons.math3.util.Pair;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Proxy;
+import java.nio.charset.Charset;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Benchmark of binding the 50 columns tab separated records to a statement by the column value map and by the
+ * tokenized fields, reports the records per second and the allocated bytes per record.
+ *
+ * The statement is a proxy without any work, whose invocation cost is in both of the results.
+ */
+public class DefaultEventHandlerBenchmark {
+
+    private static final int COLUMNS = 50;
+    private static final int RECORDS = 1024;
+    private static final int WARMUP_ROUNDS = 200;
+    private static final int ROUNDS = 500;
+
+    private interface Binder {
+
+        void bind(ProfileEvent event) throws SQLException;
+    }
+
+    public static void main(String[] args) throws Exception {
+        ClickHouseIdConfig idConfig = prepareIdConfig();
+        ProfileEvent[] events = prepareEvents();
+        PreparedStatement pstat = (PreparedStatement) Proxy.newProxyInstance(
+                DefaultEventHandlerBenchmark.class.getClassLoader(), new Class<?>[]{PreparedStatement.class},
+                (proxy, method, methodArgs) -> null);
+        DefaultEventHandler handler = new DefaultEventHandler();
+        run("map", events, event -> handler.setValue(idConfig, handler.parse(idConfig, event), pstat));
+        run("tokenizer", events, event -> handler.setValue(idConfig, event, pstat));
+    }
+
+    private static void run(String name, ProfileEvent[] events, Binder binder) throws SQLException {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            for (ProfileEvent event : events) {
+                binder.bind(event);
+            }
+        }
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long allocated = threadBean.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            for (ProfileEvent event : events) {
+                binder.bind(event);
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        allocated = threadBean.getThreadAllocatedBytes(threadId) - allocated;
+        long records = (long) ROUNDS * RECORDS;
+        System.out.printf("%-10s %,12.0f records/s %,8d B/record%n", name, records * 1e9 / elapsed,
+                allocated / records);
+    }
+
+    private static ClickHouseIdConfig prepareIdConfig() {
+        ClickHouseIdConfig idConfig = new ClickHouseIdConfig();
+        idConfig.setSeparator("\t");
+        List<String> contentFieldList = new ArrayList<>(COLUMNS);
+        List<Pair<String, Integer>> dbFieldList = new ArrayList<>(COLUMNS + 2);
+        for (int i = 0; i < COLUMNS; i++) {
+            contentFieldList.add("c" + i);
+            dbFieldList.add(new Pair<>("c" + i, columnType(i)));
+        }
+        dbFieldList.add(new Pair<>("ftime", Types.TIMESTAMP));
+        dbFieldList.add(new Pair<>("extinfo", Types.VARCHAR));
+        idConfig.setContentFieldList(contentFieldList);
+        idConfig.setDbFieldList(dbFieldList);
+        return idConfig;
+    }
+
+    // 20 integers, 5 doubles and 25 strings
+    private static int columnType(int column) {
+        if (column % 2 == 0 && column < 40) {
+            return column % 4 == 0 ? Types.BIGINT : Types.INTEGER;
+        }
+        return column % 10 == 9 ? Types.DOUBLE : Types.VARCHAR;
+    }
+
+    private static ProfileEvent[] prepareEvents() {
+        Random random = new Random(0);
+        ProfileEvent[] events = new ProfileEvent[RECORDS];
+        long msgTime = 1672599845000L;
+        for (int i = 0; i < RECORDS; i++) {
+            StringBuilder builder = new StringBuilder();
+            for (int column = 0; column < COLUMNS; column++) {
+                if (column > 0) {
+                    builder.append('\t');
+                }
+                switch (columnType(column)) {
+                    case Types.BIGINT:
+                        builder.append(random.nextLong());
+                        break;
+                    case Types.INTEGER:
+                        builder.append(random.nextInt(1000000));
+                        break;
+                    case Types.DOUBLE:
+                        builder.append(random.nextInt(100000) / 100.0);
+                        break;
+                    default:
+                        builder.append("value_").append(Integer.toHexString(random.nextInt()));
+                        break;
+                }
+            }
+            Map<String, String> headers = new HashMap<>();
+            headers.put(Constants.HEADER_KEY_MSG_TIME, String.valueOf(msgTime + i * 10L));
+            headers.put(EventConstants.HEADER_KEY_SOURCE_IP, "127.0.0.1");
+            events[i] = new ProfileEvent(headers, builder.toString().getBytes(Charset.defaultCharset()));
+        }
+        return events;
+    }
+}
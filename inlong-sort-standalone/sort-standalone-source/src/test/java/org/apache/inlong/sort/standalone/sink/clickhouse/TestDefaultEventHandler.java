@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.standalone.sink.clickhouse;
+
+import org.apache.inlong.sdk.commons.protocol.EventConstants;
+import org.apache.inlong.sort.standalone.channel.ProfileEvent;
+import org.apache.inlong.sort.standalone.utils.Constants;
+
+import org.apache.commons.math3.util.Pair;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.Charset;
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ *
+ * TestDefaultEventHandler
+ */
+public class TestDefaultEventHandler {
+
+    private static final String[] BODIES =
+            {"", "1", "1|2", "1|-2|300|4000000000|5.5|6.25|7.125|abc|2023-01-02 03:04:05",
+                    "127|32767|2147483647|9223372036854775807|x|y|z|a\\|b|2023-01-02 03:04:05|1:2|dup|extra",
+                    "128|32768|2147483648|9223372036854775808|||||bad date|", "-|+|1\\0|\\n|1e3|中文|1.5|a\\\\|\\|"};
+
+    @Test
+    public void testSetValue() throws Exception {
+        for (int contentOffset : new int[]{0, 1}) {
+            ClickHouseIdConfig idConfig = prepareIdConfig(contentOffset);
+            for (String body : BODIES) {
+                String content = contentOffset > 0 ? "\t" + body : body;
+                ProfileEvent event = prepareEvent(content.getBytes(Charset.defaultCharset()));
+                DefaultEventHandler handler = new DefaultEventHandler();
+                Map<Integer, Object> expects = new HashMap<>();
+                handler.setValue(idConfig, handler.parse(idConfig, event), recordStatement(expects));
+                Map<Integer, Object> actuals = new HashMap<>();
+                handler.setValue(idConfig, event, recordStatement(actuals));
+                Assert.assertEquals(content, expects, actuals);
+                Assert.assertEquals(idConfig.getDbFieldList().size(), actuals.size());
+            }
+        }
+    }
+
+    private static ClickHouseIdConfig prepareIdConfig(int contentOffset) {
+        ClickHouseIdConfig idConfig = new ClickHouseIdConfig();
+        idConfig.setInlongGroupId("testGroup");
+        idConfig.setInlongStreamId("testStream");
+        idConfig.setContentOffset(contentOffset);
+        idConfig.setContentFieldList(ClickHouseIdConfig.parseFieldNames(
+                "f_byte,f_short,f_int,f_long,f_float,f_double,f_numeric,f_string,f_timestamp,f_string,ftime"));
+        List<Pair<String, Integer>> dbFieldList = new ArrayList<>();
+        dbFieldList.add(new Pair<>("f_byte", Types.TINYINT));
+        dbFieldList.add(new Pair<>("f_short", Types.SMALLINT));
+        dbFieldList.add(new Pair<>("f_int", Types.INTEGER));
+        dbFieldList.add(new Pair<>("f_long", Types.BIGINT));
+        dbFieldList.add(new Pair<>("f_float", Types.FLOAT));
+        dbFieldList.add(new Pair<>("f_double", Types.DOUBLE));
+        dbFieldList.add(new Pair<>("f_string", Types.VARCHAR));
+        dbFieldList.add(new Pair<>("f_timestamp", Types.TIMESTAMP));
+        dbFieldList.add(new Pair<>("f_timestamp", Types.DATE));
+        dbFieldList.add(new Pair<>("f_missing", Types.INTEGER));
+        dbFieldList.add(new Pair<>("f_missing", Types.VARCHAR));
+        dbFieldList.add(new Pair<>("ftime", Types.TIMESTAMP));
+        dbFieldList.add(new Pair<>("extinfo", Types.VARCHAR));
+        idConfig.setDbFieldList(dbFieldList);
+        return idConfig;
+    }
+
+    private static ProfileEvent prepareEvent(byte[] body) {
+        Map<String, String> headers = new HashMap<>();
+        headers.put(Constants.INLONG_GROUP_ID, "testGroup");
+        headers.put(Constants.INLONG_STREAM_ID, "testStream");
+        headers.put(Constants.HEADER_KEY_MSG_TIME, "1672599845123");
+        headers.put(EventConstants.HEADER_KEY_SOURCE_IP, "127.0.0.1");
+        return new ProfileEvent(headers, body);
+    }
+
+    private static PreparedStatement recordStatement(Map<Integer, Object> values) {
+        return (PreparedStatement) Proxy.newProxyInstance(TestDefaultEventHandler.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                    if (method.getName().startsWith("set") && args != null && args.length == 2) {
+                        values.put((Integer) args[0], Arrays.asList(method.getName(), args[1]));
+                    }
+                    return null;
+                });
+    }
+}
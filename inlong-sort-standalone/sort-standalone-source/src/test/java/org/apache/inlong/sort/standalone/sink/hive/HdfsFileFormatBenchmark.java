@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.standalone.sink.hive;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+
+/**
+ * Benchmark of writing the 50 columns records into the text, ORC and Parquet files on the local file system,
+ * reports the records per second and the file size.
+ */
+public class HdfsFileFormatBenchmark {
+
+    private static final int COLUMNS = 50;
+    private static final int RECORDS = 200000;
+    private static final int DISTINCT_RECORDS = 4096;
+    private static final String[] CITIES = {"shenzhen", "beijing", "shanghai", "guangzhou", "hangzhou"};
+    private static final String[] STATES = {"success", "failure", "timeout"};
+
+    public static void main(String[] args) throws Exception {
+        byte[][] records = prepareRecords();
+        java.nio.file.Path dir = Files.createTempDirectory("hdfs-file-format");
+        FileSystem fs = FileSystem.getLocal(new Configuration());
+        StringBuilder fieldNames = new StringBuilder("dt_value,msg_time");
+        for (int i = 0; i < COLUMNS; i++) {
+            fieldNames.append(",c").append(i);
+        }
+        for (HdfsFileFormat format : HdfsFileFormat.values()) {
+            HdfsIdConfig idConfig = new HdfsIdConfig();
+            idConfig.setFileFormat(format.getName());
+            idConfig.setFieldNames(fieldNames.toString());
+            // warm up
+            run(fs, new Path(dir.toString(), "warmup." + format.getName()), format, idConfig, records);
+            Path path = new Path(dir.toString(), "benchmark." + format.getName());
+            long start = System.nanoTime();
+            run(fs, path, format, idConfig, records);
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("%-8s %,10.0f records/s %,14d bytes%n", format.getName(), RECORDS * 1e9 / elapsed,
+                    fs.getFileStatus(path).getLen());
+        }
+        fs.delete(new Path(dir.toString()), true);
+    }
+
+    private static void run(FileSystem fs, Path path, HdfsFileFormat format, HdfsIdConfig idConfig,
+            byte[][] records) throws Exception {
+        try (IHdfsFileWriter writer = format.createWriter(fs, path, idConfig)) {
+            for (int i = 0; i < RECORDS; i++) {
+                writer.write(records[i % DISTINCT_RECORDS]);
+            }
+            writer.flush();
+        }
+    }
+
+    private static byte[][] prepareRecords() {
+        Random random = new Random(0);
+        byte[][] records = new byte[DISTINCT_RECORDS][];
+        for (int i = 0; i < DISTINCT_RECORDS; i++) {
+            StringBuilder builder = new StringBuilder("2023010100|2023-01-01 00:");
+            builder.append(String.format("%02d:%02d", i / 60 % 60, i % 60));
+            for (int column = 0; column < COLUMNS; column++) {
+                builder.append('|');
+                switch (column % 5) {
+                    case 0:
+                        builder.append(random.nextInt(1000000));
+                        break;
+                    case 1:
+                        builder.append(CITIES[random.nextInt(CITIES.length)]);
+                        break;
+                    case 2:
+                        builder.append(STATES[random.nextInt(STATES.length)]);
+                        break;
+                    case 3:
+                        builder.append(random.nextInt(100000) / 100.0);
+                        break;
+                    default:
+                        builder.append("value_").append(Integer.toHexString(random.nextInt()));
+                        break;
+                }
+            }
+            records[i] = builder.toString().getBytes(StandardCharsets.UTF_8);
+        }
+        return records;
+    }
+}
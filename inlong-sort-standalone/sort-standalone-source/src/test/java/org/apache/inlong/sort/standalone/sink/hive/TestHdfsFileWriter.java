@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.sort.standalone.sink.hive;
+
+import org.apache.inlong.sort.standalone.utils.UnescapeHelper;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.orc.OrcFile;
+import org.apache.orc.Reader;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.convert.GroupRecordConverter;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.util.HadoopInputFile;
+import org.apache.parquet.io.ColumnIOFactory;
+import org.apache.parquet.io.RecordReader;
+import org.apache.parquet.schema.MessageType;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 
+ * TestHdfsFileWriter
+ */
+public class TestHdfsFileWriter {
+
+    private static final String FIELD_NAMES = "dt_value,msg_time,f1,f2,f3";
+    private static final int FIELD_COUNT = 5;
+    private static final String[] LINES = {"2023010100|2023-01-01 00:00:00|a|b\\|c|\\N",
+            "2023010100|2023-01-01 00:00:01|中文", "2023010100|2023-01-01 00:00:02|a|b|c|d|e",
+            "2023010100|2023-01-01 00:00:03||\\n|"};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testText() throws Exception {
+        FileSystem fs = FileSystem.getLocal(new Configuration());
+        Path path = new Path(folder.getRoot().getAbsolutePath(), "test.txt");
+        write(HdfsFileFormat.TEXT.createWriter(fs, path, prepareIdConfig(HdfsFileFormat.TEXT)));
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(fs.open(path), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        Assert.assertEquals(Arrays.asList(LINES), lines);
+    }
+
+    @Test
+    public void testOrc() throws Exception {
+        FileSystem fs = FileSystem.getLocal(new Configuration());
+        Path path = new Path(folder.getRoot().getAbsolutePath(), "test.orc");
+        IHdfsFileWriter writer = HdfsFileFormat.ORC.createWriter(fs, path, prepareIdConfig(HdfsFileFormat.ORC));
+        writer.close();
+        Assert.assertFalse(fs.exists(path));
+        write(HdfsFileFormat.ORC.createWriter(fs, path, prepareIdConfig(HdfsFileFormat.ORC)));
+        List<List<String>> rows = new ArrayList<>();
+        Reader reader = OrcFile.createReader(path, OrcFile.readerOptions(fs.getConf()).filesystem(fs));
+        try (org.apache.orc.RecordReader recordReader = reader.rows()) {
+            VectorizedRowBatch batch = reader.getSchema().createRowBatch();
+            while (recordReader.nextBatch(batch)) {
+                for (int row = 0; row < batch.size; row++) {
+                    List<String> values = new ArrayList<>();
+                    for (int i = 0; i < batch.numCols; i++) {
+                        BytesColumnVector vector = (BytesColumnVector) batch.cols[i];
+                        int index = vector.isRepeating ? 0 : row;
+                        values.add(!vector.noNulls && vector.isNull[index] ? null
+                                : new String(vector.vector[index], vector.start[index], vector.length[index],
+                                        StandardCharsets.UTF_8));
+                    }
+                    rows.add(values);
+                }
+            }
+        }
+        Assert.assertEquals(expectRows(), rows);
+    }
+
+    @Test
+    public void testParquet() throws Exception {
+        FileSystem fs = FileSystem.getLocal(new Configuration());
+        Path path = new Path(folder.getRoot().getAbsolutePath(), "test.parquet");
+        write(HdfsFileFormat.PARQUET.createWriter(fs, path, prepareIdConfig(HdfsFileFormat.PARQUET)));
+        List<List<String>> rows = new ArrayList<>();
+        // read by the file reader, as the ParquetReader depends on the mapreduce input format
+        try (ParquetFileReader reader = ParquetFileReader.open(HadoopInputFile.fromPath(path, fs.getConf()))) {
+            MessageType schema = reader.getFooter().getFileMetaData().getSchema();
+            PageReadStore pages;
+            while ((pages = reader.readNextRowGroup()) != null) {
+                RecordReader<Group> recordReader = new ColumnIOFactory().getColumnIO(schema)
+                        .getRecordReader(pages, new GroupRecordConverter(schema));
+                for (long row = 0; row < pages.getRowCount(); row++) {
+                    Group group = recordReader.read();
+                    List<String> values = new ArrayList<>();
+                    for (int i = 0; i < FIELD_COUNT; i++) {
+                        values.add(group.getFieldRepetitionCount(i) == 0 ? null : group.getString(i, 0));
+                    }
+                    rows.add(values);
+                }
+            }
+        }
+        Assert.assertEquals(expectRows(), rows);
+    }
+
+    private static HdfsIdConfig prepareIdConfig(HdfsFileFormat format) {
+        HdfsIdConfig idConfig = new HdfsIdConfig();
+        idConfig.setInlongGroupId("testGroup");
+        idConfig.setInlongStreamId("testStream");
+        idConfig.setFileFormat(format.getName());
+        idConfig.setFieldNames(FIELD_NAMES);
+        return idConfig;
+    }
+
+    private static void write(IHdfsFileWriter writer) throws Exception {
+        for (String line : LINES) {
+            writer.write(line.getBytes(StandardCharsets.UTF_8));
+        }
+        writer.flush();
+        writer.close();
+        Assert.assertEquals(LINES.length, writer.getRowCount());
+    }
+
+    private static List<List<String>> expectRows() {
+        List<List<String>> rows = new ArrayList<>();
+        for (String line : LINES) {
+            List<String> fields = UnescapeHelper.toFiledList(line, '|');
+            List<String> values = new ArrayList<>();
+            for (int i = 0; i < FIELD_COUNT; i++) {
+                String value = i < fields.size() ? fields.get(i) : null;
+                values.add("\\N".equals(value) ? null : value);
+            }
+            rows.add(values);
+        }
+        return rows;
+    }
+}
@@ -17,7 +17,7 @@
 
 package org.apache.inlong.sort.formats.inlongmsg;
 
-import org.apache.inlong.common.msg.InLongMsg;
+import org.apache.inlong.common.msg.InLongMsgView;
 import org.apache.inlong.sort.formats.base.TableFormatDeserializer;
 
 import org.apache.flink.types.Row;
@@ -27,8 +27,8 @@ import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
-import java.util.Iterator;
 import java.util.Objects;
 
 /**
@@ -46,6 +46,8 @@ public abstract class AbstractInLongMsgFormatDeserializer implements TableFormat
     @Nonnull
     protected final Boolean ignoreErrors;
 
+    private transient InLongMsgView msgView;
+
     public AbstractInLongMsgFormatDeserializer(@Nonnull Boolean ignoreErrors) {
         this.ignoreErrors = ignoreErrors;
     }
@@ -69,61 +71,61 @@ public abstract class AbstractInLongMsgFormatDeserializer implements TableFormat
     public void flatMap(
             byte[] bytes,
             Collector<Row> collector) throws Exception {
-        InLongMsg inLongMsg = InLongMsg.parseFrom(bytes);
+        // not the view of the thread, which may be reset by a chained deserializer in collect()
+        if (msgView == null) {
+            msgView = new InLongMsgView();
+        }
+        if (!msgView.reset(ByteBuffer.wrap(bytes))) {
+            return;
+        }
 
-        for (String attr : inLongMsg.getAttrs()) {
-            Iterator<byte[]> iterator = inLongMsg.getIterator(attr);
-            if (iterator == null) {
+        InLongMsgHead head = null;
+        while (msgView.next()) {
+            if (msgView.isAttrChanged()) {
+                String attr = msgView.getAttr();
+                try {
+                    head = parseHead(attr);
+                } catch (Exception e) {
+                    if (ignoreErrors) {
+                        LOG.warn("Cannot properly parse the head {}.", attr, e);
+                        head = null;
+                    } else {
+                        throw e;
+                    }
+                }
+            }
+            if (head == null || msgView.getDataLength() == 0) {
                 continue;
             }
 
-            InLongMsgHead head;
+            byte[] bodyBytes = msgView.copyData();
+            InLongMsgBody body;
             try {
-                head = parseHead(attr);
+                body = parseBody(bodyBytes);
             } catch (Exception e) {
                 if (ignoreErrors) {
-                    LOG.warn("Cannot properly parse the head {}.", attr, e);
+                    LOG.warn("Cannot properly parse the body {}.",
+                            Arrays.toString(bodyBytes), e);
                     continue;
                 } else {
                     throw e;
                 }
             }
 
-            while (iterator.hasNext()) {
-
-                byte[] bodyBytes = iterator.next();
-                if (bodyBytes == null || bodyBytes.length == 0) {
+            Row row;
+            try {
+                row = convertRow(head, body);
+            } catch (Exception e) {
+                if (ignoreErrors) {
+                    LOG.warn("Cannot properly convert the inlongmsg ({}, {}) " + "to row.", head, body, e);
                     continue;
+                } else {
+                    throw e;
                 }
+            }
 
-                InLongMsgBody body;
-                try {
-                    body = parseBody(bodyBytes);
-                } catch (Exception e) {
-                    if (ignoreErrors) {
-                        LOG.warn("Cannot properly parse the body {}.",
-                                Arrays.toString(bodyBytes), e);
-                        continue;
-                    } else {
-                        throw e;
-                    }
-                }
-
-                Row row;
-                try {
-                    row = convertRow(head, body);
-                } catch (Exception e) {
-                    if (ignoreErrors) {
-                        LOG.warn("Cannot properly convert the inlongmsg ({}, {}) " + "to row.", head, body, e);
-                        continue;
-                    } else {
-                        throw e;
-                    }
-                }
-
-                if (row != null) {
-                    collector.collect(row);
-                }
+            if (row != null) {
+                collector.collect(row);
             }
         }
     }
@@ -18,6 +18,7 @@
 package org.apache.inlong.sort.formats.inlongmsg;
 
 import org.apache.inlong.common.msg.InLongMsg;
+import org.apache.inlong.common.msg.InLongMsgView;
 import org.apache.inlong.sort.formats.base.collectors.TimestampedCollector;
 
 import com.google.common.base.Objects;
@@ -32,9 +33,9 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Iterator;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -55,6 +56,8 @@ public class InLongMsgDeserializationSchema implements DeserializationSchema<Row
     /** status of error */
     private final boolean ignoreErrors;
 
+    private transient InLongMsgView msgView;
+
     public InLongMsgDeserializationSchema(
             DeserializationSchema<RowData> schema,
             MetadataConverter[] metadataConverters,
@@ -79,43 +82,43 @@ public class InLongMsgDeserializationSchema implements DeserializationSchema<Row
 
     @Override
     public void deserialize(byte[] message, Collector<RowData> out) throws IOException {
-        InLongMsg inLongMsg = InLongMsg.parseFrom(message);
-
-        for (String attr : inLongMsg.getAttrs()) {
-            InLongMsgHead head;
-            try {
-                head = InLongMsgUtils.parseHead(attr);
-            } catch (Throwable t) {
-                if (ignoreErrors) {
-                    LOGGER.warn("Ignore inlong msg attr({})parse error.", attr, t);
-                    continue;
+        // not the view of the thread, which may be reset by a chained deserializer in collect()
+        if (msgView == null) {
+            msgView = new InLongMsgView();
+        }
+        if (!msgView.reset(ByteBuffer.wrap(message))) {
+            return;
+        }
+
+        InLongMsgHead head = null;
+        while (msgView.next()) {
+            if (msgView.isAttrChanged()) {
+                String attr = msgView.getAttr();
+                try {
+                    head = InLongMsgUtils.parseHead(attr);
+                } catch (Throwable t) {
+                    if (ignoreErrors) {
+                        LOGGER.warn("Ignore inlong msg attr({})parse error.", attr, t);
+                        head = null;
+                    } else {
+                        throw new IOException(
+                                "Failed to deserialize InLongMsg row '" + new String(message) + "'.", t);
+                    }
                 }
-                throw new IOException(
-                        "Failed to deserialize InLongMsg row '" + new String(message) + "'.", t);
             }
-
-            Iterator<byte[]> iterator = inLongMsg.getIterator(attr);
-            if (iterator == null) {
+            if (head == null || msgView.getDataLength() == 0) {
                 continue;
             }
 
-            while (iterator.hasNext()) {
-
-                byte[] bodyBytes = iterator.next();
-                long bodyLength = bodyBytes == null ? 0 : bodyBytes.length;
-
-                if (bodyLength == 0) {
-                    continue;
-                }
-
-                if (out instanceof TimestampedCollector) {
-                    ((TimestampedCollector<RowData>) out).resetTimestamp(head.getTime().getTime());
-                }
+            if (out instanceof TimestampedCollector) {
+                ((TimestampedCollector<RowData>) out).resetTimestamp(head.getTime().getTime());
+            }
 
-                List<RowData> list = new ArrayList<>();
-                ListCollector<RowData> collector = new ListCollector<>(list);
-                deserializationSchema.deserialize(bodyBytes, collector);
-                list.forEach(rowdata -> emitRow(head, (GenericRowData) rowdata, out));
+            List<RowData> list = new ArrayList<>();
+            ListCollector<RowData> collector = new ListCollector<>(list);
+            deserializationSchema.deserialize(msgView.copyData(), collector);
+            for (RowData rowData : list) {
+                emitRow(head, (GenericRowData) rowData, out);
             }
         }
 
@@ -34,6 +34,10 @@ public class TClientConstants {
     public static final int CFG_DEFAULT_CLIENT_PUSH_FETCH_THREAD_CNT =
             Runtime.getRuntime().availableProcessors();
 
+    public static final long CFG_DEFAULT_BATCH_LINGER_MS = 5L;
+    public static final int CFG_DEFAULT_BATCH_MAX_MSG_COUNT = 200;
+    public static final int CFG_DEFAULT_BATCH_MAX_DATA_SIZE = 512 * 1024;
+
     public static final int MAX_CONNECTION_FAILURE_LOG_TIMES = 10;
     public static final int MAX_SUBSCRIBE_REPORT_INTERVAL_TIMES = 6;
 
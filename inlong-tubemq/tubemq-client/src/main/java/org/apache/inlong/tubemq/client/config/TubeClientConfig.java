@@ -21,11 +21,16 @@ import org.apache.inlong.tubemq.client.common.StatsConfig;
 import org.apache.inlong.tubemq.client.common.StatsLevel;
 import org.apache.inlong.tubemq.client.common.TClientConstants;
 import org.apache.inlong.tubemq.corebase.cluster.MasterInfo;
+import org.apache.inlong.tubemq.corebase.compress.CompressType;
 import org.apache.inlong.tubemq.corebase.config.TLSConfig;
 import org.apache.inlong.tubemq.corebase.utils.AddressUtils;
 import org.apache.inlong.tubemq.corebase.utils.TStringUtils;
 import org.apache.inlong.tubemq.corerpc.RpcConstants;
 
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
 /**
  * Configuration of the Tube client.
  */
@@ -88,6 +93,18 @@ public class TubeClientConfig {
     private long linkMaxAllowedDelayedMsgCount = 50000;
     // Max allowed delayed message number in a session.
     private long sessionMaxAllowedDelayedMsgCount = 500000;
+    // Whether to batch the asynchronously sent messages by partition.
+    private boolean enableBatchSend = false;
+    // Max wait time of a batch before it is sent.
+    private long batchLingerMs = TClientConstants.CFG_DEFAULT_BATCH_LINGER_MS;
+    // Max message count of a batch.
+    private int batchMaxMsgCount = TClientConstants.CFG_DEFAULT_BATCH_MAX_MSG_COUNT;
+    // Max total data size of a batch.
+    private int batchMaxDataSize = TClientConstants.CFG_DEFAULT_BATCH_MAX_DATA_SIZE;
+    // Compress type of the batched messages with the same attribute.
+    private CompressType batchCompressType = CompressType.NONE;
+    // Topics whose consumers all decode the compressed batches.
+    private Set<String> batchCompressTopics = Collections.emptySet();
     // Enable user auth.
     private boolean enableUserAuthentic = false;
     // User name.
@@ -369,6 +386,97 @@ public class TubeClientConfig {
         this.sessionMaxAllowedDelayedMsgCount = sessionMaxAllowedDelayedMsgCount;
     }
 
+    public boolean isEnableBatchSend() {
+        return enableBatchSend;
+    }
+
+    public void setEnableBatchSend(boolean enableBatchSend) {
+        this.enableBatchSend = enableBatchSend;
+    }
+
+    public long getBatchLingerMs() {
+        return batchLingerMs;
+    }
+
+    public void setBatchLingerMs(long batchLingerMs) {
+        if (batchLingerMs <= 0) {
+            this.batchLingerMs = TClientConstants.CFG_DEFAULT_BATCH_LINGER_MS;
+        } else {
+            this.batchLingerMs = batchLingerMs;
+        }
+    }
+
+    public int getBatchMaxMsgCount() {
+        return batchMaxMsgCount;
+    }
+
+    public void setBatchMaxMsgCount(int batchMaxMsgCount) {
+        if (batchMaxMsgCount <= 0) {
+            this.batchMaxMsgCount = TClientConstants.CFG_DEFAULT_BATCH_MAX_MSG_COUNT;
+        } else {
+            this.batchMaxMsgCount = batchMaxMsgCount;
+        }
+    }
+
+    public CompressType getBatchCompressType() {
+        return batchCompressType;
+    }
+
+    /**
+     * Set the compress type of the batched messages, which is applied to the topics
+     * set by setBatchCompressTopics() only.
+     *
+     * The consumers before the compressed batches get a batch as one opaque message,
+     * so the upgrade order of a topic is: upgrade the brokers, so that the message query
+     * of the broker decodes the batches; upgrade the consumers of all the consumer groups
+     * of the topic; then add the topic to the compress topics of the producers. To roll
+     * back, remove the topic from the producers first, and downgrade the consumers after
+     * the compressed messages are consumed or expired.
+     *
+     * @param batchCompressType   the compress type, NONE if null
+     */
+    public void setBatchCompressType(CompressType batchCompressType) {
+        if (batchCompressType == null) {
+            this.batchCompressType = CompressType.NONE;
+        } else {
+            this.batchCompressType = batchCompressType;
+        }
+    }
+
+    public Set<String> getBatchCompressTopics() {
+        return batchCompressTopics;
+    }
+
+    /**
+     * Set the topics whose batched messages are compressed, all the consumer groups of
+     * the topics must run the consumers which decode the compressed batches.
+     *
+     * @param batchCompressTopics   the topic names, none if null
+     */
+    public void setBatchCompressTopics(Set<String> batchCompressTopics) {
+        if (batchCompressTopics == null) {
+            this.batchCompressTopics = Collections.emptySet();
+        } else {
+            this.batchCompressTopics = Collections.unmodifiableSet(new HashSet<>(batchCompressTopics));
+        }
+    }
+
+    public boolean isBatchCompressTopic(String topicName) {
+        return batchCompressType != CompressType.NONE && batchCompressTopics.contains(topicName);
+    }
+
+    public int getBatchMaxDataSize() {
+        return batchMaxDataSize;
+    }
+
+    public void setBatchMaxDataSize(int batchMaxDataSize) {
+        if (batchMaxDataSize <= 0) {
+            this.batchMaxDataSize = TClientConstants.CFG_DEFAULT_BATCH_MAX_DATA_SIZE;
+        } else {
+            this.batchMaxDataSize = batchMaxDataSize;
+        }
+    }
+
     /**
      * Set authenticate information
      *
@@ -551,6 +659,24 @@ public class TubeClientConfig {
         if (sessionMaxAllowedDelayedMsgCount != that.sessionMaxAllowedDelayedMsgCount) {
             return false;
         }
+        if (enableBatchSend != that.enableBatchSend) {
+            return false;
+        }
+        if (batchLingerMs != that.batchLingerMs) {
+            return false;
+        }
+        if (batchMaxMsgCount != that.batchMaxMsgCount) {
+            return false;
+        }
+        if (batchMaxDataSize != that.batchMaxDataSize) {
+            return false;
+        }
+        if (batchCompressType != that.batchCompressType) {
+            return false;
+        }
+        if (!batchCompressTopics.equals(that.batchCompressTopics)) {
+            return false;
+        }
         if (enableUserAuthentic != that.enableUserAuthentic) {
             return false;
         }
@@ -613,6 +739,13 @@ public class TubeClientConfig {
                 .append(",\"linkMaxAllowedDelayedMsgCount\":").append(this.linkMaxAllowedDelayedMsgCount)
                 .append(",\"sessionMaxAllowedDelayedMsgCount\":").append(this.sessionMaxAllowedDelayedMsgCount)
                 .append(",\"unAvailableFbdDurationMs\":").append(this.unAvailableFbdDurationMs)
+                .append(",\"enableBatchSend\":").append(this.enableBatchSend)
+                .append(",\"batchLingerMs\":").append(this.batchLingerMs)
+                .append(",\"batchMaxMsgCount\":").append(this.batchMaxMsgCount)
+                .append(",\"batchMaxDataSize\":").append(this.batchMaxDataSize)
+                .append(",\"batchCompressType\":\"").append(this.batchCompressType.getCodecName())
+                .append("\",\"batchCompressTopics\":\"").append(this.batchCompressTopics)
+                .append("\"")
                 .append(",\"enableUserAuthentic\":").append(this.enableUserAuthentic)
                 .append(",").append(this.statsConfig.toString())
                 .append(",\"usrName\":\"").append(this.usrName)
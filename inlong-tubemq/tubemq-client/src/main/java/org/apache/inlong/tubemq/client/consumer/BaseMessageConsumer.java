@@ -34,6 +34,8 @@ import org.apache.inlong.tubemq.corebase.balance.EventType;
 import org.apache.inlong.tubemq.corebase.cluster.BrokerInfo;
 import org.apache.inlong.tubemq.corebase.cluster.Partition;
 import org.apache.inlong.tubemq.corebase.cluster.SubscribeInfo;
+import org.apache.inlong.tubemq.corebase.compress.CompressedMessageBatch;
+import org.apache.inlong.tubemq.corebase.compress.LazyMessageList;
 import org.apache.inlong.tubemq.corebase.protobuf.generated.ClientBroker;
 import org.apache.inlong.tubemq.corebase.protobuf.generated.ClientMaster;
 import org.apache.inlong.tubemq.corebase.utils.AddressUtils;
@@ -1238,9 +1240,10 @@ public class BaseMessageConsumer implements MessageConsumer {
                 case TErrCodeConstants.SUCCESS: {
                     int msgSize = 0;
                     int msgCount = 0;
-                    // Convert the message payload data
+                    // Convert the message payload data, the compressed batches are
+                    // decompressed when the application accesses the message list
                     List<Message> tmpMessageList =
-                            DataConverterUtil.convertMessage(topic, msgRspB2C.getMessagesList());
+                            DataConverterUtil.convertMessage(topic, msgRspB2C.getMessagesList(), false);
                     boolean isEscLimit =
                             (msgRspB2C.hasEscFlowCtrl() && msgRspB2C.getEscFlowCtrl());
                     // Filter the message based on its content
@@ -1263,10 +1266,15 @@ public class BaseMessageConsumer implements MessageConsumer {
                                 || !topicFilterSet.contains(message.getMsgType()))) {
                             continue;
                         }
-                        msgCount++;
+                        if (message instanceof CompressedMessageBatch) {
+                            msgCount += ((CompressedMessageBatch) message).getMsgCount();
+                        } else {
+                            msgCount++;
+                        }
                         messageList.add(message);
                         msgSize += message.getData().length;
                     }
+                    messageList = LazyMessageList.wrap(messageList);
                     // Set the process result of current stage. Process the result based on the response
                     long dataDltVal = msgRspB2C.hasCurrDataDlt()
                             ? msgRspB2C.getCurrDataDlt()
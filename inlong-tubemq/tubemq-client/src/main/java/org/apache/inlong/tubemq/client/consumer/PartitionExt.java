@@ -55,6 +55,8 @@ public class PartitionExt extends Partition {
     private long curDataDlt;
     private boolean isRequireSlow = false;
     private boolean isLastPackConsumed = false;
+    // the slot id in the partition slot table
+    private transient int slotId = -1;
 
     public PartitionExt(final FlowCtrlRuleHandler groupFlowCtrlRuleHandler,
             final FlowCtrlRuleHandler defFlowCtrlRuleHandler,
@@ -184,6 +186,14 @@ public class PartitionExt extends Partition {
         isLastPackConsumed = lastPackConsumed;
     }
 
+    public int getSlotId() {
+        return slotId;
+    }
+
+    public void setSlotId(int slotId) {
+        this.slotId = slotId;
+    }
+
     public boolean getAndResetLastPackConsumed() {
         boolean curVal = this.isLastPackConsumed;
         this.isLastPackConsumed = false;
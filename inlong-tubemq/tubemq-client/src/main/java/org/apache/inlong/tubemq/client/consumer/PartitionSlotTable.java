@@ -0,0 +1,422 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.client.consumer;
+
+import io.netty.util.Timeout;
+import io.netty.util.TimerTask;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Partition slot table of the remote data cache.
+ *
+ * Each registered partition holds an integer slot, the consume state of the partition
+ * is kept in its slot and changed by CAS, and the idle partitions are queued by their
+ * slot ids in a lock-free ring, so selecting and releasing a partition allocate nothing.
+ * The slot id of a partition removed while queued is reused only after its ring entry
+ * is polled, so each slot id has one ring entry at most and the ring never overflows.
+ * The slots of each state in the table are counted on each state change, so finding
+ * a state does not scan the slots.
+ */
+public class PartitionSlotTable {
+
+    // registered, neither queued nor in use, e.g. frozen
+    public static final int STATE_PARKED = 0;
+    // queued in the idle ring
+    public static final int STATE_IDLE = 1;
+    // selected by a consumer
+    public static final int STATE_USED = 2;
+    // waiting for the consume delay
+    public static final int STATE_WAITING = 3;
+    // removed
+    public static final int STATE_REMOVED = 4;
+    // removed while queued, recycled when its ring entry is polled
+    public static final int STATE_REMOVED_QUEUED = 5;
+
+    private static final int INIT_CAPACITY = 64;
+
+    private final Object tableLock = new Object();
+    private volatile Slot[] slots = new Slot[INIT_CAPACITY];
+    private volatile IdleRing idleRing = new IdleRing(INIT_CAPACITY);
+    // the count of the slots in the table of each state
+    private final AtomicIntegerArray stateCounts = new AtomicIntegerArray(STATE_REMOVED_QUEUED + 1);
+    // guarded by tableLock
+    private int[] freeIds = new int[INIT_CAPACITY];
+    private int freeCnt = 0;
+    private int slotCnt = 0;
+
+    /**
+     * Assign a slot to a partition, the slot is parked.
+     *
+     * @param partitionExt   the partition
+     * @param waitTask       the task ending the consume delay of the partition
+     * @return the slot of the partition
+     */
+    public Slot assign(PartitionExt partitionExt, TimerTask waitTask) {
+        synchronized (tableLock) {
+            int slotId;
+            if (freeCnt > 0) {
+                slotId = freeIds[--freeCnt];
+            } else {
+                slotId = slotCnt++;
+                if (slotId >= idleRing.capacity()) {
+                    growRing(idleRing.capacity() << 1);
+                }
+            }
+            Slot[] table = slots;
+            if (slotId >= table.length) {
+                table = Arrays.copyOf(table, table.length << 1);
+            }
+            Slot slot = new Slot(slotId, partitionExt, waitTask);
+            stateCounts.incrementAndGet(STATE_PARKED);
+            table[slotId] = slot;
+            // publish the slot written
+            slots = table;
+            return slot;
+        }
+    }
+
+    /**
+     * Get the slot by its id.
+     *
+     * @param slotId   the slot id
+     * @return the slot, null if the id is not assigned
+     */
+    public Slot getSlot(int slotId) {
+        Slot[] table = slots;
+        if (slotId < 0 || slotId >= table.length) {
+            return null;
+        }
+        return table[slotId];
+    }
+
+    /**
+     * The scan bound of the slot ids.
+     *
+     * @return the slot ids are less than the returned value
+     */
+    public int getSlotBound() {
+        return slots.length;
+    }
+
+    /**
+     * Queue a parked slot in the idle ring.
+     *
+     * @param slot   the slot
+     * @return whether the slot is queued
+     */
+    public boolean markIdle(Slot slot) {
+        if (!casState(slot, STATE_PARKED, STATE_IDLE)) {
+            return false;
+        }
+        IdleRing ring = idleRing;
+        while (!ring.offer(slot.slotId)) {
+            // the ring is growing
+            Thread.yield();
+            ring = idleRing;
+        }
+        if (ring != idleRing) {
+            // the grower may have drained the ring before this entry
+            drainRing(ring);
+        }
+        return true;
+    }
+
+    /**
+     * Select an idle slot.
+     *
+     * @param usedToken   the token of this selection
+     * @return the slot selected, null if no idle slot
+     */
+    public Slot pollIdle(long usedToken) {
+        IdleRing ring = idleRing;
+        while (true) {
+            int slotId = ring.poll();
+            if (slotId < 0) {
+                if (ring == idleRing) {
+                    return null;
+                }
+                ring = idleRing;
+                continue;
+            }
+            Slot slot = slots[slotId];
+            slot.usedToken = usedToken;
+            if (casState(slot, STATE_IDLE, STATE_USED)) {
+                return slot;
+            }
+            if (casState(slot, STATE_REMOVED_QUEUED, STATE_REMOVED)) {
+                recycle(slotId);
+            }
+        }
+    }
+
+    /**
+     * Park a slot in use if the token matches.
+     *
+     * @param slot        the slot
+     * @param usedToken   the token of the selection
+     * @return whether the slot is parked
+     */
+    public boolean releaseUsed(Slot slot, long usedToken) {
+        return slot.state == STATE_USED
+                && slot.usedToken == usedToken
+                && casState(slot, STATE_USED, STATE_PARKED);
+    }
+
+    /**
+     * Park a slot in use regardless of the token.
+     *
+     * @param slot        the slot
+     * @return whether the slot is parked
+     */
+    public boolean releaseUsed(Slot slot) {
+        return casState(slot, STATE_USED, STATE_PARKED);
+    }
+
+    /**
+     * Move a parked slot to the waiting state.
+     *
+     * @param slot   the slot
+     * @return whether the slot is waiting
+     */
+    public boolean startWait(Slot slot) {
+        return casState(slot, STATE_PARKED, STATE_WAITING);
+    }
+
+    /**
+     * Park a waiting slot.
+     *
+     * @param slot   the slot
+     * @return whether the slot is parked
+     */
+    public boolean endWait(Slot slot) {
+        if (casState(slot, STATE_WAITING, STATE_PARKED)) {
+            slot.timeout = null;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Remove a slot, the waiting timeout is canceled.
+     *
+     * @param slot   the slot
+     * @return the state of the slot before removed
+     */
+    public int remove(Slot slot) {
+        while (true) {
+            int curState = slot.state;
+            if (curState == STATE_REMOVED || curState == STATE_REMOVED_QUEUED) {
+                return curState;
+            }
+            if (curState == STATE_IDLE) {
+                if (casState(slot, STATE_IDLE, STATE_REMOVED_QUEUED)) {
+                    return curState;
+                }
+            } else if (casState(slot, curState, STATE_REMOVED)) {
+                if (curState == STATE_WAITING) {
+                    Timeout timeout = slot.timeout;
+                    if (timeout != null) {
+                        timeout.cancel();
+                    }
+                }
+                recycle(slot.slotId);
+                return curState;
+            }
+        }
+    }
+
+    public boolean hasIdle() {
+        return !idleRing.isEmpty();
+    }
+
+    /**
+     * Whether any slot is in the state, by the count of the state.
+     *
+     * @param state   the state to find
+     * @return whether found
+     */
+    public boolean hasState(int state) {
+        return stateCounts.get(state) > 0;
+    }
+
+    /**
+     * Change the state of the slot and count it, the new state is counted before
+     * the old state is uncounted.
+     */
+    private boolean casState(Slot slot, int expect, int update) {
+        if (!Slot.STATE_UPDATER.compareAndSet(slot, expect, update)) {
+            return false;
+        }
+        stateCounts.incrementAndGet(update);
+        stateCounts.decrementAndGet(expect);
+        return true;
+    }
+
+    private void recycle(int slotId) {
+        synchronized (tableLock) {
+            slots[slotId] = null;
+            stateCounts.decrementAndGet(STATE_REMOVED);
+            if (freeCnt == freeIds.length) {
+                freeIds = Arrays.copyOf(freeIds, freeIds.length << 1);
+            }
+            freeIds[freeCnt++] = slotId;
+        }
+    }
+
+    private void growRing(int capacity) {
+        IdleRing oldRing = idleRing;
+        idleRing = new IdleRing(capacity);
+        drainRing(oldRing);
+    }
+
+    private void drainRing(IdleRing oldRing) {
+        int slotId;
+        while ((slotId = oldRing.poll()) >= 0) {
+            IdleRing ring = idleRing;
+            while (!ring.offer(slotId)) {
+                Thread.yield();
+                ring = idleRing;
+            }
+        }
+    }
+
+    /**
+     * The consume state of a partition.
+     */
+    public static class Slot {
+
+        private static final AtomicIntegerFieldUpdater<Slot> STATE_UPDATER =
+                AtomicIntegerFieldUpdater.newUpdater(Slot.class, "state");
+
+        private final int slotId;
+        private final PartitionExt partitionExt;
+        private final TimerTask waitTask;
+        private volatile int state = STATE_PARKED;
+        private volatile long usedToken;
+        private volatile Timeout timeout;
+
+        public Slot(int slotId, PartitionExt partitionExt, TimerTask waitTask) {
+            this.slotId = slotId;
+            this.partitionExt = partitionExt;
+            this.waitTask = waitTask;
+        }
+
+        public int getSlotId() {
+            return slotId;
+        }
+
+        public PartitionExt getPartitionExt() {
+            return partitionExt;
+        }
+
+        public TimerTask getWaitTask() {
+            return waitTask;
+        }
+
+        public int getState() {
+            return state;
+        }
+
+        public long getUsedToken() {
+            return usedToken;
+        }
+
+        public Timeout getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Timeout timeout) {
+            this.timeout = timeout;
+        }
+    }
+
+    /**
+     * Bounded multi-producer multi-consumer ring of slot ids, each cell carries
+     * the sequence of its next write or read.
+     */
+    private static class IdleRing {
+
+        private final int mask;
+        private final int[] values;
+        private final AtomicLongArray sequences;
+        private final AtomicLong head = new AtomicLong(0);
+        private final AtomicLong tail = new AtomicLong(0);
+
+        IdleRing(int capacity) {
+            this.mask = capacity - 1;
+            this.values = new int[capacity];
+            this.sequences = new AtomicLongArray(capacity);
+            for (int i = 0; i < capacity; i++) {
+                sequences.set(i, i);
+            }
+        }
+
+        int capacity() {
+            return mask + 1;
+        }
+
+        boolean offer(int value) {
+            long pos = tail.get();
+            while (true) {
+                int index = (int) (pos & mask);
+                long dlt = sequences.get(index) - pos;
+                if (dlt == 0) {
+                    if (tail.compareAndSet(pos, pos + 1)) {
+                        values[index] = value;
+                        sequences.set(index, pos + 1);
+                        return true;
+                    }
+                    pos = tail.get();
+                } else if (dlt < 0) {
+                    return false;
+                } else {
+                    pos = tail.get();
+                }
+            }
+        }
+
+        int poll() {
+            long pos = head.get();
+            while (true) {
+                int index = (int) (pos & mask);
+                long dlt = sequences.get(index) - (pos + 1);
+                if (dlt == 0) {
+                    if (head.compareAndSet(pos, pos + 1)) {
+                        int value = values[index];
+                        sequences.set(index, pos + mask + 1);
+                        return value;
+                    }
+                    pos = head.get();
+                } else if (dlt < 0) {
+                    return -1;
+                } else {
+                    pos = head.get();
+                }
+            }
+        }
+
+        boolean isEmpty() {
+            return head.get() >= tail.get();
+        }
+    }
+}
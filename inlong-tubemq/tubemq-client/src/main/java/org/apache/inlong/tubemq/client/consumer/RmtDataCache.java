@@ -102,16 +102,12 @@ public class RmtDataCache implements Closeable {
     private final long maxReportTimes;
     // partition cache
     private final AtomicInteger waitCont = new AtomicInteger(0);
-    private final ConcurrentHashMap<String, Timeout> timeouts =
-            new ConcurrentHashMap<>();
-    private final ConcurrentLinkedQueue<String> indexPartition =
-            new ConcurrentLinkedQueue<String>();
+    // the consume state and the idle ring of the partitions, indexed by the slot ids
+    private final PartitionSlotTable slotTable = new PartitionSlotTable();
     private volatile long lstReportTime = 0;
     private final AtomicLong partMapChgTime = new AtomicLong(0);
     private final ConcurrentHashMap<String /* index */, PartitionExt> partitionMap =
             new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<String /* index */, Long> partitionUsedMap =
-            new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String /* index */, ConsumeOffsetInfo> partitionOffsetMap =
             new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String /* index */, Long> partitionFrozenMap =
@@ -668,12 +664,12 @@ public class RmtDataCache implements Closeable {
                     TErrCodeConstants.NO_PARTITION_ASSIGNED,
                     "No partition info in local, please wait and try later");
         }
-        if (indexPartition.isEmpty()) {
-            if (!timeouts.isEmpty()) {
+        if (!slotTable.hasIdle()) {
+            if (hasPartitionWait()) {
                 return new PartitionSelectResult(false,
                         TErrCodeConstants.ALL_PARTITION_WAITING,
                         "All partition in waiting, retry later!");
-            } else if (!partitionUsedMap.isEmpty()) {
+            } else if (slotTable.hasState(PartitionSlotTable.STATE_USED)) {
                 return new PartitionSelectResult(false,
                         TErrCodeConstants.ALL_PARTITION_INUSE,
                         "No idle partition to consume, please wait and try later");
@@ -710,13 +706,14 @@ public class RmtDataCache implements Closeable {
                         TErrCodeConstants.NO_PARTITION_ASSIGNED,
                         "No partition info in local, please wait and try later");
             }
-            String key = indexPartition.poll();
-            if (key == null) {
+            long curTime = System.currentTimeMillis();
+            PartitionSlotTable.Slot slot = slotTable.pollIdle(curTime);
+            if (slot == null) {
                 if (hasPartitionWait()) {
                     return new PartitionSelectResult(false,
                             TErrCodeConstants.ALL_PARTITION_WAITING,
                             "All partition in waiting, retry later!");
-                } else if (!partitionUsedMap.isEmpty()) {
+                } else if (slotTable.hasState(PartitionSlotTable.STATE_USED)) {
                     return new PartitionSelectResult(false,
                             TErrCodeConstants.ALL_PARTITION_INUSE,
                             "No idle partition to consume, please wait and try later");
@@ -726,19 +723,7 @@ public class RmtDataCache implements Closeable {
                             "All partition are frozen to consume, please unfreeze partition(s) or wait");
                 }
             }
-            PartitionExt partitionExt = partitionMap.get(key);
-            if (partitionExt == null) {
-                return new PartitionSelectResult(false,
-                        TErrCodeConstants.BAD_REQUEST,
-                        "No valid partition to consume, retry later 1");
-            }
-            long curTime = System.currentTimeMillis();
-            Long newTime = partitionUsedMap.putIfAbsent(key, curTime);
-            if (newTime != null) {
-                return new PartitionSelectResult(false,
-                        TErrCodeConstants.BAD_REQUEST,
-                        "No valid partition to consume, retry later 2");
-            }
+            PartitionExt partitionExt = slot.getPartitionExt();
             return new PartitionSelectResult(true, TErrCodeConstants.SUCCESS, "Ok!",
                     partitionExt, curTime, partitionExt.getAndResetLastPackConsumed());
         } catch (Throwable e1) {
@@ -777,12 +762,14 @@ public class RmtDataCache implements Closeable {
                 return null;
             }
             int cycleCnt = 0;
-            String key = null;
+            long curTime = 0L;
+            PartitionSlotTable.Slot slot = null;
             do {
-                if (!indexPartition.isEmpty()) {
+                if (slotTable.hasIdle()) {
                     // If there are idle partitions, poll
-                    key = indexPartition.poll();
-                    if (key != null) {
+                    curTime = System.currentTimeMillis();
+                    slot = slotTable.pollIdle(curTime);
+                    if (slot != null) {
                         break;
                     }
                 }
@@ -792,18 +779,10 @@ public class RmtDataCache implements Closeable {
                 ThreadUtils.sleep(300);
                 // if no idle partitions to get, wait and cycle 500 times
             } while (cycleCnt++ < 500);
-            if (key == null) {
-                return null;
-            }
-            PartitionExt partitionExt = partitionMap.get(key);
-            if (partitionExt == null) {
-                return null;
-            }
-            long curTime = System.currentTimeMillis();
-            Long newTime = partitionUsedMap.putIfAbsent(key, curTime);
-            if (newTime != null) {
+            if (slot == null) {
                 return null;
             }
+            PartitionExt partitionExt = slot.getPartitionExt();
             return new PartitionSelectResult(partitionExt,
                     curTime, partitionExt.getAndResetLastPackConsumed());
         } catch (Throwable e1) {
@@ -816,8 +795,7 @@ public class RmtDataCache implements Closeable {
     protected boolean isPartitionInUse(String partitionKey, long usedToken) {
         PartitionExt partitionExt = partitionMap.get(partitionKey);
         if (partitionExt != null) {
-            Long curToken = partitionUsedMap.get(partitionKey);
-            return curToken != null && curToken == usedToken;
+            return isSlotInUse(getPartSlot(partitionExt), usedToken);
         }
         return false;
     }
@@ -866,15 +844,10 @@ public class RmtDataCache implements Closeable {
     protected void errReqRelease(String partitionKey, long usedToken, boolean isLastPackConsumed) {
         PartitionExt partitionExt = partitionMap.get(partitionKey);
         if (partitionExt != null) {
-            if (!indexPartition.contains(partitionKey) && !isTimeWait(partitionKey)) {
-                Long oldUsedToken = partitionUsedMap.get(partitionKey);
-                if (oldUsedToken != null && oldUsedToken == usedToken) {
-                    oldUsedToken = partitionUsedMap.remove(partitionKey);
-                    if (oldUsedToken != null) {
-                        partitionExt.setLastPackConsumed(isLastPackConsumed);
-                        releaseIdlePartition(partitionKey);
-                    }
-                }
+            PartitionSlotTable.Slot slot = getPartSlot(partitionExt);
+            if (slot != null && slotTable.releaseUsed(slot, usedToken)) {
+                partitionExt.setLastPackConsumed(isLastPackConsumed);
+                releaseIdlePartition(slot);
             }
         }
     }
@@ -885,17 +858,14 @@ public class RmtDataCache implements Closeable {
             long maxOffset) {
         PartitionExt partitionExt = this.partitionMap.get(partitionKey);
         if (partitionExt != null) {
-            if (!indexPartition.contains(partitionKey) && !isTimeWait(partitionKey)) {
-                Long oldUsedToken = partitionUsedMap.get(partitionKey);
-                if (oldUsedToken != null && oldUsedToken == usedToken) {
-                    updateOffsetCache(partitionKey, currOffset, maxOffset);
-                    oldUsedToken = partitionUsedMap.remove(partitionKey);
-                    if (oldUsedToken != null) {
-                        partitionExt.setLastPackConsumed(isLastPackConsumed);
-                        long waitDlt =
-                                partitionExt.procConsumeResult(isFilterConsume);
-                        releaseIdlePartition(waitDlt, partitionKey);
-                    }
+            PartitionSlotTable.Slot slot = getPartSlot(partitionExt);
+            if (isSlotInUse(slot, usedToken)) {
+                updateOffsetCache(partitionKey, currOffset, maxOffset);
+                if (slotTable.releaseUsed(slot, usedToken)) {
+                    partitionExt.setLastPackConsumed(isLastPackConsumed);
+                    long waitDlt =
+                            partitionExt.procConsumeResult(isFilterConsume);
+                    releaseIdlePartition(waitDlt, slot);
                 }
             }
         }
@@ -925,18 +895,15 @@ public class RmtDataCache implements Closeable {
             boolean isFilterConsume, long curDataDlt, long maxOffset) {
         PartitionExt partitionExt = this.partitionMap.get(partitionKey);
         if (partitionExt != null) {
-            if (!indexPartition.contains(partitionKey) && !isTimeWait(partitionKey)) {
-                Long oldUsedToken = partitionUsedMap.get(partitionKey);
-                if (oldUsedToken != null && oldUsedToken == usedToken) {
-                    updateOffsetCache(partitionKey, currOffset, maxOffset);
-                    oldUsedToken = partitionUsedMap.remove(partitionKey);
-                    if (oldUsedToken != null) {
-                        partitionExt.setLastPackConsumed(isLastPackConsumed);
-                        long waitDlt =
-                                partitionExt.procConsumeResult(isFilterConsume, reqProcType,
-                                        errCode, msgSize, isEscLimit, limitDlt, curDataDlt, false);
-                        releaseIdlePartition(waitDlt, partitionKey);
-                    }
+            PartitionSlotTable.Slot slot = getPartSlot(partitionExt);
+            if (isSlotInUse(slot, usedToken)) {
+                updateOffsetCache(partitionKey, currOffset, maxOffset);
+                if (slotTable.releaseUsed(slot, usedToken)) {
+                    partitionExt.setLastPackConsumed(isLastPackConsumed);
+                    long waitDlt =
+                            partitionExt.procConsumeResult(isFilterConsume, reqProcType,
+                                    errCode, msgSize, isEscLimit, limitDlt, curDataDlt, false);
+                    releaseIdlePartition(waitDlt, slot);
                 }
             }
         }
@@ -949,39 +916,40 @@ public class RmtDataCache implements Closeable {
         }
     }
 
-    private void releaseIdlePartition(long waitDlt, String partitionKey) {
-        Long frozenTime = partitionFrozenMap.get(partitionKey);
+    private void releaseIdlePartition(long waitDlt, PartitionSlotTable.Slot slot) {
+        Long frozenTime = partitionFrozenMap.get(slot.getPartitionExt().getPartitionKey());
         if (frozenTime == null) {
             if (waitDlt > 10) {
-                TimeoutTask timeoutTask = new TimeoutTask(partitionKey);
-                timeouts.put(partitionKey, timer.newTimeout(
-                        timeoutTask, waitDlt, TimeUnit.MILLISECONDS));
+                if (slotTable.startWait(slot)) {
+                    slot.setTimeout(timer.newTimeout(
+                            slot.getWaitTask(), waitDlt, TimeUnit.MILLISECONDS));
+                }
             } else {
-                releaseIdlePartition(partitionKey);
+                releaseIdlePartition(slot);
             }
         }
     }
 
     private void releaseIdlePartition(String partitionKey) {
-        Long frozenTime = partitionFrozenMap.get(partitionKey);
         PartitionExt partitionExt = partitionMap.get(partitionKey);
-        Timeout timeout = timeouts.get(partitionKey);
-        Long usedTime = partitionUsedMap.get(partitionKey);
-        if (partitionExt == null
-                || frozenTime != null
-                || timeout != null
-                || usedTime != null) {
+        if (partitionExt == null) {
             return;
         }
-        if (!indexPartition.contains(partitionKey)) {
-            try {
-                indexPartition.offer(partitionKey);
-            } catch (Throwable e) {
-                //
-            }
+        PartitionSlotTable.Slot slot = getPartSlot(partitionExt);
+        if (slot != null) {
+            releaseIdlePartition(slot);
         }
     }
 
+    private void releaseIdlePartition(PartitionSlotTable.Slot slot) {
+        Long frozenTime = partitionFrozenMap.get(slot.getPartitionExt().getPartitionKey());
+        if (frozenTime != null) {
+            return;
+        }
+        // only the parked partition is queued
+        slotTable.markIdle(slot);
+    }
+
     /**
      * Close the remote data cache
      */
@@ -1077,8 +1045,7 @@ public class RmtDataCache implements Closeable {
                             rmvPartitionFromMap(partition.getPartitionKey());
                     if (partitionExt != null) {
                         lastPackConsumed = partitionExt.isLastPackConsumed();
-                        if (!cancelTimeTask(partition.getPartitionKey())
-                                && !indexPartition.remove(partition.getPartitionKey())) {
+                        if (!rmvPartitionSlot(partitionExt)) {
                             logger.info(sBuilder.append("[Process Interrupt] Partition : ")
                                     .append(partition.toString())
                                     .append(", data in processing, canceled").toString());
@@ -1106,7 +1073,6 @@ public class RmtDataCache implements Closeable {
                             }
                         }
                         partitionOffsetMap.remove(partition.getPartitionKey());
-                        partitionUsedMap.remove(partition.getPartitionKey());
                         PartitionSelectResult partitionRet =
                                 new PartitionSelectResult(true, TErrCodeConstants.SUCCESS,
                                         "Ok!", partition, 0, lastPackConsumed);
@@ -1149,8 +1115,7 @@ public class RmtDataCache implements Closeable {
                 return result.isSuccess();
             }
             lastPackConsumed = partitionExt.isLastPackConsumed();
-            if (!cancelTimeTask(partitionKey)
-                    && !indexPartition.remove(partitionKey)) {
+            if (!rmvPartitionSlot(partitionExt)) {
                 logger.info(sBuffer.append("[Process Interrupt] Partition : ")
                         .append(partitionExt.toString())
                         .append(", data in processing, canceled").toString());
@@ -1178,7 +1143,6 @@ public class RmtDataCache implements Closeable {
                 }
             }
             partitionOffsetMap.remove(partitionKey);
-            partitionUsedMap.remove(partitionKey);
             partitionExt.setLastPackConsumed(lastPackConsumed);
             result.setSuccResult(partitionExt);
             return result.isSuccess();
@@ -1193,10 +1157,10 @@ public class RmtDataCache implements Closeable {
      * @param partition partition to be removed
      */
     public void removePartition(Partition partition) {
-        rmvPartitionFromMap(partition.getPartitionKey());
-        cancelTimeTask(partition.getPartitionKey());
-        indexPartition.remove(partition.getPartitionKey());
-        partitionUsedMap.remove(partition.getPartitionKey());
+        PartitionExt partitionExt = rmvPartitionFromMap(partition.getPartitionKey());
+        if (partitionExt != null) {
+            rmvPartitionSlot(partitionExt);
+        }
         partitionOffsetMap.remove(partition.getPartitionKey());
         ConcurrentLinkedQueue<Partition> oldPartitionList =
                 topicPartitionConMap.get(partition.getTopic());
@@ -1340,36 +1304,27 @@ public class RmtDataCache implements Closeable {
      * @param allowedPeriodTimes  allowed hold duration
      */
     public void resumeTimeoutConsumePartitions(boolean isPullConsume, long allowedPeriodTimes) {
-        if (isPullConsume) {
-            // For pull consume, do timeout check on partitions pulled without confirm
-            if (!partitionUsedMap.isEmpty()) {
-                List<String> partKeys = new ArrayList<>(partitionUsedMap.keySet());
-                for (String keyId : partKeys) {
-                    Long oldTime = partitionUsedMap.get(keyId);
-                    if (oldTime != null && System.currentTimeMillis() - oldTime > allowedPeriodTimes) {
-                        oldTime = partitionUsedMap.remove(keyId);
-                        if (oldTime != null) {
-                            PartitionExt partitionExt = partitionMap.get(keyId);
-                            if (partitionExt != null) {
-                                partitionExt.setLastPackConsumed(false);
-                                releaseIdlePartition(keyId);
-                            }
-                        }
-                    }
-                }
+        int slotBound = slotTable.getSlotBound();
+        for (int slotId = 0; slotId < slotBound; slotId++) {
+            PartitionSlotTable.Slot slot = slotTable.getSlot(slotId);
+            if (slot == null) {
+                continue;
             }
-        }
-        // add timeout expired check
-        if (!timeouts.isEmpty()) {
-            Timeout timeout1 = null;
-            List<String> partKeys = new ArrayList<>(timeouts.keySet());
-            for (String keyId : partKeys) {
-                timeout1 = timeouts.get(keyId);
-                if (timeout1 != null && timeout1.isExpired()) {
-                    timeout1 = timeouts.remove(keyId);
-                    if (timeout1 != null) {
-                        releaseIdlePartition(keyId);
-                    }
+            if (slot.getState() == PartitionSlotTable.STATE_USED) {
+                // For pull consume, do timeout check on partitions pulled without confirm
+                long usedToken = slot.getUsedToken();
+                if (isPullConsume
+                        && System.currentTimeMillis() - usedToken > allowedPeriodTimes
+                        && slotTable.releaseUsed(slot, usedToken)) {
+                    slot.getPartitionExt().setLastPackConsumed(false);
+                    releaseIdlePartition(slot);
+                }
+            } else if (slot.getState() == PartitionSlotTable.STATE_WAITING) {
+                // add timeout expired check
+                Timeout timeout1 = slot.getTimeout();
+                if (timeout1 != null && timeout1.isExpired()
+                        && slotTable.endWait(slot)) {
+                    releaseIdlePartition(slot);
                 }
             }
         }
@@ -1437,7 +1392,12 @@ public class RmtDataCache implements Closeable {
         do {
             needWait = false;
             for (String partitionKey : partitionKeys) {
-                if (partitionUsedMap.get(partitionKey) != null) {
+                PartitionExt partitionExt = partitionMap.get(partitionKey);
+                if (partitionExt == null) {
+                    continue;
+                }
+                PartitionSlotTable.Slot slot = getPartSlot(partitionExt);
+                if (slot != null && slot.getState() == PartitionSlotTable.STATE_USED) {
                     needWait = true;
                     break;
                 }
@@ -1511,12 +1471,15 @@ public class RmtDataCache implements Closeable {
             }
             updateOffsetCache(partition.getPartitionKey(),
                     entry.getValue().getCurrOffset(), entry.getValue().getMaxOffset());
-            addPartitionToMap(partition.getPartitionKey(),
+            PartitionExt partitionExt =
                     new PartitionExt(this.groupFlowCtrlRuleHandler,
                             this.defFlowCtrlRuleHandler, partition.getBroker(),
-                            partition.getTopic(), partition.getPartitionId()));
-            partitionUsedMap.remove(partition.getPartitionKey());
-            releaseIdlePartition(partition.getPartitionKey());
+                            partition.getTopic(), partition.getPartitionId());
+            PartitionSlotTable.Slot slot =
+                    slotTable.assign(partitionExt, new TimeoutTask(partitionExt));
+            partitionExt.setSlotId(slot.getSlotId());
+            addPartitionToMap(partition.getPartitionKey(), partitionExt);
+            releaseIdlePartition(slot);
         }
     }
 
@@ -1557,30 +1520,47 @@ public class RmtDataCache implements Closeable {
         this.dataProcessSync.countDown();
     }
 
-    private boolean cancelTimeTask(String indexId) {
-        Timeout timeout = timeouts.remove(indexId);
-        if (timeout != null) {
-            timeout.cancel();
-            return true;
+    private PartitionSlotTable.Slot getPartSlot(PartitionExt partitionExt) {
+        PartitionSlotTable.Slot slot = slotTable.getSlot(partitionExt.getSlotId());
+        if (slot == null || slot.getPartitionExt() != partitionExt) {
+            return null;
         }
-        return false;
+        return slot;
+    }
+
+    private boolean isSlotInUse(PartitionSlotTable.Slot slot, long usedToken) {
+        return slot != null
+                && slot.getState() == PartitionSlotTable.STATE_USED
+                && slot.getUsedToken() == usedToken;
     }
 
-    private boolean isTimeWait(String indexId) {
-        return (timeouts.get(indexId) != null);
+    /**
+     * Remove the slot of a removed partition.
+     *
+     * @param partitionExt   the removed partition
+     * @return whether the partition was idle or waiting, not in processing
+     */
+    private boolean rmvPartitionSlot(PartitionExt partitionExt) {
+        PartitionSlotTable.Slot slot = getPartSlot(partitionExt);
+        if (slot == null) {
+            return false;
+        }
+        int lastState = slotTable.remove(slot);
+        return lastState == PartitionSlotTable.STATE_IDLE
+                || lastState == PartitionSlotTable.STATE_WAITING;
     }
 
     private boolean hasPartitionWait() {
-        return !this.timeouts.isEmpty();
+        return slotTable.hasState(PartitionSlotTable.STATE_WAITING);
     }
 
     public class TimeoutTask implements TimerTask {
 
-        private String indexId;
+        private final PartitionExt partitionExt;
         private long createTime = 0L;
 
-        public TimeoutTask(final String indexId) {
-            this.indexId = indexId;
+        public TimeoutTask(final PartitionExt partitionExt) {
+            this.partitionExt = partitionExt;
             this.createTime = System.currentTimeMillis();
         }
 
@@ -1590,9 +1570,9 @@ public class RmtDataCache implements Closeable {
 
         @Override
         public void run(Timeout timeout) throws Exception {
-            Timeout timeout1 = timeouts.remove(indexId);
-            if (timeout1 != null) {
-                releaseIdlePartition(indexId);
+            PartitionSlotTable.Slot slot = getPartSlot(partitionExt);
+            if (slot != null && slotTable.endWait(slot)) {
+                releaseIdlePartition(slot);
             }
         }
     }
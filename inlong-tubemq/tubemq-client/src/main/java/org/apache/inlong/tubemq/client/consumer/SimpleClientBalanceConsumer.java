@@ -34,6 +34,8 @@ import org.apache.inlong.tubemq.corebase.aaaclient.ClientAuthenticateHandler;
 import org.apache.inlong.tubemq.corebase.aaaclient.SimpleClientAuthenticateHandler;
 import org.apache.inlong.tubemq.corebase.cluster.BrokerInfo;
 import org.apache.inlong.tubemq.corebase.cluster.Partition;
+import org.apache.inlong.tubemq.corebase.compress.CompressedMessageBatch;
+import org.apache.inlong.tubemq.corebase.compress.LazyMessageList;
 import org.apache.inlong.tubemq.corebase.protobuf.generated.ClientBroker;
 import org.apache.inlong.tubemq.corebase.protobuf.generated.ClientMaster;
 import org.apache.inlong.tubemq.corebase.rv.ProcessResult;
@@ -735,9 +737,10 @@ public class SimpleClientBalanceConsumer implements ClientBalanceConsumer {
                 case TErrCodeConstants.SUCCESS: {
                     int msgSize = 0;
                     int msgCount = 0;
-                    // Convert the message payload data
+                    // Convert the message payload data, the compressed batches are
+                    // decompressed when the application accesses the message list
                     List<Message> tmpMessageList =
-                            DataConverterUtil.convertMessage(topic, msgRspB2C.getMessagesList());
+                            DataConverterUtil.convertMessage(topic, msgRspB2C.getMessagesList(), false);
                     boolean isEscLimit =
                             (msgRspB2C.hasEscFlowCtrl() && msgRspB2C.getEscFlowCtrl());
                     // Filter the message based on its content
@@ -760,10 +763,15 @@ public class SimpleClientBalanceConsumer implements ClientBalanceConsumer {
                                 || !topicFilterSet.contains(message.getMsgType()))) {
                             continue;
                         }
-                        msgCount++;
+                        if (message instanceof CompressedMessageBatch) {
+                            msgCount += ((CompressedMessageBatch) message).getMsgCount();
+                        } else {
+                            msgCount++;
+                        }
                         messageList.add(message);
                         msgSize += message.getData().length;
                     }
+                    messageList = LazyMessageList.wrap(messageList);
                     // Set the process result of current stage. Process the result based on the response
                     long dataDltVal = msgRspB2C.hasCurrDataDlt()
                             ? msgRspB2C.getCurrDataDlt()
@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.client.producer;
+
+import org.apache.inlong.tubemq.corebase.Message;
+import org.apache.inlong.tubemq.corebase.cluster.Partition;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Accumulate the asynchronously sent messages into per-partition batches.
+ * A batch is ready when it reaches the max message count or data size,
+ * or when it has waited for the linger time.
+ */
+public class MessageAccumulator {
+
+    private final long lingerMs;
+    private final int maxMsgCount;
+    private final int maxDataSize;
+    // the open batches, keyed by partition key
+    private final Map<String, MessageBatch> openBatches = new HashMap<>();
+
+    public MessageAccumulator(long lingerMs, int maxMsgCount, int maxDataSize) {
+        this.lingerMs = lingerMs;
+        this.maxMsgCount = maxMsgCount;
+        this.maxDataSize = maxDataSize;
+    }
+
+    /**
+     * Append a message to the open batch of its partition.
+     *
+     * @param partition   the partition selected for the message
+     * @param message     the message
+     * @param payload     the encoded message payload
+     * @param callback    the callback of the message
+     * @param curTime     the current time
+     * @return            the batches ready to send, empty if none
+     */
+    public synchronized List<MessageBatch> append(Partition partition, Message message,
+            byte[] payload, MessageSentCallback callback, long curTime) {
+        List<MessageBatch> readyBatches = Collections.emptyList();
+        String partitionKey = partition.getPartitionKey();
+        MessageBatch batch = openBatches.get(partitionKey);
+        if (batch != null && batch.getDataSize() + payload.length > maxDataSize) {
+            openBatches.remove(partitionKey);
+            readyBatches = new ArrayList<>(2);
+            readyBatches.add(batch);
+            batch = null;
+        }
+        if (batch == null) {
+            batch = new MessageBatch(partition, curTime);
+            openBatches.put(partitionKey, batch);
+        }
+        batch.add(message, payload, callback);
+        if (batch.getMsgCount() >= maxMsgCount
+                || batch.getDataSize() >= maxDataSize) {
+            openBatches.remove(partitionKey);
+            if (readyBatches.isEmpty()) {
+                readyBatches = new ArrayList<>(1);
+            }
+            readyBatches.add(batch);
+        }
+        return readyBatches;
+    }
+
+    /**
+     * Remove and return the batches which have waited for the linger time.
+     *
+     * @param curTime   the current time
+     * @return          the expired batches
+     */
+    public synchronized List<MessageBatch> drainExpired(long curTime) {
+        List<MessageBatch> expiredBatches = new ArrayList<>();
+        Iterator<MessageBatch> iterator = openBatches.values().iterator();
+        while (iterator.hasNext()) {
+            MessageBatch batch = iterator.next();
+            if (curTime - batch.getCreateTime() >= lingerMs) {
+                iterator.remove();
+                expiredBatches.add(batch);
+            }
+        }
+        return expiredBatches;
+    }
+
+    /**
+     * Remove and return all the open batches.
+     *
+     * @return   the open batches
+     */
+    public synchronized List<MessageBatch> drainAll() {
+        List<MessageBatch> allBatches = new ArrayList<>(openBatches.values());
+        openBatches.clear();
+        return allBatches;
+    }
+
+    public synchronized int getOpenBatchCount() {
+        return openBatches.size();
+    }
+
+    /**
+     * The messages sent to the same partition in one request.
+     */
+    public static class MessageBatch {
+
+        private final Partition partition;
+        private final long createTime;
+        private final List<Message> messages = new ArrayList<>();
+        private final List<byte[]> payloads = new ArrayList<>();
+        private final List<MessageSentCallback> callbacks = new ArrayList<>();
+        private int dataSize = 0;
+
+        public MessageBatch(Partition partition, long createTime) {
+            this.partition = partition;
+            this.createTime = createTime;
+        }
+
+        public void add(Message message, byte[] payload, MessageSentCallback callback) {
+            this.messages.add(message);
+            this.payloads.add(payload);
+            this.callbacks.add(callback);
+            this.dataSize += payload.length;
+        }
+
+        public Partition getPartition() {
+            return partition;
+        }
+
+        public long getCreateTime() {
+            return createTime;
+        }
+
+        public int getMsgCount() {
+            return messages.size();
+        }
+
+        public int getDataSize() {
+            return dataSize;
+        }
+
+        public List<Message> getMessages() {
+            return messages;
+        }
+
+        public List<byte[]> getPayloads() {
+            return payloads;
+        }
+
+        public List<MessageSentCallback> getCallbacks() {
+            return callbacks;
+        }
+    }
+}
@@ -370,6 +370,23 @@ public class ProducerManager {
      */
     public ClientBroker.SendMessageRequestP2B.Builder setAuthorizedTokenInfo(
             ClientBroker.SendMessageRequestP2B.Builder builder) {
+        builder.setAuthInfo(buildAuthorizedInfo());
+        return builder;
+    }
+
+    /**
+     * Set the authorized token information of batch message request.
+     *
+     * @param builder batch message builder
+     * @return the passed in builder
+     */
+    public ClientBroker.SendBatchMessageRequestP2B.Builder setAuthorizedTokenInfo(
+            ClientBroker.SendBatchMessageRequestP2B.Builder builder) {
+        builder.setAuthInfo(buildAuthorizedInfo());
+        return builder;
+    }
+
+    private ClientBroker.AuthorizedInfo buildAuthorizedInfo() {
         ClientBroker.AuthorizedInfo.Builder authInfoBuilder =
                 ClientBroker.AuthorizedInfo.newBuilder();
         authInfoBuilder.setVisitAuthorizedToken(this.visitToken.get());
@@ -377,8 +394,7 @@ public class ProducerManager {
         if (TStringUtils.isNotBlank(authAuthorizedToken)) {
             authInfoBuilder.setAuthAuthorizedToken(authAuthorizedToken);
         }
-        builder.setAuthInfo(authInfoBuilder.build());
-        return builder;
+        return authInfoBuilder.build();
     }
 
     /**
@@ -26,6 +26,8 @@ import org.apache.inlong.tubemq.corebase.TBaseConstants;
 import org.apache.inlong.tubemq.corebase.TErrCodeConstants;
 import org.apache.inlong.tubemq.corebase.cluster.BrokerInfo;
 import org.apache.inlong.tubemq.corebase.cluster.Partition;
+import org.apache.inlong.tubemq.corebase.compress.CompressType;
+import org.apache.inlong.tubemq.corebase.compress.MessageBatchCodec;
 import org.apache.inlong.tubemq.corebase.protobuf.generated.ClientBroker;
 import org.apache.inlong.tubemq.corebase.utils.AddressUtils;
 import org.apache.inlong.tubemq.corebase.utils.MessageFlagUtils;
@@ -43,11 +45,17 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -67,6 +75,9 @@ public class SimpleMessageProducer implements MessageProducer {
     private final DefaultBrokerRcvQltyStats brokerRcvQltyStats;
     private final RpcConfig rpcConfig = new RpcConfig();
     private final AtomicBoolean isShutDown = new AtomicBoolean(false);
+    // the batch accumulator and linger timer, only used when batch send enabled
+    private final MessageAccumulator msgAccumulator;
+    private final ScheduledExecutorService batchLingerService;
 
     /**
      * Initial a producer object
@@ -83,6 +94,13 @@ public class SimpleMessageProducer implements MessageProducer {
             throw new TubeClientException(
                     "Illegal parameter: messageSessionFactory or tubeClientConfig is null!");
         }
+        CompressType batchCompressType = tubeClientConfig.getBatchCompressType();
+        if (batchCompressType != null && batchCompressType != CompressType.NONE
+                && tubeClientConfig.getBatchCompressTopics().isEmpty()) {
+            throw new TubeClientException(
+                    "Illegal parameter: batchCompressTopics is required by batchCompressType, "
+                            + "whose consumers all decode the compressed batches!");
+        }
         this.producerConfig = tubeClientConfig;
         this.sessionFactory = sessionFactory;
         this.rpcServiceFactory = this.sessionFactory.getRpcServiceFactory();
@@ -104,6 +122,42 @@ public class SimpleMessageProducer implements MessageProducer {
                 tubeClientConfig.getRpcNettyWorkMemorySize());
         this.rpcConfig.put(RpcConstants.CALLBACK_WORKER_COUNT,
                 tubeClientConfig.getRpcRspCallBackThreadCnt());
+        if (tubeClientConfig.isEnableBatchSend()) {
+            this.msgAccumulator = new MessageAccumulator(
+                    tubeClientConfig.getBatchLingerMs(),
+                    tubeClientConfig.getBatchMaxMsgCount(),
+                    tubeClientConfig.getBatchMaxDataSize());
+            this.batchLingerService =
+                    Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+                        @Override
+                        public Thread newThread(Runnable r) {
+                            Thread t = new Thread(r, new StringBuilder(512)
+                                    .append("Producer-Batch-Linger-Thread-")
+                                    .append(producerManager.getProducerId()).toString());
+                            t.setDaemon(true);
+                            return t;
+                        }
+                    });
+            this.batchLingerService.scheduleWithFixedDelay(new Runnable() {
+
+                @Override
+                public void run() {
+                    try {
+                        for (MessageAccumulator.MessageBatch batch : msgAccumulator
+                                .drainExpired(System.currentTimeMillis())) {
+                            sendMessageBatch(batch);
+                        }
+                    } catch (Throwable e) {
+                        logger.warn("[Batch Send] flush lingered batches failure", e);
+                    }
+                }
+            }, tubeClientConfig.getBatchLingerMs(),
+                    tubeClientConfig.getBatchLingerMs(), TimeUnit.MILLISECONDS);
+        } else {
+            this.msgAccumulator = null;
+            this.batchLingerService = null;
+        }
     }
 
     /**
@@ -200,6 +254,14 @@ public class SimpleMessageProducer implements MessageProducer {
             return;
         }
         if (this.isShutDown.compareAndSet(false, true)) {
+            if (this.batchLingerService != null) {
+                this.batchLingerService.shutdown();
+                this.batchLingerService.awaitTermination(
+                        producerConfig.getBatchLingerMs() * 2, TimeUnit.MILLISECONDS);
+                for (MessageAccumulator.MessageBatch batch : msgAccumulator.drainAll()) {
+                    sendMessageBatch(batch);
+                }
+            }
             this.producerManager.removeTopic(publishTopicMap.keySet());
             this.publishTopicMap.clear();
             this.sessionFactory.removeClient(this);
@@ -253,6 +315,13 @@ public class SimpleMessageProducer implements MessageProducer {
         }
         final Partition partition =
                 this.selectPartition(message, BrokerWriteService.AsyncService.class);
+        if (this.msgAccumulator != null) {
+            for (MessageAccumulator.MessageBatch batch : msgAccumulator.append(partition,
+                    message, encodePayload(message), cb, System.currentTimeMillis())) {
+                sendMessageBatch(batch);
+            }
+            return;
+        }
         final int brokerId = partition.getBrokerId();
         long startTime = System.currentTimeMillis();
         try {
@@ -304,6 +373,94 @@ public class SimpleMessageProducer implements MessageProducer {
         }
     }
 
+    /**
+     * Send the accumulated messages of a partition in one request,
+     * each message's callback is notified with its own result.
+     *
+     * @param batch  the message batch
+     */
+    private void sendMessageBatch(final MessageAccumulator.MessageBatch batch) {
+        final Partition partition = batch.getPartition();
+        final int brokerId = partition.getBrokerId();
+        final long startTime = System.currentTimeMillis();
+        // the end message index of each item in request
+        final int[] itemMsgEnds = new int[batch.getMsgCount()];
+        try {
+            this.brokerRcvQltyStats.addSendStatistic(brokerId);
+            getAsyncBrokerService(partition.getBroker()).sendBatchMessageP2B(
+                    createSendBatchMessageRequest(batch, itemMsgEnds),
+                    AddressUtils.getLocalAddress(), producerConfig.isTlsEnable(),
+                    new Callback() {
+
+                        @Override
+                        public void handleResult(Object result) {
+                            if (!(result instanceof ClientBroker.SendBatchMessageResponseB2P)) {
+                                return;
+                            }
+                            final ClientBroker.SendBatchMessageResponseB2P responseB2P =
+                                    (ClientBroker.SendBatchMessageResponseB2P) result;
+                            partition.resetRetries();
+                            brokerRcvQltyStats.addReceiveStatistic(brokerId,
+                                    responseB2P.getSuccess());
+                            if (!responseB2P.getSuccess()
+                                    && responseB2P.getErrCode() == TErrCodeConstants.SERVICE_UNAVAILABLE) {
+                                rpcServiceFactory.addUnavailableBroker(brokerId);
+                            }
+                            final long dltTime = System.currentTimeMillis() - startTime;
+                            int msgIndex = 0;
+                            for (int item = 0; msgIndex < batch.getMsgCount(); item++) {
+                                ClientBroker.SendMessageResponseB2P msgResponse;
+                                if (responseB2P.getSuccess() && item < responseB2P.getResultsCount()) {
+                                    msgResponse = responseB2P.getResults(item);
+                                } else {
+                                    msgResponse = ClientBroker.SendMessageResponseB2P.newBuilder()
+                                            .setSuccess(false).setErrCode(responseB2P.getErrCode())
+                                            .setErrMsg(responseB2P.getErrMsg()).build();
+                                }
+                                // the messages compressed in one item share its result
+                                for (; msgIndex < itemMsgEnds[item]; msgIndex++) {
+                                    try {
+                                        batch.getCallbacks().get(msgIndex).onMessageSent(
+                                                buildMsgSentResult(dltTime, batch.getMessages().get(msgIndex),
+                                                        partition, msgResponse));
+                                    } catch (Throwable e) {
+                                        logger.warn("[Batch Send] message sent callback failure", e);
+                                    }
+                                }
+                            }
+                        }
+
+                        @Override
+                        public void handleError(Throwable error) {
+                            producerManager.getClientMetrics().bookFailRpcCall(
+                                    TErrCodeConstants.UNSPECIFIED_ABNORMAL);
+                            partition.increRetries(1);
+                            brokerRcvQltyStats.addReceiveStatistic(brokerId, false);
+                            notifyBatchException(batch, error);
+                        }
+                    });
+            rpcServiceFactory.resetRmtAddrErrCount(partition.getBroker().getBrokerAddr());
+        } catch (final Throwable e) {
+            if (e instanceof LocalConnException) {
+                rpcServiceFactory.addRmtAddrErrCount(partition.getBroker().getBrokerAddr());
+            }
+            // if failed,increment the counter
+            partition.increRetries(1);
+            this.brokerRcvQltyStats.addReceiveStatistic(brokerId, false);
+            notifyBatchException(batch, e);
+        }
+    }
+
+    private void notifyBatchException(MessageAccumulator.MessageBatch batch, Throwable error) {
+        for (MessageSentCallback callback : batch.getCallbacks()) {
+            try {
+                callback.onException(error);
+            } catch (Throwable e) {
+                logger.warn("[Batch Send] message exception callback failure", e);
+            }
+        }
+    }
+
     private MessageSentResult checkMessageAndStatus(final Message message) {
         if (message == null) {
             return new MessageSentResult(message, false,
@@ -371,6 +528,100 @@ public class SimpleMessageProducer implements MessageProducer {
         return builder.build();
     }
 
+    /**
+     * Build the batch request. When compression is enabled, the consecutive messages
+     * with the same attribute are compressed into one item, otherwise each message
+     * is an item.
+     *
+     * @param batch         the message batch
+     * @param itemMsgEnds   the end message index of each item
+     * @return              the request
+     */
+    private ClientBroker.SendBatchMessageRequestP2B createSendBatchMessageRequest(
+            MessageAccumulator.MessageBatch batch, int[] itemMsgEnds) {
+        final String topicName = batch.getPartition().getTopic();
+        // the old consumers get a compressed batch as one opaque message
+        final CompressType compressType = producerConfig.isBatchCompressTopic(topicName)
+                ? producerConfig.getBatchCompressType()
+                : CompressType.NONE;
+        ClientBroker.SendBatchMessageRequestP2B.Builder builder =
+                ClientBroker.SendBatchMessageRequestP2B.newBuilder();
+        builder.setClientId(this.producerManager.getProducerId());
+        builder.setTopicName(topicName);
+        builder.setPartitionId(batch.getPartition().getPartitionId());
+        builder.setSentAddr(this.producerManager.getProducerAddrId());
+        int itemCnt = 0;
+        int msgIndex = 0;
+        while (msgIndex < batch.getMsgCount()) {
+            Message message = batch.getMessages().get(msgIndex);
+            int runEnd = msgIndex + 1;
+            if (compressType != CompressType.NONE) {
+                while (runEnd < batch.getMsgCount()
+                        && Objects.equals(message.getAttribute(),
+                                batch.getMessages().get(runEnd).getAttribute())) {
+                    runEnd++;
+                }
+            }
+            byte[] itemData = null;
+            int itemFlag = MessageFlagUtils.getFlag(message);
+            if (runEnd - msgIndex > 1) {
+                itemData = compressMessages(batch.getMessages().subList(msgIndex, runEnd),
+                        compressType, producerManager.getMaxMsgSize(topicName));
+            }
+            if (itemData == null) {
+                itemData = batch.getPayloads().get(msgIndex);
+                runEnd = msgIndex + 1;
+            } else {
+                // the attribute is kept in the compressed payload only if not blank
+                itemFlag = MessageFlagUtils.setCompressType(
+                        TStringUtils.isBlank(message.getAttribute()) ? 0 : 1, compressType);
+            }
+            ClientBroker.BatchMessageItemP2B.Builder itemBuilder =
+                    ClientBroker.BatchMessageItemP2B.newBuilder();
+            itemBuilder.setData(ByteString.copyFrom(itemData));
+            itemBuilder.setFlag(itemFlag);
+            itemBuilder.setCheckSum(-1);
+            if (TStringUtils.isNotBlank(message.getMsgType())) {
+                itemBuilder.setMsgType(message.getMsgType());
+            }
+            if (TStringUtils.isNotBlank(message.getMsgTime())) {
+                itemBuilder.setMsgTime(message.getMsgTime());
+            }
+            builder.addMessages(itemBuilder.build());
+            itemMsgEnds[itemCnt++] = runEnd;
+            msgIndex = runEnd;
+        }
+        builder = this.producerManager.setAuthorizedTokenInfo(builder);
+        return builder.build();
+    }
+
+    /**
+     * Compress the messages with the same attribute into one payload.
+     *
+     * @param messages       the messages
+     * @param compressType   the compress type
+     * @param maxMsgSize     the allowed max message size of topic
+     * @return               the compressed payload, or null if compress failure or over size
+     */
+    private byte[] compressMessages(List<Message> messages,
+            CompressType compressType, int maxMsgSize) {
+        List<byte[]> datas = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            datas.add(message.getData());
+        }
+        try {
+            byte[] payload = MessageBatchCodec.encode(
+                    messages.get(0).getAttribute(), datas, compressType);
+            if (payload.length > maxMsgSize) {
+                return null;
+            }
+            return payload;
+        } catch (Throwable e) {
+            logger.warn("[Batch Send] compress messages failure, send them uncompressed", e);
+            return null;
+        }
+    }
+
     private byte[] encodePayload(final Message message) {
         final byte[] payload = message.getData();
         final String attribute = message.getAttribute();
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.client.consumer;
+
+import org.apache.inlong.tubemq.client.config.ConsumerConfig;
+import org.apache.inlong.tubemq.corebase.cluster.BrokerInfo;
+import org.apache.inlong.tubemq.corebase.cluster.Partition;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Measure the select-to-release cycle of the partitions, the time and the allocated bytes
+ * per cycle of the slot table, of the remote data cache including the returned select
+ * result, and of the former string keyed maps and queue. Run it by main().
+ */
+public class PartitionSelectBenchmark {
+
+    private static final int PARTITION_COUNT = 1000;
+    private static final int WARMUP_CYCLES = 2000000;
+    private static final int CYCLES = 5000000;
+
+    public static void main(String[] args) {
+        List<Partition> partitions = new ArrayList<>(PARTITION_COUNT);
+        BrokerInfo brokerInfo = new BrokerInfo(1, "127.0.0.1", 8123);
+        for (int i = 0; i < PARTITION_COUNT; i++) {
+            partitions.add(new Partition(brokerInfo, "test", i));
+        }
+        // slot table only
+        PartitionSlotTable slotTable = new PartitionSlotTable();
+        for (Partition partition : partitions) {
+            slotTable.markIdle(slotTable.assign(new PartitionExt(null, null,
+                    partition.getBroker(), partition.getTopic(), partition.getPartitionId()), null));
+        }
+        runSlotTable(slotTable, WARMUP_CYCLES);
+        report("slot table", CYCLES, measure(() -> runSlotTable(slotTable, CYCLES)));
+        // remote data cache
+        RmtDataCache rmtDataCache = new RmtDataCache(
+                new ConsumerConfig("127.0.0.1:8715", "test_group"), partitions);
+        runDataCache(rmtDataCache, WARMUP_CYCLES);
+        report("remote data cache", CYCLES, measure(() -> runDataCache(rmtDataCache, CYCLES)));
+        rmtDataCache.close();
+        // the former maps
+        ConcurrentHashMap<String, Long> usedMap = new ConcurrentHashMap<>();
+        ConcurrentLinkedQueue<String> idleQueue = new ConcurrentLinkedQueue<>();
+        for (Partition partition : partitions) {
+            idleQueue.offer(partition.getPartitionKey());
+        }
+        runStringMaps(usedMap, idleQueue, WARMUP_CYCLES / 10);
+        report("string keyed maps", CYCLES / 10,
+                measure(() -> runStringMaps(usedMap, idleQueue, CYCLES / 10)));
+    }
+
+    private static void runSlotTable(PartitionSlotTable slotTable, int cycles) {
+        for (int i = 0; i < cycles; i++) {
+            PartitionSlotTable.Slot slot = slotTable.pollIdle(i);
+            if (slotTable.releaseUsed(slot, i)) {
+                slotTable.markIdle(slot);
+            }
+        }
+    }
+
+    private static void runDataCache(RmtDataCache rmtDataCache, int cycles) {
+        for (int i = 0; i < cycles; i++) {
+            PartitionSelectResult result = rmtDataCache.pullSelect();
+            rmtDataCache.errReqRelease(result.getPartition().getPartitionKey(),
+                    result.getUsedToken(), false);
+        }
+    }
+
+    private static void runStringMaps(ConcurrentHashMap<String, Long> usedMap,
+            ConcurrentLinkedQueue<String> idleQueue, int cycles) {
+        for (int i = 0; i < cycles; i++) {
+            String key = idleQueue.poll();
+            long usedToken = System.currentTimeMillis();
+            usedMap.putIfAbsent(key, usedToken);
+            // the former release checked the queue before removing the used token
+            if (!idleQueue.contains(key)) {
+                Long oldToken = usedMap.get(key);
+                if (oldToken != null && oldToken == usedToken) {
+                    usedMap.remove(key);
+                    idleQueue.offer(key);
+                }
+            }
+        }
+    }
+
+    private static long[] measure(Runnable runnable) {
+        long startBytes = allocatedBytes();
+        long startTime = System.nanoTime();
+        runnable.run();
+        return new long[]{System.nanoTime() - startTime, allocatedBytes() - startBytes};
+    }
+
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threadMXBean)
+                    .getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0L;
+    }
+
+    private static void report(String name, int cycles, long[] result) {
+        System.out.println(new StringBuilder(256).append(name)
+                .append(": partitions=").append(PARTITION_COUNT)
+                .append(", cycles=").append(cycles)
+                .append(", ns/cycle=").append(result[0] / cycles)
+                .append(", allocated bytes/cycle=").append(result[1] / cycles).toString());
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.client.consumer;
+
+import org.apache.inlong.tubemq.corebase.cluster.BrokerInfo;
+import org.apache.inlong.tubemq.corebase.policies.FlowCtrlRuleHandler;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+public class PartitionSlotTableTest {
+
+    @Test
+    public void testSelectAndRelease() {
+        PartitionSlotTable slotTable = new PartitionSlotTable();
+        // more partitions than the initial ring capacity
+        int partCnt = 200;
+        PartitionSlotTable.Slot[] slots = new PartitionSlotTable.Slot[partCnt];
+        for (int i = 0; i < partCnt; i++) {
+            slots[i] = slotTable.assign(newPartition(i), null);
+            Assert.assertTrue(slotTable.markIdle(slots[i]));
+            Assert.assertFalse(slotTable.markIdle(slots[i]));
+        }
+        // the idle partitions are selected in the released order
+        for (int i = 0; i < partCnt; i++) {
+            PartitionSlotTable.Slot slot = slotTable.pollIdle(1000L + i);
+            Assert.assertSame(slots[i], slot);
+            Assert.assertEquals(PartitionSlotTable.STATE_USED, slot.getState());
+        }
+        Assert.assertNull(slotTable.pollIdle(1L));
+        Assert.assertFalse(slotTable.hasIdle());
+        Assert.assertTrue(slotTable.hasState(PartitionSlotTable.STATE_USED));
+        // only the matched token releases the partition
+        Assert.assertFalse(slotTable.releaseUsed(slots[0], 999L));
+        Assert.assertTrue(slotTable.releaseUsed(slots[0], 1000L));
+        Assert.assertFalse(slotTable.releaseUsed(slots[0], 1000L));
+        Assert.assertTrue(slotTable.startWait(slots[0]));
+        Assert.assertTrue(slotTable.hasState(PartitionSlotTable.STATE_WAITING));
+        Assert.assertFalse(slotTable.markIdle(slots[0]));
+        Assert.assertTrue(slotTable.endWait(slots[0]));
+        Assert.assertFalse(slotTable.hasState(PartitionSlotTable.STATE_WAITING));
+        Assert.assertTrue(slotTable.markIdle(slots[0]));
+        Assert.assertSame(slots[0], slotTable.pollIdle(2000L));
+        Assert.assertEquals(2000L, slots[0].getUsedToken());
+    }
+
+    @Test
+    public void testRemoveAndReuse() {
+        PartitionSlotTable slotTable = new PartitionSlotTable();
+        PartitionSlotTable.Slot slot1 = slotTable.assign(newPartition(1), null);
+        PartitionSlotTable.Slot slot2 = slotTable.assign(newPartition(2), null);
+        slotTable.markIdle(slot1);
+        slotTable.markIdle(slot2);
+        // the queued slot id is kept until its ring entry is polled
+        Assert.assertEquals(PartitionSlotTable.STATE_IDLE, slotTable.remove(slot1));
+        PartitionSlotTable.Slot slot3 = slotTable.assign(newPartition(3), null);
+        Assert.assertNotEquals(slot1.getSlotId(), slot3.getSlotId());
+        Assert.assertSame(slot2, slotTable.pollIdle(1L));
+        Assert.assertSame(slot2.getPartitionExt(),
+                slotTable.getSlot(slot2.getSlotId()).getPartitionExt());
+        Assert.assertNull(slotTable.getSlot(slot1.getSlotId()));
+        PartitionSlotTable.Slot slot4 = slotTable.assign(newPartition(4), null);
+        Assert.assertEquals(slot1.getSlotId(), slot4.getSlotId());
+        // the slot in use is recycled at once, its release is ignored
+        Assert.assertEquals(PartitionSlotTable.STATE_USED, slotTable.remove(slot2));
+        Assert.assertFalse(slotTable.releaseUsed(slot2, 1L));
+        PartitionSlotTable.Slot slot5 = slotTable.assign(newPartition(5), null);
+        Assert.assertEquals(slot2.getSlotId(), slot5.getSlotId());
+        Set<Integer> slotIds = new HashSet<>();
+        slotIds.add(slot3.getSlotId());
+        slotIds.add(slot4.getSlotId());
+        slotIds.add(slot5.getSlotId());
+        Assert.assertEquals(3, slotIds.size());
+        Assert.assertFalse(slotTable.hasState(PartitionSlotTable.STATE_USED));
+        Assert.assertFalse(slotTable.hasState(PartitionSlotTable.STATE_REMOVED));
+        Assert.assertTrue(slotTable.hasState(PartitionSlotTable.STATE_PARKED));
+        for (PartitionSlotTable.Slot slot : new PartitionSlotTable.Slot[]{slot3, slot4, slot5}) {
+            slotTable.remove(slot);
+        }
+        Assert.assertFalse(slotTable.hasState(PartitionSlotTable.STATE_PARKED));
+    }
+
+    private static PartitionExt newPartition(int partitionId) {
+        return new PartitionExt(new FlowCtrlRuleHandler(false),
+                new FlowCtrlRuleHandler(true),
+                new BrokerInfo(1, "127.0.0.1", 8123), "test", partitionId);
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.client.producer;
+
+import org.apache.inlong.tubemq.corebase.Message;
+import org.apache.inlong.tubemq.corebase.cluster.BrokerInfo;
+import org.apache.inlong.tubemq.corebase.cluster.Partition;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class MessageAccumulatorTest {
+
+    private final MessageSentCallback callback = new MessageSentCallback() {
+
+        @Override
+        public void onMessageSent(MessageSentResult result) {
+        }
+
+        @Override
+        public void onException(Throwable e) {
+        }
+    };
+
+    @Test
+    public void testBatchByMsgCount() {
+        MessageAccumulator accumulator = new MessageAccumulator(1000L, 3, 1024);
+        Partition partition1 = new Partition(new BrokerInfo("0:127.0.0.1:18080"), "test", 0);
+        Partition partition2 = new Partition(new BrokerInfo("0:127.0.0.1:18080"), "test", 1);
+        Message message = new Message("test", new byte[]{1, 2, 3});
+        assertEquals(0, accumulator.append(partition1, message,
+                message.getData(), callback, 0L).size());
+        assertEquals(0, accumulator.append(partition2, message,
+                message.getData(), callback, 0L).size());
+        assertEquals(0, accumulator.append(partition1, message,
+                message.getData(), callback, 0L).size());
+        List<MessageAccumulator.MessageBatch> readyBatches =
+                accumulator.append(partition1, message, message.getData(), callback, 0L);
+        assertEquals(1, readyBatches.size());
+        assertEquals(3, readyBatches.get(0).getMsgCount());
+        assertEquals(9, readyBatches.get(0).getDataSize());
+        assertEquals(0, readyBatches.get(0).getPartition().getPartitionId());
+        assertEquals(1, accumulator.getOpenBatchCount());
+    }
+
+    @Test
+    public void testBatchByDataSize() {
+        MessageAccumulator accumulator = new MessageAccumulator(1000L, 100, 10);
+        Partition partition = new Partition(new BrokerInfo("0:127.0.0.1:18080"), "test", 0);
+        Message message = new Message("test", new byte[]{1, 2, 3, 4});
+        assertEquals(0, accumulator.append(partition, message,
+                message.getData(), callback, 0L).size());
+        assertEquals(0, accumulator.append(partition, message,
+                message.getData(), callback, 0L).size());
+        // the third message would overflow the open batch
+        List<MessageAccumulator.MessageBatch> readyBatches =
+                accumulator.append(partition, message, message.getData(), callback, 0L);
+        assertEquals(1, readyBatches.size());
+        assertEquals(2, readyBatches.get(0).getMsgCount());
+        // an over-sized message closes the open batch and is sent alone
+        Message bigMessage = new Message("test", new byte[20]);
+        readyBatches = accumulator.append(partition, bigMessage,
+                bigMessage.getData(), callback, 0L);
+        assertEquals(2, readyBatches.size());
+        assertEquals(1, readyBatches.get(0).getMsgCount());
+        assertEquals(20, readyBatches.get(1).getDataSize());
+        assertEquals(0, accumulator.getOpenBatchCount());
+    }
+
+    @Test
+    public void testDrainBatches() {
+        MessageAccumulator accumulator = new MessageAccumulator(10L, 100, 1024);
+        Partition partition1 = new Partition(new BrokerInfo("0:127.0.0.1:18080"), "test", 0);
+        Partition partition2 = new Partition(new BrokerInfo("0:127.0.0.1:18080"), "test", 1);
+        Message message = new Message("test", new byte[]{1, 2, 3});
+        accumulator.append(partition1, message, message.getData(), callback, 0L);
+        accumulator.append(partition2, message, message.getData(), callback, 5L);
+        assertEquals(0, accumulator.drainExpired(9L).size());
+        List<MessageAccumulator.MessageBatch> expiredBatches = accumulator.drainExpired(10L);
+        assertEquals(1, expiredBatches.size());
+        assertEquals(0, expiredBatches.get(0).getPartition().getPartitionId());
+        assertEquals(1, accumulator.drainAll().size());
+        assertEquals(0, accumulator.getOpenBatchCount());
+    }
+}
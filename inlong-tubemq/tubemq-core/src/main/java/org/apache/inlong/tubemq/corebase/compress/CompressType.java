@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.corebase.compress;
+
+import org.xerial.snappy.Snappy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * The compression codec of message batch, the value is kept in the message flag.
+ */
+public enum CompressType {
+
+    /**
+     * Not compressed.
+     * */
+    NONE(0, "none") {
+
+        @Override
+        public byte[] compress(byte[] data) {
+            return data;
+        }
+
+        @Override
+        public byte[] decompress(byte[] data, int offset, int length) {
+            byte[] result = new byte[length];
+            System.arraycopy(data, offset, result, 0, length);
+            return result;
+        }
+    },
+    /**
+     * Compressed by the jdk deflater.
+     * */
+    DEFLATE(1, "deflate") {
+
+        @Override
+        public byte[] compress(byte[] data) {
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try {
+                deflater.setInput(data);
+                deflater.finish();
+                ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2 + 64);
+                byte[] buffer = new byte[4096];
+                while (!deflater.finished()) {
+                    int count = deflater.deflate(buffer);
+                    out.write(buffer, 0, count);
+                }
+                return out.toByteArray();
+            } finally {
+                deflater.end();
+            }
+        }
+
+        @Override
+        public byte[] decompress(byte[] data, int offset, int length) throws IOException {
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(data, offset, length);
+                ByteArrayOutputStream out = new ByteArrayOutputStream(length * 4);
+                byte[] buffer = new byte[4096];
+                while (!inflater.finished()) {
+                    int count = inflater.inflate(buffer);
+                    if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        throw new IOException("Truncated deflate data");
+                    }
+                    out.write(buffer, 0, count);
+                }
+                return out.toByteArray();
+            } catch (DataFormatException e) {
+                throw new IOException(e);
+            } finally {
+                inflater.end();
+            }
+        }
+    },
+    /**
+     * Compressed by snappy.
+     * */
+    SNAPPY(2, "snappy") {
+
+        @Override
+        public byte[] compress(byte[] data) throws IOException {
+            return Snappy.compress(data);
+        }
+
+        @Override
+        public byte[] decompress(byte[] data, int offset, int length) throws IOException {
+            byte[] result = new byte[Snappy.uncompressedLength(data, offset, length)];
+            Snappy.uncompress(data, offset, length, result, 0);
+            return result;
+        }
+    };
+
+    private final int value;
+    private final String codecName;
+
+    CompressType(int value, String codecName) {
+        this.value = value;
+        this.codecName = codecName;
+    }
+
+    public static CompressType valueOf(int value) {
+        for (CompressType compressType : CompressType.values()) {
+            if (compressType.getValue() == value) {
+                return compressType;
+            }
+        }
+        return null;
+    }
+
+    public int getValue() {
+        return value;
+    }
+
+    public String getCodecName() {
+        return codecName;
+    }
+
+    public static CompressType nameOf(String codecName) {
+        for (CompressType compressType : CompressType.values()) {
+            if (compressType.getCodecName().equalsIgnoreCase(codecName)) {
+                return compressType;
+            }
+        }
+        return null;
+    }
+
+    public abstract byte[] compress(byte[] data) throws IOException;
+
+    public abstract byte[] decompress(byte[] data, int offset, int length) throws IOException;
+
+}
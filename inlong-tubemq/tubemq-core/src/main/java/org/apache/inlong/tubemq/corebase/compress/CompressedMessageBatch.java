@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.corebase.compress;
+
+import org.apache.inlong.tubemq.corebase.Message;
+import org.apache.inlong.tubemq.corebase.MessageExt;
+import org.apache.inlong.tubemq.corebase.utils.MessageFlagUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A received message batch kept compressed, the messages are decompressed on demand.
+ * The data is the batch data after attribute, the attribute is shared by the messages.
+ */
+public class CompressedMessageBatch extends MessageExt {
+
+    private final CompressType compressType;
+    private final int msgCount;
+
+    public CompressedMessageBatch(long indexId, String topic, byte[] data,
+            String attribute, int flag, CompressType compressType) {
+        super(indexId, topic, data, attribute, flag);
+        this.compressType = compressType;
+        this.msgCount = MessageBatchCodec.getMsgCount(data);
+    }
+
+    public CompressType getCompressType() {
+        return compressType;
+    }
+
+    public int getMsgCount() {
+        return msgCount;
+    }
+
+    /**
+     * Decompress the batch to messages, the messages share the batch's
+     * index id and attribute.
+     *
+     * @return the messages in the batch
+     * @throws IOException   the exception while the batch is invalid
+     */
+    public List<Message> decompress() throws IOException {
+        List<byte[]> datas = MessageBatchCodec.decode(getData(), compressType);
+        List<Message> messages = new ArrayList<>(datas.size());
+        int msgFlag = MessageFlagUtils.setCompressType(getFlag(), CompressType.NONE);
+        for (byte[] data : datas) {
+            messages.add(new MessageExt(getIndexId(), getTopic(), data, getAttribute(), msgFlag));
+        }
+        return messages;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.corebase.compress;
+
+import org.apache.inlong.tubemq.corebase.Message;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A message list holding compressed batches, the batches are decompressed
+ * into messages when the list is accessed the first time.
+ */
+public class LazyMessageList extends AbstractList<Message> {
+
+    private final List<Message> sourceList;
+    private volatile List<Message> expandedList;
+
+    private LazyMessageList(List<Message> sourceList) {
+        this.sourceList = sourceList;
+    }
+
+    /**
+     * Wrap the message list if it holds compressed batches.
+     *
+     * @param messageList   the message list
+     * @return              the lazily expanded list, or the passed in list if no batch
+     */
+    public static List<Message> wrap(List<Message> messageList) {
+        for (Message message : messageList) {
+            if (message instanceof CompressedMessageBatch) {
+                return new LazyMessageList(messageList);
+            }
+        }
+        return messageList;
+    }
+
+    @Override
+    public Message get(int index) {
+        return getExpandedList().get(index);
+    }
+
+    @Override
+    public int size() {
+        return getExpandedList().size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        // a compressed batch is never empty, so no need to decompress
+        return sourceList.isEmpty();
+    }
+
+    private List<Message> getExpandedList() {
+        List<Message> curList = expandedList;
+        if (curList == null) {
+            synchronized (this) {
+                curList = expandedList;
+                if (curList == null) {
+                    curList = expand();
+                    expandedList = curList;
+                }
+            }
+        }
+        return curList;
+    }
+
+    private List<Message> expand() {
+        List<Message> messages = new ArrayList<>(sourceList.size());
+        for (Message message : sourceList) {
+            if (message instanceof CompressedMessageBatch) {
+                try {
+                    messages.addAll(((CompressedMessageBatch) message).decompress());
+                } catch (IOException e) {
+                    throw new IllegalStateException(new StringBuilder(256)
+                            .append("Decompress message batch failure, topic=")
+                            .append(message.getTopic()).append(", indexId=")
+                            .append(message.getIndexId()).toString(), e);
+                }
+            } else {
+                messages.add(message);
+            }
+        }
+        return messages;
+    }
+}
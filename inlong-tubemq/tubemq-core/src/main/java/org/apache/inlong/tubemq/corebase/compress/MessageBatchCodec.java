@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.corebase.compress;
+
+import org.apache.inlong.tubemq.corebase.utils.TStringUtils;
+
+import org.apache.commons.codec.binary.StringUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encode and decode the payload of a compressed message batch.
+ *
+ * The stored payload is [attribute length][attribute] if attribute exists, then
+ * [message count][compressed block], the block is [data length][data] of each message.
+ * The attribute is shared by all the messages in the batch, so that the broker and
+ * the consumer can filter the batch without decompressing it.
+ */
+public class MessageBatchCodec {
+
+    /**
+     * Encode the data of messages with the same attribute to a compressed batch payload.
+     *
+     * @param attribute      the shared attribute, null if not exists
+     * @param datas          the data of each message
+     * @param compressType   the compress type
+     * @return               the stored payload
+     * @throws IOException   the exception while compressing
+     */
+    public static byte[] encode(String attribute, List<byte[]> datas,
+            CompressType compressType) throws IOException {
+        int blockSize = 0;
+        for (byte[] data : datas) {
+            blockSize += 4 + data.length;
+        }
+        ByteBuffer blockBuffer = ByteBuffer.allocate(blockSize);
+        for (byte[] data : datas) {
+            blockBuffer.putInt(data.length);
+            blockBuffer.put(data);
+        }
+        byte[] compressed = compressType.compress(blockBuffer.array());
+        byte[] attrData = null;
+        int payloadSize = 4 + compressed.length;
+        if (TStringUtils.isNotBlank(attribute)) {
+            attrData = StringUtils.getBytesUtf8(attribute);
+            payloadSize += 4 + attrData.length;
+        }
+        ByteBuffer payload = ByteBuffer.allocate(payloadSize);
+        if (attrData != null) {
+            payload.putInt(attrData.length);
+            payload.put(attrData);
+        }
+        payload.putInt(datas.size());
+        payload.put(compressed);
+        return payload.array();
+    }
+
+    /**
+     * Get the message count of the batch data without decompressing.
+     *
+     * @param batchData   the batch data after attribute
+     * @return            the message count, -1 if the data is invalid
+     */
+    public static int getMsgCount(byte[] batchData) {
+        if (batchData == null || batchData.length < 4) {
+            return -1;
+        }
+        return ByteBuffer.wrap(batchData).getInt(0);
+    }
+
+    /**
+     * Decompress the batch data into the data of each message.
+     *
+     * @param batchData      the batch data after attribute
+     * @param compressType   the compress type
+     * @return               the data of each message
+     * @throws IOException   the exception while the data is invalid
+     */
+    public static List<byte[]> decode(byte[] batchData,
+            CompressType compressType) throws IOException {
+        int msgCount = getMsgCount(batchData);
+        if (msgCount < 0) {
+            throw new IOException("Invalid compressed batch: message count not found");
+        }
+        ByteBuffer block = ByteBuffer.wrap(
+                compressType.decompress(batchData, 4, batchData.length - 4));
+        List<byte[]> datas = new ArrayList<>(msgCount);
+        for (int i = 0; i < msgCount; i++) {
+            if (block.remaining() < 4) {
+                throw new IOException("Invalid compressed batch: message length not found");
+            }
+            int dataLen = block.getInt();
+            if (dataLen < 0 || dataLen > block.remaining()) {
+                throw new IOException("Invalid compressed batch: message length over block size");
+            }
+            byte[] data = new byte[dataLen];
+            block.get(data);
+            datas.add(data);
+        }
+        return datas;
+    }
+}
@@ -25,8 +25,14 @@ import org.apache.inlong.tubemq.corebase.cluster.BrokerInfo;
 import org.apache.inlong.tubemq.corebase.cluster.Partition;
 import org.apache.inlong.tubemq.corebase.cluster.SubscribeInfo;
 import org.apache.inlong.tubemq.corebase.cluster.TopicInfo;
+import org.apache.inlong.tubemq.corebase.compress.CompressType;
+import org.apache.inlong.tubemq.corebase.compress.CompressedMessageBatch;
 import org.apache.inlong.tubemq.corebase.protobuf.generated.ClientBroker;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
@@ -41,6 +47,8 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class DataConverterUtil {
 
+    private static final Logger logger = LoggerFactory.getLogger(DataConverterUtil.class);
+
     /**
      * convert string info to @link SubscribeInfo
      *
@@ -207,6 +215,22 @@ public class DataConverterUtil {
      */
     public static List<Message> convertMessage(final String topicName,
             List<ClientBroker.TransferedMessage> transferedMessageList) {
+        return convertMessage(topicName, transferedMessageList, true);
+    }
+
+    /**
+     * convert a list of @link ClientBroker.TransferedMessage with topicName
+     * to a list of @link Message, the compressed batches are kept as
+     * {@link CompressedMessageBatch} if not expanded
+     *
+     * @param topicName              the topic name
+     * @param transferedMessageList  the transferred message list
+     * @param expandBatch            whether to decompress the compressed batches
+     * @return   a list of @link Message
+     */
+    public static List<Message> convertMessage(final String topicName,
+            List<ClientBroker.TransferedMessage> transferedMessageList,
+            boolean expandBatch) {
         if (transferedMessageList == null || transferedMessageList.isEmpty()) {
             return new ArrayList<>();
         }
@@ -248,6 +272,35 @@ public class DataConverterUtil {
             }
             final byte[] payload = new byte[payloadDataLen];
             System.arraycopy(payloadData.array(), readPos, payload, 0, payloadDataLen);
+            if (MessageFlagUtils.isCompressedBatch(flag)) {
+                CompressType compressType =
+                        CompressType.valueOf(MessageFlagUtils.getCompressType(flag));
+                if (compressType == null) {
+                    // a batch of a newer codec, not readable as plain messages
+                    String errInfo = new StringBuilder(256)
+                            .append("Unsupported compress type ")
+                            .append(MessageFlagUtils.getCompressType(flag))
+                            .append(" of message ").append(trsMessage.getMessageId())
+                            .append(", topic=").append(topicName).toString();
+                    logger.error(errInfo);
+                    throw new RuntimeException(errInfo);
+                }
+                if (payloadDataLen < 4) {
+                    continue;
+                }
+                CompressedMessageBatch msgBatch = new CompressedMessageBatch(
+                        trsMessage.getMessageId(), topicName, payload, attribute, flag, compressType);
+                if (!expandBatch) {
+                    messageList.add(msgBatch);
+                    continue;
+                }
+                try {
+                    messageList.addAll(msgBatch.decompress());
+                } catch (final IOException e) {
+                    throw new RuntimeException(e);
+                }
+                continue;
+            }
             messageList.add(new MessageExt(trsMessage.getMessageId(), topicName, payload, attribute, flag));
         }
         return messageList;
@@ -18,9 +18,14 @@
 package org.apache.inlong.tubemq.corebase.utils;
 
 import org.apache.inlong.tubemq.corebase.Message;
+import org.apache.inlong.tubemq.corebase.compress.CompressType;
 
 public class MessageFlagUtils {
 
+    // bits 1~3 keep the compress type of a compressed message batch
+    private static final int COMPRESS_TYPE_SHIFT = 1;
+    private static final int COMPRESS_TYPE_MASK = 0x7;
+
     public static int getFlag(final Message message) {
         int flag = 0;
         if (message != null && message.getAttribute() != null) {
@@ -33,4 +38,17 @@ public class MessageFlagUtils {
         return (flag & 0x1) == 1;
     }
 
+    public static int setCompressType(final int flag, final CompressType compressType) {
+        return (flag & ~(COMPRESS_TYPE_MASK << COMPRESS_TYPE_SHIFT))
+                | ((compressType.getValue() & COMPRESS_TYPE_MASK) << COMPRESS_TYPE_SHIFT);
+    }
+
+    public static int getCompressType(final int flag) {
+        return (flag >>> COMPRESS_TYPE_SHIFT) & COMPRESS_TYPE_MASK;
+    }
+
+    public static boolean isCompressedBatch(final int flag) {
+        return getCompressType(flag) != CompressType.NONE.getValue();
+    }
+
 }
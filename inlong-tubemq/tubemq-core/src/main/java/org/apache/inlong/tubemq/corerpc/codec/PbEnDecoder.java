@@ -54,6 +54,7 @@ public class PbEnDecoder {
         rpcMethodMap.put("getMessagesC2B", RpcConstants.RPC_MSG_BROKER_CONSUMER_GETMESSAGE);
         rpcMethodMap.put("consumerCommitC2B", RpcConstants.RPC_MSG_BROKER_CONSUMER_COMMIT);
         rpcMethodMap.put("sendMessageP2B", RpcConstants.RPC_MSG_BROKER_PRODUCER_SENDMESSAGE);
+        rpcMethodMap.put("sendBatchMessageP2B", RpcConstants.RPC_MSG_BROKER_PRODUCER_SENDBATCHMESSAGE);
         rpcMethodMap.put("consumerRegisterC2MV2",
                 RpcConstants.RPC_MSG_MASTER_CONSUMER_REGISTER_V2);
         rpcMethodMap.put("consumerHeartbeatC2MV2",
@@ -130,6 +131,9 @@ public class PbEnDecoder {
                 case RpcConstants.RPC_MSG_BROKER_PRODUCER_SENDMESSAGE: {
                     return ClientBroker.SendMessageRequestP2B.parseFrom(bytes);
                 }
+                case RpcConstants.RPC_MSG_BROKER_PRODUCER_SENDBATCHMESSAGE: {
+                    return ClientBroker.SendBatchMessageRequestP2B.parseFrom(bytes);
+                }
                 case RpcConstants.RPC_MSG_BROKER_CONSUMER_REGISTER: {
                     return ClientBroker.RegisterRequestC2B.parseFrom(bytes);
                 }
@@ -193,6 +197,9 @@ public class PbEnDecoder {
                 case RpcConstants.RPC_MSG_BROKER_PRODUCER_SENDMESSAGE: {
                     return ClientBroker.SendMessageResponseB2P.parseFrom(bytes);
                 }
+                case RpcConstants.RPC_MSG_BROKER_PRODUCER_SENDBATCHMESSAGE: {
+                    return ClientBroker.SendBatchMessageResponseB2P.parseFrom(bytes);
+                }
                 case RpcConstants.RPC_MSG_BROKER_CONSUMER_REGISTER: {
                     return ClientBroker.RegisterResponseB2C.parseFrom(bytes);
                 }
@@ -306,6 +313,7 @@ public class PbEnDecoder {
                     case RpcConstants.RPC_MSG_BROKER_PRODUCER_REGISTER:
                     case RpcConstants.RPC_MSG_BROKER_PRODUCER_HEARTBEAT:
                     case RpcConstants.RPC_MSG_BROKER_PRODUCER_SENDMESSAGE:
+                    case RpcConstants.RPC_MSG_BROKER_PRODUCER_SENDBATCHMESSAGE:
                     case RpcConstants.RPC_MSG_BROKER_PRODUCER_CLOSE: {
                         return true;
                     }
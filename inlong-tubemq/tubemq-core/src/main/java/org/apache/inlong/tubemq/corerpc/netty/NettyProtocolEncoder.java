@@ -19,63 +19,79 @@ package org.apache.inlong.tubemq.corerpc.netty;
 
 import org.apache.inlong.tubemq.corerpc.RpcConstants;
 import org.apache.inlong.tubemq.corerpc.RpcDataPack;
+import org.apache.inlong.tubemq.corerpc.server.FileTransferRegion;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToMessageEncoder;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.util.Arrays;
-import java.util.Iterator;
 import java.util.List;
 
 public class NettyProtocolEncoder extends MessageToMessageEncoder<RpcDataPack> {
 
-    private static final Logger logger = LoggerFactory.getLogger(NettyProtocolEncoder.class);
-
     @Override
     protected void encode(ChannelHandlerContext chx, RpcDataPack msg, List<Object> out) {
-        RpcDataPack dataPack = msg;
-        try (ByteArrayOutputStream byteOut = new ByteArrayOutputStream()) {
-            byteOut.write(getPackHeader(dataPack).array());
-            List<ByteBuffer> origs = dataPack.getDataLst();
-            Iterator<ByteBuffer> iter = origs.iterator();
-            while (iter.hasNext()) {
-                ByteBuffer entry = iter.next();
-                byteOut.write(getLengthHeader(entry).array());
-                byteOut.write(getLengthBody(entry));
+        if (msg instanceof RpcTransferDataPack) {
+            encodeTransferPack(chx, (RpcTransferDataPack) msg, out);
+            return;
+        }
+        List<ByteBuffer> dataLst = msg.getDataLst();
+        int frameLen = 12;
+        for (ByteBuffer entry : dataLst) {
+            frameLen += 4 + entry.limit();
+        }
+        // the headers and bodies are written straight into one pooled buffer
+        ByteBuf buf = ByteBufAllocator.DEFAULT.buffer(frameLen);
+        buf.writeInt(RpcConstants.RPC_PROTOCOL_BEGIN_TOKEN);
+        buf.writeInt(msg.getSerialNo());
+        buf.writeInt(dataLst.size());
+        for (ByteBuffer entry : dataLst) {
+            buf.writeInt(entry.limit());
+            if (entry.hasArray()) {
+                buf.writeBytes(entry.array(), entry.arrayOffset(), entry.limit());
+            } else {
+                ByteBuffer dup = entry.duplicate();
+                dup.position(0);
+                buf.writeBytes(dup);
             }
-            byte[] body = byteOut.toByteArray();
-            ByteBuf buf = ByteBufAllocator.DEFAULT.buffer(body.length);
-            buf.writeBytes(body);
-            out.add(buf);
-        } catch (IOException e) {
-            logger.error("encode has exception ", e);
         }
+        out.add(buf);
     }
 
-    private ByteBuffer getPackHeader(RpcDataPack dataPack) {
-        ByteBuffer header = ByteBuffer.allocate(12);
-        header.putInt(RpcConstants.RPC_PROTOCOL_BEGIN_TOKEN);
-        header.putInt(dataPack.getSerialNo());
-        header.putInt(dataPack.getDataLst().size());
-        header.flip();
-        return header;
-    }
-
-    private ByteBuffer getLengthHeader(ByteBuffer buf) {
-        ByteBuffer header = ByteBuffer.allocate(4);
-        header.putInt(buf.limit());
-        header.flip();
-        return header;
-    }
-
-    private byte[] getLengthBody(ByteBuffer buf) {
-        return Arrays.copyOf(buf.array(), buf.limit());
+    /**
+     * Encode a pack with file regions, byte buffers are merged into pooled buffers
+     * and each file region is written by transferTo() after its length header.
+     *
+     * @param chx         the channel handler context
+     * @param dataPack    the data pack to encode
+     * @param out         the encoded objects
+     */
+    private void encodeTransferPack(ChannelHandlerContext chx,
+            RpcTransferDataPack dataPack, List<Object> out) {
+        List<Object> segments = dataPack.getSegments();
+        ByteBuf buf = chx.alloc().buffer(RpcConstants.RPC_MAX_BUFFER_SIZE);
+        buf.writeInt(RpcConstants.RPC_PROTOCOL_BEGIN_TOKEN);
+        buf.writeInt(dataPack.getSerialNo());
+        buf.writeInt(segments.size());
+        for (Object segment : segments) {
+            if (segment instanceof FileTransferRegion) {
+                FileTransferRegion region = (FileTransferRegion) segment;
+                buf.writeInt(region.getCount());
+                out.add(buf);
+                out.add(new TransferFileRegion(region));
+                buf = chx.alloc().buffer(RpcConstants.RPC_MAX_BUFFER_SIZE);
+            } else {
+                ByteBuffer entry = ((ByteBuffer) segment).duplicate();
+                buf.writeInt(entry.remaining());
+                buf.writeBytes(entry);
+            }
+        }
+        if (buf.isReadable()) {
+            out.add(buf);
+        } else {
+            buf.release();
+        }
     }
 }
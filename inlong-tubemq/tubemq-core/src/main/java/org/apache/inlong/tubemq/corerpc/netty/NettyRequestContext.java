@@ -23,8 +23,11 @@ import org.apache.inlong.tubemq.corerpc.ResponseWrapper;
 import org.apache.inlong.tubemq.corerpc.RpcDataPack;
 import org.apache.inlong.tubemq.corerpc.codec.PbEnDecoder;
 import org.apache.inlong.tubemq.corerpc.server.RequestContext;
+import org.apache.inlong.tubemq.corerpc.server.TransferableResponse;
 
 import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
@@ -35,6 +38,7 @@ import java.io.DataOutputStream;
 import java.io.IOException;
 import java.net.SocketAddress;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.List;
 
 public class NettyRequestContext implements RequestContext {
@@ -67,7 +71,15 @@ public class NettyRequestContext implements RequestContext {
     @Override
     public void write(ResponseWrapper response) throws Exception {
         RpcDataPack dataPack;
+        // the file regions of the response are released once it is sent or dropped
+        final TransferableResponse transferData =
+                (response.getResponseData() instanceof TransferableResponse)
+                        ? (TransferableResponse) response.getResponseData()
+                        : null;
         if ((System.currentTimeMillis() - receiveTime) >= request.getTimeout()) {
+            if (transferData != null) {
+                transferData.release();
+            }
             if (logger.isDebugEnabled()) {
                 logger.debug(new StringBuilder(512)
                         .append("Timeout,so give up send response to client.RequestId:")
@@ -79,12 +91,24 @@ public class NettyRequestContext implements RequestContext {
             }
             return;
         }
-        dataPack = new RpcDataPack(response.getSerialNo(), prepareResponse(response));
+        if (transferData != null && response.isSuccess()) {
+            dataPack = new RpcTransferDataPack(response.getSerialNo(),
+                    prepareTransferResponse(response));
+        } else {
+            if (transferData != null) {
+                transferData.release();
+            }
+            dataPack = new RpcDataPack(response.getSerialNo(), prepareResponse(response));
+        }
         ChannelFuture wf = ctx.channel().writeAndFlush(dataPack);
         wf.addListener(new ChannelFutureListener() {
 
             @Override
             public void operationComplete(ChannelFuture future) throws Exception {
+                if (transferData != null) {
+                    // the regions not handed to netty by the encoder are released here
+                    transferData.release();
+                }
                 if (!future.isSuccess()) {
                     Throwable exception = future.cause();
                     if (exception != null) {
@@ -157,6 +181,50 @@ public class NettyRequestContext implements RequestContext {
         return buf.getBufferList();
     }
 
+    /**
+     * Prepare the response whose data is a {@link TransferableResponse}.
+     * The RspResponseBody envelope is written by hand, so the data segments,
+     * including file regions, follow it without being copied.
+     *
+     * @param response   the response to write
+     * @return           the response segments
+     */
+    protected List<Object> prepareTransferResponse(ResponseWrapper response) {
+        TransferableResponse transferData =
+                (TransferableResponse) response.getResponseData();
+        ByteBufferOutputStream buf = new ByteBufferOutputStream();
+        DataOutputStream out = new DataOutputStream(buf);
+        try {
+            RPCProtos.RpcConnHeader.Builder connBuilder =
+                    RPCProtos.RpcConnHeader.newBuilder();
+            connBuilder.setFlag(response.getFlagId());
+            connBuilder.build().writeDelimitedTo(out);
+            RPCProtos.ResponseHeader.Builder rpcBuilder =
+                    RPCProtos.ResponseHeader.newBuilder();
+            rpcBuilder.setStatus(RPCProtos.ResponseHeader.Status.SUCCESS);
+            rpcBuilder.setProtocolVer(response.getProtocolVersion());
+            rpcBuilder.build().writeDelimitedTo(out);
+            // RspResponseBody: method = 1, data = 2
+            int dataSize = transferData.getSerializedSize();
+            int bodySize = CodedOutputStream.computeInt32Size(1, response.getMethodId())
+                    + CodedOutputStream.computeTagSize(2)
+                    + CodedOutputStream.computeUInt32SizeNoTag(dataSize) + dataSize;
+            CodedOutputStream codedOut = CodedOutputStream.newInstance(out);
+            codedOut.writeUInt32NoTag(bodySize);
+            codedOut.writeInt32(1, response.getMethodId());
+            codedOut.writeTag(2, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            codedOut.writeUInt32NoTag(dataSize);
+            codedOut.flush();
+        } catch (IOException e) {
+            logger.warn(new StringBuilder(512)
+                    .append("Exception while creating response ")
+                    .append(e).toString());
+        }
+        List<Object> segments = new ArrayList<>(buf.getBufferList());
+        segments.addAll(transferData.getSegments());
+        return segments;
+    }
+
     @Override
     public long getReceiveTime() {
         return this.receiveTime;
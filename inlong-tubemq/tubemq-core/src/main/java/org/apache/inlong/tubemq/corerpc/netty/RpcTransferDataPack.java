@@ -0,0 +1,40 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.corerpc.netty;
+
+import org.apache.inlong.tubemq.corerpc.RpcDataPack;
+
+import java.util.List;
+
+/**
+ * Rpc data pack whose list entries may be file regions besides byte buffers.
+ * Each entry is one element of the frame list, so the receiver decodes it like any other pack.
+ */
+public class RpcTransferDataPack extends RpcDataPack {
+
+    private final List<Object> segments;
+
+    public RpcTransferDataPack(int serialNo, List<Object> segments) {
+        super(serialNo, null);
+        this.segments = segments;
+    }
+
+    public List<Object> getSegments() {
+        return segments;
+    }
+}
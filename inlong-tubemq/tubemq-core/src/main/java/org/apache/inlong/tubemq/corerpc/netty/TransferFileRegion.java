@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.corerpc.netty;
+
+import org.apache.inlong.tubemq.corerpc.server.FileTransferRegion;
+
+import io.netty.channel.FileRegion;
+import io.netty.util.AbstractReferenceCounted;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Netty FileRegion over a {@link FileTransferRegion}.
+ *
+ * Unlike DefaultFileRegion, the file channel is not closed on release,
+ * it belongs to the store that handed out the region, which is notified instead.
+ */
+public class TransferFileRegion extends AbstractReferenceCounted implements FileRegion {
+
+    private final FileTransferRegion region;
+    private long transferred;
+
+    public TransferFileRegion(FileTransferRegion region) {
+        this.region = region;
+    }
+
+    @Override
+    public long position() {
+        return region.getPosition();
+    }
+
+    @Override
+    public long count() {
+        return region.getCount();
+    }
+
+    @Deprecated
+    @Override
+    public long transfered() {
+        return transferred;
+    }
+
+    @Override
+    public long transferred() {
+        return transferred;
+    }
+
+    @Override
+    public long transferTo(WritableByteChannel target, long position) throws IOException {
+        long count = region.getCount() - position;
+        if (count < 0 || position < 0) {
+            throw new IllegalArgumentException(new StringBuilder(256)
+                    .append("position out of range: ").append(position)
+                    .append(" (expected: 0 - ").append(region.getCount() - 1)
+                    .append(')').toString());
+        }
+        if (count == 0) {
+            return 0L;
+        }
+        long written = region.getChannel().transferTo(
+                region.getPosition() + position, count, target);
+        if (written > 0) {
+            transferred += written;
+        } else if (written == 0) {
+            // the file may be truncated or closed by the store
+            if (region.getChannel().size() < region.getPosition() + region.getCount()) {
+                throw new IOException(new StringBuilder(256)
+                        .append("Underlying file size ").append(region.getChannel().size())
+                        .append(" smaller than requested count ").append(region.getCount())
+                        .toString());
+            }
+        }
+        return written;
+    }
+
+    @Override
+    protected void deallocate() {
+        // the file channel is owned by the store
+        region.release();
+    }
+
+    @Override
+    public FileRegion retain() {
+        super.retain();
+        return this;
+    }
+
+    @Override
+    public FileRegion retain(int increment) {
+        super.retain(increment);
+        return this;
+    }
+
+    @Override
+    public FileRegion touch() {
+        return this;
+    }
+
+    @Override
+    public FileRegion touch(Object hint) {
+        return this;
+    }
+}
@@ -25,6 +25,7 @@ import org.apache.inlong.tubemq.corerpc.codec.PbEnDecoder;
 import org.apache.inlong.tubemq.corerpc.exception.ServiceStoppingException;
 import org.apache.inlong.tubemq.corerpc.exception.StandbyException;
 import org.apache.inlong.tubemq.corerpc.server.RequestContext;
+import org.apache.inlong.tubemq.corerpc.server.TransferableService;
 import org.apache.inlong.tubemq.corerpc.utils.MixUtils;
 
 import org.slf4j.Logger;
@@ -147,8 +148,14 @@ public class RpcProtocol implements Protocol {
                         .append(requestWrapper.getServiceType())
                         .append(" found on the server").toString());
             }
-            Object result =
-                    method.invoke(processor, requestWrapper.getRequestData(), rmtAddress, isOverTLS);
+            Object result = null;
+            if (!isOverTLS && processor instanceof TransferableService) {
+                result = ((TransferableService) processor).invokeTransferable(
+                        requestWrapper.getMethodId(), requestWrapper.getRequestData(), rmtAddress);
+            }
+            if (result == null) {
+                result = method.invoke(processor, requestWrapper.getRequestData(), rmtAddress, isOverTLS);
+            }
             responseWrapper =
                     new ResponseWrapper(RpcConstants.RPC_FLAG_MSG_TYPE_RESPONSE,
                             requestWrapper.getSerialNo(), requestWrapper.getServiceType(),
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.corerpc.server;
+
+import java.nio.channels.FileChannel;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A byte range of an opened file that is written to the socket by transferTo(),
+ * without being copied into the heap.
+ *
+ * The owner of the file channel keeps the channel open until the region is released,
+ * the rpc layer never closes it, but releases the region once it is sent or dropped.
+ */
+public class FileTransferRegion {
+
+    private final FileChannel channel;
+    private final long position;
+    private final int count;
+    private final Runnable releaser;
+    private final AtomicBoolean released = new AtomicBoolean(false);
+
+    public FileTransferRegion(FileChannel channel, long position, int count) {
+        this(channel, position, count, null);
+    }
+
+    public FileTransferRegion(FileChannel channel, long position,
+            int count, Runnable releaser) {
+        this.channel = channel;
+        this.position = position;
+        this.count = count;
+        this.releaser = releaser;
+    }
+
+    public FileChannel getChannel() {
+        return channel;
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Release the region, the owner of the file channel is notified only once.
+     */
+    public void release() {
+        if (released.compareAndSet(false, true) && releaser != null) {
+            releaser.run();
+        }
+    }
+}
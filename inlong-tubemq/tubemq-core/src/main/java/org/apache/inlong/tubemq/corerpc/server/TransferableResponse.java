@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.corerpc.server;
+
+import java.util.List;
+
+/**
+ * Response data that is already encoded in protobuf wire format, part of whose
+ * content is served straight from files.
+ */
+public interface TransferableResponse {
+
+    /**
+     * Get the total size of the encoded response data.
+     *
+     * @return   the encoded size in bytes
+     */
+    int getSerializedSize();
+
+    /**
+     * Get the encoded response data in order, each segment is either a
+     * {@link java.nio.ByteBuffer} ready for reading or a {@link FileTransferRegion}.
+     *
+     * @return   the encoded segments
+     */
+    List<Object> getSegments();
+
+    /**
+     * Release the file regions of the response, called once the response is sent
+     * or dropped, and may be called more than once.
+     */
+    void release();
+}
@@ -0,0 +1,38 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.corerpc.server;
+
+/**
+ * Optional interface of a published service, used to answer some requests with a
+ * {@link TransferableResponse} instead of a protobuf message.
+ *
+ * It is only consulted on plain TCP services, TLS requires all data to pass the heap.
+ */
+public interface TransferableService {
+
+    /**
+     * Process the request in transfer mode.
+     *
+     * @param methodId       the method id of request
+     * @param request        the request object
+     * @param rmtAddress     the remote address
+     * @return               the response data, null if the method does not support transfer mode
+     * @throws Throwable     the exception during processing
+     */
+    Object invokeTransferable(int methodId, Object request, String rmtAddress) throws Throwable;
+}
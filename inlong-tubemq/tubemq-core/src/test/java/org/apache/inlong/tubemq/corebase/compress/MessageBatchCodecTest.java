@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.corebase.compress;
+
+import org.apache.inlong.tubemq.corebase.Message;
+import org.apache.inlong.tubemq.corebase.protobuf.generated.ClientBroker;
+import org.apache.inlong.tubemq.corebase.utils.CheckSum;
+import org.apache.inlong.tubemq.corebase.utils.DataConverterUtil;
+import org.apache.inlong.tubemq.corebase.utils.MessageFlagUtils;
+
+import com.google.protobuf.ByteString;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class MessageBatchCodecTest {
+
+    @Test
+    public void testEncodeAndDecode() throws Exception {
+        List<byte[]> datas = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            datas.add(("{\"id\":" + i + ",\"name\":\"tubemq message\"}").getBytes());
+        }
+        for (CompressType compressType : CompressType.values()) {
+            byte[] payload = MessageBatchCodec.encode(null, datas, compressType);
+            Assert.assertEquals(50, MessageBatchCodec.getMsgCount(payload));
+            List<byte[]> decoded = MessageBatchCodec.decode(payload, compressType);
+            Assert.assertEquals(datas.size(), decoded.size());
+            for (int i = 0; i < datas.size(); i++) {
+                Assert.assertArrayEquals(datas.get(i), decoded.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void testLazyConvert() throws Exception {
+        List<byte[]> datas = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            datas.add(("message-" + i).getBytes());
+        }
+        Message message = new Message("test", new byte[]{1});
+        message.putSystemHeader("type1", "202401011200");
+        byte[] payload = MessageBatchCodec.encode(message.getAttribute(), datas, CompressType.SNAPPY);
+        int flag = MessageFlagUtils.setCompressType(
+                MessageFlagUtils.getFlag(message), CompressType.SNAPPY);
+        Assert.assertTrue(MessageFlagUtils.hasAttribute(flag));
+        Assert.assertTrue(MessageFlagUtils.isCompressedBatch(flag));
+        List<ClientBroker.TransferedMessage> transferedMessages = new ArrayList<>();
+        transferedMessages.add(ClientBroker.TransferedMessage.newBuilder()
+                .setMessageId(100L).setCheckSum(CheckSum.crc32(payload))
+                .setFlag(flag).setPayLoadData(ByteString.copyFrom(payload)).build());
+        // the batch is kept compressed and filtered by the shared attribute
+        List<Message> messageList =
+                DataConverterUtil.convertMessage("test", transferedMessages, false);
+        Assert.assertEquals(1, messageList.size());
+        Assert.assertTrue(messageList.get(0) instanceof CompressedMessageBatch);
+        Assert.assertEquals(10, ((CompressedMessageBatch) messageList.get(0)).getMsgCount());
+        Assert.assertEquals("type1", messageList.get(0).getMsgType());
+        // decompress when accessed
+        List<Message> lazyList = LazyMessageList.wrap(messageList);
+        Assert.assertEquals(10, lazyList.size());
+        for (int i = 0; i < 10; i++) {
+            Assert.assertArrayEquals(datas.get(i), lazyList.get(i).getData());
+            Assert.assertEquals("202401011200", lazyList.get(i).getMsgTime());
+            Assert.assertFalse(MessageFlagUtils.isCompressedBatch(lazyList.get(i).getFlag()));
+        }
+        // expanded directly
+        Assert.assertEquals(10,
+                DataConverterUtil.convertMessage("test", transferedMessages).size());
+    }
+
+    @Test
+    public void testUnknownCompressType() throws Exception {
+        List<byte[]> datas = new ArrayList<>();
+        datas.add("message".getBytes());
+        byte[] payload = MessageBatchCodec.encode(null, datas, CompressType.SNAPPY);
+        // the compress type 7 is not known by this version
+        int flag = 0x7 << 1;
+        Assert.assertTrue(MessageFlagUtils.isCompressedBatch(flag));
+        Assert.assertNull(CompressType.valueOf(MessageFlagUtils.getCompressType(flag)));
+        List<ClientBroker.TransferedMessage> transferedMessages = new ArrayList<>();
+        transferedMessages.add(ClientBroker.TransferedMessage.newBuilder()
+                .setMessageId(100L).setCheckSum(CheckSum.crc32(payload))
+                .setFlag(flag).setPayLoadData(ByteString.copyFrom(payload)).build());
+        try {
+            DataConverterUtil.convertMessage("test", transferedMessages, false);
+            Assert.fail();
+        } catch (RuntimeException e) {
+            Assert.assertTrue(e.getMessage().startsWith("Unsupported compress type 7"));
+        }
+    }
+}
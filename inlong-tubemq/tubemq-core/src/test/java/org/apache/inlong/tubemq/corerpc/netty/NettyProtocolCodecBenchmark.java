@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.corerpc.netty;
+
+import org.apache.inlong.tubemq.corerpc.RpcDataPack;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufAllocatorMetric;
+import io.netty.buffer.ByteBufAllocatorMetricProvider;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measure the encoding and decoding of the corerpc frames, the time and the heap bytes allocated
+ * per frame by the codec thread, and the pooled buffer memory left in use after the run by
+ * ByteBufAllocatorMetric. The decoder is fed with the frames cut into pieces of a network read.
+ * Run it by main().
+ */
+public class NettyProtocolCodecBenchmark {
+
+    private static final int[] ENTRY_SIZES = {128, 1024, 8192};
+    private static final int READ_SIZE = 1500;
+    private static final int WARMUP_FRAMES = 200000;
+    private static final int FRAMES = 1000000;
+
+    public static void main(String[] args) {
+        List<ByteBuffer> dataList = new ArrayList<>();
+        for (int entrySize : ENTRY_SIZES) {
+            dataList.add(ByteBuffer.wrap(new byte[entrySize]));
+        }
+        RpcDataPack dataPack = new RpcDataPack(1, dataList);
+        EmbeddedChannel encodeChannel = new EmbeddedChannel(new NettyProtocolEncoder());
+        runEncode(encodeChannel, dataPack, WARMUP_FRAMES);
+        report("encode", measure(() -> runEncode(encodeChannel, dataPack, FRAMES)));
+        // the bytes of an encoded frame
+        encodeChannel.writeOutbound(dataPack);
+        ByteBuf frame = encodeChannel.readOutbound();
+        byte[] frameBytes = new byte[frame.readableBytes()];
+        frame.readBytes(frameBytes);
+        frame.release();
+        EmbeddedChannel decodeChannel = new EmbeddedChannel(new NettyProtocolDecoder());
+        runDecode(decodeChannel, frameBytes, WARMUP_FRAMES);
+        report("decode", measure(() -> runDecode(decodeChannel, frameBytes, FRAMES)));
+        encodeChannel.finishAndReleaseAll();
+        decodeChannel.finishAndReleaseAll();
+    }
+
+    private static void runEncode(EmbeddedChannel channel, RpcDataPack dataPack, int frames) {
+        for (int i = 0; i < frames; i++) {
+            channel.writeOutbound(dataPack);
+            ByteBuf buf = channel.readOutbound();
+            while (buf != null) {
+                buf.release();
+                buf = channel.readOutbound();
+            }
+        }
+    }
+
+    private static void runDecode(EmbeddedChannel channel, byte[] frameBytes, int frames) {
+        for (int i = 0; i < frames; i++) {
+            for (int offset = 0; offset < frameBytes.length; offset += READ_SIZE) {
+                channel.writeInbound(Unpooled.wrappedBuffer(frameBytes, offset,
+                        Math.min(READ_SIZE, frameBytes.length - offset)));
+            }
+            RpcDataPack dataPack = channel.readInbound();
+            if (dataPack == null || dataPack.getDataLst().size() != ENTRY_SIZES.length) {
+                throw new IllegalStateException("frame not decoded");
+            }
+        }
+    }
+
+    private static long[] measure(Runnable runnable) {
+        long startBytes = allocatedBytes();
+        long startTime = System.nanoTime();
+        runnable.run();
+        return new long[]{System.nanoTime() - startTime, allocatedBytes() - startBytes};
+    }
+
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threadMXBean)
+                    .getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0L;
+    }
+
+    private static long pooledUsedMemory() {
+        if (ByteBufAllocator.DEFAULT instanceof ByteBufAllocatorMetricProvider) {
+            ByteBufAllocatorMetric metric = ((ByteBufAllocatorMetricProvider) ByteBufAllocator.DEFAULT).metric();
+            return metric.usedHeapMemory() + metric.usedDirectMemory();
+        }
+        return 0L;
+    }
+
+    private static void report(String name, long[] result) {
+        int frameSize = 12;
+        for (int entrySize : ENTRY_SIZES) {
+            frameSize += 4 + entrySize;
+        }
+        System.out.println(new StringBuilder(256).append(name)
+                .append(": frame bytes=").append(frameSize)
+                .append(", frames=").append(FRAMES)
+                .append(", ns/frame=").append(result[0] / FRAMES)
+                .append(", heap allocated bytes/frame=").append(result[1] / FRAMES)
+                .append(", pooled memory in use=").append(pooledUsedMemory()).toString());
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.corerpc.netty;
+
+import org.apache.inlong.tubemq.corerpc.RpcDataPack;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * NettyProtocolDecoder test.
+ */
+public class NettyProtocolDecoderTest {
+
+    @Test
+    public void decodeSplitFrames() {
+        List<ByteBuffer> dataList = new ArrayList<>();
+        dataList.add(ByteBuffer.wrap("abc".getBytes(StandardCharsets.UTF_8)));
+        dataList.add(ByteBuffer.wrap(new byte[0]));
+        dataList.add(ByteBuffer.wrap("defgh".getBytes(StandardCharsets.UTF_8)));
+        EmbeddedChannel encodeChannel = new EmbeddedChannel(new NettyProtocolEncoder());
+        Assert.assertTrue(encodeChannel.writeOutbound(new RpcDataPack(1, dataList)));
+        Assert.assertTrue(encodeChannel.writeOutbound(new RpcDataPack(2, dataList)));
+        ByteBuf first = encodeChannel.readOutbound();
+        ByteBuf second = encodeChannel.readOutbound();
+        // feed the two frames in pieces cut across the headers and bodies
+        EmbeddedChannel decodeChannel = new EmbeddedChannel(new NettyProtocolDecoder());
+        int pieceSize = 5;
+        for (ByteBuf frame : new ByteBuf[]{first, second}) {
+            while (frame.isReadable()) {
+                decodeChannel.writeInbound(frame.readRetainedSlice(
+                        Math.min(pieceSize, frame.readableBytes())));
+            }
+            frame.release();
+        }
+        for (int serialNo = 1; serialNo <= 2; serialNo++) {
+            RpcDataPack dataPack = decodeChannel.readInbound();
+            Assert.assertNotNull(dataPack);
+            Assert.assertEquals(serialNo, dataPack.getSerialNo());
+            Assert.assertEquals(3, dataPack.getDataLst().size());
+            Assert.assertEquals("abc", toString(dataPack.getDataLst().get(0)));
+            Assert.assertEquals(0, dataPack.getDataLst().get(1).remaining());
+            Assert.assertEquals("defgh", toString(dataPack.getDataLst().get(2)));
+        }
+        Assert.assertNull(decodeChannel.readInbound());
+        Assert.assertFalse(decodeChannel.finish());
+    }
+
+    private static String toString(ByteBuffer buffer) {
+        return new String(buffer.array(), buffer.position(), buffer.remaining(), StandardCharsets.UTF_8);
+    }
+}
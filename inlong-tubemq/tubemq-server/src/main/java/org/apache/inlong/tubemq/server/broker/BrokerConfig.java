@@ -129,6 +129,19 @@ public class BrokerConfig extends AbstractFileConfig {
             TServerConstants.CFG_DEFAULT_GROUP_OFFSET_SCAN_DUR;
     // whether to enable the memory cache storage, the default is true, open the memory cache
     private boolean enableMemStore = true;
+    // whether to send the message payloads of unfiltered consumption from file by transferTo()
+    private boolean enableFileTransfer = true;
+    // whether to read the index records of immutable index files through the partition index
+    private boolean enablePartitionIndex = false;
+    // whether to store the consume offsets in local files instead of ZooKeeper
+    private boolean enableLocalOffsetStore = false;
+    // the directory of the local offset files, default is primaryPath + "_offsets"
+    private String offsetStorePath = "";
+    // the commit period of the local offset store
+    private long offsetCommitPeriodMs =
+            TServerConstants.CFG_DEFAULT_OFFSET_COMMIT_PERIOD_MS;
+    // whether to mirror the local stored offsets to ZooKeeper asynchronously
+    private boolean enableZkOffsetMirror = true;
 
     public BrokerConfig() {
         super();
@@ -138,6 +151,30 @@ public class BrokerConfig extends AbstractFileConfig {
         return enableMemStore;
     }
 
+    public boolean isEnableFileTransfer() {
+        return enableFileTransfer;
+    }
+
+    public boolean isEnablePartitionIndex() {
+        return enablePartitionIndex;
+    }
+
+    public boolean isEnableLocalOffsetStore() {
+        return enableLocalOffsetStore;
+    }
+
+    public String getOffsetStorePath() {
+        return offsetStorePath;
+    }
+
+    public long getOffsetCommitPeriodMs() {
+        return offsetCommitPeriodMs;
+    }
+
+    public boolean isEnableZkOffsetMirror() {
+        return enableZkOffsetMirror;
+    }
+
     public boolean isUpdateConsumerOffsets() {
         return this.updateConsumerOffsets;
     }
@@ -403,6 +440,29 @@ public class BrokerConfig extends AbstractFileConfig {
         if (TStringUtils.isNotBlank(brokerSect.get("enableMemStore"))) {
             this.enableMemStore = this.getBoolean(brokerSect, "enableMemStore");
         }
+        if (TStringUtils.isNotBlank(brokerSect.get("enableFileTransfer"))) {
+            this.enableFileTransfer = this.getBoolean(brokerSect, "enableFileTransfer");
+        }
+        if (TStringUtils.isNotBlank(brokerSect.get("enablePartitionIndex"))) {
+            this.enablePartitionIndex = this.getBoolean(brokerSect, "enablePartitionIndex");
+        }
+        if (TStringUtils.isNotBlank(brokerSect.get("enableLocalOffsetStore"))) {
+            this.enableLocalOffsetStore = this.getBoolean(brokerSect, "enableLocalOffsetStore");
+        }
+        if (TStringUtils.isNotBlank(brokerSect.get("offsetStorePath"))) {
+            this.offsetStorePath = brokerSect.get("offsetStorePath").trim();
+        } else {
+            this.offsetStorePath = this.primaryPath + "_offsets";
+        }
+        if (TStringUtils.isNotBlank(brokerSect.get("offsetCommitPeriodMs"))) {
+            this.offsetCommitPeriodMs =
+                    MixedUtils.mid(getLong(brokerSect, "offsetCommitPeriodMs"),
+                            TServerConstants.CFG_MIN_OFFSET_COMMIT_PERIOD_MS,
+                            TServerConstants.CFG_MAX_OFFSET_COMMIT_PERIOD_MS);
+        }
+        if (TStringUtils.isNotBlank(brokerSect.get("enableZkOffsetMirror"))) {
+            this.enableZkOffsetMirror = this.getBoolean(brokerSect, "enableZkOffsetMirror");
+        }
     }
 
     public long getLogClearupDurationMs() {
@@ -23,6 +23,7 @@ import org.apache.inlong.tubemq.corebase.TErrCodeConstants;
 import org.apache.inlong.tubemq.corebase.TokenConstants;
 import org.apache.inlong.tubemq.corebase.cluster.Partition;
 import org.apache.inlong.tubemq.corebase.config.TLSConfig;
+import org.apache.inlong.tubemq.corebase.protobuf.generated.ClientBroker.BatchMessageItemP2B;
 import org.apache.inlong.tubemq.corebase.protobuf.generated.ClientBroker.CommitOffsetRequestC2B;
 import org.apache.inlong.tubemq.corebase.protobuf.generated.ClientBroker.CommitOffsetResponseB2C;
 import org.apache.inlong.tubemq.corebase.protobuf.generated.ClientBroker.GetMessageRequestC2B;
@@ -31,6 +32,8 @@ import org.apache.inlong.tubemq.corebase.protobuf.generated.ClientBroker.HeartBe
 import org.apache.inlong.tubemq.corebase.protobuf.generated.ClientBroker.HeartBeatResponseB2C;
 import org.apache.inlong.tubemq.corebase.protobuf.generated.ClientBroker.RegisterRequestC2B;
 import org.apache.inlong.tubemq.corebase.protobuf.generated.ClientBroker.RegisterResponseB2C;
+import org.apache.inlong.tubemq.corebase.protobuf.generated.ClientBroker.SendBatchMessageRequestP2B;
+import org.apache.inlong.tubemq.corebase.protobuf.generated.ClientBroker.SendBatchMessageResponseB2P;
 import org.apache.inlong.tubemq.corebase.protobuf.generated.ClientBroker.SendMessageRequestP2B;
 import org.apache.inlong.tubemq.corebase.protobuf.generated.ClientBroker.SendMessageResponseB2P;
 import org.apache.inlong.tubemq.corebase.protobuf.generated.ClientBroker.TransferedMessage;
@@ -43,6 +46,7 @@ import org.apache.inlong.tubemq.corebase.utils.ServiceStatusHolder;
 import org.apache.inlong.tubemq.corebase.utils.TStringUtils;
 import org.apache.inlong.tubemq.corerpc.RpcConfig;
 import org.apache.inlong.tubemq.corerpc.RpcConstants;
+import org.apache.inlong.tubemq.corerpc.server.TransferableService;
 import org.apache.inlong.tubemq.corerpc.service.BrokerReadService;
 import org.apache.inlong.tubemq.corerpc.service.BrokerWriteService;
 import org.apache.inlong.tubemq.server.Server;
@@ -51,6 +55,7 @@ import org.apache.inlong.tubemq.server.broker.metadata.TopicMetadata;
 import org.apache.inlong.tubemq.server.broker.msgstore.MessageStore;
 import org.apache.inlong.tubemq.server.broker.msgstore.MessageStoreManager;
 import org.apache.inlong.tubemq.server.broker.msgstore.disk.GetMessageResult;
+import org.apache.inlong.tubemq.server.broker.msgstore.disk.TransferMsgResponse;
 import org.apache.inlong.tubemq.server.broker.nodeinfo.ConsumerNodeInfo;
 import org.apache.inlong.tubemq.server.broker.offset.OffsetHistoryInfo;
 import org.apache.inlong.tubemq.server.broker.offset.OffsetService;
@@ -58,6 +63,7 @@ import org.apache.inlong.tubemq.server.broker.offset.offsetstorage.OffsetStorage
 import org.apache.inlong.tubemq.server.broker.stats.BrokerSrvStatsHolder;
 import org.apache.inlong.tubemq.server.broker.stats.TrafficStatsService;
 import org.apache.inlong.tubemq.server.broker.stats.audit.AuditUtils;
+import org.apache.inlong.tubemq.server.broker.utils.DataStoreUtils;
 import org.apache.inlong.tubemq.server.common.TServerConstants;
 import org.apache.inlong.tubemq.server.common.TStatusConstants;
 import org.apache.inlong.tubemq.server.common.aaaserver.CertificateBrokerHandler;
@@ -78,6 +84,7 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
@@ -89,7 +96,12 @@ import java.util.concurrent.atomic.AtomicBoolean;
 /**
  * Broker service. Receive and conduct client's request, store messages, query messages, print statistics, etc.
  */
-public class BrokerServiceServer implements BrokerReadService, BrokerWriteService, Server {
+public class BrokerServiceServer
+        implements
+            BrokerReadService,
+            BrokerWriteService,
+            TransferableService,
+            Server {
 
     private static final Logger logger =
             LoggerFactory.getLogger(BrokerServiceServer.class);
@@ -279,6 +291,42 @@ public class BrokerServiceServer implements BrokerReadService, BrokerWriteServic
     public GetMessageResponseB2C getMessagesC2B(GetMessageRequestC2B request,
             final String rmtAddress,
             boolean overtls) throws Throwable {
+        return (GetMessageResponseB2C) processGetMessages(request, rmtAddress, false);
+    }
+
+    /**
+     * Handle consumer's getMessageRequest in transfer mode, the payloads of messages
+     * read from file are sent by transferTo() instead of being copied into the response.
+     *
+     * @param methodId       the method id of request
+     * @param request        the request object
+     * @param rmtAddress     the remote node address
+     * @return               the response data, null if not supported
+     * @throws Throwable     the exception during processing
+     */
+    @Override
+    public Object invokeTransferable(int methodId,
+            Object request, String rmtAddress) throws Throwable {
+        if (methodId != RpcConstants.RPC_MSG_BROKER_CONSUMER_GETMESSAGE
+                || !tubeConfig.isEnableFileTransfer()) {
+            return null;
+        }
+        return processGetMessages((GetMessageRequestC2B) request, rmtAddress, true);
+    }
+
+    /**
+     * Process consumer's getMessageRequest.
+     *
+     * @param request           the request
+     * @param rmtAddress        the remote node address
+     * @param isFileTransfer    whether to transfer the message payloads from file
+     * @return                  the GetMessageResponseB2C message, or the TransferMsgResponse
+     *                          object if messages are transferred from file
+     * @throws Throwable        the exception during processing
+     */
+    private Object processGetMessages(GetMessageRequestC2B request,
+            final String rmtAddress,
+            boolean isFileTransfer) throws Throwable {
         final long startTime = System.currentTimeMillis();
         final GetMessageResponseB2C.Builder builder =
                 GetMessageResponseB2C.newBuilder();
@@ -371,13 +419,14 @@ public class BrokerServiceServer implements BrokerReadService, BrokerWriteServic
         // query data from store manager.
         boolean isGetStore = false;
         MessageStore dataStore = null;
+        GetMessageResult msgResult = null;
         try {
             dataStore = this.storeManager.getOrCreateMessageStore(topicName, partitionId);
             isGetStore = true;
-            GetMessageResult msgResult =
-                    getMessages(dataStore, consumerNodeInfo, groupName, topicName, partitionId,
-                            request.getLastPackConsumed(), request.getManualCommitOffset(),
-                            clientId, this.tubeConfig.getHostName(), rmtAddrInfo, isEscFlowCtrl, strBuffer);
+            msgResult = getMessages(dataStore, consumerNodeInfo, groupName, topicName, partitionId,
+                    request.getLastPackConsumed(), request.getManualCommitOffset(),
+                    clientId, this.tubeConfig.getHostName(), rmtAddrInfo,
+                    isEscFlowCtrl, isFileTransfer, strBuffer);
             if (msgResult.isSuccess) {
                 long endTime = System.currentTimeMillis();
                 consumerNodeInfo.setLastProcInfo(endTime,
@@ -394,14 +443,23 @@ public class BrokerServiceServer implements BrokerReadService, BrokerWriteServic
                 builder.addAllMessages(msgResult.transferedMessageList);
                 builder.setMaxOffset(msgResult.getMaxOffset());
                 BrokerSrvStatsHolder.updGetMsgLatency(endTime - startTime);
+                if (msgResult.getTransferMsgRsp() != null) {
+                    TransferMsgResponse transferRsp = msgResult.getTransferMsgRsp();
+                    transferRsp.setResponseHead(builder.build());
+                    BrokerSrvStatsHolder.addFileTransferMsgCnt(
+                            transferRsp.getMsgCount(), transferRsp.getRegionCount());
+                    return transferRsp;
+                }
                 return builder.build();
             } else {
+                releaseTransferMsgRsp(msgResult);
                 builder.setErrCode(msgResult.getRetCode());
                 builder.setErrMsg(msgResult.getErrInfo());
                 builder.setMinLimitTime((int) msgResult.waitTime);
                 return builder.build();
             }
         } catch (Throwable ee) {
+            releaseTransferMsgRsp(msgResult);
             strBuffer.delete(0, strBuffer.length());
             builder.setErrCode(TErrCodeConstants.INTERNAL_SERVER_ERROR);
             if (isGetStore) {
@@ -435,6 +493,7 @@ public class BrokerServiceServer implements BrokerReadService, BrokerWriteServic
      * @param brokerAddr              the broker ip
      * @param rmtAddrInfo             the remote address
      * @param isEscFlowCtrl           whether escape flow control
+     * @param isFileTransfer          whether to transfer the message payloads from file
      * @param sb                      the string buffer
      * @return    the query result
      * @throws IOException the exception during processing
@@ -445,7 +504,8 @@ public class BrokerServiceServer implements BrokerReadService, BrokerWriteServic
             final int partitionId, final boolean lastConsumed,
             final boolean isManualCommitOffset, final String sentAddr,
             final String brokerAddr, final String rmtAddrInfo,
-            boolean isEscFlowCtrl, final StringBuilder sb) throws IOException {
+            boolean isEscFlowCtrl, boolean isFileTransfer,
+            final StringBuilder sb) throws IOException {
         long requestOffset =
                 offsetManager.getOffset(msgStore, group, topic,
                         partitionId, isManualCommitOffset, lastConsumed, sb);
@@ -467,20 +527,21 @@ public class BrokerServiceServer implements BrokerReadService, BrokerWriteServic
                         requestOffset, 0, "RpcServer consume speed limit!");
             }
         }
+        GetMessageResult msgQueryResult = null;
         try {
             String baseKey = sb.append(topic).append("#").append(brokerAddr)
                     .append("#").append(sentAddr).append("#").append(rmtAddrInfo)
                     .append("#").append(group).append("#").append(partitionId).toString();
             sb.delete(0, sb.length());
-            GetMessageResult msgQueryResult =
-                    msgStore.getMessages(reqSwitch, requestOffset,
-                            partitionId, consumerNodeInfo, baseKey, msgDataSizeLimit, 0);
+            msgQueryResult = msgStore.getMessages(reqSwitch, requestOffset, partitionId,
+                    consumerNodeInfo, baseKey, msgDataSizeLimit, 0, isFileTransfer);
             offsetManager.bookOffset(group, topic, partitionId,
                     msgQueryResult.lastReadOffset, isManualCommitOffset,
-                    msgQueryResult.transferedMessageList.isEmpty(), sb);
+                    msgQueryResult.isMsgListEmpty(), sb);
             msgQueryResult.setWaitTime(maxDataOffset - msgQueryResult.lastRdDataOffset);
             return msgQueryResult;
         } catch (Throwable e1) {
+            releaseTransferMsgRsp(msgQueryResult);
             sb.delete(0, sb.length());
             logger.warn(sb.append("[Store Manager] get message failure, requestOffset=")
                     .append(requestOffset).append(",group=").append(group).append(",topic=").append(topic)
@@ -492,6 +553,17 @@ public class BrokerServiceServer implements BrokerReadService, BrokerWriteServic
         }
     }
 
+    /**
+     * Release the file regions of the read result which is not sent to the client.
+     *
+     * @param msgResult    the read result, may be null
+     */
+    private void releaseTransferMsgRsp(GetMessageResult msgResult) {
+        if (msgResult != null && msgResult.getTransferMsgRsp() != null) {
+            msgResult.getTransferMsgRsp().release();
+        }
+    }
+
     /**
      * Get message snapshot by given parameters.
      *
@@ -635,27 +707,13 @@ public class BrokerServiceServer implements BrokerReadService, BrokerWriteServic
         }
         final byte[] msgData = request.getData().toByteArray();
         final int dataLength = msgData.length;
-        if (dataLength <= 0) {
-            builder.setErrCode(TErrCodeConstants.BAD_REQUEST);
-            builder.setErrMsg("data length is zero!");
-            return builder.build();
-        }
-        if (dataLength > topicMetadata.getMaxMsgSize()) {
-            builder.setErrCode(TErrCodeConstants.BAD_REQUEST);
-            builder.setErrMsg(strBuffer.append("data length over max length, allowed max length is ")
-                    .append(topicMetadata.getMaxMsgSize())
-                    .append(", data length is ").append(dataLength).toString());
-            return builder.build();
-        }
-        int checkSum = CheckSum.crc32(msgData);
-        if (request.getCheckSum() != -1 && checkSum != request.getCheckSum()) {
-            builder.setErrCode(TErrCodeConstants.FORBIDDEN);
-            builder.setErrMsg(strBuffer.append("Checksum msg data failure: ")
-                    .append(request.getCheckSum()).append(" of ").append(topicName)
-                    .append(" not equal to the data's checksum of ")
-                    .append(checkSum).toString());
+        if (!checkSentMsgData(topicMetadata, msgData,
+                request.getCheckSum(), strBuffer, result)) {
+            builder.setErrCode(result.getErrCode());
+            builder.setErrMsg(result.getErrMsg());
             return builder.build();
         }
+        final int checkSum = (int) result.getRetData();
         if (!serverAuthHandler.validProduceAuthorizeInfo(
                 certifiedInfo.getUserName(), topicName, msgType, rmtAddress, result)) {
             builder.setErrCode(result.getErrCode());
@@ -666,8 +724,10 @@ public class BrokerServiceServer implements BrokerReadService, BrokerWriteServic
             final MessageStore store =
                     this.storeManager.getOrCreateMessageStore(topicName, partitionId);
             final AppendResult appendResult = new AppendResult();
+            final int storeFlag = DataStoreUtils.buildStoreMsgFlag(
+                    request.getFlag(), request.getMsgTime(), msgData);
             if (store.appendMsg(appendResult, dataLength, checkSum, msgData,
-                    msgTypeCode, request.getFlag(), partitionId, request.getSentAddr())) {
+                    msgTypeCode, storeFlag, partitionId, request.getSentAddr())) {
                 String baseKey = strBuffer.append(topicName)
                         .append("#").append(AddressUtils.intToIp(request.getSentAddr()))
                         .append("#").append(tubeConfig.getHostName())
@@ -706,6 +766,195 @@ public class BrokerServiceServer implements BrokerReadService, BrokerWriteServic
         }
     }
 
+    /**
+     * Handle producer's sendBatchMessage request.
+     * All messages in the request belong to the same partition and are appended to the store
+     * together, each message gets its own result in the order of the request.
+     *
+     * @param request       the request
+     * @param rmtAddress    the remote ip
+     * @param overtls       whether transfer over TLS
+     * @return              the response
+     * @throws Throwable    the exception during processing
+     */
+    @Override
+    public SendBatchMessageResponseB2P sendBatchMessageP2B(SendBatchMessageRequestP2B request,
+            final String rmtAddress,
+            boolean overtls) throws Throwable {
+        ProcessResult result = new ProcessResult();
+        final long startTime = System.currentTimeMillis();
+        final StringBuilder strBuffer = new StringBuilder(512);
+        SendBatchMessageResponseB2P.Builder builder = SendBatchMessageResponseB2P.newBuilder();
+        builder.setSuccess(false);
+        if (!this.started.get()
+                || ServiceStatusHolder.isWriteServiceStop()) {
+            builder.setErrCode(TErrCodeConstants.SERVICE_UNAVAILABLE);
+            builder.setErrMsg("Write StoreService temporary unavailable!");
+            return builder.build();
+        }
+        if (!serverAuthHandler.identityValidUserInfo(request.getAuthInfo(), true, result)) {
+            builder.setErrCode(result.getErrCode());
+            builder.setErrMsg(result.getErrMsg());
+            return builder.build();
+        }
+        final CertifiedInfo certifiedInfo = (CertifiedInfo) result.getRetData();
+        // get and check clientId field
+        if (!PBParameterUtils.checkClientId(request.getClientId(), strBuffer, result)) {
+            builder.setErrCode(result.getErrCode());
+            builder.setErrMsg(result.getErrMsg());
+            return builder.build();
+        }
+        // get and check topicName and partitionId field
+        final int partitionId = request.getPartitionId();
+        if (!PBParameterUtils.getTopicNamePartIdInfo(true, request.getTopicName(),
+                partitionId, this.metadataManager, strBuffer, result)) {
+            builder.setErrCode(result.getErrCode());
+            builder.setErrMsg(result.getErrMsg());
+            return builder.build();
+        }
+        final TopicMetadata topicMetadata = (TopicMetadata) result.getRetData();
+        final String topicName = topicMetadata.getTopic();
+        if (request.getMessagesCount() <= 0) {
+            builder.setErrCode(TErrCodeConstants.BAD_REQUEST);
+            builder.setErrMsg("message list is empty!");
+            return builder.build();
+        }
+        // check each message, the failed ones are not appended
+        final int msgCnt = request.getMessagesCount();
+        final SendMessageResponseB2P[] msgResults = new SendMessageResponseB2P[msgCnt];
+        final int[] validIndexes = new int[msgCnt];
+        final byte[][] validDatas = new byte[msgCnt][];
+        final int[] validCheckSums = new int[msgCnt];
+        final int[] validMsgTypeCodes = new int[msgCnt];
+        final int[] validFlags = new int[msgCnt];
+        int validCnt = 0;
+        for (int i = 0; i < msgCnt; i++) {
+            BatchMessageItemP2B msgItem = request.getMessages(i);
+            String msgType = null;
+            int msgTypeCode = -1;
+            if (TStringUtils.isNotBlank(msgItem.getMsgType())) {
+                msgType = msgItem.getMsgType().trim();
+                msgTypeCode = msgType.hashCode();
+            }
+            byte[] msgData = msgItem.getData().toByteArray();
+            strBuffer.delete(0, strBuffer.length());
+            if (!checkSentMsgData(topicMetadata, msgData,
+                    msgItem.getCheckSum(), strBuffer, result)
+                    || !serverAuthHandler.validProduceAuthorizeInfo(
+                            certifiedInfo.getUserName(), topicName, msgType, rmtAddress, result)) {
+                msgResults[i] = SendMessageResponseB2P.newBuilder()
+                        .setSuccess(false).setErrCode(result.getErrCode())
+                        .setErrMsg(result.getErrMsg()).build();
+                continue;
+            }
+            validIndexes[validCnt] = i;
+            validDatas[validCnt] = msgData;
+            validCheckSums[validCnt] = (int) result.getRetData();
+            validMsgTypeCodes[validCnt] = msgTypeCode;
+            validFlags[validCnt] = DataStoreUtils.buildStoreMsgFlag(
+                    msgItem.getFlag(), msgItem.getMsgTime(), msgData);
+            validCnt++;
+        }
+        strBuffer.delete(0, strBuffer.length());
+        try {
+            int appendedCnt = 0;
+            final AppendResult[] appendResults = new AppendResult[validCnt];
+            if (validCnt > 0) {
+                for (int i = 0; i < validCnt; i++) {
+                    appendResults[i] = new AppendResult();
+                }
+                final MessageStore store =
+                        this.storeManager.getOrCreateMessageStore(topicName, partitionId);
+                appendedCnt = store.appendMsgBatch(appendResults,
+                        Arrays.copyOf(validCheckSums, validCnt), Arrays.copyOf(validDatas, validCnt),
+                        Arrays.copyOf(validMsgTypeCodes, validCnt), Arrays.copyOf(validFlags, validCnt),
+                        partitionId, request.getSentAddr());
+            }
+            for (int i = 0; i < validCnt; i++) {
+                BatchMessageItemP2B msgItem = request.getMessages(validIndexes[i]);
+                SendMessageResponseB2P.Builder msgBuilder = SendMessageResponseB2P.newBuilder();
+                if (i < appendedCnt) {
+                    String baseKey = strBuffer.append(topicName)
+                            .append("#").append(AddressUtils.intToIp(request.getSentAddr()))
+                            .append("#").append(tubeConfig.getHostName())
+                            .append("#").append(partitionId)
+                            .append("#").append(msgItem.getMsgTime()).toString();
+                    strBuffer.delete(0, strBuffer.length());
+                    putCounterGroup.add(baseKey, 1L, validDatas[i].length);
+                    AuditUtils.addProduceRecord(topicName, msgItem.getMsgType(),
+                            msgItem.getMsgTime(), 1, validDatas[i].length);
+                    msgBuilder.setSuccess(true);
+                    msgBuilder.setErrCode(TErrCodeConstants.SUCCESS);
+                    msgBuilder.setErrMsg("Ok");
+                    msgBuilder.setMessageId(appendResults[i].getMsgId());
+                    msgBuilder.setAppendTime(appendResults[i].getAppendTime());
+                    msgBuilder.setAppendOffset(appendResults[i].getAppendIndexOffset());
+                } else {
+                    msgBuilder.setSuccess(false);
+                    msgBuilder.setErrCode(TErrCodeConstants.SERVER_RECEIVE_OVERFLOW);
+                    msgBuilder.setErrMsg(strBuffer.append("Put message failed from ")
+                            .append(tubeConfig.getHostName())
+                            .append(", server receive message overflow!").toString());
+                    strBuffer.delete(0, strBuffer.length());
+                }
+                msgResults[validIndexes[i]] = msgBuilder.build();
+            }
+            BrokerSrvStatsHolder.updSendMsgLatency(System.currentTimeMillis() - startTime);
+        } catch (final Throwable ex) {
+            logger.error("Put batch message failed ", ex);
+            strBuffer.delete(0, strBuffer.length());
+            builder.setErrCode(TErrCodeConstants.INTERNAL_SERVER_ERROR);
+            builder.setErrMsg(strBuffer.append("Put batch message failed from ")
+                    .append(tubeConfig.getHostName()).append(" ")
+                    .append((ex.getMessage() != null ? ex.getMessage() : " ")).toString());
+            return builder.build();
+        }
+        builder.setSuccess(true);
+        builder.setRequireAuth(certifiedInfo.isReAuth());
+        builder.setErrCode(TErrCodeConstants.SUCCESS);
+        builder.setErrMsg("Ok");
+        builder.addAllResults(Arrays.asList(msgResults));
+        return builder.build();
+    }
+
+    /**
+     * Check the data of a sent message, the data's check sum is set into result if valid.
+     *
+     * @param topicMetadata   the topic metadata
+     * @param msgData         the message data
+     * @param reqCheckSum     the check sum carried in request, -1 if not set
+     * @param strBuffer       the string buffer
+     * @param result          the process result
+     * @return                whether the data is valid
+     */
+    private boolean checkSentMsgData(TopicMetadata topicMetadata, byte[] msgData,
+            int reqCheckSum, StringBuilder strBuffer, ProcessResult result) {
+        if (msgData.length <= 0) {
+            result.setFailResult(TErrCodeConstants.BAD_REQUEST, "data length is zero!");
+            return false;
+        }
+        if (msgData.length > topicMetadata.getMaxMsgSize()) {
+            result.setFailResult(TErrCodeConstants.BAD_REQUEST,
+                    strBuffer.append("data length over max length, allowed max length is ")
+                            .append(topicMetadata.getMaxMsgSize())
+                            .append(", data length is ").append(msgData.length).toString());
+            strBuffer.delete(0, strBuffer.length());
+            return false;
+        }
+        int checkSum = CheckSum.crc32(msgData);
+        if (reqCheckSum != -1 && checkSum != reqCheckSum) {
+            result.setFailResult(TErrCodeConstants.FORBIDDEN,
+                    strBuffer.append("Checksum msg data failure: ")
+                            .append(reqCheckSum).append(" of ").append(topicMetadata.getTopic())
+                            .append(" not equal to the data's checksum of ")
+                            .append(checkSum).toString());
+            strBuffer.delete(0, strBuffer.length());
+            return false;
+        }
+        result.setSuccResult(checkSum);
+        return true;
+    }
+
     /**
      * append group current offset to storage
      *
@@ -730,12 +979,12 @@ public class BrokerServiceServer implements BrokerReadService, BrokerWriteServic
         ByteBuffer rcdBuff;
         byte[] msgData;
         int msgLength;
-        int msgFlag = 1;
         String baseKey;
         MessageStore msgStore;
         AppendResult appendResult = new AppendResult();
         // get store time
         String sendTime = DateTimeConvertUtils.ms2yyyyMMddHHmm(storeTime);
+        final int msgFlag = DataStoreUtils.buildStoreMsgFlag(1, sendTime);
         for (Map.Entry<String, OffsetHistoryInfo> entry : groupOffsetMap.entrySet()) {
             if (entry == null || entry.getKey() == null || entry.getValue() == null) {
                 continue;
@@ -32,6 +32,7 @@ import org.apache.inlong.tubemq.server.broker.msgstore.mem.GetCacheMsgResult;
 import org.apache.inlong.tubemq.server.broker.msgstore.mem.MsgMemStore;
 import org.apache.inlong.tubemq.server.broker.nodeinfo.ConsumerNodeInfo;
 import org.apache.inlong.tubemq.server.broker.stats.MsgStoreStatsHolder;
+import org.apache.inlong.tubemq.server.broker.stats.ReadTrafficCounter;
 import org.apache.inlong.tubemq.server.broker.stats.TrafficInfo;
 import org.apache.inlong.tubemq.server.broker.utils.DataStoreUtils;
 import org.apache.inlong.tubemq.server.common.utils.AppendResult;
@@ -189,6 +190,28 @@ public class MessageStore implements Closeable {
             int partitionId, ConsumerNodeInfo consumerNodeInfo,
             String statsKeyBase, int msgSizeLimit,
             long reqRcvTime) throws IOException {
+        return getMessages(reqSwitch, requestOffset, partitionId,
+                consumerNodeInfo, statsKeyBase, msgSizeLimit, reqRcvTime, false);
+    }
+
+    /**
+     * Get message from message store. Support the given offset, filter.
+     *
+     * @param reqSwitch            read message from where
+     * @param requestOffset        the request offset to read
+     * @param partitionId          the partitionId for reading messages
+     * @param consumerNodeInfo     the consumer object
+     * @param statsKeyBase        the statistical key prefix
+     * @param msgSizeLimit         the max read size
+     * @param reqRcvTime           the timestamp of the record to be checked
+     * @param isFileTransfer       whether to transfer the payloads read from file directly
+     * @return                     read result
+     * @throws IOException         the exception during processing
+     */
+    public GetMessageResult getMessages(int reqSwitch, long requestOffset,
+            int partitionId, ConsumerNodeInfo consumerNodeInfo,
+            String statsKeyBase, int msgSizeLimit,
+            long reqRcvTime, boolean isFileTransfer) throws IOException {
         // #lizard forgives
         if (this.closed.get()) {
             throw new IllegalStateException(new StringBuilder(512)
@@ -247,16 +270,17 @@ public class MessageStore implements Closeable {
                         List<ClientBroker.TransferedMessage> transferedMessageList =
                                 new ArrayList<>();
                         if (!memMsgRlt.cacheMsgList.isEmpty()) {
-                            final StringBuilder strBuffer = new StringBuilder(512);
+                            final ReadTrafficCounter trafficCounter =
+                                    new ReadTrafficCounter(statsKeyBase);
                             for (ByteBuffer dataBuffer : memMsgRlt.cacheMsgList) {
                                 ClientBroker.TransferedMessage transferedMessage =
                                         DataStoreUtils.getTransferMsg(dataBuffer,
-                                                dataBuffer.array().length,
-                                                countMap, statsKeyBase, strBuffer);
+                                                dataBuffer.array().length, trafficCounter);
                                 if (transferedMessage != null) {
                                     transferedMessageList.add(transferedMessage);
                                 }
                             }
+                            countMap = trafficCounter.toCountMap(new StringBuilder(512));
                         }
                         GetMessageResult getResult =
                                 new GetMessageResult(true, 0, memMsgRlt.errInfo, requestOffset,
@@ -292,7 +316,18 @@ public class MessageStore implements Closeable {
                         reqNewOffset, 0, "current offset is exceed max offset!");
             }
         }
-        indexRecordView.read(indexBuffer, reqNewOffset);
+        // gather the partition's records by partition index, skip other partitions' records
+        int indexScanSize = -1;
+        int[] indexReadEnds = null;
+        if (tubeConfig.isEnablePartitionIndex() && !indexRecordView.isMutable()) {
+            indexReadEnds = new int[maxIndexReadLength / DataStoreUtils.STORE_INDEX_HEAD_LEN];
+            indexScanSize = indexRecordView.readPartitionIndex(partitionId,
+                    reqNewOffset, indexBuffer, indexReadEnds);
+        }
+        if (indexScanSize < 0) {
+            indexReadEnds = null;
+            indexRecordView.read(indexBuffer, reqNewOffset);
+        }
         indexBuffer.flip();
         indexRecordView.relViewRef();
         if ((msgFileStore.getDataHighMaxOffset() - consumerNodeInfo.getLastDataRdOffset() >= this.tubeConfig
@@ -303,9 +338,10 @@ public class MessageStore implements Closeable {
         GetMessageResult retResult =
                 msgFileStore.getMessages(partitionId,
                         consumerNodeInfo.getLastDataRdOffset(), reqNewOffset,
-                        indexBuffer, consumerNodeInfo.isFilterConsume(),
+                        indexBuffer, indexReadEnds, indexScanSize,
+                        consumerNodeInfo.isFilterConsume(),
                         consumerNodeInfo.getFilterCondCodeSet(),
-                        statsKeyBase, msgSizeLimit, reqRcvTime);
+                        statsKeyBase, msgSizeLimit, reqRcvTime, isFileTransfer);
         if (reqSwitch <= 1) {
             retResult.setMaxOffset(getFileIndexMaxOffset());
         } else {
@@ -407,29 +443,100 @@ public class MessageStore implements Closeable {
         long messageId = this.idWorker.nextId();
         // build data buffer
         int msgBufLen = DataStoreUtils.STORE_DATA_HEADER_LEN + dataLength;
-        final ByteBuffer dataBuffer = ByteBuffer.allocate(msgBufLen);
-        dataBuffer.putInt(DataStoreUtils.STORE_DATA_PREFX_LEN + dataLength);
-        dataBuffer.putInt(DataStoreUtils.STORE_DATA_TOKER_BEGIN_VALUE);
-        dataBuffer.putInt(dataCheckSum);
-        dataBuffer.putInt(partitionId);
-        dataBuffer.putLong(-1L);
-        dataBuffer.putLong(receivedTime);
-        dataBuffer.putInt(sentAddr);
-        dataBuffer.putInt(msgTypeCode);
-        dataBuffer.putLong(messageId);
-        dataBuffer.putInt(msgFlag);
-        dataBuffer.put(data);
-        dataBuffer.flip();
+        final ByteBuffer dataBuffer = buildDataEntry(dataLength, dataCheckSum, data,
+                msgTypeCode, msgFlag, partitionId, sentAddr, receivedTime, messageId);
         // build index buffer
         final ByteBuffer indexBuffer =
-                ByteBuffer.allocate(DataStoreUtils.STORE_INDEX_HEAD_LEN);
-        indexBuffer.putInt(partitionId);
-        indexBuffer.putLong(-1L);
-        indexBuffer.putInt(msgBufLen);
-        indexBuffer.putInt(msgTypeCode);
-        indexBuffer.putLong(receivedTime);
-        indexBuffer.flip();
+                buildIndexEntry(partitionId, msgBufLen, msgTypeCode, receivedTime);
         appendResult.putReceivedInfo(messageId, receivedTime);
+        return appendMsgEntry(appendResult, partitionId, msgTypeCode,
+                receivedTime, indexBuffer, msgBufLen, dataBuffer, count, waitRetryMs);
+    }
+
+    /**
+     * Append a batch of messages of the same partition to store.
+     * The messages are put into the memory cache under one lock acquisition,
+     * the ones left by a full cache are appended one by one after the cache flushed.
+     * Once a message fails, the messages after it are not appended to keep the order.
+     *
+     * @param appendResults   the append result of each message
+     * @param dataCheckSums   the check sum of each message data
+     * @param datas           the data of each message
+     * @param msgTypeCodes    the filter item hash code of each message
+     * @param msgFlags        the flag of each message
+     * @param partitionId     the partitionId for append messages
+     * @param sentAddr        the address to send the message to
+     *
+     * @return                the count of messages appended
+     * @throws IOException    the exception during processing
+     */
+    public int appendMsgBatch(AppendResult[] appendResults,
+            int[] dataCheckSums, byte[][] datas,
+            int[] msgTypeCodes, int[] msgFlags,
+            int partitionId, int sentAddr) throws IOException {
+        if (this.closed.get()) {
+            throw new IllegalStateException(new StringBuilder(512)
+                    .append("[Data Store] Closed MessageStore for storeKey ")
+                    .append(this.storeKey).toString());
+        }
+        final int msgCnt = datas.length;
+        final long receivedTime = System.currentTimeMillis();
+        final ByteBuffer[] dataBuffers = new ByteBuffer[msgCnt];
+        final ByteBuffer[] indexBuffers = new ByteBuffer[msgCnt];
+        for (int i = 0; i < msgCnt; i++) {
+            long messageId = this.idWorker.nextId();
+            dataBuffers[i] = buildDataEntry(datas[i].length, dataCheckSums[i], datas[i],
+                    msgTypeCodes[i], msgFlags[i], partitionId, sentAddr, receivedTime, messageId);
+            indexBuffers[i] = buildIndexEntry(partitionId,
+                    dataBuffers[i].remaining(), msgTypeCodes[i], receivedTime);
+            appendResults[i].putReceivedInfo(messageId, receivedTime);
+        }
+        int appendedCnt = 0;
+        if (this.tubeConfig.isEnableMemStore()) {
+            long startTime = System.currentTimeMillis();
+            this.writeCacheMutex.readLock().lock();
+            try {
+                appendedCnt = this.msgMemStore.appendMsgBatch(msgStoreStatsHolder,
+                        partitionId, msgTypeCodes, receivedTime,
+                        indexBuffers, dataBuffers, appendResults);
+            } finally {
+                this.writeCacheMutex.readLock().unlock();
+            }
+            long dltTime = System.currentTimeMillis() - startTime;
+            for (int i = 0; i < appendedCnt; i++) {
+                msgStoreStatsHolder.addMsgWriteSuccess(dataBuffers[i].remaining(), dltTime);
+            }
+        }
+        for (; appendedCnt < msgCnt; appendedCnt++) {
+            if (!appendMsgEntry(appendResults[appendedCnt], partitionId,
+                    msgTypeCodes[appendedCnt], receivedTime, indexBuffers[appendedCnt],
+                    dataBuffers[appendedCnt].remaining(), dataBuffers[appendedCnt], 3, 1)) {
+                break;
+            }
+        }
+        return appendedCnt;
+    }
+
+    /**
+     * Append a built message entry to memory cache or file store.
+     *
+     * @param appendResult    the append result
+     * @param partitionId     the partitionId for append messages
+     * @param msgTypeCode     the filter item hash code
+     * @param receivedTime    the received time of message
+     * @param indexBuffer     the index entry
+     * @param msgBufLen       the data entry length
+     * @param dataBuffer      the data entry
+     * @param count           the retry count while full
+     * @param waitRetryMs     the wait duration while retry
+     *
+     * @return                the process result
+     * @throws IOException    the exception during processing
+     */
+    private boolean appendMsgEntry(AppendResult appendResult,
+            int partitionId, int msgTypeCode, long receivedTime,
+            ByteBuffer indexBuffer, int msgBufLen, ByteBuffer dataBuffer,
+            int count, long waitRetryMs) throws IOException {
         boolean appendSuss = true;
         long startTime = System.currentTimeMillis();
         if (this.tubeConfig.isEnableMemStore()) {
@@ -475,6 +582,39 @@ public class MessageStore implements Closeable {
         }
     }
 
+    private ByteBuffer buildDataEntry(int dataLength, int dataCheckSum, byte[] data,
+            int msgTypeCode, int msgFlag, int partitionId, int sentAddr,
+            long receivedTime, long messageId) {
+        final ByteBuffer dataBuffer =
+                ByteBuffer.allocate(DataStoreUtils.STORE_DATA_HEADER_LEN + dataLength);
+        dataBuffer.putInt(DataStoreUtils.STORE_DATA_PREFX_LEN + dataLength);
+        dataBuffer.putInt(DataStoreUtils.STORE_DATA_TOKER_BEGIN_VALUE);
+        dataBuffer.putInt(dataCheckSum);
+        dataBuffer.putInt(partitionId);
+        dataBuffer.putLong(-1L);
+        dataBuffer.putLong(receivedTime);
+        dataBuffer.putInt(sentAddr);
+        dataBuffer.putInt(msgTypeCode);
+        dataBuffer.putLong(messageId);
+        dataBuffer.putInt(msgFlag);
+        dataBuffer.put(data);
+        dataBuffer.flip();
+        return dataBuffer;
+    }
+
+    private ByteBuffer buildIndexEntry(int partitionId, int msgBufLen,
+            int msgTypeCode, long receivedTime) {
+        final ByteBuffer indexBuffer =
+                ByteBuffer.allocate(DataStoreUtils.STORE_INDEX_HEAD_LEN);
+        indexBuffer.putInt(partitionId);
+        indexBuffer.putLong(-1L);
+        indexBuffer.putInt(msgBufLen);
+        indexBuffer.putInt(msgTypeCode);
+        indexBuffer.putLong(receivedTime);
+        indexBuffer.flip();
+        return indexBuffer;
+    }
+
     public void getMsgStoreStatsInfo(boolean needRefresh, StringBuilder strBuff) {
         msgStoreStatsHolder.getMsgStoreStatsInfo(needRefresh, strBuff);
     }
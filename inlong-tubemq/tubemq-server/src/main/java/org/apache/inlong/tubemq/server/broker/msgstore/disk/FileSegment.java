@@ -20,19 +20,23 @@ package org.apache.inlong.tubemq.server.broker.msgstore.disk;
 import org.apache.inlong.tubemq.corebase.TBaseConstants;
 import org.apache.inlong.tubemq.corebase.utils.CheckSum;
 import org.apache.inlong.tubemq.corebase.utils.ServiceStatusHolder;
+import org.apache.inlong.tubemq.corerpc.server.FileTransferRegion;
 import org.apache.inlong.tubemq.server.broker.stats.BrokerSrvStatsHolder;
 import org.apache.inlong.tubemq.server.broker.utils.DataStoreUtils;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import sun.nio.ch.DirectBuffer;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Segment file. Topic contains multi FileSegments. Each FileSegment contains data file and index file.
@@ -59,6 +63,23 @@ public class FileSegment implements Segment {
     // the latest record append time
     private final AtomicLong rightAppendTime =
             new AtomicLong(TBaseConstants.META_VALUE_UNDEFINED);
+    // the mapped view of immutable index file
+    private MappedByteBuffer mappedBuffer = null;
+    // whether to stop mapping the file, set when the mapping failed or the file closed
+    private boolean mapDisabled = false;
+    // the partition index of immutable index file, built at the first partition read
+    private PartitionIndex partitionIndex = null;
+    // lock used to protect the mapped view from being released while reading
+    private final ReentrantReadWriteLock mappedLock = new ReentrantReadWriteLock();
+    // lock used to protect the transfer references and the deferred release
+    private final Object transferLock = new Object();
+    // the file regions being transferred, which keep the file channel open
+    private int transferRefCnt = 0;
+    // the file release deferred until the transferred regions are released
+    private int pendingRelease = RELEASE_NONE;
+    private static final int RELEASE_NONE = 0;
+    private static final int RELEASE_CLOSE = 1;
+    private static final int RELEASE_DELETE = 2;
 
     public FileSegment(long start, File file, SegmentType type) throws IOException {
         this(start, file, true, type, Long.MAX_VALUE);
@@ -150,29 +171,49 @@ public class FileSegment implements Segment {
     @Override
     public void close() {
         if (this.closed.compareAndSet(false, true)) {
-            try {
-                if (this.channel.isOpen()) {
-                    if (this.mutable) {
-                        flush(true);
-                    }
-                    this.channel.close();
-                }
-                this.randFile.close();
-            } catch (Throwable ee) {
-                if (ee instanceof IOException) {
-                    ServiceStatusHolder.addReadIOErrCnt();
-                    BrokerSrvStatsHolder.incDiskIOExcCnt();
-                }
-                logger.error(new StringBuilder(512).append("[File Store] Close ")
-                        .append(this.file.getAbsoluteFile().toString())
-                        .append("'s ").append(segmentType).append(" file failure").toString(), ee);
+            releaseMappedBuffer();
+            if (deferRelease(RELEASE_CLOSE)) {
+                return;
             }
+            closeFile();
         }
     }
 
     @Override
     public void deleteFile() {
         this.closed.set(true);
+        releaseMappedBuffer();
+        if (deferRelease(RELEASE_DELETE)) {
+            logger.info(new StringBuilder(512)
+                    .append("[File Store] defer deleting file ")
+                    .append(file.getAbsoluteFile())
+                    .append(" until its transfers finished").toString());
+            return;
+        }
+        deleteClosedFile();
+    }
+
+    private void closeFile() {
+        try {
+            if (this.channel.isOpen()) {
+                if (this.mutable) {
+                    flush(true);
+                }
+                this.channel.close();
+            }
+            this.randFile.close();
+        } catch (Throwable ee) {
+            if (ee instanceof IOException) {
+                ServiceStatusHolder.addReadIOErrCnt();
+                BrokerSrvStatsHolder.incDiskIOExcCnt();
+            }
+            logger.error(new StringBuilder(512).append("[File Store] Close ")
+                    .append(this.file.getAbsoluteFile().toString())
+                    .append("'s ").append(segmentType).append(" file failure").toString(), ee);
+        }
+    }
+
+    private void deleteClosedFile() {
         try {
             if (this.channel.isOpen()) {
                 if (this.mutable) {
@@ -367,6 +408,9 @@ public class FileSegment implements Segment {
         if (this.isExpired()) {
             // Todo: conduct file closed and expired cases.
         }
+        if (readMapped(bf, absOffset - start)) {
+            return;
+        }
         int size = 0;
         long startPos = absOffset - start;
         while (bf.hasRemaining()) {
@@ -393,6 +437,79 @@ public class FileSegment implements Segment {
         }
     }
 
+    @Override
+    public int readPartitionIndex(int partitionId, long absOffset,
+            ByteBuffer indexBuffer, int[] readEnds) throws IOException {
+        if (this.segmentType != SegmentType.INDEX || this.mutable) {
+            return -1;
+        }
+        this.mappedLock.readLock().lock();
+        try {
+            MappedByteBuffer mapped = getMappedBuffer();
+            if (mapped == null) {
+                return -1;
+            }
+            PartitionIndex partIndex = getPartitionIndex(mapped);
+            return partIndex.read(mapped.duplicate(), partitionId,
+                    (int) (absOffset - start), indexBuffer, readEnds);
+        } finally {
+            this.mappedLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get a file region of the data file, which holds a reference of this segment
+     * until it is released, so the file is neither closed nor deleted while being transferred.
+     *
+     * @param absOffset   absolute start position
+     * @param length      the region length
+     * @return            the file region
+     * @throws IOException  the exception when the segment is closed
+     */
+    @Override
+    public FileTransferRegion getTransferRegion(long absOffset, int length) throws IOException {
+        synchronized (this.transferLock) {
+            if (this.closed.get()) {
+                throw new IOException("[File Store] Segment is closed!");
+            }
+            this.transferRefCnt++;
+        }
+        return new FileTransferRegion(this.channel,
+                absOffset - start, length, this::releaseTransferRef);
+    }
+
+    private void releaseTransferRef() {
+        int release;
+        synchronized (this.transferLock) {
+            if (--this.transferRefCnt > 0 || this.pendingRelease == RELEASE_NONE) {
+                return;
+            }
+            release = this.pendingRelease;
+            this.pendingRelease = RELEASE_NONE;
+        }
+        if (release == RELEASE_DELETE) {
+            deleteClosedFile();
+        } else {
+            closeFile();
+        }
+    }
+
+    /**
+     * Defer closing or deleting the file until the transferred regions are released.
+     *
+     * @param release   the deferred release
+     * @return          true if deferred, false if there is no region being transferred
+     */
+    private boolean deferRelease(int release) {
+        synchronized (this.transferLock) {
+            if (this.transferRefCnt == 0) {
+                return false;
+            }
+            this.pendingRelease = Math.max(this.pendingRelease, release);
+            return true;
+        }
+    }
+
     /**
      * read index record's append time.
      * @param reqOffset request offset.
@@ -440,6 +557,81 @@ public class FileSegment implements Segment {
         return 0;
     }
 
+    /**
+     * Read data from the mapped view if this is an immutable index file.
+     *
+     * @param bf          buffer to store data
+     * @param relOffset   relative read position
+     * @return            whether the data is read from the mapped view
+     */
+    private boolean readMapped(ByteBuffer bf, long relOffset) {
+        if (this.segmentType != SegmentType.INDEX || this.mutable) {
+            return false;
+        }
+        this.mappedLock.readLock().lock();
+        try {
+            MappedByteBuffer mapped = getMappedBuffer();
+            if (mapped == null) {
+                return false;
+            }
+            if (relOffset < mapped.limit()) {
+                ByteBuffer readView = mapped.duplicate();
+                readView.position((int) relOffset);
+                readView.limit((int) Math.min(readView.limit(), relOffset + bf.remaining()));
+                bf.put(readView);
+            }
+            return true;
+        } finally {
+            this.mappedLock.readLock().unlock();
+        }
+    }
+
+    private synchronized MappedByteBuffer getMappedBuffer() {
+        if (this.mappedBuffer != null || this.mapDisabled) {
+            return this.mappedBuffer;
+        }
+        if (this.closed.get()) {
+            return null;
+        }
+        try {
+            this.mappedBuffer = this.channel.map(FileChannel.MapMode.READ_ONLY,
+                    0, this.cachedSize.get());
+        } catch (Throwable e) {
+            this.mapDisabled = true;
+            logger.warn(new StringBuilder(512).append("[File Store] Map ")
+                    .append(this.file.getAbsoluteFile().toString())
+                    .append(" failure, read it from channel").toString(), e);
+        }
+        return this.mappedBuffer;
+    }
+
+    private synchronized PartitionIndex getPartitionIndex(MappedByteBuffer mapped) {
+        if (this.partitionIndex == null) {
+            this.partitionIndex = new PartitionIndex(mapped.duplicate());
+        }
+        return this.partitionIndex;
+    }
+
+    private void releaseMappedBuffer() {
+        this.mappedLock.writeLock().lock();
+        try {
+            synchronized (this) {
+                this.mapDisabled = true;
+                this.partitionIndex = null;
+                if (this.mappedBuffer != null) {
+                    try {
+                        ((DirectBuffer) this.mappedBuffer).cleaner().clean();
+                    } catch (Throwable e) {
+                        // the mapping is released by gc when the cleaner is inaccessible
+                    }
+                    this.mappedBuffer = null;
+                }
+            }
+        } finally {
+            this.mappedLock.writeLock().unlock();
+        }
+    }
+
     private RecoverResult recoverData(long checkOffset) throws IOException {
         if (!this.mutable) {
             throw new UnsupportedOperationException(
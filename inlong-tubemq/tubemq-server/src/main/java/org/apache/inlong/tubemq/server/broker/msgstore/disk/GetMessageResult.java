@@ -43,6 +43,8 @@ public class GetMessageResult {
     public HashMap<String, TrafficInfo> tmpCounters = new HashMap<>();
     public List<TransferedMessage> transferedMessageList = new ArrayList<>();
     public long maxOffset = TBaseConstants.META_VALUE_UNDEFINED;
+    // messages whose payloads are transferred from file
+    public TransferMsgResponse transferMsgRsp = null;
 
     public GetMessageResult(boolean isSuccess, int retCode, final String errInfo,
             final long reqOffset, final int lastReadOffset,
@@ -174,6 +176,19 @@ public class GetMessageResult {
         this.reqOffset = reqOffset;
     }
 
+    public TransferMsgResponse getTransferMsgRsp() {
+        return transferMsgRsp;
+    }
+
+    public void setTransferMsgRsp(TransferMsgResponse transferMsgRsp) {
+        this.transferMsgRsp = transferMsgRsp;
+    }
+
+    public boolean isMsgListEmpty() {
+        return (transferedMessageList == null || transferedMessageList.isEmpty())
+                && (transferMsgRsp == null || transferMsgRsp.isEmpty());
+    }
+
     public long getMaxOffset() {
         return maxOffset;
     }
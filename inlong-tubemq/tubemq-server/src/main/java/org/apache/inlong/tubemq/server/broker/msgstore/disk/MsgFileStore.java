@@ -25,7 +25,7 @@ import org.apache.inlong.tubemq.server.broker.BrokerConfig;
 import org.apache.inlong.tubemq.server.broker.msgstore.MessageStore;
 import org.apache.inlong.tubemq.server.broker.stats.BrokerSrvStatsHolder;
 import org.apache.inlong.tubemq.server.broker.stats.MsgStoreStatsHolder;
-import org.apache.inlong.tubemq.server.broker.stats.TrafficInfo;
+import org.apache.inlong.tubemq.server.broker.stats.ReadTrafficCounter;
 import org.apache.inlong.tubemq.server.broker.utils.DataStoreUtils;
 import org.apache.inlong.tubemq.server.broker.utils.DiskSamplePrint;
 import org.apache.inlong.tubemq.server.common.TServerConstants;
@@ -40,7 +40,6 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -284,21 +283,28 @@ public class MsgFileStore implements Closeable {
      * @param lastRdOffset          the recent data offset read before
      * @param reqOffset             the request index offset
      * @param indexBuffer           the index read buffer
+     * @param indexReadEnds         the end position of each record in index buffer relative to
+     *                              the request offset, null if the records are contiguous
+     * @param indexScanSize         the scanned index size, taken when indexReadEnds is not null
      * @param isFilterConsume       whether to filter consumption
      * @param filterKeySet          filter item set
      * @param statsKeyBase         the statistical key prefix
      * @param maxMsgTransferSize    the max read message size
      * @param reqRcvTime            the timestamp of the record to be checked
+     * @param isFileTransfer        whether to transfer the payloads from file,
+     *                              only taken by unfiltered consumption
      *
      * @return                      read result
      */
     public GetMessageResult getMessages(int partitionId, long lastRdOffset,
             long reqOffset, ByteBuffer indexBuffer,
+            int[] indexReadEnds, int indexScanSize,
             boolean isFilterConsume,
             Set<Integer> filterKeySet,
             String statsKeyBase,
             int maxMsgTransferSize,
-            long reqRcvTime) {
+            long reqRcvTime,
+            boolean isFileTransfer) {
         // #lizard forgives
         // Orderly read from index file, then random read from data file.
         int retCode = 0;
@@ -319,11 +325,17 @@ public class MsgFileStore implements Closeable {
         final StringBuilder sBuilder = new StringBuilder(512);
         final long curDataMaxOffset = getDataMaxOffset();
         final long curDataMinOffset = getDataMinOffset();
-        HashMap<String, TrafficInfo> countMap = new HashMap<>();
+        final ReadTrafficCounter trafficCounter = new ReadTrafficCounter(statsKeyBase);
         ByteBuffer dataBuffer =
                 ByteBuffer.allocate(TServerConstants.CFG_STORE_DEFAULT_MSG_READ_UNIT);
         List<ClientBroker.TransferedMessage> transferedMessageList =
                 new ArrayList<>();
+        final TransferMsgResponse transferRsp =
+                (isFileTransfer && !isFilterConsume) ? new TransferMsgResponse() : null;
+        // all records of the partition in scanned range have been skipped
+        if (indexReadEnds != null && !indexBuffer.hasRemaining()) {
+            readedOffset = indexScanSize;
+        }
         // read data file by index.
         for (curIndexOffset = 0; curIndexOffset < indexBuffer.remaining(); curIndexOffset +=
                 DataStoreUtils.STORE_INDEX_HEAD_LEN) {
@@ -338,7 +350,7 @@ public class MsgFileStore implements Closeable {
                     || curIndexDataSize <= 0
                     || curIndexDataSize > DataStoreUtils.STORE_MAX_MESSAGE_STORE_LEN
                     || curIndexDataOffset < curDataMinOffset) {
-                readedOffset = curIndexOffset + DataStoreUtils.STORE_INDEX_HEAD_LEN;
+                readedOffset = getReadEndOffset(indexReadEnds, curIndexOffset);
                 continue;
             }
             // read finish, then return.
@@ -352,7 +364,7 @@ public class MsgFileStore implements Closeable {
                     || (isFilterConsume
                             && !filterKeySet.contains(curIndexKeyCode))) {
                 lastRdDataOffset = maxDataLimitOffset;
-                readedOffset = curIndexOffset + DataStoreUtils.STORE_INDEX_HEAD_LEN;
+                readedOffset = getReadEndOffset(indexReadEnds, curIndexOffset);
                 continue;
             }
             if (reqRcvTime != 0 && recvTimeInMillsec < reqRcvTime) {
@@ -375,6 +387,31 @@ public class MsgFileStore implements Closeable {
                         throw new Exception("Read Service has closed!");
                     }
                 }
+                if (transferRsp != null) {
+                    // only read the store header and attributes, the payload is transferred from file
+                    int headReadSize = Math.min(curIndexDataSize, DataStoreUtils.STORE_MSG_HEAD_READ_SIZE);
+                    dataBuffer.clear();
+                    dataBuffer.limit(headReadSize);
+                    recordSeg.read(dataBuffer, curIndexDataOffset);
+                    dataBuffer.flip();
+                    if (dataBuffer.limit() < headReadSize) {
+                        lastRdDataOffset = curIndexDataOffset;
+                        readedOffset = getReadEndOffset(indexReadEnds, curIndexOffset);
+                        continue;
+                    }
+                    readedOffset = getReadEndOffset(indexReadEnds, curIndexOffset);
+                    lastRdDataOffset = maxDataLimitOffset;
+                    if (!DataStoreUtils.addTransferMsg(dataBuffer, curIndexDataSize,
+                            recordSeg, curIndexDataOffset, transferRsp, trafficCounter)) {
+                        continue;
+                    }
+                    totalSize += curIndexDataSize;
+                    // break when exceed the max transfer size.
+                    if (totalSize >= maxMsgTransferSize) {
+                        break;
+                    }
+                    continue;
+                }
                 if (dataBuffer.capacity() < curIndexDataSize) {
                     dataBuffer = ByteBuffer.allocate(curIndexDataSize);
                 }
@@ -385,7 +422,7 @@ public class MsgFileStore implements Closeable {
                 dataRealLimit = dataBuffer.limit();
                 if (dataRealLimit < curIndexDataSize) {
                     lastRdDataOffset = curIndexDataOffset;
-                    readedOffset = curIndexOffset + DataStoreUtils.STORE_INDEX_HEAD_LEN;
+                    readedOffset = getReadEndOffset(indexReadEnds, curIndexOffset);
                     continue;
                 }
             } catch (Throwable e2) {
@@ -404,11 +441,11 @@ public class MsgFileStore implements Closeable {
                 break;
             }
             // build query result.
-            readedOffset = curIndexOffset + DataStoreUtils.STORE_INDEX_HEAD_LEN;
+            readedOffset = getReadEndOffset(indexReadEnds, curIndexOffset);
             lastRdDataOffset = maxDataLimitOffset;
             ClientBroker.TransferedMessage transferedMessage =
                     DataStoreUtils.getTransferMsg(dataBuffer,
-                            curIndexDataSize, countMap, statsKeyBase, sBuilder);
+                            curIndexDataSize, trafficCounter);
             if (transferedMessage == null) {
                 continue;
             }
@@ -424,7 +461,8 @@ public class MsgFileStore implements Closeable {
             recordSeg.relViewRef();
         }
         if (retCode != 0) {
-            if (!transferedMessageList.isEmpty()) {
+            if (!transferedMessageList.isEmpty()
+                    || (transferRsp != null && !transferRsp.isEmpty())) {
                 retCode = 0;
                 errInfo = "Ok";
             }
@@ -433,9 +471,27 @@ public class MsgFileStore implements Closeable {
             lastRdDataOffset = lastRdOffset;
         }
         // return result.
-        return new GetMessageResult(result, retCode, errInfo,
+        GetMessageResult getResult = new GetMessageResult(result, retCode, errInfo,
                 reqOffset, readedOffset, lastRdDataOffset,
-                totalSize, countMap, transferedMessageList);
+                totalSize, trafficCounter.toCountMap(sBuilder), transferedMessageList);
+        if (transferRsp != null && !transferRsp.isEmpty()) {
+            getResult.setTransferMsgRsp(transferRsp);
+        }
+        return getResult;
+    }
+
+    /**
+     * Get the end position of the index record, relative to the request offset.
+     *
+     * @param indexReadEnds      the end positions of gathered records, null if contiguous
+     * @param curIndexOffset     the record position in index buffer
+     * @return                   the end position of the record
+     */
+    private int getReadEndOffset(int[] indexReadEnds, int curIndexOffset) {
+        if (indexReadEnds == null) {
+            return curIndexOffset + DataStoreUtils.STORE_INDEX_HEAD_LEN;
+        }
+        return indexReadEnds[curIndexOffset / DataStoreUtils.STORE_INDEX_HEAD_LEN];
     }
 
     /**
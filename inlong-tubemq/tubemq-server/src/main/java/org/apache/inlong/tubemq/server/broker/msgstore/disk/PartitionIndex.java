@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.server.broker.msgstore.disk;
+
+import org.apache.inlong.tubemq.server.broker.utils.DataStoreUtils;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Secondary index of an immutable index segment. It records the ordinals of the index
+ * records of each partition, so a partition reader can jump over the records of the
+ * other partitions that share the same store instead of reading and discarding them.
+ */
+public class PartitionIndex {
+
+    private static final int INIT_ORDINAL_CAPACITY = 256;
+    // partition id -> the ordinals of the partition's index records in the segment
+    private final Map<Integer, RecordOrdinals> partOrdinals = new HashMap<>();
+    // the index record count of the segment
+    private final int recordCnt;
+
+    /**
+     * Build the partition index by scanning all index records of the segment.
+     *
+     * @param indexView    the index records of the segment, from position 0 to limit
+     */
+    public PartitionIndex(ByteBuffer indexView) {
+        this.recordCnt = indexView.limit() / DataStoreUtils.STORE_INDEX_HEAD_LEN;
+        int lastPartitionId = -1;
+        RecordOrdinals lastOrdinals = null;
+        for (int ordinal = 0; ordinal < this.recordCnt; ordinal++) {
+            int partitionId = indexView.getInt(ordinal * DataStoreUtils.STORE_INDEX_HEAD_LEN);
+            if (lastOrdinals == null || partitionId != lastPartitionId) {
+                lastOrdinals = partOrdinals.get(partitionId);
+                if (lastOrdinals == null) {
+                    lastOrdinals = new RecordOrdinals();
+                    partOrdinals.put(partitionId, lastOrdinals);
+                }
+                lastPartitionId = partitionId;
+            }
+            lastOrdinals.add(ordinal);
+        }
+        for (RecordOrdinals ordinals : partOrdinals.values()) {
+            ordinals.trim();
+        }
+    }
+
+    /**
+     * Copy the index records of the partition starting from the relative position.
+     *
+     * @param indexView      the index records of the segment, from position 0 to limit
+     * @param partitionId    the partition id to read
+     * @param relOffset      the relative read position in the segment
+     * @param indexBuffer    the buffer to store the read records
+     * @param readEnds       the end position of each read record, relative to relOffset
+     * @return               the end position of the scanned range, relative to relOffset
+     */
+    public int read(ByteBuffer indexView, int partitionId, int relOffset,
+            ByteBuffer indexBuffer, int[] readEnds) {
+        final int scanEnd = this.recordCnt * DataStoreUtils.STORE_INDEX_HEAD_LEN - relOffset;
+        RecordOrdinals ordinals = partOrdinals.get(partitionId);
+        if (ordinals == null || scanEnd <= 0) {
+            return Math.max(scanEnd, 0);
+        }
+        int readCnt = 0;
+        int maxReadCnt = Math.min(readEnds.length,
+                indexBuffer.remaining() / DataStoreUtils.STORE_INDEX_HEAD_LEN);
+        int startOrdinal = (relOffset + DataStoreUtils.STORE_INDEX_HEAD_LEN - 1)
+                / DataStoreUtils.STORE_INDEX_HEAD_LEN;
+        int index = ordinals.lowerBound(startOrdinal);
+        for (; index < ordinals.size && readCnt < maxReadCnt; index++) {
+            int recordPos = ordinals.values[index] * DataStoreUtils.STORE_INDEX_HEAD_LEN;
+            indexView.limit(recordPos + DataStoreUtils.STORE_INDEX_HEAD_LEN).position(recordPos);
+            indexBuffer.put(indexView);
+            readEnds[readCnt++] = recordPos + DataStoreUtils.STORE_INDEX_HEAD_LEN - relOffset;
+        }
+        if (index < ordinals.size) {
+            return readCnt > 0 ? readEnds[readCnt - 1] : 0;
+        }
+        return scanEnd;
+    }
+
+    public int getRecordCount() {
+        return recordCnt;
+    }
+
+    public int getPartitionCount() {
+        return partOrdinals.size();
+    }
+
+    /**
+     * Ascending ordinals of the index records that belong to a partition.
+     */
+    private static class RecordOrdinals {
+
+        private int[] values = new int[INIT_ORDINAL_CAPACITY];
+        private int size = 0;
+
+        void add(int ordinal) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size + (size >> 1));
+            }
+            values[size++] = ordinal;
+        }
+
+        void trim() {
+            if (size < values.length) {
+                values = Arrays.copyOf(values, size);
+            }
+        }
+
+        int lowerBound(int ordinal) {
+            int index = Arrays.binarySearch(values, 0, size, ordinal);
+            return index >= 0 ? index : -(index + 1);
+        }
+    }
+}
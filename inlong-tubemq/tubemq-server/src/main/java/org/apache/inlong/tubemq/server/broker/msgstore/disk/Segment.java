@@ -17,6 +17,8 @@
 
 package org.apache.inlong.tubemq.server.broker.msgstore.disk;
 
+import org.apache.inlong.tubemq.corerpc.server.FileTransferRegion;
+
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
@@ -88,6 +90,30 @@ public interface Segment {
      */
     void relRead(ByteBuffer bf, long relOffset) throws IOException;
 
+    /**
+     * Read the index records of a partition from absolute position, the records
+     * of other partitions are skipped by the partition index of the segment.
+     *
+     * @param partitionId    the partition id to read
+     * @param absOffset      absolute read position
+     * @param indexBuffer    buffer to store the read records
+     * @param readEnds       the end position of each read record, relative to absOffset
+     * @return               the end position of the scanned range relative to absOffset,
+     *                       or -1 if the segment does not support partition index
+     */
+    int readPartitionIndex(int partitionId, long absOffset,
+            ByteBuffer indexBuffer, int[] readEnds) throws IOException;
+
+    /**
+     * Get a file region from absolute position, the region is sent to socket by transferTo().
+     *
+     * @param absOffset   absolute start position
+     * @param length      the region length
+     * @return            the file region, which must be released once it is sent or dropped
+     * @throws IOException  the exception when the segment is closed
+     */
+    FileTransferRegion getTransferRegion(long absOffset, int length) throws IOException;
+
     long getLeftAppendTime();
 
     long getRightAppendTime();
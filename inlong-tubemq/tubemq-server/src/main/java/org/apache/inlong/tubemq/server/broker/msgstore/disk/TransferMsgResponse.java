@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.server.broker.msgstore.disk;
+
+import org.apache.inlong.tubemq.corebase.protobuf.generated.ClientBroker.GetMessageResponseB2C;
+import org.apache.inlong.tubemq.corerpc.RpcConstants;
+import org.apache.inlong.tubemq.corerpc.server.FileTransferRegion;
+import org.apache.inlong.tubemq.corerpc.server.TransferableResponse;
+
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * GetMessageResponseB2C in protobuf wire format, whose message payloads are transferred
+ * from the data segment files instead of being copied into TransferedMessage objects.
+ *
+ * Each message is encoded as the "messages" field of GetMessageResponseB2C: the envelope
+ * with messageId, checkSum and flag is built in heap, the payLoadData field is put last,
+ * so the payload bytes on disk directly follow the envelope.
+ * Small payloads are read into the envelope buffer, since a file region per
+ * small message costs more than the copy. Each file region holds a reference of
+ * its data segment, so the response must be released once it is sent or dropped.
+ */
+public class TransferMsgResponse implements TransferableResponse {
+
+    // GetMessageResponseB2C.messages
+    private static final int FIELD_RSP_MESSAGES = 4;
+    // TransferedMessage fields
+    private static final int FIELD_MSG_ID = 1;
+    private static final int FIELD_MSG_CHECKSUM = 2;
+    private static final int FIELD_MSG_PAYLOAD = 3;
+    private static final int FIELD_MSG_FLAG = 4;
+    // payloads smaller than this are read into heap
+    public static final int MIN_TRANSFER_PAYLOAD_SIZE = 4 * 1024;
+    // each file region takes two entries of the frame list
+    public static final int MAX_TRANSFER_REGION_COUNT =
+            RpcConstants.MAX_FRAME_MAX_LIST_SIZE / 4;
+
+    private final List<Object> segments = new ArrayList<>();
+    private ByteBuffer curBuffer = null;
+    private byte[] headData = new byte[0];
+    private int msgsSize = 0;
+    private int msgCount = 0;
+    private int regionCount = 0;
+
+    public TransferMsgResponse() {
+
+    }
+
+    /**
+     * Add a message whose payload is stored in the data segment.
+     *
+     * @param msgId            the message id
+     * @param checkSum         the message checksum
+     * @param flag             the message flag
+     * @param dataSeg          the data segment of the message
+     * @param payLoadOffset    the absolute offset of payload
+     * @param payLoadLen       the payload length
+     * @return                 whether the message is added
+     * @throws IOException     the exception while reading the payload
+     */
+    public boolean addMessage(long msgId, int checkSum, int flag,
+            Segment dataSeg, long payLoadOffset, int payLoadLen) throws IOException {
+        boolean isTransfer = payLoadLen >= MIN_TRANSFER_PAYLOAD_SIZE
+                && regionCount < MAX_TRANSFER_REGION_COUNT;
+        int msgSize = CodedOutputStream.computeInt64Size(FIELD_MSG_ID, msgId)
+                + CodedOutputStream.computeInt32Size(FIELD_MSG_CHECKSUM, checkSum)
+                + CodedOutputStream.computeInt32Size(FIELD_MSG_FLAG, flag)
+                + CodedOutputStream.computeTagSize(FIELD_MSG_PAYLOAD)
+                + CodedOutputStream.computeUInt32SizeNoTag(payLoadLen) + payLoadLen;
+        int envelopeSize = CodedOutputStream.computeTagSize(FIELD_RSP_MESSAGES)
+                + CodedOutputStream.computeUInt32SizeNoTag(msgSize)
+                + msgSize - payLoadLen;
+        int writeSize = isTransfer ? envelopeSize : envelopeSize + payLoadLen;
+        if (curBuffer == null || curBuffer.remaining() < writeSize) {
+            flushCurBuffer();
+            curBuffer = ByteBuffer.allocate(Math.max(writeSize, RpcConstants.RPC_MAX_BUFFER_SIZE));
+        }
+        int startPos = curBuffer.position();
+        CodedOutputStream codedOut = CodedOutputStream.newInstance(curBuffer);
+        codedOut.writeTag(FIELD_RSP_MESSAGES, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+        codedOut.writeUInt32NoTag(msgSize);
+        codedOut.writeInt64(FIELD_MSG_ID, msgId);
+        codedOut.writeInt32(FIELD_MSG_CHECKSUM, checkSum);
+        codedOut.writeInt32(FIELD_MSG_FLAG, flag);
+        codedOut.writeTag(FIELD_MSG_PAYLOAD, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+        codedOut.writeUInt32NoTag(payLoadLen);
+        codedOut.flush();
+        if (isTransfer) {
+            flushCurBuffer();
+            segments.add(dataSeg.getTransferRegion(payLoadOffset, payLoadLen));
+            regionCount++;
+        } else {
+            ByteBuffer payLoadBuf = curBuffer.duplicate();
+            payLoadBuf.limit(curBuffer.position() + payLoadLen);
+            dataSeg.read(payLoadBuf, payLoadOffset);
+            if (payLoadBuf.hasRemaining()) {
+                // discard the partially written message
+                curBuffer.position(startPos);
+                return false;
+            }
+            curBuffer.position(payLoadBuf.position());
+        }
+        msgsSize += envelopeSize + payLoadLen;
+        msgCount++;
+        return true;
+    }
+
+    /**
+     * Set the response fields other than messages, the messages already
+     * contained in the head are kept before the transferred ones.
+     *
+     * @param responseHead    the response without transferred messages
+     */
+    public void setResponseHead(GetMessageResponseB2C responseHead) {
+        this.headData = responseHead.toByteArray();
+    }
+
+    public boolean isEmpty() {
+        return msgCount == 0;
+    }
+
+    public int getMsgCount() {
+        return msgCount;
+    }
+
+    public int getRegionCount() {
+        return regionCount;
+    }
+
+    @Override
+    public int getSerializedSize() {
+        return headData.length + msgsSize;
+    }
+
+    @Override
+    public List<Object> getSegments() {
+        flushCurBuffer();
+        List<Object> result = new ArrayList<>(segments.size() + 1);
+        result.add(ByteBuffer.wrap(headData));
+        result.addAll(segments);
+        return result;
+    }
+
+    /**
+     * Release the file regions, which hold the data segments open until then.
+     */
+    @Override
+    public void release() {
+        for (Object segment : segments) {
+            if (segment instanceof FileTransferRegion) {
+                ((FileTransferRegion) segment).release();
+            }
+        }
+    }
+
+    private void flushCurBuffer() {
+        if (curBuffer != null && curBuffer.position() > 0) {
+            curBuffer.flip();
+            segments.add(curBuffer);
+        }
+        curBuffer = null;
+    }
+}
@@ -25,6 +25,7 @@ import org.apache.inlong.tubemq.server.broker.stats.BrokerSrvStatsHolder;
 import org.apache.inlong.tubemq.server.broker.stats.MsgStoreStatsHolder;
 import org.apache.inlong.tubemq.server.broker.utils.DataStoreUtils;
 import org.apache.inlong.tubemq.server.common.utils.AppendResult;
+import org.apache.inlong.tubemq.server.common.utils.IntIntHashMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -34,31 +35,40 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Message's memory storage. It use direct memory store messages that received but not have been flushed to disk.
+ *
+ * Writers reserve the message slot and data region by one CAS on the reserved position,
+ * then copy the entries in parallel. The committed entries are published to readers in
+ * slot order by whichever writer wins the publishing flag, so readers only see the
+ * entries below the published position.
  */
 public class MsgMemStore implements Closeable {
 
     private static final Logger logger = LoggerFactory.getLogger(MsgMemStore.class);
-    // statistics of memory store
-    private final AtomicInteger cacheDataOffset = new AtomicInteger(0);
-    private final AtomicInteger cacheIndexOffset = new AtomicInteger(0);
-    private final AtomicInteger curMessageCount = new AtomicInteger(0);
-    private final ReentrantLock writeLock = new ReentrantLock();
+    // the reserved and published positions, packed as message count and data size
+    private final AtomicLong reservedPos = new AtomicLong(0L);
+    private final AtomicLong publishedPos = new AtomicLong(0L);
+    // the data end of each committed slot, 0 if not committed
+    private final AtomicIntegerArray slotDataEnds;
+    // the partitionId, key and received time of each slot, visible after commit
+    private final int[] slotPartitionIds;
+    private final int[] slotKeyCodes;
+    private final long[] slotRecvTimes;
+    private final AtomicBoolean publishing = new AtomicBoolean(false);
+    // guards the position maps and the published position read with them
+    private final ReentrantLock mapLock = new ReentrantLock();
     // partitionId to index position, accelerate query
-    private final Map<Integer, Integer> queuesMap =
-            new HashMap<>(20);
+    private final IntIntHashMap queuesMap = new IntIntHashMap(20, -1);
     // key to index position, used for filter consume
-    private final Map<Integer, Integer> keysMap =
-            new HashMap<>(100);
+    private final IntIntHashMap keysMap = new IntIntHashMap(100, -1);
     // where messages in memory will sink to disk
     private final int maxDataCacheSize;
     private long writeDataStartPos = -1;
@@ -87,6 +97,10 @@ public class MsgMemStore implements Closeable {
         this.maxIndexCacheSize = this.maxAllowedMsgCount * DataStoreUtils.STORE_INDEX_HEAD_LEN;
         this.cacheDataSegment = ByteBuffer.allocateDirect(this.maxDataCacheSize);
         this.cachedIndexSegment = ByteBuffer.allocateDirect(this.maxIndexCacheSize);
+        this.slotDataEnds = new AtomicIntegerArray(this.maxAllowedMsgCount);
+        this.slotPartitionIds = new int[this.maxAllowedMsgCount];
+        this.slotKeyCodes = new int[this.maxAllowedMsgCount];
+        this.slotRecvTimes = new long[this.maxAllowedMsgCount];
         this.leftAppendTime.set(System.currentTimeMillis());
         this.rightAppendTime.set(System.currentTimeMillis());
         this.writeDataStartPos = writeDataStartPos;
@@ -102,9 +116,7 @@ public class MsgMemStore implements Closeable {
     public void resetMemStoreStatus(long writeDataStartPos, long writeIndexStartPos) {
         this.keysMap.clear();
         this.queuesMap.clear();
-        this.cacheDataOffset.set(0);
-        this.cacheIndexOffset.set(0);
-        this.curMessageCount.set(0);
+        resetSlots();
         this.cacheDataSegment.rewind();
         this.cachedIndexSegment.rewind();
         this.writeDataStartPos = writeDataStartPos;
@@ -131,50 +143,202 @@ public class MsgMemStore implements Closeable {
             int partitionId, int keyCode, long timeRecv,
             ByteBuffer indexEntry, int dataEntryLength,
             ByteBuffer dataEntry, AppendResult appendResult) {
-        long dataOffset;
-        long indexOffset;
-        int indexSizePos;
-        boolean isAppended = true;
-        boolean fullDataSize = false;
-        boolean fullIndexSize = false;
-        boolean fullCount = false;
-        this.writeLock.lock();
-        try {
-            // judge whether can write to memory or not.
-            fullDataSize =
-                    (this.cacheDataOffset.get() + dataEntryLength > this.maxDataCacheSize);
-            fullCount =
-                    (this.curMessageCount.get() + 1 > maxAllowedMsgCount);
-            fullIndexSize =
-                    (this.cacheIndexOffset.get() + DataStoreUtils.STORE_INDEX_HEAD_LEN > this.maxIndexCacheSize);
-            if (fullDataSize || fullCount || fullIndexSize) {
-                isAppended = false;
+        long curPos;
+        int slot;
+        int dataOffset;
+        // judge whether can write to memory or not, and reserve the space.
+        do {
+            curPos = this.reservedPos.get();
+            slot = getPosMsgCount(curPos);
+            dataOffset = getPosDataSize(curPos);
+            if (slot + 1 > maxAllowedMsgCount
+                    || dataOffset + dataEntryLength > this.maxDataCacheSize) {
+                addCacheFullStats(memStatsHolder, slot, dataOffset, dataEntryLength);
                 return false;
             }
-            // conduct message with filling process
-            indexOffset = this.writeIndexStartPos + this.cacheIndexOffset.get();
-            dataOffset = this.writeDataStartPos + this.cacheDataOffset.get();
-            indexEntry.putLong(DataStoreUtils.INDEX_POS_DATAOFFSET, dataOffset);
-            dataEntry.putLong(DataStoreUtils.STORE_HEADER_POS_QUEUE_LOGICOFF, indexOffset);
-            this.cacheDataSegment.put(dataEntry.array());
-            this.cachedIndexSegment.put(indexEntry.array());
-            this.cacheDataOffset.getAndAdd(dataEntryLength);
-            indexSizePos = cacheIndexOffset.getAndAdd(DataStoreUtils.STORE_INDEX_HEAD_LEN);
-            this.queuesMap.put(partitionId, indexSizePos);
-            this.keysMap.put(keyCode, indexSizePos);
-            this.curMessageCount.getAndIncrement();
-            this.rightAppendTime.set(timeRecv);
-            if (indexSizePos == 0) {
-                this.leftAppendTime.set(timeRecv);
+        } while (!this.reservedPos.compareAndSet(curPos,
+                buildPosition(slot + 1, dataOffset + dataEntryLength)));
+        // conduct message with filling process
+        fillMsgEntry(slot, dataOffset, partitionId, keyCode, timeRecv,
+                indexEntry, dataEntryLength, dataEntry, appendResult);
+        publishCommittedSlots();
+        return true;
+    }
+
+    /**
+     * Append a batch of messages of the same partition to memory cache,
+     * the space of the messages that fit in the cache is reserved by one CAS.
+     *
+     * @param memStatsHolder    statistical information object
+     * @param partitionId       the partitionId for append messages
+     * @param keyCodes          the filter item hash code of each message
+     * @param timeRecv          the received timestamp
+     * @param indexEntries      the stored index entry of each message
+     * @param dataEntries       the stored data entry of each message
+     * @param appendResults     the append result of each message
+     *
+     * @return    the count of messages appended
+     */
+    public int appendMsgBatch(MsgStoreStatsHolder memStatsHolder,
+            int partitionId, int[] keyCodes, long timeRecv,
+            ByteBuffer[] indexEntries, ByteBuffer[] dataEntries,
+            AppendResult[] appendResults) {
+        long curPos;
+        int startSlot;
+        int startDataOffset;
+        int appendedCnt;
+        int appendedSize;
+        do {
+            curPos = this.reservedPos.get();
+            startSlot = getPosMsgCount(curPos);
+            startDataOffset = getPosDataSize(curPos);
+            appendedCnt = 0;
+            appendedSize = 0;
+            for (; appendedCnt < dataEntries.length; appendedCnt++) {
+                int dataEntryLength = dataEntries[appendedCnt].remaining();
+                if (startSlot + appendedCnt + 1 > maxAllowedMsgCount
+                        || startDataOffset + appendedSize + dataEntryLength > this.maxDataCacheSize) {
+                    break;
+                }
+                appendedSize += dataEntryLength;
             }
-        } finally {
-            this.writeLock.unlock();
-            if (!isAppended) {
-                memStatsHolder.addCacheFullType(fullDataSize, fullIndexSize, fullCount);
+            if (appendedCnt == 0) {
+                break;
             }
+        } while (!this.reservedPos.compareAndSet(curPos,
+                buildPosition(startSlot + appendedCnt, startDataOffset + appendedSize)));
+        if (appendedCnt < dataEntries.length) {
+            addCacheFullStats(memStatsHolder, startSlot + appendedCnt,
+                    startDataOffset + appendedSize, dataEntries[appendedCnt].remaining());
         }
-        appendResult.putAppendResult(indexOffset, dataOffset);
-        return true;
+        if (appendedCnt == 0) {
+            return 0;
+        }
+        int dataOffset = startDataOffset;
+        for (int i = 0; i < appendedCnt; i++) {
+            int dataEntryLength = dataEntries[i].remaining();
+            fillMsgEntry(startSlot + i, dataOffset, partitionId, keyCodes[i], timeRecv,
+                    indexEntries[i], dataEntryLength, dataEntries[i], appendResults[i]);
+            dataOffset += dataEntryLength;
+        }
+        publishCommittedSlots();
+        return appendedCnt;
+    }
+
+    /**
+     * Fill message into the reserved space of memory cache, and commit the slot.
+     *
+     * @param slot              the reserved message slot
+     * @param dataOffset        the reserved data offset in cache
+     * @param partitionId       the partitionId for append messages
+     * @param keyCode           the filter item hash code
+     * @param timeRecv          the received timestamp
+     * @param indexEntry        the stored index entry
+     * @param dataEntryLength   the stored data entry length
+     * @param dataEntry         the stored data entry
+     * @param appendResult      the append result
+     */
+    private void fillMsgEntry(int slot, int dataOffset,
+            int partitionId, int keyCode, long timeRecv,
+            ByteBuffer indexEntry, int dataEntryLength,
+            ByteBuffer dataEntry, AppendResult appendResult) {
+        int indexPos = slot * DataStoreUtils.STORE_INDEX_HEAD_LEN;
+        long indexOffset = this.writeIndexStartPos + indexPos;
+        long dataPos = this.writeDataStartPos + dataOffset;
+        indexEntry.putLong(DataStoreUtils.INDEX_POS_DATAOFFSET, dataPos);
+        dataEntry.putLong(DataStoreUtils.STORE_HEADER_POS_QUEUE_LOGICOFF, indexOffset);
+        // copy by the private views, the segments' positions are shared by writers
+        ByteBuffer dataView = this.cacheDataSegment.duplicate();
+        dataView.position(dataOffset);
+        dataView.put(dataEntry.array(), 0, dataEntryLength);
+        ByteBuffer indexView = this.cachedIndexSegment.duplicate();
+        indexView.position(indexPos);
+        indexView.put(indexEntry.array(), 0, DataStoreUtils.STORE_INDEX_HEAD_LEN);
+        this.slotPartitionIds[slot] = partitionId;
+        this.slotKeyCodes[slot] = keyCode;
+        this.slotRecvTimes[slot] = timeRecv;
+        this.slotDataEnds.set(slot, dataOffset + dataEntryLength);
+        appendResult.putAppendResult(indexOffset, dataPos);
+    }
+
+    /**
+     * Publish the committed slots in order. Only the writer holding the publishing
+     * flag advances the published position, the others leave their slots to it;
+     * the holder checks again after releasing the flag so that no slot is left behind.
+     */
+    private void publishCommittedSlots() {
+        while (this.publishing.compareAndSet(false, true)) {
+            try {
+                advancePublishedPos();
+            } finally {
+                this.publishing.set(false);
+            }
+            int publishedCnt = getPosMsgCount(this.publishedPos.get());
+            if (publishedCnt >= maxAllowedMsgCount
+                    || this.slotDataEnds.get(publishedCnt) == 0) {
+                return;
+            }
+        }
+    }
+
+    private void advancePublishedPos() {
+        final int startCnt = getPosMsgCount(this.publishedPos.get());
+        int publishedCnt = startCnt;
+        int dataEnd = 0;
+        while (publishedCnt < maxAllowedMsgCount) {
+            int slotDataEnd = this.slotDataEnds.get(publishedCnt);
+            if (slotDataEnd == 0) {
+                break;
+            }
+            dataEnd = slotDataEnd;
+            publishedCnt++;
+        }
+        if (publishedCnt == startCnt) {
+            return;
+        }
+        if (startCnt == 0) {
+            this.leftAppendTime.set(this.slotRecvTimes[0]);
+        }
+        this.rightAppendTime.set(this.slotRecvTimes[publishedCnt - 1]);
+        this.mapLock.lock();
+        try {
+            for (int slot = startCnt; slot < publishedCnt; slot++) {
+                int indexSizePos = slot * DataStoreUtils.STORE_INDEX_HEAD_LEN;
+                this.queuesMap.put(this.slotPartitionIds[slot], indexSizePos);
+                this.keysMap.put(this.slotKeyCodes[slot], indexSizePos);
+            }
+            this.publishedPos.set(buildPosition(publishedCnt, dataEnd));
+        } finally {
+            this.mapLock.unlock();
+        }
+    }
+
+    private void addCacheFullStats(MsgStoreStatsHolder memStatsHolder,
+            int msgCount, int dataSize, int dataEntryLength) {
+        boolean fullCount = (msgCount + 1 > maxAllowedMsgCount);
+        memStatsHolder.addCacheFullType(
+                (dataSize + dataEntryLength > this.maxDataCacheSize), fullCount, fullCount);
+    }
+
+    private void resetSlots() {
+        int usedSlots = Math.min(getPosMsgCount(this.reservedPos.get()), maxAllowedMsgCount);
+        for (int slot = 0; slot < usedSlots; slot++) {
+            this.slotDataEnds.set(slot, 0);
+        }
+        this.reservedPos.set(0L);
+        this.publishedPos.set(0L);
+    }
+
+    private static long buildPosition(int msgCount, int dataSize) {
+        return ((long) msgCount << 32) | (dataSize & 0xFFFFFFFFL);
+    }
+
+    private static int getPosMsgCount(long position) {
+        return (int) (position >>> 32);
+    }
+
+    private static int getPosDataSize(long position) {
+        return (int) position;
     }
 
     /**
@@ -198,7 +362,7 @@ public class MsgMemStore implements Closeable {
             boolean isFilterConsume, Set<Integer> filterKeySet,
             long reqRcvTime) {
         // #lizard forgives
-        Integer lastWritePos = 0;
+        int lastWritePos;
         boolean hasMsg = false;
         // judge memory contains the given offset or not.
         List<ByteBuffer> cacheMsgList = new ArrayList<>();
@@ -206,7 +370,7 @@ public class MsgMemStore implements Closeable {
             return new GetCacheMsgResult(false, TErrCodeConstants.MOVED,
                     lstRdIndexOffset, "Request offset lower than cache minOffset");
         }
-        if (lstRdIndexOffset >= this.writeIndexStartPos + this.cacheIndexOffset.get()) {
+        if (lstRdIndexOffset >= this.writeIndexStartPos + getIndexCacheSize()) {
             return new GetCacheMsgResult(false, TErrCodeConstants.NOT_FOUND,
                     lstRdIndexOffset, "Request offset reached cache maxOffset");
         }
@@ -215,14 +379,14 @@ public class MsgMemStore implements Closeable {
         int currDataOffset;
         long lastDataRdOff = lstRdDataOffset;
         int startReadOff = (int) (lstRdIndexOffset - this.writeIndexStartPos);
-        this.writeLock.lock();
+        this.mapLock.lock();
         try {
             if (isFilterConsume) {
                 // filter conduct. accelerate by keysMap.
                 for (Integer keyCode : filterKeySet) {
                     if (keyCode != null) {
                         lastWritePos = this.keysMap.get(keyCode);
-                        if ((lastWritePos != null) && (lastWritePos >= startReadOff)) {
+                        if ((lastWritePos >= 0) && (lastWritePos >= startReadOff)) {
                             hasMsg = true;
                             break;
                         }
@@ -231,15 +395,16 @@ public class MsgMemStore implements Closeable {
             } else {
                 // orderly consume by partition id.
                 lastWritePos = this.queuesMap.get(partitionId);
-                if ((lastWritePos != null) && (lastWritePos >= startReadOff)) {
+                if ((lastWritePos >= 0) && (lastWritePos >= startReadOff)) {
                     hasMsg = true;
                 }
             }
-            currDataOffset = this.cacheDataOffset.get();
-            currIndexOffset = this.cacheIndexOffset.get();
+            long curPublishedPos = this.publishedPos.get();
+            currDataOffset = getPosDataSize(curPublishedPos);
+            currIndexOffset = getPosMsgCount(curPublishedPos) * DataStoreUtils.STORE_INDEX_HEAD_LEN;
             lastDataRdOff = this.writeDataStartPos + currDataOffset;
         } finally {
-            this.writeLock.unlock();
+            this.mapLock.unlock();
         }
         int limitReadSize = currIndexOffset - startReadOff;
         // cannot find message, return not found
@@ -324,30 +489,36 @@ public class MsgMemStore implements Closeable {
      */
     public void batchFlush(MsgFileStore msgFileStore,
             StringBuilder strBuffer) throws Throwable {
-        if (this.curMessageCount.get() == 0) {
+        final long curPublishedPos = this.publishedPos.get();
+        final int msgCount = getPosMsgCount(curPublishedPos);
+        if (msgCount == 0) {
             return;
         }
+        final int indexSize = msgCount * DataStoreUtils.STORE_INDEX_HEAD_LEN;
+        final int dataSize = getPosDataSize(curPublishedPos);
         ByteBuffer tmpIndexBuffer = this.cachedIndexSegment.asReadOnlyBuffer();
         final ByteBuffer tmpDataReadBuf = this.cacheDataSegment.asReadOnlyBuffer();
-        tmpIndexBuffer.flip();
-        tmpDataReadBuf.flip();
+        tmpIndexBuffer.position(0);
+        tmpIndexBuffer.limit(indexSize);
+        tmpDataReadBuf.position(0);
+        tmpDataReadBuf.limit(dataSize);
         long startTime = System.currentTimeMillis();
-        msgFileStore.appendMsg(true, startTime, strBuffer, curMessageCount.get(),
-                cacheIndexOffset.get(), tmpIndexBuffer, cacheDataOffset.get(),
+        msgFileStore.appendMsg(true, startTime, strBuffer, msgCount,
+                indexSize, tmpIndexBuffer, dataSize,
                 tmpDataReadBuf, leftAppendTime.get(), rightAppendTime.get());
         BrokerSrvStatsHolder.updDiskSyncDataDlt(System.currentTimeMillis() - startTime);
     }
 
     public int getCurMsgCount() {
-        return this.curMessageCount.get();
+        return getPosMsgCount(this.publishedPos.get());
     }
 
     public int getCurDataCacheSize() {
-        return this.cacheDataOffset.get();
+        return getPosDataSize(this.publishedPos.get());
     }
 
     public int getIndexCacheSize() {
-        return this.cacheIndexOffset.get();
+        return getCurMsgCount() * DataStoreUtils.STORE_INDEX_HEAD_LEN;
     }
 
     public int getMaxDataCacheSize() {
@@ -361,18 +532,18 @@ public class MsgMemStore implements Closeable {
     public int isOffsetInHold(long requestOffset) {
         if (requestOffset < this.writeIndexStartPos) {
             return -1;
-        } else if (requestOffset >= this.writeIndexStartPos + this.cacheIndexOffset.get()) {
+        } else if (requestOffset >= this.writeIndexStartPos + getIndexCacheSize()) {
             return 1;
         }
         return 0;
     }
 
     public long getDataLastWritePos() {
-        return this.writeDataStartPos + this.cacheDataOffset.get();
+        return this.writeDataStartPos + getCurDataCacheSize();
     }
 
     public long getIndexLastWritePos() {
-        return this.writeIndexStartPos + this.cacheIndexOffset.get();
+        return this.writeIndexStartPos + getIndexCacheSize();
     }
 
     public long getIndexStartWritePos() {
@@ -399,9 +570,7 @@ public class MsgMemStore implements Closeable {
     public void clear() {
         this.writeDataStartPos = -1;
         this.writeIndexStartPos = -1;
-        this.cacheDataOffset.set(0);
-        this.cacheIndexOffset.set(0);
-        this.curMessageCount.set(0);
+        resetSlots();
         this.queuesMap.clear();
         this.keysMap.clear();
         this.cacheDataSegment.rewind();
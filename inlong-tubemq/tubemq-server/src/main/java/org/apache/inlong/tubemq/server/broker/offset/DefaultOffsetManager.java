@@ -24,7 +24,9 @@ import org.apache.inlong.tubemq.corebase.utils.TStringUtils;
 import org.apache.inlong.tubemq.corebase.utils.Tuple2;
 import org.apache.inlong.tubemq.corebase.utils.Tuple3;
 import org.apache.inlong.tubemq.server.broker.BrokerConfig;
+import org.apache.inlong.tubemq.server.broker.exception.OffsetStoreException;
 import org.apache.inlong.tubemq.server.broker.msgstore.MessageStore;
+import org.apache.inlong.tubemq.server.broker.offset.offsetstorage.FileOffsetStorage;
 import org.apache.inlong.tubemq.server.broker.offset.offsetstorage.OffsetStorage;
 import org.apache.inlong.tubemq.server.broker.offset.offsetstorage.OffsetStorageInfo;
 import org.apache.inlong.tubemq.server.broker.offset.offsetstorage.ZkOffsetStorage;
@@ -51,17 +53,31 @@ public class DefaultOffsetManager extends AbstractDaemonService implements Offse
 
     private static final Logger logger = LoggerFactory.getLogger(DefaultOffsetManager.class);
     private final BrokerConfig brokerConfig;
-    private final OffsetStorage zkOffsetStorage;
+    private final OffsetStorage offsetStorage;
     private final ConcurrentHashMap<String/* group */, ConcurrentHashMap<String/* topic - partitionId */, OffsetStorageInfo>> cfmOffsetMap =
             new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String/* group */, ConcurrentHashMap<String/* topic - partitionId */, Long>> tmpOffsetMap =
             new ConcurrentHashMap<>();
 
-    public DefaultOffsetManager(final BrokerConfig brokerConfig) {
-        super("[Offset Manager]", brokerConfig.getZkConfig().getZkCommitPeriodMs());
+    public DefaultOffsetManager(final BrokerConfig brokerConfig) throws OffsetStoreException {
+        super("[Offset Manager]", brokerConfig.isEnableLocalOffsetStore()
+                ? brokerConfig.getOffsetCommitPeriodMs()
+                : brokerConfig.getZkConfig().getZkCommitPeriodMs());
         this.brokerConfig = brokerConfig;
-        zkOffsetStorage = new ZkOffsetStorage(brokerConfig.getZkConfig(),
-                true, brokerConfig.getBrokerId());
+        if (brokerConfig.isEnableLocalOffsetStore()) {
+            // store offsets in local files, ZooKeeper is only an asynchronous mirror
+            OffsetStorage mirrorStorage = null;
+            if (brokerConfig.isEnableZkOffsetMirror()) {
+                mirrorStorage = new ZkOffsetStorage(brokerConfig.getZkConfig(),
+                        true, brokerConfig.getBrokerId());
+            }
+            offsetStorage = new FileOffsetStorage(brokerConfig.getOffsetStorePath(),
+                    brokerConfig.getBrokerId(), TServerConstants.CFG_OFFSET_WAL_MAX_SIZE,
+                    mirrorStorage, brokerConfig.getZkConfig().getZkCommitPeriodMs());
+        } else {
+            offsetStorage = new ZkOffsetStorage(brokerConfig.getZkConfig(),
+                    true, brokerConfig.getBrokerId());
+        }
         super.start();
     }
 
@@ -83,7 +99,7 @@ public class DefaultOffsetManager extends AbstractDaemonService implements Offse
         this.commitTmpOffsets();
         logger.info("[Offset Manager] begin reserve final Offset.....");
         this.commitCfmOffsets(true);
-        this.zkOffsetStorage.close();
+        this.offsetStorage.close();
         logger.info("[Offset Manager] Offset Manager service stopped!");
     }
 
@@ -341,7 +357,7 @@ public class DefaultOffsetManager extends AbstractDaemonService implements Offse
         Set<String> groupSet =
                 new HashSet<>(cfmOffsetMap.keySet());
         Map<String, Set<String>> localGroups =
-                zkOffsetStorage.queryZkAllGroupTopicInfos();
+                offsetStorage.queryZkAllGroupTopicInfos();
         groupSet.addAll(localGroups.keySet());
         return groupSet;
     }
@@ -364,7 +380,7 @@ public class DefaultOffsetManager extends AbstractDaemonService implements Offse
     public Set<String> getUnusedGroupInfo() {
         Set<String> unUsedGroups = new HashSet<>();
         Map<String, Set<String>> localGroups =
-                zkOffsetStorage.queryZkAllGroupTopicInfos();
+                offsetStorage.queryZkAllGroupTopicInfos();
         for (String groupName : localGroups.keySet()) {
             if (!cfmOffsetMap.containsKey(groupName)) {
                 unUsedGroups.add(groupName);
@@ -387,7 +403,7 @@ public class DefaultOffsetManager extends AbstractDaemonService implements Offse
             List<String> groupLst = new ArrayList<>(1);
             groupLst.add(group);
             Map<String, Set<String>> groupTopicInfo =
-                    zkOffsetStorage.queryZKGroupTopicInfo(groupLst);
+                    offsetStorage.queryZKGroupTopicInfo(groupLst);
             result = groupTopicInfo.get(group);
         } else {
             for (OffsetStorageInfo storageInfo : topicPartOffsetMap.values()) {
@@ -417,7 +433,7 @@ public class DefaultOffsetManager extends AbstractDaemonService implements Offse
                     continue;
                 }
                 Map<Integer, Long> qryResult =
-                        zkOffsetStorage.queryGroupOffsetInfo(group,
+                        offsetStorage.queryGroupOffsetInfo(group,
                                 entry.getKey(), entry.getValue());
                 Map<Integer, Tuple2<Long, Long>> offsetMap = new HashMap<>();
                 for (Map.Entry<Integer, Long> item : qryResult.entrySet()) {
@@ -563,7 +579,7 @@ public class DefaultOffsetManager extends AbstractDaemonService implements Offse
                     .append("[Offset Manager] delete offset from memory by modifier=")
                     .append(modifier).toString();
         } else {
-            zkOffsetStorage.deleteGroupOffsetInfo(groupTopicPartMap);
+            offsetStorage.deleteGroupOffsetInfo(groupTopicPartMap);
             printBase = strBuff
                     .append("[Offset Manager] delete offset from memory and zk by modifier=")
                     .append(modifier).toString();
@@ -644,8 +660,9 @@ public class DefaultOffsetManager extends AbstractDaemonService implements Offse
                     || entry.getValue() == null || entry.getValue().isEmpty()) {
                 continue;
             }
-            zkOffsetStorage.commitOffset(entry.getKey(), entry.getValue().values(), retryable);
+            offsetStorage.commitOffset(entry.getKey(), entry.getValue().values(), retryable);
         }
+        offsetStorage.flush();
         BrokerSrvStatsHolder.updZKSyncDataDlt(System.currentTimeMillis() - startTime);
     }
 
@@ -673,7 +690,7 @@ public class DefaultOffsetManager extends AbstractDaemonService implements Offse
         OffsetStorageInfo regInfo = regInfoMap.get(offsetCacheKey);
         if (regInfo == null) {
             OffsetStorageInfo tmpRegInfo =
-                    zkOffsetStorage.loadOffset(group, topic, partitionId);
+                    offsetStorage.loadOffset(group, topic, partitionId);
             if (tmpRegInfo == null) {
                 tmpRegInfo = new OffsetStorageInfo(topic,
                         brokerConfig.getBrokerId(), partitionId, defOffset, 0);
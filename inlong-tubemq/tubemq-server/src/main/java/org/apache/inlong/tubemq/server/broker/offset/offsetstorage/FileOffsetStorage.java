@@ -0,0 +1,715 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.server.broker.offset.offsetstorage;
+
+import org.apache.inlong.tubemq.corebase.TokenConstants;
+import org.apache.inlong.tubemq.corebase.utils.CheckSum;
+import org.apache.inlong.tubemq.server.broker.exception.OffsetStoreException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A offset storage implementation with local files.
+ * <p/>
+ * The committed offsets are appended to a write-ahead log, and the log is compacted into
+ * a snapshot file when it exceeds the max size, so the startup only loads the snapshot and
+ * replays a bounded log. The offsets of one commit round are group-committed by one
+ * {@link #flush()} call. Another offset storage, such as ZooKeeper, can be set as
+ * an asynchronous mirror, which is updated periodically with the changed offsets.
+ * The offsets not stored locally are loaded from the mirror, except the deleted ones,
+ * which are kept as tombstones in the log and the snapshot until they are committed again.
+ */
+public class FileOffsetStorage implements OffsetStorage {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileOffsetStorage.class);
+    private static final String WAL_FILE_NAME = "offsets.wal";
+    private static final String SNAPSHOT_FILE_NAME = "offsets.snapshot";
+    private static final String SNAPSHOT_TMP_FILE_NAME = "offsets.snapshot.tmp";
+    private static final int SNAPSHOT_MAGIC = 0x7B0FF5E7;
+    private static final byte RECORD_TYPE_PUT = 1;
+    private static final byte RECORD_TYPE_DEL = 2;
+    // Record storage structure
+    // record body length 4
+    // + checksum of record body 4
+    // + type 1
+    // + group length 2 + group
+    // + topic length 2 + topic
+    // + partitionId 4
+    // + messageId 8
+    // + offset 8
+    private static final int RECORD_HEAD_LEN = 8;
+    private static final int RECORD_FIXED_BODY_LEN = 1 + 2 + 2 + 4 + 8 + 8;
+
+    private final int brokerId;
+    private final File walFile;
+    private final File snapshotFile;
+    private final File snapshotTmpFile;
+    private final long walMaxSize;
+    // the storage mirrored asynchronously, null if not mirrored
+    private final OffsetStorage mirrorStorage;
+    private final ScheduledExecutorService mirrorScheduler;
+    // the stored offsets, group -> topic-partitionId -> offset record
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, OffsetRecord>> offsetMap =
+            new ConcurrentHashMap<>();
+    // the deleted offsets, not loaded from the mirror, group -> topic-partitionId -> offset record
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, OffsetRecord>> tombstoneMap =
+            new ConcurrentHashMap<>();
+    // guards the stored offsets updating, the write-ahead log, the snapshot
+    // and the mirror pending offsets
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final RandomAccessFile walRaf;
+    private final FileChannel walChannel;
+    // the offsets changed since the last mirror, group -> topic-partitionId -> offset record
+    private HashMap<String, HashMap<String, OffsetRecord>> mirrorPendingMap = new HashMap<>();
+    private long walSize = 0L;
+    private boolean walUnFlushed = false;
+    private volatile boolean closed = false;
+
+    /**
+     * Initial file offset storage object, load the snapshot and replay the write-ahead log
+     *
+     * @param storePath        the directory of the offset files
+     * @param brokerId         the broker id
+     * @param walMaxSize       the write-ahead log size to compact into snapshot
+     * @param mirrorStorage    the storage mirrored asynchronously, null if not mirrored
+     * @param mirrorPeriodMs   the mirror period
+     * @throws OffsetStoreException  the exception while loading the offset files
+     */
+    public FileOffsetStorage(String storePath, int brokerId, long walMaxSize,
+            OffsetStorage mirrorStorage, long mirrorPeriodMs) throws OffsetStoreException {
+        this.brokerId = brokerId;
+        this.walMaxSize = walMaxSize;
+        this.mirrorStorage = mirrorStorage;
+        File storeDir = new File(storePath);
+        if (!storeDir.exists() && !storeDir.mkdirs()) {
+            throw new OffsetStoreException(new StringBuilder(256)
+                    .append("Create offset store directory failure: ")
+                    .append(storeDir.getAbsolutePath()).toString());
+        }
+        this.walFile = new File(storeDir, WAL_FILE_NAME);
+        this.snapshotFile = new File(storeDir, SNAPSHOT_FILE_NAME);
+        this.snapshotTmpFile = new File(storeDir, SNAPSHOT_TMP_FILE_NAME);
+        try {
+            Files.deleteIfExists(snapshotTmpFile.toPath());
+            int snapshotCnt = loadSnapshot();
+            this.walRaf = new RandomAccessFile(walFile, "rw");
+            this.walChannel = walRaf.getChannel();
+            int walCnt = replayWal();
+            logger.info(new StringBuilder(256)
+                    .append("[File Offset Storage] loaded ").append(snapshotCnt)
+                    .append(" snapshot records and ").append(walCnt)
+                    .append(" log records from ").append(storeDir.getAbsolutePath()).toString());
+        } catch (IOException e) {
+            throw new OffsetStoreException("Load offset store files failure", e);
+        }
+        if (mirrorStorage == null) {
+            this.mirrorScheduler = null;
+        } else {
+            this.mirrorScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "Broker Offset Mirror Thread");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.mirrorScheduler.scheduleWithFixedDelay(this::mirrorOffsets,
+                    mirrorPeriodMs, mirrorPeriodMs, TimeUnit.MILLISECONDS);
+        }
+        logger.info("[File Offset Storage] File Offset Storage initiated!");
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        logger.info("[File Offset Storage] File Offset Storage closing .......");
+        flush();
+        closed = true;
+        if (mirrorScheduler != null) {
+            mirrorScheduler.shutdown();
+            try {
+                mirrorScheduler.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            mirrorOffsets();
+            mirrorStorage.close();
+        }
+        writeLock.lock();
+        try {
+            walRaf.close();
+        } catch (IOException e) {
+            logger.error("[File Offset Storage] close offset log failure", e);
+        } finally {
+            writeLock.unlock();
+        }
+        logger.info("[File Offset Storage] File Offset Storage closed!");
+    }
+
+    @Override
+    public OffsetStorageInfo loadOffset(String group, String topic, int partitionId) {
+        Map<String, OffsetRecord> recordMap = offsetMap.get(group);
+        if (recordMap != null) {
+            OffsetRecord record = recordMap.get(getRecordKey(topic, partitionId));
+            if (record != null) {
+                return new OffsetStorageInfo(topic, brokerId, partitionId,
+                        record.offset, record.messageId, false);
+            }
+        }
+        // the offsets committed before the local storage enabled
+        if (mirrorStorage != null && !isDeleted(group, getRecordKey(topic, partitionId))) {
+            return mirrorStorage.loadOffset(group, topic, partitionId);
+        }
+        return null;
+    }
+
+    /**
+     * Append the modified offsets to the write-ahead log, they are durable after
+     * the following {@link #flush()} call.
+     */
+    @Override
+    public void commitOffset(String group,
+            Collection<OffsetStorageInfo> offsetInfoList,
+            boolean isFailRetry) {
+        if (closed || offsetInfoList == null || offsetInfoList.isEmpty()) {
+            return;
+        }
+        List<OffsetStorageInfo> commitInfos = new ArrayList<>();
+        List<OffsetRecord> records = new ArrayList<>();
+        for (final OffsetStorageInfo info : offsetInfoList) {
+            synchronized (info) {
+                if (!info.isModified()) {
+                    continue;
+                }
+                records.add(new OffsetRecord(info.getTopic(), info.getPartitionId(),
+                        info.getOffset(), info.getMessageId()));
+                info.setModified(false);
+            }
+            commitInfos.add(info);
+        }
+        if (records.isEmpty()) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            appendRecords(RECORD_TYPE_PUT, group, records);
+            ConcurrentHashMap<String, OffsetRecord> recordMap =
+                    offsetMap.computeIfAbsent(group, k -> new ConcurrentHashMap<>());
+            for (OffsetRecord record : records) {
+                recordMap.put(record.getKey(), record);
+            }
+            removeTombstones(group, records);
+            if (mirrorStorage != null) {
+                HashMap<String, OffsetRecord> pendingMap =
+                        mirrorPendingMap.computeIfAbsent(group, k -> new HashMap<>());
+                for (OffsetRecord record : records) {
+                    pendingMap.put(record.getKey(), record);
+                }
+            }
+        } catch (IOException e) {
+            logger.error("[File Offset Storage] Error when commit offsets to offset log", e);
+            // commit them again in the next round
+            for (OffsetStorageInfo info : commitInfos) {
+                synchronized (info) {
+                    info.setModified(true);
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Force the appended offsets to disk, and compact the write-ahead log
+     * into the snapshot file if it exceeds the max size.
+     */
+    @Override
+    public void flush() {
+        if (closed) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            if (walUnFlushed) {
+                walChannel.force(false);
+                walUnFlushed = false;
+            }
+            if (walSize >= walMaxSize) {
+                compact();
+            }
+        } catch (IOException e) {
+            logger.error("[File Offset Storage] Error when flush offset log", e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public Map<String, Set<String>> queryZkAllGroupTopicInfos() {
+        Map<String, Set<String>> groupTopicMap = new HashMap<>();
+        for (Map.Entry<String, ConcurrentHashMap<String, OffsetRecord>> entry : offsetMap.entrySet()) {
+            Set<String> topicSet = getTopicSet(entry.getValue());
+            if (!topicSet.isEmpty()) {
+                groupTopicMap.put(entry.getKey(), topicSet);
+            }
+        }
+        if (mirrorStorage != null) {
+            mergeGroupTopicInfo(groupTopicMap, mirrorStorage.queryZkAllGroupTopicInfos());
+        }
+        return groupTopicMap;
+    }
+
+    @Override
+    public Map<String, Set<String>> queryZKGroupTopicInfo(List<String> groupSet) {
+        Map<String, Set<String>> groupTopicMap = new HashMap<>();
+        if (groupSet == null || groupSet.isEmpty()) {
+            return groupTopicMap;
+        }
+        List<String> unknownGroups = new ArrayList<>();
+        for (String group : groupSet) {
+            Map<String, OffsetRecord> recordMap = offsetMap.get(group);
+            Set<String> topicSet = (recordMap == null) ? null : getTopicSet(recordMap);
+            if (topicSet == null || topicSet.isEmpty()) {
+                unknownGroups.add(group);
+            } else {
+                groupTopicMap.put(group, topicSet);
+            }
+        }
+        if (mirrorStorage != null && !unknownGroups.isEmpty()) {
+            mergeGroupTopicInfo(groupTopicMap,
+                    mirrorStorage.queryZKGroupTopicInfo(unknownGroups));
+        }
+        return groupTopicMap;
+    }
+
+    @Override
+    public Map<Integer, Long> queryGroupOffsetInfo(String group, String topic,
+            Set<Integer> partitionIds) {
+        Map<Integer, Long> offsetMap = new HashMap<>(partitionIds.size());
+        Set<Integer> unknownPartIds = new HashSet<>();
+        Map<String, OffsetRecord> recordMap = this.offsetMap.get(group);
+        for (Integer partitionId : partitionIds) {
+            OffsetRecord record = (recordMap == null)
+                    ? null
+                    : recordMap.get(getRecordKey(topic, partitionId));
+            if (record == null) {
+                if (!isDeleted(group, getRecordKey(topic, partitionId))) {
+                    unknownPartIds.add(partitionId);
+                }
+                offsetMap.put(partitionId, null);
+            } else {
+                offsetMap.put(partitionId, record.offset);
+            }
+        }
+        if (mirrorStorage != null && !unknownPartIds.isEmpty()) {
+            offsetMap.putAll(mirrorStorage.queryGroupOffsetInfo(group, topic, unknownPartIds));
+        }
+        return offsetMap;
+    }
+
+    @Override
+    public void deleteGroupOffsetInfo(
+            Map<String, Map<String, Set<Integer>>> groupTopicPartMap) {
+        if (closed) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            for (Map.Entry<String, Map<String, Set<Integer>>> entry : groupTopicPartMap.entrySet()) {
+                if (entry.getKey() == null
+                        || entry.getValue() == null
+                        || entry.getValue().isEmpty()) {
+                    continue;
+                }
+                List<OffsetRecord> records = new ArrayList<>();
+                for (Map.Entry<String, Set<Integer>> topicEntry : entry.getValue().entrySet()) {
+                    if (topicEntry.getKey() == null || topicEntry.getValue() == null) {
+                        continue;
+                    }
+                    for (Integer partitionId : topicEntry.getValue()) {
+                        records.add(new OffsetRecord(topicEntry.getKey(), partitionId, 0L, 0L));
+                    }
+                }
+                if (records.isEmpty()) {
+                    continue;
+                }
+                appendRecords(RECORD_TYPE_DEL, entry.getKey(), records);
+                removeRecords(entry.getKey(), records);
+                HashMap<String, OffsetRecord> pendingMap = mirrorPendingMap.get(entry.getKey());
+                if (pendingMap != null) {
+                    for (OffsetRecord record : records) {
+                        pendingMap.remove(record.getKey());
+                    }
+                }
+            }
+            if (walUnFlushed) {
+                walChannel.force(false);
+                walUnFlushed = false;
+            }
+        } catch (IOException e) {
+            logger.error("[File Offset Storage] Error when delete offsets from offset log", e);
+        } finally {
+            writeLock.unlock();
+        }
+        if (mirrorScheduler != null) {
+            mirrorScheduler.execute(() -> mirrorStorage.deleteGroupOffsetInfo(groupTopicPartMap));
+        }
+    }
+
+    /**
+     * Commit the offsets changed since the last mirror to the mirror storage.
+     */
+    private void mirrorOffsets() {
+        HashMap<String, HashMap<String, OffsetRecord>> pendingMap;
+        writeLock.lock();
+        try {
+            if (mirrorPendingMap.isEmpty()) {
+                return;
+            }
+            pendingMap = mirrorPendingMap;
+            mirrorPendingMap = new HashMap<>();
+        } finally {
+            writeLock.unlock();
+        }
+        for (Map.Entry<String, HashMap<String, OffsetRecord>> entry : pendingMap.entrySet()) {
+            List<OffsetStorageInfo> infoList = new ArrayList<>(entry.getValue().size());
+            for (OffsetRecord record : entry.getValue().values()) {
+                OffsetStorageInfo info = new OffsetStorageInfo(record.topic, brokerId,
+                        record.partitionId, record.offset, record.messageId, false);
+                info.setModified(true);
+                infoList.add(info);
+            }
+            try {
+                mirrorStorage.commitOffset(entry.getKey(), infoList, false);
+            } catch (Throwable e) {
+                logger.error("[File Offset Storage] Error when mirror offsets", e);
+            }
+        }
+    }
+
+    private void appendRecords(byte type, String group,
+            List<OffsetRecord> records) throws IOException {
+        byte[] groupData = group.getBytes(StandardCharsets.UTF_8);
+        int totalLen = 0;
+        for (OffsetRecord record : records) {
+            totalLen += RECORD_HEAD_LEN + RECORD_FIXED_BODY_LEN
+                    + groupData.length + record.topicData.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(totalLen);
+        for (OffsetRecord record : records) {
+            encodeRecord(buffer, type, groupData, record);
+        }
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                walChannel.write(buffer);
+            }
+        } catch (IOException e) {
+            // drop the records written partly, the next records are appended after the last good one
+            try {
+                walChannel.truncate(walSize);
+                walChannel.position(walSize);
+            } catch (IOException e1) {
+                e.addSuppressed(e1);
+            }
+            throw e;
+        }
+        walSize += totalLen;
+        walUnFlushed = true;
+    }
+
+    /**
+     * Write all the stored offsets into a new snapshot file, then truncate the log.
+     * Replaying the log over the new snapshot gives the same offsets, so a crash
+     * between the two steps loses nothing.
+     */
+    private void compact() throws IOException {
+        long startTime = System.currentTimeMillis();
+        int recordCnt = 0;
+        try (RandomAccessFile snapshotRaf = new RandomAccessFile(snapshotTmpFile, "rw")) {
+            FileChannel channel = snapshotRaf.getChannel();
+            ByteBuffer header = ByteBuffer.allocate(4);
+            header.putInt(SNAPSHOT_MAGIC);
+            header.flip();
+            channel.write(header);
+            recordCnt += writeRecords(channel, offsetMap, RECORD_TYPE_PUT);
+            // the tombstones still hide the offsets of the mirror after reloading
+            recordCnt += writeRecords(channel, tombstoneMap, RECORD_TYPE_DEL);
+            channel.force(true);
+        }
+        Files.move(snapshotTmpFile.toPath(), snapshotFile.toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        walChannel.truncate(0L);
+        walChannel.position(0L);
+        walChannel.force(true);
+        walSize = 0L;
+        logger.info(new StringBuilder(256)
+                .append("[File Offset Storage] compacted ").append(recordCnt)
+                .append(" offset records into snapshot, cost ")
+                .append(System.currentTimeMillis() - startTime).append(" ms").toString());
+    }
+
+    private int writeRecords(FileChannel channel,
+            ConcurrentHashMap<String, ConcurrentHashMap<String, OffsetRecord>> recordsMap,
+            byte type) throws IOException {
+        int recordCnt = 0;
+        for (Map.Entry<String, ConcurrentHashMap<String, OffsetRecord>> entry : recordsMap.entrySet()) {
+            if (entry.getValue().isEmpty()) {
+                continue;
+            }
+            byte[] groupData = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            int totalLen = 0;
+            for (OffsetRecord record : entry.getValue().values()) {
+                totalLen += RECORD_HEAD_LEN + RECORD_FIXED_BODY_LEN
+                        + groupData.length + record.topicData.length;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(totalLen);
+            for (OffsetRecord record : entry.getValue().values()) {
+                encodeRecord(buffer, type, groupData, record);
+                recordCnt++;
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        return recordCnt;
+    }
+
+    private int loadSnapshot() throws IOException {
+        if (!snapshotFile.exists()) {
+            return 0;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(snapshotFile.toPath()));
+        if (buffer.remaining() < 4 || buffer.getInt() != SNAPSHOT_MAGIC) {
+            throw new IOException(new StringBuilder(256)
+                    .append("Invalid offset snapshot file: ")
+                    .append(snapshotFile.getAbsolutePath()).toString());
+        }
+        int recordCnt = 0;
+        while (buffer.hasRemaining()) {
+            if (!decodeAndApplyRecord(buffer)) {
+                throw new IOException(new StringBuilder(256)
+                        .append("Corrupted offset snapshot file: ")
+                        .append(snapshotFile.getAbsolutePath())
+                        .append(", position=").append(buffer.position()).toString());
+            }
+            recordCnt++;
+        }
+        return recordCnt;
+    }
+
+    private int replayWal() throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(walFile.toPath()));
+        int recordCnt = 0;
+        int validEnd = 0;
+        while (buffer.hasRemaining()) {
+            if (!decodeAndApplyRecord(buffer)) {
+                break;
+            }
+            validEnd = buffer.position();
+            recordCnt++;
+        }
+        if (validEnd < buffer.limit()) {
+            // drop the record torn by a crash
+            logger.warn(new StringBuilder(256)
+                    .append("[File Offset Storage] truncate the torn offset log from ")
+                    .append(buffer.limit()).append(" to ").append(validEnd).toString());
+            walChannel.truncate(validEnd);
+            walChannel.force(true);
+        }
+        walChannel.position(validEnd);
+        walSize = validEnd;
+        return recordCnt;
+    }
+
+    private void encodeRecord(ByteBuffer buffer, byte type,
+            byte[] groupData, OffsetRecord record) {
+        int bodyLen = RECORD_FIXED_BODY_LEN + groupData.length + record.topicData.length;
+        int bodyPos = buffer.position() + RECORD_HEAD_LEN;
+        buffer.putInt(bodyLen);
+        buffer.putInt(0);
+        buffer.put(type);
+        buffer.putShort((short) groupData.length);
+        buffer.put(groupData);
+        buffer.putShort((short) record.topicData.length);
+        buffer.put(record.topicData);
+        buffer.putInt(record.partitionId);
+        buffer.putLong(record.messageId);
+        buffer.putLong(record.offset);
+        buffer.putInt(bodyPos - 4,
+                CheckSum.crc32(buffer.array(), buffer.arrayOffset() + bodyPos, bodyLen));
+    }
+
+    private boolean decodeAndApplyRecord(ByteBuffer buffer) {
+        if (buffer.remaining() < RECORD_HEAD_LEN) {
+            return false;
+        }
+        int recordPos = buffer.position();
+        int bodyLen = buffer.getInt();
+        int checkSum = buffer.getInt();
+        if (bodyLen < RECORD_FIXED_BODY_LEN || bodyLen > buffer.remaining()
+                || checkSum != CheckSum.crc32(buffer.array(), buffer.position(), bodyLen)) {
+            buffer.position(recordPos);
+            return false;
+        }
+        byte type = buffer.get();
+        byte[] groupData = new byte[buffer.getShort()];
+        buffer.get(groupData);
+        byte[] topicData = new byte[buffer.getShort()];
+        buffer.get(topicData);
+        int partitionId = buffer.getInt();
+        long messageId = buffer.getLong();
+        long offset = buffer.getLong();
+        String group = new String(groupData, StandardCharsets.UTF_8);
+        OffsetRecord record = new OffsetRecord(new String(topicData, StandardCharsets.UTF_8),
+                partitionId, offset, messageId);
+        List<OffsetRecord> records = new ArrayList<>(1);
+        records.add(record);
+        if (type == RECORD_TYPE_PUT) {
+            offsetMap.computeIfAbsent(group, k -> new ConcurrentHashMap<>())
+                    .put(record.getKey(), record);
+            removeTombstones(group, records);
+        } else {
+            removeRecords(group, records);
+        }
+        return true;
+    }
+
+    private void removeRecords(String group, List<OffsetRecord> records) {
+        ConcurrentHashMap<String, OffsetRecord> deletedMap =
+                tombstoneMap.computeIfAbsent(group, k -> new ConcurrentHashMap<>());
+        for (OffsetRecord record : records) {
+            deletedMap.put(record.getKey(), record);
+        }
+        ConcurrentHashMap<String, OffsetRecord> recordMap = offsetMap.get(group);
+        if (recordMap == null) {
+            return;
+        }
+        for (OffsetRecord record : records) {
+            recordMap.remove(record.getKey());
+        }
+        if (recordMap.isEmpty()) {
+            offsetMap.remove(group, recordMap);
+        }
+    }
+
+    private void removeTombstones(String group, List<OffsetRecord> records) {
+        ConcurrentHashMap<String, OffsetRecord> deletedMap = tombstoneMap.get(group);
+        if (deletedMap == null) {
+            return;
+        }
+        for (OffsetRecord record : records) {
+            deletedMap.remove(record.getKey());
+        }
+        if (deletedMap.isEmpty()) {
+            tombstoneMap.remove(group, deletedMap);
+        }
+    }
+
+    private boolean isDeleted(String group, String recordKey) {
+        Map<String, OffsetRecord> deletedMap = tombstoneMap.get(group);
+        return deletedMap != null && deletedMap.containsKey(recordKey);
+    }
+
+    private boolean isTopicDeleted(String group, String topic) {
+        Map<String, OffsetRecord> deletedMap = tombstoneMap.get(group);
+        if (deletedMap == null) {
+            return false;
+        }
+        for (OffsetRecord record : deletedMap.values()) {
+            if (record.topic.equals(topic)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void mergeGroupTopicInfo(Map<String, Set<String>> groupTopicMap,
+            Map<String, Set<String>> mirrorGroupTopicMap) {
+        for (Map.Entry<String, Set<String>> entry : mirrorGroupTopicMap.entrySet()) {
+            if (entry.getValue() == null || entry.getValue().isEmpty()) {
+                continue;
+            }
+            for (String topic : entry.getValue()) {
+                // the topic deleted locally may be still in the mirror
+                if (!isTopicDeleted(entry.getKey(), topic)) {
+                    groupTopicMap.computeIfAbsent(entry.getKey(), k -> new HashSet<>()).add(topic);
+                }
+            }
+        }
+    }
+
+    private Set<String> getTopicSet(Map<String, OffsetRecord> recordMap) {
+        Set<String> topicSet = new HashSet<>();
+        for (OffsetRecord record : recordMap.values()) {
+            topicSet.add(record.topic);
+        }
+        return topicSet;
+    }
+
+    private static String getRecordKey(String topic, int partitionId) {
+        return new StringBuilder(256).append(topic)
+                .append(TokenConstants.HYPHEN).append(partitionId).toString();
+    }
+
+    /**
+     * The stored offset of a topic partition.
+     */
+    private static class OffsetRecord {
+
+        private final String topic;
+        private final byte[] topicData;
+        private final int partitionId;
+        private final long offset;
+        private final long messageId;
+
+        OffsetRecord(String topic, int partitionId, long offset, long messageId) {
+            this.topic = topic;
+            this.topicData = topic.getBytes(StandardCharsets.UTF_8);
+            this.partitionId = partitionId;
+            this.offset = offset;
+            this.messageId = messageId;
+        }
+
+        String getKey() {
+            return getRecordKey(topic, partitionId);
+        }
+    }
+}
@@ -32,6 +32,8 @@ public interface OffsetStorage {
             Collection<OffsetStorageInfo> offsetInfoList,
             boolean isFailRetry);
 
+    void flush();
+
     Map<String, Set<String>> queryZkAllGroupTopicInfos();
 
     Map<String, Set<String>> queryZKGroupTopicInfo(List<String> groupSet);
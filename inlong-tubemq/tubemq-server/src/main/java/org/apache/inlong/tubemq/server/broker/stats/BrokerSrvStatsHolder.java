@@ -159,6 +159,14 @@ public class BrokerSrvStatsHolder {
         switchableSets[getIndex()].msgSubLatencyStats.update(dltTime);
     }
 
+    public static void addFileTransferMsgCnt(int msgCnt, int regionCnt) {
+        if (detailStatsClosed) {
+            return;
+        }
+        switchableSets[getIndex()].transferMsgStats.addValue(msgCnt);
+        switchableSets[getIndex()].transferRegionStats.addValue(regionCnt);
+    }
+
     public static void updConfirmLatency(long dltTime) {
         if (detailStatsClosed) {
             return;
@@ -202,6 +210,10 @@ public class BrokerSrvStatsHolder {
                     statsSet.csmTimeoutStats.getAndResetValue());
             statsMap.put(statsSet.errPubOverFlowStats.getFullName(),
                     statsSet.errPubOverFlowStats.getAndResetValue());
+            statsMap.put(statsSet.transferMsgStats.getFullName(),
+                    statsSet.transferMsgStats.getAndResetValue());
+            statsMap.put(statsSet.transferRegionStats.getFullName(),
+                    statsSet.transferRegionStats.getAndResetValue());
             statsSet.fileSyncDltStats.snapShort(statsMap, false);
             statsSet.zkSyncDltStats.snapShort(statsMap, false);
             statsSet.msgPubLatencyStats.snapShort(statsMap, false);
@@ -222,6 +234,10 @@ public class BrokerSrvStatsHolder {
                     statsSet.csmTimeoutStats.getValue());
             statsMap.put(statsSet.errPubOverFlowStats.getFullName(),
                     statsSet.errPubOverFlowStats.getValue());
+            statsMap.put(statsSet.transferMsgStats.getFullName(),
+                    statsSet.transferMsgStats.getValue());
+            statsMap.put(statsSet.transferRegionStats.getFullName(),
+                    statsSet.transferRegionStats.getValue());
             statsSet.fileSyncDltStats.getValue(statsMap, false);
             statsSet.zkSyncDltStats.getValue(statsMap, false);
             statsSet.msgPubLatencyStats.getValue(statsMap, false);
@@ -251,6 +267,10 @@ public class BrokerSrvStatsHolder {
                     .append("\":").append(statsSet.csmTimeoutStats.getAndResetValue())
                     .append(",\"").append(statsSet.errPubOverFlowStats.getFullName())
                     .append("\":").append(statsSet.errPubOverFlowStats.getAndResetValue())
+                    .append(",\"").append(statsSet.transferMsgStats.getFullName())
+                    .append("\":").append(statsSet.transferMsgStats.getAndResetValue())
+                    .append(",\"").append(statsSet.transferRegionStats.getFullName())
+                    .append("\":").append(statsSet.transferRegionStats.getAndResetValue())
                     .append(",");
             statsSet.fileSyncDltStats.snapShort(strBuff, false);
             strBuff.append(",");
@@ -277,6 +297,10 @@ public class BrokerSrvStatsHolder {
                     .append("\":").append(statsSet.csmTimeoutStats.getValue())
                     .append(",\"").append(statsSet.errPubOverFlowStats.getFullName())
                     .append("\":").append(statsSet.errPubOverFlowStats.getValue())
+                    .append(",\"").append(statsSet.transferMsgStats.getFullName())
+                    .append("\":").append(statsSet.transferMsgStats.getValue())
+                    .append(",\"").append(statsSet.transferRegionStats.getFullName())
+                    .append("\":").append(statsSet.transferRegionStats.getValue())
                     .append(",");
             statsSet.fileSyncDltStats.getValue(strBuff, false);
             strBuff.append(",");
@@ -348,6 +372,12 @@ public class BrokerSrvStatsHolder {
         // getMessage process latency statistics
         protected final ESTHistogram msgSubLatencyStats =
                 new ESTHistogram("msg_get_dlt", null);
+        // messages sent in transfer mode statistics
+        protected final LongStatsCounter transferMsgStats =
+                new LongStatsCounter("msg_get_transfer_cnt", null);
+        // payloads sent by file region statistics
+        protected final LongStatsCounter transferRegionStats =
+                new LongStatsCounter("msg_get_region_cnt", null);
         // confirm process latency statistics
         protected final ESTHistogram msgConfirmLatencyStats =
                 new ESTHistogram("msg_confirm_dlt", null);
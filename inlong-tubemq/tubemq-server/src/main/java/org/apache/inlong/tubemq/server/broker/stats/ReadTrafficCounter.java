@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.server.broker.stats;
+
+import org.apache.inlong.tubemq.server.broker.utils.DataStoreUtils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Traffic statistic of one partition read, the messages are counted by
+ * the primitive msgTime minute code stored in the message flag, and
+ * the statistics keys are only built once per distinct minute
+ * when the read finishes.
+ * It is not thread-safe, one instance is used by one read.
+ */
+public class ReadTrafficCounter {
+
+    // the statistics key prefix of the read partition
+    private final String statsKeyBase;
+    // the counted minute codes and their traffic
+    private int[] minuteCodes = new int[4];
+    private long[] msgCounts = new long[4];
+    private long[] msgSizes = new long[4];
+    private int size = 0;
+    private int lastIndex = -1;
+    // the traffic of messages stored without msgTime code, keyed by msgTime
+    private HashMap<String, TrafficInfo> rawTimeCounts = null;
+
+    public ReadTrafficCounter(String statsKeyBase) {
+        this.statsKeyBase = statsKeyBase;
+    }
+
+    /**
+     * Count a message by its msgTime minute code.
+     *
+     * @param minuteCode   the msgTime minute code, 0 if the message has no msgTime
+     * @param msgSize      the message size
+     */
+    public void add(int minuteCode, int msgSize) {
+        int index = lastIndex;
+        if (index < 0 || minuteCodes[index] != minuteCode) {
+            index = indexOf(minuteCode);
+            if (index < 0) {
+                index = size++;
+                if (index == minuteCodes.length) {
+                    minuteCodes = Arrays.copyOf(minuteCodes, index * 2);
+                    msgCounts = Arrays.copyOf(msgCounts, index * 2);
+                    msgSizes = Arrays.copyOf(msgSizes, index * 2);
+                }
+                minuteCodes[index] = minuteCode;
+            }
+            lastIndex = index;
+        }
+        msgCounts[index]++;
+        msgSizes[index] += msgSize;
+    }
+
+    /**
+     * Count a message by the msgTime parsed from its attributes,
+     * used for the messages stored without msgTime code.
+     *
+     * @param msgTime   the msgTime, empty if the message has no msgTime
+     * @param msgSize   the message size
+     */
+    public void add(String msgTime, int msgSize) {
+        if (rawTimeCounts == null) {
+            rawTimeCounts = new HashMap<>();
+        }
+        TrafficInfo trafficInfo = rawTimeCounts.get(msgTime);
+        if (trafficInfo == null) {
+            rawTimeCounts.put(msgTime, new TrafficInfo(1L, msgSize));
+        } else {
+            trafficInfo.addMsgCntAndSize(1L, msgSize);
+        }
+    }
+
+    public boolean isEmpty() {
+        return size == 0 && (rawTimeCounts == null || rawTimeCounts.isEmpty());
+    }
+
+    /**
+     * Build the statistics map keyed by statsKeyBase#msgTime.
+     *
+     * @param sBuilder   the string buffer
+     * @return           the statistics map
+     */
+    public HashMap<String, TrafficInfo> toCountMap(StringBuilder sBuilder) {
+        HashMap<String, TrafficInfo> countMap = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            addCount(countMap, DataStoreUtils.minuteCodeToMsgTime(minuteCodes[i]),
+                    msgCounts[i], msgSizes[i], sBuilder);
+        }
+        if (rawTimeCounts != null) {
+            for (Map.Entry<String, TrafficInfo> entry : rawTimeCounts.entrySet()) {
+                addCount(countMap, entry.getKey(), entry.getValue().getMsgCount(),
+                        entry.getValue().getMsgSize(), sBuilder);
+            }
+        }
+        return countMap;
+    }
+
+    private int indexOf(int minuteCode) {
+        for (int i = 0; i < size; i++) {
+            if (minuteCodes[i] == minuteCode) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void addCount(HashMap<String, TrafficInfo> countMap, String msgTime,
+            long msgCount, long msgSize, StringBuilder sBuilder) {
+        String baseKey = sBuilder.append(statsKeyBase)
+                .append("#").append(msgTime).toString();
+        sBuilder.delete(0, sBuilder.length());
+        TrafficInfo trafficInfo = countMap.get(baseKey);
+        if (trafficInfo == null) {
+            countMap.put(baseKey, new TrafficInfo(msgCount, msgSize));
+        } else {
+            trafficInfo.addMsgCntAndSize(msgCount, msgSize);
+        }
+    }
+}
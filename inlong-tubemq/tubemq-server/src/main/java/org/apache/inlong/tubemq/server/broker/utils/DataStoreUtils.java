@@ -22,14 +22,16 @@ import org.apache.inlong.tubemq.corebase.TokenConstants;
 import org.apache.inlong.tubemq.corebase.protobuf.generated.ClientBroker;
 import org.apache.inlong.tubemq.corebase.utils.MessageFlagUtils;
 import org.apache.inlong.tubemq.corebase.utils.TStringUtils;
-import org.apache.inlong.tubemq.server.broker.stats.TrafficInfo;
+import org.apache.inlong.tubemq.server.broker.msgstore.disk.Segment;
+import org.apache.inlong.tubemq.server.broker.msgstore.disk.TransferMsgResponse;
+import org.apache.inlong.tubemq.server.broker.stats.ReadTrafficCounter;
 
 import com.google.protobuf.ByteString;
 
+import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.nio.ByteBuffer;
 import java.text.NumberFormat;
-import java.util.HashMap;
 
 /**
  * Storage util. Used for data and index file storage format.
@@ -50,7 +52,14 @@ public class DataStoreUtils {
     // + flag 4
     // + data 0
     //
+    // The stored flag keeps the client flag in the lower 7 bits, the upper
+    // 24 bits hold the msgTime minute code extracted when the message is written,
+    // so the read path can count the traffic without parsing the attributes.
+    // flag: msgTime minute code 24 | msgTime coded mark 1 | client flag 7
+    //
     public static final int MAX_MSG_TRANSFER_SIZE = 1024 * 1024;
+    // the size read at the beginning of a message in transfer mode, covers header and attributes
+    public static final int STORE_MSG_HEAD_READ_SIZE = 512;
 
     public static final int STORE_DATA_PREFX_LEN = 48;
     public static final int STORE_DATA_HEADER_LEN = STORE_DATA_PREFX_LEN + 4;
@@ -65,6 +74,9 @@ public class DataStoreUtils {
     public static final int STORE_HEADER_POS_MSGID = 40;
     public static final int STORE_HEADER_POS_MSGFLAG = 48;
     public static final int STORE_HEADER_POS_MSGDATA = 52;
+    public static final int STORE_FLAG_CLIENT_MASK = 0x7F;
+    public static final int STORE_FLAG_MSGTIME_CODED = 0x80;
+    public static final int STORE_FLAG_MSGTIME_SHIFT = 8;
     public static final int STORE_DATA_TOKER_BEGIN_VALUE = 0x2C998B8;
     public static final int STORE_DATA_TOKER_BLANK_VALUE = 0x2C99B5E;
     public static final long MAX_FILE_ROLL_CHECK_DURATION = 1 * 3600 * 1000;
@@ -89,6 +101,11 @@ public class DataStoreUtils {
                     + TBaseConstants.META_MB_UNIT_SIZE * 8;
     public static final int STORE_MAX_MESSAGE_STORE_LEN = STORE_DATA_HEADER_LEN + MAX_MSG_DATA_STORE_SIZE;
 
+    // the msgTime minute code base year, the code covers 31 years from it
+    private static final int MSGTIME_CODE_BASE_YEAR = 2020;
+    private static final int MSGTIME_CODE_MAX_YEAR = 2050;
+    private static final int MSGTIME_LENGTH = 12;
+
     public static final String DATA_FILE_SUFFIX = ".tube";
     public static final String INDEX_FILE_SUFFIX = ".index";
 
@@ -109,15 +126,11 @@ public class DataStoreUtils {
      *
      * @param dataBuffer      the raw stored data
      * @param dataTotalSize   the data size
-     * @param countMap        the statistics map
-     * @param statisKeyBase   the statistics key prefix
-     * @param sBuilder        the string buffer
+     * @param trafficCounter  the traffic counter of the read
      * @return                the converted messages
      */
     public static ClientBroker.TransferedMessage getTransferMsg(ByteBuffer dataBuffer, int dataTotalSize,
-            HashMap<String, TrafficInfo> countMap,
-            String statisKeyBase,
-            StringBuilder sBuilder) {
+            ReadTrafficCounter trafficCounter) {
         if (dataBuffer.array().length < dataTotalSize) {
             return null;
         }
@@ -135,7 +148,8 @@ public class DataStoreUtils {
             return null;
         }
         final long msgId = dataBuffer.getLong(DataStoreUtils.STORE_HEADER_POS_MSGID);
-        final int flag = dataBuffer.getInt(DataStoreUtils.STORE_HEADER_POS_MSGFLAG);
+        final int storeFlag = dataBuffer.getInt(DataStoreUtils.STORE_HEADER_POS_MSGFLAG);
+        final int flag = getClientMsgFlag(storeFlag);
         final int payLoadLen2 = payLoadLen;
         final byte[] payLoadData = new byte[payLoadLen];
         System.arraycopy(dataBuffer.array(), payLoadOffset, payLoadData, 0, payLoadLen);
@@ -158,16 +172,234 @@ public class DataStoreUtils {
             if (attrLen > payLoadLen) {
                 return null;
             }
-            if (attrLen > 0) {
-                final byte[] attrData = new byte[attrLen];
-                System.arraycopy(dataBuffer.array(), payLoadOffset, attrData, 0, attrLen);
-                try {
-                    attribute = new String(attrData, TBaseConstants.META_DEFAULT_CHARSET_NAME);
-                } catch (final UnsupportedEncodingException e) {
-                    throw new RuntimeException(e);
+            if (attrLen > 0 && !hasMsgTimeCode(storeFlag)) {
+                attribute = decodeAttribute(dataBuffer.array(), payLoadOffset, attrLen);
+            }
+        }
+        addTrafficInfo(storeFlag, attribute, payLoadLen2, trafficCounter);
+        ClientBroker.TransferedMessage transferedMessage = dataBuilder.build();
+        dataBuilder.clear();
+        return transferedMessage;
+    }
+
+    /**
+     * Add a stored message to the transfer response, only the store header and
+     * attributes are read into heap, the payload is transferred from the data segment.
+     *
+     * @param headBuffer      the stored data read from the beginning of the message
+     * @param dataTotalSize   the stored message size
+     * @param dataSeg         the data segment of the message
+     * @param dataOffset      the absolute offset of the message
+     * @param transferRsp     the transfer response
+     * @param trafficCounter  the traffic counter of the read
+     * @return                whether the message is added
+     * @throws IOException    the exception while reading the data segment
+     */
+    public static boolean addTransferMsg(ByteBuffer headBuffer, int dataTotalSize,
+            Segment dataSeg, long dataOffset,
+            TransferMsgResponse transferRsp,
+            ReadTrafficCounter trafficCounter) throws IOException {
+        if (headBuffer.limit() < DataStoreUtils.STORE_DATA_HEADER_LEN) {
+            return false;
+        }
+        final int msgLen =
+                headBuffer.getInt(DataStoreUtils.STORE_HEADER_POS_LENGTH);
+        final int msgToken =
+                headBuffer.getInt(DataStoreUtils.STORE_HEADER_POS_DATATYPE);
+        final int checkSum =
+                headBuffer.getInt(DataStoreUtils.STORE_HEADER_POS_CHECKSUM);
+        final int payLoadLen = msgLen - DataStoreUtils.STORE_DATA_PREFX_LEN;
+        if ((msgToken != DataStoreUtils.STORE_DATA_TOKER_BEGIN_VALUE)
+                || (payLoadLen <= 0)
+                || (payLoadLen > dataTotalSize - DataStoreUtils.STORE_DATA_HEADER_LEN)) {
+            return false;
+        }
+        final long msgId = headBuffer.getLong(DataStoreUtils.STORE_HEADER_POS_MSGID);
+        final int storeFlag = headBuffer.getInt(DataStoreUtils.STORE_HEADER_POS_MSGFLAG);
+        final int flag = getClientMsgFlag(storeFlag);
+        String attribute = null;
+        if (MessageFlagUtils.hasAttribute(flag)) {
+            if (payLoadLen < 4
+                    || headBuffer.limit() < DataStoreUtils.STORE_DATA_HEADER_LEN + 4) {
+                return false;
+            }
+            int attrLen = headBuffer.getInt(DataStoreUtils.STORE_DATA_HEADER_LEN);
+            int attrOffset = DataStoreUtils.STORE_DATA_HEADER_LEN + 4;
+            if (attrLen > payLoadLen - 4) {
+                return false;
+            }
+            if (attrLen > 0 && !hasMsgTimeCode(storeFlag)) {
+                if (attrOffset + attrLen <= headBuffer.limit()) {
+                    attribute = decodeAttribute(headBuffer.array(), attrOffset, attrLen);
+                } else {
+                    ByteBuffer attrBuffer = ByteBuffer.allocate(attrLen);
+                    dataSeg.read(attrBuffer, dataOffset + attrOffset);
+                    if (attrBuffer.hasRemaining()) {
+                        return false;
+                    }
+                    attribute = decodeAttribute(attrBuffer.array(), 0, attrLen);
                 }
             }
         }
+        if (!transferRsp.addMessage(msgId, checkSum, flag, dataSeg,
+                dataOffset + DataStoreUtils.STORE_DATA_HEADER_LEN, payLoadLen)) {
+            return false;
+        }
+        addTrafficInfo(storeFlag, attribute, payLoadLen, trafficCounter);
+        return true;
+    }
+
+    private static String decodeAttribute(byte[] data, int offset, int length) {
+        try {
+            return new String(data, offset, length, TBaseConstants.META_DEFAULT_CHARSET_NAME);
+        } catch (final UnsupportedEncodingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void addTrafficInfo(int storeFlag, String attribute,
+            int payLoadLen, ReadTrafficCounter trafficCounter) {
+        if (hasMsgTimeCode(storeFlag)) {
+            trafficCounter.add(getMsgTimeCode(storeFlag), payLoadLen);
+        } else {
+            trafficCounter.add(getAttrMsgTime(attribute), payLoadLen);
+        }
+    }
+
+    /**
+     * Build the stored message flag, the msgTime minute code is kept in the upper bits.
+     * The msgTime is parsed from the message attributes if it is not carried by the request.
+     *
+     * @param msgFlag   the client message flag
+     * @param msgTime   the msgTime carried by the request, may be blank
+     * @param msgData   the message data
+     * @return          the stored message flag
+     */
+    public static int buildStoreMsgFlag(int msgFlag, String msgTime, byte[] msgData) {
+        if (TStringUtils.isBlank(msgTime)
+                && MessageFlagUtils.hasAttribute(msgFlag) && msgData.length >= 4) {
+            int attrLen = ByteBuffer.wrap(msgData).getInt();
+            if (attrLen > 0 && attrLen <= msgData.length - 4) {
+                msgTime = getAttrMsgTime(decodeAttribute(msgData, 4, attrLen));
+            }
+        }
+        return buildStoreMsgFlag(msgFlag, msgTime);
+    }
+
+    /**
+     * Build the stored message flag, the msgTime minute code is kept in the upper bits.
+     * The flag is kept as is if the msgTime can not be coded, and the msgTime
+     * is then parsed from the message attributes when read.
+     *
+     * @param msgFlag   the client message flag
+     * @param msgTime   the msgTime, the format is yyyyMMddHHmm, blank if absent
+     * @return          the stored message flag
+     */
+    public static int buildStoreMsgFlag(int msgFlag, String msgTime) {
+        if ((msgFlag & ~STORE_FLAG_CLIENT_MASK) != 0) {
+            return msgFlag;
+        }
+        int minuteCode = msgTimeToMinuteCode(msgTime);
+        if (minuteCode < 0) {
+            return msgFlag;
+        }
+        return msgFlag | STORE_FLAG_MSGTIME_CODED
+                | (minuteCode << STORE_FLAG_MSGTIME_SHIFT);
+    }
+
+    public static int getClientMsgFlag(int storeFlag) {
+        if (hasMsgTimeCode(storeFlag)) {
+            return storeFlag & STORE_FLAG_CLIENT_MASK;
+        }
+        return storeFlag;
+    }
+
+    public static boolean hasMsgTimeCode(int storeFlag) {
+        return (storeFlag & STORE_FLAG_MSGTIME_CODED) != 0;
+    }
+
+    public static int getMsgTimeCode(int storeFlag) {
+        return storeFlag >>> STORE_FLAG_MSGTIME_SHIFT;
+    }
+
+    /**
+     * Convert the msgTime to minute code, the code is calculated from the
+     * date fields directly, so that it is independent of the time zone.
+     *
+     * @param msgTime   the msgTime, the format is yyyyMMddHHmm, blank if absent
+     * @return          the minute code, 0 if msgTime is blank, -1 if it can not be coded
+     */
+    public static int msgTimeToMinuteCode(String msgTime) {
+        if (TStringUtils.isBlank(msgTime)) {
+            return 0;
+        }
+        if (msgTime.length() != MSGTIME_LENGTH) {
+            return -1;
+        }
+        for (int i = 0; i < MSGTIME_LENGTH; i++) {
+            char ch = msgTime.charAt(i);
+            if (ch < '0' || ch > '9') {
+                return -1;
+            }
+        }
+        int year = parseDigits(msgTime, 0, 4);
+        int month = parseDigits(msgTime, 4, 6);
+        int day = parseDigits(msgTime, 6, 8);
+        int hour = parseDigits(msgTime, 8, 10);
+        int minute = parseDigits(msgTime, 10, 12);
+        if (year < MSGTIME_CODE_BASE_YEAR || year > MSGTIME_CODE_MAX_YEAR
+                || month < 1 || month > 12 || day < 1 || day > 31
+                || hour > 23 || minute > 59) {
+            return -1;
+        }
+        int days = ((year - MSGTIME_CODE_BASE_YEAR) * 12 + (month - 1)) * 31 + (day - 1);
+        return days * 1440 + hour * 60 + minute + 1;
+    }
+
+    /**
+     * Convert the minute code back to msgTime.
+     *
+     * @param minuteCode   the minute code
+     * @return             the msgTime, empty if the minute code is 0
+     */
+    public static String minuteCodeToMsgTime(int minuteCode) {
+        if (minuteCode <= 0) {
+            return "";
+        }
+        int value = minuteCode - 1;
+        int minute = value % 60;
+        value /= 60;
+        int hour = value % 24;
+        value /= 24;
+        int day = value % 31 + 1;
+        value /= 31;
+        int month = value % 12 + 1;
+        int year = value / 12 + MSGTIME_CODE_BASE_YEAR;
+        char[] chars = new char[MSGTIME_LENGTH];
+        fillDigits(chars, 0, 4, year);
+        fillDigits(chars, 4, 6, month);
+        fillDigits(chars, 6, 8, day);
+        fillDigits(chars, 8, 10, hour);
+        fillDigits(chars, 10, 12, minute);
+        return new String(chars);
+    }
+
+    private static int parseDigits(String value, int begin, int end) {
+        int result = 0;
+        for (int i = begin; i < end; i++) {
+            result = result * 10 + (value.charAt(i) - '0');
+        }
+        return result;
+    }
+
+    private static void fillDigits(char[] chars, int begin, int end, int value) {
+        for (int i = end - 1; i >= begin; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private static String getAttrMsgTime(String attribute) {
         String messageTime = "";
         if (TStringUtils.isNotBlank(attribute)) {
             if (attribute.contains(TokenConstants.TOKEN_MSG_TIME)) {
@@ -185,17 +417,6 @@ public class DataStoreUtils {
                 }
             }
         }
-        String baseKey = sBuilder.append(statisKeyBase)
-                .append("#").append(messageTime).toString();
-        sBuilder.delete(0, sBuilder.length());
-        TrafficInfo getCount = countMap.get(baseKey);
-        if (getCount == null) {
-            countMap.put(baseKey, new TrafficInfo(1L, payLoadLen2));
-        } else {
-            getCount.addMsgCntAndSize(1L, payLoadLen2);
-        }
-        ClientBroker.TransferedMessage transferedMessage = dataBuilder.build();
-        dataBuilder.clear();
-        return transferedMessage;
+        return messageTime;
     }
 }
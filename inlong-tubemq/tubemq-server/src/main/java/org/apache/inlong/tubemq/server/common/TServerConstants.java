@@ -99,6 +99,10 @@ public final class TServerConstants {
     public static final long CFG_DEFAULT_GROUP_OFFSET_SCAN_DUR = 60000L;
     public static final long CFG_MIN_GROUP_OFFSET_SCAN_DUR = 20000L;
     public static final long CFG_MAX_GROUP_OFFSET_SCAN_DUR = 480000L;
+    public static final long CFG_DEFAULT_OFFSET_COMMIT_PERIOD_MS = 1000L;
+    public static final long CFG_MIN_OFFSET_COMMIT_PERIOD_MS = 100L;
+    public static final long CFG_MAX_OFFSET_COMMIT_PERIOD_MS = 60000L;
+    public static final long CFG_OFFSET_WAL_MAX_SIZE = 16 * 1024 * 1024L;
 
     public static final long CFG_OFFSET_RESET_MIN_ALARM_CHECK =
             DataStoreUtils.STORE_INDEX_HEAD_LEN * 100000L;
@@ -19,15 +19,12 @@ package org.apache.inlong.tubemq.server.common.heartbeat;
 
 import org.apache.inlong.tubemq.corebase.TErrCodeConstants;
 import org.apache.inlong.tubemq.corebase.rv.ProcessResult;
-import org.apache.inlong.tubemq.corebase.utils.TStringUtils;
 import org.apache.inlong.tubemq.server.common.exception.HeartbeatException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashSet;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -35,6 +32,8 @@ import java.util.concurrent.Executors;
 public class HeartbeatManager {
 
     private static final Logger logger = LoggerFactory.getLogger(HeartbeatManager.class);
+    private static final long WHEEL_TICK_MS = 200L;
+    private static final int WHEEL_SIZE = 512;
 
     private final ConcurrentHashMap<String, TimeoutInfo> brokerRegMap =
             new ConcurrentHashMap<>();
@@ -42,14 +41,28 @@ public class HeartbeatManager {
             new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String, TimeoutInfo> consumerRegMap =
             new ConcurrentHashMap<>();
+    // the registered nodes are expired by the timing wheels instead of scanning the maps
+    private final TimeoutWheel brokerWheel = new TimeoutWheel(WHEEL_TICK_MS, WHEEL_SIZE);
+    private final TimeoutWheel producerWheel = new TimeoutWheel(WHEEL_TICK_MS, WHEEL_SIZE);
+    private final TimeoutWheel consumerWheel = new TimeoutWheel(WHEEL_TICK_MS, WHEEL_SIZE);
     private final ExecutorService timeoutScanService = Executors.newCachedThreadPool();
+    private final HeartbeatStatsListener statsListener;
     private long brokerTimeoutDlt = 0;
     private long producerTimeoutDlt = 0;
     private long consumerTimeoutDlt = 0;
     private boolean isStopped = false;
 
     public HeartbeatManager() {
+        this(null);
+    }
 
+    /**
+     * Initial a heartbeat manager
+     *
+     * @param statsListener  the listener of the heartbeat statistics, may be null
+     */
+    public HeartbeatManager(HeartbeatStatsListener statsListener) {
+        this.statsListener = statsListener;
     }
 
     /**
@@ -96,7 +109,7 @@ public class HeartbeatManager {
      */
     public void regBrokerCheckBusiness(final long timeout, final TimeoutListener listener) {
         this.brokerTimeoutDlt = timeout;
-        this.registerCheckBusiness("Broker Node", this.brokerRegMap, listener);
+        this.registerCheckBusiness("Broker Node", this.brokerRegMap, this.brokerWheel, listener);
     }
 
     /**
@@ -107,7 +120,7 @@ public class HeartbeatManager {
      */
     public void regProducerCheckBusiness(final long timeout, final TimeoutListener listener) {
         this.producerTimeoutDlt = timeout;
-        this.registerCheckBusiness("Producer Node", this.producerRegMap, listener);
+        this.registerCheckBusiness("Producer Node", this.producerRegMap, this.producerWheel, listener);
     }
 
     /**
@@ -118,11 +131,12 @@ public class HeartbeatManager {
      */
     public void regConsumerCheckBusiness(final long timeout, final TimeoutListener listener) {
         this.consumerTimeoutDlt = timeout;
-        this.registerCheckBusiness("Consumer Node", this.consumerRegMap, listener);
+        this.registerCheckBusiness("Consumer Node", this.consumerRegMap, this.consumerWheel, listener);
     }
 
     private void registerCheckBusiness(final String businessType,
             final Map<String, TimeoutInfo> nodeMap,
+            final TimeoutWheel timeoutWheel,
             final TimeoutListener listener) {
 
         timeoutScanService.submit(new Runnable() {
@@ -132,28 +146,14 @@ public class HeartbeatManager {
                 while (!isStopped) {
                     try {
                         long currentTime = System.currentTimeMillis();
-                        Set<String> removedNodeKey = new HashSet<>();
-                        for (Map.Entry<String, TimeoutInfo> entry : nodeMap.entrySet()) {
-                            if (TStringUtils.isBlank(entry.getKey()) || entry.getValue() == null) {
-                                continue;
-                            }
-                            if (currentTime >= entry.getValue().getTimeoutTime()) {
-                                removedNodeKey.add(entry.getKey());
+                        for (TimeoutWheel.WheelEntry entry : timeoutWheel.advance(nodeMap, currentTime)) {
+                            if (statsListener != null) {
+                                statsListener.onExpired(
+                                        currentTime - entry.getTimeoutInfo().getTimeoutTime());
                             }
+                            listener.onTimeout(entry.getNodeId(), entry.getTimeoutInfo());
                         }
-                        if (!removedNodeKey.isEmpty()) {
-                            for (String nodeKey : removedNodeKey) {
-                                TimeoutInfo timeoutInfo = nodeMap.get(nodeKey);
-                                if (timeoutInfo == null) {
-                                    continue;
-                                }
-                                if (currentTime >= timeoutInfo.getTimeoutTime()) {
-                                    nodeMap.remove(nodeKey);
-                                    listener.onTimeout(nodeKey, timeoutInfo);
-                                }
-                            }
-                        }
-                        Thread.sleep(1000 * 1);
+                        Thread.sleep(timeoutWheel.getTickMs());
                     } catch (Throwable t) {
                         logger.error(new StringBuilder(256)
                                 .append(businessType).append(" heartbeat scan error!").toString(), t);
@@ -171,8 +171,11 @@ public class HeartbeatManager {
      * @return the timeout info for the registered node
      */
     public TimeoutInfo regBrokerNode(String nodeId, String createId) {
-        return this.brokerRegMap.put(nodeId,
-                new TimeoutInfo(createId, this.brokerTimeoutDlt));
+        TimeoutInfo timeoutInfo = new TimeoutInfo(createId, this.brokerTimeoutDlt);
+        // mapped before scheduled, the wheel drops the entry which is not mapped when it expires
+        TimeoutInfo oldTimeoutInfo = this.brokerRegMap.put(nodeId, timeoutInfo);
+        this.brokerWheel.schedule(nodeId, timeoutInfo);
+        return oldTimeoutInfo;
     }
 
     /**
@@ -182,7 +185,10 @@ public class HeartbeatManager {
      * @return the timeout info of the registered node
      */
     public TimeoutInfo regProducerNode(final String nodeId) {
-        return this.producerRegMap.put(nodeId, new TimeoutInfo(this.producerTimeoutDlt));
+        TimeoutInfo timeoutInfo = new TimeoutInfo(this.producerTimeoutDlt);
+        TimeoutInfo oldTimeoutInfo = this.producerRegMap.put(nodeId, timeoutInfo);
+        this.producerWheel.schedule(nodeId, timeoutInfo);
+        return oldTimeoutInfo;
     }
 
     /**
@@ -192,7 +198,10 @@ public class HeartbeatManager {
      * @return the timeout info of the registered node
      */
     public TimeoutInfo regConsumerNode(final String nodeId) {
-        return this.consumerRegMap.put(nodeId, new TimeoutInfo(this.consumerTimeoutDlt));
+        TimeoutInfo timeoutInfo = new TimeoutInfo(this.consumerTimeoutDlt);
+        TimeoutInfo oldTimeoutInfo = this.consumerRegMap.put(nodeId, timeoutInfo);
+        this.consumerWheel.schedule(nodeId, timeoutInfo);
+        return oldTimeoutInfo;
     }
 
     /**
@@ -206,8 +215,10 @@ public class HeartbeatManager {
     public TimeoutInfo regConsumerNode(final String nodeId,
             final String consumerId,
             final String partStr) {
-        return this.consumerRegMap.put(nodeId,
-                new TimeoutInfo(consumerId, partStr, this.consumerTimeoutDlt));
+        TimeoutInfo timeoutInfo = new TimeoutInfo(consumerId, partStr, this.consumerTimeoutDlt);
+        TimeoutInfo oldTimeoutInfo = this.consumerRegMap.put(nodeId, timeoutInfo);
+        this.consumerWheel.schedule(nodeId, timeoutInfo);
+        return oldTimeoutInfo;
     }
 
     /**
@@ -271,7 +282,7 @@ public class HeartbeatManager {
             sBuffer.delete(0, sBuffer.length());
             return result.isSuccess();
         }
-        timeoutInfo.updTimeoutTime(this.brokerTimeoutDlt);
+        updTimeoutTime(timeoutInfo, this.brokerTimeoutDlt);
         result.setSuccResult(null);
         return result.isSuccess();
     }
@@ -289,7 +300,7 @@ public class HeartbeatManager {
                     .append("Invalid node id:").append(nodeId)
                     .append(", you have to append node first!").toString());
         }
-        timeoutInfo.updTimeoutTime(this.producerTimeoutDlt);
+        updTimeoutTime(timeoutInfo, this.producerTimeoutDlt);
     }
 
     /**
@@ -305,7 +316,15 @@ public class HeartbeatManager {
                     .append("Invalid node id:").append(nodeId)
                     .append(", you have to append node first!").toString());
         }
-        timeoutInfo.updTimeoutTime(this.consumerTimeoutDlt);
+        updTimeoutTime(timeoutInfo, this.consumerTimeoutDlt);
+    }
+
+    private void updTimeoutTime(TimeoutInfo timeoutInfo, long timeoutDlt) {
+        long lastUpdTime = timeoutInfo.getLastUpdTime();
+        timeoutInfo.updTimeoutTime(timeoutDlt);
+        if (statsListener != null) {
+            statsListener.onHeartbeat(timeoutInfo.getLastUpdTime() - lastUpdTime);
+        }
     }
 
     /**
@@ -0,0 +1,38 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.server.common.heartbeat;
+
+/**
+ * Receive the heartbeat intervals and the expiry delays measured by HeartbeatManager.
+ */
+public interface HeartbeatStatsListener {
+
+    /**
+     * A registered node sends a heartbeat
+     *
+     * @param intervalMs  the time since the last heartbeat or registration of the node
+     */
+    void onHeartbeat(long intervalMs);
+
+    /**
+     * A registered node is found timed out
+     *
+     * @param delayMs  the time between the timeout time of the node and the time it is found
+     */
+    void onExpired(long delayMs);
+}
@@ -19,31 +19,40 @@ package org.apache.inlong.tubemq.server.common.heartbeat;
 
 public class TimeoutInfo {
 
-    private long timeoutTime = 0L;
+    private volatile long timeoutTime = 0L;
+    private volatile long lastUpdTime = 0L;
     private String secondKey = "";
     private String thirdKey = "";
 
     public TimeoutInfo(final String secondKey, final String thirdKey, long timeoutDelta) {
         this.secondKey = secondKey;
         this.thirdKey = thirdKey;
-        this.timeoutTime = timeoutDelta + System.currentTimeMillis();
+        this.lastUpdTime = System.currentTimeMillis();
+        this.timeoutTime = timeoutDelta + lastUpdTime;
     }
 
     public TimeoutInfo(final String secondKey, long timeoutDelta) {
         this.secondKey = secondKey;
-        this.timeoutTime = timeoutDelta + System.currentTimeMillis();
+        this.lastUpdTime = System.currentTimeMillis();
+        this.timeoutTime = timeoutDelta + lastUpdTime;
     }
 
     public TimeoutInfo(long timeoutDelta) {
-        this.timeoutTime = timeoutDelta + System.currentTimeMillis();
+        this.lastUpdTime = System.currentTimeMillis();
+        this.timeoutTime = timeoutDelta + lastUpdTime;
     }
 
     public long getTimeoutTime() {
         return timeoutTime;
     }
 
+    public long getLastUpdTime() {
+        return lastUpdTime;
+    }
+
     public void updTimeoutTime(long timeoutDelta) {
-        this.timeoutTime = timeoutDelta + System.currentTimeMillis();
+        this.lastUpdTime = System.currentTimeMillis();
+        this.timeoutTime = timeoutDelta + lastUpdTime;
     }
 
     public String getSecondKey() {
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.server.common.heartbeat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Hashed timing wheel of the registered nodes of one heartbeat business.
+ *
+ * A node is placed into the bucket of its timeout tick when registered. A heartbeat only
+ * moves the timeout time of the node's TimeoutInfo forward, the node is moved to the
+ * bucket of its new timeout time when its old bucket expires, so each heartbeat costs O(1)
+ * and each tick only visits the nodes placed in the expired buckets. The nodes removed or
+ * registered again are dropped when their buckets expire.
+ */
+public class TimeoutWheel {
+
+    private final long tickMs;
+    private final int mask;
+    private final ConcurrentLinkedQueue<WheelEntry>[] buckets;
+    // the next tick to expire
+    private volatile long curTick;
+
+    /**
+     * Initial a timing wheel
+     *
+     * @param tickMs      the duration of a tick in milliseconds
+     * @param wheelSize   the bucket count, rounded up to a power of 2
+     */
+    @SuppressWarnings("unchecked")
+    public TimeoutWheel(long tickMs, int wheelSize) {
+        int size = 1;
+        while (size < wheelSize) {
+            size <<= 1;
+        }
+        this.tickMs = tickMs;
+        this.mask = size - 1;
+        this.buckets = new ConcurrentLinkedQueue[size];
+        for (int i = 0; i < size; i++) {
+            this.buckets[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.curTick = System.currentTimeMillis() / tickMs;
+    }
+
+    public long getTickMs() {
+        return tickMs;
+    }
+
+    /**
+     * Place a node by the timeout time of its timeout info
+     *
+     * @param nodeId       the node id
+     * @param timeoutInfo  the timeout info registered for the node
+     */
+    public void schedule(String nodeId, TimeoutInfo timeoutInfo) {
+        // the node timed out already waits for the next tick
+        long tick = Math.max(timeoutInfo.getTimeoutTime() / tickMs, curTick);
+        buckets[(int) (tick & mask)].offer(new WheelEntry(nodeId, timeoutInfo));
+    }
+
+    /**
+     * Expire the buckets up to the current time, the nodes timed out are removed
+     * from the node map and returned, the others are placed again.
+     *
+     * @param nodeMap      the registered nodes
+     * @param currentTime  the current time
+     * @return the nodes timed out, ordered by the bucket
+     */
+    public List<WheelEntry> advance(Map<String, TimeoutInfo> nodeMap, long currentTime) {
+        List<WheelEntry> expired = new ArrayList<>();
+        long lastTick = currentTime / tickMs;
+        // a bucket is visited at most once per round, however long the pause is
+        long startTick = Math.max(curTick, lastTick - mask);
+        List<WheelEntry> bucketEntries = new ArrayList<>();
+        for (long tick = startTick; tick <= lastTick; tick++) {
+            ConcurrentLinkedQueue<WheelEntry> bucket = buckets[(int) (tick & mask)];
+            // the nodes placed from now on wait for the later ticks
+            curTick = tick + 1;
+            WheelEntry entry;
+            while ((entry = bucket.poll()) != null) {
+                bucketEntries.add(entry);
+            }
+            for (WheelEntry wheelEntry : bucketEntries) {
+                if (nodeMap.get(wheelEntry.nodeId) != wheelEntry.timeoutInfo) {
+                    // unregistered or registered again
+                    continue;
+                }
+                if (currentTime >= wheelEntry.timeoutInfo.getTimeoutTime()) {
+                    if (nodeMap.remove(wheelEntry.nodeId, wheelEntry.timeoutInfo)) {
+                        expired.add(wheelEntry);
+                    }
+                } else {
+                    schedule(wheelEntry.nodeId, wheelEntry.timeoutInfo);
+                }
+            }
+            bucketEntries.clear();
+        }
+        return expired;
+    }
+
+    public static class WheelEntry {
+
+        private final String nodeId;
+        private final TimeoutInfo timeoutInfo;
+
+        public WheelEntry(String nodeId, TimeoutInfo timeoutInfo) {
+            this.nodeId = nodeId;
+            this.timeoutInfo = timeoutInfo;
+        }
+
+        public String getNodeId() {
+            return nodeId;
+        }
+
+        public TimeoutInfo getTimeoutInfo() {
+            return timeoutInfo;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.server.common.utils;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing hash map with primitive int keys and values,
+ * used on hot paths to avoid boxing Integer keys and values.
+ * It is not thread-safe, the caller must guard concurrent access.
+ */
+public class IntIntHashMap {
+
+    private static final float LOAD_FACTOR = 0.5f;
+    // the value returned when the key is absent
+    private final int missingValue;
+    private int[] keys;
+    private int[] values;
+    private boolean[] used;
+    private int size = 0;
+    private int resizeThreshold;
+
+    public IntIntHashMap(int initialCapacity, int missingValue) {
+        int capacity = 2;
+        while (capacity * LOAD_FACTOR < initialCapacity) {
+            capacity <<= 1;
+        }
+        this.missingValue = missingValue;
+        allocate(capacity);
+    }
+
+    /**
+     * Get the value of key.
+     *
+     * @param key   the key
+     * @return      the value, or missingValue if the key is absent
+     */
+    public int get(int key) {
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        while (used[index]) {
+            if (keys[index] == key) {
+                return values[index];
+            }
+            index = (index + 1) & mask;
+        }
+        return missingValue;
+    }
+
+    /**
+     * Put the key and value, replace the old value if the key exists.
+     *
+     * @param key     the key
+     * @param value   the value
+     */
+    public void put(int key, int value) {
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        while (used[index]) {
+            if (keys[index] == key) {
+                values[index] = value;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+        used[index] = true;
+        keys[index] = key;
+        values[index] = value;
+        if (++size > resizeThreshold) {
+            rehash(keys.length << 1);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int getMissingValue() {
+        return missingValue;
+    }
+
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(used, false);
+            size = 0;
+        }
+    }
+
+    private void rehash(int newCapacity) {
+        final int[] oldKeys = keys;
+        final int[] oldValues = values;
+        final boolean[] oldUsed = used;
+        allocate(newCapacity);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        this.keys = new int[capacity];
+        this.values = new int[capacity];
+        this.used = new boolean[capacity];
+        this.resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
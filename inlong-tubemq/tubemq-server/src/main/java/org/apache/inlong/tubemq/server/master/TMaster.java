@@ -77,6 +77,7 @@ import org.apache.inlong.tubemq.server.common.aaaserver.CertifiedInfo;
 import org.apache.inlong.tubemq.server.common.aaaserver.SimpleCertificateMasterHandler;
 import org.apache.inlong.tubemq.server.common.exception.HeartbeatException;
 import org.apache.inlong.tubemq.server.common.heartbeat.HeartbeatManager;
+import org.apache.inlong.tubemq.server.common.heartbeat.HeartbeatStatsListener;
 import org.apache.inlong.tubemq.server.common.heartbeat.TimeoutInfo;
 import org.apache.inlong.tubemq.server.common.heartbeat.TimeoutListener;
 import org.apache.inlong.tubemq.server.common.paramcheck.PBParameterUtils;
@@ -86,6 +87,7 @@ import org.apache.inlong.tubemq.server.common.utils.RowLock;
 import org.apache.inlong.tubemq.server.common.utils.Sleeper;
 import org.apache.inlong.tubemq.server.master.balance.DefaultLoadBalancer;
 import org.apache.inlong.tubemq.server.master.balance.LoadBalancer;
+import org.apache.inlong.tubemq.server.master.balance.StickyLoadBalancer;
 import org.apache.inlong.tubemq.server.master.metamanage.DefaultMetaDataService;
 import org.apache.inlong.tubemq.server.master.metamanage.MetaDataService;
 import org.apache.inlong.tubemq.server.master.metamanage.metastore.dao.entity.BrokerConfEntity;
@@ -196,12 +198,25 @@ public class TMaster extends HasThread implements MasterService, Stoppable {
         this.cltExecutor = Executors.newFixedThreadPool(this.masterConfig.getRebalanceParallel());
         this.visitTokenManager = new SimpleVisitTokenManager(this.masterConfig);
         this.serverAuthHandler = new SimpleCertificateMasterHandler(this.masterConfig);
-        this.heartbeatManager = new HeartbeatManager();
+        this.heartbeatManager = new HeartbeatManager(new HeartbeatStatsListener() {
+
+            @Override
+            public void onHeartbeat(long intervalMs) {
+                MasterSrvStatsHolder.updHeartbeatInterval(intervalMs);
+            }
+
+            @Override
+            public void onExpired(long delayMs) {
+                MasterSrvStatsHolder.updHeartbeatExpireDelay(delayMs);
+            }
+        });
         this.producerHolder = new ProducerInfoHolder();
         this.consumerHolder = new ConsumerInfoHolder(this);
         this.consumerEventManager = new ConsumerEventManager(consumerHolder);
         this.topicPSInfoManager = new TopicPSInfoManager(this);
-        this.loadBalancer = new DefaultLoadBalancer();
+        this.loadBalancer = masterConfig.isStickyBalance()
+                ? new StickyLoadBalancer()
+                : new DefaultLoadBalancer();
         heartbeatManager.regConsumerCheckBusiness(masterConfig.getConsumerHeartbeatTimeoutMs(),
                 new TimeoutListener() {
 
@@ -0,0 +1,213 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.server.master.balance;
+
+import org.apache.inlong.tubemq.corebase.cluster.Partition;
+import org.apache.inlong.tubemq.server.master.metamanage.MetaDataService;
+import org.apache.inlong.tubemq.server.master.nodemanage.nodebroker.BrokerRunManager;
+import org.apache.inlong.tubemq.server.master.nodemanage.nodeconsumer.ConsumeGroupInfo;
+import org.apache.inlong.tubemq.server.master.nodemanage.nodeconsumer.ConsumerInfo;
+import org.apache.inlong.tubemq.server.master.nodemanage.nodeconsumer.ConsumerInfoHolder;
+import org.apache.inlong.tubemq.server.master.nodemanage.nodeconsumer.RebProcessInfo;
+
+import org.apache.commons.collections.CollectionUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+/*
+ * Load balance class for server side load balance, the partitions keep their current
+ * consumers, only the partitions over the quota of a consumer and the partitions
+ * without an online consumer are moved to the consumers under their quota.
+ */
+public class StickyLoadBalancer extends DefaultLoadBalancer {
+
+    public StickyLoadBalancer() {
+        super();
+    }
+
+    /**
+     * Load balance with the minimal partition moves from the current assignment
+     *
+     * @param clusterState        the current assignment, consumer - topic - partition key - partition
+     * @param consumerHolder      the consumer holder
+     * @param brokerRunManager    the broker run manager
+     * @param groupSet            the groups to balance
+     * @param defMetaDataService  the meta data service
+     * @param strBuffer           the string buffer
+     * @return the final assignment of the consumers of the groups
+     */
+    @Override
+    public Map<String, Map<String, List<Partition>>> balanceCluster(
+            Map<String, Map<String, Map<String, Partition>>> clusterState,
+            ConsumerInfoHolder consumerHolder,
+            BrokerRunManager brokerRunManager,
+            List<String> groupSet,
+            MetaDataService defMetaDataService,
+            StringBuilder strBuffer) {
+        Map<String/* consumer */, Map<String/* topic */, List<Partition>>> finalSubInfoMap =
+                new HashMap<>();
+        Map<String, RebProcessInfo> rejGroupClientInfoMap = new HashMap<>();
+        for (String group : groupSet) {
+            if (group == null) {
+                continue;
+            }
+            ConsumeGroupInfo consumeGroupInfo = consumerHolder.getConsumeGroupInfo(group);
+            if (consumeGroupInfo == null
+                    || consumeGroupInfo.isClientBalance()
+                    || consumeGroupInfo.isUnReadyServerBalance()) {
+                continue;
+            }
+            List<String> consumerIds = new ArrayList<>();
+            List<ConsumerInfo> consumerList = consumeGroupInfo.getConsumerInfoList();
+            if (CollectionUtils.isEmpty(consumerList)) {
+                continue;
+            }
+            for (ConsumerInfo consumerInfo : consumerList) {
+                if (consumerInfo != null) {
+                    consumerIds.add(consumerInfo.getConsumerId());
+                }
+            }
+            if (consumerIds.isEmpty()) {
+                continue;
+            }
+            if (consumeGroupInfo.needResourceCheck()
+                    && !isResourceSatisfied(group, consumeGroupInfo, consumerIds.size(),
+                            consumerHolder, brokerRunManager, defMetaDataService, strBuffer)) {
+                continue;
+            }
+            // the consumers required to release their partitions
+            Set<String> releaseIds = new HashSet<>();
+            if (!consumeGroupInfo.isBalanceMapEmpty()) {
+                RebProcessInfo rebProcessInfo = consumerHolder.getNeedRebNodeList(group);
+                if (!rebProcessInfo.isProcessInfoEmpty()) {
+                    rejGroupClientInfoMap.put(group, rebProcessInfo);
+                    releaseIds.addAll(rebProcessInfo.needProcessList);
+                    releaseIds.addAll(rebProcessInfo.needEscapeList);
+                }
+            }
+            finalSubInfoMap.putAll(planGroup(consumerIds, releaseIds, clusterState,
+                    brokerRunManager.getSubBrokerAcceptSubParts(consumeGroupInfo.getTopicSet())));
+        }
+        for (Entry<String, RebProcessInfo> entry : rejGroupClientInfoMap.entrySet()) {
+            consumerHolder.setRebNodeProcessed(entry.getKey(),
+                    entry.getValue().needProcessList);
+        }
+        return finalSubInfoMap;
+    }
+
+    /**
+     * Plan the assignment of a group from its current assignment.
+     *
+     * The quota of each consumer is the partition count divided by the consumer count,
+     * the consumers holding more partitions get the quotas with the remainder, so that
+     * the moved partitions are only the partitions over the quotas and the partitions
+     * not held by an online consumer.
+     *
+     * @param consumerIds    the online consumers of the group
+     * @param releaseIds     the consumers to release all their partitions in this round
+     * @param clusterState   the current assignment, consumer - topic - partition key - partition
+     * @param partMap        the partitions to consume, partition key - partition
+     * @return the final assignment of the consumers, the current topics of a consumer are
+     *         always included so that the partitions released are disconnected
+     */
+    public static Map<String, Map<String, List<Partition>>> planGroup(
+            List<String> consumerIds,
+            Set<String> releaseIds,
+            Map<String, Map<String, Map<String, Partition>>> clusterState,
+            Map<String, Partition> partMap) {
+        Map<String, Map<String, List<Partition>>> assignment = new HashMap<>();
+        Map<String, Partition> unassigned = new HashMap<>(partMap);
+        List<String> receivers = new ArrayList<>(consumerIds.size());
+        Map<String, List<Partition>> keptParts = new HashMap<>();
+        int totalCnt = 0;
+        for (String consumerId : consumerIds) {
+            Map<String, List<Partition>> topicParts = new HashMap<>();
+            assignment.put(consumerId, topicParts);
+            Map<String, Map<String, Partition>> relation = clusterState.get(consumerId);
+            if (relation != null) {
+                for (String topic : relation.keySet()) {
+                    topicParts.put(topic, new ArrayList<>());
+                }
+            }
+            if (releaseIds.contains(consumerId)) {
+                continue;
+            }
+            List<Partition> parts = new ArrayList<>();
+            if (relation != null) {
+                for (Map<String, Partition> partitions : relation.values()) {
+                    if (partitions == null) {
+                        continue;
+                    }
+                    for (String partKey : partitions.keySet()) {
+                        Partition partition = unassigned.remove(partKey);
+                        if (partition != null) {
+                            parts.add(partition);
+                        }
+                    }
+                }
+            }
+            receivers.add(consumerId);
+            keptParts.put(consumerId, parts);
+            totalCnt += parts.size();
+        }
+        if (receivers.isEmpty()) {
+            return assignment;
+        }
+        List<Partition> movingParts = new ArrayList<>(unassigned.values());
+        totalCnt += movingParts.size();
+        // the consumers holding more partitions take the larger quotas
+        receivers.sort((o1, o2) -> {
+            int result = Integer.compare(keptParts.get(o2).size(), keptParts.get(o1).size());
+            return result != 0 ? result : o1.compareTo(o2);
+        });
+        int minQuota = totalCnt / receivers.size();
+        int largerCnt = totalCnt % receivers.size();
+        for (int i = 0; i < receivers.size(); i++) {
+            List<Partition> parts = keptParts.get(receivers.get(i));
+            int quota = i < largerCnt ? minQuota + 1 : minQuota;
+            while (parts.size() > quota) {
+                movingParts.add(parts.remove(parts.size() - 1));
+            }
+        }
+        for (int i = 0; i < receivers.size() && !movingParts.isEmpty(); i++) {
+            List<Partition> parts = keptParts.get(receivers.get(i));
+            int quota = i < largerCnt ? minQuota + 1 : minQuota;
+            while (parts.size() < quota && !movingParts.isEmpty()) {
+                parts.add(movingParts.remove(movingParts.size() - 1));
+            }
+        }
+        for (String consumerId : receivers) {
+            addPartitions(assignment.get(consumerId), keptParts.get(consumerId));
+        }
+        return assignment;
+    }
+
+    private static void addPartitions(Map<String, List<Partition>> topicParts,
+            Collection<Partition> partitions) {
+        for (Partition partition : partitions) {
+            topicParts.computeIfAbsent(partition.getTopic(), k -> new ArrayList<>()).add(partition);
+        }
+    }
+}
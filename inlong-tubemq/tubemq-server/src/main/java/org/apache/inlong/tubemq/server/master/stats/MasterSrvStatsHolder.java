@@ -212,6 +212,14 @@ public class MasterSrvStatsHolder {
     public static void updSvrBalResetDurations(long dltTime) {
         switchableSets[getIndex()].svrResetBalanceStats.update(dltTime);
     }
+
+    public static void updHeartbeatInterval(long dltTime) {
+        switchableSets[getIndex()].heartbeatIntervalStats.update(dltTime);
+    }
+
+    public static void updHeartbeatExpireDelay(long dltTime) {
+        switchableSets[getIndex()].heartbeatExpireStats.update(dltTime);
+    }
     // metric set operate APIs end
 
     // private functions
@@ -244,6 +252,8 @@ public class MasterSrvStatsHolder {
                     statsSet.cltBalGroupTmototCnt.getAndResetValue());
             statsSet.svrNormalBalanceStats.snapShort(statsMap, false);
             statsSet.svrResetBalanceStats.snapShort(statsMap, false);
+            statsSet.heartbeatIntervalStats.snapShort(statsMap, false);
+            statsSet.heartbeatExpireStats.snapShort(statsMap, false);
             // for consumer
             statsMap.put(consumerOnlineCnt.getFullName(),
                     consumerOnlineCnt.getAndResetValue());
@@ -281,6 +291,8 @@ public class MasterSrvStatsHolder {
                     statsSet.cltBalGroupTmototCnt.getValue());
             statsSet.svrNormalBalanceStats.getValue(statsMap, false);
             statsSet.svrResetBalanceStats.getValue(statsMap, false);
+            statsSet.heartbeatIntervalStats.getValue(statsMap, false);
+            statsSet.heartbeatExpireStats.getValue(statsMap, false);
             // for consumer
             statsMap.put(consumerOnlineCnt.getFullName(),
                     consumerOnlineCnt.getValue());
@@ -329,6 +341,10 @@ public class MasterSrvStatsHolder {
             statsSet.svrNormalBalanceStats.snapShort(strBuff, false);
             strBuff.append(",");
             statsSet.svrResetBalanceStats.snapShort(strBuff, false);
+            strBuff.append(",");
+            statsSet.heartbeatIntervalStats.snapShort(strBuff, false);
+            strBuff.append(",");
+            statsSet.heartbeatExpireStats.snapShort(strBuff, false);
             // for consumer
             strBuff.append(",\"").append(consumerOnlineCnt.getFullName())
                     .append("\":").append(consumerOnlineCnt.getAndResetValue())
@@ -369,6 +385,10 @@ public class MasterSrvStatsHolder {
             statsSet.svrNormalBalanceStats.getValue(strBuff, false);
             strBuff.append(",");
             statsSet.svrResetBalanceStats.getValue(strBuff, false);
+            strBuff.append(",");
+            statsSet.heartbeatIntervalStats.getValue(strBuff, false);
+            strBuff.append(",");
+            statsSet.heartbeatExpireStats.getValue(strBuff, false);
             // for consumer
             strBuff.append(",\"").append(consumerOnlineCnt.getFullName())
                     .append("\":").append(consumerOnlineCnt.getValue())
@@ -447,6 +467,12 @@ public class MasterSrvStatsHolder {
         // reset server balance delta time statistics
         protected final ESTHistogram svrResetBalanceStats =
                 new ESTHistogram("server_balance_reset", null);
+        // heartbeat interval statistics of the registered nodes
+        protected final ESTHistogram heartbeatIntervalStats =
+                new ESTHistogram("heartbeat_interval", null);
+        // delay statistics between the node timeout and its expiry
+        protected final ESTHistogram heartbeatExpireStats =
+                new ESTHistogram("heartbeat_expire_delay", null);
 
         public ServiceStatsSet() {
             resetSinceTime();
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.server.broker.msgstore.disk;
+
+import org.apache.inlong.tubemq.server.broker.utils.DataStoreUtils;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+
+/**
+ * Compare the index read amplification of one partition's consumer with and without
+ * the partition index, when 1, 10 and 100 partitions share the same store.
+ * Run it by main(), the read amplification is the index bytes read per delivered record.
+ */
+public class PartitionIndexBenchmark {
+
+    private static final int RECORD_COUNT = 700000;
+    private static final int READ_RECORD_COUNT = 8000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        for (int partitionCnt : new int[]{1, 10, 100}) {
+            File file = File.createTempFile("benchindex", null);
+            FileSegment indexSegment = new FileSegment(0, file, true, SegmentType.INDEX);
+            try {
+                ByteBuffer writeBuffer =
+                        ByteBuffer.allocate(1000 * DataStoreUtils.STORE_INDEX_HEAD_LEN);
+                for (int i = 0; i < RECORD_COUNT; i++) {
+                    writeBuffer.putInt(i % partitionCnt);
+                    writeBuffer.putLong(i * 100L);
+                    writeBuffer.putInt(100);
+                    writeBuffer.putInt(0);
+                    writeBuffer.putLong(i);
+                    if (!writeBuffer.hasRemaining()) {
+                        writeBuffer.flip();
+                        indexSegment.append(writeBuffer, 0, 0);
+                        writeBuffer.clear();
+                    }
+                }
+                indexSegment.flush(true);
+                indexSegment.setMutable(false);
+                long[] fullScan = new long[3];
+                long[] indexScan = new long[3];
+                for (int round = 0; round < ROUNDS; round++) {
+                    fullScan = scanSegment(indexSegment, false);
+                    indexScan = scanSegment(indexSegment, true);
+                }
+                System.out.println(new StringBuilder(512)
+                        .append("partitions=").append(partitionCnt)
+                        .append(", full scan: records=").append(fullScan[0])
+                        .append(", amplification=")
+                        .append(fullScan[1] / (double) (fullScan[0] * DataStoreUtils.STORE_INDEX_HEAD_LEN))
+                        .append(", cost=").append(fullScan[2] / 1000000).append("ms")
+                        .append("; partition index: records=").append(indexScan[0])
+                        .append(", amplification=")
+                        .append(indexScan[1] / (double) (indexScan[0] * DataStoreUtils.STORE_INDEX_HEAD_LEN))
+                        .append(", cost=").append(indexScan[2] / 1000000).append("ms").toString());
+            } finally {
+                indexSegment.close();
+                file.delete();
+            }
+        }
+    }
+
+    /**
+     * Read all records of partition 0 from the segment.
+     *
+     * @param indexSegment       the immutable index segment
+     * @param usePartIndex       whether to read through the partition index
+     * @return                   delivered record count, index bytes read, cost in nanoseconds
+     */
+    private static long[] scanSegment(FileSegment indexSegment,
+            boolean usePartIndex) throws Exception {
+        long recordCnt = 0;
+        long readBytes = 0;
+        long reqOffset = indexSegment.getStart();
+        final long startTime = System.nanoTime();
+        ByteBuffer indexBuffer =
+                ByteBuffer.allocate(READ_RECORD_COUNT * DataStoreUtils.STORE_INDEX_HEAD_LEN);
+        int[] readEnds = new int[READ_RECORD_COUNT];
+        while (reqOffset < indexSegment.getLast()) {
+            indexBuffer.clear();
+            int scanSize;
+            if (usePartIndex) {
+                scanSize = indexSegment.readPartitionIndex(0, reqOffset, indexBuffer, readEnds);
+            } else {
+                indexSegment.read(indexBuffer, reqOffset);
+                scanSize = indexBuffer.position();
+            }
+            indexBuffer.flip();
+            readBytes += indexBuffer.remaining();
+            while (indexBuffer.hasRemaining()) {
+                if (indexBuffer.getInt() == 0) {
+                    recordCnt++;
+                }
+                indexBuffer.position(indexBuffer.position() + DataStoreUtils.STORE_INDEX_HEAD_LEN - 4);
+            }
+            reqOffset += scanSize;
+        }
+        return new long[]{recordCnt, readBytes, System.nanoTime() - startTime};
+    }
+}
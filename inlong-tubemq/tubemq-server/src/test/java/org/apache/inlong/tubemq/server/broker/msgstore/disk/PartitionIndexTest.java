@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.server.broker.msgstore.disk;
+
+import org.apache.inlong.tubemq.server.broker.utils.DataStoreUtils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+
+/**
+ * PartitionIndex test.
+ */
+public class PartitionIndexTest {
+
+    @Test
+    public void testReadPartitionIndex() throws Exception {
+        File file = File.createTempFile("testindex", null);
+        long start = 280;
+        FileSegment indexSegment = new FileSegment(start, file, true, SegmentType.INDEX);
+        try {
+            // 30 records of 3 partitions, partition 2 only has the last 3 records
+            for (int i = 0; i < 30; i++) {
+                int partitionId = (i < 27) ? (i % 2) : 2;
+                appendIndexRecord(indexSegment, partitionId, i);
+            }
+            indexSegment.flush(true);
+            // mutable segment does not support partition index
+            ByteBuffer indexBuffer = ByteBuffer.allocate(10 * DataStoreUtils.STORE_INDEX_HEAD_LEN);
+            int[] readEnds = new int[10];
+            Assert.assertEquals(-1,
+                    indexSegment.readPartitionIndex(1, start, indexBuffer, readEnds));
+            indexSegment.setMutable(false);
+            // read partition 1 from the third record, the buffer is full after 10 records
+            long reqOffset = start + 2 * DataStoreUtils.STORE_INDEX_HEAD_LEN;
+            int scanSize = indexSegment.readPartitionIndex(1, reqOffset, indexBuffer, readEnds);
+            indexBuffer.flip();
+            Assert.assertEquals(10 * DataStoreUtils.STORE_INDEX_HEAD_LEN, indexBuffer.remaining());
+            for (int i = 0; i < 10; i++) {
+                int ordinal = 3 + 2 * i;
+                Assert.assertEquals(1, indexBuffer.getInt());
+                Assert.assertEquals(ordinal * 100L, indexBuffer.getLong());
+                indexBuffer.position(indexBuffer.position()
+                        + DataStoreUtils.STORE_INDEX_HEAD_LEN - 12);
+                Assert.assertEquals((ordinal - 1) * DataStoreUtils.STORE_INDEX_HEAD_LEN, readEnds[i]);
+            }
+            Assert.assertEquals(readEnds[9], scanSize);
+            // the rest records of partition 1, then skip the records of partition 2
+            indexBuffer.clear();
+            reqOffset += scanSize;
+            scanSize = indexSegment.readPartitionIndex(1, reqOffset, indexBuffer, readEnds);
+            indexBuffer.flip();
+            Assert.assertEquals(2 * DataStoreUtils.STORE_INDEX_HEAD_LEN, indexBuffer.remaining());
+            Assert.assertEquals(8 * DataStoreUtils.STORE_INDEX_HEAD_LEN, scanSize);
+            // no record left for partition 1
+            indexBuffer.clear();
+            reqOffset += scanSize;
+            scanSize = indexSegment.readPartitionIndex(1, reqOffset, indexBuffer, readEnds);
+            Assert.assertEquals(0, indexBuffer.position());
+            Assert.assertEquals(0, scanSize);
+            // unknown partition skips the whole segment
+            scanSize = indexSegment.readPartitionIndex(5, start, indexBuffer, readEnds);
+            Assert.assertEquals(0, indexBuffer.position());
+            Assert.assertEquals(30 * DataStoreUtils.STORE_INDEX_HEAD_LEN, scanSize);
+            // the mapped read returns the same content as the file
+            ByteBuffer readBuffer = ByteBuffer.allocate(DataStoreUtils.STORE_INDEX_HEAD_LEN);
+            indexSegment.read(readBuffer, start + 27 * DataStoreUtils.STORE_INDEX_HEAD_LEN);
+            readBuffer.flip();
+            Assert.assertEquals(2, readBuffer.getInt());
+            Assert.assertEquals(2700L, readBuffer.getLong());
+        } finally {
+            indexSegment.close();
+            file.delete();
+        }
+    }
+
+    private void appendIndexRecord(FileSegment indexSegment,
+            int partitionId, int ordinal) throws Exception {
+        ByteBuffer indexBuffer = ByteBuffer.allocate(DataStoreUtils.STORE_INDEX_HEAD_LEN);
+        indexBuffer.putInt(partitionId);
+        indexBuffer.putLong(ordinal * 100L);
+        indexBuffer.putInt(100);
+        indexBuffer.putInt(0);
+        indexBuffer.putLong(System.currentTimeMillis());
+        indexBuffer.flip();
+        indexSegment.append(indexBuffer, 0, 0);
+    }
+}
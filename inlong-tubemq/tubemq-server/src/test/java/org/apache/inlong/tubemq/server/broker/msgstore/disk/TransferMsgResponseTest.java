@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.server.broker.msgstore.disk;
+
+import org.apache.inlong.tubemq.corebase.protobuf.generated.ClientBroker;
+import org.apache.inlong.tubemq.corerpc.server.FileTransferRegion;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * TransferMsgResponse test.
+ */
+public class TransferMsgResponseTest {
+
+    @Test
+    public void testEncodeMessages() throws Exception {
+        File file = File.createTempFile("testtransfer", null);
+        FileSegment fileSegment = new FileSegment(100, file, true, SegmentType.DATA);
+        try {
+            byte[] smallData = "small payload".getBytes();
+            byte[] largeData = new byte[TransferMsgResponse.MIN_TRANSFER_PAYLOAD_SIZE + 10];
+            Arrays.fill(largeData, (byte) 'x');
+            long appendTime = System.currentTimeMillis();
+            long smallOffset = fileSegment.append(ByteBuffer.wrap(smallData), appendTime, appendTime);
+            long largeOffset = fileSegment.append(ByteBuffer.wrap(largeData), appendTime, appendTime);
+            fileSegment.flush(true);
+            TransferMsgResponse transferRsp = new TransferMsgResponse();
+            Assert.assertTrue(transferRsp.isEmpty());
+            Assert.assertTrue(transferRsp.addMessage(1L, -5, 0, fileSegment, smallOffset, smallData.length));
+            Assert.assertTrue(transferRsp.addMessage(-2L, 7, 1, fileSegment, largeOffset, largeData.length));
+            Assert.assertEquals(2, transferRsp.getMsgCount());
+            Assert.assertEquals(1, transferRsp.getRegionCount());
+            ClientBroker.GetMessageResponseB2C.Builder builder =
+                    ClientBroker.GetMessageResponseB2C.newBuilder();
+            builder.setSuccess(true);
+            builder.setErrCode(200);
+            builder.setCurrOffset(28);
+            transferRsp.setResponseHead(builder.build());
+            // assemble the segments like the rpc layer does
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            for (Object segment : transferRsp.getSegments()) {
+                if (segment instanceof FileTransferRegion) {
+                    FileTransferRegion region = (FileTransferRegion) segment;
+                    ByteBuffer regionBuf = ByteBuffer.allocate(region.getCount());
+                    region.getChannel().read(regionBuf, region.getPosition());
+                    out.write(regionBuf.array());
+                } else {
+                    ByteBuffer buffer = ((ByteBuffer) segment).duplicate();
+                    byte[] bytes = new byte[buffer.remaining()];
+                    buffer.get(bytes);
+                    out.write(bytes);
+                }
+            }
+            byte[] encoded = out.toByteArray();
+            Assert.assertEquals(transferRsp.getSerializedSize(), encoded.length);
+            ClientBroker.GetMessageResponseB2C response =
+                    ClientBroker.GetMessageResponseB2C.parseFrom(encoded);
+            Assert.assertTrue(response.getSuccess());
+            Assert.assertEquals(28, response.getCurrOffset());
+            Assert.assertEquals(2, response.getMessagesCount());
+            Assert.assertEquals(1L, response.getMessages(0).getMessageId());
+            Assert.assertEquals(-5, response.getMessages(0).getCheckSum());
+            Assert.assertArrayEquals(smallData, response.getMessages(0).getPayLoadData().toByteArray());
+            Assert.assertEquals(-2L, response.getMessages(1).getMessageId());
+            Assert.assertEquals(1, response.getMessages(1).getFlag());
+            Assert.assertArrayEquals(largeData, response.getMessages(1).getPayLoadData().toByteArray());
+        } finally {
+            fileSegment.close();
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testDeferDeleteWhileTransferring() throws Exception {
+        File file = File.createTempFile("testtransfer", null);
+        FileSegment fileSegment = new FileSegment(0, file, true, SegmentType.DATA);
+        byte[] data = "transferred payload".getBytes();
+        long appendTime = System.currentTimeMillis();
+        long offset = fileSegment.append(ByteBuffer.wrap(data), appendTime, appendTime);
+        fileSegment.flush(true);
+        FileTransferRegion region = fileSegment.getTransferRegion(offset, data.length);
+        // the file is kept open and readable until the region is released
+        fileSegment.deleteFile();
+        Assert.assertTrue(file.exists());
+        Assert.assertTrue(region.getChannel().isOpen());
+        ByteBuffer regionBuf = ByteBuffer.allocate(region.getCount());
+        region.getChannel().read(regionBuf, region.getPosition());
+        Assert.assertArrayEquals(data, regionBuf.array());
+        try {
+            fileSegment.getTransferRegion(offset, data.length);
+            Assert.fail("the closed segment should not hand out regions");
+        } catch (IOException e) {
+            // expected
+        }
+        region.release();
+        Assert.assertFalse(region.getChannel().isOpen());
+        Assert.assertFalse(file.exists());
+        // released only once
+        region.release();
+    }
+}
@@ -21,9 +21,11 @@ import org.apache.inlong.tubemq.server.broker.stats.MsgStoreStatsHolder;
 import org.apache.inlong.tubemq.server.broker.utils.DataStoreUtils;
 import org.apache.inlong.tubemq.server.common.utils.AppendResult;
 
+import org.junit.Assert;
 import org.junit.Test;
 
 import java.nio.ByteBuffer;
+import java.util.concurrent.CountDownLatch;
 
 /**
  * MsgMemStore test.
@@ -105,4 +107,131 @@ public class MsgMemStoreTest {
         // get messages
         GetCacheMsgResult getCacheMsgResult = msgMemStore.getMessages(0, 2, 1024, 1000, 0, false, false, null, 0);
     }
+
+    @Test
+    public void appendMsgBatch() {
+        byte[] testData = "abcabdcdsdsdasdfasdfasdfsadfasdfasdfasdfasdfaaaaaaaaaaa".getBytes();
+        int batchSize = 3;
+        int[] keyCodes = new int[batchSize];
+        ByteBuffer[] indexEntries = new ByteBuffer[batchSize];
+        ByteBuffer[] dataEntries = new ByteBuffer[batchSize];
+        AppendResult[] appendResults = new AppendResult[batchSize];
+        for (int i = 0; i < batchSize; i++) {
+            // build data buffer
+            final ByteBuffer dataBuffer =
+                    ByteBuffer.allocate(DataStoreUtils.STORE_DATA_HEADER_LEN + testData.length);
+            dataBuffer.putInt(DataStoreUtils.STORE_DATA_PREFX_LEN + testData.length);
+            dataBuffer.putInt(DataStoreUtils.STORE_DATA_TOKER_BEGIN_VALUE);
+            dataBuffer.putInt(33);
+            dataBuffer.putInt(0);
+            dataBuffer.putLong(-1L);
+            dataBuffer.putLong(2222L);
+            dataBuffer.putInt(255555);
+            dataBuffer.putInt(11);
+            dataBuffer.putLong(222L + i);
+            dataBuffer.putInt(1);
+            dataBuffer.put(testData);
+            dataBuffer.flip();
+            // build index buffer
+            ByteBuffer indexBuffer =
+                    ByteBuffer.allocate(DataStoreUtils.STORE_INDEX_HEAD_LEN);
+            indexBuffer.putInt(0);
+            indexBuffer.putLong(-1L);
+            indexBuffer.putInt(3);
+            indexBuffer.putInt(32);
+            indexBuffer.putLong(System.currentTimeMillis());
+            indexBuffer.flip();
+            keyCodes[i] = 32;
+            indexEntries[i] = indexBuffer;
+            dataEntries[i] = dataBuffer;
+            appendResults[i] = new AppendResult();
+        }
+        // only two messages are allowed in cache
+        int maxCacheSize = 2 * 1024 * 1024;
+        int maxMsgCount = 2;
+        MsgMemStore msgMemStore = new MsgMemStore(maxCacheSize, maxMsgCount, 0, 0);
+        MsgStoreStatsHolder memStatsHolder = new MsgStoreStatsHolder();
+        int appendedCnt = msgMemStore.appendMsgBatch(memStatsHolder, 0, keyCodes,
+                System.currentTimeMillis(), indexEntries, dataEntries, appendResults);
+        Assert.assertEquals(2, appendedCnt);
+        Assert.assertEquals(2, msgMemStore.getCurMsgCount());
+        Assert.assertEquals(0L, appendResults[0].getAppendIndexOffset());
+        Assert.assertEquals(DataStoreUtils.STORE_INDEX_HEAD_LEN,
+                appendResults[1].getAppendIndexOffset());
+    }
+
+    @Test
+    public void appendMsgConcurrently() throws Exception {
+        final int threadCnt = 4;
+        final int msgCntPerThread = 500;
+        final byte[] testData = "abcabdcdsdsdasdfasdfasdfsadfasdfasdfasdfasdfaaaaaaaaaaa".getBytes();
+        final MsgMemStore msgMemStore = new MsgMemStore(
+                2 * 1024 * 1024, threadCnt * msgCntPerThread, 0, 0);
+        final MsgStoreStatsHolder memStatsHolder = new MsgStoreStatsHolder();
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        Thread[] writers = new Thread[threadCnt];
+        for (int i = 0; i < threadCnt; i++) {
+            final int partitionId = i;
+            writers[i] = new Thread(new Runnable() {
+
+                @Override
+                public void run() {
+                    try {
+                        startLatch.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int j = 0; j < msgCntPerThread; j++) {
+                        final ByteBuffer dataBuffer =
+                                ByteBuffer.allocate(DataStoreUtils.STORE_DATA_HEADER_LEN + testData.length);
+                        dataBuffer.putInt(DataStoreUtils.STORE_DATA_PREFX_LEN + testData.length);
+                        dataBuffer.putInt(DataStoreUtils.STORE_DATA_TOKER_BEGIN_VALUE);
+                        dataBuffer.putInt(33);
+                        dataBuffer.putInt(0);
+                        dataBuffer.putLong(-1L);
+                        dataBuffer.putLong(2222L);
+                        dataBuffer.putInt(255555);
+                        dataBuffer.putInt(11);
+                        dataBuffer.putLong(j);
+                        dataBuffer.putInt(1);
+                        dataBuffer.put(testData);
+                        dataBuffer.flip();
+                        ByteBuffer indexBuffer =
+                                ByteBuffer.allocate(DataStoreUtils.STORE_INDEX_HEAD_LEN);
+                        indexBuffer.putInt(partitionId);
+                        indexBuffer.putLong(-1L);
+                        indexBuffer.putInt(dataBuffer.remaining());
+                        indexBuffer.putInt(32);
+                        indexBuffer.putLong(System.currentTimeMillis());
+                        indexBuffer.flip();
+                        msgMemStore.appendMsg(memStatsHolder, partitionId, 32,
+                                System.currentTimeMillis(), indexBuffer,
+                                dataBuffer.remaining(), dataBuffer, new AppendResult());
+                    }
+                }
+            });
+            writers[i].start();
+        }
+        startLatch.countDown();
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        Assert.assertEquals(threadCnt * msgCntPerThread, msgMemStore.getCurMsgCount());
+        Assert.assertEquals(threadCnt * msgCntPerThread * DataStoreUtils.STORE_INDEX_HEAD_LEN,
+                msgMemStore.getIndexCacheSize());
+        Assert.assertEquals(threadCnt * msgCntPerThread
+                * (DataStoreUtils.STORE_DATA_HEADER_LEN + testData.length),
+                msgMemStore.getCurDataCacheSize());
+        // each partition reads back all its messages
+        for (int i = 0; i < threadCnt; i++) {
+            GetCacheMsgResult result = msgMemStore.getMessages(0, 0,
+                    Integer.MAX_VALUE, threadCnt * msgCntPerThread, i, false, false, null, 0);
+            Assert.assertTrue(result.isSuccess);
+            Assert.assertEquals(msgCntPerThread, result.cacheMsgList.size());
+        }
+        // the message is full
+        Assert.assertFalse(msgMemStore.appendMsg(memStatsHolder, 0, 32,
+                System.currentTimeMillis(), ByteBuffer.allocate(DataStoreUtils.STORE_INDEX_HEAD_LEN),
+                1, ByteBuffer.allocate(1), new AppendResult()));
+    }
 }
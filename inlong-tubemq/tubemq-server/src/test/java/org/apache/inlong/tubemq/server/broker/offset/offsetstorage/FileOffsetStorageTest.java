@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.server.broker.offset.offsetstorage;
+
+import org.apache.inlong.tubemq.server.broker.utils.DataStoreUtils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * FileOffsetStorage test.
+ */
+public class FileOffsetStorageTest {
+
+    private static final long UNIT = DataStoreUtils.STORE_INDEX_HEAD_LEN;
+
+    @Test
+    public void testCommitAndRecover() throws Exception {
+        File storeDir = Files.createTempDirectory("testoffset").toFile();
+        FileOffsetStorage storage = new FileOffsetStorage(
+                storeDir.getAbsolutePath(), 1, 1024 * 1024L, null, 1000L);
+        commitOffsets(storage, "group1", "topic1", 3, 10);
+        commitOffsets(storage, "group2", "topic2", 2, 20);
+        storage.flush();
+        // the later commit overwrites the former
+        commitOffsets(storage, "group1", "topic1", 1, 30);
+        storage.flush();
+        storage.close();
+        // reload from the offset log
+        storage = new FileOffsetStorage(
+                storeDir.getAbsolutePath(), 1, 1024 * 1024L, null, 1000L);
+        Assert.assertEquals(30 * UNIT, storage.loadOffset("group1", "topic1", 0).getOffset());
+        Assert.assertEquals(10 * UNIT, storage.loadOffset("group1", "topic1", 2).getOffset());
+        Assert.assertEquals(20 * UNIT, storage.loadOffset("group2", "topic2", 1).getOffset());
+        Assert.assertNull(storage.loadOffset("group2", "topic2", 2));
+        Map<String, Set<String>> groupTopicMap = storage.queryZkAllGroupTopicInfos();
+        Assert.assertEquals(2, groupTopicMap.size());
+        Assert.assertEquals(Collections.singleton("topic1"), groupTopicMap.get("group1"));
+        // delete the offsets of group2
+        Map<String, Set<Integer>> topicPartMap = new HashMap<>();
+        topicPartMap.put("topic2", new HashSet<>(Arrays.asList(0, 1)));
+        Map<String, Map<String, Set<Integer>>> groupTopicPartMap = new HashMap<>();
+        groupTopicPartMap.put("group2", topicPartMap);
+        storage.deleteGroupOffsetInfo(groupTopicPartMap);
+        storage.close();
+        storage = new FileOffsetStorage(
+                storeDir.getAbsolutePath(), 1, 1024 * 1024L, null, 1000L);
+        Assert.assertNull(storage.loadOffset("group2", "topic2", 1));
+        Assert.assertEquals(1, storage.queryZkAllGroupTopicInfos().size());
+        storage.close();
+    }
+
+    @Test
+    public void testCompactAndTornRecord() throws Exception {
+        File storeDir = Files.createTempDirectory("testoffset").toFile();
+        // compact the offset log after each flush
+        FileOffsetStorage storage = new FileOffsetStorage(
+                storeDir.getAbsolutePath(), 1, 1L, null, 1000L);
+        for (int i = 1; i <= 5; i++) {
+            commitOffsets(storage, "group1", "topic1", 4, i);
+            storage.flush();
+        }
+        Assert.assertEquals(0L, new File(storeDir, "offsets.wal").length());
+        Assert.assertTrue(new File(storeDir, "offsets.snapshot").length() > 0);
+        storage.close();
+        storage = new FileOffsetStorage(
+                storeDir.getAbsolutePath(), 1, 1024 * 1024L, null, 1000L);
+        commitOffsets(storage, "group1", "topic1", 1, 6);
+        storage.flush();
+        storage.close();
+        // append a torn record to the offset log
+        File walFile = new File(storeDir, "offsets.wal");
+        long walSize = walFile.length();
+        try (RandomAccessFile raf = new RandomAccessFile(walFile, "rw")) {
+            raf.seek(walSize);
+            raf.writeInt(100);
+            raf.writeInt(12345);
+            raf.write(new byte[10]);
+        }
+        storage = new FileOffsetStorage(
+                storeDir.getAbsolutePath(), 1, 1024 * 1024L, null, 1000L);
+        Assert.assertEquals(walSize, walFile.length());
+        Assert.assertEquals(6 * UNIT, storage.loadOffset("group1", "topic1", 0).getOffset());
+        Assert.assertEquals(5 * UNIT, storage.loadOffset("group1", "topic1", 3).getOffset());
+        Map<Integer, Long> offsetMap = storage.queryGroupOffsetInfo("group1", "topic1",
+                new HashSet<>(Arrays.asList(1, 9)));
+        Assert.assertEquals(Long.valueOf(5 * UNIT), offsetMap.get(1));
+        Assert.assertNull(offsetMap.get(9));
+        storage.close();
+    }
+
+    @Test
+    public void testDeletedNotLoadedFromMirror() throws Exception {
+        // the mirror keeps the offsets whose deletion failed
+        File mirrorDir = Files.createTempDirectory("testmirror").toFile();
+        FileOffsetStorage mirror = new FileOffsetStorage(
+                mirrorDir.getAbsolutePath(), 1, 1024 * 1024L, null, 1000L) {
+
+            @Override
+            public void deleteGroupOffsetInfo(Map<String, Map<String, Set<Integer>>> groupTopicPartMap) {
+            }
+        };
+        commitOffsets(mirror, "group1", "topic1", 2, 10);
+        mirror.flush();
+        File storeDir = Files.createTempDirectory("testoffset").toFile();
+        FileOffsetStorage storage = new FileOffsetStorage(
+                storeDir.getAbsolutePath(), 1, 1024 * 1024L, mirror, 1000L);
+        Assert.assertEquals(10 * UNIT, storage.loadOffset("group1", "topic1", 0).getOffset());
+        Map<String, Set<Integer>> topicPartMap = new HashMap<>();
+        topicPartMap.put("topic1", new HashSet<>(Arrays.asList(0, 1)));
+        Map<String, Map<String, Set<Integer>>> groupTopicPartMap = new HashMap<>();
+        groupTopicPartMap.put("group1", topicPartMap);
+        storage.deleteGroupOffsetInfo(groupTopicPartMap);
+        Assert.assertNull(storage.loadOffset("group1", "topic1", 0));
+        Assert.assertNull(storage.queryGroupOffsetInfo("group1", "topic1",
+                Collections.singleton(1)).get(1));
+        Assert.assertTrue(storage.queryZkAllGroupTopicInfos().isEmpty());
+        storage.close();
+        // the deletion survives the compaction and the reloading
+        storage = new FileOffsetStorage(
+                storeDir.getAbsolutePath(), 1, 1L, mirror, 1000L);
+        commitOffsets(storage, "group2", "topic2", 1, 20);
+        storage.flush();
+        Assert.assertEquals(0L, new File(storeDir, "offsets.wal").length());
+        storage.close();
+        storage = new FileOffsetStorage(
+                storeDir.getAbsolutePath(), 1, 1024 * 1024L, mirror, 1000L);
+        Assert.assertNull(storage.loadOffset("group1", "topic1", 1));
+        // the committed offset is loaded again
+        commitOffsets(storage, "group1", "topic1", 1, 30);
+        Assert.assertEquals(30 * UNIT, storage.loadOffset("group1", "topic1", 0).getOffset());
+        Assert.assertNull(storage.loadOffset("group1", "topic1", 1));
+        storage.close();
+        mirror.close();
+    }
+
+    private void commitOffsets(FileOffsetStorage storage, String group,
+            String topic, int partitionCnt, long offsetUnits) {
+        List<OffsetStorageInfo> infoList = new ArrayList<>();
+        for (int i = 0; i < partitionCnt; i++) {
+            infoList.add(new OffsetStorageInfo(topic, 1, i, offsetUnits * UNIT, offsetUnits));
+        }
+        storage.commitOffset(group, infoList, false);
+    }
+}
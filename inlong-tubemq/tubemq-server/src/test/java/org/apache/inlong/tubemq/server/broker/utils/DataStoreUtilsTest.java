@@ -17,10 +17,16 @@
 
 package org.apache.inlong.tubemq.server.broker.utils;
 
+import org.apache.inlong.tubemq.corebase.protobuf.generated.ClientBroker;
+import org.apache.inlong.tubemq.server.broker.stats.ReadTrafficCounter;
+import org.apache.inlong.tubemq.server.broker.stats.TrafficInfo;
+
 import org.junit.Assert;
 import org.junit.Test;
 
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
 
 /**
  * DataStoreUtils test.
@@ -37,4 +43,94 @@ public class DataStoreUtilsTest {
         // get int by DataStoreUtils
         Assert.assertEquals(val, 123);
     }
+
+    @Test
+    public void msgTimeMinuteCode() {
+        String[] msgTimes = {"202001010000", "202207041219", "202402292359", "205012312359"};
+        for (String msgTime : msgTimes) {
+            int minuteCode = DataStoreUtils.msgTimeToMinuteCode(msgTime);
+            Assert.assertTrue(minuteCode > 0);
+            Assert.assertEquals(msgTime, DataStoreUtils.minuteCodeToMsgTime(minuteCode));
+        }
+        Assert.assertEquals(0, DataStoreUtils.msgTimeToMinuteCode(""));
+        Assert.assertEquals("", DataStoreUtils.minuteCodeToMsgTime(0));
+        Assert.assertEquals(-1, DataStoreUtils.msgTimeToMinuteCode("20220704121"));
+        Assert.assertEquals(-1, DataStoreUtils.msgTimeToMinuteCode("2022070412a9"));
+        Assert.assertEquals(-1, DataStoreUtils.msgTimeToMinuteCode("201912312359"));
+        Assert.assertEquals(-1, DataStoreUtils.msgTimeToMinuteCode("202213010000"));
+        // the minute codes keep the time order
+        Assert.assertTrue(DataStoreUtils.msgTimeToMinuteCode("202207041219") < DataStoreUtils
+                .msgTimeToMinuteCode("202207041220"));
+    }
+
+    @Test
+    public void storeMsgFlag() {
+        int storeFlag = DataStoreUtils.buildStoreMsgFlag(3, "205012312359");
+        Assert.assertTrue(DataStoreUtils.hasMsgTimeCode(storeFlag));
+        Assert.assertEquals(3, DataStoreUtils.getClientMsgFlag(storeFlag));
+        Assert.assertEquals("205012312359",
+                DataStoreUtils.minuteCodeToMsgTime(DataStoreUtils.getMsgTimeCode(storeFlag)));
+        // blank msgTime is coded as 0
+        storeFlag = DataStoreUtils.buildStoreMsgFlag(1, null);
+        Assert.assertTrue(DataStoreUtils.hasMsgTimeCode(storeFlag));
+        Assert.assertEquals(0, DataStoreUtils.getMsgTimeCode(storeFlag));
+        // the flag is kept when the msgTime can not be coded
+        Assert.assertEquals(1, DataStoreUtils.buildStoreMsgFlag(1, "2022"));
+        Assert.assertEquals(1, DataStoreUtils.getClientMsgFlag(1));
+        // the msgTime is parsed from attributes when the request does not carry it
+        byte[] msgData = buildMsgData("$msgType$=test,$msgTime$=202207041219", "data");
+        storeFlag = DataStoreUtils.buildStoreMsgFlag(1, "", msgData);
+        Assert.assertEquals("202207041219",
+                DataStoreUtils.minuteCodeToMsgTime(DataStoreUtils.getMsgTimeCode(storeFlag)));
+    }
+
+    @Test
+    public void getTransferMsgTraffic() {
+        byte[] msgData = buildMsgData("$msgTime$=202207041219", "data");
+        ReadTrafficCounter trafficCounter = new ReadTrafficCounter("test#1");
+        // the coded message and the legacy message are counted in the same key
+        ClientBroker.TransferedMessage message = DataStoreUtils.getTransferMsg(
+                buildStoreData(msgData, DataStoreUtils.buildStoreMsgFlag(1, "202207041219")),
+                DataStoreUtils.STORE_DATA_HEADER_LEN + msgData.length, trafficCounter);
+        Assert.assertNotNull(message);
+        Assert.assertEquals(1, message.getFlag());
+        message = DataStoreUtils.getTransferMsg(buildStoreData(msgData, 1),
+                DataStoreUtils.STORE_DATA_HEADER_LEN + msgData.length, trafficCounter);
+        Assert.assertNotNull(message);
+        Assert.assertEquals(1, message.getFlag());
+        Map<String, TrafficInfo> countMap = trafficCounter.toCountMap(new StringBuilder());
+        Assert.assertEquals(1, countMap.size());
+        TrafficInfo trafficInfo = countMap.get("test#1#202207041219");
+        Assert.assertNotNull(trafficInfo);
+        Assert.assertEquals(2L, trafficInfo.getMsgCount());
+        Assert.assertEquals(2L * msgData.length, trafficInfo.getMsgSize());
+    }
+
+    private byte[] buildMsgData(String attribute, String payload) {
+        byte[] attrData = attribute.getBytes(StandardCharsets.UTF_8);
+        byte[] payloadData = payload.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(4 + attrData.length + payloadData.length);
+        buffer.putInt(attrData.length);
+        buffer.put(attrData);
+        buffer.put(payloadData);
+        return buffer.array();
+    }
+
+    private ByteBuffer buildStoreData(byte[] msgData, int storeFlag) {
+        ByteBuffer buffer =
+                ByteBuffer.allocate(DataStoreUtils.STORE_DATA_HEADER_LEN + msgData.length);
+        buffer.putInt(DataStoreUtils.STORE_DATA_PREFX_LEN + msgData.length);
+        buffer.putInt(DataStoreUtils.STORE_DATA_TOKER_BEGIN_VALUE);
+        buffer.putInt(0);
+        buffer.putInt(1);
+        buffer.putLong(-1L);
+        buffer.putLong(System.currentTimeMillis());
+        buffer.putInt(0);
+        buffer.putInt(0);
+        buffer.putLong(1L);
+        buffer.putInt(storeFlag);
+        buffer.put(msgData);
+        buffer.flip();
+        return buffer;
+    }
 }
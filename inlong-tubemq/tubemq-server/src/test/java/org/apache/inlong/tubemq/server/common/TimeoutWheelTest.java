@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.server.common;
+
+import org.apache.inlong.tubemq.server.common.heartbeat.TimeoutInfo;
+import org.apache.inlong.tubemq.server.common.heartbeat.TimeoutWheel;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class TimeoutWheelTest {
+
+    @Test
+    public void testExpireAndReschedule() throws Exception {
+        TimeoutWheel timeoutWheel = new TimeoutWheel(10, 8);
+        Map<String, TimeoutInfo> nodeMap = new ConcurrentHashMap<>();
+        long startTime = System.currentTimeMillis();
+        // node1 times out, node2 sends heartbeats, node3 is unregistered
+        for (String nodeId : new String[]{"node1", "node2", "node3"}) {
+            TimeoutInfo timeoutInfo = new TimeoutInfo(50);
+            nodeMap.put(nodeId, timeoutInfo);
+            timeoutWheel.schedule(nodeId, timeoutInfo);
+        }
+        nodeMap.remove("node3");
+        Assert.assertTrue(timeoutWheel.advance(nodeMap, startTime + 20).isEmpty());
+        nodeMap.get("node2").updTimeoutTime(1000);
+        List<TimeoutWheel.WheelEntry> expired = timeoutWheel.advance(nodeMap, startTime + 100);
+        Assert.assertEquals(1, expired.size());
+        Assert.assertEquals("node1", expired.get(0).getNodeId());
+        Assert.assertFalse(nodeMap.containsKey("node1"));
+        Assert.assertTrue(nodeMap.containsKey("node2"));
+        // node2 is kept for more than a round of the wheel
+        Assert.assertTrue(timeoutWheel.advance(nodeMap, startTime + 500).isEmpty());
+        expired = timeoutWheel.advance(nodeMap, nodeMap.get("node2").getTimeoutTime());
+        Assert.assertEquals(1, expired.size());
+        Assert.assertEquals("node2", expired.get(0).getNodeId());
+        Assert.assertTrue(nodeMap.isEmpty());
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.server.common.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * IntIntHashMap test.
+ */
+public class IntIntHashMapTest {
+
+    @Test
+    public void testPutAndGet() {
+        IntIntHashMap map = new IntIntHashMap(4, -1);
+        Assert.assertTrue(map.isEmpty());
+        Assert.assertEquals(-1, map.get(0));
+        map.put(0, 10);
+        map.put(-5, 20);
+        map.put(Integer.MIN_VALUE, 30);
+        Assert.assertEquals(10, map.get(0));
+        Assert.assertEquals(20, map.get(-5));
+        Assert.assertEquals(30, map.get(Integer.MIN_VALUE));
+        map.put(0, 11);
+        Assert.assertEquals(11, map.get(0));
+        Assert.assertEquals(3, map.size());
+        // grow over the initial capacity
+        for (int i = 1; i <= 1000; i++) {
+            map.put(i * 7919, i);
+        }
+        Assert.assertEquals(1003, map.size());
+        for (int i = 1; i <= 1000; i++) {
+            Assert.assertEquals(i, map.get(i * 7919));
+        }
+        Assert.assertEquals(-1, map.get(3));
+        map.clear();
+        Assert.assertEquals(0, map.size());
+        Assert.assertEquals(-1, map.get(0));
+        Assert.assertEquals(-1, map.get(7919));
+    }
+}
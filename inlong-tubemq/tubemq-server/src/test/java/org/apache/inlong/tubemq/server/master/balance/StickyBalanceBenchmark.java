@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.server.master.balance;
+
+import org.apache.inlong.tubemq.corebase.cluster.Partition;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Simulate the rebalances of a group with 10k partitions and 1k consumers, when one
+ * consumer joins or leaves, and compare the partition moves and the planning time of
+ * the sorted modulo assignment used by bukAssign() and the sticky planning.
+ * Run it by main(), a move is a partition connected to a consumer not holding it before.
+ */
+public class StickyBalanceBenchmark {
+
+    private static final int PARTITION_COUNT = 10000;
+    private static final int CONSUMER_COUNT = 1000;
+    private static final int ROUNDS = 20;
+
+    public static void main(String[] args) {
+        Map<String, Partition> partMap = StickyLoadBalancerTest.buildPartitions(PARTITION_COUNT);
+        List<Partition> sortedParts = new ArrayList<>(partMap.values());
+        Collections.sort(sortedParts);
+        List<String> consumers = new ArrayList<>();
+        for (int i = 0; i < CONSUMER_COUNT; i++) {
+            consumers.add(String.format("consumer-%05d", i));
+        }
+        Map<String, Map<String, Map<String, Partition>>> modState = new HashMap<>();
+        Map<String, Map<String, Map<String, Partition>>> stickyState = new HashMap<>();
+        StickyLoadBalancerTest.apply(modAssign(sortedParts, consumers), modState);
+        StickyLoadBalancerTest.apply(StickyLoadBalancer.planGroup(consumers,
+                Collections.emptySet(), stickyState, partMap), stickyState);
+        long modMoves = 0;
+        long stickyMoves = 0;
+        long modNanos = 0;
+        long stickyNanos = 0;
+        int nextConsumerId = CONSUMER_COUNT;
+        for (int round = 0; round < ROUNDS; round++) {
+            if (round % 2 == 0) {
+                consumers.add(String.format("consumer-%05d", nextConsumerId++));
+            } else {
+                String leftId = consumers.remove(round % consumers.size());
+                modState.remove(leftId);
+                stickyState.remove(leftId);
+            }
+            long startTime = System.nanoTime();
+            Map<String, Map<String, List<Partition>>> modPlan = modAssign(sortedParts, consumers);
+            modNanos += System.nanoTime() - startTime;
+            modMoves += StickyLoadBalancerTest.apply(modPlan, modState);
+            startTime = System.nanoTime();
+            Map<String, Map<String, List<Partition>>> stickyPlan = StickyLoadBalancer.planGroup(
+                    consumers, Collections.emptySet(), stickyState, partMap);
+            stickyNanos += System.nanoTime() - startTime;
+            stickyMoves += StickyLoadBalancerTest.apply(stickyPlan, stickyState);
+        }
+        System.out.println(new StringBuilder(256)
+                .append("partitions=").append(PARTITION_COUNT)
+                .append(", consumers=").append(CONSUMER_COUNT)
+                .append(", rebalances=").append(ROUNDS).toString());
+        System.out.println(new StringBuilder(256)
+                .append("sorted modulo: ").append(modMoves / ROUNDS).append(" moves/rebalance, ")
+                .append(modNanos / ROUNDS / 1000).append(" us/rebalance").toString());
+        System.out.println(new StringBuilder(256)
+                .append("sticky: ").append(stickyMoves / ROUNDS).append(" moves/rebalance, ")
+                .append(stickyNanos / ROUNDS / 1000).append(" us/rebalance").toString());
+    }
+
+    /**
+     * The full assignment as bukAssign(), sort the consumers and partitions, then mod
+     */
+    private static Map<String, Map<String, List<Partition>>> modAssign(
+            List<Partition> sortedParts, List<String> consumers) {
+        List<String> sortedConsumers = new ArrayList<>(consumers);
+        Collections.sort(sortedConsumers);
+        Map<String, Map<String, List<Partition>>> assignment = new HashMap<>();
+        int partsPerConsumer = sortedParts.size() / sortedConsumers.size();
+        int consumersWithExtraPart = sortedParts.size() % sortedConsumers.size();
+        for (int i = 0; i < sortedConsumers.size(); i++) {
+            List<Partition> partList = new ArrayList<>();
+            int startIndex = partsPerConsumer * i + Math.min(i, consumersWithExtraPart);
+            int parts = partsPerConsumer + ((i + 1) > consumersWithExtraPart ? 0 : 1);
+            for (int j = startIndex; j < startIndex + parts; j++) {
+                partList.add(sortedParts.get(j));
+            }
+            Map<String, List<Partition>> topicParts = new HashMap<>();
+            topicParts.put("topic", partList);
+            assignment.put(sortedConsumers.get(i), topicParts);
+        }
+        return assignment;
+    }
+}
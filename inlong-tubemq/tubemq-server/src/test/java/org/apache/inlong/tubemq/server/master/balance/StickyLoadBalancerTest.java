@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.inlong.tubemq.server.master.balance;
+
+import org.apache.inlong.tubemq.corebase.cluster.BrokerInfo;
+import org.apache.inlong.tubemq.corebase.cluster.Partition;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class StickyLoadBalancerTest {
+
+    @Test
+    public void testPlanWithMinimalMoves() {
+        Map<String, Partition> partMap = buildPartitions(10);
+        List<String> consumers = new ArrayList<>(Arrays.asList("c1", "c2", "c3"));
+        Map<String, Map<String, Map<String, Partition>>> clusterState = new HashMap<>();
+        // initial assignment from empty
+        Map<String, Map<String, List<Partition>>> plan = StickyLoadBalancer.planGroup(
+                consumers, Collections.emptySet(), clusterState, partMap);
+        Assert.assertEquals(10, apply(plan, clusterState));
+        assertBalanced(clusterState, consumers, 10);
+        // a consumer joins, only the partitions over the new quotas move
+        consumers.add("c4");
+        plan = StickyLoadBalancer.planGroup(consumers,
+                Collections.emptySet(), clusterState, partMap);
+        Assert.assertEquals(2, apply(plan, clusterState));
+        assertBalanced(clusterState, consumers, 10);
+        // a consumer leaves, only its partitions move
+        consumers.remove("c1");
+        int c1Cnt = 0;
+        for (Map<String, Partition> parts : clusterState.remove("c1").values()) {
+            c1Cnt += parts.size();
+        }
+        plan = StickyLoadBalancer.planGroup(consumers,
+                Collections.emptySet(), clusterState, partMap);
+        Assert.assertEquals(c1Cnt, apply(plan, clusterState));
+        assertBalanced(clusterState, consumers, 10);
+        // a consumer required to release its partitions keeps the topic with empty list
+        Set<String> releaseIds = new HashSet<>(Collections.singletonList("c2"));
+        plan = StickyLoadBalancer.planGroup(consumers, releaseIds, clusterState, partMap);
+        Assert.assertTrue(plan.get("c2").get("topic").isEmpty());
+        Assert.assertEquals(10, countParts(plan.get("c3")) + countParts(plan.get("c4")));
+    }
+
+    static Map<String, Partition> buildPartitions(int count) {
+        Map<String, Partition> partMap = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            BrokerInfo brokerInfo = new BrokerInfo(i % 10, "127.0.0." + (i % 10), 8123);
+            Partition partition = new Partition(brokerInfo, "topic", i);
+            partMap.put(partition.getPartitionKey(), partition);
+        }
+        return partMap;
+    }
+
+    /**
+     * Apply the plan to the current assignment
+     *
+     * @return the count of partitions connected to a new consumer
+     */
+    static int apply(Map<String, Map<String, List<Partition>>> plan,
+            Map<String, Map<String, Map<String, Partition>>> clusterState) {
+        int moveCnt = 0;
+        for (Map.Entry<String, Map<String, List<Partition>>> entry : plan.entrySet()) {
+            Map<String, Map<String, Partition>> oldTopics = clusterState.get(entry.getKey());
+            Map<String, Map<String, Partition>> newTopics = new HashMap<>();
+            for (Map.Entry<String, List<Partition>> topicEntry : entry.getValue().entrySet()) {
+                Map<String, Partition> parts = new HashMap<>();
+                for (Partition partition : topicEntry.getValue()) {
+                    parts.put(partition.getPartitionKey(), partition);
+                    if (oldTopics == null || oldTopics.get(topicEntry.getKey()) == null
+                            || !oldTopics.get(topicEntry.getKey()).containsKey(partition.getPartitionKey())) {
+                        moveCnt++;
+                    }
+                }
+                newTopics.put(topicEntry.getKey(), parts);
+            }
+            clusterState.put(entry.getKey(), newTopics);
+        }
+        return moveCnt;
+    }
+
+    private static int countParts(Map<String, List<Partition>> topicParts) {
+        int count = 0;
+        for (List<Partition> parts : topicParts.values()) {
+            count += parts.size();
+        }
+        return count;
+    }
+
+    private static void assertBalanced(Map<String, Map<String, Map<String, Partition>>> clusterState,
+            List<String> consumers, int partCnt) {
+        Set<String> assigned = new HashSet<>();
+        for (String consumerId : consumers) {
+            int count = 0;
+            for (Map<String, Partition> parts : clusterState.get(consumerId).values()) {
+                count += parts.size();
+                for (String partKey : parts.keySet()) {
+                    Assert.assertTrue(assigned.add(partKey));
+                }
+            }
+            Assert.assertTrue(count >= partCnt / consumers.size());
+            Assert.assertTrue(count <= (partCnt + consumers.size() - 1) / consumers.size());
+        }
+        Assert.assertEquals(partCnt, assigned.size());
+    }
+}